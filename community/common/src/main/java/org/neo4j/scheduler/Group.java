@@ -43,6 +43,8 @@ public enum Group
     LOG_ROTATION( "LogRotation" ),
     /** Checkpoint and store flush. */
     CHECKPOINT( "CheckPoint" ),
+    /** Applies recovered transactions concurrently. */
+    RECOVERY( "Recovery" ),
     /** Various little periodic tasks that need to be done on a regular basis to keep the store in good shape. */
     STORAGE_MAINTENANCE( "StorageMaintenance" ),
     /** Terminates kernel transactions that have timed out. */
@@ -133,6 +133,7 @@ import static org.junit.Assert.fail;
 import static org.neo4j.graphdb.RelationshipType.withName;
 import static org.neo4j.graphdb.facade.GraphDatabaseDependencies.newDependencies;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.default_schema_provider;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.recovery_parallelism;
 import static org.neo4j.helpers.ArrayUtil.array;
 import static org.neo4j.helpers.collection.Iterables.asList;
 import static org.neo4j.helpers.collection.Iterables.count;
@@ -476,6 +477,57 @@ public class RecoveryIT
         }
     }
 
+    @Test
+    public void shouldRecoverTheSameRecordsInParallelAsSerially() throws Exception
+    {
+        // given
+        EphemeralFileSystemAbstraction fs = new EphemeralFileSystemAbstraction();
+        GraphDatabaseService db = new TestGraphDatabaseFactory().setFileSystem( fs ).newImpermanentDatabase( directory.databaseDir() );
+        produceRandomGraphUpdates( db, 100 );
+        checkPoint( db );
+        produceRandomGraphUpdates( db, 500 );
+        flush( db );
+        long lastCommittedTxId = lastCommittedTxId( db );
+        EphemeralFileSystemAbstraction crashedFs = fs.snapshot();
+        db.shutdown();
+        fs.close();
+
+        // when
+        EphemeralFileSystemAbstraction serialFs = recoverSnapshot( crashedFs, 1, lastCommittedTxId );
+        EphemeralFileSystemAbstraction parallelFs = recoverSnapshot( crashedFs, 4, lastCommittedTxId );
+        crashedFs.close();
+
+        // then
+        try
+        {
+            assertSameStoreContents( serialFs, parallelFs, directory.databaseLayout() );
+        }
+        finally
+        {
+            serialFs.close();
+            parallelFs.close();
+        }
+    }
+
+    private EphemeralFileSystemAbstraction recoverSnapshot( EphemeralFileSystemAbstraction crashedFs, int parallelism, long lastCommittedTxId )
+    {
+        EphemeralFileSystemAbstraction fs = crashedFs.snapshot();
+        GraphDatabaseService db = new TestGraphDatabaseFactory().setFileSystem( fs )
+                .newEmbeddedDatabaseBuilder( directory.databaseDir() )
+                .setConfig( recovery_parallelism, String.valueOf( parallelism ) )
+                .newGraphDatabase();
+        try
+        {
+            assertEquals( lastCommittedTxId, lastCommittedTxId( db ) );
+            flush( db );
+            return fs.snapshot();
+        }
+        finally
+        {
+            db.shutdown();
+        }
+    }
+
     private static long lastCommittedTxId( GraphDatabaseService db )
     {
         return ((GraphDatabaseAPI)db).getDependencyResolver().resolveDependency( TransactionIdStore.class ).getLastClosedTransactionId();
@@ -0,0 +1,397 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.index;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.internal.kernel.api.Kernel;
+import org.neo4j.internal.kernel.api.exceptions.KernelException;
+import org.neo4j.internal.kernel.api.schema.SchemaDescriptor;
+import org.neo4j.kernel.api.index.IndexEntryUpdate;
+import org.neo4j.kernel.api.index.IndexPopulator;
+import org.neo4j.kernel.api.index.IndexUpdater;
+import org.neo4j.kernel.api.schema.SchemaDescriptorFactory;
+import org.neo4j.kernel.impl.api.DatabaseSchemaState;
+import org.neo4j.kernel.impl.locking.LockService;
+import org.neo4j.kernel.impl.storageengine.impl.recordstorage.RecordStorageEngine;
+import org.neo4j.kernel.impl.transaction.state.storeview.NeoStoreIndexStoreView;
+import org.neo4j.kernel.impl.transaction.state.storeview.PropertyAwareEntityStoreScan;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.storageengine.api.EntityType;
+import org.neo4j.storageengine.api.NodePropertyAccessor;
+import org.neo4j.storageengine.api.schema.IndexDescriptorFactory;
+import org.neo4j.test.TestGraphDatabaseFactory;
+import org.neo4j.util.FeatureToggles;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.neo4j.internal.kernel.api.Transaction.Type.implicit;
+import static org.neo4j.internal.kernel.api.security.LoginContext.AUTH_DISABLED;
+import static org.neo4j.kernel.impl.api.index.IndexingService.NO_MONITOR;
+
+public class ParallelStoreScanIndexPopulationTest
+{
+    private static final int SCAN_WORKERS = 4;
+    private static final int NUMBER_OF_ENTITIES = 5_000;
+    private static final int UPDATERS = 3;
+    private static final Label LABEL = Label.label( "LABEL" );
+    private static final RelationshipType TYPE = RelationshipType.withName( "TYPE" );
+    private static final String KEY = "key";
+
+    private GraphDatabaseAPI db;
+    private IndexStoreView storeView;
+
+    @Before
+    public void before()
+    {
+        FeatureToggles.set( BatchingMultipleIndexPopulator.class, MultipleIndexPopulator.QUEUE_THRESHOLD_NAME, 10 );
+        FeatureToggles.set( PropertyAwareEntityStoreScan.class, PropertyAwareEntityStoreScan.PARTITION_SIZE_NAME, 100 );
+        db = (GraphDatabaseAPI) new TestGraphDatabaseFactory().newImpermanentDatabase();
+        RecordStorageEngine storageEngine = db.getDependencyResolver().resolveDependency( RecordStorageEngine.class );
+        storeView = new NeoStoreIndexStoreView( db.getDependencyResolver().resolveDependency( LockService.class ),
+                storageEngine.testAccessNeoStores() );
+    }
+
+    @After
+    public void after()
+    {
+        db.shutdown();
+        FeatureToggles.clear( BatchingMultipleIndexPopulator.class, MultipleIndexPopulator.QUEUE_THRESHOLD_NAME );
+        FeatureToggles.clear( PropertyAwareEntityStoreScan.class, PropertyAwareEntityStoreScan.PARTITION_SIZE_NAME );
+    }
+
+    @Test
+    public void shouldPopulateRelationshipIndex() throws Exception
+    {
+        // given
+        Map<Long,Value> expected = new HashMap<>();
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node node = db.createNode();
+            for ( int i = 0; i < NUMBER_OF_ENTITIES; i++ )
+            {
+                Relationship relationship = node.createRelationshipTo( node, TYPE );
+                if ( i % 3 != 0 )
+                {
+                    relationship.setProperty( KEY, i );
+                    expected.put( relationship.getId(), Values.intValue( i ) );
+                }
+            }
+            tx.success();
+        }
+        SchemaDescriptor schema = relationshipSchema();
+        RecordingPopulator populator = new RecordingPopulator();
+
+        // when
+        newIndexPopulationJob( populator, schema, EntityType.RELATIONSHIP ).run();
+
+        // then
+        assertEquals( expected, populator.entries );
+    }
+
+    @Test
+    public void shouldApplyConcurrentUpdatesToPopulatedNodeIndex() throws Throwable
+    {
+        // given
+        List<Long> nodes = new ArrayList<>();
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( int i = 0; i < NUMBER_OF_ENTITIES; i++ )
+            {
+                Node node = db.createNode( LABEL );
+                node.setProperty( KEY, i );
+                nodes.add( node.getId() );
+            }
+            tx.success();
+        }
+        SchemaDescriptor schema = nodeSchema();
+        AtomicBoolean scanCompleted = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> updaters = new ArrayList<>();
+        RecordingPopulator populator = new RecordingPopulator()
+        {
+            @Override
+            public void scanCompleted( PhaseTracker phaseTracker )
+            {
+                // Updates made after this point would not be queued before the population is done
+                scanCompleted.set( true );
+                try
+                {
+                    for ( Thread updater : updaters )
+                    {
+                        updater.join();
+                    }
+                }
+                catch ( InterruptedException e )
+                {
+                    throw new RuntimeException( e );
+                }
+            }
+        };
+        IndexPopulationJob job = newIndexPopulationJob( populator, schema, EntityType.NODE );
+        for ( int i = 0; i < UPDATERS; i++ )
+        {
+            List<Long> ownNodes = new ArrayList<>();
+            for ( int n = i; n < nodes.size(); n += UPDATERS )
+            {
+                ownNodes.add( nodes.get( n ) );
+            }
+            updaters.add( new Thread( new NodeUpdater( job, schema, ownNodes, i, scanCompleted, failure ) ) );
+        }
+
+        // when
+        updaters.forEach( Thread::start );
+        job.run();
+
+        // then
+        assertNull( failure.get() );
+        assertEquals( indexedNodes(), populator.entries );
+    }
+
+    private Map<Long,Value> indexedNodes()
+    {
+        Map<Long,Value> entries = new HashMap<>();
+        try ( Transaction tx = db.beginTx();
+              ResourceIterator<Node> nodes = db.findNodes( LABEL ) )
+        {
+            while ( nodes.hasNext() )
+            {
+                Node node = nodes.next();
+                Object value = node.getProperty( KEY, null );
+                if ( value != null )
+                {
+                    entries.put( node.getId(), Values.of( value ) );
+                }
+            }
+            tx.success();
+        }
+        return entries;
+    }
+
+    private IndexPopulationJob newIndexPopulationJob( IndexPopulator populator, SchemaDescriptor schema, EntityType type )
+    {
+        FlippableIndexProxy flipper = new FlippableIndexProxy();
+        flipper.setFlipTarget( mock( IndexProxyFactory.class ) );
+        MultipleIndexPopulator multiPopulator =
+                new BatchingMultipleIndexPopulator( storeView, NullLogProvider.getInstance(), type, new DatabaseSchemaState( NullLogProvider.getInstance() ),
+                        db.getDependencyResolver().resolveDependency( JobScheduler.class ), SCAN_WORKERS );
+        IndexPopulationJob job = new IndexPopulationJob( multiPopulator, NO_MONITOR, false );
+        job.addPopulator( populator, IndexDescriptorFactory.forSchema( schema ).withId( 0 ).withoutCapabilities(), "index", flipper,
+                mock( FailedIndexProxyFactory.class ) );
+        return job;
+    }
+
+    private SchemaDescriptor nodeSchema() throws KernelException
+    {
+        try ( org.neo4j.internal.kernel.api.Transaction tx = kernel().beginTransaction( implicit, AUTH_DISABLED ) )
+        {
+            SchemaDescriptor schema = SchemaDescriptorFactory.forLabel( tx.tokenWrite().labelGetOrCreateForName( LABEL.name() ),
+                    tx.tokenWrite().propertyKeyGetOrCreateForName( KEY ) );
+            tx.success();
+            return schema;
+        }
+    }
+
+    private SchemaDescriptor relationshipSchema() throws KernelException
+    {
+        try ( org.neo4j.internal.kernel.api.Transaction tx = kernel().beginTransaction( implicit, AUTH_DISABLED ) )
+        {
+            SchemaDescriptor schema = SchemaDescriptorFactory.forRelType( tx.tokenWrite().relationshipTypeGetOrCreateForName( TYPE.name() ),
+                    tx.tokenWrite().propertyKeyGetOrCreateForName( KEY ) );
+            tx.success();
+            return schema;
+        }
+    }
+
+    private Kernel kernel()
+    {
+        return db.getDependencyResolver().resolveDependency( Kernel.class );
+    }
+
+    /**
+     * Changes, removes and adds properties of its own nodes, and creates new ones, queueing the corresponding index updates
+     * after each transaction, until the scan has completed.
+     */
+    private class NodeUpdater implements Runnable
+    {
+        private final IndexPopulationJob job;
+        private final SchemaDescriptor schema;
+        private final List<Long> nodes;
+        private final Map<Long,Integer> values = new HashMap<>();
+        private final Random random;
+        private final AtomicBoolean scanCompleted;
+        private final AtomicReference<Throwable> failure;
+
+        NodeUpdater( IndexPopulationJob job, SchemaDescriptor schema, List<Long> nodes, long seed, AtomicBoolean scanCompleted,
+                AtomicReference<Throwable> failure )
+        {
+            this.job = job;
+            this.schema = schema;
+            this.nodes = nodes;
+            this.random = new Random( seed );
+            this.scanCompleted = scanCompleted;
+            this.failure = failure;
+            try ( Transaction tx = db.beginTx() )
+            {
+                for ( long node : nodes )
+                {
+                    values.put( node, (Integer) db.getNodeById( node ).getProperty( KEY ) );
+                }
+                tx.success();
+            }
+        }
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                while ( !scanCompleted.get() )
+                {
+                    update();
+                }
+            }
+            catch ( Throwable t )
+            {
+                failure.compareAndSet( null, t );
+            }
+        }
+
+        private void update()
+        {
+            IndexEntryUpdate<?> update;
+            if ( random.nextInt( 10 ) == 0 )
+            {
+                int value = random.nextInt();
+                long node;
+                try ( Transaction tx = db.beginTx() )
+                {
+                    Node created = db.createNode( LABEL );
+                    created.setProperty( KEY, value );
+                    node = created.getId();
+                    tx.success();
+                }
+                nodes.add( node );
+                values.put( node, value );
+                update = IndexEntryUpdate.add( node, schema, Values.intValue( value ) );
+            }
+            else
+            {
+                long node = nodes.get( random.nextInt( nodes.size() ) );
+                Integer before = values.get( node );
+                Integer after = random.nextInt( 3 ) == 0 ? null : random.nextInt();
+                try ( Transaction tx = db.beginTx() )
+                {
+                    if ( after == null )
+                    {
+                        db.getNodeById( node ).removeProperty( KEY );
+                    }
+                    else
+                    {
+                        db.getNodeById( node ).setProperty( KEY, after );
+                    }
+                    tx.success();
+                }
+                values.put( node, after );
+                if ( before == null && after == null )
+                {
+                    return;
+                }
+                update = before == null ? IndexEntryUpdate.add( node, schema, Values.intValue( after ) )
+                         : after == null ? IndexEntryUpdate.remove( node, schema, Values.intValue( before ) )
+                         : IndexEntryUpdate.change( node, schema, Values.intValue( before ), Values.intValue( after ) );
+            }
+            job.update( update );
+        }
+    }
+
+    /**
+     * Keeps the entries an index would have, given the same updates. Updates are idempotent, like they are for real indexes,
+     * since an entity may be both read by the scan and have its queued updates applied.
+     */
+    private static class RecordingPopulator extends IndexPopulator.Adapter
+    {
+        final Map<Long,Value> entries = new ConcurrentHashMap<>();
+
+        @Override
+        public void add( Collection<? extends IndexEntryUpdate<?>> updates )
+        {
+            for ( IndexEntryUpdate<?> update : updates )
+            {
+                entries.put( update.getEntityId(), update.values()[0] );
+            }
+        }
+
+        @Override
+        public IndexUpdater newPopulatingUpdater( NodePropertyAccessor accessor )
+        {
+            return new IndexUpdater()
+            {
+                @Override
+                public void process( IndexEntryUpdate<?> update )
+                {
+                    switch ( update.updateMode() )
+                    {
+                    case ADDED:
+                    case CHANGED:
+                        entries.put( update.getEntityId(), update.values()[0] );
+                        break;
+                    case REMOVED:
+                        entries.remove( update.getEntityId() );
+                        break;
+                    default:
+                        throw new IllegalArgumentException( update.updateMode().name() );
+                    }
+                }
+
+                @Override
+                public void close()
+                {
+                }
+            };
+        }
+    }
+}
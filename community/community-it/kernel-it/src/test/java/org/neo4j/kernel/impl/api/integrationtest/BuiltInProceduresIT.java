@@ -206,6 +206,8 @@ public class BuiltInProceduresIT extends KernelIntegrationTest
                 proc( "db.resampleIndex", "(index :: STRING?) :: VOID",
                       "Schedule resampling of an index (for example: CALL db.resampleIndex(\":Person(name)\")).", "READ" ),
                 proc( "db.resampleOutdatedIndexes", "() :: VOID", "Schedule resampling of all outdated indexes.", "READ" ),
+                proc( "db.compactIndexes", "() :: VOID",
+                      "Compact all online indexes and the label scan store, returning space they no longer need to the file system.", "DBMS" ),
                 proc( "db.propertyKeys", "() :: (propertyKey :: STRING?)", "List all property keys in the database.", "READ" ),
                 proc( "db.labels", "() :: (label :: STRING?)", "List all labels in the database.", "READ" ),
                 proc( "db.schema", "() :: (nodes :: LIST? OF NODE?, relationships :: LIST? " + "OF " + "RELATIONSHIP?)",
@@ -127,6 +127,7 @@ public class NeoStoreFileListingTest
     {
         // Given
         LabelScanStore labelScanStore = mock( LabelScanStore.class );
+        LabelScanStore relationshipTypeScanStore = mock( LabelScanStore.class );
         IndexingService indexingService = mock( IndexingService.class );
         ExplicitIndexProvider explicitIndexes = mock( ExplicitIndexProvider.class );
         when( explicitIndexes.allIndexProviders() ).thenReturn( Collections.emptyList() );
@@ -136,10 +137,12 @@ public class NeoStoreFileListingTest
         filesInStoreDirAre( databaseLayout, STANDARD_STORE_DIR_FILES, STANDARD_STORE_DIR_DIRECTORIES );
         StorageEngine storageEngine = mock( StorageEngine.class );
         NeoStoreFileListing fileListing = new NeoStoreFileListing( databaseLayout, logFiles, labelScanStore,
-                indexingService, explicitIndexes, storageEngine );
+                relationshipTypeScanStore, indexingService, explicitIndexes, storageEngine );
 
         ResourceIterator<File> scanSnapshot = scanStoreFilesAre( labelScanStore,
                 new String[]{"blah/scan.store", "scan.more"} );
+        ResourceIterator<File> relationshipTypeScanSnapshot = scanStoreFilesAre( relationshipTypeScanStore,
+                new String[]{"relationshiptype.scan.store"} );
         ResourceIterator<File> indexSnapshot = indexFilesAre( indexingService, new String[]{"schema/index/my.index"} );
 
         ResourceIterator<StoreFileMetadata> result = fileListing.builder().excludeLogFiles().build();
@@ -149,6 +152,7 @@ public class NeoStoreFileListingTest
 
         // Then
         verify( scanSnapshot ).close();
+        verify( relationshipTypeScanSnapshot ).close();
         verify( indexSnapshot ).close();
     }
 
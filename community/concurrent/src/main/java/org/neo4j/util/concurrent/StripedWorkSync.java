@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.util.concurrent;
+
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Spreads work over a number of {@link WorkSync work syncs}, or stripes, all applying their work to the same material.
+ * Work from threads which end up in the same stripe is combined like in a single {@link WorkSync}, but work in different
+ * stripes is applied concurrently. The material must therefore be thread-safe, e.g. a factory of writers which can
+ * be used concurrently.
+ * <p>
+ * A thread always uses the same stripe.
+ *
+ * @see WorkSync
+ */
+public class StripedWorkSync<Material, W extends Work<Material,W>>
+{
+    private final WorkSync<Material,W>[] stripes;
+
+    /**
+     * @param material the thread-safe material that all stripes apply their work to.
+     * @param stripes number of stripes, i.e. the number of work syncs that can apply work concurrently.
+     */
+    @SuppressWarnings( "unchecked" )
+    public StripedWorkSync( Material material, int stripes )
+    {
+        if ( stripes < 1 )
+        {
+            throw new IllegalArgumentException( "Need at least one stripe, but got " + stripes );
+        }
+        this.stripes = new WorkSync[stripes];
+        for ( int i = 0; i < stripes; i++ )
+        {
+            this.stripes[i] = new WorkSync<>( material );
+        }
+    }
+
+    /**
+     * Applies the work through the stripe of the calling thread.
+     *
+     * @see WorkSync#apply(Work)
+     */
+    public void apply( W work ) throws ExecutionException
+    {
+        stripe().apply( work );
+    }
+
+    /**
+     * Applies the work through the stripe of the calling thread.
+     *
+     * @see WorkSync#applyAsync(Work)
+     */
+    public AsyncApply applyAsync( W work )
+    {
+        return stripe().applyAsync( work );
+    }
+
+    private WorkSync<Material,W> stripe()
+    {
+        return stripes[(int) (Thread.currentThread().getId() % stripes.length)];
+    }
+}
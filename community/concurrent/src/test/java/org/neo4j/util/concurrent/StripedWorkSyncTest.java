@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.util.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class StripedWorkSyncTest
+{
+    private static final int STRIPES = 64;
+
+    @Test
+    void mustRequireAtLeastOneStripe()
+    {
+        assertThrows( IllegalArgumentException.class, () -> new StripedWorkSync<>( new AtomicLong(), 0 ) );
+    }
+
+    @Test
+    void mustApplyAllWorkFromAllThreads() throws Exception
+    {
+        AtomicLong sum = new AtomicLong();
+        StripedWorkSync<AtomicLong,AddWork> sync = new StripedWorkSync<>( sum, 4 );
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        for ( int i = 0; i < 8; i++ )
+        {
+            threads.add( new Thread( () ->
+            {
+                try
+                {
+                    for ( int j = 0; j < 1_000; j++ )
+                    {
+                        sync.apply( new AddWork( 1 ) );
+                    }
+                }
+                catch ( ExecutionException e )
+                {
+                    synchronized ( failures )
+                    {
+                        failures.add( e );
+                    }
+                }
+            } ) );
+        }
+        threads.forEach( Thread::start );
+        for ( Thread thread : threads )
+        {
+            thread.join();
+        }
+
+        assertTrue( failures.isEmpty(), failures::toString );
+        assertEquals( 8_000, sum.get() );
+    }
+
+    @Test
+    void mustApplyWorkInDifferentStripesConcurrently() throws Exception
+    {
+        CountDownLatch bothApplying = new CountDownLatch( 2 );
+        StripedWorkSync<CountDownLatch,AwaitWork> sync = new StripedWorkSync<>( bothApplying, STRIPES );
+        List<Throwable> failures = new ArrayList<>();
+        Runnable awaitOther = () ->
+        {
+            try
+            {
+                sync.apply( new AwaitWork() );
+            }
+            catch ( ExecutionException e )
+            {
+                synchronized ( failures )
+                {
+                    failures.add( e );
+                }
+            }
+        };
+        Thread first = new Thread( awaitOther );
+        Thread second = new Thread( awaitOther );
+        assumeTrue( first.getId() % STRIPES != second.getId() % STRIPES );
+
+        first.start();
+        second.start();
+        first.join();
+        second.join();
+
+        // Each work only completes if the other one is applied at the same time
+        assertTrue( failures.isEmpty(), failures::toString );
+    }
+
+    private static class AddWork implements Work<AtomicLong,AddWork>
+    {
+        private long delta;
+
+        AddWork( long delta )
+        {
+            this.delta = delta;
+        }
+
+        @Override
+        public AddWork combine( AddWork work )
+        {
+            delta += work.delta;
+            return this;
+        }
+
+        @Override
+        public void apply( AtomicLong material )
+        {
+            material.addAndGet( delta );
+        }
+    }
+
+    private static class AwaitWork implements Work<CountDownLatch,AwaitWork>
+    {
+        @Override
+        public AwaitWork combine( AwaitWork work )
+        {
+            return this;
+        }
+
+        @Override
+        public void apply( CountDownLatch material )
+        {
+            material.countDown();
+            try
+            {
+                if ( !material.await( 1, TimeUnit.MINUTES ) )
+                {
+                    throw new IllegalStateException( "Other work was not applied concurrently" );
+                }
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException( e );
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.v3_6.logical.plans
+
+import org.neo4j.cypher.internal.v3_6.expressions.{Expression, LabelToken, PropertyKeyToken}
+import org.neo4j.cypher.internal.v3_6.util.attribution.IdGen
+
+/**
+  * Produce one row for every node with the label 'label', ordered by the distance between the point in 'property'
+  * and the point 'origin', nearest first.
+  *
+  * The points are read from the index on 'label' and 'property', in rings that grow outwards from the origin, so a
+  * consumer that stops early only reads the neighbourhood of the origin. Nodes whose property has no distance to the
+  * origin are produced last.
+  */
+case class NodeIndexNearestNeighbourScan(idName: String,
+                                         label: LabelToken,
+                                         property: PropertyKeyToken,
+                                         origin: Expression,
+                                         argumentIds: Set[String])
+                                        (implicit idGen: IdGen)
+  extends NodeLogicalLeafPlan(idGen) {
+
+  val availableSymbols: Set[String] = argumentIds + idName
+}
@@ -67,13 +67,15 @@ case class CardinalityCostModel(config: CypherPlannerConfiguration) extends Cost
     => 1.2
 
     case _: Expand |
-         _: VarExpand
+         _: VarExpand |
+         _: DirectedRelationshipTypeScan
     => 1.5
 
     case _: NodeUniqueIndexSeek |
          _: NodeIndexSeek |
          _: NodeIndexContainsScan |
-         _: NodeIndexEndsWithScan
+         _: NodeIndexEndsWithScan |
+         _: NodeIndexNearestNeighbourScan
     => 1.9
 
     case _: NodeByIdSeek |
@@ -126,6 +126,21 @@ case class LogicalPlanProducer(cardinalityModel: CardinalityModel, planningAttri
     annotate(UndirectedRelationshipByIdSeek(idName, relIds, leftNode, rightNode, argumentIds), solved, ProvidedOrder.empty, context)
   }
 
+  def planDirectedRelationshipTypeScan(idName: String,
+                                       startNode: String,
+                                       typ: RelTypeName,
+                                       endNode: String,
+                                       pattern: PatternRelationship,
+                                       argumentIds: Set[String],
+                                       context: LogicalPlanningContext): LogicalPlan = {
+    val solved = RegularPlannerQuery(queryGraph = QueryGraph.empty
+      .addPatternRelationship(pattern)
+      .addArgumentIds(argumentIds.toIndexedSeq)
+    )
+    // Is this ordered by relationship id?
+    annotate(DirectedRelationshipTypeScan(idName, startNode, typ, endNode, argumentIds), solved, ProvidedOrder.empty, context)
+  }
+
   def planSimpleExpand(left: LogicalPlan,
                        from: String,
                        dir: SemanticDirection,
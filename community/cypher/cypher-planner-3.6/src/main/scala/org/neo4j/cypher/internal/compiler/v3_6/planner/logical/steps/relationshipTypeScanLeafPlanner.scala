@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v3_6.planner.logical.steps
+
+import org.neo4j.cypher.internal.compiler.v3_6.planner.logical.{LeafPlanner, LogicalPlanningContext}
+import org.neo4j.cypher.internal.ir.v3_6.{InterestingOrder, PatternRelationship, QueryGraph, SimplePatternLength}
+import org.neo4j.cypher.internal.v3_6.expressions.SemanticDirection.{BOTH, INCOMING}
+import org.neo4j.cypher.internal.v3_6.logical.plans.LogicalPlan
+
+/*
+ * Plans a scan of the relationship type scan store for directed single-type pattern relationships, e.g.
+ * MATCH (a)-[r:T]->(b). Without it such patterns are solved by scanning one endpoint and expanding.
+ */
+object relationshipTypeScanLeafPlanner extends LeafPlanner {
+
+  override def apply(qg: QueryGraph, interestingOrder: InterestingOrder, context: LogicalPlanningContext): Seq[LogicalPlan] =
+    qg.patternRelationships.toIndexedSeq.collect {
+      case relationship@PatternRelationship(name, (left, right), dir, Seq(typ), SimplePatternLength)
+        if dir != BOTH && left != right && !isBound(qg, name, left, right) =>
+        val (startNode, endNode) = if (dir == INCOMING) (right, left) else (left, right)
+        context.logicalPlanProducer.planDirectedRelationshipTypeScan(name, startNode, typ, endNode, relationship, qg.argumentIds, context)
+    }
+
+  private def isBound(qg: QueryGraph, names: String*): Boolean = names.exists(qg.argumentIds)
+}
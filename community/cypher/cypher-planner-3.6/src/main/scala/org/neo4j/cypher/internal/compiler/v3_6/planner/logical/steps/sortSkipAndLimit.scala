@@ -26,7 +26,8 @@ import org.neo4j.cypher.internal.compiler.v3_6.planner.logical._
 import org.neo4j.cypher.internal.ir.v3_6._
 import org.neo4j.cypher.internal.v3_6.logical.plans._
 import org.neo4j.cypher.internal.v3_6.ast.{AscSortItem, DescSortItem, SortItem}
-import org.neo4j.cypher.internal.v3_6.expressions.{Expression, Variable}
+import org.neo4j.cypher.internal.v3_6.expressions._
+import org.neo4j.cypher.internal.v3_6.util.attribution.SameId
 import org.neo4j.cypher.internal.v3_6.util.{FreshIdNameGenerator, InternalException}
 
 object sortSkipAndLimit extends PlanTransformerWithRequiredOrder {
@@ -97,6 +98,8 @@ object sortSkipAndLimit extends PlanTransformerWithRequiredOrder {
           // plan the actual sort
           val columnOrders = newSortItems.map(columnOrder)
 
+          lazy val nearestNeighbourPlan = limit.flatMap(_ => nearestNeighbourScan(plan, p, sortItems, context))
+
           val sortedPlan =
             // The !interestingOrder.isEmpty check is only here because we do not recognize more complex required orders
             // at the moment and do not want to abort sorting only because an empty required order is satisfied by anything.
@@ -105,6 +108,9 @@ object sortSkipAndLimit extends PlanTransformerWithRequiredOrder {
               // on a plan that has already assigned solved.
               // Use query.interestingOrder to mark the original required order as solved.
               context.logicalPlanProducer.updateSolvedForSortedItems(plan, sortItems, query.interestingOrder, context)
+            } else if (nearestNeighbourPlan.isDefined) {
+              // The nearest neighbour scan produces the rows in the order asked for, so the limit can stop it early
+              context.logicalPlanProducer.updateSolvedForSortedItems(nearestNeighbourPlan.get, sortItems, query.interestingOrder, context)
             } else {
               // Project all variables needed for sort in two steps
               // First the ones that are part of projection list and may introduce variables that are needed for the second projection
@@ -122,6 +128,53 @@ object sortSkipAndLimit extends PlanTransformerWithRequiredOrder {
     case _ => plan
   }
 
+  /**
+    * For `ORDER BY distance(n.prop, point)` on top of a label scan of `n`, replaces the label scan with a
+    * [[NodeIndexNearestNeighbourScan]], if there is an index on the label and `prop`. The point may only depend on
+    * arguments of the label scan.
+    */
+  private def nearestNeighbourScan(plan: LogicalPlan,
+                                   projection: QueryProjection,
+                                   sortItems: Seq[SortItem],
+                                   context: LogicalPlanningContext): Option[LogicalPlan] = {
+    val semanticTable = context.semanticTable
+
+    def replaceLabelScan(scan: NodeByLabelScan, variable: Variable, propertyKey: PropertyKeyName, origin: Expression): Option[LogicalPlan] =
+      if (scan.idName != variable.name || !origin.dependencies.map(_.name).forall(scan.argumentIds)) None
+      else for (labelId <- semanticTable.id(scan.label);
+                propertyKeyId <- semanticTable.id(propertyKey);
+                _ <- context.planContext.indexGetForLabelAndProperties(scan.label.name, Seq(propertyKey.name)))
+        yield NodeIndexNearestNeighbourScan(scan.idName, LabelToken(scan.label, labelId), PropertyKeyToken(propertyKey, propertyKeyId),
+                                            origin, scan.argumentIds)(SameId(scan.id))
+
+    def replace(variable: Variable, propertyKey: PropertyKeyName, origin: Expression): Option[LogicalPlan] = plan match {
+      case scan: NodeByLabelScan =>
+        replaceLabelScan(scan, variable, propertyKey, origin)
+      case selection@Selection(_, scan: NodeByLabelScan) =>
+        replaceLabelScan(scan, variable, propertyKey, origin).map(newScan => selection.copy(source = newScan)(SameId(selection.id)))
+      case _ =>
+        None
+    }
+
+    val sortExpression = sortItems match {
+      case Seq(AscSortItem(variable@Variable(name))) =>
+        extractProjectItem(projection, name).collect { case ((_, expression), true) => expression }.orElse(Some(variable))
+      case Seq(AscSortItem(expression)) =>
+        Some(expression)
+      case _ =>
+        None
+    }
+
+    sortExpression.flatMap {
+      case FunctionInvocation(Namespace(List()), FunctionName("distance"), _, Seq(Property(variable: Variable, propertyKey), origin), _) =>
+        replace(variable, propertyKey, origin)
+      case FunctionInvocation(Namespace(List()), FunctionName("distance"), _, Seq(origin, Property(variable: Variable, propertyKey)), _) =>
+        replace(variable, propertyKey, origin)
+      case _ =>
+        None
+    }
+  }
+
   private def columnOrder(in: SortItem): ColumnOrder = in match {
     case AscSortItem(Variable(key)) => Ascending(key)
     case DescSortItem(Variable(key)) => Descending(key)
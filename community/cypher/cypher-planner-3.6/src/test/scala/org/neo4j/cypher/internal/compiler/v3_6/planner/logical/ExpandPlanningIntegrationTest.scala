@@ -41,6 +41,18 @@ class ExpandPlanningIntegrationTest extends CypherFunSuite with LogicalPlanningT
     )
   }
 
+  test("Should build plans containing relationship type scan for single typed relationship pattern") {
+    planFor("MATCH (a)-[r:T]->(b) RETURN r")._2 should equal(
+      DirectedRelationshipTypeScan("r", "a", RelTypeName("T")_, "b", Set.empty)
+    )
+  }
+
+  test("Should build plans containing relationship type scan for single typed incoming relationship pattern") {
+    planFor("MATCH (a)<-[r:T]-(b) RETURN r")._2 should equal(
+      DirectedRelationshipTypeScan("r", "b", RelTypeName("T")_, "a", Set.empty)
+    )
+  }
+
   test("Should build plans containing expand for two unrelated relationship patterns") {
 
     (new given {
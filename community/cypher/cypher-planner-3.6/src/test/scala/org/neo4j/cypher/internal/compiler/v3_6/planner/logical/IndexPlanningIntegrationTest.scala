@@ -154,6 +154,57 @@ class IndexPlanningIntegrationTest extends CypherFunSuite with LogicalPlanningTe
     }
   }
 
+  test("should plan nearest neighbour scan for ORDER BY distance with LIMIT") {
+
+    val plan =
+      new given {
+        indexOn("Place", "location")
+      } getLogicalPlanFor
+        s"""MATCH (p:Place)
+           |RETURN p
+           |ORDER BY distance(p.location, point({x: 0, y: 0, crs: 'cartesian'}))
+           |LIMIT 3
+        """.stripMargin
+
+    plan._2 should beLike {
+      case Limit(NodeIndexNearestNeighbourScan("p", _, _, _, _), _, _) => ()
+    }
+  }
+
+  test("should plan nearest neighbour scan for aliased ORDER BY distance with LIMIT") {
+
+    val plan =
+      new given {
+        indexOn("Place", "location")
+      } getLogicalPlanFor
+        s"""MATCH (p:Place)
+           |WHERE p.name STARTS WITH 'a'
+           |RETURN p.name AS name, distance(point({x: 0, y: 0, crs: 'cartesian'}), p.location) AS d
+           |ORDER BY d
+           |LIMIT 3
+        """.stripMargin
+
+    plan._2 should beLike {
+      case Projection(Limit(Selection(_, NodeIndexNearestNeighbourScan("p", _, _, _, _)), _, _), _) => ()
+    }
+  }
+
+  test("should not plan nearest neighbour scan without LIMIT or for descending distance") {
+
+    for (query <- List("MATCH (p:Place) RETURN p ORDER BY distance(p.location, point({x: 0, y: 0, crs: 'cartesian'}))",
+                       "MATCH (p:Place) RETURN p ORDER BY distance(p.location, point({x: 0, y: 0, crs: 'cartesian'})) DESC LIMIT 3",
+                       "MATCH (p:Place) RETURN p ORDER BY distance(p.location, p.home) LIMIT 3")) {
+      val plan =
+        new given {
+          indexOn("Place", "location")
+        } getLogicalPlanFor query
+
+      plan._2.treeExists {
+        case _: NodeIndexNearestNeighbourScan => true
+      } should be(false)
+    }
+  }
+
   test("should or-leaf-plan in reasonable time") {
     import scala.concurrent.ExecutionContext.Implicits.global
 
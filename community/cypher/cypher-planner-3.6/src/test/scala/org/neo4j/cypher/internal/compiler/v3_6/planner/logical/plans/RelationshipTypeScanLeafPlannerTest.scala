@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v3_6.planner.logical.plans
+
+import org.neo4j.cypher.internal.compiler.v3_6.planner._
+import org.neo4j.cypher.internal.compiler.v3_6.planner.logical.ExpressionEvaluator
+import org.neo4j.cypher.internal.compiler.v3_6.planner.logical.steps.relationshipTypeScanLeafPlanner
+import org.neo4j.cypher.internal.ir.v3_6._
+import org.neo4j.cypher.internal.v3_6.expressions._
+import org.neo4j.cypher.internal.v3_6.logical.plans.DirectedRelationshipTypeScan
+import org.neo4j.cypher.internal.v3_6.util.test_helpers.CypherFunSuite
+
+class RelationshipTypeScanLeafPlannerTest extends CypherFunSuite with LogicalPlanningTestSupport {
+
+  private val statistics = hardcodedStatistics
+
+  test("simple outgoing relationship type scan") {
+    // given
+    val qg = queryGraph(PatternRelationship("r", ("a", "b"), SemanticDirection.OUTGOING, Seq(relType("T")), SimplePatternLength))
+
+    // when
+    val resultPlans = relationshipTypeScanLeafPlanner(qg, InterestingOrder.empty, newContext())
+
+    // then
+    resultPlans should equal(Seq(
+      DirectedRelationshipTypeScan("r", "a", relType("T"), "b", Set.empty))
+    )
+  }
+
+  test("incoming relationship type scan starts at the right hand node") {
+    // given
+    val qg = queryGraph(PatternRelationship("r", ("a", "b"), SemanticDirection.INCOMING, Seq(relType("T")), SimplePatternLength))
+
+    // when
+    val resultPlans = relationshipTypeScanLeafPlanner(qg, InterestingOrder.empty, newContext())
+
+    // then
+    resultPlans should equal(Seq(
+      DirectedRelationshipTypeScan("r", "b", relType("T"), "a", Set.empty))
+    )
+  }
+
+  test("does not plan relationship type scan for undirected, multi-typed, var-length or self loop patterns") {
+    // given
+    val qg = queryGraph(
+      PatternRelationship("r1", ("a", "b"), SemanticDirection.BOTH, Seq(relType("T")), SimplePatternLength),
+      PatternRelationship("r2", ("a", "b"), SemanticDirection.OUTGOING, Seq(relType("T"), relType("S")), SimplePatternLength),
+      PatternRelationship("r3", ("a", "b"), SemanticDirection.OUTGOING, Seq.empty, SimplePatternLength),
+      PatternRelationship("r4", ("a", "b"), SemanticDirection.OUTGOING, Seq(relType("T")), VarPatternLength(1, None)),
+      PatternRelationship("r5", ("a", "a"), SemanticDirection.OUTGOING, Seq(relType("T")), SimplePatternLength))
+
+    // when
+    val resultPlans = relationshipTypeScanLeafPlanner(qg, InterestingOrder.empty, newContext())
+
+    // then
+    resultPlans shouldBe empty
+  }
+
+  test("does not plan relationship type scan when an end node is an argument") {
+    // given
+    val qg = queryGraph(PatternRelationship("r", ("a", "b"), SemanticDirection.OUTGOING, Seq(relType("T")), SimplePatternLength))
+      .addArgumentIds(Seq("a"))
+
+    // when
+    val resultPlans = relationshipTypeScanLeafPlanner(qg, InterestingOrder.empty, newContext())
+
+    // then
+    resultPlans shouldBe empty
+  }
+
+  private def queryGraph(relationships: PatternRelationship*) =
+    QueryGraph(
+      patternNodes = relationships.flatMap(r => Seq(r.nodes._1, r.nodes._2)).toSet,
+      patternRelationships = relationships.toSet)
+
+  private def relType(name: String) = RelTypeName(name)(pos)
+
+  private def newContext() = {
+    val factory = newMockedMetricsFactory
+    newMockedLogicalPlanningContext(planContext = newMockedPlanContext(), metrics = factory.newMetrics(statistics, mock[ExpressionEvaluator], config))
+  }
+}
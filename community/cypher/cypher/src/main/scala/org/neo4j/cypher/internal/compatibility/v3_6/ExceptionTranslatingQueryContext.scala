@@ -37,7 +37,7 @@ import org.neo4j.internal.kernel.api.{IndexQuery, IndexReference, NodeValueIndex
 import org.neo4j.kernel.impl.api.store.RelationshipIterator
 import org.neo4j.kernel.impl.core.EmbeddedProxySPI
 import org.neo4j.values.AnyValue
-import org.neo4j.values.storable.{TextValue, Value}
+import org.neo4j.values.storable.{PointValue, TextValue, Value}
 import org.neo4j.values.virtual.{ListValue, MapValue, NodeValue, RelationshipValue}
 
 import scala.collection.Iterator
@@ -119,6 +119,9 @@ class ExceptionTranslatingQueryContext(val inner: QueryContext) extends QueryCon
   override def getNodesByLabelPrimitive(id: Int): LongIterator =
     translateException(inner.getNodesByLabelPrimitive(id))
 
+  override def getRelationshipsByType(id: Int): Iterator[RelationshipValue] =
+    translateException(inner.getRelationshipsByType(id))
+
 
   override def nodeAsMap(id: Long): MapValue = translateException(inner.nodeAsMap(id))
 
@@ -261,6 +264,9 @@ class ExceptionTranslatingQueryContext(val inner: QueryContext) extends QueryCon
                                                      value: TextValue): NodeValueIndexCursor =
     translateException(inner.indexSeekByEndsWith(index, needsValues, indexOrder, value))
 
+  override def indexSeekByDistance(index: IndexReference, origin: PointValue): NodeValueIndexCursor =
+    translateException(inner.indexSeekByDistance(index, origin))
+
   override def indexScan[RESULT <: AnyRef](index: IndexReference,
                                            needsValues: Boolean,
                                            indexOrder: IndexOrder): NodeValueIndexCursor =
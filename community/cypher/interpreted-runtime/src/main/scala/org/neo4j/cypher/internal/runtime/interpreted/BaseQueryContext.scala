@@ -36,7 +36,7 @@ import org.neo4j.internal.kernel.api.{IndexQuery, IndexReference, NodeValueIndex
 import org.neo4j.kernel.impl.api.store.RelationshipIterator
 import org.neo4j.kernel.impl.core.EmbeddedProxySPI
 import org.neo4j.values.AnyValue
-import org.neo4j.values.storable.TextValue
+import org.neo4j.values.storable.{PointValue, TextValue}
 import org.neo4j.values.virtual.{ListValue, MapValue, NodeValue, RelationshipValue}
 
 import scala.collection.Iterator
@@ -102,6 +102,8 @@ abstract class BaseQueryContext extends QueryContext {
 
   override def getNodesByLabelPrimitive(id: Int): LongIterator = notSupported()
 
+  override def getRelationshipsByType(id: Int): Iterator[RelationshipValue] = notSupported()
+
   override def createNodeKeyConstraint(descriptor: IndexDescriptor): Boolean = notSupported()
 
   override def dropNodeKeyConstraint(descriptor: IndexDescriptor): Unit = notSupported()
@@ -262,6 +264,8 @@ abstract class BaseQueryContext extends QueryContext {
                                                      indexOrder: IndexOrder,
                                                      value: TextValue): NodeValueIndexCursor = notSupported()
 
+  override def indexSeekByDistance(index: IndexReference, origin: PointValue): NodeValueIndexCursor = notSupported()
+
   override def indexScan[RESULT <: AnyRef](index: IndexReference,
                                            needsValues: Boolean,
                                            indexOrder: IndexOrder): NodeValueIndexCursor = notSupported()
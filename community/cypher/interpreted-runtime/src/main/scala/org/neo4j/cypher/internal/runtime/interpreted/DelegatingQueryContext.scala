@@ -38,7 +38,7 @@ import org.neo4j.kernel.impl.api.store.RelationshipIterator
 import org.neo4j.kernel.impl.core.EmbeddedProxySPI
 import org.neo4j.kernel.impl.factory.DatabaseInfo
 import org.neo4j.values.AnyValue
-import org.neo4j.values.storable.{TextValue, Value}
+import org.neo4j.values.storable.{PointValue, TextValue, Value}
 import org.neo4j.values.virtual.{ListValue, MapValue, NodeValue, RelationshipValue}
 
 import scala.collection.Iterator
@@ -147,10 +147,15 @@ abstract class DelegatingQueryContext(val inner: QueryContext) extends QueryCont
                                                      value: TextValue): NodeValueIndexCursor =
     manyDbHits(inner.indexSeekByEndsWith(index, needsValues, indexOrder, value))
 
+  override def indexSeekByDistance(index: IndexReference, origin: PointValue): NodeValueIndexCursor =
+    manyDbHits(inner.indexSeekByDistance(index, origin))
+
   override def getNodesByLabel(id: Int): Iterator[NodeValue] = manyDbHits(inner.getNodesByLabel(id))
 
   override def getNodesByLabelPrimitive(id: Int): LongIterator = manyDbHits(inner.getNodesByLabelPrimitive(id))
 
+  override def getRelationshipsByType(id: Int): Iterator[RelationshipValue] = manyDbHits(inner.getRelationshipsByType(id))
+
   override def nodeAsMap(id: Long): MapValue = {
     val map = inner.nodeAsMap(id)
     //one hit finding the node, then finding the properies
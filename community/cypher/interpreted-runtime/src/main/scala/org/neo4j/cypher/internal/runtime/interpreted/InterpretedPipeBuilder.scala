@@ -84,6 +84,9 @@ case class InterpretedPipeBuilder(recurse: LogicalPlan => Pipe,
       case UndirectedRelationshipByIdSeek(ident, relIdExpr, fromNode, toNode, _) =>
         UndirectedRelationshipByIdSeekPipe(ident, expressionConverters.toCommandSeekArgs(id, relIdExpr), toNode, fromNode)(id = id)
 
+      case DirectedRelationshipTypeScan(ident, fromNode, typ, toNode, _) =>
+        DirectedRelationshipTypeScanPipe(ident, fromNode, LazyType(typ), toNode)(id = id)
+
       case NodeIndexSeek(ident, label, properties, valueExpr, _, indexOrder) =>
         val indexSeekMode = IndexSeekModeFactory(unique = false, readOnly = readOnly).fromQueryExpression(valueExpr)
         NodeIndexSeekPipe(ident, label, properties.toArray, valueExpr.map(buildExpression), indexSeekMode, indexOrder)(id = id)
@@ -100,6 +103,9 @@ case class InterpretedPipeBuilder(recurse: LogicalPlan => Pipe,
 
       case NodeIndexEndsWithScan(ident, label, property, valueExpr, _, indexOrder) =>
         NodeIndexEndsWithScanPipe(ident, label,property, buildExpression(valueExpr), indexOrder)(id = id)
+
+      case NodeIndexNearestNeighbourScan(ident, label, property, origin, _) =>
+        NodeIndexNearestNeighbourScanPipe(ident, label, property, buildExpression(origin))(id = id)
     }
   }
 
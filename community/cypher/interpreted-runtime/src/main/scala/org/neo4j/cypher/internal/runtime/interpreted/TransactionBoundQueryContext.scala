@@ -345,6 +345,12 @@ sealed class TransactionBoundQueryContext(val transactionalContext: Transactiona
                                                      value: TextValue): NodeValueIndexCursor =
     seek(index, needsValues, indexOrder, IndexQuery.stringSuffix(index.properties()(0), value))
 
+  override def indexSeekByDistance(index: IndexReference, origin: PointValue): NodeValueIndexCursor = {
+    val cursor = new NearestNeighbourNodeValueIndexCursor(reads(), transactionalContext.cursors, index, origin)
+    resources.trace(cursor)
+    cursor
+  }
+
   override def lockingUniqueIndexSeek[RESULT](indexReference: IndexReference,
                                               queries: Seq[IndexQuery.ExactPredicate]): NodeValueIndexCursor = {
 
@@ -381,6 +387,22 @@ sealed class TransactionBoundQueryContext(val transactionalContext: Transactiona
     }
   }
 
+  override def getRelationshipsByType(id: Int): Iterator[RelationshipValue] = {
+    val cursor = allocateAndTraceRelationshipScanCursor()
+    reads().relationshipTypeScan(id, cursor)
+    new CursorIterator[RelationshipValue] {
+      override protected def fetchNext(): RelationshipValue = {
+        if (cursor.next())
+          fromRelationshipProxy(entityAccessor.newRelationshipProxy(cursor.relationshipReference(),
+                                                                    cursor.sourceNodeReference(), cursor.`type`(),
+                                                                    cursor.targetNodeReference()))
+        else null
+      }
+
+      override protected def close(): Unit = cursor.close()
+    }
+  }
+
   override def nodeAsMap(id: Long): MapValue = {
     val node = allocateNodeCursor()
     val property = allocatePropertyCursor()
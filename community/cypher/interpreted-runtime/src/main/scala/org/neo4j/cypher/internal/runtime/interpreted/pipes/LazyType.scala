@@ -23,6 +23,7 @@
 package org.neo4j.cypher.internal.runtime.interpreted.pipes
 
 import org.neo4j.cypher.internal.v3_6.ast.semantics.SemanticTable
+import org.neo4j.cypher.internal.planner.v3_6.spi.TokenContext
 import org.neo4j.cypher.internal.runtime.QueryContext
 import org.neo4j.cypher.internal.v3_6.expressions.RelTypeName
 
@@ -36,6 +37,13 @@ case class LazyType(name: String) {
     }
     id
   }
+
+  def getOptId(context: TokenContext): Option[Int] = {
+    if (id == LazyType.UNINITIALIZED) {
+      context.getOptRelTypeId(name).foreach(id = _)
+    }
+    if (id == LazyType.UNINITIALIZED) None else Some(id)
+  }
 }
 
 object LazyType {
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import org.neo4j.cypher.internal.runtime.QueryContext
+import org.neo4j.cypher.internal.runtime.interpreted.ExecutionContext
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Expression
+import org.neo4j.cypher.internal.v3_6.expressions.{LabelToken, PropertyKeyToken}
+import org.neo4j.cypher.internal.v3_6.util.attribution.Id
+import org.neo4j.cypher.operations.CypherFunctions.distance
+import org.neo4j.internal.kernel.api.{IndexReference, NodeValueIndexCursor}
+import org.neo4j.values.AnyValue
+import org.neo4j.values.storable.{PointValue, Values}
+
+/**
+  * Produces all nodes with the label, nearest to the origin first. Nodes whose property has no distance to the
+  * origin are produced last, from a label scan, once the index has run out of points.
+  */
+case class NodeIndexNearestNeighbourScanPipe(ident: String,
+                                             label: LabelToken,
+                                             property: PropertyKeyToken,
+                                             origin: Expression)
+                                            (val id: Id = Id.INVALID_ID) extends Pipe {
+
+  private var reference: IndexReference = IndexReference.NO_INDEX
+
+  private def reference(context: QueryContext): IndexReference = {
+    if (reference == IndexReference.NO_INDEX) {
+      reference = context.indexReference(label.nameId.id, property.nameId.id)
+    }
+    reference
+  }
+
+  origin.registerOwningPipe(this)
+
+  protected def internalCreateResults(state: QueryState): Iterator[ExecutionContext] = {
+    val baseContext = state.newExecutionContext(executionContextFactory)
+    val originValue = origin(baseContext, state)
+
+    val nearestFirst = originValue match {
+      case point: PointValue =>
+        new NearestNeighbourIterator(state.query, baseContext, state.query.indexSeekByDistance(reference(state.query), point))
+      case _ =>
+        Iterator.empty
+    }
+
+    nearestFirst ++ withoutDistance(state, baseContext, originValue)
+  }
+
+  private def withoutDistance(state: QueryState, baseContext: ExecutionContext, originValue: AnyValue): Iterator[ExecutionContext] =
+    state.query.getNodesByLabel(label.nameId.id)
+      .filter(node => distance(state.query.nodeOps.getProperty(node.id(), property.nameId.id), originValue) == Values.NO_VALUE)
+      .map(node => executionContextFactory.copyWith(baseContext, ident, node))
+
+  private class NearestNeighbourIterator(queryContext: QueryContext,
+                                         baseContext: ExecutionContext,
+                                         cursor: NodeValueIndexCursor
+                                        ) extends IndexIteratorBase[ExecutionContext](cursor) {
+
+    override protected def fetchNext(): ExecutionContext =
+      if (cursor.next()) executionContextFactory.copyWith(baseContext, ident, queryContext.nodeById(cursor.nodeReference()))
+      else null
+  }
+}
@@ -36,7 +36,7 @@ import org.neo4j.internal.kernel.api.{IndexQuery, IndexReference, NodeValueIndex
 import org.neo4j.kernel.impl.api.store.RelationshipIterator
 import org.neo4j.kernel.impl.core.EmbeddedProxySPI
 import org.neo4j.values.AnyValue
-import org.neo4j.values.storable.TextValue
+import org.neo4j.values.storable.{PointValue, TextValue}
 import org.neo4j.values.virtual.{ListValue, MapValue, NodeValue, RelationshipValue}
 
 trait QueryContextAdaptation {
@@ -54,6 +54,8 @@ trait QueryContextAdaptation {
                                            indexOrder: IndexOrder,
                                            value: TextValue): NodeValueIndexCursor = ???
 
+  override def indexSeekByDistance(index: IndexReference, origin: PointValue): NodeValueIndexCursor = ???
+
   override def createNodePropertyExistenceConstraint(labelId: Int, propertyKeyId: Int): Boolean = ???
 
   override def createNode(labels: Array[Int]): NodeValue = ???
@@ -161,6 +163,8 @@ trait QueryContextAdaptation {
 
   override def getNodesByLabelPrimitive(id: Int): LongIterator = ???
 
+  override def getRelationshipsByType(id: Int): scala.Iterator[RelationshipValue] = ???
+
   override def lockingUniqueIndexSeek[RESULT](index: IndexReference,
                                               values: Seq[IndexQuery.ExactPredicate]): NodeValueIndexCursor = ???
 
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import org.mockito.ArgumentMatchers.anyInt
+import org.mockito.Mockito.{never, verify, when}
+import org.neo4j.cypher.internal.runtime.QueryContext
+import org.neo4j.cypher.internal.runtime.interpreted.QueryStateHelper
+import org.neo4j.cypher.internal.v3_6.ast.semantics.SemanticTable
+import org.neo4j.cypher.internal.v3_6.expressions.RelTypeName
+import org.neo4j.cypher.internal.v3_6.util.RelTypeId
+import org.neo4j.cypher.internal.v3_6.util.test_helpers.CypherFunSuite
+import org.neo4j.values.storable.Values
+import org.neo4j.values.virtual.{NodeValue, VirtualValues}
+
+class DirectedRelationshipTypeScanPipeTest extends CypherFunSuite {
+
+  test("should scan relationships of type") {
+    // given
+    val (a, b, c) = (nodeValue(1), nodeValue(2), nodeValue(3))
+    val r1 = VirtualValues.relationshipValue(10, a, b, Values.stringValue("T"), VirtualValues.EMPTY_MAP)
+    val r2 = VirtualValues.relationshipValue(11, c, a, Values.stringValue("T"), VirtualValues.EMPTY_MAP)
+    val queryContext = mock[QueryContext]
+    when(queryContext.getRelationshipsByType(12)).thenReturn(Iterator(r1, r2))
+    val queryState = QueryStateHelper.emptyWith(query = queryContext)
+
+    implicit val table = new SemanticTable()
+    table.resolvedRelTypeNames.put("T", RelTypeId(12))
+
+    // when
+    val result = DirectedRelationshipTypeScanPipe("r", "from", LazyType(RelTypeName("T")(null)), "to")().createResults(queryState)
+
+    // then
+    result.map(row => (row("r"), row("from"), row("to"))).toList should equal(List((r1, a, b), (r2, c, a)))
+  }
+
+  test("should not scan when the relationship type does not exist") {
+    // given
+    val queryContext = mock[QueryContext]
+    when(queryContext.getOptRelTypeId("T")).thenReturn(None)
+    val queryState = QueryStateHelper.emptyWith(query = queryContext)
+
+    // when
+    val result = DirectedRelationshipTypeScanPipe("r", "from", LazyType("T"), "to")().createResults(queryState)
+
+    // then
+    result shouldBe empty
+    verify(queryContext, never()).getRelationshipsByType(anyInt())
+  }
+
+  private def nodeValue(id: Long): NodeValue = VirtualValues.nodeValue(id, Values.EMPTY_TEXT_ARRAY, VirtualValues.EMPTY_MAP)
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.runtime.interpreted.pipes
+
+import org.mockito.ArgumentMatchers
+import org.mockito.ArgumentMatchers.{any, anyLong}
+import org.mockito.Mockito.{never, verify, when}
+import org.mockito.invocation.InvocationOnMock
+import org.mockito.stubbing.Answer
+import org.neo4j.cypher.internal.runtime.interpreted.commands.expressions.Literal
+import org.neo4j.cypher.internal.runtime.interpreted.{ImplicitDummyPos, QueryStateHelper}
+import org.neo4j.cypher.internal.runtime.{Operations, QueryContext}
+import org.neo4j.cypher.internal.v3_6.expressions.{LabelName, LabelToken, PropertyKeyName, PropertyKeyToken}
+import org.neo4j.cypher.internal.v3_6.util.test_helpers.CypherFunSuite
+import org.neo4j.cypher.internal.v3_6.util.{LabelId, PropertyKeyId}
+import org.neo4j.values.storable.CoordinateReferenceSystem.{Cartesian, WGS84}
+import org.neo4j.values.storable.Values
+import org.neo4j.values.virtual.{NodeValue, VirtualValues}
+
+class NodeIndexNearestNeighbourScanPipeTest extends CypherFunSuite with ImplicitDummyPos with IndexMockingHelp {
+
+  private val label = LabelToken(LabelName("Place")_, LabelId(11))
+  private val propertyKey = PropertyKeyToken(PropertyKeyName("location")_, PropertyKeyId(10))
+  override val propertyKeys = Seq(propertyKey)
+  private val origin = Values.pointValue(Cartesian, 0, 0)
+
+  test("should produce nodes nearest first and nodes without distance last") {
+    // given
+    val (a, b, c, d) = (nodeValue(1), nodeValue(2), nodeValue(3), nodeValue(4))
+    val queryContext = mock[QueryContext]
+    val nodeOps = mock[Operations[NodeValue]]
+    when(queryContext.nodeOps).thenReturn(nodeOps)
+    when(queryContext.nodeById(anyLong())).thenAnswer(new Answer[NodeValue] {
+      override def answer(invocationOnMock: InvocationOnMock): NodeValue = nodeValue(invocationOnMock.getArgument(0))
+    })
+    when(queryContext.indexSeekByDistance(any(), ArgumentMatchers.eq(origin))).thenReturn(PredefinedCursor(List(nodeValueHit(c), nodeValueHit(a))))
+    when(queryContext.getNodesByLabel(11)).thenReturn(Iterator(a, b, c, d))
+    when(nodeOps.getProperty(1, 10)).thenReturn(Values.pointValue(Cartesian, 2, 0))
+    when(nodeOps.getProperty(2, 10)).thenReturn(Values.NO_VALUE)
+    when(nodeOps.getProperty(3, 10)).thenReturn(Values.pointValue(Cartesian, 1, 0))
+    when(nodeOps.getProperty(4, 10)).thenReturn(Values.pointValue(WGS84, 1, 0))
+    val queryState = QueryStateHelper.emptyWith(query = queryContext)
+
+    // when
+    val result = NodeIndexNearestNeighbourScanPipe("n", label, propertyKey, Literal(origin))().createResults(queryState)
+
+    // then
+    result.map(_("n")).toList should equal(List(c, a, b, d))
+  }
+
+  test("should only scan the label when the origin is not a point") {
+    // given
+    val (a, b) = (nodeValue(1), nodeValue(2))
+    val queryContext = mock[QueryContext]
+    val nodeOps = mock[Operations[NodeValue]]
+    when(queryContext.nodeOps).thenReturn(nodeOps)
+    when(queryContext.getNodesByLabel(11)).thenReturn(Iterator(a, b))
+    when(nodeOps.getProperty(anyLong(), ArgumentMatchers.eq(10))).thenReturn(Values.pointValue(Cartesian, 1, 0))
+    val queryState = QueryStateHelper.emptyWith(query = queryContext)
+
+    // when
+    val result = NodeIndexNearestNeighbourScanPipe("n", label, propertyKey, Literal(null))().createResults(queryState)
+
+    // then
+    result.map(_("n")).toList should equal(List(a, b))
+    verify(queryContext, never()).indexSeekByDistance(any(), any())
+  }
+
+  private def nodeValue(id: Long): NodeValue = VirtualValues.nodeValue(id, Values.EMPTY_TEXT_ARRAY, VirtualValues.EMPTY_MAP)
+}
@@ -38,7 +38,7 @@ import org.neo4j.kernel.impl.api.store.RelationshipIterator
 import org.neo4j.kernel.impl.core.EmbeddedProxySPI
 import org.neo4j.kernel.impl.factory.DatabaseInfo
 import org.neo4j.values.AnyValue
-import org.neo4j.values.storable.{TextValue, Value}
+import org.neo4j.values.storable.{PointValue, TextValue, Value}
 import org.neo4j.values.virtual.{NodeValue, RelationshipValue}
 
 import scala.collection.Iterator
@@ -120,6 +120,8 @@ trait QueryContext extends TokenContext with DbAccess {
                                             indexOrder: IndexOrder,
                                             value: TextValue): NodeValueIndexCursor
 
+  def indexSeekByDistance(index: IndexReference, origin: PointValue): NodeValueIndexCursor
+
   def indexScan[RESULT <: AnyRef](index: IndexReference,
                                   needsValues: Boolean,
                                   indexOrder: IndexOrder): NodeValueIndexCursor
@@ -130,6 +132,8 @@ trait QueryContext extends TokenContext with DbAccess {
 
   def getNodesByLabelPrimitive(id: Int): LongIterator
 
+  def getRelationshipsByType(id: Int): Iterator[RelationshipValue]
+
   /* return true if the constraint was created, false if preexisting, throws if failed */
   def createNodeKeyConstraint(descriptor: IndexDescriptor): Boolean
 
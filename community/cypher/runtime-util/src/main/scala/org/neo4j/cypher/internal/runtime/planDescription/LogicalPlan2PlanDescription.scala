@@ -25,7 +25,7 @@ package org.neo4j.cypher.internal.runtime.planDescription
 import org.neo4j.cypher.internal.planner.v3_6.spi.PlanningAttributes.{Cardinalities, ProvidedOrders}
 import org.neo4j.cypher.internal.runtime.planDescription.InternalPlanDescription.Arguments._
 import org.neo4j.cypher.internal.v3_6.expressions.functions.Point
-import org.neo4j.cypher.internal.v3_6.expressions.{FunctionInvocation, FunctionName, LabelToken, MapExpression, Namespace, PropertyKeyToken, Expression => ASTExpression}
+import org.neo4j.cypher.internal.v3_6.expressions.{FunctionInvocation, FunctionName, LabelToken, MapExpression, Namespace, PropertyKeyToken, SemanticDirection, Expression => ASTExpression}
 import org.neo4j.cypher.internal.v3_6.frontend.PlannerName
 import org.neo4j.cypher.internal.v3_6.logical.plans
 import org.neo4j.cypher.internal.v3_6.logical.plans._
@@ -87,6 +87,10 @@ case class LogicalPlan2PlanDescription(readOnly: Boolean, cardinalities: Cardina
         val entityByIdRhs = EntityByIdRhs(relIds)
         PlanDescriptionImpl(id, "DirectedRelationshipByIdSeek", NoChildren, Seq(entityByIdRhs), variables)
 
+      case DirectedRelationshipTypeScan(relName, startNode, typ, endNode, _) =>
+        val expression = ExpandExpression(startNode, relName, Seq(typ.name), endNode, SemanticDirection.OUTGOING, 1, Some(1))
+        PlanDescriptionImpl(id, "DirectedRelationshipTypeScan", NoChildren, Seq(expression), variables)
+
       case _: LoadCSV =>
         PlanDescriptionImpl(id, "LoadCSV", NoChildren, Seq.empty, variables)
 
@@ -105,6 +109,10 @@ case class LogicalPlan2PlanDescription(readOnly: Boolean, cardinalities: Cardina
       case NodeIndexScan(_, label, property, _, _) =>
         PlanDescriptionImpl(id, "NodeIndexScan", NoChildren, Seq(Index(label.name, Seq(property.propertyKeyToken.name))), variables)
 
+      case NodeIndexNearestNeighbourScan(_, label, property, origin, _) =>
+        val arguments = Seq(Index(label.name, Seq(property.name)), Expression(origin))
+        PlanDescriptionImpl(id, "NodeIndexNearestNeighbourScan", NoChildren, arguments, variables)
+
       case ProcedureCall(_, call) =>
         val signature = Signature(call.qualifiedName, call.callArguments, call.callResultTypes)
         PlanDescriptionImpl(id, "ProcedureCall", NoChildren, Seq(signature), variables)
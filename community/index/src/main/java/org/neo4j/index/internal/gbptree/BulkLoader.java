@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.neo4j.index.internal.gbptree.TreeNode.Overflow;
+import org.neo4j.io.pagecache.PageCursor;
+
+import static org.neo4j.index.internal.gbptree.GenerationSafePointerPair.pointer;
+import static org.neo4j.index.internal.gbptree.TreeNode.NO_NODE_FLAG;
+import static org.neo4j.index.internal.gbptree.TreeNode.Overflow.NO_NEED_DEFRAG;
+import static org.neo4j.index.internal.gbptree.TreeNode.Overflow.YES;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.LEAF;
+
+/**
+ * Builds a tree bottom-up from entries added in ascending key order, as opposed to inserting them one by one
+ * from the root like {@link InternalTreeLogic} does.
+ * <p>
+ * Leaves are filled from left to right, each up to a fill factor, and every new leaf is linked in as right sibling
+ * of the previous one. Whenever a new node is started on a level, a splitter key and the new node are added to the
+ * rightmost node on the level above, which in turn is filled up to the same fill factor, and so on. This means that
+ * there is only ever one node on the topmost level, which becomes the root of the tree.
+ * <p>
+ * All nodes are newly acquired and written in unstable generation. The tree they form becomes visible only when
+ * the root id returned from {@link #finish()} is made the root of the tree. If loading fails, {@link #discard()}
+ * releases the nodes instead.
+ *
+ * @param <KEY> type of internal/leaf keys
+ * @param <VALUE> type of leaf values
+ */
+class BulkLoader<KEY,VALUE>
+{
+    private final IdProvider idProvider;
+    private final TreeNode<KEY,VALUE> bTreeNode;
+    private final Layout<KEY,VALUE> layout;
+    private final KEY readKey;
+    private final VALUE readValue;
+    private final KEY splitter;
+
+    /**
+     * Id and key count of the rightmost node on each level, where level 0 is the leaves.
+     */
+    private long[] nodeIds = new long[0];
+    private int[] keyCounts = new int[0];
+    private int numberOfLevels;
+
+    private PageCursor leafCursor;
+    private PageCursor internalCursor;
+    private long stableGeneration;
+    private long unstableGeneration;
+    private double fillFactor;
+
+    BulkLoader( IdProvider idProvider, TreeNode<KEY,VALUE> bTreeNode, Layout<KEY,VALUE> layout )
+    {
+        this.idProvider = idProvider;
+        this.bTreeNode = bTreeNode;
+        this.layout = layout;
+        this.readKey = layout.newKey();
+        this.readValue = layout.newValue();
+        this.splitter = layout.newKey();
+    }
+
+    /**
+     * Prepare for loading a new tree.
+     *
+     * @param leafCursor {@link PageCursor} to write leaves with.
+     * @param internalCursor {@link PageCursor} to write internal nodes with.
+     * @param stableGeneration stable generation, i.e. generations <= this generation are considered stable.
+     * @param unstableGeneration unstable generation, i.e. generation which is under development right now.
+     * @param fillFactor how much of each node to fill before starting the next one, 0=only one entry, 1=as much as fits.
+     */
+    void initialize( PageCursor leafCursor, PageCursor internalCursor, long stableGeneration, long unstableGeneration,
+            double fillFactor )
+    {
+        this.leafCursor = leafCursor;
+        this.internalCursor = internalCursor;
+        this.stableGeneration = stableGeneration;
+        this.unstableGeneration = unstableGeneration;
+        this.fillFactor = fillFactor;
+        this.numberOfLevels = 0;
+    }
+
+    /**
+     * Adds an entry after all entries added so far. If the key is equal to the key of the previously added entry,
+     * the two are merged using the {@link ValueMerger}, just like an insert in the tree would.
+     *
+     * @param key key to add, must not be less than the key of the previously added entry.
+     * @param value value to associate with key.
+     * @param valueMerger {@link ValueMerger} for deciding what to do if the key is equal to the previous key.
+     * @throws IOException on cursor failure
+     * @throws IllegalArgumentException if key is less than the previously added key.
+     */
+    void add( KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger ) throws IOException
+    {
+        bTreeNode.validateKeyValueSize( key, value );
+        if ( numberOfLevels == 0 )
+        {
+            startNode( leafCursor, 0 );
+        }
+
+        int keyCount = keyCounts[0];
+        if ( keyCount > 0 )
+        {
+            bTreeNode.keyAt( leafCursor, readKey, keyCount - 1, LEAF );
+            int comparison = layout.compare( key, readKey );
+            if ( comparison < 0 )
+            {
+                throw new IllegalArgumentException( "Bulk loaded keys must be added in ascending order, but " + key +
+                        " was added after " + readKey );
+            }
+            if ( comparison == 0 )
+            {
+                mergeWithLast( key, value, valueMerger, keyCount );
+                return;
+            }
+        }
+        appendToLeaf( key, value );
+    }
+
+    /**
+     * @return id of the root of the loaded tree, or {@link TreeNode#NO_NODE_FLAG} if nothing was added.
+     * After this call the loader is ready to be {@link #initialize(PageCursor, PageCursor, long, long, double)
+     * initialized} for loading another tree.
+     */
+    long finish()
+    {
+        long rootId = numberOfLevels == 0 ? NO_NODE_FLAG : nodeIds[numberOfLevels - 1];
+        numberOfLevels = 0;
+        return rootId;
+    }
+
+    /**
+     * Releases the nodes of the tree loaded so far, instead of {@link #finish() finishing} it, when loading it failed.
+     * The nodes on each level are found by following left sibling pointers from the rightmost one.
+     * After this call the loader is ready to be {@link #initialize(PageCursor, PageCursor, long, long, double)
+     * initialized} for loading another tree.
+     *
+     * @throws IOException on cursor failure
+     */
+    void discard() throws IOException
+    {
+        for ( int level = 0; level < numberOfLevels; level++ )
+        {
+            PageCursor cursor = level == 0 ? leafCursor : internalCursor;
+            long nodeId = nodeIds[level];
+            while ( nodeId != NO_NODE_FLAG )
+            {
+                PageCursorUtil.goTo( cursor, "discarded node", nodeId );
+                long leftSibling = TreeNode.leftSibling( cursor, stableGeneration, unstableGeneration );
+                PointerChecking.checkPointer( leftSibling, true );
+                idProvider.releaseId( stableGeneration, unstableGeneration, nodeId );
+                nodeId = pointer( leftSibling );
+            }
+        }
+        numberOfLevels = 0;
+    }
+
+    private void mergeWithLast( KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger, int keyCount )
+            throws IOException
+    {
+        int pos = keyCount - 1;
+        bTreeNode.valueAt( leafCursor, readValue, pos );
+        VALUE mergedValue = valueMerger.merge( readKey, key, readValue, value );
+        if ( mergedValue != null && !bTreeNode.setValueAt( leafCursor, mergedValue, pos ) )
+        {
+            // Value could not be overwritten in a simple way because they differ in size.
+            // Delete old entry and add the merged one, which may need to go into a new leaf.
+            bTreeNode.removeKeyValueAt( leafCursor, pos, keyCount );
+            TreeNode.setKeyCount( leafCursor, pos );
+            keyCounts[0] = pos;
+            appendToLeaf( key, mergedValue );
+        }
+    }
+
+    private void appendToLeaf( KEY key, VALUE value ) throws IOException
+    {
+        int keyCount = keyCounts[0];
+        Overflow overflow = bTreeNode.leafOverflow( leafCursor, keyCount, key, value );
+        if ( keyCount > 0 && (overflow == YES || bTreeNode.leafFilledBeyond( leafCursor, keyCount, key, value, fillFactor )) )
+        {
+            bTreeNode.keyAt( leafCursor, readKey, keyCount - 1, LEAF );
+            layout.minimalSplitter( readKey, key, splitter );
+            long left = nodeIds[0];
+            long right = startNode( leafCursor, 0 );
+            addToParent( 1, splitter, left, right );
+            keyCount = 0;
+        }
+        else if ( overflow == NO_NEED_DEFRAG )
+        {
+            bTreeNode.defragmentLeaf( leafCursor );
+        }
+
+        bTreeNode.insertKeyValueAt( leafCursor, key, value, keyCount, keyCount );
+        TreeNode.setKeyCount( leafCursor, keyCount + 1 );
+        keyCounts[0] = keyCount + 1;
+    }
+
+    /**
+     * Adds {@code splitter} and {@code right} child to the rightmost node on the given level, where {@code right} is
+     * a new node on the level below and {@code left} is the node before it.
+     */
+    private void addToParent( int level, KEY splitter, long left, long right ) throws IOException
+    {
+        if ( level == numberOfLevels )
+        {
+            // Left has been the only node on the level below, now it gets a parent
+            startNode( internalCursor, level );
+            bTreeNode.setChildAt( internalCursor, left, 0, stableGeneration, unstableGeneration );
+        }
+        else
+        {
+            PageCursorUtil.goTo( internalCursor, "parent", nodeIds[level] );
+        }
+
+        int keyCount = keyCounts[level];
+        Overflow overflow = bTreeNode.internalOverflow( internalCursor, keyCount, splitter );
+        if ( keyCount > 0 && (overflow == YES || bTreeNode.internalFilledBeyond( internalCursor, keyCount, splitter, fillFactor )) )
+        {
+            // Start a new node on this level, with right as its only child. The splitter moves up a level
+            // to separate the new node from the previous one.
+            long leftParent = nodeIds[level];
+            long rightParent = startNode( internalCursor, level );
+            bTreeNode.setChildAt( internalCursor, right, 0, stableGeneration, unstableGeneration );
+            addToParent( level + 1, splitter, leftParent, rightParent );
+            return;
+        }
+
+        bTreeNode.insertKeyAndRightChildAt( internalCursor, splitter, right, keyCount, keyCount,
+                stableGeneration, unstableGeneration );
+        TreeNode.setKeyCount( internalCursor, keyCount + 1 );
+        keyCounts[level] = keyCount + 1;
+    }
+
+    /**
+     * Acquires and initializes a new node to the right of the current rightmost node on the given level.
+     * Leaves cursor at the new node.
+     *
+     * @return id of the new node.
+     */
+    private long startNode( PageCursor cursor, int level ) throws IOException
+    {
+        long previous = level < numberOfLevels ? nodeIds[level] : NO_NODE_FLAG;
+        long nodeId = idProvider.acquireNewId( stableGeneration, unstableGeneration );
+        if ( previous != NO_NODE_FLAG )
+        {
+            PageCursorUtil.goTo( cursor, "left sibling", previous );
+            TreeNode.setRightSibling( cursor, nodeId, stableGeneration, unstableGeneration );
+        }
+
+        PageCursorUtil.goTo( cursor, "new node", nodeId );
+        if ( level == 0 )
+        {
+            bTreeNode.initializeLeaf( cursor, stableGeneration, unstableGeneration );
+        }
+        else
+        {
+            bTreeNode.initializeInternal( cursor, stableGeneration, unstableGeneration );
+        }
+        if ( previous != NO_NODE_FLAG )
+        {
+            TreeNode.setLeftSibling( cursor, previous, stableGeneration, unstableGeneration );
+        }
+
+        if ( level == numberOfLevels )
+        {
+            ensureLevelCapacity( level + 1 );
+            numberOfLevels++;
+        }
+        nodeIds[level] = nodeId;
+        keyCounts[level] = 0;
+        return nodeId;
+    }
+
+    private void ensureLevelCapacity( int levels )
+    {
+        if ( levels > nodeIds.length )
+        {
+            nodeIds = Arrays.copyOf( nodeIds, levels );
+            keyCounts = Arrays.copyOf( keyCounts, levels );
+        }
+    }
+}
@@ -23,6 +23,7 @@
 package org.neo4j.index.internal.gbptree;
 
 import java.io.IOException;
+import java.util.Arrays;
 
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.PagedFile;
@@ -98,11 +99,34 @@ class FreeListIdProvider implements IdProvider
      */
     private volatile long lastId;
 
+    /**
+     * Odd while ids are being acquired and released as part of a change of the structure of the tree, even between
+     * such changes, see {@link #changeCount()}.
+     */
+    private volatile long changeCount;
+
     /**
      * For monitoring internal free-list activity.
      */
     private final Monitor monitor;
 
+    /**
+     * Ids drained from the free-list by {@link #beginCompaction(long, long)}, in ascending order, which are handed out
+     * lowest first until {@link #endCompaction(long, long, long)}. {@code null} when not compacting.
+     * Only accessed by whoever holds the writer lock, which compaction only does for a batch at a time.
+     */
+    private long[] compactionIds;
+    private int compactionIdsAcquired;
+    private int compactionIdsCount;
+
+    /**
+     * Free-list pages exhausted while draining the free-list in {@link #beginCompaction(long, long)}, released only
+     * after the drained ids are sorted, so that the free-list pages needed for them are taken from the lowest ids.
+     * {@code null} when not draining.
+     */
+    private long[] exhaustedFreelistPageIds;
+    private int exhaustedFreelistPageIdsCount;
+
     FreeListIdProvider( PagedFile pagedFile, int pageSize, long lastId, Monitor monitor )
     {
         this.pagedFile = pagedFile;
@@ -145,6 +169,7 @@ class FreeListIdProvider implements IdProvider
     {
         // Acquire id from free-list or end of store file
         long acquiredId = acquireNewIdFromFreelistOrEnd( stableGeneration, unstableGeneration, allowTakeLastFromPage );
+        beginStructureChange();
 
         // Zap the page, i.e. set all bytes to zero
         try ( PageCursor cursor = pagedFile.io( acquiredId, PagedFile.PF_SHARED_WRITE_LOCK ) )
@@ -159,6 +184,24 @@ class FreeListIdProvider implements IdProvider
 
     private long acquireNewIdFromFreelistOrEnd( long stableGeneration, long unstableGeneration,
             boolean allowTakeLastFromPage ) throws IOException
+    {
+        if ( compactionIds != null && compactionIdsAcquired < compactionIdsCount )
+        {
+            return compactionIds[compactionIdsAcquired++];
+        }
+
+        long acquiredId = acquireIdFromFreelist( stableGeneration, unstableGeneration, allowTakeLastFromPage );
+        if ( acquiredId != FreelistNode.NO_PAGE_ID )
+        {
+            return acquiredId;
+        }
+
+        // Fall-back to acquiring at the end of the file
+        return nextLastId();
+    }
+
+    private long acquireIdFromFreelist( long stableGeneration, long unstableGeneration, boolean allowTakeLastFromPage )
+            throws IOException
     {
         if ( (readPageId != writePageId || readPos < writePos) &&
                 (allowTakeLastFromPage || readPos < freelistNode.maxEntries() - 1) )
@@ -196,16 +239,23 @@ class FreeListIdProvider implements IdProvider
 
                         // Put the exhausted free-list page id itself on the free-list
                         long exhaustedFreelistPageId = cursor.getCurrentPageId();
-                        releaseId( stableGeneration, unstableGeneration, exhaustedFreelistPageId );
-                        monitor.releasedFreelistPageId( exhaustedFreelistPageId );
+                        if ( exhaustedFreelistPageIds != null )
+                        {
+                            exhaustedFreelistPageIds = ensureCapacity( exhaustedFreelistPageIds,
+                                    exhaustedFreelistPageIdsCount + 1 );
+                            exhaustedFreelistPageIds[exhaustedFreelistPageIdsCount++] = exhaustedFreelistPageId;
+                        }
+                        else
+                        {
+                            releaseId( stableGeneration, unstableGeneration, exhaustedFreelistPageId );
+                            monitor.releasedFreelistPageId( exhaustedFreelistPageId );
+                        }
                     }
                     return resultPageId;
                 }
             }
         }
-
-        // Fall-back to acquiring at the end of the file
-        return nextLastId();
+        return FreelistNode.NO_PAGE_ID;
     }
 
     private long nextLastId()
@@ -216,6 +266,7 @@ class FreeListIdProvider implements IdProvider
     @Override
     public void releaseId( long stableGeneration, long unstableGeneration, long id ) throws IOException
     {
+        beginStructureChange();
         try ( PageCursor cursor = pagedFile.io( writePageId, PagedFile.PF_SHARED_WRITE_LOCK ) )
         {
             PageCursorUtil.goTo( cursor, "free-list write page", writePageId );
@@ -240,6 +291,137 @@ class FreeListIdProvider implements IdProvider
         }
     }
 
+    /**
+     * Starts compacting the tree by draining all reusable ids, i.e. ids released in stable generation, from the
+     * free-list. Until {@link #endCompaction(long, long, long)} ids are acquired from the drained ids, lowest first,
+     * before anything else. Ids released in the meantime are added to the free-list as usual.
+     * <p>
+     * If what remains of the free-list fits on one page it's also moved to the lowest drained id, if that is lower
+     * than where it is now, so that it doesn't prevent the file from shrinking. Free-list pages are never reused
+     * directly, but put on the free-list, since the free-list of the last checkpointed state must stay intact.
+     *
+     * @param stableGeneration stable generation, i.e. generations <= this generation are considered stable.
+     * @param unstableGeneration unstable generation, i.e. generation which is under development right now.
+     * @return number of drained ids.
+     * @throws IOException on {@link PageCursor} error.
+     */
+    int beginCompaction( long stableGeneration, long unstableGeneration ) throws IOException
+    {
+        long[] ids = new long[16];
+        int count = 0;
+        long id;
+        exhaustedFreelistPageIds = new long[16];
+        exhaustedFreelistPageIdsCount = 0;
+        while ( (id = acquireIdFromFreelist( stableGeneration, unstableGeneration, true )) != FreelistNode.NO_PAGE_ID )
+        {
+            ids = ensureCapacity( ids, count + 1 );
+            ids[count++] = id;
+        }
+        long[] exhausted = exhaustedFreelistPageIds;
+        int exhaustedCount = exhaustedFreelistPageIdsCount;
+        exhaustedFreelistPageIds = null;
+        Arrays.sort( ids, 0, count );
+        compactionIds = ids;
+        compactionIdsAcquired = 0;
+        compactionIdsCount = count;
+
+        if ( count > 0 && readPageId == writePageId && ids[0] < writePageId )
+        {
+            moveFreelistPage( stableGeneration, unstableGeneration, compactionIds[compactionIdsAcquired++] );
+        }
+        for ( int i = 0; i < exhaustedCount; i++ )
+        {
+            releaseId( stableGeneration, unstableGeneration, exhausted[i] );
+            monitor.releasedFreelistPageId( exhausted[i] );
+        }
+        return count;
+    }
+
+    private void moveFreelistPage( long stableGeneration, long unstableGeneration, long newPageId ) throws IOException
+    {
+        long oldPageId = writePageId;
+        try ( PageCursor from = pagedFile.io( oldPageId, PagedFile.PF_SHARED_READ_LOCK );
+              PageCursor to = pagedFile.io( newPageId, PagedFile.PF_SHARED_WRITE_LOCK ) )
+        {
+            goTo( from, "free-list", oldPageId );
+            goTo( to, "new free-list", newPageId );
+            to.zapPage();
+            FreelistNode.initialize( to );
+            GenerationKeeper generation = new GenerationKeeper();
+            for ( int pos = readPos; pos < writePos; pos++ )
+            {
+                long id;
+                do
+                {
+                    id = freelistNode.read( from, Long.MAX_VALUE, pos, generation );
+                }
+                while ( from.shouldRetry() );
+                freelistNode.write( to, generation.generation, id, pos - readPos );
+            }
+            checkOutOfBounds( to );
+        }
+        writePos -= readPos;
+        readPos = 0;
+        writePageId = newPageId;
+        readPageId = newPageId;
+        monitor.acquiredFreelistPageId( newPageId );
+        releaseId( stableGeneration, unstableGeneration, oldPageId );
+        monitor.releasedFreelistPageId( oldPageId );
+    }
+
+    /**
+     * @return whether or not compaction has been {@link #beginCompaction(long, long) begun}, but not
+     * {@link #endCompaction(long, long, long) ended}.
+     */
+    boolean isCompacting()
+    {
+        return compactionIds != null;
+    }
+
+    /**
+     * @return the lowest drained id not yet acquired during compaction, or {@link FreelistNode#NO_PAGE_ID} if there is
+     * none.
+     */
+    long peekCompactionId()
+    {
+        return compactionIds != null && compactionIdsAcquired < compactionIdsCount ? compactionIds[compactionIdsAcquired]
+                                                                                     : FreelistNode.NO_PAGE_ID;
+    }
+
+    /**
+     * Ends compaction started by {@link #beginCompaction(long, long)}, making {@code highestIdInUse} the last id.
+     * Drained ids that weren't acquired during compaction go back on the free-list, except the ones above the new
+     * last id which are simply forgotten, so that the file can be truncated after them.
+     *
+     * @param stableGeneration stable generation, i.e. generations <= this generation are considered stable.
+     * @param unstableGeneration unstable generation, i.e. generation which is under development right now.
+     * @param highestIdInUse highest id used by the tree, as tree node, free-list page or id on the free-list.
+     * @throws IOException on {@link PageCursor} error.
+     */
+    void endCompaction( long stableGeneration, long unstableGeneration, long highestIdInUse ) throws IOException
+    {
+        if ( highestIdInUse < lastId )
+        {
+            lastId = highestIdInUse;
+        }
+        while ( compactionIdsCount > compactionIdsAcquired && compactionIds[compactionIdsCount - 1] > highestIdInUse )
+        {
+            compactionIdsCount--;
+        }
+        // Releasing may need new free-list pages, which are then taken from the lowest remaining drained ids,
+        // so release from the highest down to keep the free-list pages away from the end of the file
+        while ( compactionIdsAcquired < compactionIdsCount )
+        {
+            releaseId( stableGeneration, unstableGeneration, compactionIds[--compactionIdsCount] );
+        }
+        compactionIds = null;
+    }
+
+    private static long[] ensureCapacity( long[] ids, int capacity )
+    {
+        return capacity > ids.length ? Arrays.copyOf( ids, Math.max( capacity, ids.length * 2 ) ) : ids;
+    }
+
     @Override
     public void visitFreelist( IdProviderVisitor visitor ) throws IOException
     {
@@ -285,6 +467,39 @@ class FreeListIdProvider implements IdProvider
         }
     }
 
+    /**
+     * Counts changes of the structure of the tree, as seen from acquiring and releasing ids. The count is odd from
+     * the first acquired or released id of a change until {@link #structureChangeCompleted()} is called, so readers
+     * can tell whether or not the tree has been changed, or is being changed, since they last looked.
+     *
+     * @return the current change count.
+     */
+    long changeCount()
+    {
+        return changeCount;
+    }
+
+    /**
+     * Called by the writer when a change that may have acquired or released ids is completed, i.e. when all pointers
+     * to and from the involved tree nodes have been updated.
+     */
+    void structureChangeCompleted()
+    {
+        if ( (changeCount & 1) == 1 )
+        {
+            changeCount++;
+        }
+    }
+
+    private void beginStructureChange()
+    {
+        // Only ever changed by the single thread that is allowed to acquire and release ids
+        if ( (changeCount & 1) == 0 )
+        {
+            changeCount++;
+        }
+    }
+
     @Override
     public long lastId()
     {
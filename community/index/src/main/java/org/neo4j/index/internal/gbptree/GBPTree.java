@@ -31,7 +31,13 @@ import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Consumer;
 import java.util.function.LongSupplier;
 import java.util.function.Supplier;
@@ -55,6 +61,7 @@ import static org.neo4j.index.internal.gbptree.Header.CARRY_OVER_PREVIOUS_HEADER
 import static org.neo4j.index.internal.gbptree.Header.replace;
 import static org.neo4j.index.internal.gbptree.PageCursorUtil.checkOutOfBounds;
 import static org.neo4j.index.internal.gbptree.PointerChecking.assertNoSuccessor;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.LEAF;
 
 /**
  * A generation-aware B+tree (GB+Tree) implementation directly atop a {@link PageCache} with no caching in between.
@@ -265,6 +272,18 @@ public class GBPTree<KEY,VALUE> implements Closeable
     {
     };
 
+    /**
+     * Number of {@link #leafLatches}. Parallel writers only contend on the same latch when changing leaves with
+     * the same id modulo this number.
+     */
+    private static final int LEAF_LATCH_STRIPES = 128;
+
+    /**
+     * Maximum number of leaves that {@link #compact()} merges, or tree nodes that it moves, in one batch.
+     * Writers are only blocked during a batch, not between them.
+     */
+    private static final int COMPACTION_BATCH_SIZE = 512;
+
     /**
      * Paged file in a {@link PageCache} providing the means of storage.
      */
@@ -288,6 +307,12 @@ public class GBPTree<KEY,VALUE> implements Closeable
      */
     private final TreeNode<KEY,VALUE> bTreeNode;
 
+    /**
+     * Format of the tree nodes, for creating a {@link TreeNode} for each {@link ParallelWriter}, since tree node
+     * instances keep state while writing.
+     */
+    private final TreeNodeSelector.Factory treeNodeFormat;
+
     /**
      * A free-list of released ids. Acquiring new ids involves first trying out the free-list and then,
      * as a fall-back allocate a new id at the end of the store.
@@ -299,6 +324,35 @@ public class GBPTree<KEY,VALUE> implements Closeable
      */
     private final SingleWriter writer;
 
+    /**
+     * A single instance {@link Writer} for bulk loading the tree, sharing the single writer guard with {@link #writer}.
+     */
+    private final BulkWriter bulkWriter;
+
+    /**
+     * Idle {@link ParallelWriter} instances, reused by {@link #parallelWriter()}.
+     */
+    private final Queue<ParallelWriter> parallelWriters = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Parallel writers hold the read lock while changing contents of a single leaf and the write lock while
+     * changing the structure of the tree, see {@link ParallelWriter}.
+     */
+    private final ReadWriteLock structureLock = new ReentrantReadWriteLock();
+
+    /**
+     * Incremented by parallel writers each time they have held the {@link #structureLock} write lock.
+     * A parallel writer that sees the same version as after its last change can keep its path down the tree.
+     * Guarded by {@link #structureLock}.
+     */
+    private long structureVersion;
+
+    /**
+     * Latches that parallel writers take on leaves they change while holding the {@link #structureLock} read lock,
+     * striped on tree node id.
+     */
+    private final Object[] leafLatches = newLeafLatches();
+
     /**
      * Tells whether or not there have been made changes (using {@link #writer()}) to this tree
      * since last call to {@link #checkpoint(IOLimiter)}. This variable is set when calling {@link #writer()}
@@ -322,6 +376,19 @@ public class GBPTree<KEY,VALUE> implements Closeable
      */
     private final GBPTreeLock lock = new GBPTreeLock();
 
+    /**
+     * Seekers currently reading this tree, see {@link #truncationEpoch}.
+     */
+    private final OpenSeekers openSeekers = new OpenSeekers();
+
+    /**
+     * Set when {@link #compact()} has lowered the last id, to the epoch of {@link #openSeekers} in which tree
+     * nodes were last moved away from the end of the file. The file is truncated after the last id on the first
+     * checkpoint when no seeker from that epoch, or earlier, is open. {@code -1} when there's nothing to truncate.
+     * Only accessed holding {@link GBPTreeLock#writerAndCleanerLock()}.
+     */
+    private long truncationEpoch = -1;
+
     /**
      * Page size, i.e. tree node size, of the tree nodes in this tree. The page size is determined on
      * tree creation, stored in meta page and read when opening tree later.
@@ -361,6 +428,12 @@ public class GBPTree<KEY,VALUE> implements Closeable
      */
     private final Supplier<RootCatchup> rootCatchupSupplier = () -> new TripCountingRootCatchup( () -> root );
 
+    /**
+     * On-heap copy of the upper internal levels, for {@link #seek(Object, Object)} to start further down the tree,
+     * or {@code null} if not enabled, see {@link UpperLevelCache#LEVELS_NAME}.
+     */
+    private final UpperLevelCache<KEY,VALUE> upperLevelCache;
+
     /**
      * Supplier of generation to readers. This supplier will actually very rarely be used, because normally
      * a {@link SeekCursor} is bootstrapped from {@link #generation}. The only time this supplier will be
@@ -501,9 +574,13 @@ public class GBPTree<KEY,VALUE> implements Closeable
                 meta.verify( layout );
                 format = TreeNodeSelector.selectByFormat( meta.getFormatIdentifier(), meta.getFormatVersion() );
             }
+            this.treeNodeFormat = format;
             this.bTreeNode = format.create( pageSize, layout );
             this.freeList = new FreeListIdProvider( pagedFile, pageSize, rootId, FreeListIdProvider.NO_MONITOR );
-            this.writer = new SingleWriter( new InternalTreeLogic<>( freeList, bTreeNode, layout, monitor ) );
+            this.writer = new SingleWriter( new InternalTreeLogic<>( freeList, bTreeNode.forSingleThread(), layout, monitor ) );
+            this.bulkWriter = new BulkWriter( new BulkLoader<>( freeList, bTreeNode.forSingleThread(), layout ) );
+            int cachedLevels = UpperLevelCache.levelsFromFeatureToggle();
+            this.upperLevelCache = cachedLevels > 0 ? new UpperLevelCache<>( bTreeNode, layout, cachedLevels ) : null;
 
             // Create or load state
             if ( created )
@@ -575,6 +652,7 @@ public class GBPTree<KEY,VALUE> implements Closeable
 
         // Initialize free-list
         freeList.initializeAfterCreation();
+        freeList.structureChangeCompleted();
         changesSinceLastCheckpoint = true;
 
         // Checkpoint to make the created root node stable. Forcing tree state also piggy-backs on this.
@@ -849,7 +927,7 @@ public class GBPTree<KEY,VALUE> implements Closeable
         // This index was created with another page size, re-open with that actual page size
         if ( pageSize != pageCache.pageSize() )
         {
-            if ( pageSize > pageCache.pageSize() || pageSize < 0 )
+            if ( pageSize > pageCache.pageSize() || pageSize <= 0 )
             {
                 throw new MetadataMismatchException(
                         "Tried to create tree with page size %d, but page cache used to open it this time " +
@@ -905,13 +983,88 @@ public class GBPTree<KEY,VALUE> implements Closeable
         long stableGeneration = stableGeneration( generation );
         long unstableGeneration = unstableGeneration( generation );
 
-        PageCursor cursor = pagedFile.io( 0L /*ignored*/, PagedFile.PF_SHARED_READ_LOCK );
-        long rootGeneration = root.goTo( cursor );
+        AtomicLong seekers = openSeekers.open();
+        try
+        {
+            PageCursor cursor = pagedFile.io( 0L /*ignored*/, PagedFile.PF_SHARED_READ_LOCK );
+            long pointerGeneration = upperLevelCache != null ? goToCachedStartNode( cursor, generation, fromInclusive ) : root.goTo( cursor );
+
+            // Returns cursor which is now initiated with left-most leaf node for the specified range
+            return new SeekCursor<>( cursor, bTreeNode.forSingleThread(), fromInclusive, toExclusive, layout,
+                    stableGeneration, unstableGeneration, generationSupplier, rootCatchupSupplier.get(), pointerGeneration,
+                    exceptionDecorator, SeekCursor.DEFAULT_MAX_READ_AHEAD, seekers::decrementAndGet );
+        }
+        catch ( Throwable e )
+        {
+            seekers.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Moves {@code cursor} to the tree node below the levels cached in {@link #upperLevelCache} that leads to
+     * {@code key}, or to the root if the cache can't be used right now.
+     *
+     * @return generation of the pointer to the tree node that {@code cursor} was moved to.
+     */
+    private long goToCachedStartNode( PageCursor cursor, long generation, KEY key ) throws IOException
+    {
+        Root root = this.root;
+        long changeCount = freeList.changeCount();
+        if ( (changeCount & 1) == 1 )
+        {
+            // The structure of the tree is being changed
+            return root.goTo( cursor );
+        }
+        upperLevelCache.refreshIfNeeded( cursor, root, generation, changeCount, freeList::changeCount, generationSupplier );
+        GenerationKeeper pointerGeneration = new GenerationKeeper();
+        long nodeId = upperLevelCache.childFor( key, root, generation, changeCount, pointerGeneration );
+        if ( TreeNode.isNode( nodeId ) )
+        {
+            TreeNode.goTo( cursor, "cached child", nodeId );
+            return pointerGeneration.generation;
+        }
+        return root.goTo( cursor );
+    }
+
+    /**
+     * Splits the key range between {@code fromInclusive} and {@code toExclusive} into partitions holding roughly
+     * the same number of entries, by looking at keys in internal tree nodes. Each partition can then be
+     * {@link #seek(Object, Object) seeked} on its own, e.g. by different threads in parallel.
+     * Together the partitions cover the whole range and no two partitions overlap.
+     * <p>
+     * Fewer partitions than desired are returned if there aren't enough internal keys inside the range,
+     * e.g. if the range is covered by a single leaf.
+     *
+     * @param fromInclusive lower bound of the range to partition (inclusive).
+     * @param toExclusive higher bound of the range to partition (exclusive). Must not be smaller than {@code fromInclusive}.
+     * @param desiredNumberOfPartitions number of partitions to split the range into.
+     * @return boundaries of the partitions, starting with {@code fromInclusive} and ending with {@code toExclusive}.
+     * Partition {@code i} is seeked with {@code seek( boundaries.get( i ), boundaries.get( i + 1 ) )}.
+     * @throws IOException on error reading from index.
+     */
+    public List<KEY> partitionRange( KEY fromInclusive, KEY toExclusive, int desiredNumberOfPartitions ) throws IOException
+    {
+        if ( desiredNumberOfPartitions < 1 )
+        {
+            throw new IllegalArgumentException( "Expected at least one partition, but got " + desiredNumberOfPartitions );
+        }
+        if ( layout.compare( fromInclusive, toExclusive ) > 0 )
+        {
+            throw new IllegalArgumentException( "Can only partition ascending ranges, but got from:" + fromInclusive + " to:" + toExclusive );
+        }
 
-        // Returns cursor which is now initiated with left-most leaf node for the specified range
-        return new SeekCursor<>( cursor, bTreeNode, fromInclusive, toExclusive, layout,
-                stableGeneration, unstableGeneration, generationSupplier, rootCatchupSupplier.get(), rootGeneration,
-                exceptionDecorator, SeekCursor.DEFAULT_MAX_READ_AHEAD );
+        long generation = this.generation;
+        AtomicLong seekers = openSeekers.open();
+        try ( PageCursor cursor = openRootCursor( PagedFile.PF_SHARED_READ_LOCK ) )
+        {
+            return new KeyRangePartitioner<>( bTreeNode, layout, stableGeneration( generation ), unstableGeneration( generation ) )
+                    .partition( cursor, fromInclusive, toExclusive, desiredNumberOfPartitions );
+        }
+        finally
+        {
+            seekers.decrementAndGet();
+        }
     }
 
     /**
@@ -975,25 +1128,7 @@ public class GBPTree<KEY,VALUE> implements Closeable
         try
         {
             assertRecoveryCleanSuccessful();
-            // Flush dirty pages since that last flush above. This should be a very small set of pages
-            // and should be rather fast. In here writers are blocked and we want to minimize this
-            // windows of time as much as possible, that's why there's an initial flush outside this lock.
-            pagedFile.flushAndForce();
-
-            // Increment generation, i.e. stable becomes current unstable and unstable increments by one
-            // and write the tree state (rootId, lastId, generation a.s.o.) to state page.
-            long unstableGeneration = unstableGeneration( generation );
-            generation = Generation.generation( unstableGeneration, unstableGeneration + 1 );
-            writeState( pagedFile, headerWriter );
-
-            // Flush the state page.
-            pagedFile.flushAndForce();
-
-            // Expose this fact.
-            monitor.checkpointCompleted();
-
-            // Clear flag so that until next change there's no need to do another checkpoint.
-            changesSinceLastCheckpoint = false;
+            checkpointWhileLocked( headerWriter );
         }
         finally
         {
@@ -1003,6 +1138,260 @@ public class GBPTree<KEY,VALUE> implements Closeable
         }
     }
 
+    /**
+     * The part of a checkpoint which is done while holding {@link GBPTreeLock#writerAndCleanerLock()}.
+     */
+    private void checkpointWhileLocked( Header.Writer headerWriter ) throws IOException
+    {
+        if ( freeList.isCompacting() )
+        {
+            // Compaction is between batches, put the ids it drained back on the free-list so that they are
+            // part of the state written below. It drains them again, and more, in its next batch.
+            freeList.endCompaction( stableGeneration( generation ), unstableGeneration( generation ), freeList.lastId() );
+            freeList.structureChangeCompleted();
+        }
+
+        // Flush dirty pages since that last flush above. This should be a very small set of pages
+        // and should be rather fast. In here writers are blocked and we want to minimize this
+        // windows of time as much as possible, that's why there's an initial flush outside this lock.
+        pagedFile.flushAndForce();
+
+        // Increment generation, i.e. stable becomes current unstable and unstable increments by one
+        // and write the tree state (rootId, lastId, generation a.s.o.) to state page.
+        long unstableGeneration = unstableGeneration( generation );
+        generation = Generation.generation( unstableGeneration, unstableGeneration + 1 );
+        writeState( pagedFile, headerWriter );
+
+        // Flush the state page.
+        pagedFile.flushAndForce();
+
+        // Expose this fact.
+        monitor.checkpointCompleted();
+
+        // Clear flag so that until next change there's no need to do another checkpoint.
+        changesSinceLastCheckpoint = false;
+
+        // Drop the pages that compaction moved tree nodes away from, if the durable state no longer has them.
+        truncateIfNoEarlierSeekers();
+    }
+
+    /**
+     * Compacts this tree after large deletions, making it use fewer tree nodes and returning the space of the
+     * tree nodes it no longer needs to the file system by truncating the file.
+     * <p>
+     * Compaction merges neighbouring leaves whose entries fit in one leaf and moves tree nodes from the end of the
+     * file to free ids closer to the start of it. Merges and moves are done in batches of limited size.
+     * Writers are blocked while a batch is in progress, but not between batches. Readers are never blocked.
+     * <p>
+     * Compaction never checkpoints this tree itself, the changes it makes become durable with the next
+     * {@link #checkpoint(IOLimiter) checkpoint}, just like any other change. Ids released by a change can only be
+     * reused after the following checkpoint, so a single call only moves tree nodes to ids that were free at the
+     * last checkpoint. Calling this again after a checkpoint moves tree nodes to the ids freed by the previous call.
+     * If the last id was lowered, the pages after it are dropped from the file by a checkpoint, once no
+     * {@link #seek(Object, Object) seeker} opened before they were moved away from is open anymore.
+     * <p>
+     * Internal tree nodes are moved, but never merged.
+     *
+     * @throws UncheckedIOException on error accessing the index.
+     */
+    public void compact()
+    {
+        assertNotReadOnly( "Compact tree." );
+        try
+        {
+            mergeLeaves();
+            relocateTreeNodes();
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    /**
+     * Merges each leaf into its left sibling, from left to right, if the entries of both fit in one leaf.
+     * Done in batches of {@link #COMPACTION_BATCH_SIZE} leaves, each continuing from the first key of the next leaf.
+     */
+    private void mergeLeaves() throws IOException
+    {
+        KEY key = layout.newKey();
+        KEY nextKey = layout.newKey();
+        boolean started = false;
+        boolean hasNext = true;
+        while ( hasNext )
+        {
+            lock.writerAndCleanerLock();
+            try
+            {
+                assertRecoveryCleanSuccessful();
+                long stableGeneration = stableGeneration( generation );
+                long unstableGeneration = unstableGeneration( generation );
+                try ( PageCursor cursor = openRootCursor( PagedFile.PF_SHARED_WRITE_LOCK ) )
+                {
+                    if ( !started )
+                    {
+                        if ( !firstKey( cursor, key, stableGeneration, unstableGeneration ) )
+                        {
+                            // Empty tree
+                            return;
+                        }
+                        started = true;
+                        root.goTo( cursor );
+                    }
+                    changesSinceLastCheckpoint = true;
+
+                    InternalTreeLogic<KEY,VALUE> treeLogic =
+                            new InternalTreeLogic<>( freeList, bTreeNode.forSingleThread(), layout, monitor );
+                    StructurePropagation<KEY> structurePropagation =
+                            new StructurePropagation<>( layout.newKey(), layout.newKey(), layout.newKey() );
+                    treeLogic.initialize( cursor );
+                    for ( int i = 0; i < COMPACTION_BATCH_SIZE && hasNext; i++ )
+                    {
+                        hasNext = treeLogic.mergeWithLeftSiblingLeaf( cursor, structurePropagation, key, nextKey,
+                                stableGeneration, unstableGeneration );
+                        if ( handleRootStructureChanges( cursor, structurePropagation, stableGeneration, unstableGeneration ) )
+                        {
+                            treeLogic.initialize( cursor );
+                        }
+                        KEY tmp = key;
+                        key = nextKey;
+                        nextKey = tmp;
+                    }
+                }
+                freeList.structureChangeCompleted();
+            }
+            finally
+            {
+                lock.writerAndCleanerUnlock();
+            }
+        }
+    }
+
+    /**
+     * Reads the first key of the leftmost leaf into {@code into}.
+     *
+     * @return {@code true} if there was a key, {@code false} if the tree is empty.
+     */
+    private boolean firstKey( PageCursor cursor, KEY into, long stableGeneration, long unstableGeneration ) throws IOException
+    {
+        while ( TreeNode.isInternal( cursor ) )
+        {
+            long childId = bTreeNode.childAt( cursor, 0, stableGeneration, unstableGeneration );
+            PointerChecking.checkPointer( childId, false );
+            TreeNode.goTo( cursor, "child", childId );
+        }
+        if ( TreeNode.keyCount( cursor ) == 0 )
+        {
+            return false;
+        }
+        bTreeNode.forSingleThread().keyAt( cursor, into, 0, LEAF );
+        return true;
+    }
+
+    /**
+     * Moves tree nodes from the end of the file to free ids closer to the start of it, in batches of at most
+     * {@link #COMPACTION_BATCH_SIZE} tree nodes. The ids drained from the free-list are kept between batches, unless
+     * a checkpoint puts them back in between. The batch which finds nothing more to move lowers the last id,
+     * if possible, so that the next checkpoint can truncate the file.
+     */
+    private void relocateTreeNodes() throws IOException
+    {
+        long lastIdBefore = -1;
+        long threshold = -1;
+        TreeCompactor<KEY,VALUE> compactor = new TreeCompactor<>( freeList, bTreeNode, COMPACTION_BATCH_SIZE );
+        while ( true )
+        {
+            lock.writerAndCleanerLock();
+            try
+            {
+                assertRecoveryCleanSuccessful();
+                changesSinceLastCheckpoint = true;
+                long stableGeneration = stableGeneration( generation );
+                long unstableGeneration = unstableGeneration( generation );
+                if ( lastIdBefore == -1 )
+                {
+                    lastIdBefore = freeList.lastId();
+                }
+                if ( !freeList.isCompacting() )
+                {
+                    long lastId = freeList.lastId();
+                    threshold = lastId + 1 - freeList.beginCompaction( stableGeneration, unstableGeneration );
+                }
+
+                try ( PageCursor cursor = openRootCursor( PagedFile.PF_SHARED_WRITE_LOCK ) )
+                {
+                    long rootId = root.id();
+                    long newRootId = compactor.relocate( cursor, rootId, threshold, stableGeneration, unstableGeneration );
+                    if ( newRootId != rootId )
+                    {
+                        setRoot( newRootId, unstableGeneration );
+                    }
+                }
+                freeList.structureChangeCompleted();
+                if ( !compactor.isComplete() )
+                {
+                    // Let writers in before moving more tree nodes
+                    continue;
+                }
+
+                HighestIdVisitor highestId = new HighestIdVisitor( compactor.highestTreeNodeId() );
+                freeList.visitFreelist( highestId );
+                freeList.endCompaction( stableGeneration, unstableGeneration, highestId.highestId );
+                freeList.structureChangeCompleted();
+
+                if ( freeList.lastId() < lastIdBefore )
+                {
+                    // Seekers opened from now on can't reach the pages after last id, but earlier ones may still read them.
+                    // The first checkpoint when no earlier seeker is open makes the state without those pages durable
+                    // and then drops them.
+                    truncationEpoch = openSeekers.endEpoch();
+                }
+                return;
+            }
+            finally
+            {
+                lock.writerAndCleanerUnlock();
+            }
+        }
+    }
+
+    /**
+     * Truncates the file after the last id if {@link #compact() compaction} has lowered it and no seeker
+     * which may still read the pages after it is open. Called holding {@link GBPTreeLock#writerAndCleanerLock()},
+     * right after writing the state with the current last id.
+     */
+    private void truncateIfNoEarlierSeekers() throws IOException
+    {
+        if ( truncationEpoch != -1 && !openSeekers.anyOpenUntil( truncationEpoch ) )
+        {
+            pagedFile.truncate( freeList.lastId() + 1 );
+            truncationEpoch = -1;
+        }
+    }
+
+    private static class HighestIdVisitor extends IdProvider.IdProviderVisitor.Adaptor
+    {
+        // The meta and state pages are always there
+        private long highestId = IdSpace.MIN_TREE_NODE_ID - 1;
+
+        HighestIdVisitor( long highestTreeNodeId )
+        {
+            highestId = Math.max( highestId, highestTreeNodeId );
+        }
+
+        @Override
+        public void beginFreelistPage( long pageId )
+        {
+            highestId = Math.max( highestId, pageId );
+        }
+
+        @Override
+        public void freelistEntry( long pageId, long generation, int pos )
+        {
+            highestId = Math.max( highestId, pageId );
+        }
+    }
+
     private void assertRecoveryCleanSuccessful() throws IOException
     {
         if ( cleaning != null && cleaning.hasFailed() )
@@ -1113,6 +1502,78 @@ public class GBPTree<KEY,VALUE> implements Closeable
         return writer;
     }
 
+    /**
+     * Use default value for ratioToKeepInLeftOnSplit
+     * @see GBPTree#parallelWriter(double)
+     */
+    public Writer<KEY,VALUE> parallelWriter() throws IOException
+    {
+        return parallelWriter( InternalTreeLogic.DEFAULT_SPLIT_RATIO );
+    }
+
+    /**
+     * Returns a {@link Writer} able to modify the index concurrently with other writers returned from this method.
+     * Changes that fit in a single leaf are made concurrently, holding a latch on that leaf only. Changes that
+     * require changing the structure of the tree, i.e. splitting, merging or rebalancing leaves or creating
+     * new versions of tree nodes, are made by one writer at a time, with no other parallel writer active.
+     * Readers are unaffected, they never wait for writers.
+     * <p>
+     * A {@link ValueMerger} given to {@link Writer#merge(Object, Object, ValueMerger)} may be asked to merge
+     * the same key more than once, if the first merge turned out to require a change to the structure of the tree.
+     * <p>
+     * Parallel writers and the {@link #writer() single writer} exclude each other, i.e. one will wait for
+     * the other to be closed.
+     *
+     * @param ratioToKeepInLeftOnSplit Decide how much to keep in left node on split, 0=keep nothing, 0.5=split 50-50, 1=keep everything.
+     * @return a {@link Writer} for this index, which can be used concurrently with other writers from this method.
+     * The returned writer must be {@link Writer#close() closed} after usage and must only be used by one thread at a time.
+     * @throws IOException on error accessing the index.
+     */
+    public Writer<KEY,VALUE> parallelWriter( double ratioToKeepInLeftOnSplit ) throws IOException
+    {
+        assertNotReadOnly( "Open tree parallel writer." );
+        ParallelWriter parallelWriter = parallelWriters.poll();
+        if ( parallelWriter == null )
+        {
+            TreeNode<KEY,VALUE> treeNode = treeNodeFormat.create( pageSize, layout );
+            parallelWriter = new ParallelWriter( new InternalTreeLogic<>( freeList, treeNode, layout, monitor ) );
+        }
+        parallelWriter.initialize( ratioToKeepInLeftOnSplit );
+        changesSinceLastCheckpoint = true;
+        return parallelWriter;
+    }
+
+    /**
+     * Returns a {@link Writer} which loads an empty tree bottom-up from entries given to it in ascending key order,
+     * filling each tree node up to the given fill factor before starting on the next one. This is much faster than
+     * inserting the entries one by one using {@link #writer()}, which also leaves tree nodes about half full
+     * when splitting them.
+     * <p>
+     * An entry with a key equal to that of the previous entry is merged with it, like in
+     * {@link Writer#merge(Object, Object, ValueMerger)}. Entries given out of order cause an
+     * {@link IllegalArgumentException} and {@link Writer#remove(Object)} is not supported.
+     * The loaded entries become visible when the returned writer is {@link Writer#close() closed}. If adding an entry
+     * fails, none of the entries become visible, the tree stays empty and the writer can only be closed.
+     *
+     * @param fillFactor how much of each tree node to fill, 0=only one entry, 1=as much as fits.
+     * @return the single {@link Writer} for this index, loading it in bulk. The returned writer must be
+     * {@link Writer#close() closed} before another caller can acquire a writer.
+     * @throws IOException on error accessing the index.
+     * @throws IllegalStateException if the tree is not empty, or for calls made between a successful call to
+     * this method or {@link #writer()} and closing the returned writer.
+     */
+    public Writer<KEY,VALUE> bulkWriter( double fillFactor ) throws IOException
+    {
+        assertNotReadOnly( "Open tree bulk writer." );
+        if ( fillFactor <= 0 || fillFactor > 1 )
+        {
+            throw new IllegalArgumentException( "Fill factor must be in range (0,1], but was " + fillFactor );
+        }
+        bulkWriter.initialize( fillFactor );
+        changesSinceLastCheckpoint = true;
+        return bulkWriter;
+    }
+
     private void setRoot( long rootId, long rootGeneration )
     {
         this.root = new Root( rootId, rootGeneration );
@@ -1174,7 +1635,7 @@ public class GBPTree<KEY,VALUE> implements Closeable
     {
         try ( PageCursor cursor = openRootCursor( PagedFile.PF_SHARED_READ_LOCK ) )
         {
-            new GBPTreeStructure<>( bTreeNode, layout, stableGeneration( generation ), unstableGeneration( generation ) )
+            new GBPTreeStructure<>( bTreeNode.forSingleThread(), layout, stableGeneration( generation ), unstableGeneration( generation ) )
                     .visitTree( cursor, writer.cursor, visitor );
             freeList.visitFreelist( visitor );
         }
@@ -1232,7 +1693,7 @@ public class GBPTree<KEY,VALUE> implements Closeable
                 byte nodeType = TreeNode.nodeType( cursor );
                 if ( nodeType == TreeNode.NODE_TYPE_TREE_NODE )
                 {
-                    bTreeNode.printNode( cursor, false, true, stableGeneration( generation ), unstableGeneration( generation ) );
+                    bTreeNode.forSingleThread().printNode( cursor, false, true, stableGeneration( generation ), unstableGeneration( generation ) );
                 }
             }
         }
@@ -1261,7 +1722,7 @@ public class GBPTree<KEY,VALUE> implements Closeable
         try ( PageCursor cursor = pagedFile.io( 0L /*ignored*/, PagedFile.PF_SHARED_READ_LOCK ) )
         {
             long unstableGeneration = unstableGeneration( generation );
-            GBPTreeConsistencyChecker<KEY> consistencyChecker = new GBPTreeConsistencyChecker<>( bTreeNode, layout, freeList,
+            GBPTreeConsistencyChecker<KEY> consistencyChecker = new GBPTreeConsistencyChecker<>( bTreeNode.forSingleThread(), layout, freeList,
                     stableGeneration( generation ), unstableGeneration, reportCrashPointers );
 
             consistencyChecker.check( indexFile, cursor, root, cleanTrackingVisitor );
@@ -1283,7 +1744,7 @@ public class GBPTree<KEY,VALUE> implements Closeable
             Pair<TreeState,TreeState> states = TreeStatePair.readStatePages( cursor, IdSpace.STATE_PAGE_A, IdSpace.STATE_PAGE_B );
             state = TreeStatePair.selectNewestValidState( states );
         }
-        unsafe.access( pagedFile, layout, bTreeNode, state );
+        unsafe.access( pagedFile, layout, bTreeNode.forSingleThread(), state );
     }
 
     @Override
@@ -1300,6 +1761,42 @@ public class GBPTree<KEY,VALUE> implements Closeable
         Exceptions.withMessage( e, e.getMessage() + " | " + toString() );
     }
 
+    /**
+     * Handles structure changes that propagated all the way up to the root, i.e. a split of the root or a successor of it,
+     * by setting a new root.
+     *
+     * @return {@code true} if root was changed, in which case cursor is placed at the new root. Otherwise {@code false}.
+     * @throws IOException on cursor failure.
+     */
+    private boolean handleRootStructureChanges( PageCursor cursor, StructurePropagation<KEY> structurePropagation,
+            long stableGeneration, long unstableGeneration ) throws IOException
+    {
+        boolean rootChanged = false;
+        if ( structurePropagation.hasRightKeyInsert )
+        {
+            // New root
+            long newRootId = freeList.acquireNewId( stableGeneration, unstableGeneration );
+            PageCursorUtil.goTo( cursor, "new root", newRootId );
+
+            bTreeNode.initializeInternal( cursor, stableGeneration, unstableGeneration );
+            bTreeNode.setChildAt( cursor, structurePropagation.midChild, 0,
+                    stableGeneration, unstableGeneration );
+            bTreeNode.insertKeyAndRightChildAt( cursor, structurePropagation.rightKey, structurePropagation.rightChild, 0, 0,
+                    stableGeneration, unstableGeneration );
+            TreeNode.setKeyCount( cursor, 1 );
+            setRoot( newRootId, unstableGeneration );
+            monitor.treeGrowth();
+            rootChanged = true;
+        }
+        else if ( structurePropagation.hasMidChildUpdate )
+        {
+            setRoot( GenerationSafePointerPair.pointer( structurePropagation.midChild ), unstableGeneration );
+            rootChanged = true;
+        }
+        structurePropagation.clear();
+        return rootChanged;
+    }
+
     private class SingleWriter implements Writer<KEY,VALUE>
     {
         /**
@@ -1409,13 +1906,6 @@ public class GBPTree<KEY,VALUE> implements Closeable
             checkOutOfBounds( cursor );
         }
 
-        private void setRoot( long rootPointer )
-        {
-            long rootId = GenerationSafePointerPair.pointer( rootPointer );
-            GBPTree.this.setRoot( rootId, unstableGeneration );
-            treeLogic.initialize( cursor, ratioToKeepInLeftOnSplit );
-        }
-
         @Override
         public VALUE remove( KEY key )
         {
@@ -1444,26 +1934,11 @@ public class GBPTree<KEY,VALUE> implements Closeable
 
         private void handleStructureChanges() throws IOException
         {
-            if ( structurePropagation.hasRightKeyInsert )
+            if ( handleRootStructureChanges( cursor, structurePropagation, stableGeneration, unstableGeneration ) )
             {
-                // New root
-                long newRootId = freeList.acquireNewId( stableGeneration, unstableGeneration );
-                PageCursorUtil.goTo( cursor, "new root", newRootId );
-
-                bTreeNode.initializeInternal( cursor, stableGeneration, unstableGeneration );
-                bTreeNode.setChildAt( cursor, structurePropagation.midChild, 0,
-                        stableGeneration, unstableGeneration );
-                bTreeNode.insertKeyAndRightChildAt( cursor, structurePropagation.rightKey, structurePropagation.rightChild, 0, 0,
-                        stableGeneration, unstableGeneration );
-                TreeNode.setKeyCount( cursor, 1 );
-                setRoot( newRootId );
-                monitor.treeGrowth();
-            }
-            else if ( structurePropagation.hasMidChildUpdate )
-            {
-                setRoot( structurePropagation.midChild );
+                treeLogic.initialize( cursor, ratioToKeepInLeftOnSplit );
             }
-            structurePropagation.clear();
+            freeList.structureChangeCompleted();
         }
 
         @Override
@@ -1488,6 +1963,405 @@ public class GBPTree<KEY,VALUE> implements Closeable
         }
     }
 
+    private static Object[] newLeafLatches()
+    {
+        Object[] latches = new Object[LEAF_LATCH_STRIPES];
+        for ( int i = 0; i < latches.length; i++ )
+        {
+            latches[i] = new Object();
+        }
+        return latches;
+    }
+
+    private Object leafLatch( long treeNodeId )
+    {
+        return leafLatches[(int) (treeNodeId % LEAF_LATCH_STRIPES)];
+    }
+
+    /**
+     * A {@link Writer} which can be used concurrently with other parallel writers, see {@link #parallelWriter(double)}.
+     * <p>
+     * Every change is first tried optimistically, holding the {@link #structureLock} read lock while going down
+     * the tree and a {@link #leafLatch(long) latch} on the leaf while changing it. Internal nodes are only changed
+     * with the write lock held, so they can be read without latches. If the change turns out to require a change
+     * of the structure of the tree nothing is changed and it's redone with the write lock held, just like
+     * {@link SingleWriter} would do it. Leaves are only changed in place if they already are of the unstable
+     * generation, so crash safety is the same as with the single writer.
+     */
+    private class ParallelWriter implements Writer<KEY,VALUE>
+    {
+        private final InternalTreeLogic<KEY,VALUE> treeLogic;
+        private final StructurePropagation<KEY> structurePropagation;
+        private PageCursor cursor;
+
+        // Writer can't live past a checkpoint because of the mutex with checkpoint,
+        // therefore safe to locally cache these generation fields from the volatile generation in the tree
+        private long stableGeneration;
+        private long unstableGeneration;
+        private double ratioToKeepInLeftOnSplit;
+
+        // Version of the structure of the tree that the path in treeLogic is valid for, guarded by structureLock
+        private long seenStructureVersion;
+
+        ParallelWriter( InternalTreeLogic<KEY,VALUE> treeLogic )
+        {
+            this.structurePropagation = new StructurePropagation<>( layout.newKey(), layout.newKey(), layout.newKey() );
+            this.treeLogic = treeLogic;
+        }
+
+        void initialize( double ratioToKeepInLeftOnSplit ) throws IOException
+        {
+            // Block here until cleaning has completed, if cleaning was required
+            lock.sharedWriterAndCleanerLock();
+            boolean success = false;
+            try
+            {
+                assertRecoveryCleanSuccessful();
+                cursor = pagedFile.io( 0L /*Ignored*/, PagedFile.PF_SHARED_WRITE_LOCK );
+                stableGeneration = stableGeneration( generation );
+                unstableGeneration = unstableGeneration( generation );
+                this.ratioToKeepInLeftOnSplit = ratioToKeepInLeftOnSplit;
+                // The tree may have been changed by others since this instance was used last, start from root
+                seenStructureVersion = -1;
+                success = true;
+            }
+            catch ( Throwable e )
+            {
+                appendTreeInformation( e );
+                throw e;
+            }
+            finally
+            {
+                if ( !success )
+                {
+                    closeCursor();
+                    lock.sharedWriterAndCleanerUnlock();
+                }
+            }
+        }
+
+        @Override
+        public void put( KEY key, VALUE value )
+        {
+            merge( key, value, ValueMergers.overwrite() );
+        }
+
+        @Override
+        public void merge( KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger )
+        {
+            try
+            {
+                if ( !mergeInLeafOnly( key, value, valueMerger ) )
+                {
+                    structureLock.writeLock().lock();
+                    try
+                    {
+                        moveToRootIfStructureChanged();
+                        treeLogic.insert( cursor, structurePropagation, key, value, valueMerger,
+                                stableGeneration, unstableGeneration );
+                        handleStructureChanges();
+                    }
+                    finally
+                    {
+                        structureLock.writeLock().unlock();
+                    }
+                }
+            }
+            catch ( IOException e )
+            {
+                appendTreeInformation( e );
+                throw new UncheckedIOException( e );
+            }
+            catch ( Throwable t )
+            {
+                appendTreeInformation( t );
+                throw t;
+            }
+
+            checkOutOfBounds( cursor );
+        }
+
+        private boolean mergeInLeafOnly( KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger ) throws IOException
+        {
+            structureLock.readLock().lock();
+            try
+            {
+                moveToRootIfStructureChanged();
+                treeLogic.moveToLeaf( cursor, key, stableGeneration, unstableGeneration );
+                synchronized ( leafLatch( cursor.getCurrentPageId() ) )
+                {
+                    return treeLogic.insertInLeafOnly( cursor, key, value, valueMerger, unstableGeneration );
+                }
+            }
+            finally
+            {
+                structureLock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public VALUE remove( KEY key )
+        {
+            VALUE result;
+            try
+            {
+                result = layout.newValue();
+                if ( !removeFromLeafOnly( key, result ) )
+                {
+                    structureLock.writeLock().lock();
+                    try
+                    {
+                        moveToRootIfStructureChanged();
+                        result = treeLogic.remove( cursor, structurePropagation, key, result,
+                                stableGeneration, unstableGeneration );
+                        handleStructureChanges();
+                    }
+                    finally
+                    {
+                        structureLock.writeLock().unlock();
+                    }
+                }
+            }
+            catch ( IOException e )
+            {
+                appendTreeInformation( e );
+                throw new UncheckedIOException( e );
+            }
+            catch ( Throwable e )
+            {
+                appendTreeInformation( e );
+                throw e;
+            }
+
+            checkOutOfBounds( cursor );
+            return result;
+        }
+
+        private boolean removeFromLeafOnly( KEY key, VALUE into ) throws IOException
+        {
+            structureLock.readLock().lock();
+            try
+            {
+                moveToRootIfStructureChanged();
+                treeLogic.moveToLeaf( cursor, key, stableGeneration, unstableGeneration );
+                synchronized ( leafLatch( cursor.getCurrentPageId() ) )
+                {
+                    return treeLogic.removeFromLeafOnly( cursor, key, into, unstableGeneration );
+                }
+            }
+            finally
+            {
+                structureLock.readLock().unlock();
+            }
+        }
+
+        /**
+         * Must be called with {@link #structureLock} held. If another parallel writer has changed the structure of the tree
+         * since this writer last looked, then the path down the tree that {@link #treeLogic} remembers may no longer be valid.
+         */
+        private void moveToRootIfStructureChanged() throws IOException
+        {
+            if ( seenStructureVersion != structureVersion )
+            {
+                root.goTo( cursor );
+                assert assertNoSuccessor( cursor, stableGeneration, unstableGeneration );
+                treeLogic.initialize( cursor, ratioToKeepInLeftOnSplit );
+                seenStructureVersion = structureVersion;
+            }
+        }
+
+        /**
+         * Must be called with {@link #structureLock} write lock held.
+         */
+        private void handleStructureChanges() throws IOException
+        {
+            if ( handleRootStructureChanges( cursor, structurePropagation, stableGeneration, unstableGeneration ) )
+            {
+                treeLogic.initialize( cursor, ratioToKeepInLeftOnSplit );
+            }
+            // Whether or not it actually changed, other writers can't trust their paths down the tree anymore
+            structureVersion++;
+            seenStructureVersion = structureVersion;
+            freeList.structureChangeCompleted();
+        }
+
+        @Override
+        public void close()
+        {
+            if ( cursor == null )
+            {
+                throw new IllegalStateException( "Tried to close parallel writer of " + GBPTree.this +
+                        ", but writer is already closed." );
+            }
+            closeCursor();
+            lock.sharedWriterAndCleanerUnlock();
+            parallelWriters.offer( this );
+        }
+
+        private void closeCursor()
+        {
+            if ( cursor != null )
+            {
+                cursor.close();
+                cursor = null;
+            }
+        }
+    }
+
+    private class BulkWriter implements Writer<KEY,VALUE>
+    {
+        private final BulkLoader<KEY,VALUE> bulkLoader;
+        private PageCursor leafCursor;
+        private PageCursor internalCursor;
+
+        // Writer can't live past a checkpoint because of the mutex with checkpoint,
+        // therefore safe to locally cache these generation fields from the volatile generation in the tree
+        private long stableGeneration;
+        private long unstableGeneration;
+        private long emptyRootId;
+        private boolean failed;
+
+        BulkWriter( BulkLoader<KEY,VALUE> bulkLoader )
+        {
+            this.bulkLoader = bulkLoader;
+        }
+
+        /**
+         * Takes the single writer guard and lock, just like {@link SingleWriter#initialize(double)}, and verifies
+         * that the tree is empty. The empty root is left untouched and is released when a new root is set on close.
+         */
+        void initialize( double fillFactor ) throws IOException
+        {
+            if ( !writer.writerTaken.compareAndSet( false, true ) )
+            {
+                throw new IllegalStateException( "Writer in " + this + " is already acquired by someone else. " +
+                        "Only a single writer is allowed. The writer will become available as soon as " +
+                        "acquired writer is closed" );
+            }
+
+            boolean success = false;
+            try
+            {
+                // Block here until cleaning has completed, if cleaning was required
+                lock.writerAndCleanerLock();
+                assertRecoveryCleanSuccessful();
+                leafCursor = openRootCursor( PagedFile.PF_SHARED_WRITE_LOCK );
+                if ( !TreeNode.isLeaf( leafCursor ) || TreeNode.keyCount( leafCursor ) != 0 )
+                {
+                    throw new IllegalStateException( "Can only bulk load into an empty tree, but " + GBPTree.this +
+                            " has entries" );
+                }
+                emptyRootId = leafCursor.getCurrentPageId();
+                failed = false;
+                internalCursor = pagedFile.io( 0L /*Ignored*/, PagedFile.PF_SHARED_WRITE_LOCK );
+                stableGeneration = stableGeneration( generation );
+                unstableGeneration = unstableGeneration( generation );
+                bulkLoader.initialize( leafCursor, internalCursor, stableGeneration, unstableGeneration, fillFactor );
+                success = true;
+            }
+            catch ( Throwable e )
+            {
+                appendTreeInformation( e );
+                throw e;
+            }
+            finally
+            {
+                if ( !success )
+                {
+                    close();
+                }
+            }
+        }
+
+        @Override
+        public void put( KEY key, VALUE value )
+        {
+            merge( key, value, ValueMergers.overwrite() );
+        }
+
+        @Override
+        public void merge( KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger )
+        {
+            if ( failed )
+            {
+                throw new IllegalStateException( "Bulk writer of " + GBPTree.this + " failed to add an earlier entry" );
+            }
+            try
+            {
+                bulkLoader.add( key, value, valueMerger );
+            }
+            catch ( IOException e )
+            {
+                failed = true;
+                appendTreeInformation( e );
+                throw new UncheckedIOException( e );
+            }
+            catch ( Throwable t )
+            {
+                failed = true;
+                appendTreeInformation( t );
+                throw t;
+            }
+
+            checkOutOfBounds( leafCursor );
+            checkOutOfBounds( internalCursor );
+        }
+
+        @Override
+        public VALUE remove( KEY key )
+        {
+            throw new UnsupportedOperationException( "Bulk writer of " + GBPTree.this + " can not remove keys" );
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            if ( !writer.writerTaken.get() )
+            {
+                throw new IllegalStateException( "Tried to close bulk writer of " + GBPTree.this +
+                        ", but writer is already closed." );
+            }
+            try
+            {
+                if ( failed )
+                {
+                    // The loaded tree is missing entries, never make it visible. The empty root stays the root.
+                    bulkLoader.discard();
+                }
+                else
+                {
+                    long rootId = bulkLoader.finish();
+                    if ( rootId != TreeNode.NO_NODE_FLAG )
+                    {
+                        setRoot( rootId, unstableGeneration );
+                        freeList.releaseId( stableGeneration, unstableGeneration, emptyRootId );
+                    }
+                }
+                freeList.structureChangeCompleted();
+            }
+            finally
+            {
+                closeCursors();
+                writer.writerTaken.set( false );
+                lock.writerAndCleanerUnlock();
+            }
+        }
+
+        private void closeCursors()
+        {
+            if ( leafCursor != null )
+            {
+                leafCursor.close();
+                leafCursor = null;
+            }
+            if ( internalCursor != null )
+            {
+                internalCursor.close();
+                internalCursor = null;
+            }
+        }
+    }
+
     public boolean wasDirtyOnStartup()
     {
         return dirtyOnStartup;
@@ -32,6 +32,13 @@ class GBPTreeLock
     private static final long stateOffset = UnsafeUtil.getFieldOffset( GBPTreeLock.class, "state" );
     private static final long writerLockBit = 0x00000000_00000001L;
     private static final long cleanerLockBit = 0x00000000_00000002L;
+    // Set by those waiting for writer or cleaner lock while shared lock is held, so that new shared lockers wait for them
+    private static final long writerPendingBit = 0x00000000_00000004L;
+    private static final long cleanerPendingBit = 0x00000000_00000008L;
+    private static final int pendingShift = 2;
+    // Remaining bits count holders of the shared writer lock, see sharedWriterAndCleanerLock
+    private static final long sharedWriterUnit = 0x00000000_00000010L;
+    private static final long sharedWriterMask = ~(writerLockBit | cleanerLockBit | writerPendingBit | cleanerPendingBit);
     private volatile long state;
 
     // Used for testing
@@ -72,8 +79,44 @@ class GBPTreeLock
         doUnlock( writerLockBit | cleanerLockBit );
     }
 
+    /**
+     * Takes writer and cleaner lock in shared mode, meaning that any number of concurrent writers can hold it at the same time.
+     * Blocks while writer or cleaner lock is held and, while held, blocks anyone else from taking writer or cleaner lock.
+     * Also blocks while anyone is waiting for writer or cleaner lock, so that a steady stream of shared lockers can't
+     * keep them out forever.
+     */
+    void sharedWriterAndCleanerLock()
+    {
+        long currentState;
+        do
+        {
+            currentState = state;
+            while ( (currentState & ~sharedWriterMask) != 0 )
+            {
+                // sleep
+                sleep();
+                currentState = state;
+            }
+        } while ( !UnsafeUtil.compareAndSwapLong( this, stateOffset, currentState, currentState + sharedWriterUnit ) );
+    }
+
+    void sharedWriterAndCleanerUnlock()
+    {
+        long currentState;
+        do
+        {
+            currentState = state;
+            if ( (currentState & sharedWriterMask) == 0 )
+            {
+                throw new IllegalStateException( "Can not unlock shared lock that is not locked" );
+            }
+        }
+        while ( !UnsafeUtil.compareAndSwapLong( this, stateOffset, currentState, currentState - sharedWriterUnit ) );
+    }
+
     private void doLock( long targetLockBit )
     {
+        long pendingBits = targetLockBit << pendingShift;
         long currentState;
         long newState;
         do
@@ -81,11 +124,16 @@ class GBPTreeLock
             currentState = state;
             while ( !canLock( currentState, targetLockBit ) )
             {
+                if ( (currentState & pendingBits) != pendingBits )
+                {
+                    // Keep new shared lockers out. Failing to set it here just means that we try again next round
+                    UnsafeUtil.compareAndSwapLong( this, stateOffset, currentState, currentState | pendingBits );
+                }
                 // sleep
                 sleep();
                 currentState = state;
             }
-            newState = currentState | targetLockBit;
+            newState = (currentState | targetLockBit) & ~pendingBits;
         } while ( !UnsafeUtil.compareAndSwapLong( this, stateOffset, currentState, newState ) );
     }
 
@@ -107,7 +155,7 @@ class GBPTreeLock
 
     private boolean canLock( long state, long targetLockBit )
     {
-        return (state & targetLockBit) == 0;
+        return (state & targetLockBit) == 0 && (state & sharedWriterMask) == 0;
     }
 
     private boolean canUnlock( long state, long targetLockBit )
@@ -377,6 +377,112 @@ class InternalTreeLogic<KEY,VALUE>
         handleStructureChanges( cursor, structurePropagation, stableGeneration, unstableGeneration );
     }
 
+    /**
+     * Moves cursor to the leaf where {@code key} belongs, without changing anything on the way. Used together with
+     * {@link #insertInLeafOnly(PageCursor, Object, Object, ValueMerger, long)} and
+     * {@link #removeFromLeafOnly(PageCursor, Object, Object, long)} by writers which change the contents of leaves
+     * concurrently with each other. Internal nodes are only read, so caller must make sure that the structure of
+     * the tree doesn't change while cursor is on its way down.
+     *
+     * @param cursor {@link PageCursor} pinned to root of tree (if first call since {@link #initialize(PageCursor)})
+     * or at where last insert/remove left it.
+     * @param key key to find leaf for.
+     * @param stableGeneration stable generation, i.e. generations <= this generation are considered stable.
+     * @param unstableGeneration unstable generation, i.e. generation which is under development right now.
+     * @throws IOException on cursor failure
+     */
+    void moveToLeaf( PageCursor cursor, KEY key, long stableGeneration, long unstableGeneration ) throws IOException
+    {
+        assert cursorIsAtExpectedLocation( cursor );
+        moveToCorrectLeaf( cursor, key, stableGeneration, unstableGeneration );
+    }
+
+    /**
+     * Like {@link #insert(PageCursor, StructurePropagation, Object, Object, ValueMerger, long, long)}, but only if
+     * that can be done in the leaf where cursor is, as placed by {@link #moveToLeaf(PageCursor, Object, long, long)},
+     * without changing the structure of the tree. That is without creating a successor of the leaf, splitting it or
+     * moving an existing key because its merged value has a different size. Caller must make sure no one else
+     * changes the leaf meanwhile.
+     * <p>
+     * The {@code valueMerger} may have been asked to merge values even if this method returns {@code false}.
+     *
+     * @param cursor {@link PageCursor} pinned to the leaf where {@code key} belongs.
+     * @param key key to be inserted
+     * @param value value to be associated with key
+     * @param valueMerger {@link ValueMerger} for deciding what to do with existing keys
+     * @param unstableGeneration unstable generation, i.e. generation which is under development right now.
+     * @return {@code true} if key and value were inserted or merged, or if merge resulted in no change.
+     * {@code false} if that would change the structure of the tree, in which case nothing has been changed.
+     * @throws IOException on cursor failure
+     */
+    boolean insertInLeafOnly( PageCursor cursor, KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger,
+            long unstableGeneration ) throws IOException
+    {
+        bTreeNode.validateKeyValueSize( key, value );
+        if ( TreeNode.generation( cursor ) != unstableGeneration )
+        {
+            // Would need successor
+            return false;
+        }
+
+        int keyCount = TreeNode.keyCount( cursor );
+        int search = search( cursor, LEAF, key, readKey, keyCount );
+        int pos = positionOf( search );
+        if ( isHit( search ) )
+        {
+            bTreeNode.valueAt( cursor, readValue, pos );
+            VALUE mergedValue = valueMerger.merge( readKey, key, readValue, value );
+            return mergedValue == null || bTreeNode.setValueAt( cursor, mergedValue, pos );
+        }
+
+        Overflow overflow = bTreeNode.leafOverflow( cursor, keyCount, key, value );
+        if ( overflow == YES )
+        {
+            // Would need split
+            return false;
+        }
+        if ( overflow == NO_NEED_DEFRAG )
+        {
+            bTreeNode.defragmentLeaf( cursor );
+        }
+        bTreeNode.insertKeyValueAt( cursor, key, value, pos, keyCount );
+        TreeNode.setKeyCount( cursor, keyCount + 1 );
+        return true;
+    }
+
+    /**
+     * Like {@link #remove(PageCursor, StructurePropagation, Object, Object, long, long)}, but only if that can be done
+     * in the leaf where cursor is, as placed by {@link #moveToLeaf(PageCursor, Object, long, long)}, without changing
+     * the structure of the tree. That is without creating a successor of the leaf or rebalancing it with its siblings.
+     * Caller must make sure no one else changes the leaf meanwhile.
+     *
+     * @param cursor {@link PageCursor} pinned to the leaf where {@code key} belongs.
+     * @param key key to be removed
+     * @param into {@code VALUE} instance to write removed value to
+     * @param unstableGeneration unstable generation, i.e. generation which is under development right now.
+     * @return {@code true} if {@code key} was removed. {@code false} if it wasn't found or if removing it
+     * would change the structure of the tree, in which case nothing has been changed.
+     * @throws IOException on cursor failure
+     */
+    boolean removeFromLeafOnly( PageCursor cursor, KEY key, VALUE into, long unstableGeneration ) throws IOException
+    {
+        if ( TreeNode.generation( cursor ) != unstableGeneration )
+        {
+            // Would need successor
+            return false;
+        }
+
+        int keyCount = TreeNode.keyCount( cursor );
+        int search = search( cursor, LEAF, key, readKey, keyCount );
+        int pos = positionOf( search );
+        if ( !isHit( search ) || bTreeNode.leafUnderflowAfterRemove( cursor, keyCount, pos ) )
+        {
+            return false;
+        }
+        simplyRemoveFromLeaf( cursor, into, keyCount, pos );
+        return true;
+    }
+
     private int search( PageCursor cursor, TreeNode.Type type, KEY key, KEY readKey, int keyCount )
     {
         int searchResult = KeySearch.search( cursor, bTreeNode, type, key, readKey, keyCount );
@@ -735,6 +841,86 @@ class InternalTreeLogic<KEY,VALUE>
         return into;
     }
 
+    /**
+     * Merges the leaf where {@code key} belongs into its left sibling, if the entries of both fit in one leaf.
+     * This is never done as part of {@link #remove(PageCursor, StructurePropagation, Object, Object, long, long) remove},
+     * which only merges leaves that are less than half full, and is used for compacting sparse trees.
+     * Calling this for the first key of each leaf, from left to right, packs the entries into as few leaves
+     * as it can without splitting any leaf.
+     * <p>
+     * Structural changes in tree that need to propagate to the level above will be reported through the provided
+     * {@link StructurePropagation}, like for {@link #remove(PageCursor, StructurePropagation, Object, Object, long, long)}.
+     * <p>
+     * Leaves cursor at the page which was last updated. No guarantees on offset.
+     *
+     * @param cursor {@link PageCursor} pinned to root of tree (if first change since
+     * {@link #initialize(PageCursor)}) or at where last change left it.
+     * @param structurePropagation {@link StructurePropagation} used to report structure changes between tree levels.
+     * @param key key in the leaf to merge.
+     * @param nextKey to write the first key of the next leaf into.
+     * @param stableGeneration stable generation, i.e. generations <= this generation are considered stable.
+     * @param unstableGeneration unstable generation, i.e. generation which is under development right now.
+     * @return {@code true} if there is a leaf to the right of the leaf with the given {@code key}, after it was merged
+     * or not, in which case its first key has been written to {@code nextKey}. Otherwise {@code false}.
+     * @throws IOException on cursor failure
+     */
+    boolean mergeWithLeftSiblingLeaf( PageCursor cursor, StructurePropagation<KEY> structurePropagation, KEY key, KEY nextKey,
+            long stableGeneration, long unstableGeneration ) throws IOException
+    {
+        assert cursorIsAtExpectedLocation( cursor );
+        moveToCorrectLeaf( cursor, key, stableGeneration, unstableGeneration );
+
+        long leftSibling = TreeNode.leftSibling( cursor, stableGeneration, unstableGeneration );
+        PointerChecking.checkPointer( leftSibling, true );
+        if ( TreeNode.isNode( leftSibling ) )
+        {
+            int keyCount = TreeNode.keyCount( cursor );
+            boolean canMerge;
+            try ( PageCursor leftSiblingCursor = cursor.openLinkedCursor( GenerationSafePointerPair.pointer( leftSibling ) ) )
+            {
+                leftSiblingCursor.next();
+                canMerge = bTreeNode.canMergeLeaves( leftSiblingCursor, TreeNode.keyCount( leftSiblingCursor ), cursor, keyCount );
+            }
+            if ( canMerge )
+            {
+                // Creating the successor uses a linked cursor too, so the left sibling is opened again after it
+                createSuccessorIfNeeded( cursor, structurePropagation, UPDATE_MID_CHILD,
+                        stableGeneration, unstableGeneration );
+                try ( PageCursor leftSiblingCursor = cursor.openLinkedCursor( GenerationSafePointerPair.pointer( leftSibling ) ) )
+                {
+                    leftSiblingCursor.next();
+                    // No need to create new unstable version of left sibling, it's released by the merge.
+                    mergeFromLeftSiblingLeaf( cursor, leftSiblingCursor, structurePropagation, keyCount,
+                            TreeNode.keyCount( leftSiblingCursor ), stableGeneration, unstableGeneration );
+                }
+            }
+        }
+
+        boolean hasNext = false;
+        long rightSibling = TreeNode.rightSibling( cursor, stableGeneration, unstableGeneration );
+        PointerChecking.checkPointer( rightSibling, true );
+        if ( TreeNode.isNode( rightSibling ) )
+        {
+            try ( PageCursor rightSiblingCursor = cursor.openLinkedCursor( GenerationSafePointerPair.pointer( rightSibling ) ) )
+            {
+                rightSiblingCursor.next();
+                if ( TreeNode.keyCount( rightSiblingCursor ) > 0 )
+                {
+                    bTreeNode.keyAt( rightSiblingCursor, nextKey, 0, LEAF );
+                    hasNext = true;
+                }
+            }
+        }
+
+        handleStructureChanges( cursor, structurePropagation, stableGeneration, unstableGeneration );
+
+        if ( currentLevel <= 0 )
+        {
+            tryShrinkTree( cursor, structurePropagation, stableGeneration, unstableGeneration );
+        }
+        return hasNext;
+    }
+
     private void handleStructureChanges( PageCursor cursor, StructurePropagation<KEY> structurePropagation,
             long stableGeneration, long unstableGeneration ) throws IOException
     {
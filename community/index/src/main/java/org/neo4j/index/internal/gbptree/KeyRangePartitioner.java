@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.io.pagecache.PageCursor;
+
+import static org.neo4j.index.internal.gbptree.PageCursorUtil.checkOutOfBounds;
+
+/**
+ * Splits a key range of a {@link GBPTree} into sub-ranges holding roughly the same number of entries.
+ * <p>
+ * Keys in a level of internal tree nodes divide the leaves below them into ranges of about the same size,
+ * so evenly spaced keys from the highest level which has enough keys inside the range make good partition
+ * boundaries, without having to read any leaves.
+ * <p>
+ * Tree nodes are read without locks, like {@link SeekCursor} does. Concurrent changes can make the partitions
+ * less even, but never wrong, since the boundaries are only used as from/to keys for regular seeks.
+ */
+class KeyRangePartitioner<KEY,VALUE>
+{
+    private final TreeNode<KEY,VALUE> bTreeNode;
+    private final Layout<KEY,VALUE> layout;
+    private final long stableGeneration;
+    private final long unstableGeneration;
+
+    KeyRangePartitioner( TreeNode<KEY,VALUE> bTreeNode, Layout<KEY,VALUE> layout, long stableGeneration, long unstableGeneration )
+    {
+        this.bTreeNode = bTreeNode;
+        this.layout = layout;
+        this.stableGeneration = stableGeneration;
+        this.unstableGeneration = unstableGeneration;
+    }
+
+    /**
+     * @param cursor {@link PageCursor} placed at the root of the tree.
+     * @param fromInclusive lower bound of the range to partition.
+     * @param toExclusive higher bound of the range to partition.
+     * @param desiredNumberOfPartitions number of partitions to split the range into. Fewer partitions
+     * are returned if the tree doesn't have enough internal keys inside the range.
+     * @return partition boundaries, starting with {@code fromInclusive} and ending with {@code toExclusive},
+     * where each partition is the range between two consecutive boundaries.
+     * @throws IOException on {@link PageCursor} error.
+     */
+    List<KEY> partition( PageCursor cursor, KEY fromInclusive, KEY toExclusive, int desiredNumberOfPartitions ) throws IOException
+    {
+        List<KEY> splitters = new ArrayList<>();
+        while ( desiredNumberOfPartitions > 1 && isInternal( cursor ) )
+        {
+            List<KEY> levelSplitters = new ArrayList<>();
+            long firstChild = readLevel( cursor, fromInclusive, toExclusive, levelSplitters );
+            splitters = levelSplitters;
+            if ( splitters.size() >= desiredNumberOfPartitions - 1 || !GenerationSafePointerPair.isSuccess( firstChild ) ||
+                    !TreeNode.isNode( firstChild ) )
+            {
+                break;
+            }
+            TreeNode.goTo( cursor, "child", firstChild );
+        }
+
+        List<KEY> boundaries = new ArrayList<>();
+        boundaries.add( fromInclusive );
+        int numberOfSplitters = Math.min( splitters.size(), desiredNumberOfPartitions - 1 );
+        for ( int i = 1; i <= numberOfSplitters; i++ )
+        {
+            // Spread the chosen splitters evenly among all the splitters on this level
+            boundaries.add( splitters.get( i * (splitters.size() + 1) / (numberOfSplitters + 1) - 1 ) );
+        }
+        boundaries.add( toExclusive );
+        return boundaries;
+    }
+
+    private static boolean isInternal( PageCursor cursor ) throws IOException
+    {
+        boolean isInternal;
+        do
+        {
+            isInternal = TreeNode.isInternal( cursor );
+        }
+        while ( cursor.shouldRetry() );
+        checkOutOfBounds( cursor );
+        cursor.checkAndClearCursorException();
+        return isInternal;
+    }
+
+    /**
+     * Reads keys inside the range from the level of internal nodes that the cursor is placed at, starting at the
+     * node the cursor is placed at and following right siblings until passing {@code toExclusive}.
+     *
+     * @return the child pointer of the first node which leads towards {@code fromInclusive} on the level below.
+     */
+    private long readLevel( PageCursor cursor, KEY fromInclusive, KEY toExclusive, List<KEY> into ) throws IOException
+    {
+        long firstChild = TreeNode.NO_NODE_FLAG;
+        boolean first = true;
+        while ( true )
+        {
+            List<KEY> keys;
+            boolean isInternal;
+            long rightSibling;
+            long child;
+            do
+            {
+                keys = new ArrayList<>();
+                rightSibling = TreeNode.NO_NODE_FLAG;
+                child = TreeNode.NO_NODE_FLAG;
+                isInternal = TreeNode.isInternal( cursor );
+                int keyCount = TreeNode.keyCount( cursor );
+                if ( !isInternal || !bTreeNode.reasonableKeyCount( keyCount ) )
+                {
+                    isInternal = false;
+                    continue;
+                }
+
+                int childPos = 0;
+                for ( int pos = 0; pos < keyCount; pos++ )
+                {
+                    KEY key = bTreeNode.keyAt( cursor, layout.newKey(), pos, TreeNode.Type.INTERNAL );
+                    if ( layout.compare( key, fromInclusive ) <= 0 )
+                    {
+                        childPos = pos + 1;
+                    }
+                    keys.add( key );
+                }
+                rightSibling = TreeNode.rightSibling( cursor, stableGeneration, unstableGeneration );
+                if ( first )
+                {
+                    child = bTreeNode.childAt( cursor, childPos, stableGeneration, unstableGeneration );
+                }
+            }
+            while ( cursor.shouldRetry() );
+            checkOutOfBounds( cursor );
+            cursor.checkAndClearCursorException();
+
+            if ( !isInternal )
+            {
+                // A sibling which is no longer part of this level, typically because of concurrent changes
+                return firstChild;
+            }
+            if ( first )
+            {
+                firstChild = child;
+                first = false;
+            }
+
+            for ( KEY key : keys )
+            {
+                if ( layout.compare( key, toExclusive ) >= 0 )
+                {
+                    return firstChild;
+                }
+                if ( layout.compare( key, fromInclusive ) > 0 && (into.isEmpty() || layout.compare( key, into.get( into.size() - 1 ) ) > 0) )
+                {
+                    into.add( key );
+                }
+            }
+
+            if ( !GenerationSafePointerPair.isSuccess( rightSibling ) || !TreeNode.isNode( rightSibling ) )
+            {
+                return firstChild;
+            }
+            TreeNode.goTo( cursor, "right sibling", rightSibling );
+        }
+    }
+}
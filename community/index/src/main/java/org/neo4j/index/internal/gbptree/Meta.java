@@ -167,10 +167,9 @@ public class Meta
                     layout.identifier(), layout.majorVersion(), layout.minorVersion() );
         }
 
-        Factory formatByLayout = TreeNodeSelector.selectByLayout( layout );
-        if ( formatByLayout.formatIdentifier() != formatIdentifier ||
-             formatByLayout.formatVersion() != formatVersion )
+        if ( !TreeNodeSelector.isCompatible( layout, formatIdentifier, formatVersion ) )
         {
+            Factory formatByLayout = TreeNodeSelector.selectByLayout( layout );
             throw new MetadataMismatchException( "Tried to open using layout not compatible with what index was created with. " +
                     "Created with formatIdentifier:%d,formatVersion:%d. Opened with formatIdentifier:%d,formatVersion%d",
                     formatIdentifier, formatVersion, formatByLayout.formatIdentifier(), formatByLayout.formatVersion() );
@@ -205,7 +204,7 @@ public class Meta
         return formatIdentifier << SHIFT_FORMAT_IDENTIFIER | formatVersion << SHIFT_FORMAT_VERSION;
     }
 
-    int getPageSize()
+    public int getPageSize()
     {
         return pageSize;
     }
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the {@link SeekCursor seekers} that are open, by the epoch they were opened in. Seekers read tree nodes
+ * without any locks, so a seeker opened before {@link GBPTree#compact() compaction}
+ * moved tree nodes may still be reading them at their old ids. The compaction ends an epoch after moving tree nodes,
+ * and only drops the old ids from the end of the file once no seeker from that epoch, or earlier, is open.
+ */
+class OpenSeekers
+{
+    private final ConcurrentMap<Long,AtomicLong> openPerEpoch = new ConcurrentHashMap<>();
+    private volatile long epoch;
+
+    /**
+     * Registers a seeker in the current epoch. Must be called before the seeker reads any tree node.
+     *
+     * @return counter to {@link AtomicLong#decrementAndGet() decrement} when the seeker is closed.
+     */
+    AtomicLong open()
+    {
+        while ( true )
+        {
+            long epoch = this.epoch;
+            AtomicLong open = openPerEpoch.get( epoch );
+            if ( open == null )
+            {
+                open = openPerEpoch.computeIfAbsent( epoch, e -> new AtomicLong() );
+            }
+            open.incrementAndGet();
+            if ( this.epoch == epoch )
+            {
+                return open;
+            }
+            // The epoch ended while registering, the seeker will see the tree as it is after that, so count it in the next one
+            open.decrementAndGet();
+        }
+    }
+
+    /**
+     * Ends the current epoch. Only called by one thread at a time.
+     *
+     * @return the epoch that ended.
+     */
+    long endEpoch()
+    {
+        long ended = epoch;
+        epoch = ended + 1;
+        return ended;
+    }
+
+    /**
+     * @param epoch the latest epoch to check, must have {@link #endEpoch() ended}.
+     * @return whether or not any seeker opened in the given epoch, or earlier, is still open.
+     */
+    boolean anyOpenUntil( long epoch )
+    {
+        for ( Map.Entry<Long,AtomicLong> entry : openPerEpoch.entrySet() )
+        {
+            if ( entry.getKey() <= epoch )
+            {
+                if ( entry.getValue().get() > 0 )
+                {
+                    return true;
+                }
+                // No seeker can be registered in an ended epoch, so it's done
+                openPerEpoch.remove( entry.getKey(), entry.getValue() );
+            }
+        }
+        return false;
+    }
+}
@@ -384,6 +384,11 @@ class SeekCursor<KEY,VALUE> implements RawCursor<Hit<KEY,VALUE>,IOException>, Hi
      */
     private final Consumer<Throwable> exceptionDecorator;
 
+    /**
+     * Called when this seeker is closed, e.g. to tell the tree that this seeker no longer reads any tree node.
+     */
+    private final Runnable closeAction;
+
     /**
      * Normally {@link #readHeader()} is called when {@link #concurrentWriteHappened} is {@code true}. However this flag
      * guards for cases where the header must be read and {@link #concurrentWriteHappened} is {@code false},
@@ -399,14 +404,15 @@ class SeekCursor<KEY,VALUE> implements RawCursor<Hit<KEY,VALUE>,IOException>, Hi
     @SuppressWarnings( "unchecked" )
     SeekCursor( PageCursor cursor, TreeNode<KEY,VALUE> bTreeNode, KEY fromInclusive, KEY toExclusive,
             Layout<KEY,VALUE> layout, long stableGeneration, long unstableGeneration, LongSupplier generationSupplier,
-            RootCatchup rootCatchup, long lastFollowedPointerGeneration, Consumer<Throwable> exceptionDecorator, int maxReadAhead )
-                    throws IOException
+            RootCatchup rootCatchup, long lastFollowedPointerGeneration, Consumer<Throwable> exceptionDecorator, int maxReadAhead,
+            Runnable closeAction ) throws IOException
     {
         this.cursor = cursor;
         this.fromInclusive = fromInclusive;
         this.toExclusive = toExclusive;
         this.layout = layout;
         this.exceptionDecorator = exceptionDecorator;
+        this.closeAction = closeAction;
         this.exactMatch = layout.compare( fromInclusive, toExclusive ) == 0;
         this.stableGeneration = stableGeneration;
         this.unstableGeneration = unstableGeneration;
@@ -1197,6 +1203,10 @@ class SeekCursor<KEY,VALUE> implements RawCursor<Hit<KEY,VALUE>,IOException>, Hi
     public void close()
     {
         cursor.close();
-        closed = true;
+        if ( !closed )
+        {
+            closed = true;
+            closeAction.run();
+        }
     }
 }
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import java.io.IOException;
+
+import org.neo4j.io.pagecache.PageCursor;
+
+import static org.neo4j.index.internal.gbptree.GenerationSafePointerPair.pointer;
+
+/**
+ * Moves tree nodes from the end of the file to lower ids, drained from the free-list by
+ * {@link FreeListIdProvider#beginCompaction(long, long)}, so that the file can be truncated after the highest id
+ * still in use.
+ * <p>
+ * The tree is walked depth first from the root. A node at or above a given threshold is moved by copying it to the
+ * lowest drained id, if that is lower, and then redirecting its parent, siblings and successor pointer to the copy,
+ * much like when {@link InternalTreeLogic} creates a successor of a stable node. The old id is released and can be
+ * reused, or dropped from the end of the file, after the next checkpoint. Nodes already changed in unstable
+ * generation are left where they are. Leaves below the threshold are not even visited.
+ * <p>
+ * At most a given number of tree nodes are moved in one call, so that writers don't have to wait for all of them
+ * to be moved. The walk stops when that many have been moved, and the next call starts over from the root.
+ *
+ * @param <KEY> type of internal/leaf keys
+ * @param <VALUE> type of leaf values
+ */
+class TreeCompactor<KEY,VALUE>
+{
+    private final FreeListIdProvider freeList;
+    private final TreeNode<KEY,VALUE> bTreeNode;
+    private final long maxRelocatedTreeNodes;
+
+    private long stableGeneration;
+    private long unstableGeneration;
+    private long threshold;
+    private int leafLevel;
+    private long highestTreeNodeId;
+    private long relocatedTreeNodes;
+    private boolean complete;
+
+    TreeCompactor( FreeListIdProvider freeList, TreeNode<KEY,VALUE> bTreeNode, long maxRelocatedTreeNodes )
+    {
+        this.freeList = freeList;
+        this.bTreeNode = bTreeNode;
+        this.maxRelocatedTreeNodes = maxRelocatedTreeNodes;
+    }
+
+    /**
+     * Moves tree nodes with ids at or above {@code threshold} to lower ids, at most the maximum number of tree nodes
+     * given to the constructor.
+     *
+     * @param cursor {@link PageCursor} to use for moving nodes, its position is not kept.
+     * @param rootId id of the root of the tree.
+     * @param threshold lowest id of nodes to move.
+     * @param stableGeneration stable generation, i.e. generations <= this generation are considered stable.
+     * @param unstableGeneration unstable generation, i.e. generation which is under development right now.
+     * @return id of the root after it was moved, or {@code rootId} if it wasn't.
+     * @throws IOException on {@link PageCursor} error.
+     */
+    long relocate( PageCursor cursor, long rootId, long threshold, long stableGeneration, long unstableGeneration )
+            throws IOException
+    {
+        this.stableGeneration = stableGeneration;
+        this.unstableGeneration = unstableGeneration;
+        this.threshold = threshold;
+        this.highestTreeNodeId = rootId;
+        this.relocatedTreeNodes = 0;
+        this.complete = true;
+        this.leafLevel = leafLevel( cursor, rootId );
+        return visit( cursor, rootId, TreeNode.NO_NODE_FLAG, 0, 0 );
+    }
+
+    /**
+     * @return highest id of any tree node, seen in the last call to {@link #relocate(PageCursor, long, long, long, long)}.
+     * Only the highest id of the whole tree if that call was {@link #isComplete() complete}.
+     */
+    long highestTreeNodeId()
+    {
+        return highestTreeNodeId;
+    }
+
+    /**
+     * @return {@code true} if the last call to {@link #relocate(PageCursor, long, long, long, long)} visited all tree nodes
+     * it had to, or {@code false} if it stopped after moving the maximum number of tree nodes.
+     */
+    boolean isComplete()
+    {
+        return complete;
+    }
+
+    private int leafLevel( PageCursor cursor, long rootId ) throws IOException
+    {
+        int level = 0;
+        TreeNode.goTo( cursor, "root", rootId );
+        while ( TreeNode.isInternal( cursor ) )
+        {
+            long childId = bTreeNode.childAt( cursor, 0, stableGeneration, unstableGeneration );
+            PointerChecking.checkPointer( childId, false );
+            TreeNode.goTo( cursor, "child", childId );
+            level++;
+        }
+        return level;
+    }
+
+    private long visit( PageCursor cursor, long nodeId, long parentId, int childPos, int level ) throws IOException
+    {
+        if ( relocatedTreeNodes >= maxRelocatedTreeNodes )
+        {
+            complete = false;
+            return nodeId;
+        }
+        if ( level == leafLevel && nodeId < threshold )
+        {
+            highestTreeNodeId = Math.max( highestTreeNodeId, nodeId );
+            return nodeId;
+        }
+
+        TreeNode.goTo( cursor, "tree node", nodeId );
+        long id = nodeId;
+        long lowestFreeId = freeList.peekCompactionId();
+        if ( nodeId >= threshold && lowestFreeId != FreelistNode.NO_PAGE_ID && lowestFreeId < nodeId &&
+                TreeNode.generation( cursor ) != unstableGeneration )
+        {
+            id = move( cursor );
+            if ( parentId != TreeNode.NO_NODE_FLAG )
+            {
+                TreeNode.goTo( cursor, "parent", parentId );
+                bTreeNode.setChildAt( cursor, id, childPos, stableGeneration, unstableGeneration );
+                TreeNode.goTo( cursor, "moved tree node", id );
+            }
+        }
+        highestTreeNodeId = Math.max( highestTreeNodeId, id );
+
+        if ( TreeNode.isInternal( cursor ) )
+        {
+            int keyCount = TreeNode.keyCount( cursor );
+            for ( int pos = 0; pos <= keyCount; pos++ )
+            {
+                TreeNode.goTo( cursor, "parent", id );
+                long childId = bTreeNode.childAt( cursor, pos, stableGeneration, unstableGeneration );
+                PointerChecking.checkPointer( childId, false );
+                visit( cursor, pointer( childId ), id, pos, level + 1 );
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Copies the node where {@code cursor} is to a new id and redirects its siblings and successor to the copy.
+     * Leaves cursor at the copy.
+     */
+    private long move( PageCursor cursor ) throws IOException
+    {
+        long oldId = cursor.getCurrentPageId();
+        long newId = freeList.acquireNewId( stableGeneration, unstableGeneration );
+        try ( PageCursor newCursor = cursor.openLinkedCursor( newId ) )
+        {
+            TreeNode.goTo( newCursor, "moved tree node", newId );
+            cursor.copyTo( 0, newCursor, 0, cursor.getCurrentPageSize() );
+            TreeNode.setGeneration( newCursor, unstableGeneration );
+            TreeNode.setSuccessor( newCursor, TreeNode.NO_NODE_FLAG, stableGeneration, unstableGeneration );
+        }
+        TreeNode.setSuccessor( cursor, newId, stableGeneration, unstableGeneration );
+
+        long leftSibling = TreeNode.leftSibling( cursor, stableGeneration, unstableGeneration );
+        PointerChecking.checkPointer( leftSibling, true );
+        long rightSibling = TreeNode.rightSibling( cursor, stableGeneration, unstableGeneration );
+        PointerChecking.checkPointer( rightSibling, true );
+        if ( TreeNode.isNode( leftSibling ) )
+        {
+            TreeNode.goTo( cursor, "left sibling of moved tree node", leftSibling );
+            TreeNode.setRightSibling( cursor, newId, stableGeneration, unstableGeneration );
+        }
+        if ( TreeNode.isNode( rightSibling ) )
+        {
+            TreeNode.goTo( cursor, "right sibling of moved tree node", rightSibling );
+            TreeNode.setLeftSibling( cursor, newId, stableGeneration, unstableGeneration );
+        }
+
+        freeList.releaseId( stableGeneration, unstableGeneration, oldId );
+        relocatedTreeNodes++;
+        TreeNode.goTo( cursor, "moved tree node", newId );
+        return newId;
+    }
+}
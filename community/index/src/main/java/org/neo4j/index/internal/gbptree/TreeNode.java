@@ -78,6 +78,18 @@ abstract class TreeNode<KEY,VALUE>
         this.layout = layout;
     }
 
+    /**
+     * Formats that need scratch space to read or write leaf keys keep it in the {@link TreeNode} instance, which then
+     * must not be shared between threads. Every seek cursor and writer therefore gets its own instance from here.
+     *
+     * @return a {@link TreeNode} of the same format which may be used by one thread at a time. Formats without such
+     * state return this instance.
+     */
+    TreeNode<KEY,VALUE> forSingleThread()
+    {
+        return this;
+    }
+
     static byte nodeType( PageCursor cursor )
     {
         return cursor.getByte( BYTE_POS_NODE_TYPE );
@@ -337,6 +349,22 @@ abstract class TreeNode<KEY,VALUE>
      */
     abstract Overflow leafOverflow( PageCursor cursor, int currentKeyCount, KEY newKey, VALUE newValue );
 
+    /**
+     * Will leaf be filled beyond the given fill factor if inserting new key and value?
+     * Used when bulk loading to decide when to leave a leaf and start filling the next one.
+     * @param fillFactor how much of the leaf that may be used, 0=nothing, 1=all of it.
+     * @return true if leaf will be filled beyond fill factor, else false.
+     */
+    abstract boolean leafFilledBeyond( PageCursor cursor, int currentKeyCount, KEY newKey, VALUE newValue, double fillFactor );
+
+    /**
+     * Will internal be filled beyond the given fill factor if inserting new key?
+     * Used when bulk loading to decide when to leave an internal node and start filling the next one.
+     * @param fillFactor how much of the internal node that may be used, 0=nothing, 1=all of it.
+     * @return true if internal will be filled beyond fill factor, else false.
+     */
+    abstract boolean internalFilledBeyond( PageCursor cursor, int currentKeyCount, KEY newKey, double fillFactor );
+
     /**
      * Clean page with leaf node from garbage to make room for further insert without having to split.
      */
@@ -349,6 +377,12 @@ abstract class TreeNode<KEY,VALUE>
 
     abstract boolean leafUnderflow( PageCursor cursor, int keyCount );
 
+    /**
+     * Would leaf underflow if the key and value at pos were removed? Asked before removing, so that writers that
+     * cannot rebalance leaves know beforehand whether or not they can do the removal.
+     */
+    abstract boolean leafUnderflowAfterRemove( PageCursor cursor, int keyCount, int pos );
+
     /**
      * How do we best rebalance left and right leaf?
      * Can we move keys from underflowing left to right so that none of them underflow?
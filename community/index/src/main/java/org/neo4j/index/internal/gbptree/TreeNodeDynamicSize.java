@@ -100,17 +100,26 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
     private final int maxKeyCount = pageSize / (bytesKeyOffset() + SIZE_KEY_SIZE + SIZE_VALUE_SIZE);
     private final int[] oldOffset = new int[maxKeyCount];
     private final int[] newOffset = new int[maxKeyCount];
-    private final int totalSpace;
-    private final int halfSpace;
+    final int totalSpace;
+    final int halfSpace;
     private final KEY tmpKeyLeft;
     private final KEY tmpKeyRight;
 
     TreeNodeDynamicSize( int pageSize, Layout<KEY,VALUE> layout )
+    {
+        this( pageSize, layout, 0 );
+    }
+
+    /**
+     * @param reservedLeafSpace space in every leaf that is not available to key-value entries, i.e. the cap on
+     * key-value size is lowered so that {@link #LEAST_NUMBER_OF_ENTRIES_PER_PAGE} entries still fit.
+     */
+    TreeNodeDynamicSize( int pageSize, Layout<KEY,VALUE> layout, int reservedLeafSpace )
     {
         super( pageSize, layout );
         totalSpace = pageSize - HEADER_LENGTH_DYNAMIC;
         halfSpace = totalSpace / 2;
-        keyValueSizeCap = keyValueSizeCapFromPageSize( pageSize );
+        keyValueSizeCap = keyValueSizeCapFromPageSize( pageSize - reservedLeafSpace );
 
         if ( keyValueSizeCap < MINIMUM_ENTRY_SIZE_CAP )
         {
@@ -151,7 +160,14 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
             readUnreliableKeyValueSize( cursor, keySize, valueSize, keyValueSize, pos );
             return into;
         }
-        layout.readKey( cursor, into, keySize );
+        if ( type == LEAF )
+        {
+            readLeafKey( cursor, into, keySize );
+        }
+        else
+        {
+            layout.readKey( cursor, into, keySize );
+        }
         return into;
     }
 
@@ -168,7 +184,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
             readUnreliableKeyValueSize( cursor, keySize, valueSize, keyValueSize, pos );
             return;
         }
-        layout.readKey( cursor, intoKey, keySize );
+        readLeafKey( cursor, intoKey, keySize );
         layout.readValue( cursor, intoValue, valueSize );
     }
 
@@ -201,14 +217,14 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
     {
         // Where to write key?
         int currentKeyValueOffset = getAllocOffset( cursor );
-        int keySize = layout.keySize( key );
+        int keySize = leafKeySize( cursor, key );
         int valueSize = layout.valueSize( value );
         int newKeyValueOffset = currentKeyValueOffset - keySize - valueSize - getOverhead( keySize, valueSize );
 
         // Write key and value
         cursor.setOffset( newKeyValueOffset );
         putKeyValueSize( cursor, keySize, valueSize );
-        layout.writeKey( cursor, key );
+        writeLeafKey( cursor, key );
         layout.writeValue( cursor, value );
 
         // Update alloc space
@@ -350,6 +366,40 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         cursor.setOffset( cursor.getOffset() + delta );
     }
 
+    /**
+     * Reads a key in a leaf, with cursor placed right after the key and value sizes. When this method returns the cursor is placed
+     * right after the key, i.e. at the value. Formats that store leaf keys in a different form than the {@link Layout} override this.
+     */
+    void readLeafKey( PageCursor cursor, KEY into, int keySize )
+    {
+        layout.readKey( cursor, into, keySize );
+    }
+
+    /**
+     * @return number of bytes the given key will occupy if written into the leaf that cursor is currently at.
+     */
+    int leafKeySize( PageCursor cursor, KEY key )
+    {
+        return layout.keySize( key );
+    }
+
+    /**
+     * Writes a key in a leaf at the current offset of the cursor, occupying exactly {@link #leafKeySize(PageCursor, Object)} bytes.
+     */
+    void writeLeafKey( PageCursor cursor, KEY key )
+    {
+        layout.writeKey( cursor, key );
+    }
+
+    /**
+     * @return space in the leaf that cursor is currently at which is neither key-value entries nor offset array, but still need to be
+     * present in both leaves after a split.
+     */
+    int reservedLeafSpace( PageCursor cursor )
+    {
+        return 0;
+    }
+
     @Override
     void setChildAt( PageCursor cursor, long child, int pos, long stableGeneration, long unstableGeneration )
     {
@@ -416,13 +466,27 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         int allocSpace = getAllocSpace( cursor, currentKeyCount, LEAF );
 
         // How much space do we need?
-        int neededSpace = totalSpaceOfKeyValue( newKey, newValue );
+        int neededSpace = totalSpaceOfKeyValue( cursor, newKey, newValue );
 
         // There is your answer!
         return neededSpace <= allocSpace ? Overflow.NO :
                neededSpace <= allocSpace + deadSpace ? Overflow.NO_NEED_DEFRAG : Overflow.YES;
     }
 
+    @Override
+    boolean leafFilledBeyond( PageCursor cursor, int currentKeyCount, KEY newKey, VALUE newValue, double fillFactor )
+    {
+        int activeSpace = totalActiveSpace( cursor, currentKeyCount, LEAF );
+        return activeSpace + totalSpaceOfKeyValue( cursor, newKey, newValue ) > totalSpace * fillFactor;
+    }
+
+    @Override
+    boolean internalFilledBeyond( PageCursor cursor, int currentKeyCount, KEY newKey, double fillFactor )
+    {
+        int activeSpace = totalActiveSpace( cursor, currentKeyCount, INTERNAL );
+        return activeSpace + totalSpaceOfKeyChild( newKey ) > totalSpace * fillFactor;
+    }
+
     @Override
     void defragmentLeaf( PageCursor cursor )
     {
@@ -594,6 +658,17 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return availableSpace > halfSpace;
     }
 
+    @Override
+    boolean leafUnderflowAfterRemove( PageCursor cursor, int keyCount, int pos )
+    {
+        // Removing frees both the key-value entry and its offset
+        int allocSpace = getAllocSpace( cursor, keyCount, LEAF );
+        int deadSpace = getDeadSpace( cursor );
+        int availableSpace = allocSpace + deadSpace + totalSpaceOfKeyValue( cursor, pos );
+
+        return availableSpace > halfSpace;
+    }
+
     @Override
     int canRebalanceLeaves( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount )
     {
@@ -805,10 +880,11 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
     // NOTE: Does update keyCount
     private void moveKeysAndValues( PageCursor fromCursor, int fromPos, PageCursor toCursor, int toPos, int count )
     {
-        int firstAllocOffset = getAllocOffset( toCursor );
-        int toAllocOffset = firstAllocOffset;
+        int toAllocOffset = getAllocOffset( toCursor );
+        int totalMovedBytes = 0;
         for ( int i = 0; i < count; i++, toPos++ )
         {
+            totalMovedBytes += totalSpaceOfKeyValue( fromCursor, fromPos + i ) - bytesKeyOffset();
             toAllocOffset = moveRawKeyValue( fromCursor, fromPos + i, toCursor, toAllocOffset );
             toCursor.setOffset( keyPosOffsetLeaf( toPos ) );
             putKeyOffset( toCursor, toAllocOffset );
@@ -817,7 +893,6 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
 
         // Update deadspace
         int deadSpace = getDeadSpace( fromCursor );
-        int totalMovedBytes = firstAllocOffset - toAllocOffset;
         setDeadSpace( fromCursor, deadSpace + totalMovedBytes );
 
         // Key count
@@ -831,20 +906,10 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
      */
     private int moveRawKeyValue( PageCursor fromCursor, int fromPos, PageCursor toCursor, int toAllocOffset )
     {
-        // What to copy?
-        placeCursorAtActualKey( fromCursor, fromPos, LEAF );
-        int fromKeyOffset = fromCursor.getOffset();
-        long keyValueSize = readKeyValueSize( fromCursor );
-        int keySize = extractKeySize( keyValueSize );
-        int valueSize = extractValueSize( keyValueSize );
-
-        // Copy
-        int toCopy = getOverhead( keySize, valueSize ) + keySize + valueSize;
-        int newRightAllocSpace = toAllocOffset - toCopy;
-        fromCursor.copyTo( fromKeyOffset, toCursor, newRightAllocSpace, toCopy );
+        int newRightAllocSpace = copyRawKeyValue( fromCursor, fromPos, toCursor, toAllocOffset );
 
         // Put tombstone
-        fromCursor.setOffset( fromKeyOffset );
+        placeCursorAtActualKey( fromCursor, fromPos, LEAF );
         putTombstone( fromCursor );
         return newRightAllocSpace;
     }
@@ -881,7 +946,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
      * Does NOT mark transferred key as dead.
      * @return new alloc offset in 'to'
      */
-    private int copyRawKeyValue( PageCursor fromCursor, int fromPos, PageCursor toCursor, int toAllocOffset )
+    int copyRawKeyValue( PageCursor fromCursor, int fromPos, PageCursor toCursor, int toAllocOffset )
     {
         // What to copy?
         placeCursorAtActualKey( fromCursor, fromPos, LEAF );
@@ -988,7 +1053,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         zeroPad( fromCursor, childFromOffset, lengthInBytes );
     }
 
-    private void zeroPad( PageCursor fromCursor, int fromOffset, int lengthInBytes )
+    void zeroPad( PageCursor fromCursor, int fromOffset, int lengthInBytes )
     {
         fromCursor.setOffset( fromOffset );
         fromCursor.putBytes( lengthInBytes, (byte) 0 );
@@ -1093,11 +1158,13 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         int targetLeftSpace = (int) (this.totalSpace * ratioToKeepInLeftOnSplit);
         int splitPos = 0;
         int currentPos = 0;
-        int accumulatedLeftSpace = 0;
-        int currentDelta = targetLeftSpace;
+        // Reserved space ends up in both left and right, so count it in left from the start and add it to what ends up in right
+        int reservedSpace = reservedLeafSpace( cursor );
+        int accumulatedLeftSpace = reservedSpace;
+        int currentDelta = Math.abs( accumulatedLeftSpace - targetLeftSpace );
         int prevDelta;
-        int spaceOfNewKey = totalSpaceOfKeyValue( newKey, newValue );
-        int totalSpaceIncludingNewKey = totalActiveSpace( cursor, keyCountAfterInsert - 1, LEAF ) + spaceOfNewKey;
+        int spaceOfNewKey = totalSpaceOfKeyValue( cursor, newKey, newValue );
+        int totalSpaceIncludingNewKey = totalActiveSpace( cursor, keyCountAfterInsert - 1, LEAF ) + spaceOfNewKey + reservedSpace;
         boolean includedNew = false;
         boolean prevPosPossible;
         boolean thisPosPossible = false;
@@ -1141,16 +1208,16 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return splitPos;
     }
 
-    private int totalActiveSpace( PageCursor cursor, int keyCount, Type type )
+    int totalActiveSpace( PageCursor cursor, int keyCount, Type type )
     {
         int deadSpace = getDeadSpace( cursor );
         int allocSpace = getAllocSpace( cursor, keyCount, type );
         return totalSpace - deadSpace - allocSpace;
     }
 
-    private int totalSpaceOfKeyValue( KEY key, VALUE value )
+    private int totalSpaceOfKeyValue( PageCursor cursor, KEY key, VALUE value )
     {
-        int keySize = layout.keySize( key );
+        int keySize = leafKeySize( cursor, key );
         int valueSize = layout.valueSize( value );
         return bytesKeyOffset() + getOverhead( keySize, valueSize ) + keySize + valueSize;
     }
@@ -1161,7 +1228,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return bytesKeyOffset() + getOverhead( keySize, 0 ) + childSize() + keySize;
     }
 
-    private int totalSpaceOfKeyValue( PageCursor cursor, int pos )
+    int totalSpaceOfKeyValue( PageCursor cursor, int pos )
     {
         placeCursorAtActualKey( cursor, pos, LEAF );
         long keyValueSize = readKeyValueSize( cursor );
@@ -1200,7 +1267,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return PageCursorUtil.getUnsignedShort( cursor, BYTE_POS_DEADSPACE );
     }
 
-    private void placeCursorAtActualKey( PageCursor cursor, int pos, Type type )
+    void placeCursorAtActualKey( PageCursor cursor, int pos, Type type )
     {
         // Set cursor to correct place in offset array
         int keyPosOffset = keyPosOffset( pos, type );
@@ -1229,7 +1296,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
 
     private boolean keyValueSizeTooLarge( int keySize, int valueSize )
     {
-        return keySize + valueSize > keyValueSizeCap();
+        return keySize + valueSize > keyValueSizeCap;
     }
 
     private int keyPosOffset( int pos, Type type )
@@ -1244,7 +1311,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         }
     }
 
-    private int keyPosOffsetLeaf( int pos )
+    int keyPosOffsetLeaf( int pos )
     {
         return HEADER_LENGTH_DYNAMIC + pos * bytesKeyOffset();
     }
@@ -1265,7 +1332,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return SIZE_PAGE_REFERENCE;
     }
 
-    private static int bytesKeyOffset()
+    static int bytesKeyOffset()
     {
         return SIZE_OFFSET;
     }
@@ -1330,11 +1397,15 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
             {
                 singleKey.add( "_" );
             }
-            layout.readKey( cursor, readKey, keySize );
             if ( type == LEAF )
             {
+                readLeafKey( cursor, readKey, keySize );
                 layout.readValue( cursor, readValue, valueSize );
             }
+            else
+            {
+                layout.readKey( cursor, readKey, keySize );
+            }
             singleKey.add( Integer.toString( keySize ) );
             if ( type == LEAF && includeValue )
             {
@@ -0,0 +1,627 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.neo4j.io.pagecache.ByteArrayPageCursor;
+import org.neo4j.io.pagecache.CursorException;
+import org.neo4j.io.pagecache.PageCursor;
+
+import static java.lang.String.format;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.extractKeySize;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.extractValueSize;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.getOverhead;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.putKeyOffset;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.putKeyValueSize;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.readKeyValueSize;
+import static org.neo4j.index.internal.gbptree.PageCursorUtil.getUnsignedShort;
+import static org.neo4j.index.internal.gbptree.PageCursorUtil.putUnsignedShort;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.LEAF;
+
+/**
+ * {@link TreeNodeDynamicSize} which compresses keys in leaves against a per-leaf reference key.
+ * Internal nodes have the exact same layout as in {@link TreeNodeDynamicSize}.
+ *
+ * LEAF
+ * [  HEADER  86B  ]|[KEY_OFFSETS]##########[KEYS_VALUES][REFERENCE]
+ *
+ * REFERENCE
+ * [keySize|valueSize][REFERENCE_BYTES][REFERENCE_LENGTH]
+ *
+ * The reference is stored like an ordinary, never removed, key-value entry last in the leaf, so that defragmentation and space
+ * accounting sees it as active space. Its last two bytes hold the length of the reference so that it can be found from the end of the page.
+ *
+ * A key is stored as its {@link Layout serialized} bytes, encoded as a sequence of segments against the reference:
+ * [COPY][LITERAL][LITERAL_BYTES]
+ * where the next COPY bytes are the bytes at the same position in the reference and the LITERAL bytes following them are stored as is.
+ * The first segment of a key that shares a prefix with the reference is thus a plain prefix compression. Comparing at the same
+ * position, instead of only the prefix, also lets the bytes following fixed size fields which differs between keys, like an entity id
+ * or a length, be shared with the reference.
+ *
+ * A leaf picks its first key as reference when it's empty. On split both leaves start out with the reference of the split leaf,
+ * so that entries can be moved without re-encoding them, after which each of them picks its middle key as reference if that
+ * makes its keys take less space.
+ *
+ * Leaf keys are decoded and encoded in scratch buffers held by the instance, so every seek cursor and writer gets its own
+ * instance, see {@link #forSingleThread()}.
+ */
+class TreeNodeDynamicSizeCompressed<KEY,VALUE> extends TreeNodeDynamicSize<KEY,VALUE>
+{
+    static final byte FORMAT_IDENTIFIER = 4;
+    static final byte FORMAT_VERSION = 0;
+
+    private static final int MAX_REFERENCE_SIZE = 128;
+    // Smaller pages get shorter references, so that the reference takes a similar share of the page regardless of page size
+    private static final int PAGE_SIZE_PER_REFERENCE_BYTE = 32;
+    private static final int SIZE_REFERENCE_LENGTH = 2;
+    private static final int SIZE_SEGMENT_HEADER = 2;
+    private static final int MAX_SEGMENT_RUN = 0xFF;
+    private static final int MIN_COPY_RUN = 3;
+
+    private final int maxReferenceSize;
+    private static final byte[] NO_REFERENCE = new byte[0];
+
+    private final int encodedKeyValueSizeCap;
+    private final int uncompressedKeyValueSizeCap;
+    // Allocated on first use, since instances which only look at internal nodes never need it
+    private Scratch scratch;
+
+    TreeNodeDynamicSizeCompressed( int pageSize, Layout<KEY,VALUE> layout )
+    {
+        super( pageSize, layout, referenceSpace( maxReferenceSize( pageSize ) ) );
+        maxReferenceSize = maxReferenceSize( pageSize );
+        encodedKeyValueSizeCap = keyValueSizeCapFromPageSize( pageSize - referenceSpace( maxReferenceSize ) );
+        // A key may grow when encoded, see encode
+        uncompressedKeyValueSizeCap = encodedKeyValueSizeCap - SIZE_SEGMENT_HEADER * (encodedKeyValueSizeCap / MAX_SEGMENT_RUN + 1);
+    }
+
+    @Override
+    TreeNode<KEY,VALUE> forSingleThread()
+    {
+        return new TreeNodeDynamicSizeCompressed<>( pageSize, layout );
+    }
+
+    private Scratch scratch()
+    {
+        if ( scratch == null )
+        {
+            scratch = new Scratch( encodedKeyValueSizeCap, maxReferenceSize );
+        }
+        return scratch;
+    }
+
+    private static int maxReferenceSize( int pageSize )
+    {
+        return Math.min( MAX_REFERENCE_SIZE, pageSize / PAGE_SIZE_PER_REFERENCE_BYTE );
+    }
+
+    @Override
+    void writeAdditionalHeader( PageCursor cursor )
+    {
+        super.writeAdditionalHeader( cursor );
+        if ( isLeaf( cursor ) )
+        {
+            writeReference( cursor, NO_REFERENCE, 0 );
+        }
+    }
+
+    @Override
+    void readLeafKey( PageCursor cursor, KEY into, int keySize )
+    {
+        Scratch scratch = scratch();
+        int keyLength = decodeKey( cursor, keySize, scratch.key );
+        if ( keyLength == -1 )
+        {
+            return;
+        }
+        PageCursor keyCursor = scratch.keyCursor;
+        keyCursor.setOffset( 0 );
+        layout.readKey( keyCursor, into, keyLength );
+        try
+        {
+            keyCursor.checkAndClearCursorException();
+        }
+        catch ( CursorException e )
+        {
+            cursor.setCursorException( e.getMessage() );
+        }
+    }
+
+    @Override
+    int leafKeySize( PageCursor cursor, KEY key )
+    {
+        return encodeKey( cursor, key, scratch() );
+    }
+
+    @Override
+    void writeLeafKey( PageCursor cursor, KEY key )
+    {
+        Scratch scratch = scratch();
+        int encodedSize = encodeKey( cursor, key, scratch );
+        cursor.putBytes( scratch.encoded, 0, encodedSize );
+    }
+
+    @Override
+    int reservedLeafSpace( PageCursor cursor )
+    {
+        return referenceSpace( referenceLength( cursor ) );
+    }
+
+    @Override
+    void insertKeyValueAt( PageCursor cursor, KEY key, VALUE value, int pos, int keyCount )
+    {
+        if ( keyCount == 0 )
+        {
+            // There are no keys encoded against the current reference, so the new key can be used as reference instead
+            Scratch scratch = scratch();
+            int keyLength = serializeKey( key, scratch );
+            writeReference( cursor, scratch.key, Math.min( keyLength, maxReferenceSize ) );
+        }
+        super.insertKeyValueAt( cursor, key, value, pos, keyCount );
+    }
+
+    @Override
+    void doSplitLeaf( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int insertPos, KEY newKey,
+            VALUE newValue, KEY newSplitter, double ratioToKeepInLeftOnSplit )
+    {
+        // Right gets the same reference as left so that keys can be moved as they are and still take the same space
+        Scratch scratch = scratch();
+        int referenceLength = readReference( leftCursor, scratch.reference );
+        writeReference( rightCursor, scratch.reference, referenceLength );
+
+        super.doSplitLeaf( leftCursor, leftKeyCount, rightCursor, insertPos, newKey, newValue, newSplitter, ratioToKeepInLeftOnSplit );
+
+        changeReferenceIfSmaller( leftCursor );
+        changeReferenceIfSmaller( rightCursor );
+    }
+
+    @Override
+    boolean canMergeLeaves( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount )
+    {
+        Scratch scratch = scratch();
+        int rightReferenceLength = readReference( rightCursor, scratch.otherReference );
+        int rightActiveSpace = totalActiveSpace( rightCursor, rightKeyCount, LEAF );
+        int leftSpaceInRight = 0;
+        for ( int pos = 0; pos < leftKeyCount; pos++ )
+        {
+            leftSpaceInRight += totalSpaceOfKeyValue( leftCursor, pos, scratch.otherReference, rightReferenceLength, scratch );
+        }
+        return totalSpace >= rightActiveSpace + leftSpaceInRight;
+    }
+
+    @Override
+    int canRebalanceLeaves( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount )
+    {
+        if ( canMergeLeaves( leftCursor, leftKeyCount, rightCursor, rightKeyCount ) )
+        {
+            return -1;
+        }
+        int leftActiveSpace = totalActiveSpace( leftCursor, leftKeyCount, LEAF );
+        int rightActiveSpace = totalActiveSpace( rightCursor, rightKeyCount, LEAF );
+        if ( leftActiveSpace < rightActiveSpace )
+        {
+            // Moving keys to the right will only create more imbalance
+            return 0;
+        }
+
+        // Keys moved to right are encoded against the reference in right and so may take a different amount of space there
+        Scratch scratch = scratch();
+        int rightReferenceLength = readReference( rightCursor, scratch.otherReference );
+        int prevDelta;
+        int currentDelta = Math.abs( leftActiveSpace - rightActiveSpace );
+        int keysToMove = 0;
+        int lastChunkSizeInLeft;
+        int lastChunkSizeInRight;
+        do
+        {
+            keysToMove++;
+            int pos = leftKeyCount - keysToMove;
+            lastChunkSizeInLeft = totalSpaceOfKeyValue( leftCursor, pos );
+            lastChunkSizeInRight = totalSpaceOfKeyValue( leftCursor, pos, scratch.otherReference, rightReferenceLength, scratch );
+            leftActiveSpace -= lastChunkSizeInLeft;
+            rightActiveSpace += lastChunkSizeInRight;
+
+            prevDelta = currentDelta;
+            currentDelta = Math.abs( leftActiveSpace - rightActiveSpace );
+        }
+        while ( currentDelta < prevDelta );
+        keysToMove--; // Move back to optimal split
+        leftActiveSpace += lastChunkSizeInLeft;
+        rightActiveSpace -= lastChunkSizeInRight;
+
+        boolean canRebalance = leftActiveSpace > halfSpace && rightActiveSpace > halfSpace && rightActiveSpace <= totalSpace;
+        return canRebalance ? keysToMove : 0;
+    }
+
+    @Override
+    int copyRawKeyValue( PageCursor fromCursor, int fromPos, PageCursor toCursor, int toAllocOffset )
+    {
+        Scratch scratch = scratch();
+        int fromReferenceLength = readReference( fromCursor, scratch.reference );
+        int toReferenceLength = readReference( toCursor, scratch.otherReference );
+        if ( sameBytes( scratch.reference, fromReferenceLength, scratch.otherReference, toReferenceLength ) )
+        {
+            return super.copyRawKeyValue( fromCursor, fromPos, toCursor, toAllocOffset );
+        }
+
+        // Re-encode key against reference in 'to'
+        placeCursorAtActualKey( fromCursor, fromPos, LEAF );
+        long keyValueSize = readKeyValueSize( fromCursor );
+        int keySize = extractKeySize( keyValueSize );
+        int valueSize = extractValueSize( keyValueSize );
+        int keyLength = decodeKey( fromCursor, keySize, scratch.key );
+        int valueOffset = fromCursor.getOffset();
+        int encodedSize = encode( scratch.key, keyLength, scratch.otherReference, toReferenceLength, scratch.encoded );
+
+        int newAllocOffset = toAllocOffset - getOverhead( encodedSize, valueSize ) - encodedSize - valueSize;
+        toCursor.setOffset( newAllocOffset );
+        putKeyValueSize( toCursor, encodedSize, valueSize );
+        toCursor.putBytes( scratch.encoded, 0, encodedSize );
+        fromCursor.copyTo( valueOffset, toCursor, toCursor.getOffset(), valueSize );
+        return newAllocOffset;
+    }
+
+    @Override
+    public int keyValueSizeCap()
+    {
+        return uncompressedKeyValueSizeCap;
+    }
+
+    @Override
+    void validateKeyValueSize( KEY key, VALUE value )
+    {
+        int keySize = layout.keySize( key );
+        int valueSize = layout.valueSize( value );
+        if ( keySize + valueSize > uncompressedKeyValueSizeCap )
+        {
+            throw new IllegalArgumentException( "Index key-value size it to large. Please see index documentation for limitations." );
+        }
+    }
+
+    /**
+     * Picks the middle key in the leaf as its reference and re-encodes all keys against it, but only if they then take less space.
+     * All keys are decoded and encoded into a scratch page, which is then copied over the data area of the leaf.
+     */
+    private void changeReferenceIfSmaller( PageCursor cursor )
+    {
+        int keyCount = keyCount( cursor );
+        if ( keyCount == 0 )
+        {
+            return;
+        }
+
+        // Candidate
+        Scratch scratch = scratch();
+        int referenceLength = readReference( cursor, scratch.reference );
+        placeCursorAtActualKey( cursor, keyCount / 2, LEAF );
+        int middleKeySize = extractKeySize( readKeyValueSize( cursor ) );
+        int candidateLength = Math.min( decodeKey( cursor, middleKeySize, scratch.key ), maxReferenceSize );
+        if ( candidateLength < 0 )
+        {
+            return;
+        }
+        byte[] candidate = scratch.otherReference;
+        System.arraycopy( scratch.key, 0, candidate, 0, candidateLength );
+        if ( sameBytes( scratch.reference, referenceLength, candidate, candidateLength ) )
+        {
+            return;
+        }
+
+        // Would it be smaller?
+        int currentSpace = pageSize - getAllocOffset( cursor ) - getDeadSpace( cursor );
+        int candidateSpace = referenceSpace( candidateLength );
+        for ( int pos = 0; pos < keyCount; pos++ )
+        {
+            candidateSpace += totalSpaceOfKeyValue( cursor, pos, candidate, candidateLength, scratch ) - bytesKeyOffset();
+        }
+        if ( candidateSpace >= currentSpace )
+        {
+            return;
+        }
+
+        // Encode everything in the scratch page
+        PageCursor pageCursor = scratch.pageCursor( pageSize );
+        int[] newOffsets = scratch.offsets( keyCount );
+        int newAllocOffset = writeReferenceEntry( pageCursor, candidate, candidateLength );
+        for ( int pos = 0; pos < keyCount; pos++ )
+        {
+            placeCursorAtActualKey( cursor, pos, LEAF );
+            long keyValueSize = readKeyValueSize( cursor );
+            int keySize = extractKeySize( keyValueSize );
+            int valueSize = extractValueSize( keyValueSize );
+            int keyLength = decodeKey( cursor, keySize, scratch.key );
+            int encodedSize = encode( scratch.key, keyLength, candidate, candidateLength, scratch.encoded );
+
+            newAllocOffset -= getOverhead( encodedSize, valueSize ) + encodedSize + valueSize;
+            pageCursor.setOffset( newAllocOffset );
+            putKeyValueSize( pageCursor, encodedSize, valueSize );
+            pageCursor.putBytes( scratch.encoded, 0, encodedSize );
+            cursor.getBytes( scratch.page, pageCursor.getOffset(), valueSize );
+            newOffsets[pos] = newAllocOffset;
+        }
+
+        // And copy it over the leaf
+        int oldAllocOffset = getAllocOffset( cursor );
+        cursor.setOffset( newAllocOffset );
+        cursor.putBytes( scratch.page, newAllocOffset, pageSize - newAllocOffset );
+        zeroPad( cursor, oldAllocOffset, newAllocOffset - oldAllocOffset );
+        for ( int pos = 0; pos < keyCount; pos++ )
+        {
+            cursor.setOffset( keyPosOffsetLeaf( pos ) );
+            putKeyOffset( cursor, newOffsets[pos] );
+        }
+        setAllocOffset( cursor, newAllocOffset );
+        setDeadSpace( cursor, 0 );
+    }
+
+    /**
+     * @return space the key and value at pos would take, including its offset, if encoded against the given reference.
+     */
+    private int totalSpaceOfKeyValue( PageCursor cursor, int pos, byte[] reference, int referenceLength, Scratch scratch )
+    {
+        placeCursorAtActualKey( cursor, pos, LEAF );
+        long keyValueSize = readKeyValueSize( cursor );
+        int keySize = extractKeySize( keyValueSize );
+        int valueSize = extractValueSize( keyValueSize );
+        int keyLength = decodeKey( cursor, keySize, scratch.key );
+        int encodedSize = encode( scratch.key, keyLength, reference, referenceLength, scratch.encoded );
+        return bytesKeyOffset() + getOverhead( encodedSize, valueSize ) + encodedSize + valueSize;
+    }
+
+    /**
+     * Replaces the reference of a leaf which has no keys, also reclaiming all dead space.
+     */
+    private void writeReference( PageCursor cursor, byte[] reference, int referenceLength )
+    {
+        int allocOffset = getAllocOffset( cursor );
+        zeroPad( cursor, allocOffset, pageSize - allocOffset );
+        setAllocOffset( cursor, writeReferenceEntry( cursor, reference, referenceLength ) );
+        setDeadSpace( cursor, 0 );
+    }
+
+    /**
+     * @return offset of the written reference entry.
+     */
+    private int writeReferenceEntry( PageCursor cursor, byte[] reference, int referenceLength )
+    {
+        int entryOffset = pageSize - referenceSpace( referenceLength );
+        cursor.setOffset( entryOffset );
+        putKeyValueSize( cursor, referenceLength, SIZE_REFERENCE_LENGTH );
+        cursor.putBytes( reference, 0, referenceLength );
+        putUnsignedShort( cursor, referenceLength );
+        return entryOffset;
+    }
+
+    private int readReference( PageCursor cursor, byte[] into )
+    {
+        int referenceLength = referenceLength( cursor );
+        cursor.setOffset( referenceOffset( referenceLength ) );
+        cursor.getBytes( into, 0, referenceLength );
+        return referenceLength;
+    }
+
+    private int referenceLength( PageCursor cursor )
+    {
+        int referenceLength = getUnsignedShort( cursor, pageSize - SIZE_REFERENCE_LENGTH );
+        if ( referenceLength > maxReferenceSize )
+        {
+            cursor.setCursorException( format( "Read unreliable reference length, id=%d, referenceLength=%d, maxReferenceLength=%d",
+                    cursor.getCurrentPageId(), referenceLength, maxReferenceSize ) );
+            return 0;
+        }
+        return referenceLength;
+    }
+
+    private int referenceOffset( int referenceLength )
+    {
+        return pageSize - SIZE_REFERENCE_LENGTH - referenceLength;
+    }
+
+    private static int referenceSpace( int referenceLength )
+    {
+        return getOverhead( referenceLength, SIZE_REFERENCE_LENGTH ) + referenceLength + SIZE_REFERENCE_LENGTH;
+    }
+
+    private int serializeKey( KEY key, Scratch scratch )
+    {
+        int keySize = layout.keySize( key );
+        if ( keySize > scratch.key.length )
+        {
+            throw new IllegalArgumentException( "Index key-value size it to large. Please see index documentation for limitations." );
+        }
+        PageCursor keyCursor = scratch.keyCursor;
+        keyCursor.setOffset( 0 );
+        layout.writeKey( keyCursor, key );
+        return keySize;
+    }
+
+    /**
+     * Encodes key against the reference of the leaf that cursor is at, into {@link Scratch#encoded}. Cursor offset is left untouched.
+     *
+     * @return encoded size.
+     */
+    private int encodeKey( PageCursor cursor, KEY key, Scratch scratch )
+    {
+        int offset = cursor.getOffset();
+        int keyLength = serializeKey( key, scratch );
+        int referenceLength = readReference( cursor, scratch.reference );
+        cursor.setOffset( offset );
+        return encode( scratch.key, keyLength, scratch.reference, referenceLength, scratch.encoded );
+    }
+
+    /**
+     * Decodes a key with cursor placed at its first encoded byte. Cursor is placed right after the encoded key when this method returns.
+     *
+     * @return length of the decoded key, or -1 if the key could not be decoded, in which case a cursor exception has been set.
+     */
+    private int decodeKey( PageCursor cursor, int encodedSize, byte[] into )
+    {
+        int offset = cursor.getOffset();
+        int end = offset + encodedSize;
+        int referenceLength = referenceLength( cursor );
+        int referenceOffset = referenceOffset( referenceLength );
+        int length = 0;
+        while ( offset < end )
+        {
+            int copy = cursor.getByte( offset ) & 0xFF;
+            int literal = cursor.getByte( offset + 1 ) & 0xFF;
+            offset += SIZE_SEGMENT_HEADER;
+            if ( ( copy > 0 && length + copy > referenceLength ) || length + copy + literal > into.length || offset + literal > end )
+            {
+                cursor.setCursorException( format( "Read unreliable encoded key, id=%d, encodedSize=%d, referenceLength=%d",
+                        cursor.getCurrentPageId(), encodedSize, referenceLength ) );
+                cursor.setOffset( end );
+                return -1;
+            }
+            if ( copy > 0 )
+            {
+                // Reading zero bytes past the reference would still flag the cursor as out of bounds
+                cursor.setOffset( referenceOffset + length );
+                cursor.getBytes( into, length, copy );
+                length += copy;
+            }
+            cursor.setOffset( offset );
+            cursor.getBytes( into, length, literal );
+            length += literal;
+            offset += literal;
+        }
+        cursor.setOffset( end );
+        return length;
+    }
+
+    /**
+     * Encodes key against reference, see class documentation for the format. An encoded key is at most
+     * {@code keyLength + 2 + 2 * (keyLength / 255)} bytes, since every segment except the first one and those following
+     * a maximum length literal run copies at least {@link #MIN_COPY_RUN} bytes.
+     *
+     * @return encoded size.
+     */
+    static int encode( byte[] key, int keyLength, byte[] reference, int referenceLength, byte[] into )
+    {
+        int pos = 0;
+        int size = 0;
+        while ( pos < keyLength )
+        {
+            int copy = 0;
+            while ( copy < MAX_SEGMENT_RUN && pos < keyLength && pos < referenceLength && key[pos] == reference[pos] )
+            {
+                copy++;
+                pos++;
+            }
+            int literalStart = pos;
+            while ( pos - literalStart < MAX_SEGMENT_RUN && pos < keyLength &&
+                    !worthCopying( key, keyLength, reference, referenceLength, pos ) )
+            {
+                pos++;
+            }
+            int literal = pos - literalStart;
+            into[size++] = (byte) copy;
+            into[size++] = (byte) literal;
+            System.arraycopy( key, literalStart, into, size, literal );
+            size += literal;
+        }
+        return size;
+    }
+
+    private static boolean worthCopying( byte[] key, int keyLength, byte[] reference, int referenceLength, int pos )
+    {
+        int end = pos + MIN_COPY_RUN;
+        if ( end > keyLength || end > referenceLength )
+        {
+            return false;
+        }
+        for ( int i = pos; i < end; i++ )
+        {
+            if ( key[i] != reference[i] )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean sameBytes( byte[] left, int leftLength, byte[] right, int rightLength )
+    {
+        if ( leftLength != rightLength )
+        {
+            return false;
+        }
+        for ( int i = 0; i < leftLength; i++ )
+        {
+            if ( left[i] != right[i] )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "TreeNodeDynamicSizeCompressed[pageSize:" + pageSize + ", keyValueSizeCap:" + keyValueSizeCap() + "]";
+    }
+
+    /**
+     * Buffers for decoding and encoding keys.
+     */
+    private static class Scratch
+    {
+        private final byte[] key;
+        private final PageCursor keyCursor;
+        private final byte[] encoded;
+        private final byte[] reference;
+        private final byte[] otherReference;
+        // Only needed by writers and therefore allocated on demand
+        private byte[] page;
+        private PageCursor pageCursor;
+        private int[] offsets;
+
+        Scratch( int keyValueSizeCap, int maxReferenceSize )
+        {
+            key = new byte[keyValueSizeCap];
+            keyCursor = ByteArrayPageCursor.wrap( key );
+            encoded = new byte[keyValueSizeCap];
+            reference = new byte[maxReferenceSize];
+            otherReference = new byte[maxReferenceSize];
+        }
+
+        PageCursor pageCursor( int pageSize )
+        {
+            if ( page == null )
+            {
+                page = new byte[pageSize];
+                pageCursor = ByteArrayPageCursor.wrap( page );
+            }
+            return pageCursor;
+        }
+
+        int[] offsets( int keyCount )
+        {
+            if ( offsets == null || offsets.length < keyCount )
+            {
+                offsets = new int[keyCount];
+            }
+            return offsets;
+        }
+    }
+}
@@ -22,6 +22,8 @@
  */
 package org.neo4j.index.internal.gbptree;
 
+import org.neo4j.util.FeatureToggles;
+
 import static java.lang.String.format;
 
 /**
@@ -78,6 +80,36 @@ class TreeNodeSelector
         }
     };
 
+    /**
+     * Creates {@link TreeNodeDynamicSizeCompressed} instances.
+     */
+    static Factory DYNAMIC_COMPRESSED = new Factory()
+    {
+        @Override
+        public <KEY,VALUE> TreeNode<KEY,VALUE> create( int pageSize, Layout<KEY,VALUE> layout )
+        {
+            return new TreeNodeDynamicSizeCompressed<>( pageSize, layout );
+        }
+
+        @Override
+        public byte formatIdentifier()
+        {
+            return TreeNodeDynamicSizeCompressed.FORMAT_IDENTIFIER;
+        }
+
+        @Override
+        public byte formatVersion()
+        {
+            return TreeNodeDynamicSizeCompressed.FORMAT_VERSION;
+        }
+    };
+
+    /**
+     * Whether or not new trees with dynamic size layouts should compress keys in leaves, see {@link TreeNodeDynamicSizeCompressed}.
+     * Read on every selection so that existing trees are unaffected by changing it, they keep the format they were created with.
+     */
+    static final String COMPRESS_DYNAMIC_KEYS = "compressDynamicKeys";
+
     /**
      * Selects a format based on the given {@link Layout}.
      *
@@ -87,7 +119,34 @@ class TreeNodeSelector
     static Factory selectByLayout( Layout<?,?> layout )
     {
         // For now the selection is done in a simple fashion, by looking at layout.fixedSize().
-        return layout.fixedSize() ? FIXED : DYNAMIC;
+        if ( layout.fixedSize() )
+        {
+            return FIXED;
+        }
+        return FeatureToggles.flag( TreeNodeSelector.class, COMPRESS_DYNAMIC_KEYS, false ) ? DYNAMIC_COMPRESSED : DYNAMIC;
+    }
+
+    /**
+     * Whether or not a tree created with the given format can be opened with the given {@link Layout}. A dynamic size layout
+     * can open trees of either dynamic size format, regardless of which one {@link #selectByLayout(Layout)} currently selects.
+     *
+     * @param layout {@link Layout} to open the tree with.
+     * @param formatIdentifier format identifier, see {@link Meta#getFormatIdentifier()}
+     * @param formatVersion format version, see {@link Meta#getFormatVersion()}.
+     * @return whether or not the format is compatible with the layout.
+     */
+    static boolean isCompatible( Layout<?,?> layout, byte formatIdentifier, byte formatVersion )
+    {
+        if ( layout.fixedSize() )
+        {
+            return is( FIXED, formatIdentifier, formatVersion );
+        }
+        return is( DYNAMIC, formatIdentifier, formatVersion ) || is( DYNAMIC_COMPRESSED, formatIdentifier, formatVersion );
+    }
+
+    private static boolean is( Factory format, byte formatIdentifier, byte formatVersion )
+    {
+        return format.formatIdentifier() == formatIdentifier && format.formatVersion() == formatVersion;
     }
 
     /**
@@ -99,7 +158,7 @@ class TreeNodeSelector
      */
     static Factory selectByFormat( byte formatIdentifier, byte formatVersion )
     {
-        // For now do a simple selection of the two formats we know. Moving forward this can contain
+        // For now do a simple selection of the formats we know. Moving forward this can contain
         // many more identifiers and different versions of each.
         if ( formatIdentifier == TreeNodeFixedSize.FORMAT_IDENTIFIER && formatVersion == TreeNodeFixedSize.FORMAT_VERSION )
         {
@@ -109,6 +168,11 @@ class TreeNodeSelector
         {
             return DYNAMIC;
         }
+        else if ( formatIdentifier == TreeNodeDynamicSizeCompressed.FORMAT_IDENTIFIER &&
+                  formatVersion == TreeNodeDynamicSizeCompressed.FORMAT_VERSION )
+        {
+            return DYNAMIC_COMPRESSED;
+        }
         throw new IllegalArgumentException(
                 format( "Unknown format identifier:%d and version:%d combination", formatIdentifier, formatVersion ) );
     }
@@ -0,0 +1,412 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.util.FeatureToggles;
+
+import static org.neo4j.index.internal.gbptree.Generation.stableGeneration;
+import static org.neo4j.index.internal.gbptree.Generation.unstableGeneration;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.INTERNAL;
+
+/**
+ * On-heap copy of the upper internal levels of a tree, so that {@link SeekCursor seekers} can find the tree node
+ * on the level below the copied levels without reading any tree nodes through the page cache. This saves pinning
+ * the same few hot pages over and over again for point lookups.
+ * <p>
+ * The copy is an immutable snapshot of internal keys and of child pointers and their generations, the latter held
+ * in primitive arrays. It's only used as long as the tree has the same root, generation and
+ * {@link FreeListIdProvider#changeCount() number of acquired and released ids} as when the snapshot was taken.
+ * Structural changes that would make the snapshot point to the wrong tree nodes, i.e. splits, merges,
+ * new successors and new roots, all acquire or release ids. Changes that don't, e.g. rebalancing of leaves, only
+ * move keys to the right, which {@link SeekCursor} handles by following right siblings, just like when it's
+ * overtaken by concurrent changes while going down the tree. A tree node that is freed and reused after a pointer
+ * to it has been handed out is detected by comparing the generation of the pointer with that of the tree node,
+ * just like for pointers read from the tree.
+ * <p>
+ * An invalid snapshot is replaced by a seeker that finds the tree unchanged since the previous seeker which found
+ * the snapshot invalid, so that a tree under heavy structural change doesn't get its upper levels copied for every
+ * seek. Meanwhile seekers start from the root as usual.
+ *
+ * @param <KEY> type of internal/leaf keys
+ * @param <VALUE> type of leaf values
+ */
+class UpperLevelCache<KEY,VALUE>
+{
+    /**
+     * Name of {@link FeatureToggles feature toggle} for number of internal levels to cache, counting from the root.
+     * {@code 0}, the default, means that no levels are cached.
+     */
+    static final String LEVELS_NAME = "cachedInternalLevels";
+    static final int LEVELS_DEFAULT = 0;
+
+    /**
+     * Levels are copied until the next level would make the copy hold more tree nodes than this.
+     */
+    static final int MAX_NODES = 1 << 12;
+
+    private static final int NOT_CACHED = -1;
+
+    private final TreeNode<KEY,VALUE> bTreeNode;
+    private final Layout<KEY,VALUE> layout;
+    private final int levels;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile Snapshot<KEY> snapshot;
+    private volatile long invalidChangeCount = -1;
+
+    UpperLevelCache( TreeNode<KEY,VALUE> bTreeNode, Layout<KEY,VALUE> layout, int levels )
+    {
+        this.bTreeNode = bTreeNode;
+        this.layout = layout;
+        this.levels = levels;
+    }
+
+    /**
+     * @return number of internal levels to cache, as set by feature toggle {@link #LEVELS_NAME}.
+     */
+    static int levelsFromFeatureToggle()
+    {
+        return FeatureToggles.getInteger( UpperLevelCache.class, LEVELS_NAME, LEVELS_DEFAULT );
+    }
+
+    /**
+     * Finds the pointer to the tree node below the cached levels that going down the tree towards {@code key}
+     * leads to.
+     *
+     * @param key key to go towards.
+     * @param root current root of the tree.
+     * @param generation current generation of the tree.
+     * @param changeCount current {@link FreeListIdProvider#changeCount()}.
+     * @param pointerGeneration receives generation of the returned pointer.
+     * @return id of the tree node, or {@link TreeNode#NO_NODE_FLAG} if there's no valid snapshot to find it in.
+     */
+    long childFor( KEY key, Root root, long generation, long changeCount, GenerationKeeper pointerGeneration )
+    {
+        Snapshot<KEY> current = snapshot;
+        if ( current == null || current.nodeCount == 0 || !current.isValidFor( root, generation, changeCount ) )
+        {
+            return TreeNode.NO_NODE_FLAG;
+        }
+
+        int node = 0;
+        while ( true )
+        {
+            int child = current.keyStarts[node] + node + childPos( current, node, key );
+            int childNode = current.childNodes[child];
+            if ( childNode == NOT_CACHED )
+            {
+                pointerGeneration.generation = current.childGenerations[child];
+                return current.childIds[child];
+            }
+            node = childNode;
+        }
+    }
+
+    /**
+     * Takes a new snapshot if the current one is invalid and the tree is unchanged since the last time that was
+     * found out. Only one thread at a time takes a snapshot, others return immediately.
+     *
+     * @param cursor {@link PageCursor} to read tree nodes with, its position is not kept.
+     * @param root current root of the tree.
+     * @param generation current generation of the tree.
+     * @param changeCount current {@link FreeListIdProvider#changeCount()}.
+     * @param changeCountSupplier for re-reading the change count after taking the snapshot.
+     * @param generationSupplier for re-reading the generation after taking the snapshot.
+     * @throws IOException on {@link PageCursor} error.
+     */
+    void refreshIfNeeded( PageCursor cursor, Root root, long generation, long changeCount, LongSupplier changeCountSupplier,
+            LongSupplier generationSupplier ) throws IOException
+    {
+        Snapshot<KEY> current = snapshot;
+        if ( current != null && current.isValidFor( root, generation, changeCount ) )
+        {
+            return;
+        }
+        if ( invalidChangeCount != changeCount )
+        {
+            // Wait for the tree to calm down a bit
+            invalidChangeCount = changeCount;
+            return;
+        }
+        if ( !refreshing.compareAndSet( false, true ) )
+        {
+            return;
+        }
+        try
+        {
+            Snapshot<KEY> taken = take( cursor, root, generation, changeCount );
+            if ( taken != null && changeCountSupplier.getAsLong() == changeCount && generationSupplier.getAsLong() == generation )
+            {
+                snapshot = taken;
+            }
+        }
+        finally
+        {
+            refreshing.set( false );
+        }
+    }
+
+    /**
+     * @return position of the child to follow from {@code node} towards {@code key}, i.e. position of the first key
+     * that is greater than {@code key}, just like {@link SeekCursor} does.
+     */
+    private int childPos( Snapshot<KEY> current, int node, KEY key )
+    {
+        int start = current.keyStarts[node];
+        int lower = start;
+        int higher = start + current.keyCounts[node];
+        while ( lower < higher )
+        {
+            int mid = (lower + higher) >>> 1;
+            if ( layout.compare( key, current.keys[mid] ) < 0 )
+            {
+                higher = mid;
+            }
+            else
+            {
+                lower = mid + 1;
+            }
+        }
+        return lower - start;
+    }
+
+    /**
+     * Copies the upper internal levels, breadth first. Nodes are numbered in the order they are read, which makes
+     * the children of the nodes on one level, in order, the nodes on the next level.
+     *
+     * @return the new snapshot or {@code null} if something looked inconsistent, e.g. because of concurrent changes.
+     */
+    private Snapshot<KEY> take( PageCursor cursor, Root root, long generation, long changeCount ) throws IOException
+    {
+        Builder builder = new Builder( stableGeneration( generation ), unstableGeneration( generation ) );
+        long[] levelIds = {root.id()};
+        int previousLevelStart = NOT_CACHED;
+        for ( int level = 0; level < levels && builder.nodeCount + levelIds.length <= MAX_NODES; level++ )
+        {
+            int levelStart = builder.nodeCount;
+            for ( int i = 0; i < levelIds.length; i++ )
+            {
+                TreeNode.goTo( cursor, "cached tree node", levelIds[i] );
+                if ( !builder.readNode( cursor ) )
+                {
+                    return null;
+                }
+                if ( builder.lastWasLeaf )
+                {
+                    if ( i > 0 )
+                    {
+                        // All nodes on a level are of the same type
+                        return null;
+                    }
+                    // The level below the internal levels
+                    return builder.build( root, generation, changeCount );
+                }
+            }
+            if ( previousLevelStart != NOT_CACHED )
+            {
+                int firstChild = builder.keyStarts[previousLevelStart] + previousLevelStart;
+                for ( int i = 0; i < levelIds.length; i++ )
+                {
+                    builder.childNodes[firstChild + i] = levelStart + i;
+                }
+            }
+            int firstChild = builder.keyStarts[levelStart] + levelStart;
+            int lastChild = builder.keyTotal + builder.nodeCount;
+            levelIds = Arrays.copyOfRange( builder.childIds, firstChild, lastChild );
+            previousLevelStart = levelStart;
+        }
+        return builder.build( root, generation, changeCount );
+    }
+
+    /**
+     * Grows the arrays of a snapshot as tree nodes are read.
+     */
+    private class Builder
+    {
+        private final long stableGeneration;
+        private final long unstableGeneration;
+        private final GenerationKeeper generationKeeper = new GenerationKeeper();
+        private int nodeCount;
+        private int keyTotal;
+        private int[] keyStarts = new int[16];
+        private int[] keyCounts = new int[16];
+        private KEY[] keys = newKeys( 16 );
+        private long[] childIds = new long[16];
+        private long[] childGenerations = new long[16];
+        private int[] childNodes = new int[16];
+        private boolean lastWasLeaf;
+
+        Builder( long stableGeneration, long unstableGeneration )
+        {
+            this.stableGeneration = stableGeneration;
+            this.unstableGeneration = unstableGeneration;
+        }
+
+        /**
+         * Reads the tree node at {@code cursor} and adds it, unless it's a leaf.
+         *
+         * @return {@code false} if the node didn't look like a current tree node, otherwise {@code true}.
+         */
+        boolean readNode( PageCursor cursor ) throws IOException
+        {
+            boolean sane;
+            int keyCount;
+            do
+            {
+                sane = false;
+                keyCount = 0;
+                lastWasLeaf = false;
+                if ( TreeNode.nodeType( cursor ) != TreeNode.NODE_TYPE_TREE_NODE )
+                {
+                    continue;
+                }
+                lastWasLeaf = TreeNode.isLeaf( cursor );
+                keyCount = TreeNode.keyCount( cursor );
+                long successor = TreeNode.successor( cursor, stableGeneration, unstableGeneration );
+                if ( lastWasLeaf || !bTreeNode.reasonableKeyCount( keyCount ) ||
+                        !GenerationSafePointerPair.isSuccess( successor ) || TreeNode.isNode( successor ) )
+                {
+                    continue;
+                }
+                ensureCapacity( keyCount );
+                sane = true;
+                for ( int pos = 0; pos < keyCount; pos++ )
+                {
+                    if ( keys[keyTotal + pos] == null )
+                    {
+                        keys[keyTotal + pos] = layout.newKey();
+                    }
+                    bTreeNode.keyAt( cursor, keys[keyTotal + pos], pos, INTERNAL );
+                }
+                int firstChild = keyTotal + nodeCount;
+                for ( int pos = 0; pos <= keyCount; pos++ )
+                {
+                    long child = bTreeNode.childAt( cursor, pos, stableGeneration, unstableGeneration, generationKeeper );
+                    sane &= GenerationSafePointerPair.isSuccess( child );
+                    childIds[firstChild + pos] = GenerationSafePointerPair.pointer( child );
+                    childGenerations[firstChild + pos] = generationKeeper.generation;
+                    childNodes[firstChild + pos] = NOT_CACHED;
+                }
+            }
+            while ( cursor.shouldRetry() );
+            PageCursorUtil.checkOutOfBounds( cursor );
+            cursor.checkAndClearCursorException();
+
+            if ( lastWasLeaf )
+            {
+                return true;
+            }
+            if ( sane )
+            {
+                keyStarts[nodeCount] = keyTotal;
+                keyCounts[nodeCount] = keyCount;
+                nodeCount++;
+                keyTotal += keyCount;
+            }
+            return sane;
+        }
+
+        private void ensureCapacity( int keyCount )
+        {
+            if ( nodeCount + 1 > keyStarts.length )
+            {
+                keyStarts = Arrays.copyOf( keyStarts, keyStarts.length * 2 );
+                keyCounts = Arrays.copyOf( keyCounts, keyCounts.length * 2 );
+            }
+            int keyCapacity = keyTotal + keyCount;
+            if ( keyCapacity > keys.length )
+            {
+                keys = Arrays.copyOf( keys, Math.max( keyCapacity, keys.length * 2 ) );
+            }
+            int childCapacity = keyCapacity + nodeCount + 1;
+            if ( childCapacity > childIds.length )
+            {
+                int newLength = Math.max( childCapacity, childIds.length * 2 );
+                childIds = Arrays.copyOf( childIds, newLength );
+                childGenerations = Arrays.copyOf( childGenerations, newLength );
+                childNodes = Arrays.copyOf( childNodes, newLength );
+            }
+        }
+
+        Snapshot<KEY> build( Root root, long generation, long changeCount )
+        {
+            int childCount = keyTotal + nodeCount;
+            return new Snapshot<>( root.id(), generation, changeCount, nodeCount,
+                    Arrays.copyOf( keyStarts, nodeCount ), Arrays.copyOf( keyCounts, nodeCount ), Arrays.copyOf( keys, keyTotal ),
+                    Arrays.copyOf( childIds, childCount ), Arrays.copyOf( childGenerations, childCount ),
+                    Arrays.copyOf( childNodes, childCount ) );
+        }
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private static <KEY> KEY[] newKeys( int length )
+    {
+        return (KEY[]) new Object[length];
+    }
+
+    /**
+     * Internal levels as they looked when {@link #changeCount} ids had been acquired or released. Children of
+     * node {@code n} are found at {@code keyStarts[n] + n} and on, one more than there are keys in the node.
+     */
+    private static class Snapshot<KEY>
+    {
+        private final long rootId;
+        private final long generation;
+        private final long changeCount;
+        private final int nodeCount;
+        private final int[] keyStarts;
+        private final int[] keyCounts;
+        private final KEY[] keys;
+        private final long[] childIds;
+        private final long[] childGenerations;
+        /**
+         * Node number of each child, or {@link #NOT_CACHED} for children below the cached levels.
+         */
+        private final int[] childNodes;
+
+        Snapshot( long rootId, long generation, long changeCount, int nodeCount, int[] keyStarts, int[] keyCounts,
+                KEY[] keys, long[] childIds, long[] childGenerations, int[] childNodes )
+        {
+            this.rootId = rootId;
+            this.generation = generation;
+            this.changeCount = changeCount;
+            this.nodeCount = nodeCount;
+            this.keyStarts = keyStarts;
+            this.keyCounts = keyCounts;
+            this.keys = keys;
+            this.childIds = childIds;
+            this.childGenerations = childGenerations;
+            this.childNodes = childNodes;
+        }
+
+        boolean isValidFor( Root root, long generation, long changeCount )
+        {
+            return this.changeCount == changeCount && this.generation == generation && rootId == root.id();
+        }
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.apache.commons.lang3.mutable.MutableLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongPredicate;
+
+import org.neo4j.cursor.RawCursor;
+import org.neo4j.graphdb.config.Configuration;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
+import org.neo4j.memory.LocalMemoryTracker;
+import org.neo4j.scheduler.ThreadPoolJobScheduler;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier.EMPTY;
+
+@ExtendWith( TestDirectoryExtension.class )
+class GBPTreeCompactionTest
+{
+    private static final int NUMBER_OF_KEYS = 100_000;
+    private static final int COMPACTION_ROUNDS = 4;
+
+    @Inject
+    TestDirectory directory;
+    private PageCache pageCache;
+    private ThreadPoolJobScheduler jobScheduler;
+    private final SimpleLongLayout layout = SimpleLongLayout.longLayout().build();
+
+    @BeforeEach
+    void createPageCache()
+    {
+        SingleFilePageSwapperFactory factory = new SingleFilePageSwapperFactory();
+        factory.open( new DefaultFileSystemAbstraction(), Configuration.EMPTY );
+        MemoryAllocator mman = MemoryAllocator.createAllocator( "8 MiB", new LocalMemoryTracker() );
+        jobScheduler = new ThreadPoolJobScheduler();
+        pageCache = new MuninnPageCache( factory, mman, 256, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL, EMPTY, jobScheduler );
+    }
+
+    @AfterEach
+    void tearDownPageCache()
+    {
+        pageCache.close();
+        jobScheduler.close();
+    }
+
+    @Test
+    void shouldTruncateFileAfterRemovingMostEntries() throws IOException
+    {
+        File file = directory.file( "index" );
+        LongPredicate keep = i -> i < NUMBER_OF_KEYS / 20;
+        try ( GBPTree<MutableLong,MutableLong> tree = createTree( file ) )
+        {
+            // given
+            removeAllBut( tree, keep );
+            tree.checkpoint( IOLimiter.UNLIMITED );
+            long sizeBefore = file.length();
+
+            // when
+            compact( tree );
+
+            // then
+            assertTrue( file.length() < sizeBefore / 5, "Expected file of size " + sizeBefore + " to shrink, but was " + file.length() );
+            assertTrue( tree.consistencyCheck() );
+            assertEntries( tree, keep );
+        }
+    }
+
+    @Test
+    void shouldMergeSparseLeaves() throws IOException
+    {
+        File file = directory.file( "index" );
+        // Removing every other key leaves each leaf about half as full as before, which is not enough for removals
+        // to merge leaves, but two such leaves fit in one.
+        LongPredicate keep = i -> i % 2 == 0;
+        try ( GBPTree<MutableLong,MutableLong> tree = createTree( file ) )
+        {
+            // given
+            removeAllBut( tree, keep );
+            tree.checkpoint( IOLimiter.UNLIMITED );
+            long sizeBefore = file.length();
+
+            // when
+            compact( tree );
+
+            // then
+            assertTrue( file.length() < sizeBefore * 3 / 4, "Expected file of size " + sizeBefore + " to shrink, but was " + file.length() );
+            assertTrue( tree.consistencyCheck() );
+            assertEntries( tree, keep );
+        }
+    }
+
+    @Test
+    void shouldKeepTreeUsableAfterCompaction() throws IOException
+    {
+        File file = directory.file( "index" );
+        LongPredicate keep = i -> i % 10 == 0;
+        try ( GBPTree<MutableLong,MutableLong> tree = createTree( file ) )
+        {
+            removeAllBut( tree, keep );
+            compact( tree );
+
+            // when
+            try ( Writer<MutableLong,MutableLong> writer = tree.writer() )
+            {
+                for ( long i = 1; i < NUMBER_OF_KEYS; i += 10 )
+                {
+                    writer.put( layout.key( i ), layout.value( i ) );
+                }
+            }
+            tree.checkpoint( IOLimiter.UNLIMITED );
+        }
+
+        // then
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, file, layout ).build() )
+        {
+            assertTrue( tree.consistencyCheck() );
+            assertEntries( tree, i -> i % 10 <= 1 );
+        }
+    }
+
+    @Test
+    void shouldNotTruncateFileWhileSeekerOpenedBeforeCompactionIsOpen() throws IOException
+    {
+        File file = directory.file( "index" );
+        LongPredicate keep = i -> i < NUMBER_OF_KEYS / 20;
+        try ( GBPTree<MutableLong,MutableLong> tree = createTree( file ) )
+        {
+            // given
+            removeAllBut( tree, keep );
+            tree.checkpoint( IOLimiter.UNLIMITED );
+            long sizeBefore = file.length();
+            RawCursor<Hit<MutableLong,MutableLong>,IOException> seek = tree.seek( layout.key( 0 ), layout.key( Long.MAX_VALUE ) );
+
+            // when
+            compact( tree );
+            tree.checkpoint( IOLimiter.UNLIMITED );
+
+            // then
+            assertTrue( file.length() >= sizeBefore, "Expected file of size " + sizeBefore + " not to shrink, but was " + file.length() );
+
+            // and when
+            seek.close();
+            tree.checkpoint( IOLimiter.UNLIMITED );
+
+            // then
+            assertTrue( file.length() < sizeBefore / 5, "Expected file of size " + sizeBefore + " to shrink, but was " + file.length() );
+            assertTrue( tree.consistencyCheck() );
+            assertEntries( tree, keep );
+        }
+    }
+
+    @Test
+    void shouldCompactEmptyTree() throws IOException
+    {
+        File file = directory.file( "index" );
+        try ( GBPTree<MutableLong,MutableLong> tree = createTree( file ) )
+        {
+            removeAllBut( tree, i -> false );
+            compact( tree );
+
+            assertTrue( tree.consistencyCheck() );
+            assertEntries( tree, i -> false );
+        }
+    }
+
+    @Test
+    void shouldLeaveCheckpointingToTheCaller() throws IOException
+    {
+        File file = directory.file( "index" );
+        LongPredicate keep = i -> i < NUMBER_OF_KEYS / 20;
+        AtomicInteger checkpoints = new AtomicInteger();
+        GBPTree.Monitor monitor = new GBPTree.Monitor.Adaptor()
+        {
+            @Override
+            public void checkpointCompleted()
+            {
+                checkpoints.incrementAndGet();
+            }
+        };
+        try ( GBPTree<MutableLong,MutableLong> tree = createTree( new GBPTreeBuilder<>( pageCache, file, layout ).with( monitor ) ) )
+        {
+            // given
+            removeAllBut( tree, keep );
+            tree.checkpoint( IOLimiter.UNLIMITED );
+            long sizeBefore = file.length();
+
+            for ( int round = 0; round < COMPACTION_ROUNDS; round++ )
+            {
+                // when
+                int checkpointsBefore = checkpoints.get();
+                tree.compact();
+
+                // then
+                assertEquals( checkpointsBefore, checkpoints.get() );
+                assertEntries( tree, keep );
+                tree.checkpoint( IOLimiter.UNLIMITED );
+            }
+            assertTrue( file.length() < sizeBefore / 5, "Expected file of size " + sizeBefore + " to shrink, but was " + file.length() );
+            assertTrue( tree.consistencyCheck() );
+        }
+    }
+
+    /**
+     * Compacts the tree the way the database does, in a few rounds which each end with a checkpoint.
+     */
+    private static void compact( GBPTree<MutableLong,MutableLong> tree )
+    {
+        for ( int round = 0; round < COMPACTION_ROUNDS; round++ )
+        {
+            tree.compact();
+            tree.checkpoint( IOLimiter.UNLIMITED );
+        }
+    }
+
+    private GBPTree<MutableLong,MutableLong> createTree( File file ) throws IOException
+    {
+        return createTree( new GBPTreeBuilder<>( pageCache, file, layout ) );
+    }
+
+    private GBPTree<MutableLong,MutableLong> createTree( GBPTreeBuilder<MutableLong,MutableLong> builder ) throws IOException
+    {
+        GBPTree<MutableLong,MutableLong> tree = builder.build();
+        try ( Writer<MutableLong,MutableLong> writer = tree.writer() )
+        {
+            for ( int i = 0; i < NUMBER_OF_KEYS; i++ )
+            {
+                writer.put( layout.key( i ), layout.value( i ) );
+            }
+        }
+        tree.checkpoint( IOLimiter.UNLIMITED );
+        return tree;
+    }
+
+    private void removeAllBut( GBPTree<MutableLong,MutableLong> tree, LongPredicate keep ) throws IOException
+    {
+        try ( Writer<MutableLong,MutableLong> writer = tree.writer() )
+        {
+            for ( int i = 0; i < NUMBER_OF_KEYS; i++ )
+            {
+                if ( !keep.test( i ) )
+                {
+                    writer.remove( layout.key( i ) );
+                }
+            }
+        }
+    }
+
+    private void assertEntries( GBPTree<MutableLong,MutableLong> tree, LongPredicate expected ) throws IOException
+    {
+        long expectedKey = 0;
+        try ( RawCursor<Hit<MutableLong,MutableLong>,IOException> seek = tree.seek( layout.key( 0 ), layout.key( Long.MAX_VALUE ) ) )
+        {
+            while ( seek.next() )
+            {
+                while ( !expected.test( expectedKey ) )
+                {
+                    expectedKey++;
+                }
+                assertEquals( expectedKey, layout.keySeed( seek.get().key() ) );
+                assertEquals( expectedKey, layout.valueSeed( seek.get().value() ) );
+                expectedKey++;
+            }
+        }
+        while ( expectedKey < NUMBER_OF_KEYS )
+        {
+            assertFalse( expected.test( expectedKey ), "Expected key " + expectedKey + " to be found" );
+            expectedKey++;
+        }
+    }
+}
@@ -34,6 +34,7 @@ import org.neo4j.helpers.collection.Pair;
 import org.neo4j.test.Race;
 import org.neo4j.test.rule.concurrent.OtherThreadRule;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -47,12 +48,15 @@ public class GBPTreeLockTest
     // State UL - unlocked | locked
     // State LU - locked   | unlocked
     // State LL - locked   | locked
+    // State SS - shared writer and cleaner lock, held by any number of writers
 
     private final GBPTreeLock lock = new GBPTreeLock();
     private GBPTreeLock copy;
 
     @Rule
     public final OtherThreadRule<Void> executor = new OtherThreadRule<>();
+    @Rule
+    public final OtherThreadRule<Void> otherExecutor = new OtherThreadRule<>();
 
     @Test
     public void test_UU_UL_UU() throws Exception
@@ -128,6 +132,100 @@ public class GBPTreeLockTest
         assertUU();
     }
 
+    @Test
+    public void test_UU_SS_UU() throws Exception
+    {
+        // given
+        assertUU();
+
+        // then
+        lock.sharedWriterAndCleanerLock();
+        assertSS();
+
+        lock.sharedWriterAndCleanerUnlock();
+        assertUU();
+    }
+
+    @Test
+    public void test_UU_SS_SS_SS_UU() throws Exception
+    {
+        // given
+        assertUU();
+
+        // then
+        lock.sharedWriterAndCleanerLock();
+        lock.sharedWriterAndCleanerLock();
+        lock.sharedWriterAndCleanerUnlock();
+        assertSS();
+
+        lock.sharedWriterAndCleanerUnlock();
+        assertUU();
+    }
+
+    @Test
+    public void test_LU_SS_blocks() throws Exception
+    {
+        lock.writerLock();
+        copy = lock.copy();
+        assertBlock( copy::sharedWriterAndCleanerLock, copy::writerUnlock );
+    }
+
+    @Test
+    public void test_UL_SS_blocks() throws Exception
+    {
+        lock.cleanerLock();
+        copy = lock.copy();
+        assertBlock( copy::sharedWriterAndCleanerLock, copy::cleanerUnlock );
+    }
+
+    @Test
+    public void test_SS_waitingLU_blocks_SS() throws Exception
+    {
+        // given
+        lock.sharedWriterAndCleanerLock();
+        Future<Object> writer = executor.execute( state ->
+        {
+            lock.writerLock();
+            return null;
+        } );
+        executor.get().waitUntilWaiting( details -> details.isAt( GBPTreeLock.class, "doLock" ) );
+
+        // when
+        Future<Object> shared = otherExecutor.execute( state ->
+        {
+            lock.sharedWriterAndCleanerLock();
+            return null;
+        } );
+        otherExecutor.get().waitUntilWaiting( details -> details.isAt( GBPTreeLock.class, "sharedWriterAndCleanerLock" ) );
+        lock.sharedWriterAndCleanerUnlock();
+
+        // then the waiting writer gets the lock before the new shared locker
+        writer.get();
+        assertFalse( shared.isDone() );
+        lock.writerUnlock();
+        shared.get();
+        lock.sharedWriterAndCleanerUnlock();
+        assertUU();
+    }
+
+    @Test( timeout = 10_000 )
+    public void test_race_SSvsSS() throws Throwable
+    {
+        assertBothSucceeds( lock::sharedWriterAndCleanerLock, lock::sharedWriterAndCleanerLock );
+    }
+
+    @Test( timeout = 10_000 )
+    public void test_race_SSvsLU() throws Throwable
+    {
+        assertOnlyOneSucceeds( lock::sharedWriterAndCleanerLock, lock::writerLock );
+    }
+
+    @Test( timeout = 10_000 )
+    public void test_race_SSvsUL() throws Throwable
+    {
+        assertOnlyOneSucceeds( lock::sharedWriterAndCleanerLock, lock::cleanerLock );
+    }
+
     @Test( timeout = 10_000 )
     public void test_race_ULvsUL() throws Throwable
     {
@@ -269,7 +367,8 @@ public class GBPTreeLockTest
             runLock.run();
             return null;
         } );
-        executor.get().waitUntilWaiting( details -> details.isAt( GBPTreeLock.class, "doLock" ) );
+        executor.get().waitUntilWaiting( details -> details.isAt( GBPTreeLock.class, "doLock" ) ||
+                details.isAt( GBPTreeLock.class, "sharedWriterAndCleanerLock" ) );
         runUnlock.run();
         future.get();
     }
@@ -279,6 +378,18 @@ public class GBPTreeLockTest
         assertThrow( lock::writerUnlock );
         assertThrow( lock::cleanerUnlock );
         assertThrow( lock::writerAndCleanerUnlock );
+        assertThrow( lock::sharedWriterAndCleanerUnlock );
+    }
+
+    private void assertSS() throws Exception
+    {
+        assertThrow( lock::writerUnlock );
+        assertThrow( lock::cleanerUnlock );
+        assertThrow( lock::writerAndCleanerUnlock );
+        copy = lock.copy();
+        assertBlock( copy::writerLock, copy::sharedWriterAndCleanerUnlock );
+        copy = lock.copy();
+        assertBlock( copy::cleanerLock, copy::sharedWriterAndCleanerUnlock );
     }
 
     private void assertUL() throws Exception
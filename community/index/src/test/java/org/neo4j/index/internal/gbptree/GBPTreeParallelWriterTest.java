@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.apache.commons.lang3.mutable.MutableLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.neo4j.cursor.RawCursor;
+import org.neo4j.graphdb.config.Configuration;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
+import org.neo4j.memory.LocalMemoryTracker;
+import org.neo4j.scheduler.ThreadPoolJobScheduler;
+import org.neo4j.test.Race;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier.EMPTY;
+import static org.neo4j.test.Race.throwing;
+
+@ExtendWith( TestDirectoryExtension.class )
+class GBPTreeParallelWriterTest
+{
+    private static final int THREADS = 4;
+    private static final int KEYS_PER_THREAD = 5_000;
+    private static final int BATCH_SIZE = 100;
+
+    @Inject
+    TestDirectory directory;
+    private PageCache pageCache;
+    private ThreadPoolJobScheduler jobScheduler;
+
+    @BeforeEach
+    void createPageCache()
+    {
+        SingleFilePageSwapperFactory factory = new SingleFilePageSwapperFactory();
+        factory.open( new DefaultFileSystemAbstraction(), Configuration.EMPTY );
+        MemoryAllocator mman = MemoryAllocator.createAllocator( "8 MiB", new LocalMemoryTracker() );
+        jobScheduler = new ThreadPoolJobScheduler();
+        pageCache = new MuninnPageCache( factory, mman, 256, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL, EMPTY, jobScheduler );
+    }
+
+    @AfterEach
+    void tearDownPageCache()
+    {
+        pageCache.close();
+        jobScheduler.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource( strings = {"true", "false"} )
+    void shouldInsertAndRemoveConcurrently( boolean fixedSize ) throws Throwable
+    {
+        SimpleLongLayout layout = SimpleLongLayout.longLayout().withFixedSize( fixedSize ).build();
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            // when
+            Race race = new Race();
+            for ( int thread = 0; thread < THREADS; thread++ )
+            {
+                int offset = thread;
+                race.addContestant( throwing( () ->
+                {
+                    for ( int batch = 0; batch < KEYS_PER_THREAD; batch += BATCH_SIZE )
+                    {
+                        try ( Writer<MutableLong,MutableLong> writer = tree.parallelWriter() )
+                        {
+                            for ( int i = batch; i < batch + BATCH_SIZE; i++ )
+                            {
+                                long seed = (long) i * THREADS + offset;
+                                writer.put( layout.key( seed ), layout.value( seed ) );
+                            }
+                        }
+                    }
+                    for ( int batch = 0; batch < KEYS_PER_THREAD; batch += BATCH_SIZE )
+                    {
+                        try ( Writer<MutableLong,MutableLong> writer = tree.parallelWriter() )
+                        {
+                            for ( int i = batch; i < batch + BATCH_SIZE; i += 2 )
+                            {
+                                long seed = (long) i * THREADS + offset;
+                                assertEquals( seed, layout.valueSeed( writer.remove( layout.key( seed ) ) ) );
+                            }
+                        }
+                    }
+                } ) );
+            }
+            race.addContestant( throwing( () -> tree.checkpoint( IOLimiter.UNLIMITED ) ), 10 );
+            race.go();
+
+            // then
+            assertTrue( tree.consistencyCheck() );
+            long expectedSeed = 0;
+            try ( RawCursor<Hit<MutableLong,MutableLong>,IOException> seek =
+                    tree.seek( layout.key( 0 ), layout.key( Long.MAX_VALUE ) ) )
+            {
+                while ( seek.next() )
+                {
+                    while ( (expectedSeed / THREADS) % 2 == 0 )
+                    {
+                        expectedSeed++;
+                    }
+                    assertEquals( expectedSeed, layout.keySeed( seek.get().key() ) );
+                    assertEquals( expectedSeed, layout.valueSeed( seek.get().value() ) );
+                    expectedSeed++;
+                }
+            }
+            assertEquals( (long) THREADS * KEYS_PER_THREAD, expectedSeed );
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource( strings = {"true", "false"} )
+    void shouldMergeConcurrently( boolean fixedSize ) throws Throwable
+    {
+        SimpleLongLayout layout = SimpleLongLayout.longLayout().withFixedSize( fixedSize ).build();
+        ValueMerger<MutableLong,MutableLong> adding =
+                ( existingKey, newKey, existingValue, newValue ) -> new MutableLong( existingValue.longValue() + newValue.longValue() );
+        int keys = 1_000;
+        int rounds = 20;
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            // when
+            Race race = new Race();
+            race.addContestants( THREADS, throwing( () ->
+            {
+                for ( int round = 0; round < rounds; round++ )
+                {
+                    try ( Writer<MutableLong,MutableLong> writer = tree.parallelWriter() )
+                    {
+                        for ( int i = 0; i < keys; i++ )
+                        {
+                            writer.merge( layout.key( i ), new MutableLong( 1 ), adding );
+                        }
+                    }
+                }
+            } ) );
+            race.go();
+
+            // then
+            assertTrue( tree.consistencyCheck() );
+            int count = 0;
+            try ( RawCursor<Hit<MutableLong,MutableLong>,IOException> seek = tree.seek( layout.key( 0 ), layout.key( keys ) ) )
+            {
+                while ( seek.next() )
+                {
+                    assertEquals( count, layout.keySeed( seek.get().key() ) );
+                    assertEquals( THREADS * rounds, seek.get().value().longValue() );
+                    count++;
+                }
+            }
+            assertEquals( keys, count );
+        }
+    }
+
+    @Test
+    void shouldAllowMultipleParallelWritersAtTheSameTime() throws IOException
+    {
+        SimpleLongLayout layout = SimpleLongLayout.longLayout().build();
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            try ( Writer<MutableLong,MutableLong> first = tree.parallelWriter();
+                  Writer<MutableLong,MutableLong> second = tree.parallelWriter() )
+            {
+                first.put( layout.key( 1 ), layout.value( 1 ) );
+                second.put( layout.key( 2 ), layout.value( 2 ) );
+            }
+
+            try ( RawCursor<Hit<MutableLong,MutableLong>,IOException> seek = tree.seek( layout.key( 0 ), layout.key( 10 ) ) )
+            {
+                assertTrue( seek.next() );
+                assertEquals( 1, layout.keySeed( seek.get().key() ) );
+                assertTrue( seek.next() );
+                assertEquals( 2, layout.keySeed( seek.get().key() ) );
+                assertFalse( seek.next() );
+            }
+        }
+    }
+
+    @Test
+    void singleWriterShouldWaitForParallelWriters() throws Exception
+    {
+        SimpleLongLayout layout = SimpleLongLayout.longLayout().build();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            // given
+            Writer<MutableLong,MutableLong> parallelWriter = tree.parallelWriter();
+
+            // when
+            Future<Object> singleWriter = executor.submit( () ->
+            {
+                tree.writer().close();
+                return null;
+            } );
+
+            // then
+            assertThrows( TimeoutException.class, () -> singleWriter.get( 100, TimeUnit.MILLISECONDS ) );
+            parallelWriter.close();
+            singleWriter.get();
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void shouldNotCloseParallelWriterTwice() throws IOException
+    {
+        SimpleLongLayout layout = SimpleLongLayout.longLayout().build();
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            Writer<MutableLong,MutableLong> writer = tree.parallelWriter();
+            writer.close();
+            assertThrows( IllegalStateException.class, writer::close );
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.apache.commons.lang3.mutable.MutableLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.neo4j.cursor.RawCursor;
+import org.neo4j.graphdb.config.Configuration;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
+import org.neo4j.memory.LocalMemoryTracker;
+import org.neo4j.scheduler.ThreadPoolJobScheduler;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier.EMPTY;
+
+@ExtendWith( TestDirectoryExtension.class )
+class GBPTreePartitionedSeekTest
+{
+    @Inject
+    TestDirectory directory;
+    private PageCache pageCache;
+    private ThreadPoolJobScheduler jobScheduler;
+    private final SimpleLongLayout layout = SimpleLongLayout.longLayout().build();
+
+    @BeforeEach
+    void createPageCache()
+    {
+        SingleFilePageSwapperFactory factory = new SingleFilePageSwapperFactory();
+        factory.open( new DefaultFileSystemAbstraction(), Configuration.EMPTY );
+        MemoryAllocator mman = MemoryAllocator.createAllocator( "8 MiB", new LocalMemoryTracker() );
+        jobScheduler = new ThreadPoolJobScheduler();
+        pageCache = new MuninnPageCache( factory, mman, 256, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL, EMPTY, jobScheduler );
+    }
+
+    @AfterEach
+    void tearDownPageCache()
+    {
+        pageCache.close();
+        jobScheduler.close();
+    }
+
+    @Test
+    void shouldPartitionWholeTree() throws IOException
+    {
+        try ( GBPTree<MutableLong,MutableLong> tree = createTree( 100_000 ) )
+        {
+            for ( int desired : new int[]{1, 2, 4, 16, 64} )
+            {
+                // when
+                List<MutableLong> boundaries = tree.partitionRange( layout.key( 0 ), layout.key( Long.MAX_VALUE ), desired );
+
+                // then
+                assertEquals( desired + 1, boundaries.size() );
+                assertPartitionsCover( tree, boundaries, 0, 100_000 );
+            }
+        }
+    }
+
+    @Test
+    void shouldPartitionSubRange() throws IOException
+    {
+        try ( GBPTree<MutableLong,MutableLong> tree = createTree( 100_000 ) )
+        {
+            // when
+            List<MutableLong> boundaries = tree.partitionRange( layout.key( 20_000 ), layout.key( 30_000 ), 8 );
+
+            // then
+            assertEquals( 9, boundaries.size() );
+            assertPartitionsCover( tree, boundaries, 20_000, 30_000 );
+        }
+    }
+
+    @Test
+    void shouldReturnSinglePartitionWhenRangeIsInOneLeaf() throws IOException
+    {
+        try ( GBPTree<MutableLong,MutableLong> tree = createTree( 5 ) )
+        {
+            // given
+            MutableLong from = layout.key( 0 );
+            MutableLong to = layout.key( 10 );
+
+            // when
+            List<MutableLong> boundaries = tree.partitionRange( from, to, 4 );
+
+            // then
+            assertEquals( 2, boundaries.size() );
+            assertSame( from, boundaries.get( 0 ) );
+            assertSame( to, boundaries.get( 1 ) );
+            assertPartitionsCover( tree, boundaries, 0, 5 );
+        }
+    }
+
+    @Test
+    void shouldPartitionEmptyTree() throws IOException
+    {
+        try ( GBPTree<MutableLong,MutableLong> tree = createTree( 0 ) )
+        {
+            List<MutableLong> boundaries = tree.partitionRange( layout.key( 0 ), layout.key( 10 ), 4 );
+            assertEquals( 2, boundaries.size() );
+        }
+    }
+
+    @Test
+    void shouldNotPartitionDescendingRange() throws IOException
+    {
+        try ( GBPTree<MutableLong,MutableLong> tree = createTree( 10 ) )
+        {
+            assertThrows( IllegalArgumentException.class, () -> tree.partitionRange( layout.key( 10 ), layout.key( 0 ), 4 ) );
+            assertThrows( IllegalArgumentException.class, () -> tree.partitionRange( layout.key( 0 ), layout.key( 10 ), 0 ) );
+        }
+    }
+
+    private GBPTree<MutableLong,MutableLong> createTree( int numberOfKeys ) throws IOException
+    {
+        GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build();
+        try ( Writer<MutableLong,MutableLong> writer = tree.writer() )
+        {
+            for ( int i = 0; i < numberOfKeys; i++ )
+            {
+                writer.put( layout.key( i ), layout.value( i ) );
+            }
+        }
+        return tree;
+    }
+
+    private void assertPartitionsCover( GBPTree<MutableLong,MutableLong> tree, List<MutableLong> boundaries, long from, long to ) throws IOException
+    {
+        long expected = from;
+        for ( int i = 0; i < boundaries.size() - 1; i++ )
+        {
+            assertTrue( layout.compare( boundaries.get( i ), boundaries.get( i + 1 ) ) < 0 );
+            int count = 0;
+            try ( RawCursor<Hit<MutableLong,MutableLong>,IOException> seek = tree.seek( boundaries.get( i ), boundaries.get( i + 1 ) ) )
+            {
+                while ( seek.next() )
+                {
+                    assertEquals( expected++, layout.keySeed( seek.get().key() ) );
+                    count++;
+                }
+            }
+            if ( boundaries.size() > 2 )
+            {
+                assertTrue( count > 0, "Expected all partitions to have entries" );
+            }
+        }
+        assertEquals( to, expected );
+    }
+}
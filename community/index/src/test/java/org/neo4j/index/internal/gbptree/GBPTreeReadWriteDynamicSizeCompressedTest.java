@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.test.rule.PageCacheAndDependenciesRule;
+import org.neo4j.util.FeatureToggles;
+
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.index.internal.gbptree.TreeNodeSelector.COMPRESS_DYNAMIC_KEYS;
+
+public class GBPTreeReadWriteDynamicSizeCompressedTest extends GBPTreeReadWriteTestBase<RawBytes,RawBytes>
+{
+    @Rule
+    public final PageCacheAndDependenciesRule storage = new PageCacheAndDependenciesRule();
+
+    @Override
+    TestLayout<RawBytes,RawBytes> getLayout()
+    {
+        return new SimpleByteArrayLayout();
+    }
+
+    @Before
+    public void compressKeys()
+    {
+        FeatureToggles.set( TreeNodeSelector.class, COMPRESS_DYNAMIC_KEYS, true );
+    }
+
+    @After
+    public void clearCompressKeys()
+    {
+        FeatureToggles.clear( TreeNodeSelector.class, COMPRESS_DYNAMIC_KEYS );
+    }
+
+    @Test
+    public void shouldCreateSmallerTreeThanUncompressed() throws IOException
+    {
+        long compressedSize = sizeOfTreeWithSequentialKeys( storage.directory().file( "compressed" ) );
+        FeatureToggles.set( TreeNodeSelector.class, COMPRESS_DYNAMIC_KEYS, false );
+        long uncompressedSize = sizeOfTreeWithSequentialKeys( storage.directory().file( "uncompressed" ) );
+
+        assertTrue( "compressed " + compressedSize + " uncompressed " + uncompressedSize, compressedSize < uncompressedSize );
+    }
+
+    @Test
+    public void shouldOpenUncompressedTreeWhenCompressing() throws IOException
+    {
+        File file = storage.directory().file( "uncompressed" );
+        FeatureToggles.set( TreeNodeSelector.class, COMPRESS_DYNAMIC_KEYS, false );
+        sizeOfTreeWithSequentialKeys( file );
+
+        FeatureToggles.set( TreeNodeSelector.class, COMPRESS_DYNAMIC_KEYS, true );
+        try ( GBPTree<RawBytes,RawBytes> tree = new GBPTreeBuilder<>( storage.pageCache(), file, getLayout() ).build() )
+        {
+            assertTrue( tree.consistencyCheck() );
+        }
+    }
+
+    private long sizeOfTreeWithSequentialKeys( File file ) throws IOException
+    {
+        SimpleByteArrayLayout layout = new SimpleByteArrayLayout();
+        try ( GBPTree<RawBytes,RawBytes> tree = new GBPTreeBuilder<>( storage.pageCache(), file, layout ).build() )
+        {
+            try ( Writer<RawBytes,RawBytes> writer = tree.writer() )
+            {
+                for ( int i = 0; i < 10_000; i++ )
+                {
+                    writer.put( layout.key( i ), layout.value( i ) );
+                }
+            }
+            tree.checkpoint( IOLimiter.UNLIMITED );
+        }
+        return storage.fileSystem().getFileSize( file );
+    }
+}
@@ -164,6 +164,210 @@ public abstract class GBPTreeReadWriteTestBase<KEY,VALUE>
         }
     }
 
+    @Test
+    public void shouldSeeBulkLoadedEntries() throws Exception
+    {
+        // GIVEN
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            // WHEN
+            int count = 10_000;
+            double fillFactor = 0.5 + random.nextDouble() / 2;
+            try ( Writer<KEY,VALUE> writer = index.bulkWriter( fillFactor ) )
+            {
+                for ( int i = 0; i < count; i++ )
+                {
+                    writer.put( key( i * 2 ), value( i ) );
+                }
+            }
+
+            // THEN
+            assertSeek( index, count, 2 );
+            assertTrue( index.consistencyCheck() );
+
+            // and WHEN
+            try ( Writer<KEY,VALUE> writer = index.writer() )
+            {
+                for ( int i = 0; i < count; i++ )
+                {
+                    writer.put( key( i * 2 + 1 ), value( i ) );
+                }
+            }
+
+            // THEN
+            assertSeek( index, count * 2, 1 );
+            assertTrue( index.consistencyCheck() );
+        }
+    }
+
+    @Test
+    public void shouldBulkLoadIntoSmallerFileThanInsertingOneByOne() throws Exception
+    {
+        // GIVEN
+        int count = 10_000;
+        File insertedFile = deps.directory().file( "inserted" );
+        try ( GBPTree<KEY,VALUE> index = new GBPTreeBuilder<>( deps.pageCache(), insertedFile, layout ).build();
+              Writer<KEY,VALUE> writer = index.writer() )
+        {
+            for ( int i = 0; i < count; i++ )
+            {
+                writer.put( key( i ), value( i ) );
+            }
+        }
+
+        // WHEN
+        try ( GBPTree<KEY,VALUE> index = index();
+              Writer<KEY,VALUE> writer = index.bulkWriter( 1 ) )
+        {
+            for ( int i = 0; i < count; i++ )
+            {
+                writer.put( key( i ), value( i ) );
+            }
+        }
+
+        // THEN
+        long insertedSize = deps.fileSystem().getFileSize( insertedFile );
+        long bulkLoadedSize = deps.fileSystem().getFileSize( indexFile );
+        assertTrue( "Expected bulk loaded " + bulkLoadedSize + " to be smaller than inserted " + insertedSize,
+                bulkLoadedSize < insertedSize * 3 / 4 );
+    }
+
+    @Test
+    public void shouldMergeEqualKeysWhenBulkLoading() throws Exception
+    {
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            // WHEN
+            try ( Writer<KEY,VALUE> writer = index.bulkWriter( 1 ) )
+            {
+                writer.put( key( 1 ), value( 1 ) );
+                writer.put( key( 2 ), value( 2 ) );
+                writer.merge( key( 2 ), value( 3 ), ValueMergers.keepExisting() );
+                writer.put( key( 3 ), value( 3 ) );
+                writer.put( key( 3 ), value( 4 ) );
+            }
+
+            // THEN
+            try ( RawCursor<Hit<KEY,VALUE>,IOException> cursor = index.seek( key( 0 ), key( Long.MAX_VALUE ) ) )
+            {
+                assertHit( cursor, 1, 1 );
+                assertHit( cursor, 2, 2 );
+                assertHit( cursor, 3, 4 );
+                assertFalse( cursor.next() );
+            }
+        }
+    }
+
+    @Test
+    public void shouldNotBulkLoadKeysOutOfOrder() throws Exception
+    {
+        try ( GBPTree<KEY,VALUE> index = index();
+              Writer<KEY,VALUE> writer = index.bulkWriter( 1 ) )
+        {
+            writer.put( key( 2 ), value( 2 ) );
+            try
+            {
+                writer.put( key( 1 ), value( 1 ) );
+                fail( "Should have failed" );
+            }
+            catch ( IllegalArgumentException e )
+            {
+                // good
+            }
+        }
+    }
+
+    @Test
+    public void shouldDiscardBulkLoadedEntriesIfAddingOneFails() throws Exception
+    {
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            // GIVEN
+            int count = 10_000;
+            try ( Writer<KEY,VALUE> writer = index.bulkWriter( 1 ) )
+            {
+                for ( int i = 1; i <= count; i++ )
+                {
+                    writer.put( key( i ), value( i ) );
+                }
+
+                // WHEN
+                try
+                {
+                    writer.put( key( 0 ), value( 0 ) );
+                    fail( "Should have failed" );
+                }
+                catch ( IllegalArgumentException e )
+                {
+                    // good
+                }
+            }
+
+            // THEN
+            assertSeek( index, 0, 1 );
+            assertTrue( index.consistencyCheck() );
+
+            // and the tree should still be empty enough to bulk load into
+            try ( Writer<KEY,VALUE> writer = index.bulkWriter( 1 ) )
+            {
+                for ( int i = 0; i < count; i++ )
+                {
+                    writer.put( key( i ), value( i ) );
+                }
+            }
+            assertSeek( index, count, 1 );
+            assertTrue( index.consistencyCheck() );
+        }
+    }
+
+    @Test
+    public void shouldNotBulkLoadIntoNonEmptyTree() throws Exception
+    {
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            try ( Writer<KEY,VALUE> writer = index.writer() )
+            {
+                writer.put( key( 1 ), value( 1 ) );
+            }
+
+            try
+            {
+                index.bulkWriter( 1 );
+                fail( "Should have failed" );
+            }
+            catch ( IllegalStateException e )
+            {
+                // good
+            }
+
+            // and the writer should still be available
+            try ( Writer<KEY,VALUE> writer = index.writer() )
+            {
+                writer.put( key( 2 ), value( 2 ) );
+            }
+        }
+    }
+
+    private void assertSeek( GBPTree<KEY,VALUE> index, int count, int keySeedStep ) throws IOException
+    {
+        try ( RawCursor<Hit<KEY,VALUE>,IOException> cursor = index.seek( key( 0 ), key( Long.MAX_VALUE ) ) )
+        {
+            for ( int i = 0; i < count; i++ )
+            {
+                assertTrue( cursor.next() );
+                assertEqualsKey( key( i * keySeedStep ), cursor.get().key() );
+            }
+            assertFalse( cursor.next() );
+        }
+    }
+
+    private void assertHit( RawCursor<Hit<KEY,VALUE>,IOException> cursor, long keySeed, long valueSeed ) throws IOException
+    {
+        assertTrue( cursor.next() );
+        assertEqualsKey( key( keySeed ), cursor.get().key() );
+        assertEquals( 0, layout.compareValue( value( valueSeed ), cursor.get().value() ) );
+    }
+
     private GBPTree<KEY,VALUE> index() throws IOException
     {
         return new GBPTreeBuilder<>( deps.pageCache(), indexFile, layout ).build();
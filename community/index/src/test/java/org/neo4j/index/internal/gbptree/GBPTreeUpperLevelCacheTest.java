@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.apache.commons.lang3.mutable.MutableLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.neo4j.cursor.RawCursor;
+import org.neo4j.graphdb.config.Configuration;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.DefaultPageCursorTracerSupplier;
+import org.neo4j.memory.LocalMemoryTracker;
+import org.neo4j.scheduler.ThreadPoolJobScheduler;
+import org.neo4j.test.Race;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.util.FeatureToggles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier.EMPTY;
+import static org.neo4j.test.Race.throwing;
+
+@ExtendWith( TestDirectoryExtension.class )
+class GBPTreeUpperLevelCacheTest
+{
+    private static final int NUMBER_OF_KEYS = 50_000;
+    private static final int CACHED_LEVELS = 2;
+
+    @Inject
+    TestDirectory directory;
+    private PageCache pageCache;
+    private ThreadPoolJobScheduler jobScheduler;
+    private final SimpleLongLayout layout = SimpleLongLayout.longLayout().build();
+
+    @BeforeEach
+    void setUp()
+    {
+        SingleFilePageSwapperFactory factory = new SingleFilePageSwapperFactory();
+        factory.open( new DefaultFileSystemAbstraction(), Configuration.EMPTY );
+        MemoryAllocator mman = MemoryAllocator.createAllocator( "8 MiB", new LocalMemoryTracker() );
+        jobScheduler = new ThreadPoolJobScheduler();
+        pageCache = new MuninnPageCache( factory, mman, 256, PageCacheTracer.NULL, DefaultPageCursorTracerSupplier.INSTANCE, EMPTY,
+                jobScheduler );
+        FeatureToggles.set( UpperLevelCache.class, UpperLevelCache.LEVELS_NAME, CACHED_LEVELS );
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        FeatureToggles.clear( UpperLevelCache.class, UpperLevelCache.LEVELS_NAME );
+        pageCache.close();
+        jobScheduler.close();
+    }
+
+    @Test
+    void shouldPinFewerPagesWhenSeekingWithCachedLevels() throws IOException
+    {
+        // given
+        FeatureToggles.set( UpperLevelCache.class, UpperLevelCache.LEVELS_NAME, 0 );
+        long pinsWithoutCache;
+        try ( GBPTree<MutableLong,MutableLong> tree = createTree( directory.file( "uncached" ) ) )
+        {
+            tree.checkpoint( IOLimiter.UNLIMITED );
+
+            // when
+            pinsWithoutCache = pinsForExactSeeks( tree );
+        }
+        FeatureToggles.set( UpperLevelCache.class, UpperLevelCache.LEVELS_NAME, CACHED_LEVELS );
+        long pinsWithCache;
+        try ( GBPTree<MutableLong,MutableLong> tree = createTree( directory.file( "cached" ) ) )
+        {
+            tree.checkpoint( IOLimiter.UNLIMITED );
+
+            // when
+            pinsWithCache = pinsForExactSeeks( tree );
+        }
+
+        // then
+        assertTrue( pinsWithCache < pinsWithoutCache, "Expected fewer than " + pinsWithoutCache + " pins, but was " + pinsWithCache );
+    }
+
+    @Test
+    void shouldSeeChangesToTreeStructure() throws IOException
+    {
+        BitSet model = new BitSet();
+        try ( GBPTree<MutableLong,MutableLong> tree = createTree( directory.file( "index" ) ) )
+        {
+            model.set( 0, NUMBER_OF_KEYS );
+            for ( int round = 0; round < 4; round++ )
+            {
+                // when removing enough to merge tree nodes
+                try ( Writer<MutableLong,MutableLong> writer = tree.writer() )
+                {
+                    for ( int i = round; i < NUMBER_OF_KEYS; i++ )
+                    {
+                        if ( i % 4 != round )
+                        {
+                            writer.remove( layout.key( i ) );
+                            model.clear( i );
+                        }
+                    }
+                }
+                // then
+                assertExactSeeks( tree, model );
+
+                // when inserting enough to split tree nodes, from the other end of the tree
+                try ( Writer<MutableLong,MutableLong> writer = tree.writer() )
+                {
+                    for ( int i = NUMBER_OF_KEYS - 1; i >= 0; i -= 3 )
+                    {
+                        writer.put( layout.key( i ), layout.value( i ) );
+                        model.set( i );
+                    }
+                }
+                // then
+                assertExactSeeks( tree, model );
+                assertEntries( tree, model );
+                tree.checkpoint( IOLimiter.UNLIMITED );
+                assertExactSeeks( tree, model );
+            }
+            assertTrue( tree.consistencyCheck() );
+        }
+    }
+
+    @Test
+    void shouldFindStableKeysWhileTreeChangesConcurrently() throws Throwable
+    {
+        // given
+        try ( GBPTree<MutableLong,MutableLong> tree = createTree( directory.file( "index" ) ) )
+        {
+            try ( Writer<MutableLong,MutableLong> writer = tree.writer() )
+            {
+                for ( int i = 1; i < NUMBER_OF_KEYS; i += 2 )
+                {
+                    writer.remove( layout.key( i ) );
+                }
+            }
+
+            // when
+            AtomicBoolean done = new AtomicBoolean();
+            Race race = new Race();
+            race.addContestant( throwing( () ->
+            {
+                try
+                {
+                    for ( int round = 0; round < 4; round++ )
+                    {
+                        try ( Writer<MutableLong,MutableLong> writer = tree.writer() )
+                        {
+                            for ( int i = 1; i < NUMBER_OF_KEYS; i += 2 )
+                            {
+                                writer.put( layout.key( i ), layout.value( i ) );
+                            }
+                        }
+                        try ( Writer<MutableLong,MutableLong> writer = tree.writer() )
+                        {
+                            for ( int i = 1; i < NUMBER_OF_KEYS; i += 2 )
+                            {
+                                writer.remove( layout.key( i ) );
+                            }
+                        }
+                        tree.checkpoint( IOLimiter.UNLIMITED );
+                    }
+                }
+                finally
+                {
+                    done.set( true );
+                }
+            } ) );
+            race.addContestants( 2, throwing( () ->
+            {
+                long seed = 0;
+                while ( !done.get() )
+                {
+                    seed = (seed + 997 * 2) % NUMBER_OF_KEYS;
+                    assertFound( tree, seed );
+                }
+            } ) );
+            race.go();
+
+            // then
+            assertTrue( tree.consistencyCheck() );
+        }
+    }
+
+    private GBPTree<MutableLong,MutableLong> createTree( File file ) throws IOException
+    {
+        GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, file, layout ).build();
+        try ( Writer<MutableLong,MutableLong> writer = tree.writer() )
+        {
+            for ( int i = 0; i < NUMBER_OF_KEYS; i++ )
+            {
+                writer.put( layout.key( i ), layout.value( i ) );
+            }
+        }
+        return tree;
+    }
+
+    private long pinsForExactSeeks( GBPTree<MutableLong,MutableLong> tree ) throws IOException
+    {
+        // The first seeks find the cache empty, later seeks use what they put there
+        assertFound( tree, 0 );
+        assertFound( tree, 0 );
+        long pinsBefore = DefaultPageCursorTracerSupplier.INSTANCE.get().pins();
+        for ( int i = 0; i < NUMBER_OF_KEYS; i += 7 )
+        {
+            assertFound( tree, i );
+        }
+        return DefaultPageCursorTracerSupplier.INSTANCE.get().pins() - pinsBefore;
+    }
+
+    private void assertFound( GBPTree<MutableLong,MutableLong> tree, long seed ) throws IOException
+    {
+        try ( RawCursor<Hit<MutableLong,MutableLong>,IOException> seek = tree.seek( layout.key( seed ), layout.key( seed + 1 ) ) )
+        {
+            assertTrue( seek.next(), "Expected to find key " + seed );
+            assertEquals( seed, layout.keySeed( seek.get().key() ) );
+            assertEquals( seed, layout.valueSeed( seek.get().value() ) );
+            assertFalse( seek.next() );
+        }
+    }
+
+    private void assertExactSeeks( GBPTree<MutableLong,MutableLong> tree, BitSet model ) throws IOException
+    {
+        for ( int i = 0; i < NUMBER_OF_KEYS; i++ )
+        {
+            try ( RawCursor<Hit<MutableLong,MutableLong>,IOException> seek = tree.seek( layout.key( i ), layout.key( i + 1 ) ) )
+            {
+                assertEquals( model.get( i ), seek.next(), "Unexpected result of seek for key " + i );
+            }
+        }
+    }
+
+    private void assertEntries( GBPTree<MutableLong,MutableLong> tree, BitSet model ) throws IOException
+    {
+        int expectedKey = model.nextSetBit( 0 );
+        try ( RawCursor<Hit<MutableLong,MutableLong>,IOException> seek = tree.seek( layout.key( 0 ), layout.key( Long.MAX_VALUE ) ) )
+        {
+            while ( seek.next() )
+            {
+                assertEquals( expectedKey, layout.keySeed( seek.get().key() ) );
+                expectedKey = model.nextSetBit( expectedKey + 1 );
+            }
+        }
+        assertEquals( -1, expectedKey );
+    }
+}
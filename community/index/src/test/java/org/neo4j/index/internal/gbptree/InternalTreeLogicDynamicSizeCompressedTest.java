@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.LEAF;
+
+public class InternalTreeLogicDynamicSizeCompressedTest extends InternalTreeLogicDynamicSizeTest
+{
+    @Override
+    protected TreeNode<RawBytes,RawBytes> getTreeNode( int pageSize, Layout<RawBytes,RawBytes> layout )
+    {
+        return new TreeNodeDynamicSizeCompressed<>( pageSize, layout );
+    }
+
+    @Override
+    RawBytes overwritingValue( long seed )
+    {
+        // Leaves shrink when picking a new reference right after a split, so an overwrite with a value of a different size
+        // could make the leaf underflow and rebalance. Keep the size, which only depends on the seed modulo Long.BYTES.
+        return value( seed + Long.BYTES * 11 );
+    }
+
+    @Override
+    @Test
+    public void splitWithSplitRatio0() throws IOException
+    {
+        // Both leaves pick a new reference right after a split, which can free up room for keys that the split ratio
+        // made the split move to the other leaf. So instead of checking that nothing more fits in the other leaf,
+        // check that all entries survived the split, in order, and that most of them went to the right.
+        List<RawBytes> inserted = insertUntilRootSplit( 0 );
+
+        long left = childOfRoot( 0 );
+        long right = childOfRoot( 1 );
+        assertAllKeysInOrder( inserted, left, right );
+        assertTrue( keyCount( left ) < keyCount( right ) );
+    }
+
+    @Override
+    @Test
+    public void splitWithSplitRatio1() throws IOException
+    {
+        // See splitWithSplitRatio0
+        List<RawBytes> inserted = insertUntilRootSplit( 1 );
+
+        long left = childOfRoot( 0 );
+        long right = childOfRoot( 1 );
+        assertAllKeysInOrder( inserted, left, right );
+        assertTrue( keyCount( left ) > keyCount( right ) );
+    }
+
+    private List<RawBytes> insertUntilRootSplit( double ratioToKeepInLeftOnSplit ) throws IOException
+    {
+        this.ratioToKeepInLeftOnSplit = ratioToKeepInLeftOnSplit;
+        initialize();
+        List<RawBytes> inserted = new ArrayList<>();
+        while ( numberOfRootSplits == 0 )
+        {
+            RawBytes key = key( random.nextLong() );
+            insert( key, value( random.nextLong() ) );
+            inserted.add( key );
+        }
+        assertEquals( 1, numberOfRootSplits );
+        inserted.sort( layout );
+        return inserted;
+    }
+
+    private void assertAllKeysInOrder( List<RawBytes> expected, long left, long right ) throws IOException
+    {
+        List<RawBytes> actual = new ArrayList<>();
+        for ( long leaf : new long[]{left, right} )
+        {
+            int keyCount = keyCount( leaf );
+            for ( int pos = 0; pos < keyCount; pos++ )
+            {
+                actual.add( keyAt( leaf, pos, LEAF ) );
+            }
+        }
+        assertEquals( expected.size(), actual.size() );
+        for ( int i = 0; i < expected.size(); i++ )
+        {
+            assertEquals( 0, layout.compare( expected.get( i ), actual.get( i ) ) );
+        }
+    }
+}
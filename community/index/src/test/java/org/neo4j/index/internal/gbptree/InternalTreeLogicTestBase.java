@@ -76,7 +76,7 @@ public abstract class InternalTreeLogicTestBase<KEY,VALUE>
 
     private static long stableGeneration = GenerationSafePointer.MIN_GENERATION;
     private static long unstableGeneration = stableGeneration + 1;
-    private double ratioToKeepInLeftOnSplit = InternalTreeLogic.DEFAULT_SPLIT_RATIO;
+    double ratioToKeepInLeftOnSplit = InternalTreeLogic.DEFAULT_SPLIT_RATIO;
 
     @Parameterized.Parameters( name = "{0}" )
     public static Collection<Object[]> generators()
@@ -1245,7 +1245,7 @@ public abstract class InternalTreeLogicTestBase<KEY,VALUE>
         long middle = i / 2;
         KEY middleKey = key( middle ); // Should be located in middle leaf
         VALUE oldValue = value( middle );
-        VALUE newValue = value( middle * 11 );
+        VALUE newValue = overwritingValue( middle );
         insert( middleKey, newValue );
 
         // THEN
@@ -1657,7 +1657,22 @@ public abstract class InternalTreeLogicTestBase<KEY,VALUE>
         return keys;
     }
 
-    private int keyCount( long nodeId ) throws IOException
+    /**
+     * @return value to overwrite the value of the key with the given seed with in tests that expect the overwrite to not change
+     * the structure of the tree.
+     */
+    VALUE overwritingValue( long seed )
+    {
+        return value( seed * 11 );
+    }
+
+    long childOfRoot( int pos ) throws IOException
+    {
+        root.goTo( readCursor );
+        return childAt( readCursor, pos, stableGeneration, unstableGeneration );
+    }
+
+    int keyCount( long nodeId ) throws IOException
     {
         long prevId = readCursor.getCurrentPageId();
         try
@@ -74,6 +74,9 @@ abstract class SeekCursorTestBase<KEY, VALUE>
     private static final Consumer<Throwable> exceptionDecorator = t ->
     {
     };
+    private static final Runnable noCloseAction = () ->
+    {
+    };
 
     @Inject
     private RandomRule random;
@@ -1314,7 +1317,7 @@ abstract class SeekCursorTestBase<KEY, VALUE>
         // WHEN
         try ( SeekCursor<KEY,VALUE> cursor = new SeekCursor<>( this.cursor,
                 node, from, to, layout, stableGeneration, unstableGeneration, () -> 0L, failingRootCatchup,
-                unstableGeneration, exceptionDecorator, 1 ) )
+                unstableGeneration, exceptionDecorator, 1, noCloseAction ) )
         {
             // reading a couple of keys
             assertTrue( cursor.next() );
@@ -1961,7 +1964,7 @@ abstract class SeekCursorTestBase<KEY, VALUE>
         //noinspection EmptyTryBlock
         try ( SeekCursor<KEY,VALUE> ignored = new SeekCursor<>( cursor, node, key( 0 ), key( 1 ), layout,
                 stableGeneration, unstableGeneration, generationSupplier, rootCatchup, generation - 1,
-                exceptionDecorator, 1 ) )
+                exceptionDecorator, 1, noCloseAction ) )
         {
             // do nothing
         }
@@ -2012,7 +2015,7 @@ abstract class SeekCursorTestBase<KEY, VALUE>
         //noinspection EmptyTryBlock
         try ( SeekCursor<KEY,VALUE> ignored = new SeekCursor<>( cursor, node, from, to, layout,
                 stableGeneration, unstableGeneration, generationSupplier, rootCatchup, unstableGeneration,
-                exceptionDecorator, 1 ) )
+                exceptionDecorator, 1, noCloseAction ) )
         {
             // do nothing
         }
@@ -2061,7 +2064,7 @@ abstract class SeekCursorTestBase<KEY, VALUE>
         KEY to = key( 20L );
         try ( SeekCursor<KEY,VALUE> seek = new SeekCursor<>( cursor, node, from, to, layout,
                 stableGeneration - 1, unstableGeneration - 1, generationSupplier, rootCatchup, unstableGeneration,
-                exceptionDecorator, 1 ) )
+                exceptionDecorator, 1, noCloseAction ) )
         {
             while ( seek.next() )
             {
@@ -2289,7 +2292,7 @@ abstract class SeekCursorTestBase<KEY, VALUE>
             PageCursor pageCursor, long stableGeneration, long unstableGeneration, RootCatchup rootCatchup ) throws IOException
     {
         return new SeekCursor<>( pageCursor, node, key( fromInclusive ), key( toExclusive ), layout, stableGeneration, unstableGeneration,
-                generationSupplier, rootCatchup, unstableGeneration , exceptionDecorator, random.nextInt( 1, DEFAULT_MAX_READ_AHEAD ) );
+                generationSupplier, rootCatchup, unstableGeneration , exceptionDecorator, random.nextInt( 1, DEFAULT_MAX_READ_AHEAD ), noCloseAction );
     }
 
     /**
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import org.neo4j.io.pagecache.PageCursor;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.index.internal.gbptree.TreeNode.Overflow.YES;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.LEAF;
+
+public class TreeNodeDynamicSizeCompressedTest extends TreeNodeTestBase<RawBytes,RawBytes>
+{
+    private SimpleByteArrayLayout layout = new SimpleByteArrayLayout();
+
+    @Override
+    protected TestLayout<RawBytes,RawBytes> getLayout()
+    {
+        return layout;
+    }
+
+    @Override
+    protected TreeNodeDynamicSizeCompressed<RawBytes,RawBytes> getNode( int pageSize, Layout<RawBytes,RawBytes> layout )
+    {
+        return new TreeNodeDynamicSizeCompressed<>( pageSize, layout );
+    }
+
+    @Override
+    void assertAdditionalHeader( PageCursor cursor, TreeNode<RawBytes,RawBytes> node, int pageSize )
+    {
+        // When
+        int currentAllocSpace = ((TreeNodeDynamicSize) node).getAllocOffset( cursor );
+
+        // Then
+        if ( TreeNode.isLeaf( cursor ) )
+        {
+            assertTrue( currentAllocSpace < pageSize, "allocSpace point to empty reference at end of page" );
+        }
+        else
+        {
+            assertEquals( pageSize, currentAllocSpace, "allocSpace point to end of page" );
+        }
+    }
+
+    @Test
+    void shouldFitMoreKeysSharingBytesThanUncompressed()
+    {
+        int uncompressed = keysFittingInLeaf( new TreeNodeDynamicSize<>( PAGE_SIZE, layout ) );
+        int compressed = keysFittingInLeaf( getNode( PAGE_SIZE, layout ) );
+
+        assertTrue( compressed > uncompressed, "compressed " + compressed + " uncompressed " + uncompressed );
+    }
+
+    @Test
+    void shouldReadBackKeysWithRandomBytesInCommonWithReference()
+    {
+        TreeNode<RawBytes,RawBytes> node = getNode( PAGE_SIZE, layout );
+        node.initializeLeaf( cursor, STABLE_GENERATION, UNSTABLE_GENERATION );
+        byte[] reference = randomBytes( 20 );
+        RawBytes value = layout.value( 0 );
+
+        int keyCount = 0;
+        byte[][] inserted = new byte[100][];
+        RawBytes key = layout.newKey();
+        key.bytes = reference;
+        while ( keyCount < inserted.length && node.leafOverflow( cursor, keyCount, key, value ) != YES )
+        {
+            node.insertKeyValueAt( cursor, key, value, keyCount, keyCount );
+            inserted[keyCount++] = key.bytes;
+            TreeNode.setKeyCount( cursor, keyCount );
+
+            // Next key randomly mixes bytes from reference and random bytes, with random length
+            key = layout.newKey();
+            key.bytes = randomBytes( random.nextInt( 1, reference.length * 2 ) );
+            for ( int i = 0; i < key.bytes.length && i < reference.length; i++ )
+            {
+                if ( random.nextBoolean() )
+                {
+                    key.bytes[i] = reference[i];
+                }
+            }
+        }
+
+        RawBytes readKey = layout.newKey();
+        for ( int pos = 0; pos < keyCount; pos++ )
+        {
+            node.keyAt( cursor, readKey, pos, LEAF );
+            assertArrayEquals( inserted[pos], readKey.bytes );
+        }
+    }
+
+    @Test
+    void shouldNotGrowEncodedKeyBeyondBound()
+    {
+        byte[] encoded = new byte[1000];
+        for ( int round = 0; round < 1000; round++ )
+        {
+            byte[] reference = randomBytes( random.nextInt( 0, 128 ) );
+            byte[] key = randomBytes( random.nextInt( 0, 600 ) );
+            for ( int i = 0; i < key.length && i < reference.length; i++ )
+            {
+                if ( random.nextInt( 4 ) != 0 )
+                {
+                    key[i] = reference[i];
+                }
+            }
+
+            int encodedSize = TreeNodeDynamicSizeCompressed.encode( key, key.length, reference, reference.length, encoded );
+
+            int bound = key.length + 2 + 2 * (key.length / 255);
+            assertTrue( encodedSize <= bound, "Encoded " + Arrays.toString( key ) + " into " + encodedSize + " bytes, bound " + bound );
+        }
+    }
+
+    private int keysFittingInLeaf( TreeNode<RawBytes,RawBytes> node )
+    {
+        cursor.zapPage();
+        node.initializeLeaf( cursor, STABLE_GENERATION, UNSTABLE_GENERATION );
+        int keyCount = 0;
+        RawBytes key = layout.key( keyCount );
+        RawBytes value = layout.value( 0 );
+        while ( node.leafOverflow( cursor, keyCount, key, value ) != YES )
+        {
+            node.insertKeyValueAt( cursor, key, value, keyCount, keyCount );
+            keyCount++;
+            TreeNode.setKeyCount( cursor, keyCount );
+            key = layout.key( keyCount );
+        }
+        return keyCount;
+    }
+
+    private byte[] randomBytes( int length )
+    {
+        byte[] bytes = new byte[length];
+        random.nextBytes( bytes );
+        return bytes;
+    }
+}
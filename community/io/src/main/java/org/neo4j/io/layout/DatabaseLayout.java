@@ -100,6 +100,11 @@ public class DatabaseLayout
         return file( DatabaseFile.LABEL_SCAN_STORE.getName() );
     }
 
+    public File relationshipTypeScanStore()
+    {
+        return file( DatabaseFile.RELATIONSHIP_TYPE_SCAN_STORE.getName() );
+    }
+
     public File countStoreA()
     {
         return file( DatabaseFile.COUNTS_STORE_A.getName() );
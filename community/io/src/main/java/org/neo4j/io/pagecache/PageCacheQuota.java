@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache;
+
+import java.io.File;
+import java.nio.file.OpenOption;
+
+/**
+ * An {@link OpenOption} for {@link PageCache#map(File, int, OpenOption...)} that gives the mapped file a share of the
+ * page cache memory.
+ * <p>
+ * The <em>reserved</em> ratio is the fraction of the page cache that the file is guaranteed to keep: as long as the
+ * file has no more pages in memory than that, eviction will leave its pages alone. The <em>maximum</em> ratio is the
+ * fraction of the page cache that the file can occupy before its pages become the preferred eviction victims. The
+ * maximum is a soft limit; the file can grow beyond it for as long as the page cache has free memory to spare.
+ * <p>
+ * If a file that is already mapped is mapped again with a quota, then the new quota replaces the old one.
+ */
+public final class PageCacheQuota implements OpenOption
+{
+    private final double reservedRatio;
+    private final double maximumRatio;
+
+    private PageCacheQuota( double reservedRatio, double maximumRatio )
+    {
+        if ( !(0.0 <= reservedRatio && reservedRatio <= maximumRatio && maximumRatio <= 1.0) )
+        {
+            throw new IllegalArgumentException( "Invalid page cache quota: reserved ratio " + reservedRatio +
+                    " and maximum ratio " + maximumRatio + " must satisfy 0 <= reserved <= maximum <= 1." );
+        }
+        this.reservedRatio = reservedRatio;
+        this.maximumRatio = maximumRatio;
+    }
+
+    /**
+     * @param reservedRatio the fraction of the page cache that is reserved for the file.
+     * @param maximumRatio the fraction of the page cache that the file can use before it is preferred for eviction.
+     * @return a quota with the given reserved and maximum ratios.
+     */
+    public static PageCacheQuota quota( double reservedRatio, double maximumRatio )
+    {
+        return new PageCacheQuota( reservedRatio, maximumRatio );
+    }
+
+    /**
+     * @param reservedRatio the fraction of the page cache that is reserved for the file.
+     * @return a quota that reserves the given fraction of the page cache, and has no upper limit.
+     */
+    public static PageCacheQuota reserve( double reservedRatio )
+    {
+        return new PageCacheQuota( reservedRatio, 1.0 );
+    }
+
+    /**
+     * @param maximumRatio the fraction of the page cache that the file can use before it is preferred for eviction.
+     * @return a quota with no reservation, that limits the file to the given fraction of the page cache.
+     */
+    public static PageCacheQuota limit( double maximumRatio )
+    {
+        return new PageCacheQuota( 0.0, maximumRatio );
+    }
+
+    public double reservedRatio()
+    {
+        return reservedRatio;
+    }
+
+    public double maximumRatio()
+    {
+        return maximumRatio;
+    }
+
+    @Override
+    public boolean equals( Object o )
+    {
+        if ( this == o )
+        {
+            return true;
+        }
+        if ( o == null || getClass() != o.getClass() )
+        {
+            return false;
+        }
+        PageCacheQuota that = (PageCacheQuota) o;
+        return Double.compare( that.reservedRatio, reservedRatio ) == 0 &&
+               Double.compare( that.maximumRatio, maximumRatio ) == 0;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return 31 * Double.hashCode( reservedRatio ) + Double.hashCode( maximumRatio );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PageCacheQuota[reserved=" + reservedRatio + ", maximum=" + maximumRatio + "]";
+    }
+}
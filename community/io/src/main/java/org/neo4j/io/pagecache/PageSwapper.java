@@ -147,4 +147,12 @@ public interface PageSwapper
      * the file with any zero padding and the written data.
      */
     void truncate() throws IOException;
+
+    /**
+     * Truncate the file represented by this PageSwapper, so that only the given number of pages remain and
+     * {@link #getLastPageId()} returns {@code pagesToKeep - 1}. Nothing happens if the file is not bigger than that.
+     * <p>
+     * The same rules for concurrent writes apply as for {@link #truncate()}.
+     */
+    void truncate( long pagesToKeep ) throws IOException;
 }
@@ -63,8 +63,13 @@ public interface PagedFile extends AutoCloseable
     int PF_NO_GROW = 1 << 2;
     /**
      * Read-ahead hint for sequential forward scanning.
+     * <p>
+     * When a read cursor with this flag has to fault in a page, it will also fault in a number of the following
+     * pages with the same vectored read, as long as they are not already in memory. The pages that are read ahead
+     * are not promoted by the eviction policy until they are actually pinned. This flag has no effect on write
+     * cursors.
      */
-    int PF_READ_AHEAD = 1 << 3; // TBD
+    int PF_READ_AHEAD = 1 << 3;
     /**
      * Do not load in the page if it is not loaded already. The methods {@link PageCursor#next()} and
      * {@link PageCursor#next(long)} will always return {@code true} for pages that are within the range of the file,
@@ -77,8 +82,12 @@ public interface PagedFile extends AutoCloseable
     int PF_NO_FAULT = 1 << 4;
     /**
      * Do not update page access statistics.
+     * <p>
+     * This is a hint for sequential or one-off bulk accesses, such as full store scans, consistency checks and
+     * backups. Pages that are faulted in by such cursors are not promoted, and are therefore among the first to be
+     * evicted, instead of pushing the frequently used pages out of the cache.
      */
-    int PF_TRANSIENT = 1 << 5; // TBD
+    int PF_TRANSIENT = 1 << 5;
     /**
      * Flush pages more aggressively, after they have been dirtied by a write cursor.
      */
@@ -177,6 +186,29 @@ public interface PagedFile extends AutoCloseable
      */
     long getLastPageId() throws IOException;
 
+    /**
+     * Truncate the file so that only the given number of pages remain, returning the space of the pages after
+     * them to the file system. Pages after the new end of the file are dropped from the page cache, without
+     * being written, even if they are dirty. Nothing happens if the file is not bigger than that already.
+     * <p>
+     * The caller must make sure that no one reads or writes the truncated pages concurrently with this call,
+     * or writes them before the file has been truncated. Accessing them afterwards extends the file again,
+     * just like for any other page beyond the end of the file. Pages that are still pinned by a cursor are waited
+     * for, up to a timeout.
+     *
+     * @param pagesToKeep number of pages, from the start of the file, to keep.
+     * @throws IOException if the file could not be truncated, or if a page beyond the new end of the file stayed
+     * pinned for too long.
+     */
+    void truncate( long pagesToKeep ) throws IOException;
+
+    /**
+     * Get the number of pages of this file that are currently held in the page cache.
+     * <p>
+     * The number is a racy snapshot, since pages can be faulted in and evicted concurrently.
+     */
+    long residentPages();
+
     /**
      * Release a handle to a paged file.
      * <p>
@@ -788,15 +788,25 @@ public class SingleFilePageSwapper implements PageSwapper
     @Override
     public void truncate() throws IOException
     {
-        truncateAndRetryIfInterrupted( MAX_INTERRUPTED_CHANNEL_REOPEN_ATTEMPTS );
+        truncateAndRetryIfInterrupted( 0, MAX_INTERRUPTED_CHANNEL_REOPEN_ATTEMPTS );
     }
 
-    private void truncateAndRetryIfInterrupted( int attemptsLeft ) throws IOException
+    @Override
+    public void truncate( long pagesToKeep ) throws IOException
+    {
+        long size = pagesToKeep * filePageSize;
+        if ( size < getCurrentFileSize() )
+        {
+            truncateAndRetryIfInterrupted( size, MAX_INTERRUPTED_CHANNEL_REOPEN_ATTEMPTS );
+        }
+    }
+
+    private void truncateAndRetryIfInterrupted( long size, int attemptsLeft ) throws IOException
     {
-        setCurrentFileSize( 0 );
+        setCurrentFileSize( size );
         try
         {
-            channel( tokenFilePageId ).truncate( 0 );
+            channel( tokenFilePageId ).truncate( size );
         }
         catch ( ClosedChannelException e )
         {
@@ -808,7 +818,7 @@ public class SingleFilePageSwapper implements PageSwapper
             }
 
             boolean interrupted = Thread.interrupted();
-            truncateAndRetryIfInterrupted( attemptsLeft - 1 );
+            truncateAndRetryIfInterrupted( size, attemptsLeft - 1 );
             if ( interrupted )
             {
                 Thread.currentThread().interrupt();
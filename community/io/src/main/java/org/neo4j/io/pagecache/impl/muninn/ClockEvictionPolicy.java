@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+/**
+ * The classic clock eviction policy, where the clock hand decrements the usage counter of every page it passes, and
+ * tries to evict the pages whose counters reach zero.
+ */
+final class ClockEvictionPolicy implements EvictionPolicy
+{
+    private final PageList pages;
+
+    ClockEvictionPolicy( PageList pages )
+    {
+        this.pages = pages;
+    }
+
+    @Override
+    public boolean shouldEvict( long pageRef )
+    {
+        return pages.decrementUsage( pageRef );
+    }
+
+    @Override
+    public void faulted( long pageRef, int swapperId, long filePageId )
+    {
+    }
+
+    @Override
+    public void evicted( int swapperId, long filePageId )
+    {
+    }
+}
@@ -0,0 +1,342 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.util.Native;
+import org.eclipse.collections.api.block.predicate.primitive.LongPredicate;
+import org.eclipse.collections.api.list.primitive.MutableLongList;
+import org.eclipse.collections.api.map.primitive.MutableLongLongMap;
+import org.eclipse.collections.api.set.primitive.IntSet;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+import org.eclipse.collections.impl.map.mutable.primitive.LongLongHashMap;
+
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.memory.GlobalMemoryTracker;
+import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
+
+/**
+ * An off-heap pool of zstd compressed pages, that sits between the page cache and the page swappers. Clean pages are
+ * compressed into the tier when they are evicted, and page faults look for the page in the tier, and decompress it,
+ * before they read it from the file.
+ * <p>
+ * The pool is split into stripes, and every file page belongs to one stripe, picked by hashing the page. Each stripe is
+ * a ring buffer. Pages are appended at the head of the ring, overwriting the oldest pages at the tail, so the stripe
+ * holds the most recently evicted pages that fit. An index maps each file page to its position in the ring.
+ * <p>
+ * The tier only ever holds the same data as the file. Pages are only put into the tier after they have been flushed,
+ * every eviction of a page replaces any older copy of it, and a page is taken out of the tier when it is faulted back
+ * into the page cache. The pages of an unmapped file are removed when its swapper id is vacuumed, before the id can be
+ * reused by another file.
+ * <p>
+ * All access to a stripe is serialised on the monitor of that stripe, so evictions and page faults only contend when
+ * they touch pages of the same stripe.
+ */
+final class CompressedPageTier
+{
+    // The fastest compression level, since we compress on the eviction path, and decompress on the page fault path.
+    private static final int COMPRESSION_LEVEL = 1;
+
+    // Every entry in the ring starts with a header of the entry key (8 bytes), and the compressed length (4 bytes),
+    // padded to keep the entries 8-byte aligned.
+    private static final int HEADER_SIZE = 16;
+    private static final int OFFSET_LENGTH = 8;
+    // The key of the entries that pad out the end of the ring, when the next entry does not fit there.
+    private static final long SKIP_KEY = -1;
+    // The swapper ids fit in the low 21 bits of the key, and the file page ids, which are at most 40 bits, above them.
+    private static final int SHIFT_FILE_PAGE_ID = 21;
+    private static final long MASK_SWAPPER_ID = (1L << SHIFT_FILE_PAGE_ID) - 1;
+    // We don't split the tier into stripes that cannot hold at least this many uncompressed pages each.
+    private static final int MIN_PAGES_PER_STRIPE = 64;
+    private static final int MAX_STRIPES = 64;
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+
+    private CompressedPageTier( long capacity, int cachePageSize, PageCacheTracer tracer, int stripeCount )
+    {
+        stripes = new Stripe[stripeCount];
+        stripeMask = stripeCount - 1;
+        for ( int i = 0; i < stripeCount; i++ )
+        {
+            stripes[i] = new Stripe( capacity / stripeCount, cachePageSize, tracer );
+        }
+    }
+
+    /**
+     * Create a compressed page tier of the given capacity in bytes, with a number of stripes that fits the number of
+     * processors and the capacity.
+     *
+     * @return the new compressed page tier, or {@code null} if the capacity is zero, or if zstd is not available on
+     * this platform.
+     */
+    static CompressedPageTier create( long capacity, int cachePageSize, PageCacheTracer tracer )
+    {
+        int processorStripes = Integer.highestOneBit( Runtime.getRuntime().availableProcessors() ) * 2;
+        long capacityStripes = capacity / (MIN_PAGES_PER_STRIPE * entrySize( cachePageSize ));
+        int stripeCount = (int) Math.min( Math.min( processorStripes, MAX_STRIPES ), Math.max( 1, Long.highestOneBit( capacityStripes ) ) );
+        return create( capacity, cachePageSize, tracer, stripeCount );
+    }
+
+    /**
+     * Create a compressed page tier of the given capacity in bytes, split into the given number of stripes, which must
+     * be a power of two.
+     *
+     * @return the new compressed page tier, or {@code null} if the capacity is zero, or if zstd is not available on
+     * this platform.
+     */
+    static CompressedPageTier create( long capacity, int cachePageSize, PageCacheTracer tracer, int stripeCount )
+    {
+        if ( Integer.bitCount( stripeCount ) != 1 )
+        {
+            throw new IllegalArgumentException( "The number of stripes must be a power of two, but was " + stripeCount );
+        }
+        if ( capacity <= 0 )
+        {
+            return null;
+        }
+        try
+        {
+            Native.load();
+        }
+        catch ( Throwable ignore )
+        {
+            return null;
+        }
+        return Native.isLoaded() ? new CompressedPageTier( capacity, cachePageSize, tracer, stripeCount ) : null;
+    }
+
+    /**
+     * Compress the given clean page into the tier, replacing any older copy of it. Pages that do not compress are
+     * not kept.
+     */
+    void put( int swapperId, long filePageId, long pageAddress )
+    {
+        long key = key( swapperId, filePageId );
+        stripe( key ).put( key, pageAddress );
+    }
+
+    /**
+     * Decompress the given page from the tier into the given page buffer, and take it out of the tier.
+     *
+     * @return {@code true} if the page was in the tier, otherwise {@code false}, and the page must be read from the
+     * file instead.
+     */
+    boolean read( int swapperId, long filePageId, long pageAddress )
+    {
+        long key = key( swapperId, filePageId );
+        return stripe( key ).read( key, pageAddress );
+    }
+
+    /**
+     * Remove all pages of the files with the given swapper ids from the tier.
+     */
+    void removeFiles( IntSet swapperIds )
+    {
+        for ( Stripe stripe : stripes )
+        {
+            stripe.removeKeys( key -> swapperIds.contains( (int) (key & MASK_SWAPPER_ID) ) );
+        }
+    }
+
+    /**
+     * Forget the pages of the given file from the given file page id and onwards, because the file has been truncated.
+     */
+    void removePages( int swapperId, long fromFilePageId )
+    {
+        for ( Stripe stripe : stripes )
+        {
+            stripe.removeKeys( key -> (int) (key & MASK_SWAPPER_ID) == swapperId && key >>> SHIFT_FILE_PAGE_ID >= fromFilePageId );
+        }
+    }
+
+    void close()
+    {
+        for ( Stripe stripe : stripes )
+        {
+            stripe.close();
+        }
+    }
+
+    int stripeCount()
+    {
+        return stripes.length;
+    }
+
+    private Stripe stripe( long key )
+    {
+        // Spread the keys, so the consecutive pages of a file end up in different stripes.
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return stripes[(int) (hash >>> 32) & stripeMask];
+    }
+
+    private static long entrySize( long compressedLength )
+    {
+        return HEADER_SIZE + ((compressedLength + 7) & ~7L);
+    }
+
+    private static long key( int swapperId, long filePageId )
+    {
+        return (filePageId << SHIFT_FILE_PAGE_ID) | swapperId;
+    }
+
+    private static final class Stripe
+    {
+        private final int cachePageSize;
+        private final PageCacheTracer tracer;
+        private final long capacity;
+        private final long baseAddress;
+        private final long scratchSize;
+        private final long scratchAddress;
+        private final MutableLongLongMap positions = new LongLongHashMap();
+
+        // The positions in the ring only ever grow. The address of a position is baseAddress + position % capacity.
+        // The entries between the tail and the head are the ones that have not been overwritten.
+        private long head;
+        private long tail;
+        private boolean closed;
+
+        Stripe( long capacity, int cachePageSize, PageCacheTracer tracer )
+        {
+            this.cachePageSize = cachePageSize;
+            this.tracer = tracer;
+            this.scratchSize = Zstd.compressBound( cachePageSize );
+            // The ring must at least be able to hold two entries, or we could not fit a new entry after a skip entry.
+            this.capacity = Math.max( capacity & ~7L, 2 * entrySize( cachePageSize ) );
+            this.baseAddress = UnsafeUtil.allocateMemory( this.capacity, GlobalMemoryTracker.INSTANCE );
+            this.scratchAddress = UnsafeUtil.allocateMemory( scratchSize, GlobalMemoryTracker.INSTANCE );
+        }
+
+        synchronized void put( long key, long pageAddress )
+        {
+            if ( closed )
+            {
+                return;
+            }
+            positions.remove( key );
+            long compressedLength = Zstd.compressUnsafe(
+                    scratchAddress, scratchSize, pageAddress, cachePageSize, COMPRESSION_LEVEL );
+            if ( Zstd.isError( compressedLength ) || compressedLength >= cachePageSize )
+            {
+                return;
+            }
+
+            long entrySize = entrySize( compressedLength );
+            long remaining = capacity - head % capacity;
+            if ( remaining < entrySize )
+            {
+                // The entry does not fit before the end of the ring, so we skip to the start of it.
+                reclaim( head + remaining );
+                if ( remaining >= HEADER_SIZE )
+                {
+                    writeHeader( head, SKIP_KEY, remaining - HEADER_SIZE );
+                }
+                head += remaining;
+            }
+            reclaim( head + entrySize );
+            writeHeader( head, key, compressedLength );
+            UnsafeUtil.copyMemory( scratchAddress, address( head ) + HEADER_SIZE, compressedLength );
+            positions.put( key, head );
+            head += entrySize;
+        }
+
+        synchronized boolean read( long key, long pageAddress )
+        {
+            long position = closed ? -1 : positions.removeKeyIfAbsent( key, -1 );
+            if ( position != -1 )
+            {
+                long address = address( position );
+                int compressedLength = UnsafeUtil.getInt( address + OFFSET_LENGTH );
+                long length = Zstd.decompressUnsafe( pageAddress, cachePageSize, address + HEADER_SIZE, compressedLength );
+                if ( length == cachePageSize )
+                {
+                    tracer.compressedTierHits( 1 );
+                    return true;
+                }
+            }
+            tracer.compressedTierMisses( 1 );
+            return false;
+        }
+
+        synchronized void removeKeys( LongPredicate predicate )
+        {
+            MutableLongList keys = new LongArrayList();
+            positions.forEachKey( key ->
+            {
+                if ( predicate.accept( key ) )
+                {
+                    keys.add( key );
+                }
+            } );
+            keys.forEach( positions::remove );
+        }
+
+        synchronized void close()
+        {
+            if ( !closed )
+            {
+                closed = true;
+                positions.clear();
+                UnsafeUtil.free( baseAddress, capacity, GlobalMemoryTracker.INSTANCE );
+                UnsafeUtil.free( scratchAddress, scratchSize, GlobalMemoryTracker.INSTANCE );
+            }
+        }
+
+        /**
+         * Drop the entries at the tail of the ring, until the ring has room for the head to move to the given position.
+         */
+        private void reclaim( long newHead )
+        {
+            while ( newHead - tail > capacity )
+            {
+                long remaining = capacity - tail % capacity;
+                if ( remaining < HEADER_SIZE )
+                {
+                    // Too little room at the end of the ring for even a skip entry, so nothing was written here.
+                    tail += remaining;
+                    continue;
+                }
+                long address = address( tail );
+                long key = UnsafeUtil.getLong( address );
+                int compressedLength = UnsafeUtil.getInt( address + OFFSET_LENGTH );
+                if ( key != SKIP_KEY && positions.getIfAbsent( key, -1 ) == tail )
+                {
+                    positions.remove( key );
+                }
+                tail += entrySize( compressedLength );
+            }
+        }
+
+        private void writeHeader( long position, long key, long compressedLength )
+        {
+            long address = address( position );
+            UnsafeUtil.putLong( address, key );
+            UnsafeUtil.putInt( address + OFFSET_LENGTH, (int) compressedLength );
+        }
+
+        private long address( long position )
+        {
+            return baseAddress + position % capacity;
+        }
+    }
+}
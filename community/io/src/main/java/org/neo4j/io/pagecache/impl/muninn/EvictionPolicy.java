@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+/**
+ * The eviction policy decides which of the loaded pages the clock hands of the {@link MuninnPageCache} should try to
+ * evict, as they sweep over the {@link PageList}.
+ * <p>
+ * The policy is consulted both by the background eviction thread, and by page faulting threads that have to do
+ * cooperative eviction, so implementations must be thread-safe. They are allowed to be benignly racy, since the
+ * page usage counters they work with are themselves benignly racy.
+ */
+interface EvictionPolicy
+{
+    /**
+     * The name of the default clock eviction policy.
+     */
+    String CLOCK = "clock";
+
+    /**
+     * The name of the scan resistant eviction policy.
+     */
+    String SCAN_RESISTANT = "scan-resistant";
+
+    /**
+     * Called for every loaded page that a clock hand visits.
+     *
+     * @param pageRef the page that the clock hand is currently pointing at.
+     * @return {@code true} if an attempt should be made to evict the given page, otherwise {@code false}.
+     */
+    boolean shouldEvict( long pageRef );
+
+    /**
+     * Called after a page fault has completed, while the faulting thread still holds the exclusive lock on the page.
+     * This is not called for faults made by cursors that were opened with
+     * {@link org.neo4j.io.pagecache.PagedFile#PF_TRANSIENT}.
+     *
+     * @param pageRef the page that was faulted into.
+     * @param swapperId the id of the swapper of the file that was faulted from.
+     * @param filePageId the file page that was faulted in.
+     */
+    void faulted( long pageRef, int swapperId, long filePageId );
+
+    /**
+     * Called when a file page has been evicted from the cache.
+     *
+     * @param swapperId the id of the swapper of the file that the evicted page was bound to.
+     * @param filePageId the file page that was evicted.
+     */
+    void evicted( int swapperId, long filePageId );
+
+    static EvictionPolicy create( String name, PageList pages )
+    {
+        switch ( name )
+        {
+        case CLOCK:
+            return new ClockEvictionPolicy( pages );
+        case SCAN_RESISTANT:
+            return new ScanResistantEvictionPolicy( pages );
+        default:
+            throw new IllegalArgumentException( "Unknown page cache eviction policy: '" + name + "'. Supported policies are '" +
+                    CLOCK + "' and '" + SCAN_RESISTANT + "'." );
+        }
+    }
+}
@@ -42,6 +42,7 @@ import org.neo4j.io.mem.MemoryAllocator;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageCacheOpenOptions;
+import org.neo4j.io.pagecache.PageCacheQuota;
 import org.neo4j.io.pagecache.PageSwapperFactory;
 import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
@@ -61,6 +62,8 @@ import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
 import static java.lang.String.format;
 import static org.neo4j.util.FeatureToggles.flag;
 import static org.neo4j.util.FeatureToggles.getInteger;
+import static org.neo4j.util.FeatureToggles.getLong;
+import static org.neo4j.util.FeatureToggles.getString;
 
 /**
  * The Muninn {@link org.neo4j.io.pagecache.PageCache page cache} implementation.
@@ -125,6 +128,24 @@ public class MuninnPageCache implements PageCache
     private static final int pagesToKeepFree = getInteger(
             MuninnPageCache.class, "pagesToKeepFree", 30 );
 
+    // The maximum number of pages that read cursors opened with PF_READ_AHEAD will fault in with a single vectored
+    // read. This will be truncated to be no more than 1/64th of the number of pages in the cache.
+    private static final int readAheadMaxPages = getInteger(
+            MuninnPageCache.class, "readAheadMaxPages", 32 );
+
+    // The background page writer continuously writes out dirty pages, oldest first, at a rate that would write out
+    // all of the dirty pages it sees within this many milliseconds. This way, a checkpoint only has to flush the pages
+    // that were dirtied since the writer last got to them. Zero, the default, disables the background page writer.
+    private static final long backgroundWriterTargetMillis = getLong(
+            MuninnPageCache.class, "backgroundWriterTargetMillis", 0 );
+
+    // How many milliseconds the background page writer waits between each sweep through the page list.
+    private static final long backgroundWriterIntervalMillis = getLong(
+            MuninnPageCache.class, "backgroundWriterIntervalMillis", 1000 );
+
+    // The age of a dirty page is the number of background writer sweeps that has found it dirty, up to this limit.
+    private static final int MAX_DIRTY_PAGE_AGE = 64;
+
     // This is how many times that, during cooperative eviction, we'll iterate through the entire set of pages looking
     // for a page to evict, before we give up and throw CacheLiveLockException. This MUST be greater than 1.
     private static final int cooperativeEvictionLiveLockThreshold = getInteger(
@@ -154,6 +175,10 @@ public class MuninnPageCache implements PageCache
     private static final List<OpenOption> ignoredOpenOptions = Arrays.asList( StandardOpenOption.APPEND,
             StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.SPARSE );
 
+    // The largest fraction of the page cache that can be reserved by PageCacheQuota options, summed over all mapped
+    // files. The rest of the page cache must remain available to eviction, or page faults would live-lock.
+    private static final double MAX_TOTAL_RESERVED_RATIO = 0.5;
+
     // Used when trying to figure out number of available pages in a page cache. Could be returned from tryGetNumberOfAvailablePages.
     private static final int UNKNOWN_AVAILABLE_PAGES = -1;
 
@@ -161,10 +186,12 @@ public class MuninnPageCache implements PageCache
     private final PageSwapperFactory swapperFactory;
     private final int cachePageSize;
     private final int keepFree;
+    final int readAheadPages;
     private final PageCacheTracer pageCacheTracer;
     private final PageCursorTracerSupplier pageCursorTracerSupplier;
     private final VersionContextSupplier versionContextSupplier;
     final PageList pages;
+    final EvictionPolicy evictionPolicy;
     // All PageCursors are initialised with their pointers pointing to the victim page. This way, we don't have to throw
     // exceptions on bounds checking failures; we can instead return the victim page pointer, and permit the page
     // accesses to take place without fear of segfaulting newly allocated cursors.
@@ -182,6 +209,10 @@ public class MuninnPageCache implements PageCache
     // Linked list of mappings - guarded by synchronized(this)
     private volatile FileMapping mappedFiles;
 
+    // The mapped files that have a PageCacheQuota, indexed by swapper id, and null for the files that have none.
+    // Copied on write, guarded by synchronized(this), so the eviction process can read it without locking.
+    private volatile MuninnPagedFile[] filesWithQuota = new MuninnPagedFile[0];
+
     // The thread that runs the eviction algorithm. We unpark this when we've run out of
     // free pages to grab.
     private volatile Thread evictionThread;
@@ -193,6 +224,13 @@ public class MuninnPageCache implements PageCache
     private volatile boolean evictorParked;
     private volatile IOException evictorException;
 
+    // The thread that runs the background page writer, if it is enabled.
+    private volatile Thread backgroundWriterThread;
+    // The age of each dirty page, and the number of dirty pages of each age, as of the last sweep of the background
+    // page writer. Only accessed by the background page writer thread.
+    private byte[] dirtyPageAges;
+    private final long[] dirtyPageAgeCounts = new long[MAX_DIRTY_PAGE_AGE + 1];
+
     // Flag for when page cache is closed - writes guarded by synchronized(this), reads can be unsynchronized
     private volatile boolean closed;
 
@@ -288,13 +326,23 @@ public class MuninnPageCache implements PageCache
         this.swapperFactory = swapperFactory;
         this.cachePageSize = cachePageSize;
         this.keepFree = Math.min( pagesToKeepFree, maxPages / 2 );
+        this.readAheadPages = Math.min( readAheadMaxPages, maxPages / 64 );
         this.pageCacheTracer = pageCacheTracer;
         this.pageCursorTracerSupplier = pageCursorTracerSupplier;
         this.versionContextSupplier = versionContextSupplier;
         this.printExceptionsOnClose = true;
         long alignment = swapperFactory.getRequiredBufferAlignment();
         this.victimPage = VictimPageReference.getVictimPage( cachePageSize, memoryTracker );
-        this.pages = new PageList( maxPages, cachePageSize, memoryAllocator, new SwapperSet(), victimPage, alignment );
+        // The compressed page tier is an off-heap pool of compressed pages, that evicted pages are kept in, so that
+        // faulting them back in does not have to read from the file. Its size in bytes is looked up here, rather than
+        // statically, so tests can change it between page caches. Zero, the default, disables the tier.
+        CompressedPageTier compressedTier = CompressedPageTier.create(
+                getLong( MuninnPageCache.class, "compressedTierSize", 0 ), cachePageSize, pageCacheTracer );
+        this.pages = new PageList(
+                maxPages, cachePageSize, memoryAllocator, new SwapperSet(), victimPage, alignment, compressedTier );
+        // The eviction policy is looked up here, rather than statically, so tests can change it between page caches.
+        this.evictionPolicy = EvictionPolicy.create(
+                getString( MuninnPageCache.class, "evictionPolicy", EvictionPolicy.CLOCK ), pages );
         this.scheduler = jobScheduler;
 
         setFreelistHead( new AtomicInteger() );
@@ -348,6 +396,7 @@ public class MuninnPageCache implements PageCache
         boolean deleteOnClose = false;
         boolean anyPageSize = false;
         boolean noChannelStriping = false;
+        PageCacheQuota quota = null;
         for ( OpenOption option : openOptions )
         {
             if ( option.equals( StandardOpenOption.CREATE ) )
@@ -370,6 +419,10 @@ public class MuninnPageCache implements PageCache
             {
                 noChannelStriping = true;
             }
+            else if ( option instanceof PageCacheQuota )
+            {
+                quota = (PageCacheQuota) option;
+            }
             else if ( !ignoredOpenOptions.contains( option ) )
             {
                 throw new UnsupportedOperationException( "Unsupported OpenOption: " + option );
@@ -397,6 +450,11 @@ public class MuninnPageCache implements PageCache
                 {
                     throw new UnsupportedOperationException( "Cannot truncate a file that is already mapped" );
                 }
+                if ( quota != null )
+                {
+                    checkReservation( pagedFile, quota );
+                    setQuota( pagedFile, quota );
+                }
                 pagedFile.incrementRefCount();
                 pagedFile.markDeleteOnClose( deleteOnClose );
                 return pagedFile;
@@ -411,6 +469,11 @@ public class MuninnPageCache implements PageCache
                     Long.BYTES + " bytes" );
         }
 
+        if ( quota != null )
+        {
+            checkReservation( null, quota );
+        }
+
         // there was no existing mapping
         MuninnPagedFile pagedFile = new MuninnPagedFile(
                 file,
@@ -423,6 +486,10 @@ public class MuninnPageCache implements PageCache
                 createIfNotExists,
                 truncateExisting,
                 noChannelStriping );
+        if ( quota != null )
+        {
+            setQuota( pagedFile, quota );
+        }
         pagedFile.incrementRefCount();
         pagedFile.markDeleteOnClose( deleteOnClose );
         current = new FileMapping( file, pagedFile );
@@ -432,6 +499,48 @@ public class MuninnPageCache implements PageCache
         return pagedFile;
     }
 
+    private void checkReservation( MuninnPagedFile remappedFile, PageCacheQuota quota )
+    {
+        double totalReservedRatio = quota.reservedRatio();
+        for ( FileMapping current = mappedFiles; current != null; current = current.next )
+        {
+            PageCacheQuota existing = current.pagedFile.quota;
+            if ( current.pagedFile != remappedFile && existing != null )
+            {
+                totalReservedRatio += existing.reservedRatio();
+            }
+        }
+        if ( totalReservedRatio > MAX_TOTAL_RESERVED_RATIO )
+        {
+            throw new IllegalArgumentException( "Cannot map file with " + quota + ", because it would bring the total " +
+                    "reserved ratio of the page cache to " + totalReservedRatio + ", which is more than the maximum " +
+                    "of " + MAX_TOTAL_RESERVED_RATIO + "." );
+        }
+    }
+
+    private void setQuota( MuninnPagedFile pagedFile, PageCacheQuota quota )
+    {
+        pagedFile.setQuota( quota, pages.getPageCount() );
+        MuninnPagedFile[] files = filesWithQuota;
+        if ( files.length <= pagedFile.swapperId )
+        {
+            files = Arrays.copyOf( files, pagedFile.swapperId + 1 );
+        }
+        else
+        {
+            files = files.clone();
+        }
+        files[pagedFile.swapperId] = pagedFile;
+        filesWithQuota = files;
+    }
+
+    private void clearQuota( MuninnPagedFile pagedFile )
+    {
+        MuninnPagedFile[] files = filesWithQuota.clone();
+        files[pagedFile.swapperId] = null;
+        filesWithQuota = files;
+    }
+
     @Override
     public synchronized Optional<PagedFile> getExistingMapping( File file ) throws IOException
     {
@@ -500,6 +609,10 @@ public class MuninnPageCache implements PageCache
         try
         {
             scheduler.schedule( Group.PAGE_CACHE, new EvictionTask( this ) );
+            if ( backgroundWriterTargetMillis > 0 )
+            {
+                scheduler.schedule( Group.PAGE_CACHE, new BackgroundWriterTask( this ) );
+            }
         }
         catch ( Exception e )
         {
@@ -538,6 +651,11 @@ public class MuninnPageCache implements PageCache
                         prev.next = current.next;
                     }
                     pageCacheTracer.unmappedFile( current.file );
+                    if ( file.quota != null )
+                    {
+                        // Must be done before the swapper id is freed and possibly reused by another file.
+                        clearQuota( file );
+                    }
                     flushAndCloseWithoutFail( file );
                     break;
                 }
@@ -710,6 +828,14 @@ public class MuninnPageCache implements PageCache
 
         interrupt( evictionThread );
         evictionThread = null;
+        interrupt( backgroundWriterThread );
+        backgroundWriterThread = null;
+
+        CompressedPageTier compressedTier = pages.getCompressedTier();
+        if ( compressedTier != null )
+        {
+            compressedTier.close();
+        }
 
         // Close the page swapper factory last. If this fails then we will still consider ourselves closed.
         swapperFactory.close();
@@ -863,7 +989,7 @@ public class MuninnPageCache implements PageCache
             }
 
             pageRef = pages.deref( clockArm );
-            if ( pages.isLoaded( pageRef ) && pages.decrementUsage( pageRef ) )
+            if ( pages.isLoaded( pageRef ) && shouldEvict( pageRef ) )
             {
                 evicted = pages.tryEvict( pageRef, faultEvent );
             }
@@ -922,9 +1048,9 @@ public class MuninnPageCache implements PageCache
     }
 
     /**
-     * Scan through all the pages, one by one, and decrement their usage stamps.
-     * If a usage reaches zero, we try-write-locking it, and if we get that lock,
-     * we evict the page. If we don't, we move on to the next page.
+     * Scan through all the pages, one by one, and ask the {@link EvictionPolicy} if they should be evicted.
+     * With the default clock policy, this decrements their usage stamps, and if a usage reaches zero, we
+     * try-write-locking it, and if we get that lock, we evict the page. If we don't, we move on to the next page.
      * Once we have enough free pages, we park our thread. Page-faulting will
      * unpark our thread as needed.
      */
@@ -1012,7 +1138,7 @@ public class MuninnPageCache implements PageCache
             }
 
             long pageRef = pages.deref( clockArm );
-            if ( pages.isLoaded( pageRef ) && pages.decrementUsage( pageRef ) )
+            if ( pages.isLoaded( pageRef ) && shouldEvict( pageRef ) )
             {
                 try
                 {
@@ -1044,6 +1170,140 @@ public class MuninnPageCache implements PageCache
         return clockArm;
     }
 
+    /**
+     * Decide if the given loaded page should be evicted, taking the {@link PageCacheQuota} of the file it is bound
+     * to, if any, into account before asking the {@link EvictionPolicy}. Pages of files that are within their
+     * reservation are never evicted, and pages of files that are above their maximum are always evicted.
+     */
+    private boolean shouldEvict( long pageRef )
+    {
+        MuninnPagedFile[] files = filesWithQuota;
+        if ( files.length != 0 )
+        {
+            int swapperId = pages.getSwapperId( pageRef );
+            MuninnPagedFile file = swapperId < files.length ? files[swapperId] : null;
+            if ( file != null )
+            {
+                long residentPages = file.residentPages();
+                if ( residentPages <= file.reservedPages )
+                {
+                    return false;
+                }
+                if ( residentPages > file.maximumPages )
+                {
+                    return true;
+                }
+            }
+        }
+        return evictionPolicy.shouldEvict( pageRef );
+    }
+
+    /**
+     * Periodically sweep through all the pages, and write out the oldest dirty pages, so that all of the dirty pages
+     * found by a sweep are written out within the target duration, unless they are written to or evicted first.
+     */
+    void continuouslyWriteDirtyPages()
+    {
+        backgroundWriterThread = Thread.currentThread();
+        long parkNanos = TimeUnit.MILLISECONDS.toNanos( backgroundWriterIntervalMillis );
+        double sweepsPerTarget = Math.max( 1.0, backgroundWriterTargetMillis / (double) backgroundWriterIntervalMillis );
+
+        while ( !closed )
+        {
+            LockSupport.parkNanos( this, parkNanos );
+            if ( Thread.interrupted() || closed )
+            {
+                break;
+            }
+            long dirtyPages = sweepDirtyPages();
+            writeOldestDirtyPages( (long) Math.ceil( dirtyPages / sweepsPerTarget ) );
+        }
+    }
+
+    /**
+     * Update the age of every dirty page, and reset the age of every clean page.
+     *
+     * @return the number of dirty pages found.
+     */
+    long sweepDirtyPages()
+    {
+        int pageCount = pages.getPageCount();
+        if ( dirtyPageAges == null )
+        {
+            dirtyPageAges = new byte[pageCount];
+        }
+        Arrays.fill( dirtyPageAgeCounts, 0 );
+        long dirtyPages = 0;
+        for ( int i = 0; i < pageCount; i++ )
+        {
+            // This is intentionally racy. A page that is dirtied after we look at it, will be found by the next sweep.
+            if ( pages.isModified( pages.deref( i ) ) )
+            {
+                int age = Math.min( dirtyPageAges[i] + 1, MAX_DIRTY_PAGE_AGE );
+                dirtyPageAges[i] = (byte) age;
+                dirtyPageAgeCounts[age]++;
+                dirtyPages++;
+            }
+            else
+            {
+                dirtyPageAges[i] = 0;
+            }
+        }
+        pageCacheTracer.dirtyPages( dirtyPages );
+        return dirtyPages;
+    }
+
+    /**
+     * Write out up to the given number of dirty pages, starting with the pages that the most recent
+     * {@link #sweepDirtyPages()} found to have been dirty for the longest time.
+     *
+     * @return the number of pages written.
+     */
+    long writeOldestDirtyPages( long maxPagesToWrite )
+    {
+        if ( maxPagesToWrite <= 0 || dirtyPageAges == null )
+        {
+            return 0;
+        }
+        // Find the youngest age we have to include, to get enough pages to write.
+        int minimumAge = MAX_DIRTY_PAGE_AGE;
+        long candidates = dirtyPageAgeCounts[minimumAge];
+        while ( minimumAge > 1 && candidates < maxPagesToWrite )
+        {
+            minimumAge--;
+            candidates += dirtyPageAgeCounts[minimumAge];
+        }
+
+        long pagesWritten = 0;
+        long bytesWritten = 0;
+        int pageCount = pages.getPageCount();
+        for ( int i = 0; i < pageCount && pagesWritten < maxPagesToWrite && !closed; i++ )
+        {
+            if ( dirtyPageAges[i] >= minimumAge )
+            {
+                try
+                {
+                    long bytes = pages.tryFlush( pages.deref( i ) );
+                    if ( bytes > 0 )
+                    {
+                        dirtyPageAges[i] = 0;
+                        bytesWritten += bytes;
+                        pagesWritten++;
+                    }
+                }
+                catch ( IOException e )
+                {
+                    // The page is still dirty, so it will be written by eviction or the next checkpoint instead,
+                    // and they will report the problem if it persists.
+                }
+            }
+        }
+        pageCacheTracer.flushes( pagesWritten );
+        pageCacheTracer.bytesWritten( bytesWritten );
+        pageCacheTracer.backgroundWrites( pagesWritten );
+        return pagesWritten;
+    }
+
     void addFreePageToFreelist( long pageRef )
     {
         Object current;
@@ -1104,6 +1364,11 @@ public class MuninnPageCache implements PageCache
             {
                 throw new UncheckedIOException( e );
             }
+            CompressedPageTier compressedTier = pages.getCompressedTier();
+            if ( compressedTier != null )
+            {
+                compressedTier.removeFiles( swapperIds );
+            }
         } );
     }
 }
@@ -41,7 +41,9 @@ import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
 
 import static org.neo4j.io.pagecache.PagedFile.PF_EAGER_FLUSH;
 import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_READ_AHEAD;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_TRANSIENT;
 import static org.neo4j.io.pagecache.impl.muninn.MuninnPagedFile.UNMAPPED_TTE;
 import static org.neo4j.util.FeatureToggles.flag;
 
@@ -70,6 +72,11 @@ abstract class MuninnPageCursor extends PageCursor
     protected boolean eagerFlush;
     protected boolean noFault;
     protected boolean noGrow;
+    protected boolean transientPin;
+    protected int readAheadPages;
+    // The range of file pages that were loaded by the last read-ahead of this cursor, for tracing read-ahead hits.
+    private long readAheadStartPageId;
+    private long readAheadEndPageId;
     protected long currentPageId;
     protected long nextPageId;
     protected MuninnPageCursor linkedCursor;
@@ -105,6 +112,12 @@ abstract class MuninnPageCursor extends PageCursor
         this.eagerFlush = isFlagRaised( pf_flags, PF_EAGER_FLUSH );
         this.noFault = isFlagRaised( pf_flags, PF_NO_FAULT );
         this.noGrow = noFault | isFlagRaised( pf_flags, PagedFile.PF_NO_GROW );
+        this.transientPin = isFlagRaised( pf_flags, PF_TRANSIENT );
+        // Read-ahead is only done for read cursors, since write cursors are rarely used for large sequential scans.
+        this.readAheadPages = isFlagRaised( pf_flags, PF_READ_AHEAD ) && !isFlagRaised( pf_flags, PF_SHARED_WRITE_LOCK )
+                              ? pagedFile.pageCache.readAheadPages : 0;
+        this.readAheadStartPageId = 0;
+        this.readAheadEndPageId = 0;
     }
 
     private boolean isFlagRaised( int flagSet, int flag )
@@ -300,6 +313,10 @@ abstract class MuninnPageCursor extends PageCursor
                 {
                     pinCursorToPage( pageRef, filePageId, swapper );
                     pinEvent.hit();
+                    if ( filePageId < readAheadEndPageId && filePageId >= readAheadStartPageId )
+                    {
+                        tracer.readAheadHits( 1 );
+                    }
                     return;
                 }
                 if ( locked )
@@ -343,6 +360,10 @@ abstract class MuninnPageCursor extends PageCursor
                 // Sweet, we didn't race with any other fault on this translation table entry.
                 long pageRef = pageFault( filePageId, swapper, chunkOffset, chunk, latch );
                 pinCursorToPage( pageRef, filePageId, swapper );
+                if ( readAheadPages > 0 )
+                {
+                    readAhead( filePageId + 1 );
+                }
                 return true;
             }
             // Oops, looks like we raced with another page fault on this file page.
@@ -393,6 +414,11 @@ abstract class MuninnPageCursor extends PageCursor
             assertPagedFileStillMappedAndGetIdOfLastPage();
             pagedFile.initBuffer( pageRef );
             pagedFile.fault( pageRef, swapper, pagedFile.swapperId, filePageId, faultEvent );
+            pagedFile.pagesFaulted( 1 );
+            if ( !transientPin )
+            {
+                pagedFile.pageCache.evictionPolicy.faulted( pageRef, pagedFile.swapperId, filePageId );
+            }
         }
         catch ( Throwable throwable )
         {
@@ -413,6 +439,111 @@ abstract class MuninnPageCursor extends PageCursor
         return pageRef;
     }
 
+    /**
+     * Speculatively fault in the run of file pages that follow the page we just faulted, with a single vectored read.
+     * The run ends at the first page that is already in memory, or being faulted in by someone else. The pages that
+     * are read ahead are not pinned, and their usage counters are not incremented, so they will be among the first
+     * to be evicted if the scan does not get to them.
+     * <p>
+     * Read-ahead is only an optimisation for the pin that triggered it, so it never fails that pin. Any error is
+     * reported to the tracer as a read-ahead failure, and the pages it would have filled are left unmapped, to be
+     * faulted in the ordinary way if they are ever pinned. Read-ahead faults are likewise not reported through the
+     * pin event, which has already counted the fault of the page that was actually pinned; they are reported as
+     * read-ahead pages instead.
+     */
+    private void readAhead( long startFilePageId )
+    {
+        long lastPageId;
+        try
+        {
+            lastPageId = assertPagedFileStillMappedAndGetIdOfLastPage();
+        }
+        catch ( Throwable throwable )
+        {
+            tracer.readAheadFailures( 1 );
+            return;
+        }
+        int length = (int) Math.min( readAheadPages, lastPageId - startFilePageId + 1 );
+        if ( length <= 0 )
+        {
+            return;
+        }
+
+        int[][] tt = pagedFile.translationTable;
+        LatchMap.Latch[] latches = new LatchMap.Latch[length];
+        int count = 0;
+        while ( count < length )
+        {
+            long filePageId = startFilePageId + count;
+            int chunkId = MuninnPagedFile.computeChunkId( filePageId );
+            if ( chunkId >= tt.length )
+            {
+                break;
+            }
+            int[] chunk = tt[chunkId];
+            long chunkOffset = MuninnPagedFile.computeChunkOffset( filePageId );
+            if ( UnsafeUtil.getIntVolatile( chunk, chunkOffset ) != UNMAPPED_TTE )
+            {
+                break;
+            }
+            LatchMap.Latch latch = pagedFile.pageFaultLatches.tryTakeLatch( filePageId );
+            if ( latch == null )
+            {
+                break;
+            }
+            if ( UnsafeUtil.getIntVolatile( chunk, chunkOffset ) != UNMAPPED_TTE )
+            {
+                latch.release();
+                break;
+            }
+            latches[count++] = latch;
+        }
+        if ( count == 0 )
+        {
+            return;
+        }
+
+        long[] pageRefs = new long[count];
+        int grabbed = 0;
+        try
+        {
+            for ( ; grabbed < count; grabbed++ )
+            {
+                pageRefs[grabbed] = pagedFile.grabFreeAndExclusivelyLockedPage( PageFaultEvent.NULL );
+                pagedFile.initBuffer( pageRefs[grabbed] );
+            }
+            pagedFile.fault( pageRefs, swapper, pagedFile.swapperId, startFilePageId, PageFaultEvent.NULL );
+            pagedFile.pagesFaulted( count );
+        }
+        catch ( Throwable throwable )
+        {
+            for ( int i = 0; i < grabbed; i++ )
+            {
+                // The pages are still exclusively locked, which is how the freelist wants them.
+                pagedFile.clearBinding( pageRefs[i] );
+                pagedFile.pageCache.addFreePageToFreelist( pageRefs[i] );
+            }
+            for ( int i = 0; i < count; i++ )
+            {
+                latches[i].release();
+            }
+            tracer.readAheadFailures( 1 );
+            return;
+        }
+        for ( int i = 0; i < count; i++ )
+        {
+            long filePageId = startFilePageId + i;
+            int[] chunk = tt[MuninnPagedFile.computeChunkId( filePageId )];
+            long chunkOffset = MuninnPagedFile.computeChunkOffset( filePageId );
+            UnsafeUtil.putIntVolatile( chunk, chunkOffset, pagedFile.toId( pageRefs[i] ) );
+            pagedFile.unlockExclusive( pageRefs[i] );
+            latches[i].release();
+        }
+        tracer.readAheadPages( count );
+        readAheadStartPageId = startFilePageId;
+        readAheadEndPageId = startFilePageId + count;
+    }
+
     private void abortPageFault( Throwable throwable, int[] chunk, long chunkOffset,
                                  LatchMap.Latch latch,
                                  PageFaultEvent faultEvent )
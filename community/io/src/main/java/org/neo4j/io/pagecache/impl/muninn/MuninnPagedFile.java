@@ -27,14 +27,18 @@ import java.io.Flushable;
 import java.io.IOException;
 import java.nio.channels.ClosedChannelException;
 import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCacheQuota;
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.PageEvictionCallback;
 import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.PageSwapperFactory;
 import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.io.pagecache.impl.FileIsNotMappedException;
+import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
 import org.neo4j.io.pagecache.tracing.FlushEvent;
 import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
@@ -44,6 +48,8 @@ import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
 import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
 
+import static org.neo4j.util.FeatureToggles.getLong;
+
 final class MuninnPagedFile extends PageList implements PagedFile, Flushable
 {
     static final int UNMAPPED_TTE = -1;
@@ -51,6 +57,10 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
             "org.neo4j.io.pagecache.impl.muninn.MuninnPagedFile.translationTableChunkSizePower", 12 );
     private static final int translationTableChunkSize = 1 << translationTableChunkSizePower;
     private static final long translationTableChunkSizeMask = translationTableChunkSize - 1;
+    // How long truncate waits for a page beyond the new end of the file to be unpinned, before giving up
+    private static final long truncateTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(
+            getLong( MuninnPagedFile.class, "truncateTimeoutMillis", 10_000 ) );
+    private static final long truncateMaxBackoffNanos = TimeUnit.MILLISECONDS.toNanos( 1 );
     private static final int translationTableChunkArrayBase = UnsafeUtil.arrayBaseOffset( int[].class );
     private static final int translationTableChunkArrayScale = UnsafeUtil.arrayIndexScale( int[].class );
 
@@ -86,6 +96,17 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
     @SuppressWarnings( "unused" ) // accessed using unsafe
     private volatile long highestEvictedTransactionId;
 
+    // number of pages of this file that are currently bound in the page list
+    private static final long residentPagesOffset = UnsafeUtil.getFieldOffset( MuninnPagedFile.class, "residentPages" );
+    @SuppressWarnings( "unused" ) // accessed using unsafe
+    private volatile long residentPages;
+
+    // The quota of this file, or null if it has none. Guarded by the monitor lock on MuninnPageCache (map and unmap),
+    // while the page counts are read racily by the eviction process.
+    PageCacheQuota quota;
+    volatile long reservedPages;
+    volatile long maximumPages = Long.MAX_VALUE;
+
     /**
      * The header state includes both the reference count of the PagedFile – 15 bits – and the ID of the last page in
      * the file – 48 bits, plus an empty file marker bit. Because our pages are usually 2^13 bytes, this means that we
@@ -555,6 +576,99 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         return state & headerStateLastPageIdMask;
     }
 
+    @Override
+    public void truncate( long pagesToKeep ) throws IOException
+    {
+        if ( pagesToKeep < 0 )
+        {
+            throw new IllegalArgumentException( "Cannot keep a negative number of pages: " + pagesToKeep );
+        }
+        long lastPageId = getLastPageId();
+        if ( pagesToKeep > lastPageId )
+        {
+            return;
+        }
+
+        // Lower the last page id first, so no new pages will be faulted in beyond the new end of the file.
+        // MIN_VALUE only has the sign bit raised, and means that the file is empty.
+        setLastPageId( pagesToKeep == 0 ? Long.MIN_VALUE : pagesToKeep - 1 );
+
+        // Then drop the cached pages beyond the new end of the file. Modified pages are written back first, so that
+        // nothing is lost if we time out on a later page and leave the file as it was.
+        boolean success = false;
+        try ( EvictionRunEvent evictions = pageCacheTracer.beginPageEvictions( 0 ) )
+        {
+            int[][] tt = this.translationTable;
+            for ( long filePageId = pagesToKeep; filePageId <= lastPageId; filePageId++ )
+            {
+                int chunkId = computeChunkId( filePageId );
+                if ( chunkId >= tt.length )
+                {
+                    break;
+                }
+                discard( tt[chunkId], computeChunkOffset( filePageId ), filePageId, evictions );
+            }
+            success = true;
+        }
+        finally
+        {
+            if ( !success )
+            {
+                // The file was not truncated, so the pages beyond the new end of it can still be accessed
+                setLastPageId( lastPageId );
+            }
+        }
+        CompressedPageTier compressedTier = getCompressedTier();
+        if ( compressedTier != null )
+        {
+            compressedTier.removePages( swapperId, pagesToKeep );
+        }
+        swapper.truncate( pagesToKeep );
+    }
+
+    private void setLastPageId( long newLastPageId )
+    {
+        long current;
+        do
+        {
+            current = getHeaderState();
+        }
+        while ( !UnsafeUtil.compareAndSwapLong( this, headerStateOffset, current,
+                newLastPageId + (current & headerStateRefCountMask) ) );
+    }
+
+    /**
+     * Drops the given file page from the cache, waiting with growing pauses for anyone who still has it pinned.
+     */
+    private void discard( int[] chunk, long chunkOffset, long filePageId, EvictionRunEvent evictions ) throws IOException
+    {
+        long backoffNanos = 0;
+        long deadline = 0;
+        int pageId;
+        while ( (pageId = UnsafeUtil.getIntVolatile( chunk, chunkOffset )) != UNMAPPED_TTE )
+        {
+            long pageRef = deref( pageId );
+            if ( tryDiscard( pageRef, swapperId, filePageId, evictions ) )
+            {
+                pageCache.addFreePageToFreelist( pageRef );
+                continue;
+            }
+            if ( backoffNanos == 0 )
+            {
+                deadline = System.nanoTime() + truncateTimeoutNanos;
+                backoffNanos = 1_000;
+            }
+            else if ( System.nanoTime() - deadline > 0 )
+            {
+                throw new IOException( "Could not truncate " + file() + ", since page " + filePageId +
+                        " beyond the new end of the file was still in use after " +
+                        TimeUnit.NANOSECONDS.toMillis( truncateTimeoutNanos ) + " ms" );
+            }
+            LockSupport.parkNanos( this, backoffNanos );
+            backoffNanos = Math.min( backoffNanos * 2, truncateMaxBackoffNanos );
+        }
+    }
+
     private FileIsNotMappedException fileIsNotMappedException()
     {
         FileIsNotMappedException exception = new FileIsNotMappedException( file() );
@@ -691,6 +805,33 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         long pageRef = deref( mappedPageId );
         setHighestEvictedTransactionId( getAndResetLastModifiedTransactionId( pageRef ) );
         UnsafeUtil.putIntVolatile( chunk, chunkOffset, UNMAPPED_TTE );
+        pageCache.evictionPolicy.evicted( swapperId, filePageId );
+        UnsafeUtil.getAndAddLong( this, residentPagesOffset, -1 );
+    }
+
+    /**
+     * Account for the given number of pages that have been faulted into the page cache, and bound to this file.
+     */
+    void pagesFaulted( int count )
+    {
+        UnsafeUtil.getAndAddLong( this, residentPagesOffset, count );
+    }
+
+    @Override
+    public long residentPages()
+    {
+        return UnsafeUtil.getLongVolatile( this, residentPagesOffset );
+    }
+
+    /**
+     * Give this file the given quota, with page counts computed relative to the given total number of pages in the
+     * page cache.
+     */
+    void setQuota( PageCacheQuota quota, long maxPages )
+    {
+        this.quota = quota;
+        reservedPages = (long) (quota.reservedRatio() * maxPages);
+        maximumPages = (long) Math.ceil( quota.maximumRatio() * maxPages );
     }
 
     private void setHighestEvictedTransactionId( long modifiedTransactionId )
@@ -81,7 +81,10 @@ final class MuninnReadPageCursor extends MuninnPageCursor
     protected void pinCursorToPage( long pageRef, long filePageId, PageSwapper swapper )
     {
         reset( pageRef );
-        pagedFile.incrementUsage( pageRef );
+        if ( !transientPin )
+        {
+            pagedFile.incrementUsage( pageRef );
+        }
     }
 
     @Override
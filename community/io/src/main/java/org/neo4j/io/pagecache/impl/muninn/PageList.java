@@ -87,9 +87,20 @@ class PageList
     private final long victimPageAddress;
     private final long baseAddress;
     private final long bufferAlignment;
+    private final CompressedPageTier compressedTier;
 
     PageList( int pageCount, int cachePageSize, MemoryAllocator memoryAllocator, SwapperSet swappers,
               long victimPageAddress, long bufferAlignment )
+    {
+        this( pageCount, cachePageSize, memoryAllocator, swappers, victimPageAddress, bufferAlignment, null );
+    }
+
+    /**
+     * @param compressedTier the tier that evicted pages are compressed into, and that page faults are served from
+     * before reading from the file, or {@code null} if there is none.
+     */
+    PageList( int pageCount, int cachePageSize, MemoryAllocator memoryAllocator, SwapperSet swappers,
+              long victimPageAddress, long bufferAlignment, CompressedPageTier compressedTier )
     {
         this.pageCount = pageCount;
         this.cachePageSize = cachePageSize;
@@ -99,6 +110,7 @@ class PageList
         long bytes = ((long) pageCount) * META_DATA_BYTES_PER_PAGE;
         this.baseAddress = memoryAllocator.allocateAligned( bytes, Long.BYTES );
         this.bufferAlignment = bufferAlignment;
+        this.compressedTier = compressedTier;
         clearMemory( baseAddress, pageCount );
     }
 
@@ -119,6 +131,12 @@ class PageList
         this.victimPageAddress = pageList.victimPageAddress;
         this.baseAddress = pageList.baseAddress;
         this.bufferAlignment = pageList.bufferAlignment;
+        this.compressedTier = pageList.compressedTier;
+    }
+
+    CompressedPageTier getCompressedTier()
+    {
+        return compressedTier;
     }
 
     private void clearMemory( long baseAddress, long pageCount )
@@ -304,7 +322,7 @@ class PageList
         }
     }
 
-    private byte getUsageCounter( long pageRef )
+    byte getUsageCounter( long pageRef )
     {
         return (byte) (UnsafeUtil.getLongVolatile( offPageBinding( pageRef ) ) & MASK_USAGE_COUNT);
     }
@@ -434,12 +452,75 @@ class PageList
         // the file page, so any subsequent thread that finds the page in their
         // translation table will re-do the page fault.
         setFilePageId( pageRef, filePageId ); // Page now considered isLoaded()
-        long bytesRead = swapper.read( filePageId, getAddress( pageRef ), cachePageSize );
-        event.addBytesRead( bytesRead );
+        long address = getAddress( pageRef );
+        if ( compressedTier == null || !compressedTier.read( swapperId, filePageId, address ) )
+        {
+            long bytesRead = swapper.read( filePageId, address, cachePageSize );
+            event.addBytesRead( bytesRead );
+        }
         event.setCachePageId( toId( pageRef ) );
         setSwapperId( pageRef, swapperId ); // Page now considered isBoundTo( swapper, filePageId )
     }
 
+    /**
+     * Fault a run of adjacent file pages, starting at the given {@code startFilePageId}, into the given pages with a
+     * single vectored read. All the pages must be exclusively locked, and unbound. Like with a single page fault,
+     * pages that are in the compressed tier are taken from there, and only the runs of pages between them are read
+     * from the file.
+     */
+    void fault( long[] pageRefs, PageSwapper swapper, int swapperId, long startFilePageId, PageFaultEvent event )
+            throws IOException
+    {
+        if ( swapper == null )
+        {
+            throw swapperCannotBeNull();
+        }
+        long[] bufferAddresses = new long[pageRefs.length];
+        for ( int i = 0; i < pageRefs.length; i++ )
+        {
+            long pageRef = pageRefs[i];
+            long filePageId = startFilePageId + i;
+            int currentSwapper = getSwapperId( pageRef );
+            long currentFilePageId = getFilePageId( pageRef );
+            if ( !isExclusivelyLocked( pageRef ) || currentSwapper != 0 || currentFilePageId != PageCursor.UNBOUND_PAGE_ID )
+            {
+                throw cannotFaultException( pageRef, swapper, swapperId, filePageId, currentSwapper, currentFilePageId );
+            }
+            // See the comment in the single page fault method, about why we assign the filePageId first.
+            setFilePageId( pageRef, filePageId );
+            bufferAddresses[i] = getAddress( pageRef );
+        }
+        long bytesRead = 0;
+        int runStart = 0;
+        if ( compressedTier != null )
+        {
+            for ( int i = 0; i < bufferAddresses.length; i++ )
+            {
+                if ( compressedTier.read( swapperId, startFilePageId + i, bufferAddresses[i] ) )
+                {
+                    bytesRead += read( swapper, startFilePageId, bufferAddresses, runStart, i );
+                    runStart = i + 1;
+                }
+            }
+        }
+        bytesRead += read( swapper, startFilePageId, bufferAddresses, runStart, bufferAddresses.length );
+        event.addBytesRead( bytesRead );
+        event.setCachePageId( toId( pageRefs[0] ) );
+        for ( long pageRef : pageRefs )
+        {
+            setSwapperId( pageRef, swapperId );
+        }
+    }
+
+    /**
+     * Read the file pages for the buffers from index {@code from}, inclusive, to {@code to}, exclusive, with a single
+     * vectored read, if there are any.
+     */
+    private long read( PageSwapper swapper, long startFilePageId, long[] bufferAddresses, int from, int to ) throws IOException
+    {
+        return from < to ? swapper.read( startFilePageId + from, bufferAddresses, cachePageSize, from, to - from ) : 0;
+    }
+
     private static IllegalArgumentException swapperCannotBeNull()
     {
         return new IllegalArgumentException( "swapper cannot be null" );
@@ -474,6 +555,46 @@ class PageList
         return false;
     }
 
+    /**
+     * Evict the given page, if it is still bound to the given file page, without putting it in the compressed tier.
+     * Used when the file page is about to stop existing, because the file is being truncated. The page is still
+     * written back if it is modified, since the truncation can fail on a later page, and then the file is left as it
+     * was. Like with {@link #tryEvict(long, EvictionEventOpportunity)}, the page is left exclusively locked if it was
+     * discarded.
+     *
+     * @return {@code true} if the page was discarded.
+     * @throws IOException if the modified page could not be written back, in which case it is left unlocked.
+     */
+    boolean tryDiscard( long pageRef, int swapperId, long filePageId, EvictionEventOpportunity evictionOpportunity ) throws IOException
+    {
+        if ( tryExclusiveLock( pageRef ) )
+        {
+            if ( isBoundTo( pageRef, swapperId, filePageId ) )
+            {
+                try ( EvictionEvent evictionEvent = evictionOpportunity.beginEviction() )
+                {
+                    evictionEvent.setFilePageId( filePageId );
+                    evictionEvent.setCachePageId( pageRef );
+                    SwapperSet.SwapperMapping swapperMapping = swappers.getAllocation( swapperId );
+                    if ( swapperMapping != null )
+                    {
+                        evictionEvent.setSwapper( swapperMapping.swapper );
+                        if ( isModified( pageRef ) )
+                        {
+                            flushModifiedPage( pageRef, evictionEvent, filePageId, swapperMapping.swapper );
+                        }
+                        swapperMapping.swapper.evicted( filePageId );
+                    }
+                    explicitlyMarkPageUnmodifiedUnderExclusiveLock( pageRef );
+                    clearBinding( pageRef );
+                    return true;
+                }
+            }
+            unlockExclusive( pageRef );
+        }
+        return false;
+    }
+
     private void evict( long pageRef, EvictionEvent evictionEvent ) throws IOException
     {
         long filePageId = getFilePageId( pageRef );
@@ -495,6 +616,11 @@ class PageList
                 {
                     flushModifiedPage( pageRef, evictionEvent, filePageId, swapper );
                 }
+                if ( compressedTier != null )
+                {
+                    // The page is clean now, so the compressed copy will be the same as what is in the file.
+                    compressedTier.put( swapperId, filePageId, getAddress( pageRef ) );
+                }
                 swapper.evicted( filePageId );
             }
         }
@@ -523,7 +649,43 @@ class PageList
         }
     }
 
-    private void clearBinding( long pageRef )
+    /**
+     * Write the given page back to its file, if it is loaded and modified, without evicting it. This takes the flush
+     * lock on the page, so the page can still be read and written concurrently. If the page is written to while it
+     * is being flushed, then it stays modified.
+     *
+     * @return the number of bytes written, or zero if the page was not flushed.
+     */
+    long tryFlush( long pageRef ) throws IOException
+    {
+        long stamp = tryFlushLock( pageRef );
+        if ( stamp == 0 )
+        {
+            return 0;
+        }
+        boolean success = false;
+        long bytesWritten = 0;
+        try
+        {
+            int swapperId = getSwapperId( pageRef );
+            if ( swapperId != 0 && isModified( pageRef ) )
+            {
+                SwapperSet.SwapperMapping swapperMapping = swappers.getAllocation( swapperId );
+                if ( swapperMapping != null )
+                {
+                    bytesWritten = swapperMapping.swapper.write( getFilePageId( pageRef ), getAddress( pageRef ) );
+                    success = true;
+                }
+            }
+        }
+        finally
+        {
+            unlockFlush( pageRef, stamp, success );
+        }
+        return bytesWritten;
+    }
+
+    void clearBinding( long pageRef )
     {
         UnsafeUtil.putLong( offPageBinding( pageRef ), UNBOUND_PAGE_BINDING );
     }
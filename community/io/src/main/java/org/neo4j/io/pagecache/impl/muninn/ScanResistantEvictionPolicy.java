@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+/**
+ * A scan resistant eviction policy, loosely modelled on CLOCK-Pro.
+ * <p>
+ * Pages whose usage counter is at most 1 have only been touched once since the clock hand last passed them, and are
+ * considered <em>cold</em>. All other pages are <em>hot</em>. The clock hand evicts the cold pages it finds, but only
+ * starts ageing hot pages once it has passed a large number of hot pages in a row without finding a cold one. A large
+ * sequential scan, which touches each of its pages only once, will therefore mostly end up evicting its own pages
+ * rather than the hot working set.
+ * <p>
+ * The policy also keeps a bounded and lossy history of recently evicted pages; the "non-resident cold pages" of
+ * CLOCK-Pro, or the A1out queue of 2Q. A page that is faulted back in while it still has such a ghost entry, has a
+ * reuse distance that is shorter than the size of the cache, and is promoted straight to hot.
+ */
+final class ScanResistantEvictionPolicy implements EvictionPolicy
+{
+    // Upper bound on the on-heap ghost history, which is 8 bytes per entry. 2^22 entries is 32 MiB.
+    private static final int MAX_GHOST_ENTRIES = 1 << 22;
+    private static final int MIN_GHOST_ENTRIES = 64;
+    private static final long EMPTY_GHOST = 0;
+    private static final int SWAPPER_ID_BITS = 21;
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private final PageList pages;
+    private final long[] ghosts;
+    private final int ghostShift;
+    private final int hotPageSkipLimit;
+    // The number of hot pages passed by the clock hands since the last cold page was found. This is intentionally
+    // left benignly racy, since it is only used as a heuristic for when to start ageing the hot pages.
+    private int hotPagesSkipped;
+
+    ScanResistantEvictionPolicy( PageList pages )
+    {
+        this.pages = pages;
+        int pageCount = pages.getPageCount();
+        int ghostEntries = Math.max( MIN_GHOST_ENTRIES, Integer.highestOneBit( Math.min( pageCount, MAX_GHOST_ENTRIES ) ) );
+        this.ghosts = new long[ghostEntries];
+        this.ghostShift = Long.SIZE - Integer.numberOfTrailingZeros( ghostEntries );
+        this.hotPageSkipLimit = Math.max( 1, pageCount / 8 );
+    }
+
+    @Override
+    public boolean shouldEvict( long pageRef )
+    {
+        if ( pages.getUsageCounter( pageRef ) <= 1 )
+        {
+            hotPagesSkipped = 0;
+            return pages.decrementUsage( pageRef );
+        }
+        if ( hotPagesSkipped < hotPageSkipLimit )
+        {
+            hotPagesSkipped++;
+            return false;
+        }
+        // We have not been able to find any cold pages in a long while, so we start ageing the hot pages.
+        return pages.decrementUsage( pageRef );
+    }
+
+    @Override
+    public void faulted( long pageRef, int swapperId, long filePageId )
+    {
+        long key = ghostKey( swapperId, filePageId );
+        int index = ghostIndex( key );
+        if ( ghosts[index] == key )
+        {
+            ghosts[index] = EMPTY_GHOST;
+            // The pin that follows the fault will increment the usage counter once more, making this page hot.
+            pages.incrementUsage( pageRef );
+        }
+    }
+
+    @Override
+    public void evicted( int swapperId, long filePageId )
+    {
+        long key = ghostKey( swapperId, filePageId );
+        ghosts[ghostIndex( key )] = key;
+    }
+
+    boolean hasGhost( int swapperId, long filePageId )
+    {
+        long key = ghostKey( swapperId, filePageId );
+        return ghosts[ghostIndex( key )] == key;
+    }
+
+    private static long ghostKey( int swapperId, long filePageId )
+    {
+        // The file page id is at most 40 bits, and the swapper id is at most 21 bits, so this never overflows.
+        // The +1 makes sure that no valid key is ever equal to EMPTY_GHOST.
+        return ((filePageId << SWAPPER_ID_BITS) | swapperId) + 1;
+    }
+
+    private int ghostIndex( long key )
+    {
+        return (int) ((key * HASH_MULTIPLIER) >>> ghostShift);
+    }
+}
@@ -83,6 +83,41 @@ public interface PageCacheCounters
      */
     long evictionExceptions();
 
+    /**
+     * @return The number of pages that were speculatively faulted in by read-ahead thus far.
+     */
+    long readAheadPages();
+
+    /**
+     * @return The number of page hits on pages that had been faulted in by read-ahead thus far.
+     */
+    long readAheadHits();
+
+    /**
+     * @return The number of read-ahead attempts that failed and were abandoned thus far.
+     */
+    long readAheadFailures();
+
+    /**
+     * @return The number of dirty pages seen by the most recent sweep of the background page writer.
+     */
+    long dirtyPages();
+
+    /**
+     * @return The number of pages written out by the background page writer thus far.
+     */
+    long backgroundWrites();
+
+    /**
+     * @return The number of page faults that were served by the compressed page tier thus far.
+     */
+    long compressedTierHits();
+
+    /**
+     * @return The number of page faults that could not be served by the compressed page tier thus far.
+     */
+    long compressedTierMisses();
+
     /**
      * @return The cache hit ratio observed thus far.
      */
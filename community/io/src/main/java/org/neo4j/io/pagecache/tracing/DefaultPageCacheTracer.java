@@ -46,6 +46,13 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     protected final LongAdder filesMapped = new LongAdder();
     protected final LongAdder filesUnmapped = new LongAdder();
     protected final LongAdder evictionExceptions = new LongAdder();
+    protected final LongAdder readAheadPages = new LongAdder();
+    protected final LongAdder readAheadHits = new LongAdder();
+    protected final LongAdder readAheadFailures = new LongAdder();
+    protected final AtomicLong dirtyPages = new AtomicLong();
+    protected final LongAdder backgroundWrites = new LongAdder();
+    protected final LongAdder compressedTierHits = new LongAdder();
+    protected final LongAdder compressedTierMisses = new LongAdder();
     protected final AtomicLong maxPages = new AtomicLong();
 
     private final FlushEvent flushEvent = new FlushEvent()
@@ -236,6 +243,48 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         return evictionExceptions.sum();
     }
 
+    @Override
+    public long readAheadPages()
+    {
+        return readAheadPages.sum();
+    }
+
+    @Override
+    public long readAheadHits()
+    {
+        return readAheadHits.sum();
+    }
+
+    @Override
+    public long readAheadFailures()
+    {
+        return readAheadFailures.sum();
+    }
+
+    @Override
+    public long dirtyPages()
+    {
+        return dirtyPages.get();
+    }
+
+    @Override
+    public long backgroundWrites()
+    {
+        return backgroundWrites.sum();
+    }
+
+    @Override
+    public long compressedTierHits()
+    {
+        return compressedTierHits.sum();
+    }
+
+    @Override
+    public long compressedTierMisses()
+    {
+        return compressedTierMisses.sum();
+    }
+
     @Override
     public double hitRatio()
     {
@@ -307,6 +356,48 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         this.flushes.add( flushes );
     }
 
+    @Override
+    public void readAheadPages( long pages )
+    {
+        this.readAheadPages.add( pages );
+    }
+
+    @Override
+    public void readAheadHits( long hits )
+    {
+        this.readAheadHits.add( hits );
+    }
+
+    @Override
+    public void readAheadFailures( long failures )
+    {
+        this.readAheadFailures.add( failures );
+    }
+
+    @Override
+    public void dirtyPages( long dirtyPages )
+    {
+        this.dirtyPages.set( dirtyPages );
+    }
+
+    @Override
+    public void backgroundWrites( long pages )
+    {
+        this.backgroundWrites.add( pages );
+    }
+
+    @Override
+    public void compressedTierHits( long hits )
+    {
+        this.compressedTierHits.add( hits );
+    }
+
+    @Override
+    public void compressedTierMisses( long misses )
+    {
+        this.compressedTierMisses.add( misses );
+    }
+
     @Override
     public void maxPages( long maxPages )
     {
@@ -133,6 +133,48 @@ public interface PageCacheTracer extends PageCacheCounters
             return 0;
         }
 
+        @Override
+        public long readAheadPages()
+        {
+            return 0;
+        }
+
+        @Override
+        public long readAheadHits()
+        {
+            return 0;
+        }
+
+        @Override
+        public long readAheadFailures()
+        {
+            return 0;
+        }
+
+        @Override
+        public long dirtyPages()
+        {
+            return 0;
+        }
+
+        @Override
+        public long backgroundWrites()
+        {
+            return 0;
+        }
+
+        @Override
+        public long compressedTierHits()
+        {
+            return 0;
+        }
+
+        @Override
+        public long compressedTierMisses()
+        {
+            return 0;
+        }
+
         @Override
         public double hitRatio()
         {
@@ -190,6 +232,41 @@ public interface PageCacheTracer extends PageCacheCounters
         {
         }
 
+        @Override
+        public void readAheadPages( long pages )
+        {
+        }
+
+        @Override
+        public void readAheadHits( long hits )
+        {
+        }
+
+        @Override
+        public void readAheadFailures( long failures )
+        {
+        }
+
+        @Override
+        public void dirtyPages( long dirtyPages )
+        {
+        }
+
+        @Override
+        public void backgroundWrites( long pages )
+        {
+        }
+
+        @Override
+        public void compressedTierHits( long hits )
+        {
+        }
+
+        @Override
+        public void compressedTierMisses( long misses )
+        {
+        }
+
         @Override
         public void maxPages( long maxPages )
         {
@@ -285,6 +362,48 @@ public interface PageCacheTracer extends PageCacheCounters
      */
     void flushes( long flushes );
 
+    /**
+     * Report number of pages faulted in by read-ahead
+     * @param pages number of pages read ahead
+     */
+    void readAheadPages( long pages );
+
+    /**
+     * Report number of page hits on pages that were faulted in by read-ahead
+     * @param hits number of read-ahead hits
+     */
+    void readAheadHits( long hits );
+
+    /**
+     * Report number of read-ahead attempts that failed and were abandoned
+     * @param failures number of failed read-ahead attempts
+     */
+    void readAheadFailures( long failures );
+
+    /**
+     * Report the number of dirty pages seen by a sweep of the background page writer
+     * @param dirtyPages number of dirty pages
+     */
+    void dirtyPages( long dirtyPages );
+
+    /**
+     * Report number of pages written out by the background page writer
+     * @param pages number of pages written
+     */
+    void backgroundWrites( long pages );
+
+    /**
+     * Report number of page faults that were served by the compressed page tier
+     * @param hits number of compressed tier hits
+     */
+    void compressedTierHits( long hits );
+
+    /**
+     * Report number of page faults that could not be served by the compressed page tier
+     * @param misses number of compressed tier misses
+     */
+    void compressedTierMisses( long misses );
+
     /**
      * Sets the number of available pages.
      * @param maxPages the total number of available pages.
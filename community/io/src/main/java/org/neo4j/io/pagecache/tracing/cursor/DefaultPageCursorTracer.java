@@ -46,6 +46,9 @@ public class DefaultPageCursorTracer implements PageCursorTracer
     private long evictions;
     private long evictionExceptions;
     private long flushes;
+    private long readAheadPages;
+    private long readAheadHits;
+    private long readAheadFailures;
 
     private PageCacheTracer pageCacheTracer = PageCacheTracer.NULL;
     private DefaultPinEvent pinTracingEvent = new DefaultPinEvent();
@@ -97,6 +100,18 @@ public class DefaultPageCursorTracer implements PageCursorTracer
         {
             pageCacheTracer.flushes( flushes );
         }
+        if ( readAheadPages > 0 )
+        {
+            pageCacheTracer.readAheadPages( readAheadPages );
+        }
+        if ( readAheadHits > 0 )
+        {
+            pageCacheTracer.readAheadHits( readAheadHits );
+        }
+        if ( readAheadFailures > 0 )
+        {
+            pageCacheTracer.readAheadFailures( readAheadFailures );
+        }
         reset();
     }
 
@@ -123,6 +138,9 @@ public class DefaultPageCursorTracer implements PageCursorTracer
         evictions = 0;
         evictionExceptions = 0;
         flushes = 0;
+        readAheadPages = 0;
+        readAheadHits = 0;
+        readAheadFailures = 0;
     }
 
     @Override
@@ -179,6 +197,24 @@ public class DefaultPageCursorTracer implements PageCursorTracer
         return flushes;
     }
 
+    @Override
+    public long readAheadPages()
+    {
+        return readAheadPages;
+    }
+
+    @Override
+    public long readAheadHits()
+    {
+        return readAheadHits;
+    }
+
+    @Override
+    public long readAheadFailures()
+    {
+        return readAheadFailures;
+    }
+
     @Override
     public double hitRatio()
     {
@@ -193,6 +229,24 @@ public class DefaultPageCursorTracer implements PageCursorTracer
         return pinTracingEvent;
     }
 
+    @Override
+    public void readAheadPages( long pages )
+    {
+        readAheadPages += pages;
+    }
+
+    @Override
+    public void readAheadHits( long hits )
+    {
+        readAheadHits += hits;
+    }
+
+    @Override
+    public void readAheadFailures( long failures )
+    {
+        readAheadFailures += failures;
+    }
+
     private final EvictionEvent evictionEvent = new EvictionEvent()
     {
         @Override
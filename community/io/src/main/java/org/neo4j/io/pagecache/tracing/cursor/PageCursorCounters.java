@@ -77,6 +77,21 @@ public interface PageCursorCounters
      */
     long flushes();
 
+    /**
+     * @return The number of pages that were speculatively faulted in by read-ahead thus far.
+     */
+    long readAheadPages();
+
+    /**
+     * @return The number of page hits on pages that had been faulted in by read-ahead thus far.
+     */
+    long readAheadHits();
+
+    /**
+     * @return The number of read-ahead attempts that failed and were abandoned thus far.
+     */
+    long readAheadFailures();
+
     /**
      * @return The hit ratio observed thus far.
      */
@@ -94,12 +94,45 @@ public interface PageCursorTracer extends PageCursorCounters
             return 0;
         }
 
+        @Override
+        public long readAheadPages()
+        {
+            return 0;
+        }
+
+        @Override
+        public long readAheadHits()
+        {
+            return 0;
+        }
+
+        @Override
+        public long readAheadFailures()
+        {
+            return 0;
+        }
+
         @Override
         public double hitRatio()
         {
             return 0d;
         }
 
+        @Override
+        public void readAheadPages( long pages )
+        {
+        }
+
+        @Override
+        public void readAheadHits( long hits )
+        {
+        }
+
+        @Override
+        public void readAheadFailures( long failures )
+        {
+        }
+
         @Override
         public PinEvent beginPin( boolean writeLock, long filePageId, PageSwapper swapper )
         {
@@ -133,6 +166,25 @@ public interface PageCursorTracer extends PageCursorCounters
 
     PinEvent beginPin( boolean writeLock, long filePageId, PageSwapper swapper );
 
+    /**
+     * Report that the given number of pages were speculatively faulted in by read-ahead.
+     * @param pages number of pages read ahead
+     */
+    void readAheadPages( long pages );
+
+    /**
+     * Report page hits on pages that had been faulted in by read-ahead.
+     * @param hits number of read-ahead hits
+     */
+    void readAheadHits( long hits );
+
+    /**
+     * Report read-ahead attempts that failed and were abandoned. A failed read-ahead does not fail the pin it
+     * was started from.
+     * @param failures number of failed read-ahead attempts
+     */
+    void readAheadFailures( long failures );
+
     /**
      * Initialize page cursor tracer with required context dependent values.
      * @param tracer page cache tracer
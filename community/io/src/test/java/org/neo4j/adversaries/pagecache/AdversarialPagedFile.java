@@ -103,6 +103,19 @@ public class AdversarialPagedFile implements PagedFile
         return delegate.getLastPageId();
     }
 
+    @Override
+    public void truncate( long pagesToKeep ) throws IOException
+    {
+        adversary.injectFailure( FileNotFoundException.class, IOException.class, SecurityException.class );
+        delegate.truncate( pagesToKeep );
+    }
+
+    @Override
+    public long residentPages()
+    {
+        return delegate.residentPages();
+    }
+
     @Override
     public void close() throws IOException
     {
@@ -123,6 +123,7 @@ class DatabaseLayoutTest
         assertEquals( "neostore.relationshipstore.db", layout.relationshipStore().getName() );
         assertEquals( "neostore.relationshiptypestore.db", layout.relationshipTypeTokenStore().getName() );
         assertEquals( "neostore.relationshiptypestore.db.names", layout.relationshipTypeTokenNamesStore().getName() );
+        assertEquals( "neostore.relationshiptypescanstore.db", layout.relationshipTypeScanStore().getName() );
         assertEquals( "neostore.schemastore.db", layout.schemaStore().getName() );
     }
 
@@ -87,6 +87,12 @@ public class DelegatingPageSwapper implements PageSwapper
         delegate.truncate();
     }
 
+    @Override
+    public void truncate( long pagesToKeep ) throws IOException
+    {
+        delegate.truncate( pagesToKeep );
+    }
+
     @Override
     public void closeAndDelete() throws IOException
     {
@@ -52,6 +52,18 @@ public class DelegatingPagedFile implements PagedFile
         return delegate.getLastPageId();
     }
 
+    @Override
+    public void truncate( long pagesToKeep ) throws IOException
+    {
+        delegate.truncate( pagesToKeep );
+    }
+
+    @Override
+    public long residentPages()
+    {
+        return delegate.residentPages();
+    }
+
     @Override
     public int pageSize()
     {
@@ -2783,6 +2783,97 @@ public abstract class PageCacheTest<T extends PageCache> extends PageCacheTestSu
         assertThrows( FileIsNotMappedException.class, file::getLastPageId );
     }
 
+    @Test
+    void truncateMustDropPagesBeyondNewEndOfFile() throws IOException
+    {
+        configureStandardPageCache();
+        File file = file( "a" );
+        generateFileWithRecords( file, recordsPerFilePage * 10, recordSize );
+        try ( PagedFile pagedFile = map( file, filePageSize ) )
+        {
+            dirtyManyPages( pagedFile, 15 );
+            pagedFile.truncate( 4 );
+            assertThat( pagedFile.getLastPageId(), is( 3L ) );
+            assertThat( fs.getFileSize( file ), is( 4L * filePageSize ) );
+
+            try ( PageCursor cursor = pagedFile.io( 4, PF_SHARED_READ_LOCK ) )
+            {
+                assertFalse( cursor.next() );
+            }
+        }
+        assertThat( fs.getFileSize( file ), is( 4L * filePageSize ) );
+    }
+
+    @Test
+    void truncateMustKeepPagesBeforeNewEndOfFile() throws IOException
+    {
+        configureStandardPageCache();
+        File file = file( "a" );
+        generateFileWithRecords( file, recordsPerFilePage * 10, recordSize );
+        try ( PagedFile pagedFile = map( file, filePageSize ) )
+        {
+            pagedFile.truncate( 5 );
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+            {
+                for ( int i = 0; i < 5; i++ )
+                {
+                    assertTrue( cursor.next() );
+                    verifyRecordsMatchExpected( cursor );
+                }
+                assertFalse( cursor.next() );
+            }
+
+            // Writing beyond the new end of the file extends it again.
+            try ( PageCursor cursor = pagedFile.io( 7, PF_SHARED_WRITE_LOCK ) )
+            {
+                assertTrue( cursor.next() );
+            }
+            assertThat( pagedFile.getLastPageId(), is( 7L ) );
+        }
+    }
+
+    @Test
+    void truncateMustWaitForPinnedPagesBeyondNewEndOfFile() throws Exception
+    {
+        configureStandardPageCache();
+        File file = file( "a" );
+        generateFileWithRecords( file, recordsPerFilePage * 10, recordSize );
+        try ( PagedFile pagedFile = map( file, filePageSize ) )
+        {
+            Future<?> truncation;
+            try ( PageCursor cursor = pagedFile.io( 7, PF_SHARED_WRITE_LOCK ) )
+            {
+                assertTrue( cursor.next() );
+                truncation = executor.submit( () ->
+                {
+                    pagedFile.truncate( 4 );
+                    return null;
+                } );
+                Thread.sleep( 10 );
+                assertFalse( truncation.isDone() );
+            }
+            truncation.get();
+            assertThat( pagedFile.getLastPageId(), is( 3L ) );
+        }
+        assertThat( fs.getFileSize( file ), is( 4L * filePageSize ) );
+    }
+
+    @Test
+    void truncateMustOnlyEverShrinkFile() throws IOException
+    {
+        configureStandardPageCache();
+        File file = file( "a" );
+        generateFileWithRecords( file, recordsPerFilePage * 10, recordSize );
+        try ( PagedFile pagedFile = map( file, filePageSize ) )
+        {
+            pagedFile.truncate( 20 );
+            assertThat( pagedFile.getLastPageId(), is( 9L ) );
+            pagedFile.truncate( 0 );
+            assertThat( pagedFile.getLastPageId(), lessThan( 0L ) );
+        }
+        assertThat( fs.getFileSize( file ), is( 0L ) );
+    }
+
     @Test
     void cursorOffsetMustBeUpdatedReadAndWrite() throws IOException
     {
@@ -567,6 +567,38 @@ public abstract class PageSwapperTest
         swapper.close();
     }
 
+    @Test
+    void truncatingToNumberOfPagesMustKeepPagesBeforeThem() throws Exception
+    {
+        File file = file( "file" );
+        PageSwapperFactory factory = createSwapperFactory();
+        PageSwapper swapper = createSwapperAndFile( factory, file );
+
+        long page = createPage();
+        putInt( page, 0, 0xcafebabe );
+        write( swapper, 3, page );
+        putInt( page, 0, 0xdeadbeef );
+        write( swapper, 10, page );
+        assertThat( swapper.getLastPageId(), is( 10L ) );
+
+        swapper.truncate( 20 );
+        assertThat( swapper.getLastPageId(), is( 10L ) );
+
+        swapper.truncate( 4 );
+        assertThat( swapper.getLastPageId(), is( 3L ) );
+        clear( page );
+        read( swapper, 3, sizeOfAsInt( page ), page );
+        assertThat( getInt( page, 0 ), is( 0xcafebabe ) );
+        clear( page );
+        read( swapper, 10, sizeOfAsInt( page ), page );
+        assertThat( getInt( page, 0 ), is( 0 ) );
+
+        swapper.close();
+        swapper = createSwapper( factory, file, cachePageSize(), NO_CALLBACK, false, false );
+        assertThat( swapper.getLastPageId(), is( 3L ) );
+        swapper.close();
+    }
+
     @Test
     void positionedVectoredWriteMustFlushAllBuffersInOrder() throws Exception
     {
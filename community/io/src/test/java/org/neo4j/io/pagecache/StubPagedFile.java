@@ -88,6 +88,18 @@ public class StubPagedFile implements PagedFile
         return lastPageId;
     }
 
+    @Override
+    public void truncate( long pagesToKeep )
+    {
+        lastPageId = Math.min( lastPageId, pagesToKeep - 1 );
+    }
+
+    @Override
+    public long residentPages()
+    {
+        return 0;
+    }
+
     @Override
     public void close()
     {
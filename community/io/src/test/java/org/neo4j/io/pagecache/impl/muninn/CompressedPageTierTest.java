@@ -0,0 +1,315 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.eclipse.collections.impl.factory.primitive.IntSets;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
+import org.neo4j.memory.GlobalMemoryTracker;
+import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressedPageTierTest
+{
+    private static final int PAGE_SIZE = 8192;
+
+    private DefaultPageCacheTracer tracer;
+    private CompressedPageTier tier;
+    private long page;
+
+    @BeforeEach
+    void setUp()
+    {
+        tracer = new DefaultPageCacheTracer();
+        tier = CompressedPageTier.create( 1024 * 1024, PAGE_SIZE, tracer );
+        assertNotNull( tier );
+        page = UnsafeUtil.allocateMemory( PAGE_SIZE, GlobalMemoryTracker.INSTANCE );
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        tier.close();
+        UnsafeUtil.free( page, PAGE_SIZE, GlobalMemoryTracker.INSTANCE );
+    }
+
+    @Test
+    void mustNotCreateTierWithoutCapacity()
+    {
+        assertNull( CompressedPageTier.create( 0, PAGE_SIZE, tracer ) );
+    }
+
+    @Test
+    void mustReadBackPagesThatWerePutInTheTier()
+    {
+        fill( page, 42 );
+        tier.put( 1, 7, page );
+
+        fill( page, 0 );
+        assertTrue( tier.read( 1, 7, page ) );
+        assertFilled( page, 42 );
+        assertEquals( 1, tracer.compressedTierHits() );
+        assertEquals( 0, tracer.compressedTierMisses() );
+    }
+
+    @Test
+    void mustTakePagesOutOfTheTierWhenTheyAreRead()
+    {
+        fill( page, 42 );
+        tier.put( 1, 7, page );
+
+        assertTrue( tier.read( 1, 7, page ) );
+        assertFalse( tier.read( 1, 7, page ) );
+        assertEquals( 1, tracer.compressedTierHits() );
+        assertEquals( 1, tracer.compressedTierMisses() );
+    }
+
+    @Test
+    void mustKeepPagesOfDifferentFilesApart()
+    {
+        fill( page, 1 );
+        tier.put( 1, 7, page );
+        fill( page, 2 );
+        tier.put( 2, 7, page );
+
+        assertFalse( tier.read( 1, 8, page ) );
+        assertTrue( tier.read( 2, 7, page ) );
+        assertFilled( page, 2 );
+        assertTrue( tier.read( 1, 7, page ) );
+        assertFilled( page, 1 );
+    }
+
+    @Test
+    void mustReplaceOlderCopiesOfPages()
+    {
+        fill( page, 1 );
+        tier.put( 1, 7, page );
+        fill( page, 2 );
+        tier.put( 1, 7, page );
+
+        assertTrue( tier.read( 1, 7, page ) );
+        assertFilled( page, 2 );
+    }
+
+    @Test
+    void mustNotKeepPagesThatDoNotCompress()
+    {
+        fill( page, 1 );
+        tier.put( 1, 7, page );
+        ThreadLocalRandom rng = ThreadLocalRandom.current();
+        for ( int i = 0; i < PAGE_SIZE; i++ )
+        {
+            UnsafeUtil.putByte( page + i, (byte) rng.nextInt() );
+        }
+        tier.put( 1, 7, page );
+
+        assertFalse( tier.read( 1, 7, page ) );
+    }
+
+    @Test
+    void mustRemovePagesOfRemovedFiles()
+    {
+        fill( page, 1 );
+        tier.put( 1, 7, page );
+        tier.put( 2, 7, page );
+        tier.put( 3, 7, page );
+
+        tier.removeFiles( IntSets.immutable.of( 1, 3 ) );
+
+        assertFalse( tier.read( 1, 7, page ) );
+        assertTrue( tier.read( 2, 7, page ) );
+        assertFalse( tier.read( 3, 7, page ) );
+    }
+
+    @Test
+    void mustOverwriteOldestPagesWhenFull()
+    {
+        // Pages with varying content, so they compress to entries of different sizes, and wrap the ring at different
+        // offsets.
+        int pageCount = 5_000;
+        for ( int i = 0; i < pageCount; i++ )
+        {
+            fillPattern( page, i );
+            tier.put( 1, i, page );
+        }
+
+        assertFalse( tier.read( 1, 0, page ) );
+        for ( int i = pageCount - 1; i > pageCount - 100; i-- )
+        {
+            assertTrue( tier.read( 1, i, page ), "page " + i );
+            assertPattern( page, i );
+        }
+    }
+
+    @Test
+    void mustNotReadFromClosedTier()
+    {
+        fill( page, 1 );
+        tier.put( 1, 7, page );
+        tier.close();
+
+        tier.put( 1, 8, page );
+        assertFalse( tier.read( 1, 7, page ) );
+        assertFalse( tier.read( 1, 8, page ) );
+    }
+
+    @Test
+    void mustRejectStripeCountsThatAreNotPowersOfTwo()
+    {
+        assertThrows( IllegalArgumentException.class, () -> CompressedPageTier.create( 1024 * 1024, PAGE_SIZE, tracer, 3 ) );
+    }
+
+    @Test
+    void mustNotSplitSmallTiersIntoStripes()
+    {
+        assertEquals( 1, tier.stripeCount() );
+    }
+
+    @Test
+    void mustFindAndRemovePagesInAllStripes()
+    {
+        CompressedPageTier stripedTier = CompressedPageTier.create( 4 * 1024 * 1024, PAGE_SIZE, tracer, 4 );
+        try
+        {
+            for ( int i = 0; i < 100; i++ )
+            {
+                fillPattern( page, i );
+                stripedTier.put( 1, i, page );
+                stripedTier.put( 2, i, page );
+            }
+
+            stripedTier.removeFiles( IntSets.immutable.of( 2 ) );
+            stripedTier.removePages( 1, 50 );
+
+            for ( int i = 0; i < 100; i++ )
+            {
+                assertEquals( i < 50, stripedTier.read( 1, i, page ), "page " + i );
+                if ( i < 50 )
+                {
+                    assertPattern( page, i );
+                }
+                assertFalse( stripedTier.read( 2, i, page ), "page " + i );
+            }
+        }
+        finally
+        {
+            stripedTier.close();
+        }
+    }
+
+    @Test
+    void mustServeConcurrentEvictionsAndFaults() throws Exception
+    {
+        int threads = 4;
+        int pagesPerThread = 200;
+        CompressedPageTier stripedTier = CompressedPageTier.create( 16 * 1024 * 1024, PAGE_SIZE, tracer, 8 );
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        try
+        {
+            List<Future<?>> futures = new ArrayList<>();
+            for ( int t = 0; t < threads; t++ )
+            {
+                int swapperId = t + 1;
+                futures.add( executor.submit( () ->
+                {
+                    long threadPage = UnsafeUtil.allocateMemory( PAGE_SIZE, GlobalMemoryTracker.INSTANCE );
+                    try
+                    {
+                        for ( int i = 0; i < pagesPerThread; i++ )
+                        {
+                            fillPattern( threadPage, swapperId * i );
+                            stripedTier.put( swapperId, i, threadPage );
+                        }
+                        for ( int i = 0; i < pagesPerThread; i++ )
+                        {
+                            assertTrue( stripedTier.read( swapperId, i, threadPage ), "page " + i );
+                            assertPattern( threadPage, swapperId * i );
+                        }
+                    }
+                    finally
+                    {
+                        UnsafeUtil.free( threadPage, PAGE_SIZE, GlobalMemoryTracker.INSTANCE );
+                    }
+                    return null;
+                } ) );
+            }
+            for ( Future<?> future : futures )
+            {
+                future.get();
+            }
+            assertEquals( threads * pagesPerThread, tracer.compressedTierHits() );
+        }
+        finally
+        {
+            executor.shutdown();
+            stripedTier.close();
+        }
+    }
+
+    private static void fill( long address, int value )
+    {
+        UnsafeUtil.setMemory( address, PAGE_SIZE, (byte) value );
+    }
+
+    private static void assertFilled( long address, int value )
+    {
+        for ( int i = 0; i < PAGE_SIZE; i++ )
+        {
+            assertEquals( (byte) value, UnsafeUtil.getByte( address + i ) );
+        }
+    }
+
+    private static void fillPattern( long address, int seed )
+    {
+        int runLength = 1 + seed % 13;
+        for ( int i = 0; i < PAGE_SIZE; i++ )
+        {
+            UnsafeUtil.putByte( address + i, (byte) (seed + i / runLength) );
+        }
+    }
+
+    private static void assertPattern( long address, int seed )
+    {
+        int runLength = 1 + seed % 13;
+        for ( int i = 0; i < PAGE_SIZE; i++ )
+        {
+            assertEquals( (byte) (seed + i / runLength), UnsafeUtil.getByte( address + i ) );
+        }
+    }
+}
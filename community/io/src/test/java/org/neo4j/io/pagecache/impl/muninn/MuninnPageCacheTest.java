@@ -42,6 +42,7 @@ import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.OpenMode;
 import org.neo4j.io.fs.StoreChannel;
 import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCacheQuota;
 import org.neo4j.io.pagecache.PageCacheTest;
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.PageSwapper;
@@ -52,6 +53,7 @@ import org.neo4j.io.pagecache.tracing.DelegatingPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.DefaultPageCursorTracer;
 import org.neo4j.io.pagecache.tracing.cursor.DefaultPageCursorTracerSupplier;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContext;
@@ -59,19 +61,24 @@ import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
 import org.neo4j.io.pagecache.tracing.recording.RecordingPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.recording.RecordingPageCursorTracer;
 import org.neo4j.io.pagecache.tracing.recording.RecordingPageCursorTracer.Fault;
+import org.neo4j.util.FeatureToggles;
 
 import static java.time.Duration.ofMillis;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTimeout;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.neo4j.io.pagecache.PagedFile.PF_NO_GROW;
+import static org.neo4j.io.pagecache.PagedFile.PF_READ_AHEAD;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_TRANSIENT;
 import static org.neo4j.io.pagecache.tracing.recording.RecordingPageCacheTracer.Evict;
 
 public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
@@ -155,6 +162,339 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
         }
     }
 
+    @Test
+    void transientCursorsMustNotPromotePages() throws Exception
+    {
+        writeInitialDataTo( file( "a" ) );
+        RecordingPageCacheTracer tracer = new RecordingPageCacheTracer();
+
+        try ( MuninnPageCache pageCache = createPageCache( fs, 2, blockCacheFlush( tracer ), DefaultPageCursorTracerSupplier.NULL );
+                PagedFile pagedFile = map( pageCache, file( "a" ), 8 ) )
+        {
+            for ( int i = 0; i < 3; i++ )
+            {
+                try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_TRANSIENT ) )
+                {
+                    assertTrue( cursor.next() );
+                }
+            }
+
+            // The page is evicted the first time the clock hand visits it, because its usage counter was never raised.
+            long clockArm = pageCache.evictPages( 1, 0, tracer.beginPageEvictions( 1 ) );
+            assertThat( clockArm, is( 1L ) );
+            assertNotNull( tracer.observe( Evict.class ) );
+        }
+    }
+
+    @Test
+    void readAheadMustFaultInFollowingPagesWithTheSameRead() throws Exception
+    {
+        int filePageSize = 8;
+        int filePages = 100;
+        try ( MuninnPageCache pageCache = createPageCache( fs, 2048, PageCacheTracer.NULL, DefaultPageCursorTracerSupplier.NULL );
+              PagedFile pagedFile = map( pageCache, file( "a" ), filePageSize ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+            {
+                for ( long i = 0; i < filePages; i++ )
+                {
+                    assertTrue( cursor.next() );
+                    cursor.putLong( i );
+                }
+            }
+        }
+
+        DefaultPageCursorTracer cursorTracer = new DefaultPageCursorTracer();
+        ConfigurablePageCursorTracerSupplier<DefaultPageCursorTracer> cursorTracerSupplier = new ConfigurablePageCursorTracerSupplier<>( cursorTracer );
+        try ( MuninnPageCache pageCache = createPageCache( fs, 2048, PageCacheTracer.NULL, cursorTracerSupplier );
+              PagedFile pagedFile = map( pageCache, file( "a" ), filePageSize ) )
+        {
+            int readAheadPages = pageCache.readAheadPages;
+            assertTrue( readAheadPages > 1 );
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_READ_AHEAD ) )
+            {
+                for ( long i = 0; i < filePages; i++ )
+                {
+                    assertTrue( cursor.next() );
+                    long value;
+                    do
+                    {
+                        value = cursor.getLong();
+                    }
+                    while ( cursor.shouldRetry() );
+                    assertEquals( i, value );
+                }
+            }
+
+            long expectedReadAheadPages = filePages - (filePages + readAheadPages) / (readAheadPages + 1);
+            assertEquals( expectedReadAheadPages, cursorTracer.readAheadPages() );
+            assertEquals( expectedReadAheadPages, cursorTracer.readAheadHits() );
+            assertEquals( expectedReadAheadPages, cursorTracer.hits() );
+        }
+    }
+
+    @Test
+    void readAheadMustNotBeDoneByCursorsWithoutReadAheadFlag() throws Exception
+    {
+        writeInitialDataTo( file( "a" ) );
+        DefaultPageCursorTracer cursorTracer = new DefaultPageCursorTracer();
+        ConfigurablePageCursorTracerSupplier<DefaultPageCursorTracer> cursorTracerSupplier = new ConfigurablePageCursorTracerSupplier<>( cursorTracer );
+        try ( MuninnPageCache pageCache = createPageCache( fs, 2048, PageCacheTracer.NULL, cursorTracerSupplier );
+              PagedFile pagedFile = map( pageCache, file( "a" ), 8 ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+            {
+                assertTrue( cursor.next() );
+                assertTrue( cursor.next() );
+            }
+            assertEquals( 0, cursorTracer.readAheadPages() );
+            assertEquals( 2, cursorTracer.faults() );
+        }
+    }
+
+    @Test
+    void failedReadAheadMustNotFailThePinThatStartedIt() throws Exception
+    {
+        writeInitialDataTo( file( "a" ) );
+        MutableBoolean throwException = new MutableBoolean( true );
+        FileSystemAbstraction fs = new DelegatingFileSystemAbstraction( this.fs )
+        {
+            @Override
+            public StoreChannel open( File fileName, OpenMode openMode ) throws IOException
+            {
+                return new DelegatingStoreChannel( super.open( fileName, openMode ) )
+                {
+                    @Override
+                    public int read( ByteBuffer dst, long position ) throws IOException
+                    {
+                        if ( position > 0 && throwException.booleanValue() )
+                        {
+                            throw new IOException( "uh-oh..." );
+                        }
+                        return super.read( dst, position );
+                    }
+                };
+            }
+        };
+        DefaultPageCursorTracer cursorTracer = new DefaultPageCursorTracer();
+        ConfigurablePageCursorTracerSupplier<DefaultPageCursorTracer> cursorTracerSupplier = new ConfigurablePageCursorTracerSupplier<>( cursorTracer );
+        try ( MuninnPageCache pageCache = createPageCache( fs, 2048, PageCacheTracer.NULL, cursorTracerSupplier );
+              PagedFile pagedFile = map( pageCache, file( "a" ), 8 );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_READ_AHEAD ) )
+        {
+            assertTrue( cursor.next() );
+            assertEquals( x, cursor.getLong() );
+            assertEquals( 1, cursorTracer.readAheadFailures() );
+            assertEquals( 0, cursorTracer.readAheadPages() );
+            assertEquals( 1, cursorTracer.faults() );
+
+            // The page that could not be read ahead is faulted in the ordinary way.
+            throwException.setFalse();
+            assertTrue( cursor.next() );
+            assertEquals( y, cursor.getLong() );
+            assertEquals( 2, cursorTracer.faults() );
+        }
+    }
+
+    @Test
+    void residentPagesMustCountPagesThatAreFaultedInAndEvicted() throws Exception
+    {
+        try ( MuninnPageCache pageCache = createPageCache( fs, 8, PageCacheTracer.NULL, DefaultPageCursorTracerSupplier.NULL );
+              PagedFile pagedFile = map( pageCache, file( "a" ), 8 ) )
+        {
+            touch( pagedFile, 0, 1 );
+            touch( pagedFile, 1, 1 );
+            touch( pagedFile, 0, 1 );
+            assertEquals( 2, pagedFile.residentPages() );
+
+            pageCache.evictPages( 1, 0, EvictionRunEvent.NULL );
+            assertEquals( 1, pagedFile.residentPages() );
+        }
+    }
+
+    @Test
+    void pagesWithinReservationMustNotBeEvicted() throws Exception
+    {
+        try ( MuninnPageCache pageCache = createPageCache( fs, 8, PageCacheTracer.NULL, DefaultPageCursorTracerSupplier.NULL );
+              PagedFile reserved = map( pageCache, file( "a" ), 8, PageCacheQuota.reserve( 0.125 ) );
+              PagedFile other = map( pageCache, existingFile( "b" ), 8 ) )
+        {
+            // The reserved file gets the first page in the page list, so it is the first one the clock arm visits.
+            touch( reserved, 0, 1 );
+            touch( other, 0, 1 );
+
+            pageCache.evictPages( 1, 0, EvictionRunEvent.NULL );
+            assertEquals( 1, reserved.residentPages() );
+            assertEquals( 0, other.residentPages() );
+        }
+    }
+
+    @Test
+    void pagesAboveMaximumMustBeEvictedFirst() throws Exception
+    {
+        try ( MuninnPageCache pageCache = createPageCache( fs, 8, PageCacheTracer.NULL, DefaultPageCursorTracerSupplier.NULL );
+              PagedFile limited = map( pageCache, file( "a" ), 8, PageCacheQuota.limit( 0.125 ) );
+              PagedFile other = map( pageCache, existingFile( "b" ), 8 ) )
+        {
+            touch( limited, 0, 4 );
+            touch( limited, 1, 4 );
+            touch( other, 0, 4 );
+
+            // The clock arm passes the other file's page first, but the limited file is over its maximum.
+            pageCache.evictPages( 1, 2, EvictionRunEvent.NULL );
+            assertEquals( 1, limited.residentPages() );
+            assertEquals( 1, other.residentPages() );
+        }
+    }
+
+    @Test
+    void mustNotReserveMoreThanHalfThePageCache() throws Exception
+    {
+        try ( MuninnPageCache pageCache = createPageCache( fs, 8, PageCacheTracer.NULL, DefaultPageCursorTracerSupplier.NULL );
+              PagedFile pagedFile = map( pageCache, file( "a" ), 8, PageCacheQuota.reserve( 0.25 ) ) )
+        {
+            assertThrows( IllegalArgumentException.class, () -> map( pageCache, existingFile( "b" ), 8, PageCacheQuota.reserve( 0.375 ) ) );
+
+            // Remapping a file replaces its quota, instead of adding to it.
+            map( pageCache, file( "a" ), 8, PageCacheQuota.reserve( 0.5 ) ).close();
+        }
+    }
+
+    @Test
+    void backgroundWriterMustWriteOutDirtyPagesWithoutEvictingThem() throws Exception
+    {
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 8, tracer, DefaultPageCursorTracerSupplier.NULL );
+              PagedFile pagedFile = map( pageCache, file( "a" ), 8 ) )
+        {
+            touch( pagedFile, 0, 1 );
+            touch( pagedFile, 1, 1 );
+
+            assertEquals( 2, pageCache.sweepDirtyPages() );
+            assertEquals( 2, tracer.dirtyPages() );
+            assertEquals( 2, pageCache.writeOldestDirtyPages( 2 ) );
+            assertEquals( 2, tracer.backgroundWrites() );
+            assertEquals( 2, pagedFile.residentPages() );
+            assertEquals( 0, pageCache.sweepDirtyPages() );
+
+            long flushes = tracer.flushes();
+            pagedFile.flushAndForce();
+            assertEquals( flushes, tracer.flushes() );
+        }
+    }
+
+    @Test
+    void backgroundWriterMustWriteOutOldestDirtyPagesFirst() throws Exception
+    {
+        try ( MuninnPageCache pageCache = createPageCache( fs, 8, PageCacheTracer.NULL, DefaultPageCursorTracerSupplier.NULL );
+              PagedFile pagedFile = map( pageCache, file( "a" ), 8 ) )
+        {
+            touch( pagedFile, 0, 1 );
+            touch( pagedFile, 1, 1 );
+            touch( pagedFile, 2, 1 );
+            pageCache.sweepDirtyPages();
+            // Write out the page in the second page-list slot, and dirty it again, so it is younger than the others.
+            pageCache.pages.tryFlush( pageCache.pages.deref( 1 ) );
+            pageCache.sweepDirtyPages();
+            touch( pagedFile, 1, 1 );
+
+            assertEquals( 3, pageCache.sweepDirtyPages() );
+            assertEquals( 2, pageCache.writeOldestDirtyPages( 2 ) );
+            assertFalse( pageCache.pages.isModified( pageCache.pages.deref( 0 ) ) );
+            assertTrue( pageCache.pages.isModified( pageCache.pages.deref( 1 ) ) );
+            assertFalse( pageCache.pages.isModified( pageCache.pages.deref( 2 ) ) );
+        }
+    }
+
+    @Test
+    void evictedPagesMustBeFaultedBackInFromTheCompressedTier() throws Exception
+    {
+        FeatureToggles.set( MuninnPageCache.class, "compressedTierSize", 1024 * 1024 );
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 4, tracer, DefaultPageCursorTracerSupplier.NULL );
+              PagedFile pagedFile = map( pageCache, file( "a" ), 8 ) )
+        {
+            int pageCount = 16;
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+            {
+                for ( int i = 0; i < pageCount; i++ )
+                {
+                    assertTrue( cursor.next( i ) );
+                    cursor.putLong( 0, i );
+                }
+            }
+            long bytesRead = tracer.bytesRead();
+
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+            {
+                for ( int i = 0; i < pageCount; i++ )
+                {
+                    assertTrue( cursor.next( i ) );
+                    assertEquals( i, cursor.getLong( 0 ) );
+                }
+            }
+            assertThat( tracer.compressedTierHits(), greaterThan( 0L ) );
+            assertEquals( bytesRead, tracer.bytesRead() );
+        }
+        finally
+        {
+            FeatureToggles.clear( MuninnPageCache.class, "compressedTierSize" );
+        }
+    }
+
+    @Test
+    void readAheadMustFaultInPagesFromTheCompressedTier() throws Exception
+    {
+        FeatureToggles.set( MuninnPageCache.class, "compressedTierSize", 1024 * 1024 );
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        DefaultPageCursorTracer cursorTracer = new DefaultPageCursorTracer();
+        ConfigurablePageCursorTracerSupplier<DefaultPageCursorTracer> cursorTracerSupplier = new ConfigurablePageCursorTracerSupplier<>( cursorTracer );
+        try ( MuninnPageCache pageCache = createPageCache( fs, 2048, tracer, cursorTracerSupplier );
+              PagedFile pagedFile = map( pageCache, file( "a" ), 8 ) )
+        {
+            int pageCount = 20;
+            assertTrue( pageCache.readAheadPages >= pageCount );
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+            {
+                for ( int i = 0; i < pageCount; i++ )
+                {
+                    assertTrue( cursor.next( i ) );
+                    cursor.putLong( 0, i );
+                }
+            }
+            pageCache.evictPages( pageCount, 0, EvictionRunEvent.NULL );
+            assertEquals( 0, pagedFile.residentPages() );
+            long missesBefore = tracer.compressedTierMisses();
+
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_READ_AHEAD ) )
+            {
+                for ( int i = 0; i < pageCount; i++ )
+                {
+                    assertTrue( cursor.next( i ) );
+                    assertEquals( i, cursor.getLong( 0 ) );
+                }
+            }
+            assertEquals( pageCount - 1, cursorTracer.readAheadPages() );
+            assertEquals( pageCount, tracer.compressedTierHits() );
+            assertEquals( missesBefore, tracer.compressedTierMisses() );
+        }
+        finally
+        {
+            FeatureToggles.clear( MuninnPageCache.class, "compressedTierSize" );
+        }
+    }
+
+    private static void touch( PagedFile pagedFile, long pageId, int times ) throws IOException
+    {
+        for ( int i = 0; i < times; i++ )
+        {
+            try ( PageCursor cursor = pagedFile.io( pageId, PF_SHARED_WRITE_LOCK ) )
+            {
+                assertTrue( cursor.next() );
+            }
+        }
+    }
+
     @Test
     void mustFlushDirtyPagesOnEvictingFirstPage() throws Exception
     {
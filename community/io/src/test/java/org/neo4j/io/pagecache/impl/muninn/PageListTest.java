@@ -1687,6 +1687,30 @@ public class PageListTest
         assertThat( writtenBufferAddress.get(), is( pageList.getAddress( pageRef ) ) );
     }
 
+    @Test
+    public void tryDiscardMustWriteBackPageIfModified() throws Exception
+    {
+        pageList.unlockExclusive( pageRef );
+        AtomicLong writtenFilePageId = new AtomicLong( -1 );
+        PageSwapper swapper = new DummyPageSwapper( "file", pageSize )
+        {
+            @Override
+            public long write( long filePageId, long bufferAddress ) throws IOException
+            {
+                assertTrue( writtenFilePageId.compareAndSet( -1, filePageId ) );
+                return super.write( filePageId, bufferAddress );
+            }
+        };
+        int swapperId = swappers.allocate( swapper );
+        doFault( swapperId, 42 );
+        pageList.unlockExclusiveAndTakeWriteLock( pageRef );
+        pageList.unlockWrite( pageRef ); // page is now modified
+        assertTrue( pageList.tryDiscard( pageRef, swapperId, 42, EvictionRunEvent.NULL ) );
+        assertThat( writtenFilePageId.get(), is( 42L ) );
+        assertFalse( pageList.isModified( pageRef ) );
+        assertFalse( pageList.isLoaded( pageRef ) );
+    }
+
     @Test
     public void tryEvictMustNotFlushPageIfNotModified() throws Exception
     {
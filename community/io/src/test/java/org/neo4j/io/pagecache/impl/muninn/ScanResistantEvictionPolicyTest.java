@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.memory.GlobalMemoryTracker;
+import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScanResistantEvictionPolicyTest
+{
+    private static final int PAGE_COUNT = 16;
+
+    private MemoryAllocator mman;
+    private PageList pages;
+    private ScanResistantEvictionPolicy policy;
+
+    @BeforeEach
+    void setUp()
+    {
+        mman = MemoryAllocator.createAllocator( "1 MiB", GlobalMemoryTracker.INSTANCE );
+        int pageSize = UnsafeUtil.pageSize();
+        long victimPage = VictimPageReference.getVictimPage( pageSize, GlobalMemoryTracker.INSTANCE );
+        pages = new PageList( PAGE_COUNT, pageSize, mman, new SwapperSet(), victimPage, Long.BYTES );
+        policy = new ScanResistantEvictionPolicy( pages );
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        mman.close();
+    }
+
+    @Test
+    void mustEvictColdPages()
+    {
+        long pageRef = pages.deref( 0 );
+        pages.incrementUsage( pageRef );
+        assertTrue( policy.shouldEvict( pageRef ) );
+    }
+
+    @Test
+    void mustNotAgeHotPagesWhileColdPagesAreAvailable()
+    {
+        long hot = pages.deref( 0 );
+        long cold = pages.deref( 1 );
+        pages.incrementUsage( hot );
+        pages.incrementUsage( hot );
+
+        for ( int i = 0; i < 10; i++ )
+        {
+            assertFalse( policy.shouldEvict( hot ) );
+            assertTrue( policy.shouldEvict( cold ) );
+        }
+        assertEquals( 2, pages.getUsageCounter( hot ) );
+    }
+
+    @Test
+    void mustStartAgeingHotPagesWhenNoColdPagesCanBeFound()
+    {
+        long hot = pages.deref( 0 );
+        for ( int i = 0; i < 4; i++ )
+        {
+            pages.incrementUsage( hot );
+        }
+
+        boolean evicted = false;
+        for ( int i = 0; i < PAGE_COUNT * 2 && !evicted; i++ )
+        {
+            evicted = policy.shouldEvict( hot );
+        }
+        assertTrue( evicted );
+    }
+
+    @Test
+    void mustRememberEvictedPages()
+    {
+        assertFalse( policy.hasGhost( 1, 42 ) );
+        policy.evicted( 1, 42 );
+        assertTrue( policy.hasGhost( 1, 42 ) );
+        assertFalse( policy.hasGhost( 2, 42 ) );
+        assertFalse( policy.hasGhost( 1, 43 ) );
+    }
+
+    @Test
+    void mustPromotePagesThatAreFaultedInWhileInGhostHistory()
+    {
+        long pageRef = pages.deref( 0 );
+        policy.evicted( 1, 42 );
+
+        policy.faulted( pageRef, 1, 42 );
+        pages.incrementUsage( pageRef ); // The pin after the fault.
+
+        assertEquals( 2, pages.getUsageCounter( pageRef ) );
+        assertFalse( policy.hasGhost( 1, 42 ) );
+        assertFalse( policy.shouldEvict( pageRef ) );
+    }
+
+    @Test
+    void mustNotPromotePagesWithoutGhostHistory()
+    {
+        long pageRef = pages.deref( 0 );
+
+        policy.faulted( pageRef, 1, 42 );
+        pages.incrementUsage( pageRef ); // The pin after the fault.
+
+        assertEquals( 1, pages.getUsageCounter( pageRef ) );
+        assertTrue( policy.shouldEvict( pageRef ) );
+    }
+
+    @Test
+    void mustRejectUnknownPolicyNames()
+    {
+        assertThrows( IllegalArgumentException.class, () -> EvictionPolicy.create( "lru-k", pages ) );
+    }
+}
@@ -112,6 +112,48 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         return delegate.evictionExceptions();
     }
 
+    @Override
+    public long readAheadPages()
+    {
+        return delegate.readAheadPages();
+    }
+
+    @Override
+    public long readAheadHits()
+    {
+        return delegate.readAheadHits();
+    }
+
+    @Override
+    public long readAheadFailures()
+    {
+        return delegate.readAheadFailures();
+    }
+
+    @Override
+    public long dirtyPages()
+    {
+        return delegate.dirtyPages();
+    }
+
+    @Override
+    public long backgroundWrites()
+    {
+        return delegate.backgroundWrites();
+    }
+
+    @Override
+    public long compressedTierHits()
+    {
+        return delegate.compressedTierHits();
+    }
+
+    @Override
+    public long compressedTierMisses()
+    {
+        return delegate.compressedTierMisses();
+    }
+
     @Override
     public double hitRatio()
     {
@@ -178,6 +220,48 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         delegate.flushes( flushes );
     }
 
+    @Override
+    public void readAheadPages( long pages )
+    {
+        delegate.readAheadPages( pages );
+    }
+
+    @Override
+    public void readAheadHits( long hits )
+    {
+        delegate.readAheadHits( hits );
+    }
+
+    @Override
+    public void readAheadFailures( long failures )
+    {
+        delegate.readAheadFailures( failures );
+    }
+
+    @Override
+    public void dirtyPages( long dirtyPages )
+    {
+        delegate.dirtyPages( dirtyPages );
+    }
+
+    @Override
+    public void backgroundWrites( long pages )
+    {
+        delegate.backgroundWrites( pages );
+    }
+
+    @Override
+    public void compressedTierHits( long hits )
+    {
+        delegate.compressedTierHits( hits );
+    }
+
+    @Override
+    public void compressedTierMisses( long misses )
+    {
+        delegate.compressedTierMisses( misses );
+    }
+
     @Override
     public void maxPages( long maxPages )
     {
@@ -82,6 +82,11 @@ public class DummyPageSwapper implements PageSwapper
     {
     }
 
+    @Override
+    public void truncate( long pagesToKeep )
+    {
+    }
+
     @Override
     public void closeAndDelete()
     {
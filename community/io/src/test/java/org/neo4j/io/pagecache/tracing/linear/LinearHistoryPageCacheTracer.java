@@ -147,6 +147,48 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
         return 0;
     }
 
+    @Override
+    public long readAheadPages()
+    {
+        return 0;
+    }
+
+    @Override
+    public long readAheadHits()
+    {
+        return 0;
+    }
+
+    @Override
+    public long readAheadFailures()
+    {
+        return 0;
+    }
+
+    @Override
+    public long dirtyPages()
+    {
+        return 0;
+    }
+
+    @Override
+    public long backgroundWrites()
+    {
+        return 0;
+    }
+
+    @Override
+    public long compressedTierHits()
+    {
+        return 0;
+    }
+
+    @Override
+    public long compressedTierMisses()
+    {
+        return 0;
+    }
+
     @Override
     public double hitRatio()
     {
@@ -204,6 +246,41 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
     {
     }
 
+    @Override
+    public void readAheadPages( long pages )
+    {
+    }
+
+    @Override
+    public void readAheadHits( long hits )
+    {
+    }
+
+    @Override
+    public void readAheadFailures( long failures )
+    {
+    }
+
+    @Override
+    public void dirtyPages( long dirtyPages )
+    {
+    }
+
+    @Override
+    public void backgroundWrites( long pages )
+    {
+    }
+
+    @Override
+    public void compressedTierHits( long hits )
+    {
+    }
+
+    @Override
+    public void compressedTierMisses( long misses )
+    {
+    }
+
     @Override
     public void maxPages( long maxPages )
     {
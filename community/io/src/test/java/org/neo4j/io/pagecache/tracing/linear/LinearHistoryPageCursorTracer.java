@@ -98,12 +98,45 @@ public class LinearHistoryPageCursorTracer implements PageCursorTracer
         return 0;
     }
 
+    @Override
+    public long readAheadPages()
+    {
+        return 0;
+    }
+
+    @Override
+    public long readAheadHits()
+    {
+        return 0;
+    }
+
+    @Override
+    public long readAheadFailures()
+    {
+        return 0;
+    }
+
     @Override
     public double hitRatio()
     {
         return 0d;
     }
 
+    @Override
+    public void readAheadPages( long pages )
+    {
+    }
+
+    @Override
+    public void readAheadHits( long hits )
+    {
+    }
+
+    @Override
+    public void readAheadFailures( long failures )
+    {
+    }
+
     @Override
     public PinEvent beginPin( boolean writeLock, long filePageId, PageSwapper swapper )
     {
@@ -152,6 +152,48 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
         return 0;
     }
 
+    @Override
+    public long readAheadPages()
+    {
+        return 0;
+    }
+
+    @Override
+    public long readAheadHits()
+    {
+        return 0;
+    }
+
+    @Override
+    public long readAheadFailures()
+    {
+        return 0;
+    }
+
+    @Override
+    public long dirtyPages()
+    {
+        return 0;
+    }
+
+    @Override
+    public long backgroundWrites()
+    {
+        return 0;
+    }
+
+    @Override
+    public long compressedTierHits()
+    {
+        return 0;
+    }
+
+    @Override
+    public long compressedTierMisses()
+    {
+        return 0;
+    }
+
     @Override
     public double hitRatio()
     {
@@ -212,6 +254,41 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
     {
     }
 
+    @Override
+    public void readAheadPages( long pages )
+    {
+    }
+
+    @Override
+    public void readAheadHits( long hits )
+    {
+    }
+
+    @Override
+    public void readAheadFailures( long failures )
+    {
+    }
+
+    @Override
+    public void dirtyPages( long dirtyPages )
+    {
+    }
+
+    @Override
+    public void backgroundWrites( long pages )
+    {
+    }
+
+    @Override
+    public void compressedTierHits( long hits )
+    {
+    }
+
+    @Override
+    public void compressedTierMisses( long misses )
+    {
+    }
+
     @Override
     public void maxPages( long maxPages )
     {
@@ -108,12 +108,45 @@ public class RecordingPageCursorTracer extends RecordingTracer implements PageCu
         return 0;
     }
 
+    @Override
+    public long readAheadPages()
+    {
+        return 0;
+    }
+
+    @Override
+    public long readAheadHits()
+    {
+        return 0;
+    }
+
+    @Override
+    public long readAheadFailures()
+    {
+        return 0;
+    }
+
     @Override
     public double hitRatio()
     {
         return 0d;
     }
 
+    @Override
+    public void readAheadPages( long pages )
+    {
+    }
+
+    @Override
+    public void readAheadHits( long hits )
+    {
+    }
+
+    @Override
+    public void readAheadFailures( long failures )
+    {
+    }
+
     @Override
     public PinEvent beginPin( boolean writeLock, final long filePageId, final PageSwapper swapper )
     {
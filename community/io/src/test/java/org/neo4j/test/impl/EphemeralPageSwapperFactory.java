@@ -240,5 +240,18 @@ public class EphemeralPageSwapperFactory implements PageSwapperFactory, AutoClos
             free();
             lastPageId.set( -1 );
         }
+
+        @Override
+        public void truncate( long pagesToKeep ) throws IOException
+        {
+            buffers.forEach( ( filePageId, addr ) ->
+            {
+                if ( filePageId >= pagesToKeep && buffers.remove( filePageId, addr ) )
+                {
+                    freeMemory.accept( addr );
+                }
+            } );
+            lastPageId.accumulateAndGet( pagesToKeep - 1, Math::min );
+        }
     }
 }
@@ -23,6 +23,7 @@
 package org.neo4j.internal.kernel.api;
 
 import org.neo4j.internal.kernel.api.exceptions.KernelException;
+import org.neo4j.internal.kernel.api.exceptions.schema.IndexNotApplicableKernelException;
 import org.neo4j.internal.kernel.api.exceptions.schema.IndexNotFoundKernelException;
 import org.neo4j.values.storable.Value;
 import org.neo4j.values.storable.Values;
@@ -90,6 +91,35 @@ public interface Read
      */
     void nodeIndexScan( IndexReference index, NodeValueIndexCursor cursor, IndexOrder indexOrder, boolean needsValues ) throws KernelException;
 
+    /**
+     * Seek all nodes matching the provided index query in an index, split up into partitions that can be read in parallel.
+     * Only allowed in transactions without changes, and results come in no particular order.
+     * <p>
+     * Only some indexes can split a seek into partitions, currently the native ones, and only for queries where
+     * the index has full value precision. Lucene backed indexes, queries spanning several parts of a fusion index,
+     * e.g. exists queries, and geometry range queries can not be partitioned.
+     *
+     * @param index {@link IndexReference} referencing index to query.
+     * @param desiredNumberOfPartitions number of partitions to split the seek into.
+     * @param needsValues if the index should fetch property values together with node ids for index queries
+     * @param query Combination of {@link IndexQuery index queries} to run against referenced index.
+     * @return {@link Scan} handing out the partitions of the seek.
+     * @throws IndexNotApplicableKernelException if the index can't split the query into partitions.
+     */
+    Scan<NodeValueIndexCursor> nodeIndexSeek( IndexReference index, int desiredNumberOfPartitions, boolean needsValues, IndexQuery... query )
+            throws KernelException;
+
+    /**
+     * Scan all values in an index, split up into partitions that can be read in parallel.
+     * Only allowed in transactions without changes, and results come in no particular order.
+     *
+     * @param index {@link IndexReference} referencing index to query.
+     * @param desiredNumberOfPartitions number of partitions to split the scan into.
+     * @param needsValues if the index should fetch property values together with node ids for index queries
+     * @return {@link Scan} handing out the partitions of the scan.
+     */
+    Scan<NodeValueIndexCursor> nodeIndexScan( IndexReference index, int desiredNumberOfPartitions, boolean needsValues ) throws KernelException;
+
     void nodeLabelScan( int label, NodeLabelIndexCursor cursor );
 
     /**
@@ -104,7 +134,15 @@ public interface Read
      */
     void nodeLabelIntersectionScan( NodeLabelIndexCursor cursor, int... labels );
 
-    Scan<NodeLabelIndexCursor> nodeLabelScan( int label );
+    /**
+     * Scan for nodes with the specified label, split up into partitions that can be read in parallel.
+     * Only allowed in transactions without changes.
+     *
+     * @param label label token id.
+     * @param desiredNumberOfPartitions number of partitions to split the scan into.
+     * @return {@link Scan} handing out the partitions of the scan.
+     */
+    Scan<NodeLabelIndexCursor> nodeLabelScan( int label, int desiredNumberOfPartitions );
 
     /**
      * Return all nodes in the graph.
@@ -30,5 +30,17 @@ package org.neo4j.internal.kernel.api;
  */
 public interface Scan<Cursor extends org.neo4j.internal.kernel.api.Cursor>
 {
-    void initialize( Cursor cursor );
+    /**
+     * @return number of partitions this scan was split into, which may be fewer than asked for.
+     */
+    int getNumberOfPartitions();
+
+    /**
+     * Initializes {@code cursor} with the next partition of this scan that hasn't been handed out yet.
+     * Can be called concurrently, typically by one thread per cursor.
+     *
+     * @param cursor the cursor to initialize.
+     * @return {@code true} if {@code cursor} was initialized with a partition, or {@code false} if all partitions have been handed out.
+     */
+    boolean reservePartition( Cursor cursor );
 }
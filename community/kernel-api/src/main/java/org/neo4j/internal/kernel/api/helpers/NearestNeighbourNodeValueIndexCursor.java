@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.kernel.api.helpers;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+
+import org.neo4j.helpers.collection.Pair;
+import org.neo4j.internal.kernel.api.CursorFactory;
+import org.neo4j.internal.kernel.api.IndexOrder;
+import org.neo4j.internal.kernel.api.IndexQuery;
+import org.neo4j.internal.kernel.api.IndexReference;
+import org.neo4j.internal.kernel.api.IndexValueCapability;
+import org.neo4j.internal.kernel.api.NodeCursor;
+import org.neo4j.internal.kernel.api.NodeValueIndexCursor;
+import org.neo4j.internal.kernel.api.PropertyCursor;
+import org.neo4j.internal.kernel.api.Read;
+import org.neo4j.internal.kernel.api.exceptions.KernelException;
+import org.neo4j.internal.kernel.api.exceptions.schema.IndexNotFoundKernelException;
+import org.neo4j.values.storable.CRSCalculator;
+import org.neo4j.values.storable.CoordinateReferenceSystem;
+import org.neo4j.values.storable.PointValue;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.ValueCategory;
+
+/**
+ * Helper cursor for finding the points in a single property index that are closest to a given origin, nearest first.
+ * <p>
+ * The index is read in rings around the origin. Each ring is a bounding box range seek, which the index turns into
+ * ranges on its space filling curve, and transaction state is merged in by the seek itself. Only the points whose
+ * distance falls within the current ring are kept, and they are returned sorted by distance before the next ring is
+ * read. The radius doubles for every ring, and grows faster across rings that turn out to be empty. After a number of
+ * empty rings in a row, the remaining points of the coordinate reference system are read in one go.
+ * <p>
+ * Nothing beyond the ring being returned is read, so a consumer that only wants the first few points terminates early.
+ * The distance of the current point is available through {@link #distance()}.
+ */
+public final class NearestNeighbourNodeValueIndexCursor implements NodeValueIndexCursor
+{
+    static final double INITIAL_CARTESIAN_RADIUS = 1.0;
+    static final double INITIAL_GEOGRAPHIC_RADIUS = 1000.0;
+    static final double GROWTH_FACTOR = 2.0;
+    static final double EMPTY_GROWTH_FACTOR = 8.0;
+    static final int MAX_EMPTY_RINGS = 12;
+
+    private static final Comparator<Neighbour> BY_DISTANCE =
+            Comparator.<Neighbour>comparingDouble( neighbour -> neighbour.distance ).thenComparingLong( neighbour -> neighbour.node );
+
+    private final Read read;
+    private final IndexReference index;
+    private final int propertyKey;
+    private final boolean needsValues;
+    private final PointValue origin;
+    private final CoordinateReferenceSystem crs;
+    private final CRSCalculator calculator;
+    private final NodeValueIndexCursor seekCursor;
+    private final NodeCursor nodeCursor;
+    private final PropertyCursor propertyCursor;
+    private final List<Neighbour> ring = new ArrayList<>();
+
+    private int position;
+    private Neighbour current;
+    private double innerRadius = -1;
+    private double outerRadius;
+    private int emptyRings;
+    private boolean exhausted;
+    private boolean closed;
+
+    /**
+     * @param read backing read
+     * @param cursors a factory for the cursors used while reading the index
+     * @param index a single property index
+     * @param origin the point to order the indexed points by distance from
+     */
+    public NearestNeighbourNodeValueIndexCursor( Read read, CursorFactory cursors, IndexReference index, PointValue origin )
+    {
+        int[] properties = index.properties();
+        if ( properties.length != 1 )
+        {
+            throw new IllegalArgumentException( "Nearest neighbour seeks are only supported on single property indexes, got " + index );
+        }
+        this.read = read;
+        this.index = index;
+        this.propertyKey = properties[0];
+        this.needsValues = index.valueCapability( ValueCategory.GEOMETRY ) != IndexValueCapability.NO;
+        this.origin = origin;
+        this.crs = origin.getCoordinateReferenceSystem();
+        this.calculator = crs.getCalculator();
+        this.outerRadius = crs.isGeographic() ? INITIAL_GEOGRAPHIC_RADIUS : INITIAL_CARTESIAN_RADIUS;
+        this.seekCursor = cursors.allocateNodeValueIndexCursor();
+        this.nodeCursor = cursors.allocateNodeCursor();
+        this.propertyCursor = cursors.allocatePropertyCursor();
+    }
+
+    @Override
+    public boolean next()
+    {
+        while ( position >= ring.size() )
+        {
+            if ( exhausted || closed )
+            {
+                current = null;
+                return false;
+            }
+            readNextRing();
+        }
+        current = ring.get( position++ );
+        return true;
+    }
+
+    /**
+     * @return the distance between the origin and the point of the current node.
+     */
+    public double distance()
+    {
+        return current.distance;
+    }
+
+    @Override
+    public long nodeReference()
+    {
+        return current == null ? -1L : current.node;
+    }
+
+    @Override
+    public void node( NodeCursor cursor )
+    {
+        read.singleNode( nodeReference(), cursor );
+    }
+
+    @Override
+    public int numberOfProperties()
+    {
+        return 1;
+    }
+
+    @Override
+    public int propertyKey( int offset )
+    {
+        return propertyKey;
+    }
+
+    @Override
+    public boolean hasValue()
+    {
+        return current != null;
+    }
+
+    @Override
+    public Value propertyValue( int offset )
+    {
+        return current.point;
+    }
+
+    @Override
+    public void close()
+    {
+        if ( !closed )
+        {
+            closed = true;
+            current = null;
+            ring.clear();
+            seekCursor.close();
+            nodeCursor.close();
+            propertyCursor.close();
+        }
+    }
+
+    @Override
+    public boolean isClosed()
+    {
+        return closed;
+    }
+
+    private void readNextRing()
+    {
+        ring.clear();
+        position = 0;
+        try
+        {
+            if ( emptyRings >= MAX_EMPTY_RINGS )
+            {
+                exhausted = true;
+                collect( IndexQuery.range( propertyKey, crs ), Double.POSITIVE_INFINITY );
+            }
+            else
+            {
+                for ( Pair<PointValue,PointValue> box : calculator.boundingBox( origin, outerRadius ) )
+                {
+                    collect( IndexQuery.range( propertyKey, box.first(), true, box.other(), true ), outerRadius );
+                }
+            }
+        }
+        catch ( IndexNotFoundKernelException e )
+        {
+            throw new ConcurrentModificationException( "Index was dropped while seeking nearest neighbours", e );
+        }
+        catch ( KernelException e )
+        {
+            throw new IllegalStateException( "Unable to seek nearest neighbours in " + index, e );
+        }
+        ring.sort( BY_DISTANCE );
+
+        emptyRings = ring.isEmpty() ? emptyRings + 1 : 0;
+        innerRadius = outerRadius;
+        outerRadius *= ring.isEmpty() ? EMPTY_GROWTH_FACTOR : GROWTH_FACTOR;
+    }
+
+    private void collect( IndexQuery query, double maxDistance ) throws KernelException
+    {
+        read.nodeIndexSeek( index, seekCursor, IndexOrder.NONE, needsValues, query );
+        while ( seekCursor.next() )
+        {
+            Value value = needsValues && seekCursor.hasValue() ? seekCursor.propertyValue( 0 ) : propertyFromStore( seekCursor.nodeReference() );
+            if ( value instanceof PointValue )
+            {
+                PointValue point = (PointValue) value;
+                double distance = calculator.distance( origin, point );
+                if ( distance > innerRadius && distance <= maxDistance )
+                {
+                    ring.add( new Neighbour( seekCursor.nodeReference(), point, distance ) );
+                }
+            }
+        }
+    }
+
+    private Value propertyFromStore( long node )
+    {
+        read.singleNode( node, nodeCursor );
+        if ( nodeCursor.next() )
+        {
+            nodeCursor.properties( propertyCursor );
+            while ( propertyCursor.next() )
+            {
+                if ( propertyCursor.propertyKey() == propertyKey )
+                {
+                    return propertyCursor.propertyValue();
+                }
+            }
+        }
+        return null;
+    }
+
+    private static final class Neighbour
+    {
+        final long node;
+        final PointValue point;
+        final double distance;
+
+        Neighbour( long node, PointValue point, double distance )
+        {
+            this.node = node;
+            this.point = point;
+            this.distance = distance;
+        }
+    }
+}
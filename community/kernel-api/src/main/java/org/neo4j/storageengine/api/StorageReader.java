@@ -71,6 +71,14 @@ public interface StorageReader extends AutoCloseable, StorageSchemaReader
      */
     LabelScanReader getLabelScanReader();
 
+    /**
+     * @return {@link LabelScanReader} capable of reading relationships for specific relationship type ids,
+     * i.e. where the "nodes" it returns are relationship ids and the "labels" it takes are relationship type ids.
+     * Returns {@code null} if there's no such store, e.g. in a read-only database created before it existed,
+     * in which case relationships of a type have to be found by scanning all relationships.
+     */
+    LabelScanReader getRelationshipTypeScanReader();
+
     /**
      * Returns an {@link IndexReader} for searching entity ids given property values. One reader is allocated
      * and kept per index throughout the life of a statement, making the returned reader repeatable-read isolation.
@@ -86,6 +86,31 @@ public interface IndexReader extends Resource
      */
     void distinctValues( IndexProgressor.NodeValueClient client, NodePropertyAccessor propertyAccessor, boolean needsValues );
 
+    /**
+     * @param query the query to serve.
+     * @return whether or not this reader can split the query into partitions, see {@link #partitionedQuery(int, boolean, IndexQuery...)}.
+     */
+    default boolean supportsPartitionedQuery( IndexQuery... query )
+    {
+        return false;
+    }
+
+    /**
+     * Splits a query into partitions which can be read in parallel, by different threads. Only some index
+     * implementations support this, and only for queries where results from the index need no further filtering.
+     *
+     * @param desiredNumberOfPartitions number of partitions to split the query into.
+     * @param needsValues if the index should fetch property values together with node ids.
+     * @param query the query to serve.
+     * @return {@link PartitionedValueSeek} handing out the partitions of the query.
+     * @throws UnsupportedOperationException if this reader can't partition the query, i.e. if
+     * {@link #supportsPartitionedQuery(IndexQuery...)} returns {@code false}.
+     */
+    default PartitionedValueSeek partitionedQuery( int desiredNumberOfPartitions, boolean needsValues, IndexQuery... query )
+    {
+        throw new UnsupportedOperationException( getClass().getSimpleName() + " doesn't support partitioned queries" );
+    }
+
     IndexReader EMPTY = new IndexReader()
     {
         // Used for checking index correctness
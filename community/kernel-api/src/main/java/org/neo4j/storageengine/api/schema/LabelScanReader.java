@@ -49,6 +49,19 @@ public interface LabelScanReader extends Resource
      */
     void nodesWithLabel( IndexProgressor.NodeLabelClient client, int labelId );
 
+    /**
+     * Splits a scan for nodes with the given label into partitions which can be read in parallel, by different threads.
+     *
+     * @param labelId label token id.
+     * @param desiredNumberOfPartitions number of partitions to split the scan into.
+     * @return {@link PartitionedLabelScan} handing out the partitions of the scan.
+     * @throws UnsupportedOperationException if this reader can't partition scans.
+     */
+    default PartitionedLabelScan partitionedNodesWithLabel( int labelId, int desiredNumberOfPartitions )
+    {
+        throw new UnsupportedOperationException( getClass().getSimpleName() + " doesn't support partitioned scans" );
+    }
+
     /**
      * @param labelIds label token ids.
      * @return node ids with any of the given label ids.
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.storageengine.api.schema;
+
+/**
+ * An index query split up into partitions which can be read in parallel, each by its own thread.
+ * Together the partitions hold all results of the query, in no particular order.
+ */
+public interface PartitionedValueSeek
+{
+    /**
+     * @return number of partitions the query was split into, which may be fewer than asked for.
+     */
+    int getNumberOfPartitions();
+
+    /**
+     * Reserves the next partition that hasn't been handed out yet and initializes {@code client} to read it.
+     * Can be called concurrently from multiple threads.
+     *
+     * @param client the client to initialize with the reserved partition.
+     * @return {@code true} if a partition was reserved, or {@code false} if all partitions have been handed out.
+     */
+    boolean reservePartition( IndexProgressor.NodeValueClient client );
+
+    PartitionedValueSeek EMPTY = new PartitionedValueSeek()
+    {
+        @Override
+        public int getNumberOfPartitions()
+        {
+            return 0;
+        }
+
+        @Override
+        public boolean reservePartition( IndexProgressor.NodeValueClient client )
+        {
+            return false;
+        }
+    };
+}
@@ -28,6 +28,9 @@ import org.junit.Test;
 
 import org.neo4j.internal.kernel.api.exceptions.KernelException;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.neo4j.internal.kernel.api.IndexReadAsserts.assertNodeCount;
 import static org.neo4j.internal.kernel.api.IndexReadAsserts.assertNodes;
 
@@ -98,6 +101,60 @@ public abstract class NodeLabelIndexCursorTestBase<G extends KernelAPIWriteTestS
         }
     }
 
+    @Test
+    public void shouldFindNodesByLabelInPartitionedScan() throws Exception
+    {
+        // GIVEN
+        MutableLongSet expected = new LongHashSet();
+        try ( Transaction tx = beginTransaction() )
+        {
+            for ( int i = 0; i < 100; i++ )
+            {
+                expected.add( createNode( tx.dataWrite(), labelOne ) );
+                createNode( tx.dataWrite(), labelTwo );
+            }
+            tx.success();
+        }
+
+        try ( Transaction tx = beginTransaction() )
+        {
+            // WHEN
+            Scan<NodeLabelIndexCursor> scan = tx.dataRead().nodeLabelScan( labelOne, 4 );
+            MutableLongSet found = new LongHashSet();
+            try ( NodeLabelIndexCursor cursor = tx.cursors().allocateNodeLabelIndexCursor() )
+            {
+                while ( scan.reservePartition( cursor ) )
+                {
+                    while ( cursor.next() )
+                    {
+                        assertTrue( found.add( cursor.nodeReference() ) );
+                    }
+                }
+            }
+
+            // THEN
+            assertEquals( expected, found );
+        }
+    }
+
+    @Test
+    public void shouldNotAllowPartitionedScanInTransactionWithChanges() throws Exception
+    {
+        try ( Transaction tx = beginTransaction() )
+        {
+            createNode( tx.dataWrite(), labelOne );
+            try
+            {
+                tx.dataRead().nodeLabelScan( labelOne, 4 );
+                fail( "Should not be able to partition a scan in a transaction with changes" );
+            }
+            catch ( IllegalStateException e )
+            {
+                // expected
+            }
+        }
+    }
+
     @Test
     public void shouldFindNodesByLabelInTx() throws Exception
     {
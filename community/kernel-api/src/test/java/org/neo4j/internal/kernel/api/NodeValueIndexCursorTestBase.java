@@ -28,8 +28,10 @@ import org.eclipse.collections.impl.factory.primitive.LongLists;
 import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ThreadLocalRandom;
@@ -38,6 +40,7 @@ import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.internal.kernel.api.exceptions.KernelException;
+import org.neo4j.internal.kernel.api.helpers.NearestNeighbourNodeValueIndexCursor;
 import org.neo4j.values.storable.CoordinateReferenceSystem;
 import org.neo4j.values.storable.DateValue;
 import org.neo4j.values.storable.PointValue;
@@ -47,6 +50,7 @@ import org.neo4j.values.storable.ValueGroup;
 import org.neo4j.values.storable.Values;
 
 import static java.lang.Math.toIntExact;
+import static java.util.Arrays.asList;
 import static java.util.concurrent.TimeUnit.MINUTES;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
@@ -584,6 +588,40 @@ public abstract class NodeValueIndexCursorTestBase<G extends KernelAPIReadTestSu
         }
     }
 
+    @Test
+    public void shouldFindNearestPointsInDistanceOrder()
+    {
+        // given
+        int label = token.nodeLabel( "Node" );
+        int prop = token.propertyKey( "prop" );
+        IndexReference index = schemaRead.index( label, prop );
+
+        // when
+        List<Value> near = nearestPoints( index, Values.pointValue( Cartesian, 0.9, 0.1 ) );
+        List<Value> far = nearestPoints( index, Values.pointValue( Cartesian, -1000, 2000 ) );
+
+        // then
+        PointValue origin = Values.pointValue( Cartesian, 0, 0 );
+        assertEquals( asList( Values.pointValue( Cartesian, 1, 0 ), origin, origin, origin, Values.pointValue( Cartesian, 0, 1 ) ), near );
+        assertEquals( asList( Values.pointValue( Cartesian, 0, 1 ), origin, origin, origin, Values.pointValue( Cartesian, 1, 0 ) ), far );
+    }
+
+    private List<Value> nearestPoints( IndexReference index, PointValue origin )
+    {
+        List<Value> points = new ArrayList<>();
+        try ( NearestNeighbourNodeValueIndexCursor node = new NearestNeighbourNodeValueIndexCursor( read, cursors, index, origin ) )
+        {
+            double previousDistance = 0;
+            while ( node.next() )
+            {
+                assertTrue( node.distance() >= previousDistance );
+                previousDistance = node.distance();
+                points.add( node.propertyValue( 0 ) );
+            }
+        }
+        return points;
+    }
+
     @Test
     public void shouldPerformBooleanSearch() throws KernelException
     {
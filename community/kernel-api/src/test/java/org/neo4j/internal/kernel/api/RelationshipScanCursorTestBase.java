@@ -108,6 +108,31 @@ public abstract class RelationshipScanCursorTestBase<G extends KernelAPIReadTest
         assertEquals( RELATIONSHIP_IDS, ids );
     }
 
+    @Test
+    public void shouldScanRelationshipsOfType()
+    {
+        // given
+        int triangle = token.relationshipType( "TRIANGLE" );
+        List<Long> ids = new ArrayList<>();
+        try ( RelationshipScanCursor relationships = cursors.allocateRelationshipScanCursor() )
+        {
+            // when
+            read.relationshipTypeScan( triangle, relationships );
+            while ( relationships.next() )
+            {
+                assertEquals( triangle, relationships.type() );
+                ids.add( relationships.relationshipReference() );
+            }
+        }
+
+        // then
+        assertEquals( 6, ids.size() );
+        assertFalse( "should not find deleted relationship", ids.contains( none ) );
+        List<Long> sorted = new ArrayList<>( ids );
+        sorted.sort( Long::compare );
+        assertEquals( "should find relationships in id order", sorted, ids );
+    }
+
     @Test
     public void shouldAccessRelationshipByReference()
     {
@@ -64,6 +64,18 @@ public class StubRead implements Read
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public Scan<NodeValueIndexCursor> nodeIndexSeek( IndexReference index, int desiredNumberOfPartitions, boolean needsValues, IndexQuery... query )
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Scan<NodeValueIndexCursor> nodeIndexScan( IndexReference index, int desiredNumberOfPartitions, boolean needsValues )
+    {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public void nodeLabelScan( int label, NodeLabelIndexCursor cursor )
     {
@@ -83,7 +95,7 @@ public class StubRead implements Read
     }
 
     @Override
-    public Scan<NodeLabelIndexCursor> nodeLabelScan( int label )
+    public Scan<NodeLabelIndexCursor> nodeLabelScan( int label, int desiredNumberOfPartitions )
     {
         throw new UnsupportedOperationException();
     }
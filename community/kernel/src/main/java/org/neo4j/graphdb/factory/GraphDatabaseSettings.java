@@ -579,6 +579,20 @@ public class GraphDatabaseSettings implements LoadableConfig
                   "Removing the setting, or commenting it out, will set the default value of 300." )
     public static final Setting<Integer> check_point_iops_limit = setting( "dbms.checkpoint.iops.limit", INTEGER, "300" );
 
+    @Description( "Let the checkpoint process adapt its IOPS limit to the load on the database, instead of keeping " +
+                  "it fixed. The limit set by `dbms.checkpoint.iops.limit` is used as the starting point. While a " +
+                  "checkpoint is running, the limit is lowered when the time it takes to force the transaction log " +
+                  "rises above `dbms.checkpoint.iops.adaptive.target_latency`, and raised when the forces are well " +
+                  "below that latency or when there are no transactions being committed. " +
+                  "This setting is ignored in ONgDB Community Edition." )
+    public static final Setting<Boolean> check_point_iops_adaptive =
+            setting( "dbms.checkpoint.iops.adaptive", BOOLEAN, FALSE );
+
+    @Description( "The transaction log force latency that the adaptive checkpoint IOPS limit aims to stay below. " +
+                  "Only used when `dbms.checkpoint.iops.adaptive` is enabled." )
+    public static final Setting<Duration> check_point_iops_adaptive_target_latency =
+            setting( "dbms.checkpoint.iops.adaptive.target_latency", DURATION, "10ms" );
+
     // Auto Indexing
     @Description( "Controls the auto indexing feature for nodes. Setting it to `false` shuts it down, " +
             "while `true` enables it by default for properties listed in the dbms.auto_index.nodes.keys setting." )
@@ -642,6 +656,12 @@ public class GraphDatabaseSettings implements LoadableConfig
     public static final Setting<Boolean> multi_threaded_schema_index_population_enabled =
             setting( "unsupported.dbms.multi_threaded_schema_index_population_enabled", BOOLEAN, TRUE );
 
+    @Internal
+    @Description( "Number of threads reading nodes or relationships from the store when populating indexes. " +
+            "Scans that go through the label scan store, or that rebuild it, always use a single thread." )
+    public static final Setting<Integer> index_population_scan_workers =
+            buildSetting( "unsupported.dbms.index_population.scan_workers", INTEGER, "1" ).constraint( min( 1 ) ).build();
+
     @Deprecated
     @ReplacedBy( "dbms.index.default_schema_provider" )
     @Internal
@@ -732,12 +752,41 @@ public class GraphDatabaseSettings implements LoadableConfig
     public static final Setting<Long> logical_log_rotation_threshold =
             buildSetting( "dbms.tx_log.rotation.size", BYTES, "250M" ).constraint( min( ByteUnit.mebiBytes( 1 ) ) ).build();
 
+    @Description( "The maximum time that forcing the logical log to disk may be delayed, to let more concurrently " +
+            "committing transactions be made durable by the same force. The delay is adaptive: a force only waits " +
+            "when the previous force was shared by several transactions, and only until as many have joined. " +
+            "A value of 0 disables the delay." )
+    public static final Setting<Duration> group_commit_max_wait =
+            buildSetting( "dbms.tx_log.group_commit.max_wait", DURATION, "0ms" ).constraint( min( Duration.ZERO ) ).build();
+
+    @Description( "Compress the commands of each transaction written to the logical log using zstd. Compressed logs " +
+            "use less disk space and are faster to transfer during backup and catch-up, at the cost of some CPU " +
+            "time when committing and when reading the logs. Logs are read the same way regardless of this setting, " +
+            "but logs written with it enabled can not be read by versions that predate it." )
+    public static final Setting<Boolean> tx_log_compression = setting( "dbms.tx_log.compression", BOOLEAN, FALSE );
+
+    @Description( "Preallocate each new logical log file to the rotation size by filling it with zeros when it is " +
+            "created. Appending to a preallocated file does not change its size, so forcing the log to disk does " +
+            "not also have to make file size changes durable. The cost is paid up front, when the log rotates." )
+    public static final Setting<Boolean> tx_log_preallocate = setting( "dbms.tx_log.preallocate", BOOLEAN, FALSE );
+
+    @Description( "Open the logical log for writing in synchronous data mode, so that every write reaches the " +
+            "underlying storage device before it returns, rather than when the log is forced." )
+    @Internal
+    public static final Setting<Boolean> tx_log_dsync = setting( "unsupported.dbms.tx_log.dsync", BOOLEAN, FALSE );
+
     @Description( "If `true`, Neo4j will abort recovery if any errors are encountered in the logical log. Setting " +
             "this to `false` will allow Neo4j to restore as much as possible from the corrupted log files and ignore " +
             "the rest, but, the integrity of the database might be compromised." )
     @Internal
     public static final Setting<Boolean> fail_on_corrupted_log_files = setting("unsupported.dbms.tx_log.fail_on_corrupted_log_files", BOOLEAN, TRUE );
 
+    @Description( "The number of threads used to apply transactions during recovery. Transactions that do not " +
+            "touch the same records are applied concurrently, while transactions that change schema, tokens or " +
+            "explicit indexes are applied on their own in log order. A value of 1 recovers transactions one by one." )
+    public static final Setting<Integer> recovery_parallelism =
+            buildSetting( "dbms.recovery.parallelism", INTEGER, "1" ).constraint( min( 1 ) ).build();
+
     @Description( "Use a quick approach for rebuilding the ID generators. This give quicker recovery time, " +
             "but will limit the ability to reuse the space of deleted entities." )
     @Internal
@@ -778,6 +827,15 @@ public class GraphDatabaseSettings implements LoadableConfig
     public static final Setting<String> pagecache_swapper =
             setting( "dbms.memory.pagecache.swapper", STRING, null );
 
+    @Description( "Page cache quotas for individual store files, as a comma separated list of " +
+                  "'<store file name>=<reserved ratio>' or '<store file name>=<reserved ratio>:<maximum ratio>' " +
+                  "entries, for example 'neostore.nodestore.db=0.1,neostore.relationshipstore.db=0.2'. " +
+                  "The pages of a store file are not evicted while the file occupies less than its reserved fraction " +
+                  "of the page cache, and are preferred for eviction while it occupies more than its maximum fraction. " +
+                  "The reservations of all mapped files can add up to at most half of the page cache." )
+    public static final Setting<List<String>> pagecache_quotas =
+            setting( "dbms.memory.pagecache.quotas", STRING_LIST, "" );
+
     @Internal
     @Description( "The profiling frequency for the page cache. Accurate profiles allow the page cache to do active " +
                   "warmup after a restart, reducing the mean time to performance. " +
@@ -109,12 +109,15 @@ import org.neo4j.kernel.impl.transaction.log.PhysicalLogicalTransactionStore;
 import org.neo4j.kernel.impl.transaction.log.ReadableClosablePositionAwareChannel;
 import org.neo4j.kernel.impl.transaction.log.TransactionAppender;
 import org.neo4j.kernel.impl.transaction.log.TransactionIdStore;
+import org.neo4j.kernel.impl.transaction.log.TransactionLogPositionIndex;
+import org.neo4j.kernel.impl.transaction.log.TransactionLogTailMarker;
 import org.neo4j.kernel.impl.transaction.log.TransactionMetadataCache;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointScheduler;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointThreshold;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointerImpl;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.SimpleTriggerInfo;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.StoreCopyCheckPointMutex;
+import org.neo4j.kernel.impl.transaction.log.entry.CommandCompression;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
 import org.neo4j.kernel.impl.transaction.log.entry.VersionAwareLogEntryReader;
 import org.neo4j.kernel.impl.transaction.log.files.LogFileCreationMonitor;
@@ -348,7 +351,8 @@ public class NeoStoreDataSource extends LifecycleAdapter
             monitors.removeMonitorListener( reverseCursorMonitor );
         } ) );
 
-        LogTailScanner tailScanner = new LogTailScanner( logFiles, logEntryReader, monitors, failOnCorruptedLogFiles );
+        TransactionLogTailMarker tailMarker = new TransactionLogTailMarker( fs, logFiles );
+        LogTailScanner tailScanner = new LogTailScanner( logFiles, logEntryReader, monitors, failOnCorruptedLogFiles, tailMarker );
         LogVersionUpgradeChecker.check( tailScanner, config );
 
         // Upgrade the store before we begin
@@ -356,7 +360,7 @@ public class NeoStoreDataSource extends LifecycleAdapter
         upgradeStore( formats, tailScanner );
 
         // Build all modules and their services
-        StorageEngine storageEngine = null;
+        RecordStorageEngine storageEngine = null;
         try
         {
             DatabaseSchemaState databaseSchemaState = new DatabaseSchemaState( logProvider );
@@ -377,7 +381,7 @@ public class NeoStoreDataSource extends LifecycleAdapter
 
             LogVersionRepository logVersionRepository = dataSourceDependencies.resolveDependency( LogVersionRepository.class );
             NeoStoreTransactionLogModule transactionLogModule = buildTransactionLogs( logFiles, config, logProvider,
-                    scheduler, storageEngine, logEntryReader, explicitIndexTransactionOrdering, transactionIdStore );
+                    scheduler, storageEngine, logEntryReader, explicitIndexTransactionOrdering, transactionIdStore, tailMarker );
             transactionLogModule.satisfyDependencies( dataSourceDependencies );
 
             buildRecovery( fs,
@@ -398,6 +402,7 @@ public class NeoStoreDataSource extends LifecycleAdapter
                     dataSourceDependencies.resolveDependency( IndexingService.class ),
                     databaseSchemaState,
                     dataSourceDependencies.resolveDependency( LabelScanStore.class ),
+                    storageEngine.relationshipTypeScanStore(),
                     storageEngine,
                     indexConfigStore,
                     transactionIdStore, databaseAvailabilityGuard,
@@ -508,7 +513,7 @@ public class NeoStoreDataSource extends LifecycleAdapter
                 format, tailScanner, scheduler ).migrate( databaseLayout );
     }
 
-    private StorageEngine buildStorageEngine(
+    private RecordStorageEngine buildStorageEngine(
             ExplicitIndexProvider explicitIndexProviderLookup, IndexConfigStore indexConfigStore,
             SchemaState schemaState, SynchronizedArrayIdOrderingQueue explicitIndexTransactionOrdering,
             OperationalMode operationalMode, VersionContextSupplier versionContextSupplier )
@@ -533,9 +538,11 @@ public class NeoStoreDataSource extends LifecycleAdapter
     private NeoStoreTransactionLogModule buildTransactionLogs( LogFiles logFiles, Config config,
             LogProvider logProvider, JobScheduler scheduler, StorageEngine storageEngine,
             LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader,
-            SynchronizedArrayIdOrderingQueue explicitIndexTransactionOrdering, TransactionIdStore transactionIdStore )
+            SynchronizedArrayIdOrderingQueue explicitIndexTransactionOrdering, TransactionIdStore transactionIdStore,
+            TransactionLogTailMarker tailMarker )
     {
         TransactionMetadataCache transactionMetadataCache = new TransactionMetadataCache();
+        TransactionLogPositionIndex positionIndex = life.add( new TransactionLogPositionIndex( fs, logFiles, scheduler ) );
         if ( config.get( GraphDatabaseSettings.ephemeral ) )
         {
             config.augmentDefaults( GraphDatabaseSettings.keep_logical_logs, "1 files" );
@@ -547,12 +554,15 @@ public class NeoStoreDataSource extends LifecycleAdapter
         final LogRotation logRotation =
                 new LogRotationImpl( monitors.newMonitor( LogRotation.Monitor.class ), logFiles, databaseHealth );
 
+        CommandCompression commandCompression = buildCommandCompression( config );
+        dataSourceDependencies.satisfyDependency( commandCompression );
         final TransactionAppender appender = life.add( new BatchingTransactionAppender(
-                logFiles, logRotation, transactionMetadataCache, transactionIdStore, explicitIndexTransactionOrdering,
-                databaseHealth ) );
+                logFiles, logRotation, transactionMetadataCache, positionIndex, tailMarker, transactionIdStore,
+                explicitIndexTransactionOrdering, databaseHealth, commandCompression, config.get( GraphDatabaseSettings.group_commit_max_wait ),
+                monitors.newMonitor( BatchingTransactionAppender.Monitor.class ) ) );
         final LogicalTransactionStore logicalTransactionStore =
-                new PhysicalLogicalTransactionStore( logFiles, transactionMetadataCache, logEntryReader, monitors,
-                        failOnCorruptedLogFiles );
+                new PhysicalLogicalTransactionStore( logFiles, transactionMetadataCache, positionIndex, logEntryReader,
+                        monitors, failOnCorruptedLogFiles );
 
         CheckPointThreshold threshold = CheckPointThreshold.createThreshold( config, clock, logPruning, logProvider );
 
@@ -571,6 +581,18 @@ public class NeoStoreDataSource extends LifecycleAdapter
                 logRotation, checkPointer, appender, explicitIndexTransactionOrdering );
     }
 
+    private CommandCompression buildCommandCompression( Config config )
+    {
+        boolean compressionEnabled = config.get( GraphDatabaseSettings.tx_log_compression );
+        CommandCompression commandCompression = CommandCompression.create( compressionEnabled );
+        if ( compressionEnabled && !commandCompression.isEnabled() )
+        {
+            msgLog.warn( "Transaction log compression is enabled but zstd is not available on this platform, " +
+                    "transaction logs will be written uncompressed." );
+        }
+        return commandCompression;
+    }
+
     private void buildRecovery(
             final FileSystemAbstraction fileSystemAbstraction,
             TransactionIdStore transactionIdStore,
@@ -583,7 +605,7 @@ public class NeoStoreDataSource extends LifecycleAdapter
             LogVersionRepository logVersionRepository )
     {
         RecoveryService recoveryService = new DefaultRecoveryService( storageEngine, tailScanner, transactionIdStore,
-                logicalTransactionStore, logVersionRepository, positionMonitor );
+                logicalTransactionStore, logVersionRepository, positionMonitor, scheduler, config.get( GraphDatabaseSettings.recovery_parallelism ) );
         CorruptedLogsTruncator logsTruncator = new CorruptedLogsTruncator( databaseLayout.databaseDirectory(), logFiles, fileSystemAbstraction );
         ProgressReporter progressReporter = new LogProgressReporter( logService.getInternalLog( Recovery.class ) );
         Lifecycle schemaLife = storageEngine.schemaAndTokensLifecycle();
@@ -593,7 +615,7 @@ public class NeoStoreDataSource extends LifecycleAdapter
 
     private NeoStoreKernelModule buildKernel( LogFiles logFiles, TransactionAppender appender,
             IndexingService indexingService, DatabaseSchemaState databaseSchemaState, LabelScanStore labelScanStore,
-            StorageEngine storageEngine, IndexConfigStore indexConfigStore, TransactionIdStore transactionIdStore,
+            LabelScanStore relationshipTypeScanStore, StorageEngine storageEngine, IndexConfigStore indexConfigStore, TransactionIdStore transactionIdStore,
             AvailabilityGuard databaseAvailabilityGuard, SystemNanoClock clock, NodePropertyAccessor nodePropertyAccessor )
     {
         AtomicReference<CpuClock> cpuClockRef = setupCpuClockAtomicReference();
@@ -635,7 +657,7 @@ public class NeoStoreDataSource extends LifecycleAdapter
         life.add( kernel );
 
         final NeoStoreFileListing fileListing = new NeoStoreFileListing( databaseLayout, logFiles, labelScanStore,
-                indexingService, explicitIndexProvider, storageEngine );
+                relationshipTypeScanStore, indexingService, explicitIndexProvider, storageEngine );
         dataSourceDependencies.satisfyDependency( fileListing );
 
         return new NeoStoreKernelModule( transactionCommitProcess, kernel, kernelTransactions, fileListing );
@@ -38,6 +38,7 @@ import org.neo4j.kernel.impl.api.index.updater.SwallowingIndexUpdater;
 import org.neo4j.kernel.impl.index.schema.ConsistencyCheckable;
 import org.neo4j.storageengine.api.NodePropertyAccessor;
 import org.neo4j.storageengine.api.schema.IndexReader;
+import org.neo4j.storageengine.api.schema.IndexSample;
 import org.neo4j.values.storable.Value;
 
 import static java.util.Collections.emptyIterator;
@@ -78,6 +79,22 @@ public interface IndexAccessor extends Closeable, IndexConfigProvider, Consisten
      */
     void force( IOLimiter ioLimiter );
 
+    /**
+     * Compacts this index after large deletions, returning space it no longer needs to the file system.
+     * Updates and readers can be used concurrently with this call, but updates may be blocked for periods of time.
+     * Does nothing for indexes that can not be compacted.
+     * <p>
+     * The changes made by the compaction become durable with the next {@link #force(IOLimiter)}, and some of the space
+     * is only returned by it. Compacting again after that can return more space, since space freed by one compaction
+     * can only be reused after the following force.
+     *
+     * @throws UncheckedIOException if there was a problem compacting the index.
+     */
+    default void compact()
+    {
+        // Most indexes can not be compacted.
+    }
+
     /**
      * Refreshes this index, so that {@link #newReader() readers} created after completion of this call
      * will see the latest updates. This happens automatically on closing {@link #newUpdater(IndexUpdateMode)}
@@ -103,6 +120,19 @@ public interface IndexAccessor extends Closeable, IndexConfigProvider, Consisten
      */
     IndexReader newReader();
 
+    /**
+     * Returns a sample of this index from statistics which the index maintains incrementally as it is updated,
+     * without scanning the index. Indexes that don't maintain such statistics, or whose statistics are not yet
+     * complete, e.g. before they have been sampled by scanning once, return {@code null} and need to be sampled
+     * using {@link IndexReader#createSampler()} instead.
+     *
+     * @return an {@link IndexSample} of the current contents of this index, or {@code null} if not available.
+     */
+    default IndexSample incrementalSample()
+    {
+        return null;
+    }
+
     BoundedIterable<Long> newAllEntriesReader();
 
     /**
@@ -245,6 +275,12 @@ public interface IndexAccessor extends Closeable, IndexConfigProvider, Consisten
             delegate.force( ioLimiter );
         }
 
+        @Override
+        public void compact()
+        {
+            delegate.compact();
+        }
+
         @Override
         public void refresh()
         {
@@ -263,6 +299,12 @@ public interface IndexAccessor extends Closeable, IndexConfigProvider, Consisten
             return delegate.newReader();
         }
 
+        @Override
+        public IndexSample incrementalSample()
+        {
+            return delegate.incrementalSample();
+        }
+
         @Override
         public BoundedIterable<Long> newAllEntriesReader()
         {
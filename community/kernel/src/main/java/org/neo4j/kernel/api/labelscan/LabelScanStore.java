@@ -59,6 +59,11 @@ public interface LabelScanStore extends Lifecycle, ConsistencyCheckable
             {   // empty
             }
 
+            @Override
+            public void convertedLegacyIndex()
+            {   // empty
+            }
+
             @Override
             public void rebuilding()
             {   // empty
@@ -101,6 +106,8 @@ public interface LabelScanStore extends Lifecycle, ConsistencyCheckable
 
         void notValidIndex();
 
+        void convertedLegacyIndex();
+
         void rebuilding();
 
         void rebuilt( long roughNodeCount );
@@ -140,6 +147,18 @@ public interface LabelScanStore extends Lifecycle, ConsistencyCheckable
      */
     void force( IOLimiter limiter ) throws UnderlyingStorageException;
 
+    /**
+     * Compacts the store after large deletions, returning space it no longer needs to the file system.
+     * Readers and writers can be used concurrently with this call, but writers may be blocked for periods of time.
+     * The changes become durable, and some of the space is only returned, with the next {@link #force(IOLimiter)}.
+     *
+     * @throws UnderlyingStorageException if there was a problem compacting the store.
+     */
+    default void compact() throws UnderlyingStorageException
+    {
+        // Nothing to compact by default.
+    }
+
     /**
      * Acquire a reader for all {@link NodeLabelRange node label} ranges.
      *
@@ -22,6 +22,7 @@
  */
 package org.neo4j.kernel.api.labelscan;
 
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 
 import java.util.StringJoiner;
@@ -37,52 +38,73 @@ import static org.neo4j.helpers.Format.duration;
 public class LoggingMonitor extends Monitor.Adaptor
 {
     private final Log log;
+    private final String indexName;
+    private final String entityName;
 
     public LoggingMonitor( Log log )
+    {
+        this( log, "label index", "nodes" );
+    }
+
+    /**
+     * @param log {@link Log} to log events to.
+     * @param indexName name of the index in log messages, e.g. "label index".
+     * @param entityName name of the indexed entities in log messages, e.g. "nodes".
+     */
+    public LoggingMonitor( Log log, String indexName, String entityName )
     {
         this.log = log;
+        this.indexName = indexName;
+        this.entityName = entityName;
     }
 
     @Override
     public void noIndex()
     {
-        log.info( "No label index found, this might just be first use. Preparing to rebuild." );
+        log.info( "No " + indexName + " found, this might just be first use. Preparing to rebuild." );
     }
 
     @Override
     public void notValidIndex()
     {
-        log.warn( "Label index could not be read. Preparing to rebuild." );
+        log.warn( capitalizedIndexName() + " could not be read. Preparing to rebuild, which reads all " + entityName +
+                " from the store and may take a while." );
+    }
+
+    @Override
+    public void convertedLegacyIndex()
+    {
+        log.info( capitalizedIndexName() + " converted from the previous format" );
     }
 
     @Override
     public void rebuilding()
     {
-        log.info( "Rebuilding label index, this may take a while" );
+        log.info( "Rebuilding " + indexName + ", this may take a while" );
     }
 
     @Override
     public void rebuilt( long roughNodeCount )
     {
-        log.info( "Label index rebuilt (roughly " + roughNodeCount + " nodes)" );
+        log.info( capitalizedIndexName() + " rebuilt (roughly " + roughNodeCount + " " + entityName + ")" );
     }
 
     @Override
     public void recoveryCleanupRegistered()
     {
-        log.info( "Label index cleanup job registered" );
+        log.info( capitalizedIndexName() + " cleanup job registered" );
     }
 
     @Override
     public void recoveryCleanupStarted()
     {
-        log.info( "Label index cleanup job started" );
+        log.info( capitalizedIndexName() + " cleanup job started" );
     }
 
     @Override
     public void recoveryCleanupFinished( long numberOfPagesVisited, long numberOfCleanedCrashPointers, long durationMillis )
     {
-        StringJoiner joiner = new StringJoiner( ", ", "Label index cleanup job finished: ", "" );
+        StringJoiner joiner = new StringJoiner( ", ", capitalizedIndexName() + " cleanup job finished: ", "" );
         joiner.add( "Number of pages visited: " + numberOfPagesVisited );
         joiner.add( "Number of cleaned crashed pointers: " + numberOfCleanedCrashPointers );
         joiner.add( "Time spent: " + duration( durationMillis ) );
@@ -92,12 +114,17 @@ public class LoggingMonitor extends Monitor.Adaptor
     @Override
     public void recoveryCleanupClosed()
     {
-        log.info( "Label index cleanup job closed" );
+        log.info( capitalizedIndexName() + " cleanup job closed" );
     }
 
     @Override
     public void recoveryCleanupFailed( Throwable throwable )
     {
-        log.info( String.format( "Label index cleanup job failed.%nCaused by: %s", ExceptionUtils.getStackTrace( throwable ) ) );
+        log.info( String.format( "%s cleanup job failed.%nCaused by: %s", capitalizedIndexName(), ExceptionUtils.getStackTrace( throwable ) ) );
+    }
+
+    private String capitalizedIndexName()
+    {
+        return StringUtils.capitalize( indexName );
     }
 }
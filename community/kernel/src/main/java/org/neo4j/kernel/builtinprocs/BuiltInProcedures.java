@@ -61,10 +61,13 @@ import org.neo4j.kernel.api.KernelTransaction;
 import org.neo4j.kernel.api.SilentTokenNameLookup;
 import org.neo4j.kernel.api.Statement;
 import org.neo4j.kernel.api.exceptions.Status;
+import org.neo4j.kernel.api.labelscan.LabelScanStore;
 import org.neo4j.kernel.impl.api.TokenAccess;
 import org.neo4j.kernel.impl.api.index.IndexingService;
+import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointer;
 import org.neo4j.kernel.impl.util.FulltextSortType;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.procedure.Admin;
 import org.neo4j.procedure.Context;
 import org.neo4j.procedure.Description;
 import org.neo4j.procedure.Mode;
@@ -74,6 +77,7 @@ import org.neo4j.storageengine.api.EntityType;
 import org.neo4j.storageengine.api.schema.PopulationProgress;
 
 import static org.neo4j.helpers.collection.Iterators.asList;
+import static org.neo4j.procedure.Mode.DBMS;
 import static org.neo4j.procedure.Mode.READ;
 import static org.neo4j.procedure.Mode.SCHEMA;
 import static org.neo4j.procedure.Mode.WRITE;
@@ -229,6 +233,19 @@ public class BuiltInProcedures
         }
     }
 
+    @Admin
+    @Description( "Compact all online indexes and the label scan store, returning space they no longer need to the file system." )
+    @Procedure( name = "db.compactIndexes", mode = DBMS )
+    public void compactIndexes()
+    {
+        LabelScanStore labelScanStore = resolver.resolveDependency( LabelScanStore.class );
+        CheckPointer checkPointer = resolver.resolveDependency( CheckPointer.class );
+        try ( IndexProcedures indexProcedures = indexProcedures() )
+        {
+            indexProcedures.compactIndexes( labelScanStore, checkPointer );
+        }
+    }
+
     @Procedure( name = "db.schema.nodeTypeProperties", mode = Mode.READ )
     @Description( "Show the derived property schema of the nodes in tabular form." )
     public Stream<NodePropertySchemaInfoResult> nodePropertySchema()
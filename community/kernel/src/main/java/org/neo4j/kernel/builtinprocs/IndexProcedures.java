@@ -22,6 +22,8 @@
  */
 package org.neo4j.kernel.builtinprocs;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -41,14 +43,23 @@ import org.neo4j.internal.kernel.api.exceptions.schema.TooManyLabelsException;
 import org.neo4j.kernel.api.KernelTransaction;
 import org.neo4j.kernel.api.Statement;
 import org.neo4j.kernel.api.exceptions.Status;
+import org.neo4j.kernel.api.labelscan.LabelScanStore;
 import org.neo4j.kernel.api.schema.LabelSchemaDescriptor;
 import org.neo4j.kernel.api.schema.SchemaDescriptorFactory;
 import org.neo4j.kernel.impl.api.index.IndexPopulationFailure;
 import org.neo4j.kernel.impl.api.index.IndexingService;
 import org.neo4j.kernel.impl.api.index.sampling.IndexSamplingMode;
+import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointer;
+import org.neo4j.kernel.impl.transaction.log.checkpoint.SimpleTriggerInfo;
 
 public class IndexProcedures implements AutoCloseable
 {
+    /**
+     * Number of rounds of {@link #compactIndexes(LabelScanStore, CheckPointer)}. Tree nodes moved in one round can be
+     * dropped from the end of the files after the next, so a couple of rounds are normally enough.
+     */
+    static final int COMPACTION_ROUNDS = 4;
+
     private final KernelTransaction ktx;
     private final Statement statement;
     private final IndexingService indexingService;
@@ -92,6 +103,28 @@ public class IndexProcedures implements AutoCloseable
         indexingService.triggerIndexSampling( IndexSamplingMode.TRIGGER_REBUILD_UPDATED );
     }
 
+    /**
+     * Compacts all online indexes and the label scan store in a few rounds, each ending with a regular checkpoint.
+     * The checkpoint makes the round durable and truncates the files, and lets the next round reuse the space
+     * that this one freed.
+     */
+    public void compactIndexes( LabelScanStore labelScanStore, CheckPointer checkPointer )
+    {
+        for ( int round = 0; round < COMPACTION_ROUNDS; round++ )
+        {
+            indexingService.compactAll();
+            labelScanStore.compact();
+            try
+            {
+                checkPointer.forceCheckPoint( new SimpleTriggerInfo( "Index compaction" ) );
+            }
+            catch ( IOException e )
+            {
+                throw new UncheckedIOException( e );
+            }
+        }
+    }
+
     public Stream<BuiltInProcedures.SchemaIndexInfo> createIndex( String indexSpecification, String providerName ) throws ProcedureException
     {
         return createIndex( indexSpecification, providerName, "index created",
@@ -39,6 +39,7 @@ import org.neo4j.kernel.api.index.IndexUpdater;
 import org.neo4j.storageengine.api.NodePropertyAccessor;
 import org.neo4j.storageengine.api.schema.CapableIndexDescriptor;
 import org.neo4j.storageengine.api.schema.IndexReader;
+import org.neo4j.storageengine.api.schema.IndexSample;
 import org.neo4j.storageengine.api.schema.PopulationProgress;
 import org.neo4j.values.storable.Value;
 
@@ -82,6 +83,12 @@ public abstract class AbstractDelegatingIndexProxy implements IndexProxy
         getDelegate().force( ioLimiter );
     }
 
+    @Override
+    public void compact() throws IOException
+    {
+        getDelegate().compact();
+    }
+
     @Override
     public void refresh() throws IOException
     {
@@ -100,6 +107,12 @@ public abstract class AbstractDelegatingIndexProxy implements IndexProxy
         return getDelegate().newReader();
     }
 
+    @Override
+    public IndexSample incrementalSample()
+    {
+        return getDelegate().incrementalSample();
+    }
+
     @Override
     public boolean awaitStoreScanCompleted( long time, TimeUnit unit ) throws IndexPopulationFailedKernelException, InterruptedException
     {
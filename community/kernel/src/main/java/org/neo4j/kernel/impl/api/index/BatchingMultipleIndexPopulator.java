@@ -40,6 +40,7 @@ import org.neo4j.kernel.api.exceptions.index.IndexPopulationFailedKernelExceptio
 import org.neo4j.kernel.api.index.IndexEntryUpdate;
 import org.neo4j.kernel.impl.api.SchemaState;
 import org.neo4j.logging.LogProvider;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.EntityType;
 import org.neo4j.util.FeatureToggles;
 
@@ -90,7 +91,19 @@ public class BatchingMultipleIndexPopulator extends MultipleIndexPopulator
     BatchingMultipleIndexPopulator( IndexStoreView storeView, LogProvider logProvider, EntityType type,
                                     SchemaState schemaState )
     {
-        super( storeView, logProvider, type, schemaState );
+        this( storeView, logProvider, type, schemaState, null, 1 );
+    }
+
+    /**
+     * Creates a new multi-threaded populator for the given store view, which reads entities from the store with
+     * the given number of scan workers, if the store scan supports it.
+     *
+     * @see MultipleIndexPopulator#MultipleIndexPopulator(IndexStoreView, LogProvider, EntityType, SchemaState, JobScheduler, int)
+     */
+    BatchingMultipleIndexPopulator( IndexStoreView storeView, LogProvider logProvider, EntityType type,
+                                    SchemaState schemaState, JobScheduler jobScheduler, int scanWorkers )
+    {
+        super( storeView, logProvider, type, schemaState, jobScheduler, scanWorkers );
         this.executor = createThreadPool();
     }
 
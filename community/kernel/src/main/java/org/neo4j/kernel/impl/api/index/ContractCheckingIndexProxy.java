@@ -137,6 +137,22 @@ public class ContractCheckingIndexProxy extends DelegatingIndexProxy
         }
     }
 
+    @Override
+    public void compact() throws IOException
+    {
+        if ( tryOpenCall( "compact" ) )
+        {
+            try
+            {
+                super.compact();
+            }
+            finally
+            {
+                closeCall();
+            }
+        }
+    }
+
     @Override
     public void drop()
     {
@@ -46,6 +46,7 @@ import org.neo4j.kernel.impl.api.index.updater.DelegatingIndexUpdater;
 import org.neo4j.storageengine.api.NodePropertyAccessor;
 import org.neo4j.storageengine.api.schema.CapableIndexDescriptor;
 import org.neo4j.storageengine.api.schema.IndexReader;
+import org.neo4j.storageengine.api.schema.IndexSample;
 import org.neo4j.storageengine.api.schema.PopulationProgress;
 import org.neo4j.values.storable.Value;
 
@@ -143,6 +144,20 @@ public class FlippableIndexProxy implements IndexProxy
         }
     }
 
+    @Override
+    public void compact() throws IOException
+    {
+        lock.readLock().lock();
+        try
+        {
+            delegate.compact();
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
     @Override
     public void refresh() throws IOException
     {
@@ -272,6 +287,20 @@ public class FlippableIndexProxy implements IndexProxy
         }
     }
 
+    @Override
+    public IndexSample incrementalSample()
+    {
+        lock.readLock().lock();
+        try
+        {
+            return delegate.incrementalSample();
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
     @Override
     public boolean awaitStoreScanCompleted( long time, TimeUnit unit ) throws IndexPopulationFailedKernelException, InterruptedException
     {
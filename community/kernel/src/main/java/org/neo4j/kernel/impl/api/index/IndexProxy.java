@@ -41,6 +41,7 @@ import org.neo4j.kernel.api.index.IndexUpdater;
 import org.neo4j.storageengine.api.NodePropertyAccessor;
 import org.neo4j.storageengine.api.schema.CapableIndexDescriptor;
 import org.neo4j.storageengine.api.schema.IndexReader;
+import org.neo4j.storageengine.api.schema.IndexSample;
 import org.neo4j.storageengine.api.schema.PopulationProgress;
 import org.neo4j.values.storable.Value;
 
@@ -92,6 +93,15 @@ public interface IndexProxy extends IndexConfigProvider
 
     void force( IOLimiter ioLimiter ) throws IOException;
 
+    /**
+     * Compacts the index, if it's online and can be compacted, otherwise does nothing.
+     *
+     * @see org.neo4j.kernel.api.index.IndexAccessor#compact()
+     */
+    default void compact() throws IOException
+    {
+    }
+
     void refresh() throws IOException;
 
     /**
@@ -99,6 +109,17 @@ public interface IndexProxy extends IndexConfigProvider
      */
     IndexReader newReader() throws IndexNotFoundKernelException;
 
+    /**
+     * @return a sample of the index from statistics maintained incrementally by it, or {@code null} if the index isn't online
+     * or doesn't maintain such statistics, in which case it needs to be sampled by scanning it.
+     *
+     * @see org.neo4j.kernel.api.index.IndexAccessor#incrementalSample()
+     */
+    default IndexSample incrementalSample()
+    {
+        return null;
+    }
+
     /**
      * @param time time to wait maximum. A value of 0 means indefinite wait.
      * @param unit unit of time to wait.
@@ -767,6 +767,15 @@ public class IndexingService extends LifecycleAdapter implements IndexingUpdateS
         indexMapRef.indexMapSnapshot().forEachIndexProxy( indexProxyOperation( "force", proxy -> proxy.force( limiter ) ) );
     }
 
+    /**
+     * Compacts all online indexes, one at a time, to return space they no longer need to the file system.
+     * The compactions become durable with the next {@link #forceAll(IOLimiter)}, which is part of every checkpoint.
+     */
+    public void compactAll()
+    {
+        indexMapRef.indexMapSnapshot().forEachIndexProxy( indexProxyOperation( "compact", IndexProxy::compact ) );
+    }
+
     private LongObjectProcedure<IndexProxy> indexProxyOperation( String name, ThrowingConsumer<IndexProxy, Exception> operation )
     {
         return ( id, indexProxy ) ->
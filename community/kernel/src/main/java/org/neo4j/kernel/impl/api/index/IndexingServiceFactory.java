@@ -54,7 +54,7 @@ public class IndexingServiceFactory
             boolean readOnly )
     {
         IndexSamplingConfig samplingConfig = new IndexSamplingConfig( config );
-        MultiPopulatorFactory multiPopulatorFactory = MultiPopulatorFactory.forConfig( config );
+        MultiPopulatorFactory multiPopulatorFactory = MultiPopulatorFactory.forConfig( config, scheduler );
         IndexMapReference indexMapRef = new IndexMapReference();
         IndexSamplingControllerFactory factory =
                 new IndexSamplingControllerFactory( samplingConfig, storeView, scheduler, tokenNameLookup, internalLogProvider );
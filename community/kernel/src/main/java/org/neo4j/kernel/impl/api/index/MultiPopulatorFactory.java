@@ -26,6 +26,7 @@ import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.impl.api.SchemaState;
 import org.neo4j.logging.LogProvider;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.EntityType;
 
 /**
@@ -33,39 +34,57 @@ import org.neo4j.storageengine.api.EntityType;
  * depending on the given config.
  *
  * @see GraphDatabaseSettings#multi_threaded_schema_index_population_enabled
+ * @see GraphDatabaseSettings#index_population_scan_workers
  */
 public abstract class MultiPopulatorFactory
 {
-    private MultiPopulatorFactory()
+    final JobScheduler jobScheduler;
+    final int scanWorkers;
+
+    private MultiPopulatorFactory( JobScheduler jobScheduler, int scanWorkers )
     {
+        this.jobScheduler = jobScheduler;
+        this.scanWorkers = scanWorkers;
     }
 
     public abstract MultipleIndexPopulator create( IndexStoreView storeView, LogProvider logProvider,
                                                    EntityType type, SchemaState schemaState );
 
-    public static MultiPopulatorFactory forConfig( Config config )
+    public static MultiPopulatorFactory forConfig( Config config, JobScheduler jobScheduler )
     {
         boolean multiThreaded = config.get( GraphDatabaseSettings.multi_threaded_schema_index_population_enabled );
-        return multiThreaded ? new MultiThreadedPopulatorFactory() : new SingleThreadedPopulatorFactory();
+        int scanWorkers = config.get( GraphDatabaseSettings.index_population_scan_workers );
+        return multiThreaded ? new MultiThreadedPopulatorFactory( jobScheduler, scanWorkers )
+                             : new SingleThreadedPopulatorFactory( jobScheduler, scanWorkers );
     }
 
     private static class SingleThreadedPopulatorFactory extends MultiPopulatorFactory
     {
+        SingleThreadedPopulatorFactory( JobScheduler jobScheduler, int scanWorkers )
+        {
+            super( jobScheduler, scanWorkers );
+        }
+
         @Override
         public MultipleIndexPopulator create( IndexStoreView storeView, LogProvider logProvider,
                                               EntityType type, SchemaState schemaState )
         {
-            return new MultipleIndexPopulator( storeView, logProvider, type, schemaState );
+            return new MultipleIndexPopulator( storeView, logProvider, type, schemaState, jobScheduler, scanWorkers );
         }
     }
 
     private static class MultiThreadedPopulatorFactory extends MultiPopulatorFactory
     {
+        MultiThreadedPopulatorFactory( JobScheduler jobScheduler, int scanWorkers )
+        {
+            super( jobScheduler, scanWorkers );
+        }
+
         @Override
         public MultipleIndexPopulator create( IndexStoreView storeView, LogProvider logProvider,
                                               EntityType type, SchemaState schemaState )
         {
-            return new BatchingMultipleIndexPopulator( storeView, logProvider, type, schemaState );
+            return new BatchingMultipleIndexPopulator( storeView, logProvider, type, schemaState, jobScheduler, scanWorkers );
         }
     }
 }
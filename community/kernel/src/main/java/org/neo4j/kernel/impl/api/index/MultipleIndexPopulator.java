@@ -33,10 +33,13 @@ import java.util.Queue;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
 import java.util.function.IntPredicate;
+import java.util.function.LongConsumer;
 import java.util.stream.IntStream;
 
 import org.neo4j.function.ThrowingConsumer;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.helpers.collection.Pair;
 import org.neo4j.helpers.collection.Visitor;
 import org.neo4j.internal.kernel.api.InternalIndexState;
@@ -51,6 +54,7 @@ import org.neo4j.kernel.api.index.IndexUpdater;
 import org.neo4j.kernel.impl.api.SchemaState;
 import org.neo4j.logging.Log;
 import org.neo4j.logging.LogProvider;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.EntityType;
 import org.neo4j.storageengine.api.NodePropertyAccessor;
 import org.neo4j.storageengine.api.schema.CapableIndexDescriptor;
@@ -77,6 +81,12 @@ import static org.neo4j.kernel.impl.api.index.IndexPopulationFailure.failure;
  * of concurrent threads.</li>
  * </ul>
  *
+ * The store scan may read entities with {@link GraphDatabaseSettings#index_population_scan_workers multiple threads},
+ * scheduled with the {@link JobScheduler}, if it
+ * {@link StoreScan#readInParallel(int, JobScheduler, BooleanSupplier, LongConsumer) supports it}.
+ * Updates from the scan are then fed into the populators concurrently, while queued updates are incorporated by one of
+ * the scan threads at a time, while no entities are being read.
+ *
  * Usage of this class should be something like:
  * <ol>
  * <li>Instantiation.</li>
@@ -111,9 +121,24 @@ public class MultipleIndexPopulator implements IndexPopulator
     private final EntityType type;
     private final SchemaState schemaState;
     private final PhaseTracker phaseTracker;
+    private final JobScheduler jobScheduler;
+    // Number of threads reading entities during the store scan, see StoreScan#readInParallel
+    private final int scanWorkers;
     private StoreScan<IndexPopulationFailedKernelException> storeScan;
+    // Whether or not the store scan is currently reading entities with multiple threads, see StoreScan#readInParallel
+    private volatile boolean scanningInParallel;
 
     public MultipleIndexPopulator( IndexStoreView storeView, LogProvider logProvider, EntityType type, SchemaState schemaState )
+    {
+        this( storeView, logProvider, type, schemaState, null, 1 );
+    }
+
+    /**
+     * @param jobScheduler for scheduling the threads reading entities, if more than one.
+     * @param scanWorkers number of threads reading entities during the store scan, if the store scan supports more than one.
+     */
+    public MultipleIndexPopulator( IndexStoreView storeView, LogProvider logProvider, EntityType type, SchemaState schemaState,
+            JobScheduler jobScheduler, int scanWorkers )
     {
         this.storeView = storeView;
         this.logProvider = logProvider;
@@ -121,6 +146,8 @@ public class MultipleIndexPopulator implements IndexPopulator
         this.type = type;
         this.schemaState = schemaState;
         this.phaseTracker = new LoggingPhaseTracker( logProvider.getLog( IndexPopulationJob.class ) );
+        this.jobScheduler = jobScheduler;
+        this.scanWorkers = scanWorkers;
     }
 
     IndexPopulation addPopulator( IndexPopulator populator, CapableIndexDescriptor capableIndexDescriptor, FlippableIndexProxy flipper,
@@ -179,12 +206,15 @@ public class MultipleIndexPopulator implements IndexPopulator
             storeScan = storeView.visitNodes( entityTokenIds, propertyKeyIdFilter, new EntityPopulationVisitor(), null, false );
         }
         storeScan.setPhaseTracker( phaseTracker );
+        scanningInParallel = scanWorkers > 1 && storeScan.readInParallel( scanWorkers, jobScheduler,
+                () -> updatesQueue.size() >= QUEUE_THRESHOLD, this::populateFromQueueBatched );
         return new DelegatingStoreScan<IndexPopulationFailedKernelException>( storeScan )
         {
             @Override
             public void run() throws IndexPopulationFailedKernelException
             {
                 super.run();
+                scanningInParallel = false;
                 flushAll();
             }
         };
@@ -376,7 +406,11 @@ public class MultipleIndexPopulator implements IndexPopulator
 
     protected void flush( IndexPopulation population )
     {
-        phaseTracker.enterPhase( PhaseTracker.Phase.WRITE );
+        if ( !scanningInParallel )
+        {
+            // Phases are those of the thread reading entities, which there is more than one of when scanning in parallel
+            phaseTracker.enterPhase( PhaseTracker.Phase.WRITE );
+        }
         doFlush( population );
     }
 
@@ -598,8 +632,14 @@ public class MultipleIndexPopulator implements IndexPopulator
 
         private void onUpdate( IndexEntryUpdate<?> update )
         {
-            populator.includeSample( update );
-            if ( batch( update ) )
+            boolean batchIsFull;
+            // Updates come from multiple threads when the store scan reads entities in parallel
+            synchronized ( this )
+            {
+                populator.includeSample( update );
+                batchIsFull = batch( update );
+            }
+            if ( batchIsFull )
             {
                 flush( this );
             }
@@ -658,13 +698,13 @@ public class MultipleIndexPopulator implements IndexPopulator
             return capableIndexDescriptor.schema();
         }
 
-        public boolean batch( IndexEntryUpdate<?> update )
+        public synchronized boolean batch( IndexEntryUpdate<?> update )
         {
             batchedUpdates.add( update );
             return batchedUpdates.size() >= BATCH_SIZE;
         }
 
-        List<IndexEntryUpdate<?>> takeCurrentBatch()
+        synchronized List<IndexEntryUpdate<?>> takeCurrentBatch()
         {
             if ( batchedUpdates.isEmpty() )
             {
@@ -697,7 +737,8 @@ public class MultipleIndexPopulator implements IndexPopulator
             {
                 log.info( "Added scan updates for entity %d", updates.getEntityId() );
             }
-            return populateFromQueueBatched( updates.getEntityId() );
+            // A scan reading entities in parallel applies queued updates when no entities are being read
+            return !scanningInParallel && populateFromQueueBatched( updates.getEntityId() );
         }
 
         private void add( EntityUpdates updates )
@@ -749,5 +790,12 @@ public class MultipleIndexPopulator implements IndexPopulator
         {
             delegate.setPhaseTracker( phaseTracker );
         }
+
+        @Override
+        public boolean readInParallel( int numberOfWorkers, JobScheduler jobScheduler, BooleanSupplier hasQueuedUpdates,
+                LongConsumer queuedUpdatesApplier )
+        {
+            return delegate.readInParallel( numberOfWorkers, jobScheduler, hasQueuedUpdates, queuedUpdatesApplier );
+        }
     }
 }
@@ -37,6 +37,7 @@ import org.neo4j.kernel.impl.api.index.updater.UpdateCountingIndexUpdater;
 import org.neo4j.storageengine.api.NodePropertyAccessor;
 import org.neo4j.storageengine.api.schema.CapableIndexDescriptor;
 import org.neo4j.storageengine.api.schema.IndexReader;
+import org.neo4j.storageengine.api.schema.IndexSample;
 import org.neo4j.storageengine.api.schema.PopulationProgress;
 import org.neo4j.values.storable.Value;
 
@@ -144,6 +145,12 @@ public class OnlineIndexProxy implements IndexProxy
         accessor.force( ioLimiter );
     }
 
+    @Override
+    public void compact()
+    {
+        accessor.compact();
+    }
+
     @Override
     public void refresh()
     {
@@ -162,6 +169,12 @@ public class OnlineIndexProxy implements IndexProxy
         return accessor.newReader();
     }
 
+    @Override
+    public IndexSample incrementalSample()
+    {
+        return accessor.incrementalSample();
+    }
+
     @Override
     public boolean awaitStoreScanCompleted( long time, TimeUnit unit )
     {
@@ -22,7 +22,11 @@
  */
 package org.neo4j.kernel.impl.api.index;
 
+import java.util.function.BooleanSupplier;
+import java.util.function.LongConsumer;
+
 import org.neo4j.kernel.api.index.IndexEntryUpdate;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.schema.PopulationProgress;
 
 public interface StoreScan<FAILURE extends Exception>
@@ -44,4 +48,24 @@ public interface StoreScan<FAILURE extends Exception>
     default void setPhaseTracker( PhaseTracker phaseTracker )
     {   // no-op
     }
+
+    /**
+     * Asks this {@link StoreScan} to read entities with multiple threads, which means that the visitors it was created with
+     * are called concurrently. Visitors must then leave it to this scan to say when queued updates can be applied,
+     * since that requires that no entities are being read at the same time.
+     * Must not be called once scan has already started.
+     *
+     * @param numberOfWorkers number of threads to read entities with.
+     * @param jobScheduler for scheduling the threads reading entities.
+     * @param hasQueuedUpdates whether or not there are queued updates to apply.
+     * @param queuedUpdatesApplier applies queued updates, given the currently indexed entity id to pass on to
+     * {@link #acceptUpdate(MultipleIndexPopulator.MultipleIndexUpdater, IndexEntryUpdate, long)}.
+     * @return {@code true} if this scan will read entities in parallel, or {@code false} if it will read them from the thread
+     * calling {@link #run()}, just as if this method wasn't called.
+     */
+    default boolean readInParallel( int numberOfWorkers, JobScheduler jobScheduler, BooleanSupplier hasQueuedUpdates,
+            LongConsumer queuedUpdatesApplier )
+    {
+        return false;
+    }
 }
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.index.sampling;
+
+import java.util.Arrays;
+
+/**
+ * Sketch estimating the number of distinct values added to it, using the HyperLogLog algorithm. It uses a fixed amount of memory,
+ * {@link #NUMBER_OF_REGISTERS} bytes, regardless of the number of values added, with a standard error of about 2.3% of the estimate.
+ * <p>
+ * Values are added as 64-bit hashes, see {@link org.neo4j.values.storable.Value#hashCode64()}. Values can't be removed from a sketch,
+ * so the estimate will include removed values until the sketch is rebuilt from the remaining values.
+ * <p>
+ * This class is not thread safe.
+ */
+public class HyperLogLog
+{
+    private static final int PRECISION = 11;
+    public static final int NUMBER_OF_REGISTERS = 1 << PRECISION;
+    private static final int MAX_RANK = Long.SIZE - PRECISION + 1;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / NUMBER_OF_REGISTERS);
+
+    private final byte[] registers;
+
+    public HyperLogLog()
+    {
+        this( new byte[NUMBER_OF_REGISTERS] );
+    }
+
+    /**
+     * @param registers registers of a sketch, as previously returned by {@link #registers()}.
+     */
+    public HyperLogLog( byte[] registers )
+    {
+        if ( registers.length != NUMBER_OF_REGISTERS )
+        {
+            throw new IllegalArgumentException( "Expected " + NUMBER_OF_REGISTERS + " registers, but got " + registers.length );
+        }
+        this.registers = registers;
+    }
+
+    public void add( long hash )
+    {
+        long bits = mix( hash );
+        int register = (int) (bits >>> (Long.SIZE - PRECISION));
+        long remainder = bits << PRECISION;
+        int rank = remainder == 0 ? MAX_RANK : Long.numberOfLeadingZeros( remainder ) + 1;
+        if ( rank > registers[register] )
+        {
+            registers[register] = (byte) rank;
+        }
+    }
+
+    /**
+     * Adds all values added to {@code other} to this sketch.
+     */
+    public void merge( HyperLogLog other )
+    {
+        for ( int i = 0; i < NUMBER_OF_REGISTERS; i++ )
+        {
+            if ( other.registers[i] > registers[i] )
+            {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    /**
+     * @return estimated number of distinct values added to this sketch.
+     */
+    public long estimate()
+    {
+        double sum = 0;
+        int emptyRegisters = 0;
+        for ( byte rank : registers )
+        {
+            sum += 1.0 / (1L << rank);
+            if ( rank == 0 )
+            {
+                emptyRegisters++;
+            }
+        }
+        double estimate = ALPHA * NUMBER_OF_REGISTERS * NUMBER_OF_REGISTERS / sum;
+        if ( estimate <= 2.5 * NUMBER_OF_REGISTERS && emptyRegisters > 0 )
+        {
+            // Small cardinalities are estimated more accurately by counting empty registers
+            estimate = NUMBER_OF_REGISTERS * Math.log( (double) NUMBER_OF_REGISTERS / emptyRegisters );
+        }
+        return Math.round( estimate );
+    }
+
+    /**
+     * @return a copy of the registers of this sketch, which can be used to recreate it using {@link #HyperLogLog(byte[])}.
+     */
+    public byte[] registers()
+    {
+        return Arrays.copyOf( registers, NUMBER_OF_REGISTERS );
+    }
+
+    private static long mix( long hash )
+    {
+        // Finalization step of MurmurHash3, spreading the bits of hashes which aren't well distributed over all 64 bits
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -26,6 +26,8 @@ import org.eclipse.collections.api.iterator.LongIterator;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -57,6 +59,9 @@ public class IndexSamplingController
     private final RecoveryCondition indexRecoveryCondition;
     private final boolean backgroundSampling;
     private final Lock samplingLock = new ReentrantLock();
+    // Indexes queued for a forced rebuild, which scans the index rather than using statistics maintained incrementally by it,
+    // so that those statistics get verified and corrected
+    private final Set<Long> fullScanRequested = ConcurrentHashMap.newKeySet();
     private final Log log;
     static final String LOG_RECOVER_INDEX_SAMPLES_NAME = "log_recover_index_samples";
     static final String ASYNC_RECOVER_INDEX_SAMPLES_NAME = "async_recover_index_samples";
@@ -94,6 +99,14 @@ public class IndexSamplingController
     public void sampleIndexes( IndexSamplingMode mode )
     {
         IndexMap indexMap = indexMapSnapshotProvider.indexMapSnapshot();
+        if ( !mode.sampleOnlyIfUpdated )
+        {
+            LongIterator indexIds = indexMap.indexIds();
+            while ( indexIds.hasNext() )
+            {
+                fullScanRequested.add( indexIds.next() );
+            }
+        }
         jobQueue.addAll( !mode.sampleOnlyIfUpdated, PrimitiveLongCollections.toIterator( indexMap.indexIds() ) );
         scheduleSampling( mode, indexMap );
     }
@@ -101,6 +114,10 @@ public class IndexSamplingController
     public void sampleIndex( long indexId, IndexSamplingMode mode )
     {
         IndexMap indexMap = indexMapSnapshotProvider.indexMapSnapshot();
+        if ( !mode.sampleOnlyIfUpdated )
+        {
+            fullScanRequested.add( indexId );
+        }
         jobQueue.add( !mode.sampleOnlyIfUpdated, indexId );
         scheduleSampling( mode, indexMap );
     }
@@ -124,13 +141,14 @@ public class IndexSamplingController
                         log.info( "Index requires sampling, id=%d, name=%s.", indexId, descriptor.getName() );
                     }
 
+                    // Samples are recovered by scanning the index, since statistics maintained by it may be missing or lost as well
                     if ( asyncRecoverIndexSamples )
                     {
-                        asyncSamplingJobs.add( sampleIndexOnTracker( indexMap, indexId ) );
+                        asyncSamplingJobs.add( sampleIndexOnTracker( indexMap, indexId, true ) );
                     }
                     else
                     {
-                        sampleIndexOnCurrentThread( indexMap, indexId );
+                        sampleIndexOnCurrentThread( indexMap, indexId, true );
                     }
                 }
                 else
@@ -201,7 +219,7 @@ public class IndexSamplingController
                         return;
                     }
 
-                    sampleIndexOnTracker( indexMap, indexId );
+                    sampleIndexOnTracker( indexMap, indexId, fullScanRequested.remove( indexId ) );
                 }
             }
             finally
@@ -234,7 +252,7 @@ public class IndexSamplingController
             for ( Long indexId : indexIds )
             {
                 jobTracker.waitUntilCanExecuteMoreSamplingJobs();
-                sampleIndexOnTracker( indexMap, indexId );
+                sampleIndexOnTracker( indexMap, indexId, fullScanRequested.remove( indexId ) );
             }
         }
         finally
@@ -243,9 +261,9 @@ public class IndexSamplingController
         }
     }
 
-    private IndexSamplingJobHandle sampleIndexOnTracker( IndexMap indexMap, long indexId )
+    private IndexSamplingJobHandle sampleIndexOnTracker( IndexMap indexMap, long indexId, boolean fullScan )
     {
-        IndexSamplingJob job = createSamplingJob( indexMap, indexId );
+        IndexSamplingJob job = createSamplingJob( indexMap, indexId, fullScan );
         if ( job != null )
         {
             return new IndexSamplingJobHandle( job, jobTracker.scheduleSamplingJob( job ) );
@@ -253,23 +271,23 @@ public class IndexSamplingController
         return new IndexSamplingJobHandle( job, JobHandle.nullInstance );
     }
 
-    private void sampleIndexOnCurrentThread( IndexMap indexMap, long indexId )
+    private void sampleIndexOnCurrentThread( IndexMap indexMap, long indexId, boolean fullScan )
     {
-        IndexSamplingJob job = createSamplingJob( indexMap, indexId );
+        IndexSamplingJob job = createSamplingJob( indexMap, indexId, fullScan );
         if ( job != null )
         {
             job.run();
         }
     }
 
-    private IndexSamplingJob createSamplingJob( IndexMap indexMap, long indexId )
+    private IndexSamplingJob createSamplingJob( IndexMap indexMap, long indexId, boolean fullScan )
     {
         IndexProxy proxy = indexMap.getIndexProxy( indexId );
         if ( proxy == null || proxy.getState() != InternalIndexState.ONLINE )
         {
             return null;
         }
-        return jobFactory.create( indexId, proxy );
+        return jobFactory.create( indexId, proxy, fullScan );
     }
 
     public void start()
@@ -26,5 +26,12 @@ import org.neo4j.kernel.impl.api.index.IndexProxy;
 
 public interface IndexSamplingJobFactory
 {
-    IndexSamplingJob create( long indexId, IndexProxy indexProxy );
+    /**
+     * @param indexId id of the index to sample.
+     * @param indexProxy the index to sample.
+     * @param fullScan whether or not the index must be sampled by scanning it, rather than from statistics maintained incrementally
+     * by it, see {@link IndexProxy#incrementalSample()}.
+     * @return job sampling the index.
+     */
+    IndexSamplingJob create( long indexId, IndexProxy indexProxy, boolean fullScan );
 }
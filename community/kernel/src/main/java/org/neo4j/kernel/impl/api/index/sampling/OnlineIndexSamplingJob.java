@@ -42,15 +42,17 @@ class OnlineIndexSamplingJob implements IndexSamplingJob
     private final IndexStoreView storeView;
     private final Log log;
     private final String indexUserDescription;
+    private final boolean fullScan;
 
     OnlineIndexSamplingJob( long indexId, IndexProxy indexProxy, IndexStoreView storeView, String indexUserDescription,
-            LogProvider logProvider )
+            boolean fullScan, LogProvider logProvider )
     {
         this.indexId = indexId;
         this.indexProxy = indexProxy;
         this.storeView = storeView;
         this.log = logProvider.getLog( getClass() );
         this.indexUserDescription = indexUserDescription;
+        this.fullScan = fullScan;
     }
 
     @Override
@@ -66,27 +68,27 @@ class OnlineIndexSamplingJob implements IndexSamplingJob
         {
             try
             {
-                try ( IndexReader reader = indexProxy.newReader();
-                      IndexSampler sampler = reader.createSampler() )
+                IndexSample sample = fullScan ? null : indexProxy.incrementalSample();
+                if ( sample == null )
                 {
-                    IndexSample sample = sampler.sampleIndex();
+                    sample = scanIndex();
+                }
 
-                    // check again if the index is online before saving the counts in the store
-                    if ( indexProxy.getState() == ONLINE )
-                    {
-                        storeView.replaceIndexCounts( indexId, sample.uniqueValues(), sample.sampleSize(),
-                                sample.indexSize() );
-                        durationLogger.markAsFinished();
-                        log.debug(
-                                format( "Sampled index %s with %d unique values in sample of avg size %d taken from " +
-                                        "index containing %d entries",
-                                        indexUserDescription, sample.uniqueValues(), sample.sampleSize(),
-                                        sample.indexSize() ) );
-                    }
-                    else
-                    {
-                        durationLogger.markAsAborted( "Index no longer ONLINE" );
-                    }
+                // check again if the index is online before saving the counts in the store
+                if ( indexProxy.getState() == ONLINE )
+                {
+                    storeView.replaceIndexCounts( indexId, sample.uniqueValues(), sample.sampleSize(),
+                            sample.indexSize() );
+                    durationLogger.markAsFinished();
+                    log.debug(
+                            format( "Sampled index %s with %d unique values in sample of avg size %d taken from " +
+                                    "index containing %d entries",
+                                    indexUserDescription, sample.uniqueValues(), sample.sampleSize(),
+                                    sample.indexSize() ) );
+                }
+                else
+                {
+                    durationLogger.markAsAborted( "Index no longer ONLINE" );
                 }
             }
             catch ( IndexNotFoundKernelException e )
@@ -97,4 +99,12 @@ class OnlineIndexSamplingJob implements IndexSamplingJob
         }
     }
 
+    private IndexSample scanIndex() throws IndexNotFoundKernelException
+    {
+        try ( IndexReader reader = indexProxy.newReader();
+              IndexSampler sampler = reader.createSampler() )
+        {
+            return sampler.sampleIndex();
+        }
+    }
 }
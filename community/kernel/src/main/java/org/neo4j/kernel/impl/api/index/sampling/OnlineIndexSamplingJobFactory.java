@@ -41,9 +41,9 @@ public class OnlineIndexSamplingJobFactory implements IndexSamplingJobFactory
     }
 
     @Override
-    public IndexSamplingJob create( long indexId, IndexProxy indexProxy )
+    public IndexSamplingJob create( long indexId, IndexProxy indexProxy, boolean fullScan )
     {
         final String indexUserDescription = indexProxy.getDescriptor().userDescription( nameLookup );
-        return new OnlineIndexSamplingJob( indexId, indexProxy, storeView, indexUserDescription, logProvider );
+        return new OnlineIndexSamplingJob( indexId, indexProxy, storeView, indexUserDescription, fullScan, logProvider );
     }
 }
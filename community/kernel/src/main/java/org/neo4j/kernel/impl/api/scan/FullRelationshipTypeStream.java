@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.scan;
+
+import org.apache.commons.lang3.ArrayUtils;
+
+import java.io.IOException;
+
+import org.neo4j.kernel.api.labelscan.LabelScanWriter;
+import org.neo4j.kernel.api.labelscan.NodeLabelUpdate;
+import org.neo4j.kernel.impl.index.labelscan.NativeRelationshipTypeScanStore;
+import org.neo4j.kernel.impl.storageengine.impl.recordstorage.RecordStorageReader;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.storageengine.api.StorageRelationshipScanCursor;
+
+/**
+ * {@link FullStoreChangeStream} scanning the relationship store, for rebuilding a {@link NativeRelationshipTypeScanStore}.
+ * Each relationship in use is written as an update of the relationship id going from no labels to its relationship type.
+ */
+public class FullRelationshipTypeStream implements FullStoreChangeStream
+{
+    private final NeoStores neoStores;
+
+    public FullRelationshipTypeStream( NeoStores neoStores )
+    {
+        this.neoStores = neoStores;
+    }
+
+    @Override
+    public long applyTo( LabelScanWriter writer ) throws IOException
+    {
+        long count = 0;
+        try ( StorageRelationshipScanCursor cursor = new RecordStorageReader( neoStores ).allocateRelationshipScanCursor() )
+        {
+            cursor.scan();
+            while ( cursor.next() )
+            {
+                writer.write( NodeLabelUpdate.labelChanges( cursor.entityReference(), ArrayUtils.EMPTY_LONG_ARRAY,
+                        new long[]{cursor.type()} ) );
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -24,6 +24,7 @@ package org.neo4j.kernel.impl.index.labelscan;
 
 import org.neo4j.index.internal.gbptree.GBPTree;
 import org.neo4j.index.internal.gbptree.Layout;
+import org.neo4j.index.internal.gbptree.TreeNodeDynamicSize;
 import org.neo4j.io.pagecache.PageCursor;
 
 /**
@@ -31,13 +32,17 @@ import org.neo4j.io.pagecache.PageCursor;
  *
  * <ul>
  * <li>
- * Each keys is a combination of {@code labelId} and {@code nodeIdRange} ({@code nodeId/64}).
+ * Each keys is a combination of {@code labelId} and {@code nodeIdRange} ({@code nodeId/rangeSize}).
  * </li>
  * <li>
- * Each value is a 64-bit bit set (a primitive {@code long}) where each set bit in it represents
- * a node with that label, such that {@code nodeId = nodeIdRange+bitOffset}. Range size is 64 bits.
+ * Each value is a {@link LabelScanValue} containing the offsets of the nodes in that range which have that label,
+ * such that {@code nodeId = nodeIdRange*rangeSize+offset}. Values are stored as sorted offsets, a bitmap or runs
+ * of offsets, whichever is smallest, which allows for much larger ranges than a single {@code long} bitmap.
+ * Range size is chosen from page size, see {@link #rangeSizeFor(int)}, and is part of the {@link #identifier()}.
  * </li>
  * </ul>
+ *
+ * Stores in the previous format, with fixed size ranges of 64 nodes, are read using {@link LegacyLabelScanLayout}.
  */
 public class LabelScanLayout extends Layout.Adapter<LabelScanKey,LabelScanValue>
 {
@@ -51,6 +56,54 @@ public class LabelScanLayout extends Layout.Adapter<LabelScanKey,LabelScanValue>
      */
     private static final int KEY_SIZE = Integer.BYTES/*labelId*/ + 6/*idRange*/;
 
+    private final int rangeSize;
+
+    public LabelScanLayout( int rangeSize )
+    {
+        if ( Integer.bitCount( rangeSize ) != 1 || rangeSize < LabelScanValue.MIN_RANGE_SIZE ||
+                rangeSize > LabelScanValue.MAX_RANGE_SIZE )
+        {
+            throw new IllegalArgumentException( "Range size must be a power of two between " + LabelScanValue.MIN_RANGE_SIZE +
+                    " and " + LabelScanValue.MAX_RANGE_SIZE + ", but was " + rangeSize );
+        }
+        this.rangeSize = rangeSize;
+    }
+
+    /**
+     * Picks the largest range size for which a range in {@link LabelScanValue#BITMAP bitmap} form, i.e. its worst case,
+     * takes up at most half of the maximum key/value size that fits in a tree node of the given page size.
+     *
+     * @param pageSize page size of the {@link GBPTree}.
+     * @return range size to use for the given page size.
+     */
+    public static int rangeSizeFor( int pageSize )
+    {
+        int maxBitmapBytes = TreeNodeDynamicSize.keyValueSizeCapFromPageSize( pageSize ) / 2 - KEY_SIZE;
+        int rangeSize = LabelScanValue.MIN_RANGE_SIZE;
+        while ( rangeSize < LabelScanValue.MAX_RANGE_SIZE && (rangeSize * 2) / Byte.SIZE <= maxBitmapBytes )
+        {
+            rangeSize *= 2;
+        }
+        return rangeSize;
+    }
+
+    /**
+     * @return number of node ids in each range.
+     */
+    int rangeSize()
+    {
+        return rangeSize;
+    }
+
+    /**
+     * @param nodeId node id to get range for.
+     * @return the range the given node id belongs to.
+     */
+    long rangeOf( long nodeId )
+    {
+        return nodeId / rangeSize;
+    }
+
     /**
      * Compares {@link LabelScanKey}, giving ascending order of {@code labelId} then {@code nodeIdRange}.
      */
@@ -78,7 +131,7 @@ public class LabelScanLayout extends Layout.Adapter<LabelScanKey,LabelScanValue>
     @Override
     public LabelScanValue newValue()
     {
-        return new LabelScanValue();
+        return new LabelScanValue( rangeSize );
     }
 
     @Override
@@ -90,7 +143,7 @@ public class LabelScanLayout extends Layout.Adapter<LabelScanKey,LabelScanValue>
     @Override
     public int valueSize( LabelScanValue value )
     {
-        return LabelScanValue.RANGE_SIZE_BYTES;
+        return value.serializedSize();
     }
 
     @Override
@@ -100,7 +153,7 @@ public class LabelScanLayout extends Layout.Adapter<LabelScanKey,LabelScanValue>
         put6ByteLong( cursor, key.idRange );
     }
 
-    private static void put6ByteLong( PageCursor cursor, long value )
+    static void put6ByteLong( PageCursor cursor, long value )
     {
         cursor.putInt( (int) value );
         cursor.putShort( (short) (value >>> Integer.SIZE) );
@@ -109,7 +162,7 @@ public class LabelScanLayout extends Layout.Adapter<LabelScanKey,LabelScanValue>
     @Override
     public void writeValue( PageCursor cursor, LabelScanValue value )
     {
-        cursor.putLong( value.bits );
+        value.write( cursor );
     }
 
     @Override
@@ -119,7 +172,7 @@ public class LabelScanLayout extends Layout.Adapter<LabelScanKey,LabelScanValue>
         into.idRange = get6ByteLong( cursor );
     }
 
-    private static long get6ByteLong( PageCursor cursor )
+    static long get6ByteLong( PageCursor cursor )
     {
         long low4b = cursor.getInt() & 0xFFFFFFFFL;
         long high2b = cursor.getShort();
@@ -129,30 +182,30 @@ public class LabelScanLayout extends Layout.Adapter<LabelScanKey,LabelScanValue>
     @Override
     public void readValue( PageCursor cursor, LabelScanValue into, int valueSize )
     {
-        into.bits = cursor.getLong();
+        into.read( cursor, valueSize );
     }
 
     @Override
     public boolean fixedSize()
     {
-        return true;
+        return false;
     }
 
     @Override
     public long identifier()
     {
-        return Layout.namedIdentifier( IDENTIFIER_NAME, LabelScanValue.RANGE_SIZE );
+        return Layout.namedIdentifier( IDENTIFIER_NAME, rangeSize );
     }
 
     @Override
     public int majorVersion()
     {
-        return 0;
+        return 1;
     }
 
     @Override
     public int minorVersion()
     {
-        return 1;
+        return 0;
     }
 }
@@ -22,69 +22,600 @@
  */
 package org.neo4j.kernel.impl.index.labelscan;
 
+import java.util.Arrays;
+
+import org.neo4j.io.pagecache.PageCursor;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
 /**
- * A small bit set of maximum 64 bits. Used in {@link LabelScanLayout}.
+ * Set of nodes in one range of {@link #rangeSize() range size} consecutive node ids, where each node is represented
+ * by its offset in the range. The set is kept in one of three forms, roaring bitmap style, whichever is smallest:
+ * <ul>
+ * <li>{@link #ARRAY}: sorted offsets, two bytes each. Used for sparse ranges.</li>
+ * <li>{@link #BITMAP}: one bit for each node in the range. Used for dense ranges.</li>
+ * <li>{@link #RUN}: sorted runs of consecutive offsets, as start offset and length minus one, two bytes each.
+ * Used for ranges with long runs of nodes, e.g. nodes created in bulk.</li>
+ * </ul>
+ * Changes are applied to the bitmap form, after which {@link #add(LabelScanValue)} and {@link #remove(LabelScanValue)}
+ * pick the smallest form again. Offsets are stored as unsigned shorts, which limits range size to {@link #MAX_RANGE_SIZE}.
  */
 class LabelScanValue
 {
-    static final int RANGE_SIZE = Long.SIZE;
-    static final int RANGE_SIZE_BYTES = Long.BYTES;
+    static final byte ARRAY = 0;
+    static final byte BITMAP = 1;
+    static final byte RUN = 2;
+
+    /**
+     * Smallest range size, i.e. a bitmap of a single {@code long}.
+     */
+    static final int MIN_RANGE_SIZE = Long.SIZE;
+
+    /**
+     * Largest range size, such that all offsets fit in an unsigned short.
+     */
+    static final int MAX_RANGE_SIZE = 1 << Short.SIZE;
+
+    private static final short[] NO_SHORTS = new short[0];
+    private static final int TYPE_SIZE = Byte.BYTES;
+
+    private final int rangeSize;
+
+    /**
+     * One of {@link #ARRAY}, {@link #BITMAP} or {@link #RUN}.
+     */
+    byte type = ARRAY;
+
+    /**
+     * Number of offsets in {@link #ARRAY} form, number of runs in {@link #RUN} form, unused in {@link #BITMAP} form.
+     */
+    private int size;
 
     /**
-     * Small bit set.
+     * Offsets in {@link #ARRAY} form, or pairs of start offset and length minus one in {@link #RUN} form. Unsigned.
      */
-    long bits;
+    private short[] shorts = NO_SHORTS;
 
     /**
-     * Sets bit at given {@code index}, where {@code index=0} is the lowest index, {@code index=63} the highest.
+     * Bits in {@link #BITMAP} form, allocated the first time it's needed.
+     */
+    private long[] words;
+
+    LabelScanValue( int rangeSize )
+    {
+        this.rangeSize = rangeSize;
+    }
+
+    int rangeSize()
+    {
+        return rangeSize;
+    }
+
+    /**
+     * Adds node at given {@code offset} to this set, where {@code offset=0} is the lowest node in the range.
+     * Adding offsets in ascending order is the cheapest.
      *
-     * @param index index into the bit set of the bit to set.
+     * @param offset offset of the node to add.
+     * @return this instance, for convenience.
      */
-    LabelScanValue set( int index )
+    LabelScanValue set( int offset )
     {
-        long mask = 1L << index;
-        bits |= mask;
+        if ( type == RUN )
+        {
+            toBitmap();
+        }
+        if ( type == BITMAP )
+        {
+            words[offset >>> 6] |= 1L << offset;
+            return this;
+        }
+
+        int index = size == 0 || offset > (shorts[size - 1] & 0xFFFF) ? size : binarySearch( offset );
+        if ( index >= 0 )
+        {
+            if ( size == maxArraySize() )
+            {
+                toBitmap();
+                words[offset >>> 6] |= 1L << offset;
+                return this;
+            }
+            ensureCapacity( size + 1 );
+            System.arraycopy( shorts, index, shorts, index + 1, size - index );
+            shorts[index] = (short) offset;
+            size++;
+        }
         return this;
     }
 
     /**
-     * Adds all bits from {@code other} to this bit set.
-     * Result is a union of the two bit sets. {@code other} is kept intact.
+     * Adds all nodes from {@code other} to this set. Result is a union of the two sets. {@code other} is kept intact.
      *
-     * @param other value containing bits to add.
-     * @return this instance, now with added bits from {@code other}.
+     * @param other value containing nodes to add.
+     * @return this instance, now with added nodes from {@code other}.
      */
     LabelScanValue add( LabelScanValue other )
     {
-        bits |= other.bits;
+        toBitmap();
+        other.applyTo( words, true );
+        optimize();
         return this;
     }
 
     /**
-     * Removes all bits in {@code other} from this bit set.
-     * Result is bits in this set before the call with all bits from {@code other} removed.
-     * {@code other} is kept intact.
+     * Removes all nodes in {@code other} from this set. Result is nodes in this set before the call with all nodes
+     * from {@code other} removed. {@code other} is kept intact.
      *
-     * @param other value containing bits to remove.
-     * @return this instance, now with removed bits from {@code other}.
+     * @param other value containing nodes to remove.
+     * @return this instance, now with removed nodes from {@code other}.
      */
     LabelScanValue remove( LabelScanValue other )
     {
-        bits &= ~other.bits;
+        toBitmap();
+        other.applyTo( words, false );
+        optimize();
         return this;
     }
 
     /**
-     * Clears all bits in this bit set.
+     * Clears all nodes in this set.
      */
     void clear()
     {
-        bits = 0;
+        type = ARRAY;
+        size = 0;
+    }
+
+    boolean isEmpty()
+    {
+        if ( type != BITMAP )
+        {
+            return size == 0;
+        }
+        for ( long word : words )
+        {
+            if ( word != 0 )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Converts this set into the smallest of the three forms.
+     */
+    void optimize()
+    {
+        toBitmap();
+        int cardinality = 0;
+        int runs = 0;
+        long carry = 0;
+        for ( long word : words )
+        {
+            cardinality += Long.bitCount( word );
+            // A run starts at each set bit whose preceding bit is not set
+            runs += Long.bitCount( word & ~((word << 1) | carry) );
+            carry = word >>> 63;
+        }
+
+        int arrayBytes = cardinality * Short.BYTES;
+        int runBytes = runs * 2 * Short.BYTES;
+        int bitmapBytes = rangeSize / Byte.SIZE;
+        if ( runBytes < min( arrayBytes, bitmapBytes ) )
+        {
+            bitmapToRuns( runs );
+        }
+        else if ( arrayBytes <= bitmapBytes )
+        {
+            bitmapToArray( cardinality );
+        }
+    }
+
+    private void toBitmap()
+    {
+        if ( type == BITMAP )
+        {
+            return;
+        }
+        if ( words == null )
+        {
+            words = new long[rangeSize / Long.SIZE];
+        }
+        else
+        {
+            Arrays.fill( words, 0 );
+        }
+        applyTo( words, true );
+        type = BITMAP;
+    }
+
+    /**
+     * Sets, or clears, the bits of the nodes in this set in the given bitmap.
+     */
+    private void applyTo( long[] bitmap, boolean set )
+    {
+        switch ( type )
+        {
+        case ARRAY:
+            for ( int i = 0; i < size; i++ )
+            {
+                int offset = shorts[i] & 0xFFFF;
+                long mask = 1L << offset;
+                bitmap[offset >>> 6] = set ? bitmap[offset >>> 6] | mask : bitmap[offset >>> 6] & ~mask;
+            }
+            break;
+        case BITMAP:
+            for ( int i = 0; i < bitmap.length; i++ )
+            {
+                bitmap[i] = set ? bitmap[i] | words[i] : bitmap[i] & ~words[i];
+            }
+            break;
+        case RUN:
+            for ( int i = 0; i < size; i++ )
+            {
+                int start = shorts[i * 2] & 0xFFFF;
+                applyRange( bitmap, start, start + (shorts[i * 2 + 1] & 0xFFFF) + 1, set );
+            }
+            break;
+        default:
+            throw new IllegalStateException( "Unknown type " + type );
+        }
+    }
+
+    /**
+     * Sets, or clears, bits {@code from} (inclusive) to {@code to} (exclusive) in the given bitmap.
+     */
+    private static void applyRange( long[] bitmap, int from, int to, boolean set )
+    {
+        int fromWord = from >>> 6;
+        int toWord = (to - 1) >>> 6;
+        for ( int i = fromWord; i <= toWord; i++ )
+        {
+            long mask = -1L;
+            if ( i == fromWord )
+            {
+                mask &= -1L << from;
+            }
+            if ( i == toWord )
+            {
+                mask &= -1L >>> (Long.SIZE - 1 - ((to - 1) & 63));
+            }
+            bitmap[i] = set ? bitmap[i] | mask : bitmap[i] & ~mask;
+        }
+    }
+
+    private void bitmapToArray( int cardinality )
+    {
+        ensureCapacity( cardinality );
+        int index = 0;
+        for ( int i = 0; i < words.length; i++ )
+        {
+            long word = words[i];
+            while ( word != 0 )
+            {
+                shorts[index++] = (short) ((i << 6) + Long.numberOfTrailingZeros( word ));
+                word &= word - 1;
+            }
+        }
+        size = cardinality;
+        type = ARRAY;
+    }
+
+    private void bitmapToRuns( int runs )
+    {
+        ensureCapacity( runs * 2 );
+        int index = 0;
+        int i = 0;
+        long word = words[0];
+        while ( true )
+        {
+            while ( word == 0 )
+            {
+                if ( ++i == words.length )
+                {
+                    size = runs;
+                    type = RUN;
+                    return;
+                }
+                word = words[i];
+            }
+            int start = (i << 6) + Long.numberOfTrailingZeros( word );
+            // Fill in the bits below the run, so that the first unset bit is where the run ends
+            word |= word - 1;
+            while ( word == -1L && i + 1 < words.length )
+            {
+                word = words[++i];
+            }
+            int end = word == -1L ? rangeSize : (i << 6) + Long.numberOfTrailingZeros( ~word );
+            shorts[index++] = (short) start;
+            shorts[index++] = (short) (end - start - 1);
+            // Clear the run
+            word &= word + 1;
+        }
+    }
+
+    private int binarySearch( int offset )
+    {
+        int low = 0;
+        int high = size - 1;
+        while ( low <= high )
+        {
+            int mid = (low + high) >>> 1;
+            int midOffset = shorts[mid] & 0xFFFF;
+            if ( midOffset < offset )
+            {
+                low = mid + 1;
+            }
+            else if ( midOffset > offset )
+            {
+                high = mid - 1;
+            }
+            else
+            {
+                return -1;
+            }
+        }
+        return low;
+    }
+
+    private void ensureCapacity( int capacity )
+    {
+        if ( shorts.length < capacity )
+        {
+            shorts = Arrays.copyOf( shorts, max( capacity, min( shorts.length * 2, maxArraySize() ) ) );
+        }
+    }
+
+    /**
+     * @return number of offsets at which {@link #ARRAY} form is as large as {@link #BITMAP} form.
+     */
+    private int maxArraySize()
+    {
+        return rangeSize / Short.SIZE;
+    }
+
+    int serializedSize()
+    {
+        switch ( type )
+        {
+        case ARRAY:
+            return TYPE_SIZE + size * Short.BYTES;
+        case BITMAP:
+            return TYPE_SIZE + rangeSize / Byte.SIZE;
+        case RUN:
+            return TYPE_SIZE + size * 2 * Short.BYTES;
+        default:
+            throw new IllegalStateException( "Unknown type " + type );
+        }
+    }
+
+    void write( PageCursor cursor )
+    {
+        cursor.putByte( type );
+        if ( type == BITMAP )
+        {
+            for ( long word : words )
+            {
+                cursor.putLong( word );
+            }
+        }
+        else
+        {
+            int count = type == RUN ? size * 2 : size;
+            for ( int i = 0; i < count; i++ )
+            {
+                cursor.putShort( shorts[i] );
+            }
+        }
+    }
+
+    void read( PageCursor cursor, int serializedSize )
+    {
+        byte readType = cursor.getByte();
+        int payloadSize = serializedSize - TYPE_SIZE;
+        switch ( readType )
+        {
+        case ARRAY:
+        case RUN:
+            int count = payloadSize / Short.BYTES;
+            if ( shorts.length < count )
+            {
+                shorts = new short[count];
+            }
+            for ( int i = 0; i < count; i++ )
+            {
+                shorts[i] = cursor.getShort();
+            }
+            size = readType == RUN ? count / 2 : count;
+            type = readType;
+            break;
+        case BITMAP:
+            if ( payloadSize != rangeSize / Byte.SIZE )
+            {
+                cursor.setCursorException( "Unexpected bitmap size " + payloadSize + " for range size " + rangeSize );
+                clear();
+                break;
+            }
+            if ( words == null )
+            {
+                words = new long[rangeSize / Long.SIZE];
+            }
+            for ( int i = 0; i < words.length; i++ )
+            {
+                words[i] = cursor.getLong();
+            }
+            type = BITMAP;
+            break;
+        default:
+            cursor.setCursorException( "Unknown label scan value type " + readType );
+            clear();
+            break;
+        }
+    }
+
+    /**
+     * @return all offsets in this set, in ascending order.
+     */
+    int[] toOffsets()
+    {
+        int[] result = new int[cardinality()];
+        Offsets offsets = new Offsets();
+        offsets.initialize( this, 0 );
+        for ( int i = 0; i < result.length; i++ )
+        {
+            result[i] = offsets.next();
+        }
+        return result;
+    }
+
+    private int cardinality()
+    {
+        switch ( type )
+        {
+        case ARRAY:
+            return size;
+        case BITMAP:
+            int cardinality = 0;
+            for ( long word : words )
+            {
+                cardinality += Long.bitCount( word );
+            }
+            return cardinality;
+        case RUN:
+            int runLengths = size;
+            for ( int i = 0; i < size; i++ )
+            {
+                runLengths += shorts[i * 2 + 1] & 0xFFFF;
+            }
+            return runLengths;
+        default:
+            throw new IllegalStateException( "Unknown type " + type );
+        }
     }
 
     @Override
     public String toString()
     {
-        return String.valueOf( bits );
+        return Arrays.toString( toOffsets() );
+    }
+
+    /**
+     * Iterates over the offsets of a {@link LabelScanValue} in ascending order, without copying its contents.
+     * The value must not change while iterating.
+     */
+    static class Offsets
+    {
+        private LabelScanValue value;
+        private int index;
+        private long word;
+        private int next;
+        private int runEnd;
+
+        /**
+         * Positions this instance at the first offset in {@code value} which is equal to or higher than {@code from}.
+         */
+        void initialize( LabelScanValue value, int from )
+        {
+            this.value = value;
+            switch ( value.type )
+            {
+            case ARRAY:
+                index = from == 0 ? 0 : lowerBound( value, from );
+                break;
+            case BITMAP:
+                index = from >>> 6;
+                word = index < value.words.length ? value.words[index] & (-1L << from) : 0;
+                break;
+            case RUN:
+                index = 0;
+                runEnd = -1;
+                while ( index < value.size && runEnd( index ) < from )
+                {
+                    index++;
+                }
+                if ( index < value.size )
+                {
+                    next = max( from, value.shorts[index * 2] & 0xFFFF );
+                    runEnd = runEnd( index );
+                }
+                break;
+            default:
+                throw new IllegalStateException( "Unknown type " + value.type );
+            }
+        }
+
+        /**
+         * Clears this instance, so that it has no more offsets.
+         */
+        void clear()
+        {
+            value = null;
+        }
+
+        /**
+         * @return the next offset, or {@code -1} if there are no more offsets.
+         */
+        int next()
+        {
+            if ( value == null )
+            {
+                return -1;
+            }
+            switch ( value.type )
+            {
+            case ARRAY:
+                return index < value.size ? value.shorts[index++] & 0xFFFF : -1;
+            case BITMAP:
+                while ( word == 0 )
+                {
+                    if ( ++index >= value.words.length )
+                    {
+                        return -1;
+                    }
+                    word = value.words[index];
+                }
+                int offset = (index << 6) + Long.numberOfTrailingZeros( word );
+                word &= word - 1;
+                return offset;
+            case RUN:
+                if ( next > runEnd )
+                {
+                    if ( ++index >= value.size )
+                    {
+                        return -1;
+                    }
+                    next = value.shorts[index * 2] & 0xFFFF;
+                    runEnd = runEnd( index );
+                }
+                return next++;
+            default:
+                throw new IllegalStateException( "Unknown type " + value.type );
+            }
+        }
+
+        private int runEnd( int run )
+        {
+            return (value.shorts[run * 2] & 0xFFFF) + (value.shorts[run * 2 + 1] & 0xFFFF);
+        }
+
+        private static int lowerBound( LabelScanValue value, int from )
+        {
+            int low = 0;
+            int high = value.size;
+            while ( low < high )
+            {
+                int mid = (low + high) >>> 1;
+                if ( (value.shorts[mid] & 0xFFFF) < from )
+                {
+                    low = mid + 1;
+                }
+                else
+                {
+                    high = mid;
+                }
+            }
+            return low;
+        }
     }
 }
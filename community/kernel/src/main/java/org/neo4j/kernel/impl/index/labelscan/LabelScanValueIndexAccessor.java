@@ -47,9 +47,9 @@ abstract class LabelScanValueIndexAccessor
      */
     long baseNodeId;
     /**
-     * Bit set of the current {@link LabelScanValue}.
+     * Offsets of the nodes in the current {@link LabelScanValue}.
      */
-    protected long bits;
+    protected final LabelScanValue.Offsets offsets = new LabelScanValue.Offsets();
     /**
      * LabelId of previously retrieved {@link LabelScanKey}, for debugging and asserting purposes.
      */
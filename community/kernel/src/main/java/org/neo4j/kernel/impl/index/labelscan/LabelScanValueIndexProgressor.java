@@ -33,7 +33,7 @@ import org.neo4j.storageengine.api.schema.IndexProgressor;
 
 /**
  * {@link IndexProgressor} which steps over multiple {@link LabelScanValue} and for each
- * iterate over each set bit, returning actual node ids, i.e. {@code nodeIdRange+bitOffset}.
+ * iterate over each node offset in it, returning actual node ids, i.e. {@code nodeIdRange*rangeSize+offset}.
  *
  */
 public class LabelScanValueIndexProgressor extends LabelScanValueIndexAccessor implements IndexProgressor, Resource
@@ -61,11 +61,9 @@ public class LabelScanValueIndexProgressor extends LabelScanValueIndexAccessor i
     {
         for ( ; ; )
         {
-            while ( bits != 0 )
+            for ( int offset = offsets.next(); offset != -1; offset = offsets.next() )
             {
-                int delta = Long.numberOfTrailingZeros( bits );
-                bits &= bits - 1;
-                if ( client.acceptNode( baseNodeId + delta, null ) )
+                if ( client.acceptNode( baseNodeId + offset, null ) )
                 {
                     return true;
                 }
@@ -84,8 +82,9 @@ public class LabelScanValueIndexProgressor extends LabelScanValueIndexAccessor i
             }
 
             Hit<LabelScanKey,LabelScanValue> hit = cursor.get();
-            baseNodeId = hit.key().idRange * LabelScanValue.RANGE_SIZE;
-            bits = hit.value().bits;
+            LabelScanValue value = hit.value();
+            baseNodeId = hit.key().idRange * value.rangeSize();
+            offsets.initialize( value, 0 );
 
             //noinspection AssertWithSideEffects
             assert keysInOrder( hit.key() );
@@ -33,13 +33,11 @@ import org.neo4j.collection.PrimitiveLongResourceIterator;
 import org.neo4j.cursor.RawCursor;
 import org.neo4j.index.internal.gbptree.Hit;
 
-import static org.neo4j.kernel.impl.index.labelscan.LabelScanValue.RANGE_SIZE;
-import static org.neo4j.kernel.impl.index.labelscan.NativeLabelScanWriter.rangeOf;
 import static org.neo4j.storageengine.api.schema.LabelScanReader.NO_ID;
 
 /**
  * {@link LongIterator} which iterate over multiple {@link LabelScanValue} and for each
- * iterate over each set bit, returning actual node ids, i.e. {@code nodeIdRange+bitOffset}.
+ * iterate over each node offset in it, returning actual node ids, i.e. {@code nodeIdRange*rangeSize+offset}.
  *
  * The provided {@link RawCursor} is managed externally, e.g. {@link NativeLabelScanReader},
  * this because implemented interface lacks close-method.
@@ -52,8 +50,8 @@ class LabelScanValueIterator extends LabelScanValueIndexAccessor implements Prim
     protected long next;
 
     /**
-     * @param fromId entity to start from (exclusive). The cursor gives entries that are effectively small bit-sets and the fromId may
-     * be somewhere inside a bit-set range.
+     * @param fromId entity to start from (exclusive). The cursor gives entries that are effectively small sets of nodes and the fromId may
+     * be somewhere inside such a range.
      */
     LabelScanValueIterator( RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException> cursor,
             Collection<RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException>> toRemoveFromWhenClosed, long fromId )
@@ -93,11 +91,10 @@ class LabelScanValueIterator extends LabelScanValueIndexAccessor implements Prim
     {
         while ( true )
         {
-            if ( bits != 0 )
+            int offset = offsets.next();
+            if ( offset != -1 )
             {
-                int delta = Long.numberOfTrailingZeros( bits );
-                bits &= bits - 1;
-                next =  baseNodeId + delta ;
+                next = baseNodeId + offset;
                 hasNext = true;
                 return true;
             }
@@ -116,23 +113,24 @@ class LabelScanValueIterator extends LabelScanValueIndexAccessor implements Prim
             }
 
             Hit<LabelScanKey,LabelScanValue> hit = cursor.get();
-            baseNodeId = hit.key().idRange * RANGE_SIZE;
-            bits = hit.value().bits;
+            LabelScanValue value = hit.value();
+            int rangeSize = value.rangeSize();
+            baseNodeId = hit.key().idRange * rangeSize;
+            int fromOffset = 0;
 
             if ( fromId != NO_ID )
             {
                 // If we've been told to start at a specific id then trim off ids in this range less than or equal to that id
-                long range = rangeOf( fromId );
+                long range = fromId / rangeSize;
                 if ( range == hit.key().idRange )
                 {
                     // Only do this if we're in the idRange that fromId is in, otherwise there were no ids this time in this range
-                    long relativeStartId = fromId % RANGE_SIZE;
-                    long mask = relativeStartId == RANGE_SIZE - 1 ? -1 : (1L << (relativeStartId + 1)) - 1;
-                    bits &= ~mask;
+                    fromOffset = (int) (fromId % rangeSize) + 1;
                 }
                 // ... and let's not do that again, only for the first idRange
                 fromId = NO_ID;
             }
+            offsets.initialize( value, fromOffset );
 
             //noinspection AssertWithSideEffects
             assert keysInOrder( hit.key() );
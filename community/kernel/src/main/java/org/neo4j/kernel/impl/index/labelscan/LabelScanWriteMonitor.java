@@ -139,25 +139,25 @@ public class LabelScanWriteMonitor implements NativeLabelScanWriter.WriteMonitor
     }
 
     @Override
-    public void prepareAdd( long txId, int offset )
+    public void prepareAdd( long txId, long nodeId )
     {
-        prepare( TYPE_PREPARE_ADD, txId, offset );
+        prepare( TYPE_PREPARE_ADD, txId, nodeId );
     }
 
     @Override
-    public void prepareRemove( long txId, int offset )
+    public void prepareRemove( long txId, long nodeId )
     {
-        prepare( TYPE_PREPARE_REMOVE, txId, offset );
+        prepare( TYPE_PREPARE_REMOVE, txId, nodeId );
     }
 
-    private void prepare( byte type, long txId, int offset )
+    private void prepare( byte type, long txId, long nodeId )
     {
         try
         {
             channel.put( type );
             channel.putLong( txId );
-            channel.put( (byte) offset );
-            position.add( 1 + 8 + 1 );
+            channel.putLong( nodeId );
+            position.add( 1 + 8 + 8 );
         }
         catch ( IOException e )
         {
@@ -182,9 +182,7 @@ public class LabelScanWriteMonitor implements NativeLabelScanWriter.WriteMonitor
         try
         {
             channel.put( type );
-            channel.putLong( existingValue.bits );
-            channel.putLong( newValue.bits );
-            position.add( 1 + 8 + 8 );
+            position.add( 1 + putOffsets( existingValue ) + putOffsets( newValue ) );
         }
         catch ( IOException e )
         {
@@ -192,6 +190,17 @@ public class LabelScanWriteMonitor implements NativeLabelScanWriter.WriteMonitor
         }
     }
 
+    private int putOffsets( LabelScanValue value ) throws IOException
+    {
+        int[] offsets = value.toOffsets();
+        channel.putInt( offsets.length );
+        for ( int offset : offsets )
+        {
+            channel.putShort( (short) offset );
+        }
+        return 4 + offsets.length * 2;
+    }
+
     @Override
     public void flushPendingUpdates()
     {
@@ -335,16 +344,16 @@ public class LabelScanWriteMonitor implements NativeLabelScanWriter.WriteMonitor
      * [4,1]+tx:9,node:21,label:1
      * [4,1]+tx:11,node:61,label:1
      * [4,1]+range:0,labelId:1
-     *  [00000000 00000000 00000010 00000000 00000000 00000000 00000000 00000000]
-     *  [00100000 00000000 00000000 00000000 00000000 00100000 00000000 00000000]
+     *  [41, 80]
+     *  [21, 61]
      * [5,1]+tx:12,node:81,label:1
-     * [5,1]+range:1,labelId:1
-     *  [00000000 00000000 00000000 00000000 00000000 00000001 00000000 00000000]
-     *  [00000000 00000000 00000000 00000000 00000000 00000010 00000000 00000000]
+     * [5,1]+range:0,labelId:1
+     *  [21, 41, 61, 80]
+     *  [81]
      * [6,1]+tx:13,node:1,label:1
      * [6,1]+range:0,labelId:1
-     *  [00100000 00000000 00000010 00000000 00000000 00100000 00000000 00000000]
-     *  [00000000 00000000 00000000 00000000 00000000 00000000 00000000 00000010]
+     *  [21, 41, 61, 80, 81]
+     *  [1]
      * [7,1]+tx:14,node:62,label:1
      * [7,1]+range:0,labelId:1
      * </pre>
@@ -362,22 +371,22 @@ public class LabelScanWriteMonitor implements NativeLabelScanWriter.WriteMonitor
      * How to interpret a message like:
      * <pre>
      * [4,1]+range:0,labelId:1
-     *  [00000000 00000000 00000010 00000000 00000000 00000000 00000000 00000000]
-     *  [00100000 00000000 00000000 00000000 00000000 00100000 00000000 00000000]
+     *  [41, 80]
+     *  [21, 61]
      * </pre>
      * First the first line (parts within bracket same as above):
      * <pre>
      * [4,1]+range:0,labelId:1
      *             ▲         ▲
-     *             │         └── label id of the changed bitset to apply
-     *             └──────────── range, i.e. which bitset to apply this change for
+     *             │         └── label id of the changed range to apply
+     *             └──────────── range, i.e. which range to apply this change for
      * </pre>
-     * Then the bitsets are printed
+     * Then the node offsets within the range are printed
      * <pre>
-     *  [00000000 00000000 00000010 00000000 00000000 00000000 00000000 00000000] : state of the bitset for this label id before the change
-     *  [00100000 00000000 00000000 00000000 00000000 00100000 00000000 00000000] : bits that applied to this bitset
-     *                                                                              for addition the 1-bits denotes bits to be added
-     *                                                                              for removal the 1-bits denotes bits to be removed
+     *  [41, 80] : offsets in this range for this label id before the change
+     *  [21, 61] : offsets that applied to this range
+     *             for addition these are offsets to be added
+     *             for removal these are offsets to be removed
      * </pre>
      */
     public static void main( String[] args ) throws IOException
@@ -473,20 +482,29 @@ public class LabelScanWriteMonitor implements NativeLabelScanWriter.WriteMonitor
     private static void dumpMerge( Dumper dumper, byte type, ReadableChannel channel, long range, int labelId, TxFilter txFilter,
             long session, long flush ) throws IOException
     {
-        long existingBits = channel.getLong();
-        long newBits = channel.getLong();
+        int[] existingOffsets = getOffsets( channel );
+        int[] newOffsets = getOffsets( channel );
         if ( txFilter == null || txFilter.contains() )
         {
-            dumper.merge( type == TYPE_MERGE_ADD, session, flush, range, labelId, existingBits, newBits );
+            dumper.merge( type == TYPE_MERGE_ADD, session, flush, range, labelId, existingOffsets, newOffsets );
         }
     }
 
+    private static int[] getOffsets( ReadableChannel channel ) throws IOException
+    {
+        int[] offsets = new int[channel.getInt()];
+        for ( int i = 0; i < offsets.length; i++ )
+        {
+            offsets[i] = channel.getShort() & 0xFFFF;
+        }
+        return offsets;
+    }
+
     private static void dumpPrepare( Dumper dumper, byte type, ReadableChannel channel, long range, int labelId, TxFilter txFilter, long session, long flush )
             throws IOException
     {
         long txId = channel.getLong();
-        int offset = channel.get();
-        long nodeId = range * 64 + offset;
+        long nodeId = channel.getLong();
         if ( txFilter == null || txFilter.contains( txId ) )
         {
             // I.e. if the txId this update comes from is within the txFilter
@@ -562,18 +580,16 @@ public class LabelScanWriteMonitor implements NativeLabelScanWriter.WriteMonitor
 
         void prepare( boolean add, long session, long flush, long txId, long nodeId, int labelId );
 
-        void merge( boolean add, long session, long flush, long range, int labelId, long existingBits, long newBits );
+        void merge( boolean add, long session, long flush, long range, int labelId, int[] existingOffsets, int[] newOffsets );
     }
 
     public static class PrintStreamDumper implements Dumper
     {
         private final PrintStream out;
-        private final char[] bitsAsChars = new char[64 + 7/*separators*/];
 
         PrintStreamDumper( PrintStream out )
         {
             this.out = out;
-            Arrays.fill( bitsAsChars, ' ' );
         }
 
         @Override
@@ -589,26 +605,10 @@ public class LabelScanWriteMonitor implements NativeLabelScanWriter.WriteMonitor
         }
 
         @Override
-        public void merge( boolean add, long session, long flush, long range, int labelId, long existingBits, long newBits )
-        {
-            out.println( format( "[%d,%d]%srange:%d,labelId:%d%n [%s]%n [%s]", session, flush, add ? '+' : '-', range, labelId,
-                    bits( existingBits, bitsAsChars ), bits( newBits, bitsAsChars ) ) );
-        }
-
-        private static String bits( long bits, char[] bitsAsChars )
+        public void merge( boolean add, long session, long flush, long range, int labelId, int[] existingOffsets, int[] newOffsets )
         {
-            long mask = 1;
-            for ( int i = 0, c = 0; i < 64; i++, c++ )
-            {
-                if ( i % 8 == 0 )
-                {
-                    c++;
-                }
-                boolean set = (bits & mask) != 0;
-                bitsAsChars[bitsAsChars.length - c] = set ? '1' : '0';
-                mask <<= 1;
-            }
-            return String.valueOf( bitsAsChars );
+            out.println( format( "[%d,%d]%srange:%d,labelId:%d%n %s%n %s", session, flush, add ? '+' : '-', range, labelId,
+                    Arrays.toString( existingOffsets ), Arrays.toString( newOffsets ) ) );
         }
     }
 }
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.labelscan;
+
+import org.neo4j.index.internal.gbptree.Layout;
+import org.neo4j.io.pagecache.PageCursor;
+
+/**
+ * {@link Layout} of label scan stores written before {@link LabelScanLayout} stored ranges in compressed containers.
+ * Ranges are 64 nodes each and each value is a single {@code long} bitmap. Used for reading such stores
+ * when converting them to {@link LabelScanLayout}, see {@link NativeLabelScanStore#convertLegacyStore}.
+ */
+public class LegacyLabelScanLayout extends LabelScanLayout
+{
+    public LegacyLabelScanLayout()
+    {
+        super( LabelScanValue.MIN_RANGE_SIZE );
+    }
+
+    @Override
+    public int valueSize( LabelScanValue value )
+    {
+        return Long.BYTES;
+    }
+
+    @Override
+    public void writeValue( PageCursor cursor, LabelScanValue value )
+    {
+        long bits = 0;
+        for ( int offset : value.toOffsets() )
+        {
+            bits |= 1L << offset;
+        }
+        cursor.putLong( bits );
+    }
+
+    @Override
+    public void readValue( PageCursor cursor, LabelScanValue into, int valueSize )
+    {
+        long bits = cursor.getLong();
+        into.clear();
+        while ( bits != 0 )
+        {
+            into.set( Long.numberOfTrailingZeros( bits ) );
+            bits &= bits - 1;
+        }
+    }
+
+    @Override
+    public boolean fixedSize()
+    {
+        return true;
+    }
+
+    @Override
+    public int majorVersion()
+    {
+        return 0;
+    }
+
+    @Override
+    public int minorVersion()
+    {
+        return 1;
+    }
+}
@@ -23,6 +23,7 @@
 package org.neo4j.kernel.impl.index.labelscan;
 
 import org.eclipse.collections.api.list.primitive.MutableLongList;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -40,8 +41,6 @@ import org.neo4j.kernel.api.labelscan.NodeLabelRange;
 import static java.lang.Long.min;
 import static java.util.Arrays.fill;
 import static org.neo4j.kernel.api.labelscan.NodeLabelRange.convertState;
-import static org.neo4j.kernel.api.labelscan.NodeLabelRange.readBitmap;
-import static org.neo4j.kernel.impl.index.labelscan.LabelScanValue.RANGE_SIZE;
 
 /**
  * {@link AllEntriesLabelScanReader} for {@link NativeLabelScanStore}.
@@ -50,9 +49,17 @@ import static org.neo4j.kernel.impl.index.labelscan.LabelScanValue.RANGE_SIZE;
  * results, so the approach this implementation is taking is to create one (lazy) seek cursor per label id
  * and coordinate those simultaneously over the scan. Each {@link NodeLabelRange} returned is a view
  * over all cursors at that same range, giving an aggregation of all labels in that node id range.
+ * <p>
+ * Ranges in the tree can be much larger than {@link #rangeSize()}, see {@link LabelScanLayout}, so each tree range
+ * is handed out as multiple {@link NodeLabelRange}, skipping those without any labeled nodes.
  */
 class NativeAllEntriesLabelScanReader implements AllEntriesLabelScanReader
 {
+    /**
+     * Size of each {@link NodeLabelRange} handed out, regardless of range size of the tree.
+     */
+    static final int RANGE_SIZE = LabelScanValue.MIN_RANGE_SIZE;
+
     private final IntFunction<RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException>> seekProvider;
     private final List<RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException>> cursors = new ArrayList<>();
     private final int highestLabelId;
@@ -122,11 +129,15 @@ class NativeAllEntriesLabelScanReader implements AllEntriesLabelScanReader
      */
     private class NodeLabelRangeIterator extends PrefetchingIterator<NodeLabelRange>
     {
+        private final LabelScanValue.Offsets offsets = new LabelScanValue.Offsets();
         private long currentRange;
 
-        // nodeId (relative to lowestRange) --> labelId[]
-        @SuppressWarnings( "unchecked" )
-        private final MutableLongList[] labelsForEachNode = new MutableLongList[RANGE_SIZE];
+        // The tree range which labelsForEachNode currently holds and the next of its sub ranges to hand out
+        private long loadedRange;
+        private int nextSubRange;
+
+        // nodeId (relative to loadedRange) --> labelId[], sized after range size of the tree
+        private MutableLongList[] labelsForEachNode;
 
         NodeLabelRangeIterator( long lowestRange )
         {
@@ -136,12 +147,65 @@ class NativeAllEntriesLabelScanReader implements AllEntriesLabelScanReader
         @Override
         protected NodeLabelRange fetchNextOrNull()
         {
-            if ( currentRange == Long.MAX_VALUE )
+            while ( true )
+            {
+                if ( labelsForEachNode != null )
+                {
+                    int subRanges = labelsForEachNode.length / RANGE_SIZE;
+                    while ( nextSubRange < subRanges )
+                    {
+                        int subRange = nextSubRange++;
+                        MutableLongList[] subRangeLabels = new MutableLongList[RANGE_SIZE];
+                        System.arraycopy( labelsForEachNode, subRange * RANGE_SIZE, subRangeLabels, 0, RANGE_SIZE );
+                        if ( hasLabels( subRangeLabels ) )
+                        {
+                            return new NodeLabelRange( loadedRange * subRanges + subRange, convertState( subRangeLabels ) );
+                        }
+                    }
+                }
+                if ( currentRange == Long.MAX_VALUE )
+                {
+                    return null;
+                }
+                loadNextRange();
+            }
+        }
+
+        private boolean hasLabels( MutableLongList[] labels )
+        {
+            for ( MutableLongList nodeLabels : labels )
             {
-                return null;
+                if ( nodeLabels != null )
+                {
+                    return true;
+                }
             }
+            return false;
+        }
 
-            fill( labelsForEachNode, null );
+        private void readOffsets( LabelScanValue value, long labelId )
+        {
+            if ( labelsForEachNode == null )
+            {
+                labelsForEachNode = new MutableLongList[value.rangeSize()];
+            }
+            offsets.initialize( value, 0 );
+            for ( int offset = offsets.next(); offset != -1; offset = offsets.next() )
+            {
+                if ( labelsForEachNode[offset] == null )
+                {
+                    labelsForEachNode[offset] = new LongArrayList();
+                }
+                labelsForEachNode[offset].add( labelId );
+            }
+        }
+
+        private void loadNextRange()
+        {
+            if ( labelsForEachNode != null )
+            {
+                fill( labelsForEachNode, null );
+            }
             long nextLowestRange = Long.MAX_VALUE;
             try
             {
@@ -157,9 +221,7 @@ class NativeAllEntriesLabelScanReader implements AllEntriesLabelScanReader
                     }
                     else if ( idRange == currentRange )
                     {
-                        long bits = cursor.get().value().bits;
-                        long labelId = cursor.get().key().labelId;
-                        readBitmap( bits, labelId, labelsForEachNode );
+                        readOffsets( cursor.get().value(), cursor.get().key().labelId );
 
                         // Advance cursor and look ahead to the next range
                         if ( cursor.next() )
@@ -174,10 +236,9 @@ class NativeAllEntriesLabelScanReader implements AllEntriesLabelScanReader
                     }
                 }
 
-                NodeLabelRange range = new NodeLabelRange( currentRange, convertState( labelsForEachNode ) );
+                loadedRange = currentRange;
+                nextSubRange = 0;
                 currentRange = nextLowestRange;
-
-                return range;
             }
             catch ( IOException e )
             {
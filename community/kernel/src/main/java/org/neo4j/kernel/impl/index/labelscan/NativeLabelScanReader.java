@@ -27,9 +27,10 @@ import org.eclipse.collections.api.iterator.LongIterator;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.neo4j.collection.PrimitiveLongResourceIterator;
 import org.neo4j.cursor.RawCursor;
@@ -38,8 +39,7 @@ import org.neo4j.index.internal.gbptree.GBPTree;
 import org.neo4j.index.internal.gbptree.Hit;
 import org.neo4j.storageengine.api.schema.IndexProgressor;
 import org.neo4j.storageengine.api.schema.LabelScanReader;
-
-import static org.neo4j.kernel.impl.index.labelscan.NativeLabelScanWriter.rangeOf;
+import org.neo4j.storageengine.api.schema.PartitionedLabelScan;
 
 /**
  * {@link LabelScanReader} for reading data from {@link NativeLabelScanStore}.
@@ -56,16 +56,23 @@ class NativeLabelScanReader implements LabelScanReader
      */
     private final GBPTree<LabelScanKey,LabelScanValue> index;
 
+    /**
+     * {@link LabelScanLayout} of {@link #index}, deciding range size.
+     */
+    private final LabelScanLayout layout;
+
     /**
      * Currently open {@link RawCursor} from query methods below. Open cursors are closed when calling
      * new query methods or when {@link #close() closing} this reader.
      */
     private final Set<RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException>> openCursors;
 
-    NativeLabelScanReader( GBPTree<LabelScanKey,LabelScanValue> index )
+    NativeLabelScanReader( GBPTree<LabelScanKey,LabelScanValue> index, LabelScanLayout layout )
     {
         this.index = index;
-        this.openCursors = new HashSet<>();
+        this.layout = layout;
+        // Partitions of a partitioned scan are read by different threads, which all open and close cursors
+        this.openCursors = ConcurrentHashMap.newKeySet();
     }
 
     /**
@@ -132,6 +139,21 @@ class NativeLabelScanReader implements LabelScanReader
         client.scan( new LabelScanValueIndexProgressor( cursor, openCursors, client ), false, labelId );
     }
 
+    @Override
+    public PartitionedLabelScan partitionedNodesWithLabel( int labelId, int desiredNumberOfPartitions )
+    {
+        try
+        {
+            List<LabelScanKey> boundaries = index.partitionRange(
+                    new LabelScanKey( labelId, 0 ), new LabelScanKey( labelId, Long.MAX_VALUE ), desiredNumberOfPartitions );
+            return new NativePartitionedLabelScan( labelId, boundaries );
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
     private List<PrimitiveLongResourceIterator> iteratorsForLabels( long fromId, int[] labelIds )
     {
         List<PrimitiveLongResourceIterator> iterators = new ArrayList<>();
@@ -153,11 +175,57 @@ class NativeLabelScanReader implements LabelScanReader
 
     private RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException> seekerForLabel( long startId, int labelId ) throws IOException
     {
-        LabelScanKey from = new LabelScanKey( labelId, rangeOf( startId ) );
+        LabelScanKey from = new LabelScanKey( labelId, layout.rangeOf( startId ) );
         LabelScanKey to = new LabelScanKey( labelId, Long.MAX_VALUE );
         return index.seek( from, to );
     }
 
+    /**
+     * Hands out the partitions of a {@link GBPTree#partitionRange(Object, Object, int) partitioned} label range,
+     * each being read by a regular seek.
+     */
+    private class NativePartitionedLabelScan implements PartitionedLabelScan
+    {
+        private final int labelId;
+        private final List<LabelScanKey> boundaries;
+        private final AtomicInteger nextPartition = new AtomicInteger();
+
+        NativePartitionedLabelScan( int labelId, List<LabelScanKey> boundaries )
+        {
+            this.labelId = labelId;
+            this.boundaries = boundaries;
+        }
+
+        @Override
+        public int getNumberOfPartitions()
+        {
+            return boundaries.size() - 1;
+        }
+
+        @Override
+        public boolean reservePartition( IndexProgressor.NodeLabelClient client )
+        {
+            int partition = nextPartition.getAndIncrement();
+            if ( partition >= getNumberOfPartitions() )
+            {
+                return false;
+            }
+
+            RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException> cursor;
+            try
+            {
+                cursor = index.seek( boundaries.get( partition ), boundaries.get( partition + 1 ) );
+                openCursors.add( cursor );
+            }
+            catch ( IOException e )
+            {
+                throw new UncheckedIOException( e );
+            }
+            client.scan( new LabelScanValueIndexProgressor( cursor, openCursors, client ), false, labelId );
+            return true;
+        }
+    }
+
     private void ensureOpenCursorsClosed() throws IOException
     {
         for ( RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException> cursor : openCursors )
@@ -28,6 +28,9 @@ import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 import java.util.function.IntFunction;
 
@@ -41,6 +44,7 @@ import org.neo4j.index.internal.gbptree.Layout;
 import org.neo4j.index.internal.gbptree.MetadataMismatchException;
 import org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector;
 import org.neo4j.index.internal.gbptree.TreeFileNotFoundException;
+import org.neo4j.index.internal.gbptree.Writer;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.layout.DatabaseLayout;
 import org.neo4j.io.pagecache.IOLimiter;
@@ -49,13 +53,18 @@ import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.kernel.api.labelscan.AllEntriesLabelScanReader;
 import org.neo4j.kernel.api.labelscan.LabelScanStore;
 import org.neo4j.kernel.api.labelscan.LabelScanWriter;
+import org.neo4j.kernel.api.labelscan.NodeLabelUpdate;
 import org.neo4j.kernel.impl.annotations.ReporterFactory;
 import org.neo4j.kernel.impl.api.scan.FullStoreChangeStream;
+import org.neo4j.kernel.impl.util.monitoring.ProgressReporter;
+import org.neo4j.kernel.impl.util.monitoring.SilentProgressReporter;
 import org.neo4j.kernel.monitoring.Monitors;
 import org.neo4j.storageengine.api.schema.LabelScanReader;
 
 import static org.neo4j.helpers.collection.Iterators.asResourceIterator;
 import static org.neo4j.helpers.collection.Iterators.iterator;
+import static org.neo4j.index.internal.gbptree.GBPTree.NO_HEADER_WRITER;
+import static org.neo4j.index.internal.gbptree.GBPTree.NO_MONITOR;
 
 /**
  * {@link LabelScanStore} which is implemented using {@link GBPTree} atop a {@link PageCache}.
@@ -65,14 +74,17 @@ import static org.neo4j.helpers.collection.Iterators.iterator;
  * About the {@link Layout} used in this instance of {@link GBPTree}:
  * <ul>
  * <li>
- * Each keys is a combination of {@code labelId} and {@code nodeIdRange} ({@code nodeId/64}).
+ * Each keys is a combination of {@code labelId} and {@code nodeIdRange} ({@code nodeId/rangeSize}).
  * </li>
  * <li>
- * Each value is a 64-bit bit set (a primitive {@code long}) where each set bit in it represents
- * a node with that label, such that {@code nodeId = nodeIdRange+bitOffset}. Range size (e.g. 64 bits)
- * is configurable on initial creation of the store, 8, 16, 32 or 64.
+ * Each value is a {@link LabelScanValue}, a set of the nodes in that range having that label, stored
+ * as sorted offsets, a bitmap or runs of offsets, whichever is smallest. Range size is decided by page size,
+ * see {@link LabelScanLayout#rangeSizeFor(int)}, e.g. 8192 nodes for 8 KiB pages.
  * </li>
  * </ul>
+ * Stores written in the previous format, see {@link LegacyLabelScanLayout}, are converted in {@link #init()}
+ * using {@link #convertLegacyStore(PageCache, File, File, ProgressReporter)}, unless read-only.
+ * Otherwise a store in another format is rebuilt on startup.
  * <p>
  * {@link #force(IOLimiter)} is vital for allowing this store to be recoverable, and must be called
  * whenever Neo4j performs a checkpoint.
@@ -91,6 +103,21 @@ public class NativeLabelScanStore implements LabelScanStore
      */
     private static final byte NEEDS_REBUILDING = (byte) 0x01;
 
+    /**
+     * Number of node label updates a {@link NativeLabelScanWriter} sorts and applies at a time.
+     */
+    private static final int WRITER_BATCH_SIZE = 1_000;
+
+    /**
+     * Suffix of the temporary file a store in the {@link LegacyLabelScanLayout legacy format} is converted to.
+     */
+    private static final String CONVERTED_STORE_FILE_SUFFIX = ".converted";
+
+    /**
+     * Tag of the {@link Monitor} and {@link GBPTree.Monitor} of the label scan store.
+     */
+    public static final String MONITOR_TAG = "labelScanStore";
+
     /**
      * Whether or not this label scan store is read-only.
      */
@@ -106,6 +133,17 @@ public class NativeLabelScanStore implements LabelScanStore
      */
     private final Monitors monitors;
 
+    /**
+     * Tag of {@link #monitor} and of the monitor passed down to underlying {@link GBPTree}, telling this store
+     * apart from other stores sharing the same {@link Monitors}.
+     */
+    private final String monitorTag;
+
+    /**
+     * Whether or not writes are logged by {@link LabelScanWriteMonitor}.
+     */
+    private final boolean writeLogEnabled;
+
     /**
      * {@link PageCache} to {@link PageCache#map(File, int, java.nio.file.OpenOption...)}
      * store file backing this label scan store. Passed to {@link GBPTree}.
@@ -133,6 +171,11 @@ public class NativeLabelScanStore implements LabelScanStore
      */
     private final int pageSize;
 
+    /**
+     * {@link LabelScanLayout} of the {@link GBPTree}, with range size decided by page size.
+     */
+    private final LabelScanLayout layout;
+
     /**
      * Used for all file operations on the gbpTree file.
      */
@@ -161,7 +204,7 @@ public class NativeLabelScanStore implements LabelScanStore
     private final RecoveryCleanupWorkCollector recoveryCleanupWorkCollector;
 
     /**
-     * The single instance of {@link NativeLabelScanWriter} used for updates.
+     * The single instance of {@link NativeLabelScanWriter} used for rebuilding.
      */
     private NativeLabelScanWriter singleWriter;
 
@@ -170,6 +213,12 @@ public class NativeLabelScanStore implements LabelScanStore
      */
     private NativeLabelScanWriter.WriteMonitor writeMonitor;
 
+    /**
+     * Held by whoever has the exclusive {@link GBPTree#writer() tree writer}, since that writer fails rather than waits
+     * if already acquired, see {@link #exclusiveWriter(NativeLabelScanWriter)}.
+     */
+    private final Lock exclusiveWriterLock = new ReentrantLock();
+
     /**
      * Write rebuilding bit to header.
      */
@@ -194,16 +243,30 @@ public class NativeLabelScanStore implements LabelScanStore
     NativeLabelScanStore( PageCache pageCache, DatabaseLayout directoryStructure, FileSystemAbstraction fs,
                 FullStoreChangeStream fullStoreChangeStream, boolean readOnly, Monitors monitors,
                 RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, int pageSize )
+    {
+        this( pageCache, directoryStructure, fs, getLabelScanStoreFile( directoryStructure ), fullStoreChangeStream, readOnly,
+                monitors, MONITOR_TAG, LabelScanWriteMonitor.ENABLED, recoveryCleanupWorkCollector, pageSize );
+    }
+
+    /*
+     * For stores of other token to entity mappings, backed by a different store file, see NativeRelationshipTypeScanStore.
+     */
+    NativeLabelScanStore( PageCache pageCache, DatabaseLayout directoryStructure, FileSystemAbstraction fs, File storeFile,
+                FullStoreChangeStream fullStoreChangeStream, boolean readOnly, Monitors monitors, String monitorTag,
+                boolean writeLogEnabled, RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, int pageSize )
     {
         this.pageCache = pageCache;
         this.fs = fs;
         this.pageSize = pageSize;
+        this.layout = new LabelScanLayout( LabelScanLayout.rangeSizeFor( pageSize != 0 ? pageSize : pageCache.pageSize() ) );
         this.fullStoreChangeStream = fullStoreChangeStream;
         this.directoryStructure = directoryStructure;
-        this.storeFile = getLabelScanStoreFile( directoryStructure );
+        this.storeFile = storeFile;
         this.readOnly = readOnly;
         this.monitors = monitors;
-        this.monitor = monitors.newMonitor( Monitor.class );
+        this.monitorTag = monitorTag;
+        this.writeLogEnabled = writeLogEnabled;
+        this.monitor = monitors.newMonitor( Monitor.class, monitorTag );
         this.recoveryCleanupWorkCollector = recoveryCleanupWorkCollector;
         this.fileSystem = fs;
     }
@@ -228,16 +291,15 @@ public class NativeLabelScanStore implements LabelScanStore
     @Override
     public LabelScanReader newReader()
     {
-        return new NativeLabelScanReader( index );
+        return new NativeLabelScanReader( index, layout );
     }
 
     /**
      * Returns {@link LabelScanWriter} capable of making changes to this {@link LabelScanStore}.
-     * Only a single writer is allowed at any given point in time.
+     * Writers can be used concurrently, unless writes are logged, in which case this call waits for any other
+     * writer to be {@link LabelScanWriter#close() closed}.
      *
      * @return {@link LabelScanWriter} capable of making changes to this {@link LabelScanStore}.
-     * @throws IllegalStateException if someone else has already acquired a writer and hasn't yet
-     * called {@link LabelScanWriter#close()}.
      */
     @Override
     public LabelScanWriter newWriter()
@@ -249,7 +311,16 @@ public class NativeLabelScanStore implements LabelScanStore
 
         try
         {
-            return writer();
+            NativeLabelScanWriter writer = new NativeLabelScanWriter( WRITER_BATCH_SIZE, layout, writeMonitor );
+            if ( writeLogEnabled )
+            {
+                // The write log is written by one writer at a time, so transactions committing in different stripes
+                // of the storage engine's label update work sync take turns with the exclusive tree writer
+                return exclusiveWriter( writer );
+            }
+            // Each writer has its own parallel writer so that transactions committing in different stripes of the
+            // storage engine's label update work sync can write at the same time
+            return writer.initialize( index.parallelWriter() );
         }
         catch ( IOException e )
         {
@@ -271,6 +342,13 @@ public class NativeLabelScanStore implements LabelScanStore
         writeMonitor.force();
     }
 
+    @Override
+    public void compact()
+    {
+        index.compact();
+        writeMonitor.force();
+    }
+
     @Override
     public AllEntriesLabelScanReader allNodeLabelRanges()
     {
@@ -288,21 +366,7 @@ public class NativeLabelScanStore implements LabelScanStore
             }
         };
 
-        int highestLabelId = -1;
-        try ( RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException> cursor = index.seek(
-                new LabelScanKey().set( Integer.MAX_VALUE, Long.MAX_VALUE ),
-                new LabelScanKey().set( 0, -1 ) ) )
-        {
-            if ( cursor.next() )
-            {
-                highestLabelId = cursor.get().key().labelId;
-            }
-        }
-        catch ( IOException e )
-        {
-            throw new RuntimeException( e );
-        }
-        return new NativeAllEntriesLabelScanReader( seekProvider, highestLabelId );
+        return new NativeAllEntriesLabelScanReader( seekProvider, highestLabelId( index ) );
     }
 
     /**
@@ -338,12 +402,12 @@ public class NativeLabelScanStore implements LabelScanStore
         }
         catch ( MetadataMismatchException e )
         {
-            // GBPTree is corrupt. Try to rebuild.
-            isDirty = true;
+            // Either written in the legacy format, which is converted, or GBPTree is corrupt. Try to rebuild.
+            isDirty = readOnly || !convertLegacyStoreInPlace() || instantiateTree();
         }
 
-        writeMonitor = LabelScanWriteMonitor.ENABLED ? new LabelScanWriteMonitor( fs, directoryStructure ) : NativeLabelScanWriter.EMPTY;
-        singleWriter = new NativeLabelScanWriter( 1_000, writeMonitor );
+        writeMonitor = writeLogEnabled ? new LabelScanWriteMonitor( fs, directoryStructure ) : NativeLabelScanWriter.EMPTY;
+        singleWriter = new NativeLabelScanWriter( WRITER_BATCH_SIZE, layout, writeMonitor );
 
         if ( isDirty )
         {
@@ -357,6 +421,27 @@ public class NativeLabelScanStore implements LabelScanStore
         }
     }
 
+    /**
+     * Converts the store file from the {@link LegacyLabelScanLayout legacy format}, via a temporary file which replaces it
+     * once fully written. Databases in the current store version aren't upgraded, so this is where their label scan
+     * stores are converted.
+     *
+     * @return {@code true} if the store was converted, or {@code false} if it needs to be rebuilt.
+     */
+    private boolean convertLegacyStoreInPlace() throws IOException
+    {
+        File convertedStoreFile = new File( storeFile.getParentFile(), storeFile.getName() + CONVERTED_STORE_FILE_SUFFIX );
+        fileSystem.deleteFile( convertedStoreFile );
+        if ( !convertLegacyStore( pageCache, storeFile, convertedStoreFile, SilentProgressReporter.INSTANCE ) )
+        {
+            fileSystem.deleteFile( convertedStoreFile );
+            return false;
+        }
+        fileSystem.renameFile( convertedStoreFile, storeFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+        monitor.convertedLegacyIndex();
+        return true;
+    }
+
     @Override
     public boolean hasStore()
     {
@@ -374,21 +459,126 @@ public class NativeLabelScanStore implements LabelScanStore
      */
     private boolean instantiateTree()
     {
-        monitors.addMonitorListener( treeMonitor() );
-        GBPTree.Monitor monitor = monitors.newMonitor( GBPTree.Monitor.class );
+        monitors.addMonitorListener( treeMonitor(), monitorTag );
+        GBPTree.Monitor monitor = monitors.newMonitor( GBPTree.Monitor.class, monitorTag );
         MutableBoolean isRebuilding = new MutableBoolean();
         Header.Reader readRebuilding =
                 headerData -> isRebuilding.setValue( headerData.get() == NEEDS_REBUILDING );
         try
         {
-            index = new GBPTree<>( pageCache, storeFile, new LabelScanLayout(), pageSize, monitor, readRebuilding,
+            index = new GBPTree<>( pageCache, storeFile, layout, pageSize, monitor, readRebuilding,
                     needsRebuildingWriter, recoveryCleanupWorkCollector, readOnly );
             return isRebuilding.getValue();
         }
         catch ( TreeFileNotFoundException e )
         {
             throw new IllegalStateException(
-                    "Label scan store file could not be found, most likely this database needs to be recovered, file:" + storeFile, e );
+                    "Scan store file could not be found, most likely this database needs to be recovered, file:" + storeFile, e );
+        }
+    }
+
+    /**
+     * Converts a label scan store in the {@link LegacyLabelScanLayout legacy format}, where each range is a single
+     * 64-bit bitmap, to the current format, without having to rebuild it from the node store.
+     * The converted store is written to a new file and the legacy store is left untouched.
+     *
+     * @param pageCache {@link PageCache} to map both stores with.
+     * @param legacyStoreFile file of the store in legacy format.
+     * @param targetStoreFile file to write the converted store to. Must not exist.
+     * @param progressReporter reports progress, one step per label id.
+     * @return {@code true} if the store was converted, or {@code false} if the store at {@code legacyStoreFile}
+     * isn't a clean store in legacy format, in which case it will need to be rebuilt instead.
+     * @throws IOException on {@link PageCache} exceptions.
+     */
+    public static boolean convertLegacyStore( PageCache pageCache, File legacyStoreFile, File targetStoreFile,
+            ProgressReporter progressReporter ) throws IOException
+    {
+        MutableBoolean isRebuilding = new MutableBoolean();
+        Header.Reader readRebuilding = headerData -> isRebuilding.setValue( headerData.get() == NEEDS_REBUILDING );
+        GBPTree<LabelScanKey,LabelScanValue> legacyTree;
+        try
+        {
+            legacyTree = new GBPTree<>( pageCache, legacyStoreFile, new LegacyLabelScanLayout(), 0, NO_MONITOR, readRebuilding,
+                    NO_HEADER_WRITER, RecoveryCleanupWorkCollector.ignore(), true );
+        }
+        catch ( MetadataMismatchException e )
+        {
+            return false;
+        }
+
+        LabelScanLayout layout = new LabelScanLayout( LabelScanLayout.rangeSizeFor( pageCache.pageSize() ) );
+        try ( GBPTree<LabelScanKey,LabelScanValue> legacy = legacyTree )
+        {
+            if ( isRebuilding.getValue() || legacy.wasDirtyOnStartup() )
+            {
+                return false;
+            }
+
+            int highestLabelId = highestLabelId( legacy );
+            progressReporter.start( highestLabelId + 1 );
+            try ( GBPTree<LabelScanKey,LabelScanValue> tree = new GBPTree<>( pageCache, targetStoreFile, layout, 0, NO_MONITOR,
+                    GBPTree.NO_HEADER_READER, needsRebuildingWriter, RecoveryCleanupWorkCollector.ignore(), false ) )
+            {
+                try ( Writer<LabelScanKey,LabelScanValue> writer = tree.writer();
+                        RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException> cursor = legacy.seek(
+                                new LabelScanKey( 0, 0 ), new LabelScanKey( Integer.MAX_VALUE, Long.MAX_VALUE ) ) )
+                {
+                    int legacyRangesPerRange = layout.rangeSize() / LabelScanValue.MIN_RANGE_SIZE;
+                    LabelScanKey key = layout.newKey().set( -1, -1 );
+                    LabelScanValue value = layout.newValue();
+                    LabelScanValue.Offsets legacyOffsets = new LabelScanValue.Offsets();
+                    while ( cursor.next() )
+                    {
+                        LabelScanKey legacyKey = cursor.get().key();
+                        long idRange = legacyKey.idRange / legacyRangesPerRange;
+                        if ( legacyKey.labelId != key.labelId || idRange != key.idRange )
+                        {
+                            putConverted( writer, key, value );
+                            if ( key.labelId != -1 && legacyKey.labelId != key.labelId )
+                            {
+                                progressReporter.progress( legacyKey.labelId - key.labelId );
+                            }
+                            key.set( legacyKey.labelId, idRange );
+                        }
+
+                        int base = (int) (legacyKey.idRange % legacyRangesPerRange) * LabelScanValue.MIN_RANGE_SIZE;
+                        legacyOffsets.initialize( cursor.get().value(), 0 );
+                        for ( int offset = legacyOffsets.next(); offset != -1; offset = legacyOffsets.next() )
+                        {
+                            value.set( base + offset );
+                        }
+                    }
+                    putConverted( writer, key, value );
+                }
+                tree.checkpoint( IOLimiter.UNLIMITED, writeClean );
+            }
+            progressReporter.completed();
+            return true;
+        }
+    }
+
+    private static void putConverted( Writer<LabelScanKey,LabelScanValue> writer, LabelScanKey key, LabelScanValue value )
+            throws IOException
+    {
+        if ( !value.isEmpty() )
+        {
+            value.optimize();
+            writer.put( key, value );
+            value.clear();
+        }
+    }
+
+    private static int highestLabelId( GBPTree<LabelScanKey,LabelScanValue> index )
+    {
+        try ( RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException> cursor = index.seek(
+                new LabelScanKey().set( Integer.MAX_VALUE, Long.MAX_VALUE ),
+                new LabelScanKey().set( 0, -1 ) ) )
+        {
+            return cursor.next() ? cursor.get().key().labelId : -1;
+        }
+        catch ( IOException e )
+        {
+            throw new RuntimeException( e );
         }
     }
 
@@ -447,9 +637,49 @@ public class NativeLabelScanStore implements LabelScanStore
         }
     }
 
-    private NativeLabelScanWriter writer() throws IOException
+    private LabelScanWriter writer() throws IOException
     {
-        return singleWriter.initialize( index.writer() );
+        return exclusiveWriter( singleWriter );
+    }
+
+    /**
+     * Initializes the given writer with the exclusive tree writer, waiting for any other writer of it to close first.
+     *
+     * @return writer which lets the next one in when closed.
+     */
+    private LabelScanWriter exclusiveWriter( NativeLabelScanWriter writer ) throws IOException
+    {
+        exclusiveWriterLock.lock();
+        try
+        {
+            writer.initialize( index.writer() );
+        }
+        catch ( Throwable e )
+        {
+            exclusiveWriterLock.unlock();
+            throw e;
+        }
+        return new LabelScanWriter()
+        {
+            @Override
+            public void write( NodeLabelUpdate update ) throws IOException
+            {
+                writer.write( update );
+            }
+
+            @Override
+            public void close() throws IOException
+            {
+                try
+                {
+                    writer.close();
+                }
+                finally
+                {
+                    exclusiveWriterLock.unlock();
+                }
+            }
+        };
     }
 
     @Override
@@ -35,7 +35,6 @@ import org.neo4j.storageengine.api.schema.LabelScanReader;
 
 import static java.lang.Long.min;
 import static java.lang.Math.toIntExact;
-import static org.neo4j.kernel.impl.index.labelscan.LabelScanValue.RANGE_SIZE;
 
 /**
  * {@link LabelScanWriter} for {@link NativeLabelScanStore}, or rather an {@link Writer} for its
@@ -74,6 +73,11 @@ class NativeLabelScanWriter implements LabelScanWriter
 
     private final WriteMonitor monitor;
 
+    /**
+     * {@link LabelScanLayout} of the tree, deciding range size.
+     */
+    private final LabelScanLayout layout;
+
     /**
      * {@link Writer} acquired when acquiring this {@link NativeLabelScanWriter},
      * acquired from {@link GBPTree#writer()}.
@@ -89,7 +93,7 @@ class NativeLabelScanWriter implements LabelScanWriter
      * Instance of {@link LabelScanValue} acting as place to read values into and also to update
      * for each applied update.
      */
-    private final LabelScanValue value = new LabelScanValue();
+    private final LabelScanValue value;
 
     /**
      * Batch currently building up as {@link #write(NodeLabelUpdate) updates} come in. Cursor for where
@@ -127,11 +131,11 @@ class NativeLabelScanWriter implements LabelScanWriter
         {
         }
 
-        default void prepareAdd( long txId, int offset )
+        default void prepareAdd( long txId, long nodeId )
         {
         }
 
-        default void prepareRemove( long txId, int offset )
+        default void prepareRemove( long txId, long nodeId )
         {
         }
 
@@ -164,9 +168,11 @@ class NativeLabelScanWriter implements LabelScanWriter
     {
     };
 
-    NativeLabelScanWriter( int batchSize, WriteMonitor monitor )
+    NativeLabelScanWriter( int batchSize, LabelScanLayout layout, WriteMonitor monitor )
     {
         this.pendingUpdates = new NodeLabelUpdate[batchSize];
+        this.layout = layout;
+        this.value = layout.newValue();
         this.addMerger = ( existingKey, newKey, existingValue, newValue ) ->
         {
             monitor.mergeAdd( existingValue, newValue );
@@ -284,7 +290,7 @@ class NativeLabelScanWriter implements LabelScanWriter
     private void change( long currentLabelId, long nodeId, boolean add, long txId ) throws IOException
     {
         int labelId = toIntExact( currentLabelId );
-        long idRange = rangeOf( nodeId );
+        long idRange = layout.rangeOf( nodeId );
         if ( labelId != key.labelId || idRange != key.idRange || addition != add )
         {
             flushPendingRange();
@@ -296,21 +302,20 @@ class NativeLabelScanWriter implements LabelScanWriter
             monitor.range( idRange, labelId );
         }
 
-        int offset = toIntExact( nodeId % RANGE_SIZE );
-        value.set( offset );
+        value.set( toIntExact( nodeId % layout.rangeSize() ) );
         if ( addition )
         {
-            monitor.prepareAdd( txId, offset );
+            monitor.prepareAdd( txId, nodeId );
         }
         else
         {
-            monitor.prepareRemove( txId, offset );
+            monitor.prepareRemove( txId, nodeId );
         }
     }
 
     private void flushPendingRange() throws IOException
     {
-        if ( value.bits != 0 )
+        if ( !value.isEmpty() )
         {
             // There are changes in the current range, flush them
             writer.merge( key, value, addition ? addMerger : removeMerger );
@@ -320,11 +325,6 @@ class NativeLabelScanWriter implements LabelScanWriter
         }
     }
 
-    static long rangeOf( long nodeId )
-    {
-        return nodeId / RANGE_SIZE;
-    }
-
     /**
      * Applies {@link #write(NodeLabelUpdate) queued updates} which has not not yet been applied.
      * After this call no more {@link #write(NodeLabelUpdate)} can be applied.
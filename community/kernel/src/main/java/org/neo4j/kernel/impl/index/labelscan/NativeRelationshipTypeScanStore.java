@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.labelscan;
+
+import java.io.File;
+
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.api.labelscan.LabelScanStore;
+import org.neo4j.kernel.api.labelscan.NodeLabelUpdate;
+import org.neo4j.kernel.impl.api.scan.FullStoreChangeStream;
+import org.neo4j.kernel.monitoring.Monitors;
+
+/**
+ * Stores relationship type-->relationships mappings in a {@link GBPTree}, the same way as {@link NativeLabelScanStore}
+ * stores label-->nodes mappings. Everything said about labels and nodes in {@link LabelScanStore} and its readers
+ * and writers applies to relationship types and relationships here, e.g. a relationship created with type {@code T}
+ * is written as a {@link NodeLabelUpdate} of the relationship id going from no labels to label {@code T}.
+ * <p>
+ * This store is backed by a single store file "neostore.relationshiptypescanstore.db".
+ */
+public class NativeRelationshipTypeScanStore extends NativeLabelScanStore
+{
+    /**
+     * Tag of the {@link Monitor} and {@link GBPTree.Monitor} of the relationship type scan store.
+     */
+    public static final String MONITOR_TAG = "relationshipTypeScanStore";
+
+    public NativeRelationshipTypeScanStore( PageCache pageCache, DatabaseLayout directoryStructure, FileSystemAbstraction fs,
+            FullStoreChangeStream fullStoreChangeStream, boolean readOnly, Monitors monitors,
+            RecoveryCleanupWorkCollector recoveryCleanupWorkCollector )
+    {
+        this( pageCache, directoryStructure, fs, fullStoreChangeStream, readOnly, monitors, recoveryCleanupWorkCollector,
+                /*means no opinion about page size*/ 0 );
+    }
+
+    /*
+     * Test access to be able to control page size.
+     */
+    NativeRelationshipTypeScanStore( PageCache pageCache, DatabaseLayout directoryStructure, FileSystemAbstraction fs,
+            FullStoreChangeStream fullStoreChangeStream, boolean readOnly, Monitors monitors,
+            RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, int pageSize )
+    {
+        super( pageCache, directoryStructure, fs, getRelationshipTypeScanStoreFile( directoryStructure ), fullStoreChangeStream,
+                readOnly, monitors, MONITOR_TAG, false, recoveryCleanupWorkCollector, pageSize );
+    }
+
+    /**
+     * Returns the file backing the relationship type scan store.
+     *
+     * @param directoryStructure The store directory to use.
+     * @return the file backing the relationship type scan store
+     */
+    public static File getRelationshipTypeScanStoreFile( DatabaseLayout directoryStructure )
+    {
+        return directoryStructure.relationshipTypeScanStore();
+    }
+}
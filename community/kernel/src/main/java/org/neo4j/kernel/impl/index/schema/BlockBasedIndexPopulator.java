@@ -97,6 +97,10 @@ public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,V
      * i.e. the number of blocks shrinks by a factor {@link #mergeFactor} every pass, until one block is left.
      */
     private final int mergeFactor;
+    /**
+     * How much of each tree node to fill when building the tree from the merged scan updates, where 1 means as much as fits.
+     */
+    private final double bulkLoadFillFactor = FeatureToggles.getDouble( BlockBasedIndexPopulator.class, "bulkLoadFillFactor", 1.0 );
     private final BlockStorage.Monitor blockStorageMonitor;
     // written to in a synchronized method when creating new thread-local instances, read from when population completes
     private final List<ThreadLocalBlockStorage> allScanUpdates = new CopyOnWriteArrayList<>();
@@ -431,8 +435,8 @@ public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,V
                 }
             }
 
-            int asMuchAsPossibleToTheLeft = 1;
-            try ( Writer<KEY,VALUE> writer = tree.writer( asMuchAsPossibleToTheLeft ) )
+            // The merged entries come in sorted order, so the tree can be built from them bottom-up
+            try ( Writer<KEY,VALUE> writer = tree.bulkWriter( bulkLoadFillFactor ) )
             {
                 while ( allEntries.next() && !cancellation.cancelled() )
                 {
@@ -40,6 +40,7 @@ abstract class ConflictDetectingValueMerger<KEY extends NativeIndexKey<KEY>, VAL
     private final boolean compareEntityIds;
 
     private boolean conflict;
+    private boolean keyExisted;
     private long existingNodeId;
     private long addedNodeId;
 
@@ -51,6 +52,7 @@ abstract class ConflictDetectingValueMerger<KEY extends NativeIndexKey<KEY>, VAL
     @Override
     public VALUE merge( KEY existingKey, KEY newKey, VALUE existingValue, VALUE newValue )
     {
+        keyExisted = true;
         if ( existingKey.getEntityId() != newKey.getEntityId() )
         {
             conflict = true;
@@ -70,6 +72,16 @@ abstract class ConflictDetectingValueMerger<KEY extends NativeIndexKey<KEY>, VAL
     void controlConflictDetection( KEY key )
     {
         key.setCompareId( compareEntityIds );
+        keyExisted = false;
+    }
+
+    /**
+     * @return whether or not the key given to the last {@link #controlConflictDetection(NativeIndexKey)} was already in the tree
+     * when merged, i.e. whether or not the merge left the number of entries in the tree unchanged.
+     */
+    boolean keyExisted()
+    {
+        return keyExisted;
     }
 
     boolean wasConflicting()
@@ -28,6 +28,7 @@ import java.io.UncheckedIOException;
 import org.neo4j.cursor.RawCursor;
 import org.neo4j.index.internal.gbptree.GBPTree;
 import org.neo4j.index.internal.gbptree.Hit;
+import org.neo4j.kernel.impl.api.index.sampling.HyperLogLog;
 import org.neo4j.kernel.impl.api.index.sampling.NonUniqueIndexSampler;
 import org.neo4j.storageengine.api.schema.IndexSample;
 
@@ -42,11 +43,21 @@ class FullScanNonUniqueIndexSampler<KEY extends NativeIndexKey<KEY>, VALUE exten
 {
     private final GBPTree<KEY,VALUE> gbpTree;
     private final IndexLayout<KEY,VALUE> layout;
+    private final NativeIndexStatistics statistics;
 
     FullScanNonUniqueIndexSampler( GBPTree<KEY,VALUE> gbpTree, IndexLayout<KEY,VALUE> layout )
+    {
+        this( gbpTree, layout, NativeIndexStatistics.NOT_MAINTAINED );
+    }
+
+    /**
+     * @param statistics {@link NativeIndexStatistics} of the index, which get rebuilt from the scanned entries.
+     */
+    FullScanNonUniqueIndexSampler( GBPTree<KEY,VALUE> gbpTree, IndexLayout<KEY,VALUE> layout, NativeIndexStatistics statistics )
     {
         this.gbpTree = gbpTree;
         this.layout = layout;
+        this.statistics = statistics;
     }
 
     @Override
@@ -59,6 +70,7 @@ class FullScanNonUniqueIndexSampler<KEY extends NativeIndexKey<KEY>, VALUE exten
         highest.initialize( Long.MAX_VALUE );
         highest.initValuesAsHighest();
         KEY prev = layout.newKey();
+        HyperLogLog distinctValues = statistics.isMaintained() ? new HyperLogLog() : null;
         try ( RawCursor<Hit<KEY,VALUE>,IOException> seek = gbpTree.seek( lowest, highest ) )
         {
             long sampledValues = 0;
@@ -70,6 +82,7 @@ class FullScanNonUniqueIndexSampler<KEY extends NativeIndexKey<KEY>, VALUE exten
                 prev = layout.copyKey( seek.get().key(), prev );
                 sampledValues++;
                 uniqueValues++;
+                addDistinctValue( distinctValues, prev );
 
                 // Then do the rest
                 while ( seek.next() )
@@ -79,11 +92,16 @@ class FullScanNonUniqueIndexSampler<KEY extends NativeIndexKey<KEY>, VALUE exten
                     {
                         uniqueValues++;
                         layout.copyKey( hit.key(), prev );
+                        addDistinctValue( distinctValues, prev );
                     }
                     // else this is a duplicate of the previous one
                     sampledValues++;
                 }
             }
+            if ( distinctValues != null )
+            {
+                statistics.replace( distinctValues, sampledValues );
+            }
             return new IndexSample( sampledValues, uniqueValues, sampledValues );
         }
         catch ( IOException e )
@@ -92,6 +110,14 @@ class FullScanNonUniqueIndexSampler<KEY extends NativeIndexKey<KEY>, VALUE exten
         }
     }
 
+    private static void addDistinctValue( HyperLogLog distinctValues, NativeIndexKey<?> key )
+    {
+        if ( distinctValues != null )
+        {
+            distinctValues.add( NativeIndexStatistics.hash( key.asValues() ) );
+        }
+    }
+
     @Override
     public IndexSample result( int numDocs )
     {
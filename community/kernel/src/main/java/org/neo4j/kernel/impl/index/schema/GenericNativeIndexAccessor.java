@@ -23,8 +23,10 @@
 package org.neo4j.kernel.impl.index.schema;
 
 import java.io.File;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import org.neo4j.gis.spatial.index.curves.SpaceFillingCurveConfiguration;
 import org.neo4j.index.internal.gbptree.GBPTree;
@@ -32,8 +34,10 @@ import org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.kernel.api.index.IndexProvider;
 import org.neo4j.kernel.impl.index.schema.config.IndexSpecificSpaceFillingCurveSettingsCache;
+import org.neo4j.kernel.impl.index.schema.config.SpaceFillingCurveSettingsReader;
 import org.neo4j.kernel.impl.index.schema.config.SpaceFillingCurveSettingsWriter;
 import org.neo4j.kernel.impl.util.Validator;
 import org.neo4j.storageengine.api.schema.IndexReader;
@@ -45,6 +49,8 @@ class GenericNativeIndexAccessor extends NativeIndexAccessor<GenericKey,NativeIn
     private final IndexSpecificSpaceFillingCurveSettingsCache spaceFillingCurveSettings;
     private final SpaceFillingCurveConfiguration configuration;
     private final IndexDropAction dropAction;
+    private final NativeIndexStatistics statistics = new NativeIndexStatistics();
+    private final Consumer<PageCursor> headerAndStatisticsWriter;
     private Validator<Value[]> validator;
 
     GenericNativeIndexAccessor( PageCache pageCache, FileSystemAbstraction fs, File storeFile, IndexLayout<GenericKey,NativeIndexValue> layout,
@@ -56,7 +62,15 @@ class GenericNativeIndexAccessor extends NativeIndexAccessor<GenericKey,NativeIn
         this.spaceFillingCurveSettings = spaceFillingCurveSettings;
         this.configuration = configuration;
         this.dropAction = dropAction;
-        instantiateTree( recoveryCleanupWorkCollector, headerWriter );
+        this.headerAndStatisticsWriter = headerWriter.andThen( statistics::write );
+        instantiateTree( recoveryCleanupWorkCollector, new NativeIndexHeaderReader( this::readStatistics ), headerAndStatisticsWriter );
+    }
+
+    private void readStatistics( ByteBuffer headerData )
+    {
+        // The settings have already been read into the layout, but need to be read past to get to the statistics
+        new SpaceFillingCurveSettingsReader( new HashMap<>() ).read( headerData );
+        statistics.read( headerData );
     }
 
     @Override
@@ -76,7 +90,13 @@ class GenericNativeIndexAccessor extends NativeIndexAccessor<GenericKey,NativeIn
     public IndexReader newReader()
     {
         assertOpen();
-        return new GenericNativeIndexReader( tree, layout, descriptor, spaceFillingCurveSettings, configuration );
+        return new GenericNativeIndexReader( tree, layout, descriptor, spaceFillingCurveSettings, configuration, statistics );
+    }
+
+    @Override
+    NativeIndexStatistics statistics()
+    {
+        return statistics;
     }
 
     @Override
@@ -88,8 +108,9 @@ class GenericNativeIndexAccessor extends NativeIndexAccessor<GenericKey,NativeIn
     @Override
     public void force( IOLimiter ioLimiter )
     {
-        // This accessor needs to use the header writer here because coordinate reference systems may have changed since last checkpoint.
-        tree.checkpoint( ioLimiter, headerWriter );
+        // This accessor needs to use the header writer here because coordinate reference systems and statistics may have changed
+        // since last checkpoint.
+        tree.checkpoint( ioLimiter, headerAndStatisticsWriter );
     }
 
     @Override
@@ -36,6 +36,7 @@ import org.neo4j.kernel.impl.api.schema.BridgingIndexProgressor;
 import org.neo4j.kernel.impl.index.schema.config.IndexSpecificSpaceFillingCurveSettingsCache;
 import org.neo4j.storageengine.api.schema.IndexDescriptor;
 import org.neo4j.storageengine.api.schema.IndexProgressor;
+import org.neo4j.storageengine.api.schema.PartitionedValueSeek;
 import org.neo4j.values.storable.CoordinateReferenceSystem;
 import org.neo4j.values.storable.Value;
 import org.neo4j.values.storable.ValueGroup;
@@ -49,14 +50,29 @@ class GenericNativeIndexReader extends NativeIndexReader<GenericKey,NativeIndexV
 {
     private final IndexSpecificSpaceFillingCurveSettingsCache spaceFillingCurveSettings;
     private final SpaceFillingCurveConfiguration configuration;
+    private final NativeIndexStatistics statistics;
 
     GenericNativeIndexReader( GBPTree<GenericKey,NativeIndexValue> tree, IndexLayout<GenericKey,NativeIndexValue> layout,
             IndexDescriptor descriptor, IndexSpecificSpaceFillingCurveSettingsCache spaceFillingCurveSettings,
             SpaceFillingCurveConfiguration configuration )
+    {
+        this( tree, layout, descriptor, spaceFillingCurveSettings, configuration, NativeIndexStatistics.NOT_MAINTAINED );
+    }
+
+    GenericNativeIndexReader( GBPTree<GenericKey,NativeIndexValue> tree, IndexLayout<GenericKey,NativeIndexValue> layout,
+            IndexDescriptor descriptor, IndexSpecificSpaceFillingCurveSettingsCache spaceFillingCurveSettings,
+            SpaceFillingCurveConfiguration configuration, NativeIndexStatistics statistics )
     {
         super( tree, layout, descriptor );
         this.spaceFillingCurveSettings = spaceFillingCurveSettings;
         this.configuration = configuration;
+        this.statistics = statistics;
+    }
+
+    @Override
+    NativeIndexStatistics statistics()
+    {
+        return statistics;
     }
 
     @Override
@@ -120,6 +136,23 @@ class GenericNativeIndexReader extends NativeIndexReader<GenericKey,NativeIndexV
         }
     }
 
+    @Override
+    public boolean supportsPartitionedQuery( IndexQuery... query )
+    {
+        // A geometry range is served by many seeks, one for each space filling curve range, and not a single range to partition
+        return getGeometryRangePredicateIfAny( query ) == null;
+    }
+
+    @Override
+    public PartitionedValueSeek partitionedQuery( int desiredNumberOfPartitions, boolean needsValues, IndexQuery... query )
+    {
+        if ( !supportsPartitionedQuery( query ) )
+        {
+            throw new UnsupportedOperationException( "Partitioned queries are not supported for geometry ranges" );
+        }
+        return super.partitionedQuery( desiredNumberOfPartitions, needsValues, query );
+    }
+
     /**
      * Initializes {@code treeKeyFrom} and {@code treeKeyTo} from the {@link IndexQuery query}.
      * Geometry range queries makes an otherwise straight-forward key construction complex in that a geometry range internally is performed
@@ -39,6 +39,7 @@ import org.neo4j.kernel.api.index.IndexProvider;
 import org.neo4j.kernel.impl.api.index.IndexUpdateMode;
 import org.neo4j.storageengine.api.NodePropertyAccessor;
 import org.neo4j.storageengine.api.schema.IndexReader;
+import org.neo4j.storageengine.api.schema.IndexSample;
 import org.neo4j.storageengine.api.schema.StoreIndexDescriptor;
 
 import static org.neo4j.helpers.collection.Iterators.asResourceIterator;
@@ -48,14 +49,12 @@ import static org.neo4j.kernel.impl.index.schema.NativeIndexPopulator.BYTE_ONLIN
 public abstract class NativeIndexAccessor<KEY extends NativeIndexKey<KEY>, VALUE extends NativeIndexValue> extends NativeIndex<KEY,VALUE>
         implements IndexAccessor
 {
-    private final NativeIndexUpdater<KEY,VALUE> singleUpdater;
     final NativeIndexHeaderWriter headerWriter;
 
     NativeIndexAccessor( PageCache pageCache, FileSystemAbstraction fs, File storeFile, IndexLayout<KEY,VALUE> layout,
             IndexProvider.Monitor monitor, StoreIndexDescriptor descriptor, Consumer<PageCursor> additionalHeaderWriter, boolean readOnly )
     {
         super( pageCache, fs, storeFile, layout, monitor, descriptor, readOnly );
-        singleUpdater = new NativeIndexUpdater<>( layout.newKey(), layout.newValue() );
         headerWriter = new NativeIndexHeaderWriter( BYTE_ONLINE, additionalHeaderWriter );
     }
 
@@ -79,7 +78,9 @@ public abstract class NativeIndexAccessor<KEY extends NativeIndexKey<KEY>, VALUE
         assertOpen();
         try
         {
-            return singleUpdater.initialize( tree.writer() );
+            // Each updater has its own parallel writer so that any number of updaters can be used at the same time.
+            // Note that committing transactions still apply their index updates one batch at a time, see IndexUpdatesWork.
+            return new NativeIndexUpdater<>( layout.newKey(), layout.newValue(), statistics() ).initialize( tree.parallelWriter() );
         }
         catch ( IOException e )
         {
@@ -93,6 +94,12 @@ public abstract class NativeIndexAccessor<KEY extends NativeIndexKey<KEY>, VALUE
         tree.checkpoint( ioLimiter );
     }
 
+    @Override
+    public void compact()
+    {
+        tree.compact();
+    }
+
     @Override
     public void refresh()
     {
@@ -114,6 +121,20 @@ public abstract class NativeIndexAccessor<KEY extends NativeIndexKey<KEY>, VALUE
     @Override
     public abstract IndexReader newReader();
 
+    @Override
+    public IndexSample incrementalSample()
+    {
+        return statistics().sample();
+    }
+
+    /**
+     * @return statistics maintained by updaters of this index, if any.
+     */
+    NativeIndexStatistics statistics()
+    {
+        return NativeIndexStatistics.NOT_MAINTAINED;
+    }
+
     @Override
     public BoundedIterable<Long> newAllEntriesReader()
     {
@@ -24,8 +24,11 @@ package org.neo4j.kernel.impl.index.schema;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.neo4j.collection.PrimitiveLongResourceIterator;
 import org.neo4j.cursor.RawCursor;
@@ -39,6 +42,7 @@ import org.neo4j.storageengine.api.schema.IndexDescriptor;
 import org.neo4j.storageengine.api.schema.IndexProgressor;
 import org.neo4j.storageengine.api.schema.IndexReader;
 import org.neo4j.storageengine.api.schema.IndexSampler;
+import org.neo4j.storageengine.api.schema.PartitionedValueSeek;
 import org.neo4j.values.storable.Value;
 
 import static org.neo4j.kernel.impl.index.schema.NativeIndexKey.Inclusion.NEUTRAL;
@@ -56,7 +60,8 @@ abstract class NativeIndexReader<KEY extends NativeIndexKey<KEY>, VALUE extends
         this.tree = tree;
         this.layout = layout;
         this.descriptor = descriptor;
-        this.openSeekers = new HashSet<>();
+        // Partitions of a partitioned query are read by different threads, which all open and close seekers
+        this.openSeekers = ConcurrentHashMap.newKeySet();
     }
 
     @Override
@@ -75,10 +80,18 @@ abstract class NativeIndexReader<KEY extends NativeIndexKey<KEY>, VALUE extends
         // non-unique sampler which scans the index and counts (potentially duplicates, of which there will
         // be none in a unique index).
 
-        FullScanNonUniqueIndexSampler<KEY,VALUE> sampler = new FullScanNonUniqueIndexSampler<>( tree, layout );
+        FullScanNonUniqueIndexSampler<KEY,VALUE> sampler = new FullScanNonUniqueIndexSampler<>( tree, layout, statistics() );
         return sampler::result;
     }
 
+    /**
+     * @return statistics of the index, rebuilt by {@link #createSampler() sampling}, if the index maintains any.
+     */
+    NativeIndexStatistics statistics()
+    {
+        return NativeIndexStatistics.NOT_MAINTAINED;
+    }
+
     @Override
     public long countIndexedNodes( long nodeId, int[] propertyKeyIds, Value... propertyValues )
     {
@@ -131,6 +144,34 @@ abstract class NativeIndexReader<KEY extends NativeIndexKey<KEY>, VALUE extends
         startSeekForInitializedRange( cursor, treeKeyFrom, treeKeyTo, predicates, indexOrder, needFilter, needsValues );
     }
 
+    @Override
+    public boolean supportsPartitionedQuery( IndexQuery... query )
+    {
+        return true;
+    }
+
+    @Override
+    public PartitionedValueSeek partitionedQuery( int desiredNumberOfPartitions, boolean needsValues, IndexQuery... query )
+    {
+        validateQuery( IndexOrder.NONE, query );
+
+        KEY treeKeyFrom = layout.newKey();
+        KEY treeKeyTo = layout.newKey();
+        initializeFromToKeys( treeKeyFrom, treeKeyTo );
+
+        boolean needFilter = initializeRangeForQuery( treeKeyFrom, treeKeyTo, query );
+        try
+        {
+            List<KEY> boundaries = isEmptyRange( treeKeyFrom, treeKeyTo ) ? Collections.emptyList()
+                                                                          : tree.partitionRange( treeKeyFrom, treeKeyTo, desiredNumberOfPartitions );
+            return new NativePartitionedValueSeek( boundaries, query, needFilter, needsValues );
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
     void initializeFromToKeys( KEY treeKeyFrom, KEY treeKeyTo )
     {
         treeKeyFrom.initialize( Long.MIN_VALUE );
@@ -213,6 +254,46 @@ abstract class NativeIndexReader<KEY extends NativeIndexKey<KEY>, VALUE extends
         return layout.compare( treeKeyFrom, treeKeyTo ) > 0;
     }
 
+    /**
+     * Hands out the partitions of a {@link GBPTree#partitionRange(Object, Object, int) partitioned} key range,
+     * each being read by a regular seek.
+     */
+    private class NativePartitionedValueSeek implements PartitionedValueSeek
+    {
+        private final List<KEY> boundaries;
+        private final IndexQuery[] query;
+        private final boolean needFilter;
+        private final boolean needsValues;
+        private final AtomicInteger nextPartition = new AtomicInteger();
+
+        NativePartitionedValueSeek( List<KEY> boundaries, IndexQuery[] query, boolean needFilter, boolean needsValues )
+        {
+            this.boundaries = boundaries;
+            this.query = query;
+            this.needFilter = needFilter;
+            this.needsValues = needsValues;
+        }
+
+        @Override
+        public int getNumberOfPartitions()
+        {
+            return Math.max( 0, boundaries.size() - 1 );
+        }
+
+        @Override
+        public boolean reservePartition( IndexProgressor.NodeValueClient client )
+        {
+            int partition = nextPartition.getAndIncrement();
+            if ( partition >= getNumberOfPartitions() )
+            {
+                return false;
+            }
+            startSeekForInitializedRange( client, boundaries.get( partition ), boundaries.get( partition + 1 ), query, IndexOrder.NONE,
+                    needFilter, needsValues );
+            return true;
+        }
+    }
+
     private void ensureOpenSeekersClosed()
     {
         try
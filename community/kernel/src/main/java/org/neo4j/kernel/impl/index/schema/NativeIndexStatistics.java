@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import java.nio.ByteBuffer;
+
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.kernel.impl.api.index.sampling.HyperLogLog;
+import org.neo4j.storageengine.api.schema.IndexSample;
+import org.neo4j.values.storable.Value;
+
+/**
+ * Statistics about the entries of a native index, kept up to date by its {@link NativeIndexUpdater updaters} so that the index
+ * can be sampled without scanning it. The number of distinct values is estimated using a {@link HyperLogLog} sketch, which can't
+ * forget values, so removed values are still counted as distinct until a full scan rebuilds the statistics,
+ * see {@link FullScanNonUniqueIndexSampler}.
+ * <p>
+ * The statistics are written to the tree header at checkpoint, after the index specific header. They are not available until the
+ * index has been fully scanned once.
+ */
+class NativeIndexStatistics
+{
+    static final NativeIndexStatistics NOT_MAINTAINED = new NativeIndexStatistics( false );
+
+    private static final byte VERSION = 1;
+
+    private final boolean maintained;
+    private HyperLogLog distinctValues;
+    private long indexSize;
+
+    NativeIndexStatistics()
+    {
+        this( true );
+    }
+
+    private NativeIndexStatistics( boolean maintained )
+    {
+        this.maintained = maintained;
+    }
+
+    boolean isMaintained()
+    {
+        return maintained;
+    }
+
+    synchronized boolean isAvailable()
+    {
+        return distinctValues != null;
+    }
+
+    /**
+     * @return sample created from the statistics, or {@code null} if they're not available.
+     */
+    synchronized IndexSample sample()
+    {
+        if ( distinctValues == null )
+        {
+            return null;
+        }
+        long size = Math.max( 0, indexSize );
+        return new IndexSample( size, Math.min( distinctValues.estimate(), size ), size );
+    }
+
+    /**
+     * Applies changes made by an updater, if the statistics are available.
+     *
+     * @param addedValues sketch of values added by the updater, or {@code null} if no values were added.
+     * @param sizeChange number of entries added minus number of entries removed by the updater.
+     */
+    synchronized void apply( HyperLogLog addedValues, long sizeChange )
+    {
+        if ( distinctValues != null )
+        {
+            if ( addedValues != null )
+            {
+                distinctValues.merge( addedValues );
+            }
+            indexSize += sizeChange;
+        }
+    }
+
+    /**
+     * Replaces the statistics with ones gathered by scanning all entries of the index.
+     */
+    synchronized void replace( HyperLogLog distinctValues, long indexSize )
+    {
+        if ( maintained )
+        {
+            this.distinctValues = distinctValues;
+            this.indexSize = indexSize;
+        }
+    }
+
+    synchronized void write( PageCursor cursor )
+    {
+        if ( distinctValues != null )
+        {
+            cursor.putByte( VERSION );
+            cursor.putLong( indexSize );
+            cursor.putBytes( distinctValues.registers() );
+        }
+    }
+
+    synchronized void read( ByteBuffer headerData )
+    {
+        // Headers written before statistics were maintained, or with another version of them, leave the statistics unavailable
+        // until the next full scan.
+        if ( headerData.remaining() > 0 && headerData.get() == VERSION )
+        {
+            long size = headerData.getLong();
+            byte[] registers = new byte[HyperLogLog.NUMBER_OF_REGISTERS];
+            headerData.get( registers );
+            replace( new HyperLogLog( registers ), size );
+        }
+    }
+
+    static long hash( Value[] values )
+    {
+        long hash = 1;
+        for ( Value value : values )
+        {
+            hash = 31 * hash + value.hashCode64();
+        }
+        return hash;
+    }
+}
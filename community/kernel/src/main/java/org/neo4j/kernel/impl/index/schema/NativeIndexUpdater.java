@@ -27,6 +27,8 @@ import org.neo4j.io.IOUtils;
 import org.neo4j.kernel.api.exceptions.index.IndexEntryConflictException;
 import org.neo4j.kernel.api.index.IndexEntryUpdate;
 import org.neo4j.kernel.api.index.IndexUpdater;
+import org.neo4j.kernel.impl.api.index.UpdateMode;
+import org.neo4j.kernel.impl.api.index.sampling.HyperLogLog;
 import org.neo4j.values.storable.Value;
 
 import static org.neo4j.kernel.impl.index.schema.NativeIndexKey.Inclusion.NEUTRAL;
@@ -37,14 +39,24 @@ class NativeIndexUpdater<KEY extends NativeIndexKey<KEY>, VALUE extends NativeIn
     private final KEY treeKey;
     private final VALUE treeValue;
     private final ConflictDetectingValueMerger<KEY,VALUE,Value[]> conflictDetectingValueMerger = new ThrowingConflictDetector<>( true );
+    private final NativeIndexStatistics statistics;
     private Writer<KEY,VALUE> writer;
 
     private boolean closed = true;
+    private boolean updateStatistics;
+    private HyperLogLog addedValues;
+    private long sizeChange;
 
     NativeIndexUpdater( KEY treeKey, VALUE treeValue )
+    {
+        this( treeKey, treeValue, NativeIndexStatistics.NOT_MAINTAINED );
+    }
+
+    NativeIndexUpdater( KEY treeKey, VALUE treeValue, NativeIndexStatistics statistics )
     {
         this.treeKey = treeKey;
         this.treeValue = treeValue;
+        this.statistics = statistics;
     }
 
     NativeIndexUpdater<KEY,VALUE> initialize( Writer<KEY,VALUE> writer )
@@ -56,6 +68,10 @@ class NativeIndexUpdater<KEY extends NativeIndexKey<KEY>, VALUE extends NativeIn
 
         this.writer = writer;
         closed = false;
+        // Changes are collected by each updater and applied to the statistics when it's closed, so that concurrent updaters don't contend
+        updateStatistics = statistics.isAvailable();
+        addedValues = null;
+        sizeChange = 0;
         return this;
     }
 
@@ -63,7 +79,11 @@ class NativeIndexUpdater<KEY extends NativeIndexKey<KEY>, VALUE extends NativeIn
     public void process( IndexEntryUpdate<?> update ) throws IndexEntryConflictException
     {
         assertOpen();
-        processUpdate( treeKey, treeValue, update, writer, conflictDetectingValueMerger );
+        int sizeChange = processUpdate( treeKey, treeValue, update, writer, conflictDetectingValueMerger );
+        if ( updateStatistics )
+        {
+            collectStatistics( update, sizeChange );
+        }
     }
 
     @Override
@@ -71,6 +91,29 @@ class NativeIndexUpdater<KEY extends NativeIndexKey<KEY>, VALUE extends NativeIn
     {
         closed = true;
         IOUtils.closeAllUnchecked( writer );
+        if ( updateStatistics )
+        {
+            statistics.apply( addedValues, sizeChange );
+        }
+    }
+
+    private void collectStatistics( IndexEntryUpdate<?> update, int sizeChange )
+    {
+        // The size change is what the update actually did to the tree, so that an update applied again during recovery isn't counted twice
+        this.sizeChange += sizeChange;
+        if ( update.updateMode() != UpdateMode.REMOVED )
+        {
+            addValues( update.values() );
+        }
+    }
+
+    private void addValues( Value[] values )
+    {
+        if ( addedValues == null )
+        {
+            addedValues = new HyperLogLog();
+        }
+        addedValues.add( NativeIndexStatistics.hash( values ) );
     }
 
     private void assertOpen()
@@ -81,52 +124,52 @@ class NativeIndexUpdater<KEY extends NativeIndexKey<KEY>, VALUE extends NativeIn
         }
     }
 
-    static <KEY extends NativeIndexKey<KEY>, VALUE extends NativeIndexValue> void processUpdate( KEY treeKey, VALUE treeValue,
+    /**
+     * @return the change in number of entries in the tree caused by this update. An update that was already applied, e.g. when
+     * transactions are replayed during recovery, doesn't change the number of entries.
+     */
+    static <KEY extends NativeIndexKey<KEY>, VALUE extends NativeIndexValue> int processUpdate( KEY treeKey, VALUE treeValue,
             IndexEntryUpdate<?> update, Writer<KEY,VALUE> writer, ConflictDetectingValueMerger<KEY,VALUE,Value[]> conflictDetectingValueMerger )
             throws IndexEntryConflictException
     {
         switch ( update.updateMode() )
         {
         case ADDED:
-            processAdd( treeKey, treeValue, update, writer, conflictDetectingValueMerger );
-            break;
+            return processAdd( treeKey, treeValue, update, writer, conflictDetectingValueMerger );
         case CHANGED:
-            processChange( treeKey, treeValue, update, writer, conflictDetectingValueMerger );
-            break;
+            return processChange( treeKey, treeValue, update, writer, conflictDetectingValueMerger );
         case REMOVED:
-            processRemove( treeKey, update, writer );
-            break;
+            return processRemove( treeKey, update, writer );
         default:
             throw new IllegalArgumentException();
         }
     }
 
-    private static <KEY extends NativeIndexKey<KEY>, VALUE extends NativeIndexValue> void processRemove( KEY treeKey,
+    private static <KEY extends NativeIndexKey<KEY>, VALUE extends NativeIndexValue> int processRemove( KEY treeKey,
             IndexEntryUpdate<?> update, Writer<KEY,VALUE> writer )
     {
-        // todo Do we need to verify that we actually removed something at all?
-        // todo Difference between online and recovery?
         initializeKeyFromUpdate( treeKey, update.getEntityId(), update.values() );
-        writer.remove( treeKey );
+        return removed( writer.remove( treeKey ) );
     }
 
-    private static <KEY extends NativeIndexKey<KEY>, VALUE extends NativeIndexValue> void processChange( KEY treeKey, VALUE treeValue,
+    private static <KEY extends NativeIndexKey<KEY>, VALUE extends NativeIndexValue> int processChange( KEY treeKey, VALUE treeValue,
             IndexEntryUpdate<?> update, Writer<KEY,VALUE> writer,
             ConflictDetectingValueMerger<KEY,VALUE,Value[]> conflictDetectingValueMerger )
             throws IndexEntryConflictException
     {
         // Remove old entry
         initializeKeyFromUpdate( treeKey, update.getEntityId(), update.beforeValues() );
-        writer.remove( treeKey );
+        int sizeChange = removed( writer.remove( treeKey ) );
         // Insert new entry
         initializeKeyFromUpdate( treeKey, update.getEntityId(), update.values() );
         treeValue.from( update.values() );
         conflictDetectingValueMerger.controlConflictDetection( treeKey );
         writer.merge( treeKey, treeValue, conflictDetectingValueMerger );
         conflictDetectingValueMerger.checkConflict( update.values() );
+        return sizeChange + added( conflictDetectingValueMerger );
     }
 
-    private static <KEY extends NativeIndexKey<KEY>, VALUE extends NativeIndexValue> void processAdd( KEY treeKey, VALUE treeValue, IndexEntryUpdate<?> update,
+    private static <KEY extends NativeIndexKey<KEY>, VALUE extends NativeIndexValue> int processAdd( KEY treeKey, VALUE treeValue, IndexEntryUpdate<?> update,
             Writer<KEY,VALUE> writer, ConflictDetectingValueMerger<KEY,VALUE,Value[]> conflictDetectingValueMerger )
             throws IndexEntryConflictException
     {
@@ -134,6 +177,17 @@ class NativeIndexUpdater<KEY extends NativeIndexKey<KEY>, VALUE extends NativeIn
         conflictDetectingValueMerger.controlConflictDetection( treeKey );
         writer.merge( treeKey, treeValue, conflictDetectingValueMerger );
         conflictDetectingValueMerger.checkConflict( update.values() );
+        return added( conflictDetectingValueMerger );
+    }
+
+    private static int removed( Object removedValue )
+    {
+        return removedValue != null ? -1 : 0;
+    }
+
+    private static int added( ConflictDetectingValueMerger<?,?,?> conflictDetectingValueMerger )
+    {
+        return conflictDetectingValueMerger.keyExisted() ? 0 : 1;
     }
 
     static <KEY extends NativeIndexKey<KEY>, VALUE extends NativeIndexValue> void initializeKeyAndValueFromUpdate( KEY treeKey, VALUE treeValue,
@@ -42,6 +42,7 @@ import org.neo4j.index.internal.gbptree.MetadataMismatchException;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.impl.index.labelscan.LabelScanLayout;
+import org.neo4j.kernel.impl.index.labelscan.LegacyLabelScanLayout;
 import org.neo4j.kernel.impl.index.schema.config.ConfiguredSpaceFillingCurveSettingsCache;
 import org.neo4j.kernel.impl.index.schema.config.IndexSpecificSpaceFillingCurveSettingsCache;
 import org.neo4j.kernel.impl.index.schema.config.SpaceFillingCurveSettings;
@@ -71,7 +72,8 @@ public class SchemaLayouts implements LayoutBootstrapper
                 ( indexFile, pageCache, meta, targetLayout ) -> new NumberLayoutUnique(),
                 ( indexFile, pageCache, meta, targetLayout ) -> new NumberLayoutNonUnique(),
                 genericLayout(),
-                ( indexFile, pageCache, meta, targetLayout ) -> new LabelScanLayout() ) );
+                ( indexFile, pageCache, meta, targetLayout ) -> new LabelScanLayout( LabelScanLayout.rangeSizeFor( meta.getPageSize() ) ),
+                ( indexFile, pageCache, meta, targetLayout ) -> new LegacyLabelScanLayout() ) );
     }
 
     public static String[] layoutDescriptions()
@@ -105,6 +105,15 @@ class SpatialIndexAccessor extends SpatialIndexCache<SpatialIndexAccessor.PartAc
         }
     }
 
+    @Override
+    public void compact()
+    {
+        for ( NativeIndexAccessor part : this )
+        {
+            part.compact();
+        }
+    }
+
     @Override
     public void refresh()
     {
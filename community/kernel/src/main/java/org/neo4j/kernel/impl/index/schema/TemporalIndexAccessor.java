@@ -88,6 +88,15 @@ class TemporalIndexAccessor extends TemporalIndexCache<TemporalIndexAccessor.Par
         }
     }
 
+    @Override
+    public void compact()
+    {
+        for ( NativeIndexAccessor part : this )
+        {
+            part.compact();
+        }
+    }
+
     @Override
     public void refresh()
     {
@@ -80,6 +80,12 @@ class FusionIndexAccessor extends FusionIndexBase<IndexAccessor> implements Inde
         instanceSelector.forAll( accessor -> accessor.force( ioLimiter ) );
     }
 
+    @Override
+    public void compact()
+    {
+        instanceSelector.forAll( accessor -> accessor.compact() );
+    }
+
     @Override
     public void refresh()
     {
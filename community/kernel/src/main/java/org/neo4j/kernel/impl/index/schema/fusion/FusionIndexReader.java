@@ -36,6 +36,7 @@ import org.neo4j.storageengine.api.schema.IndexDescriptor;
 import org.neo4j.storageengine.api.schema.IndexProgressor;
 import org.neo4j.storageengine.api.schema.IndexReader;
 import org.neo4j.storageengine.api.schema.IndexSampler;
+import org.neo4j.storageengine.api.schema.PartitionedValueSeek;
 import org.neo4j.values.storable.Value;
 
 import static java.lang.String.format;
@@ -141,6 +142,25 @@ class FusionIndexReader extends FusionIndexBase<IndexReader> implements IndexRea
         instanceSelector.forAll( reader -> reader.distinctValues( multiProgressor, propertyAccessor, needsValues ) );
     }
 
+    @Override
+    public boolean supportsPartitionedQuery( IndexQuery... query )
+    {
+        // Only queries served by a single part can be partitioned, since partitions can't span parts
+        IndexSlot slot = slotSelector.selectSlot( query, IndexQuery::valueGroup );
+        return slot != null && instanceSelector.select( slot ).supportsPartitionedQuery( query );
+    }
+
+    @Override
+    public PartitionedValueSeek partitionedQuery( int desiredNumberOfPartitions, boolean needsValues, IndexQuery... query )
+    {
+        IndexSlot slot = slotSelector.selectSlot( query, IndexQuery::valueGroup );
+        if ( slot == null )
+        {
+            throw new UnsupportedOperationException( "Partitioned queries are not supported for queries spanning multiple index parts" );
+        }
+        return instanceSelector.select( slot ).partitionedQuery( desiredNumberOfPartitions, needsValues, query );
+    }
+
     @Override
     public boolean hasFullValuePrecision( IndexQuery... predicates )
     {
@@ -260,6 +260,12 @@ public class AllStoreHolder extends Read
         return storageReader.getLabelScanReader();
     }
 
+    @Override
+    LabelScanReader relationshipTypeScanReader()
+    {
+        return storageReader.getRelationshipTypeScanReader();
+    }
+
     @Override
     ExplicitIndex explicitNodeIndex( String indexName ) throws ExplicitIndexNotFoundKernelException
     {
@@ -26,6 +26,7 @@ import org.eclipse.collections.api.iterator.LongIterator;
 import org.eclipse.collections.impl.iterator.ImmutableEmptyLongIterator;
 import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
 
+import org.neo4j.collection.PrimitiveLongResourceIterator;
 import org.neo4j.internal.kernel.api.RelationshipScanCursor;
 import org.neo4j.storageengine.api.StorageRelationshipScanCursor;
 
@@ -36,6 +37,7 @@ class DefaultRelationshipScanCursor extends DefaultRelationshipCursor<StorageRel
     private int type;
     private long single;
     private LongIterator addedRelationships;
+    private PrimitiveLongResourceIterator typeIndexRelationships;
 
     DefaultRelationshipScanCursor( DefaultCursors pool, StorageRelationshipScanCursor storeCursor )
     {
@@ -44,6 +46,7 @@ class DefaultRelationshipScanCursor extends DefaultRelationshipCursor<StorageRel
 
     void scan( int type, Read read )
     {
+        closeTypeIndexRelationships();
         storeCursor.scan( type );
         this.type = type;
         this.single = NO_ID;
@@ -51,8 +54,23 @@ class DefaultRelationshipScanCursor extends DefaultRelationshipCursor<StorageRel
         this.addedRelationships = ImmutableEmptyLongIterator.INSTANCE;
     }
 
+    /**
+     * Scans relationships of the given type, reading them one by one from the store as their ids come out of
+     * the given iterator, typically from the relationship type scan store, instead of scanning the whole store.
+     */
+    void scan( int type, PrimitiveLongResourceIterator typeIndexRelationships, Read read )
+    {
+        closeTypeIndexRelationships();
+        this.typeIndexRelationships = typeIndexRelationships;
+        this.type = type;
+        this.single = NO_ID;
+        init( read );
+        this.addedRelationships = ImmutableEmptyLongIterator.INSTANCE;
+    }
+
     void single( long reference, Read read )
     {
+        closeTypeIndexRelationships();
         storeCursor.single( reference );
         type = -1;
         this.single = reference;
@@ -66,10 +84,28 @@ class DefaultRelationshipScanCursor extends DefaultRelationshipCursor<StorageRel
         // Check tx state
         boolean hasChanges = hasChanges();
 
-        if ( hasChanges && addedRelationships.hasNext() )
+        while ( hasChanges && addedRelationships.hasNext() )
         {
             read.txState().relationshipVisit( addedRelationships.next(), storeCursor );
-            return true;
+            if ( type == -1 || storeCursor.type() == type )
+            {
+                return true;
+            }
+        }
+
+        if ( typeIndexRelationships != null )
+        {
+            while ( typeIndexRelationships.hasNext() )
+            {
+                long reference = typeIndexRelationships.next();
+                storeCursor.single( reference );
+                if ( storeCursor.next() && storeCursor.type() == type &&
+                        (!hasChanges || !read.txState().relationshipIsDeletedInThisTx( reference )) )
+                {
+                    return true;
+                }
+            }
+            return false;
         }
 
         while ( storeCursor.next() )
@@ -88,6 +124,7 @@ class DefaultRelationshipScanCursor extends DefaultRelationshipCursor<StorageRel
         if ( !isClosed() )
         {
             read = null;
+            closeTypeIndexRelationships();
             storeCursor.close();
 
             pool.accept( this );
@@ -112,6 +149,7 @@ class DefaultRelationshipScanCursor extends DefaultRelationshipCursor<StorageRel
             return "RelationshipScanCursor[id=" + storeCursor.entityReference() +
                     ", open state with: single=" + single +
                     ", type=" + type +
+                    ", typeIndexed=" + (typeIndexRelationships != null) +
                     ", " + storeCursor.toString() + "]";
         }
     }
@@ -136,6 +174,15 @@ class DefaultRelationshipScanCursor extends DefaultRelationshipCursor<StorageRel
         return single != NO_ID;
     }
 
+    private void closeTypeIndexRelationships()
+    {
+        if ( typeIndexRelationships != null )
+        {
+            typeIndexRelationships.close();
+            typeIndexRelationships = null;
+        }
+    }
+
     public void release()
     {
         storeCursor.close();
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.newapi;
+
+import org.neo4j.internal.kernel.api.NodeLabelIndexCursor;
+import org.neo4j.internal.kernel.api.Scan;
+import org.neo4j.storageengine.api.schema.PartitionedLabelScan;
+
+/**
+ * {@link Scan} over the partitions of a {@link PartitionedLabelScan}.
+ */
+class PartitionedNodeLabelIndexScan implements Scan<NodeLabelIndexCursor>
+{
+    private final Read read;
+    private final PartitionedLabelScan scan;
+
+    PartitionedNodeLabelIndexScan( Read read, PartitionedLabelScan scan )
+    {
+        this.read = read;
+        this.scan = scan;
+    }
+
+    @Override
+    public int getNumberOfPartitions()
+    {
+        return scan.getNumberOfPartitions();
+    }
+
+    @Override
+    public boolean reservePartition( NodeLabelIndexCursor cursor )
+    {
+        DefaultNodeLabelIndexCursor cursorImpl = (DefaultNodeLabelIndexCursor) cursor;
+        cursorImpl.setRead( read );
+        return scan.reservePartition( cursorImpl );
+    }
+}
@@ -22,6 +22,8 @@
  */
 package org.neo4j.kernel.impl.newapi;
 
+import java.util.Arrays;
+
 import org.neo4j.internal.kernel.api.IndexOrder;
 import org.neo4j.internal.kernel.api.IndexQuery;
 import org.neo4j.internal.kernel.api.IndexReference;
@@ -57,6 +59,7 @@ import org.neo4j.storageengine.api.lock.ResourceType;
 import org.neo4j.storageengine.api.schema.IndexProgressor;
 import org.neo4j.storageengine.api.schema.IndexReader;
 import org.neo4j.storageengine.api.schema.LabelScanReader;
+import org.neo4j.storageengine.api.schema.PartitionedValueSeek;
 import org.neo4j.values.storable.Value;
 import org.neo4j.values.storable.ValueGroup;
 import org.neo4j.values.storable.Values;
@@ -208,6 +211,38 @@ abstract class Read implements TxStateHolder,
         indexReader( index, false ).query( cursorImpl, indexOrder, needsValues, IndexQuery.exists( firstProperty ) );
     }
 
+    @Override
+    public final Scan<NodeValueIndexCursor> nodeIndexSeek( IndexReference index, int desiredNumberOfPartitions, boolean needsValues,
+            IndexQuery... query ) throws IndexNotApplicableKernelException, IndexNotFoundKernelException
+    {
+        ktx.assertOpen();
+        assertNoChangesForPartitionedScan();
+        if ( hasForbiddenProperties( index ) )
+        {
+            return new PartitionedNodeValueIndexScan( this, PartitionedValueSeek.EMPTY );
+        }
+
+        IndexReader reader = indexReader( index, false );
+        if ( !reader.supportsPartitionedQuery( query ) )
+        {
+            throw new IndexNotApplicableKernelException( "Partitioned seeks are not supported by index " + index + " for query " + Arrays.toString( query ) );
+        }
+        if ( !reader.hasFullValuePrecision( query ) )
+        {
+            // Values would have to be double-checked against the store, with cursors that can't be shared between threads
+            throw new IndexNotApplicableKernelException( "Partitioned seeks are not supported for queries without full value precision" );
+        }
+        return new PartitionedNodeValueIndexScan( this, reader.partitionedQuery( desiredNumberOfPartitions, needsValues, query ) );
+    }
+
+    @Override
+    public final Scan<NodeValueIndexCursor> nodeIndexScan( IndexReference index, int desiredNumberOfPartitions, boolean needsValues )
+            throws KernelException
+    {
+        // for a scan, we simply query for existence of the first property, which covers all entries in an index
+        return nodeIndexSeek( index, desiredNumberOfPartitions, needsValues, IndexQuery.exists( index.properties()[0] ) );
+    }
+
     private boolean hasForbiddenProperties( IndexReference index )
     {
         AccessMode mode = ktx.securityContext().mode();
@@ -255,10 +290,22 @@ abstract class Read implements TxStateHolder,
     }
 
     @Override
-    public final Scan<NodeLabelIndexCursor> nodeLabelScan( int label )
+    public final Scan<NodeLabelIndexCursor> nodeLabelScan( int label, int desiredNumberOfPartitions )
     {
         ktx.assertOpen();
-        throw new UnsupportedOperationException( "not implemented" );
+        assertNoChangesForPartitionedScan();
+        return new PartitionedNodeLabelIndexScan( this, labelScanReader().partitionedNodesWithLabel( label, desiredNumberOfPartitions ) );
+    }
+
+    /**
+     * Partitions are read straight from the stores, with no way of merging in changes from transaction state.
+     */
+    private void assertNoChangesForPartitionedScan()
+    {
+        if ( hasTxStateWithChanges() )
+        {
+            throw new IllegalStateException( "Partitioned scans are only supported in transactions without changes" );
+        }
     }
 
     @Override
@@ -307,7 +354,14 @@ abstract class Read implements TxStateHolder,
     public final void relationshipTypeScan( int type, RelationshipScanCursor cursor )
     {
         ktx.assertOpen();
-        ((DefaultRelationshipScanCursor) cursor).scan( type, this );
+        LabelScanReader typeScanReader = relationshipTypeScanReader();
+        if ( typeScanReader == null )
+        {
+            // No relationship type scan store, e.g. in a read-only database created before there was one
+            ((DefaultRelationshipScanCursor) cursor).scan( type, this );
+            return;
+        }
+        ((DefaultRelationshipScanCursor) cursor).scan( type, typeScanReader.nodesWithLabel( type ), this );
     }
 
     @Override
@@ -465,6 +519,11 @@ abstract class Read implements TxStateHolder,
 
     abstract LabelScanReader labelScanReader();
 
+    /**
+     * @return {@link LabelScanReader} of the relationship type scan store, returning relationship ids for relationship type ids.
+     */
+    abstract LabelScanReader relationshipTypeScanReader();
+
     abstract ExplicitIndex explicitNodeIndex( String indexName ) throws ExplicitIndexNotFoundKernelException;
 
     abstract ExplicitIndex explicitRelationshipIndex( String indexName ) throws ExplicitIndexNotFoundKernelException;
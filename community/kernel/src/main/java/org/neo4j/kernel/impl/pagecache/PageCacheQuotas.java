@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import java.io.File;
+import java.nio.file.OpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.neo4j.graphdb.config.InvalidSettingException;
+import org.neo4j.io.pagecache.PageCacheQuota;
+import org.neo4j.kernel.configuration.Config;
+
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_quotas;
+import static org.neo4j.helpers.ArrayUtil.concat;
+
+/**
+ * Gives store files the {@link PageCacheQuota} configured for them in {@link org.neo4j.graphdb.factory.GraphDatabaseSettings#pagecache_quotas}.
+ */
+public final class PageCacheQuotas
+{
+    private PageCacheQuotas()
+    {
+    }
+
+    /**
+     * @param config the configuration to read the quotas from.
+     * @param file the store file that is about to be mapped.
+     * @param openOptions the options the file is mapped with.
+     * @return the given options, plus the quota configured for the file, if there is one.
+     */
+    public static OpenOption[] withQuota( Config config, File file, OpenOption... openOptions )
+    {
+        PageCacheQuota quota = quotas( config ).get( file.getName() );
+        return quota == null ? openOptions : concat( openOptions, quota );
+    }
+
+    /**
+     * @param config the configuration to read the quotas from.
+     * @return the configured quotas, keyed by store file name.
+     * @throws InvalidSettingException if an entry is malformed, or does not describe a valid quota.
+     */
+    public static Map<String,PageCacheQuota> quotas( Config config )
+    {
+        Map<String,PageCacheQuota> quotas = new HashMap<>();
+        for ( String entry : config.get( pagecache_quotas ) )
+        {
+            int separator = entry.indexOf( '=' );
+            if ( separator <= 0 )
+            {
+                throw invalidEntry( entry, "must be on the form <store file name>=<reserved ratio>[:<maximum ratio>]" );
+            }
+            String fileName = entry.substring( 0, separator ).trim();
+            String[] ratios = entry.substring( separator + 1 ).split( ":" );
+            if ( ratios.length > 2 )
+            {
+                throw invalidEntry( entry, "must give at most a reserved and a maximum ratio" );
+            }
+            PageCacheQuota quota;
+            try
+            {
+                double reserved = Double.parseDouble( ratios[0].trim() );
+                quota = ratios.length == 1 ? PageCacheQuota.reserve( reserved )
+                                           : PageCacheQuota.quota( reserved, Double.parseDouble( ratios[1].trim() ) );
+            }
+            catch ( IllegalArgumentException e )
+            {
+                // Also covers NumberFormatException
+                throw invalidEntry( entry, e.getMessage() );
+            }
+            if ( quotas.put( fileName, quota ) != null )
+            {
+                throw invalidEntry( entry, "store file " + fileName + " is given more than one quota" );
+            }
+        }
+        return quotas;
+    }
+
+    private static InvalidSettingException invalidEntry( String entry, String message )
+    {
+        return new InvalidSettingException( pagecache_quotas.name(), entry, message );
+    }
+}
@@ -65,6 +65,7 @@ import org.neo4j.kernel.impl.api.index.IndexingService;
 import org.neo4j.kernel.impl.api.index.IndexingServiceFactory;
 import org.neo4j.kernel.impl.api.index.IndexingUpdateService;
 import org.neo4j.kernel.impl.api.scan.FullLabelStream;
+import org.neo4j.kernel.impl.api.scan.FullRelationshipTypeStream;
 import org.neo4j.kernel.impl.api.store.SchemaCache;
 import org.neo4j.kernel.impl.cache.BridgingCacheAccess;
 import org.neo4j.kernel.impl.constraints.ConstraintSemantics;
@@ -73,6 +74,7 @@ import org.neo4j.kernel.impl.core.TokenHolders;
 import org.neo4j.kernel.impl.factory.OperationalMode;
 import org.neo4j.kernel.impl.index.IndexConfigStore;
 import org.neo4j.kernel.impl.index.labelscan.NativeLabelScanStore;
+import org.neo4j.kernel.impl.index.labelscan.NativeRelationshipTypeScanStore;
 import org.neo4j.kernel.impl.locking.LockGroup;
 import org.neo4j.kernel.impl.locking.LockService;
 import org.neo4j.kernel.impl.storageengine.impl.recordstorage.id.IdController;
@@ -116,6 +118,7 @@ import org.neo4j.storageengine.api.schema.SchemaRule;
 import org.neo4j.storageengine.api.txstate.ReadableTransactionState;
 import org.neo4j.storageengine.api.txstate.TxStateVisitor;
 import org.neo4j.util.VisibleForTesting;
+import org.neo4j.util.concurrent.StripedWorkSync;
 import org.neo4j.util.concurrent.WorkSync;
 
 import static org.neo4j.kernel.impl.locking.LockService.NO_LOCK_SERVICE;
@@ -124,6 +127,8 @@ import static org.neo4j.storageengine.api.TransactionApplicationMode.REVERSE_REC
 
 public class RecordStorageEngine implements StorageEngine, Lifecycle
 {
+    private static final int MAX_SCAN_STORE_SYNC_STRIPES = 8;
+
     private final IndexingService indexingService;
     private final NeoStores neoStores;
     private final TokenHolders tokenHolders;
@@ -133,6 +138,8 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     private final IntegrityValidator integrityValidator;
     private final CacheAccessBackDoor cacheAccess;
     private final LabelScanStore labelScanStore;
+    // Null if the database is read-only and has no relationship type scan store yet, in which case scans go through the store
+    private final LabelScanStore relationshipTypeScanStore;
     private final IndexProviderMap indexProviderMap;
     private final ExplicitIndexApplierLookup explicitIndexApplierLookup;
     private final SchemaState schemaState;
@@ -140,7 +147,9 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     private final ConstraintSemantics constraintSemantics;
     private final IdOrderingQueue explicitIndexTransactionOrdering;
     private final LockService lockService;
-    private final WorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> labelScanStoreSync;
+    // Scan store writers can be used concurrently, so only transactions committing in the same stripe combine their updates
+    private final StripedWorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> labelScanStoreSync;
+    private final StripedWorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> relationshipTypeScanStoreSync;
     private final CommandReaderFactory commandReaderFactory;
     private final WorkSync<IndexingUpdateService,IndexUpdatesWork> indexUpdatesSync;
     private final IndexStoreView indexStoreView;
@@ -196,9 +205,24 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
 
             NeoStoreIndexStoreView neoStoreIndexStoreView = new NeoStoreIndexStoreView( lockService, neoStores );
             boolean readOnly = config.get( GraphDatabaseSettings.read_only ) && operationalMode == OperationalMode.single;
-            monitors.addMonitorListener( new LoggingMonitor( logProvider.getLog( NativeLabelScanStore.class ) ) );
+            monitors.addMonitorListener( new LoggingMonitor( logProvider.getLog( NativeLabelScanStore.class ) ), NativeLabelScanStore.MONITOR_TAG );
             labelScanStore = new NativeLabelScanStore( pageCache, databaseLayout, fs, new FullLabelStream( neoStoreIndexStoreView ),
                     readOnly, monitors, recoveryCleanupWorkCollector );
+            monitors.addMonitorListener( new LoggingMonitor( logProvider.getLog( NativeRelationshipTypeScanStore.class ),
+                    "relationship type index", "relationships" ), NativeRelationshipTypeScanStore.MONITOR_TAG );
+            if ( readOnly && !fs.fileExists( NativeRelationshipTypeScanStore.getRelationshipTypeScanStoreFile( databaseLayout ) ) )
+            {
+                // A read-only database can't build the store, so relationship type scans read the relationship store instead
+                logProvider.getLog( NativeRelationshipTypeScanStore.class ).info(
+                        "No relationship type index found and the database is read-only, " +
+                        "relationship type scans will read all relationships" );
+                relationshipTypeScanStore = null;
+            }
+            else
+            {
+                relationshipTypeScanStore = new NativeRelationshipTypeScanStore( pageCache, databaseLayout, fs,
+                        new FullRelationshipTypeStream( neoStores ), readOnly, monitors, recoveryCleanupWorkCollector );
+            }
 
             indexStoreView = new DynamicIndexStoreView( neoStoreIndexStoreView, labelScanStore, lockService, neoStores, logProvider );
             this.indexProviderMap = indexProviderMap;
@@ -212,7 +236,11 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
 
             explicitIndexApplierLookup = new ExplicitIndexApplierLookup.Direct( explicitIndexProvider );
 
-            labelScanStoreSync = new WorkSync<>( labelScanStore::newWriter );
+            int scanStoreSyncStripes = Math.min( MAX_SCAN_STORE_SYNC_STRIPES, Runtime.getRuntime().availableProcessors() );
+            labelScanStoreSync = new StripedWorkSync<>( labelScanStore::newWriter, scanStoreSyncStripes );
+            relationshipTypeScanStoreSync = relationshipTypeScanStore != null
+                                            ? new StripedWorkSync<>( relationshipTypeScanStore::newWriter, scanStoreSyncStripes )
+                                            : null;
 
             commandReaderFactory = new RecordStorageCommandReaderFactory();
             indexUpdatesSync = new WorkSync<>( indexingService );
@@ -232,7 +260,9 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     {
         Supplier<IndexReaderFactory> indexReaderFactory = () -> new IndexReaderFactory.Caching( indexingService );
         return new RecordStorageReader( tokenHolders, schemaStorage, neoStores, indexingService,
-                schemaCache, indexReaderFactory, labelScanStore::newReader, allocateCommandCreationContext() );
+                schemaCache, indexReaderFactory, labelScanStore::newReader,
+                relationshipTypeScanStore != null ? relationshipTypeScanStore::newReader : () -> null,
+                allocateCommandCreationContext() );
     }
 
     @Override
@@ -334,7 +364,7 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
             appliers.add( new CountsStoreBatchTransactionApplier( neoStores.getCounts(), mode ) );
 
             // Schema index application
-            appliers.add( new IndexBatchTransactionApplier( indexingService, labelScanStoreSync, indexUpdatesSync,
+            appliers.add( new IndexBatchTransactionApplier( indexingService, labelScanStoreSync, relationshipTypeScanStoreSync, indexUpdatesSync,
                     neoStores.getNodeStore(), neoStores.getRelationshipStore(),
                     neoStores.getPropertyStore(), indexActivator ) );
 
@@ -371,6 +401,10 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     public void init() throws Throwable
     {
         labelScanStore.init();
+        if ( relationshipTypeScanStore != null )
+        {
+            relationshipTypeScanStore.init();
+        }
     }
 
     @Override
@@ -380,6 +414,10 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
         neoStores.startCountStore(); // TODO: move this to counts store lifecycle
         indexingService.start();
         labelScanStore.start();
+        if ( relationshipTypeScanStore != null )
+        {
+            relationshipTypeScanStore.start();
+        }
         idController.start();
     }
 
@@ -401,6 +439,10 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     {
         indexingService.stop();
         labelScanStore.stop();
+        if ( relationshipTypeScanStore != null )
+        {
+            relationshipTypeScanStore.stop();
+        }
         idController.stop();
     }
 
@@ -409,6 +451,10 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     {
         indexingService.shutdown();
         labelScanStore.shutdown();
+        if ( relationshipTypeScanStore != null )
+        {
+            relationshipTypeScanStore.shutdown();
+        }
         neoStores.close();
     }
 
@@ -417,6 +463,10 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     {
         indexingService.forceAll( limiter );
         labelScanStore.force( limiter );
+        if ( relationshipTypeScanStore != null )
+        {
+            relationshipTypeScanStore.force( limiter );
+        }
         for ( IndexImplementation index : explicitIndexProviderLookup.allIndexProviders() )
         {
             index.force();
@@ -488,6 +538,14 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
      * but to convert all those tests might be a bigger piece of work.
      */
     @VisibleForTesting
+    /**
+     * @return the relationship type scan store, or {@code null} if the database is read-only and has none.
+     */
+    public LabelScanStore relationshipTypeScanStore()
+    {
+        return relationshipTypeScanStore;
+    }
+
     public NeoStores testAccessNeoStores()
     {
         return neoStores;
@@ -87,10 +87,12 @@ public class RecordStorageReader implements StorageReader
 
     private final Supplier<IndexReaderFactory> indexReaderFactorySupplier;
     private final Supplier<LabelScanReader> labelScanReaderSupplier;
+    private final Supplier<LabelScanReader> relationshipTypeScanReaderSupplier;
     private final RecordStorageCommandCreationContext commandCreationContext;
 
     private IndexReaderFactory indexReaderFactory;
     private LabelScanReader labelScanReader;
+    private LabelScanReader relationshipTypeScanReader;
 
     private boolean acquired;
     private boolean closed;
@@ -100,6 +102,7 @@ public class RecordStorageReader implements StorageReader
             IndexingService indexService, SchemaCache schemaCache,
             Supplier<IndexReaderFactory> indexReaderFactory,
             Supplier<LabelScanReader> labelScanReaderSupplier,
+            Supplier<LabelScanReader> relationshipTypeScanReaderSupplier,
             RecordStorageCommandCreationContext commandCreationContext )
     {
         this.tokenHolders = tokenHolders;
@@ -114,6 +117,7 @@ public class RecordStorageReader implements StorageReader
         this.schemaCache = schemaCache;
         this.indexReaderFactorySupplier = indexReaderFactory;
         this.labelScanReaderSupplier = labelScanReaderSupplier;
+        this.relationshipTypeScanReaderSupplier = relationshipTypeScanReaderSupplier;
         this.commandCreationContext = commandCreationContext;
     }
 
@@ -123,7 +127,7 @@ public class RecordStorageReader implements StorageReader
      */
     public RecordStorageReader( NeoStores stores )
     {
-        this( null, null, stores, null, null, null, null, null );
+        this( null, null, stores, null, null, null, null, null, null );
     }
 
     @Override
@@ -412,6 +416,11 @@ public class RecordStorageReader implements StorageReader
             labelScanReader.close();
             labelScanReader = null;
         }
+        if ( relationshipTypeScanReader != null )
+        {
+            relationshipTypeScanReader.close();
+            relationshipTypeScanReader = null;
+        }
     }
 
     @Override
@@ -421,6 +430,13 @@ public class RecordStorageReader implements StorageReader
                labelScanReader : (labelScanReader = labelScanReaderSupplier.get());
     }
 
+    @Override
+    public LabelScanReader getRelationshipTypeScanReader()
+    {
+        return relationshipTypeScanReader != null ?
+               relationshipTypeScanReader : (relationshipTypeScanReader = relationshipTypeScanReaderSupplier.get());
+    }
+
     private IndexReaderFactory indexReaderFactory()
     {
         return indexReaderFactory != null ?
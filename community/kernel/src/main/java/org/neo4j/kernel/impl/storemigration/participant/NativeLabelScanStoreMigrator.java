@@ -25,6 +25,7 @@ package org.neo4j.kernel.impl.storemigration.participant;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
 import java.util.Optional;
 
 import org.neo4j.function.Predicates;
@@ -88,6 +89,14 @@ public class NativeLabelScanStoreMigrator extends AbstractStoreMigrationParticip
             }
             nativeLabelScanStoreMigrated = true;
         }
+        else
+        {
+            // Convert a store in the legacy format instead of rebuilding it. A store in any other format,
+            // or one which isn't clean, is rebuilt on startup
+            deleteNativeIndexFile( migrationLayout );
+            nativeLabelScanStoreMigrated = NativeLabelScanStore.convertLegacyStore( pageCache, directoryLayout.labelScanStore(),
+                    migrationLayout.labelScanStore(), progressReporter );
+        }
     }
 
     @Override
@@ -124,7 +133,7 @@ public class NativeLabelScanStoreMigrator extends AbstractStoreMigrationParticip
         Optional<FileHandle> nativeIndexFileHandle = fileSystem.streamFilesRecursive( nativeLabelIndex ).findFirst();
         if ( nativeIndexFileHandle.isPresent() )
         {
-            nativeIndexFileHandle.get().rename( storeStructure.labelScanStore() );
+            nativeIndexFileHandle.get().rename( storeStructure.labelScanStore(), StandardCopyOption.REPLACE_EXISTING );
         }
     }
 
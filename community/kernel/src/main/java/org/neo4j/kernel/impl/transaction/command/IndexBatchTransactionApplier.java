@@ -42,6 +42,7 @@ import org.neo4j.kernel.impl.store.PropertyStore;
 import org.neo4j.kernel.impl.store.RelationshipStore;
 import org.neo4j.kernel.impl.store.record.ConstraintRule;
 import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
 import org.neo4j.kernel.impl.transaction.command.Command.PropertyCommand;
 import org.neo4j.kernel.impl.transaction.state.IndexUpdates;
 import org.neo4j.kernel.impl.transaction.state.OnlineIndexUpdates;
@@ -49,33 +50,39 @@ import org.neo4j.storageengine.api.CommandsToApply;
 import org.neo4j.storageengine.api.schema.SchemaRule;
 import org.neo4j.storageengine.api.schema.StoreIndexDescriptor;
 import org.neo4j.util.concurrent.AsyncApply;
+import org.neo4j.util.concurrent.StripedWorkSync;
 import org.neo4j.util.concurrent.WorkSync;
 
+import static org.apache.commons.lang3.ArrayUtils.EMPTY_LONG_ARRAY;
 import static org.neo4j.kernel.impl.store.NodeLabelsField.parseLabelsField;
 
 /**
- * Gather node and property changes, converting them into logical updates to the indexes. {@link #close()} will actually
- * apply the indexes.
+ * Gather node, relationship and property changes, converting them into logical updates to the indexes.
+ * {@link #close()} will actually apply the indexes.
  */
 public class IndexBatchTransactionApplier extends BatchTransactionApplier.Adapter
 {
     private final IndexingService indexingService;
-    private final WorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> labelScanStoreSync;
+    private final StripedWorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> labelScanStoreSync;
+    private final StripedWorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> relationshipTypeScanStoreSync;
     private final WorkSync<IndexingUpdateService,IndexUpdatesWork> indexUpdatesSync;
     private final SingleTransactionApplier transactionApplier;
     private final IndexActivator indexActivator;
     private final PropertyStore propertyStore;
 
     private List<NodeLabelUpdate> labelUpdates;
+    private List<NodeLabelUpdate> relationshipTypeUpdates;
     private IndexUpdates indexUpdates;
     private long txId;
 
-    public IndexBatchTransactionApplier( IndexingService indexingService, WorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> labelScanStoreSync,
+    public IndexBatchTransactionApplier( IndexingService indexingService, StripedWorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> labelScanStoreSync,
+            StripedWorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> relationshipTypeScanStoreSync,
             WorkSync<IndexingUpdateService,IndexUpdatesWork> indexUpdatesSync, NodeStore nodeStore, RelationshipStore relationshipStore,
             PropertyStore propertyStore, IndexActivator indexActivator )
     {
         this.indexingService = indexingService;
         this.labelScanStoreSync = labelScanStoreSync;
+        this.relationshipTypeScanStoreSync = relationshipTypeScanStoreSync;
         this.indexUpdatesSync = indexUpdatesSync;
         this.propertyStore = propertyStore;
         this.transactionApplier = new SingleTransactionApplier( nodeStore, relationshipStore );
@@ -99,6 +106,13 @@ public class IndexBatchTransactionApplier extends BatchTransactionApplier.Adapte
             labelUpdatesApply = labelScanStoreSync.applyAsync( new LabelUpdateWork( labelUpdates ) );
             labelUpdates = null;
         }
+        AsyncApply relationshipTypeUpdatesApply = null;
+        if ( relationshipTypeUpdates != null )
+        {
+            // Relationship type updates are applied the same way as label updates, with relationship ids as node ids
+            relationshipTypeUpdatesApply = relationshipTypeScanStoreSync.applyAsync( new LabelUpdateWork( relationshipTypeUpdates ) );
+            relationshipTypeUpdates = null;
+        }
         if ( indexUpdates != null && indexUpdates.hasUpdates() )
         {
             try
@@ -123,6 +137,17 @@ public class IndexBatchTransactionApplier extends BatchTransactionApplier.Adapte
                 throw new IOException( "Failed to flush label updates", e );
             }
         }
+        if ( relationshipTypeUpdatesApply != null )
+        {
+            try
+            {
+                relationshipTypeUpdatesApply.await();
+            }
+            catch ( ExecutionException e )
+            {
+                throw new IOException( "Failed to flush relationship type updates", e );
+            }
+        }
     }
 
     @Override
@@ -208,6 +233,21 @@ public class IndexBatchTransactionApplier extends BatchTransactionApplier.Adapte
         @Override
         public boolean visitRelationshipCommand( Command.RelationshipCommand command )
         {
+            // for relationship type store updates, a relationship never changes type while in use
+            RelationshipRecord before = command.getBefore();
+            RelationshipRecord after = command.getAfter();
+            if ( before.inUse() != after.inUse() )
+            {
+                if ( relationshipTypeUpdates == null )
+                {
+                    relationshipTypeUpdates = new ArrayList<>();
+                }
+                relationshipTypeUpdates.add( after.inUse()
+                        ? NodeLabelUpdate.labelChanges( command.getKey(), EMPTY_LONG_ARRAY, new long[]{after.getType()}, txId )
+                        : NodeLabelUpdate.labelChanges( command.getKey(), new long[]{before.getType()}, EMPTY_LONG_ARRAY, txId ) );
+            }
+
+            // for indexes
             return indexUpdatesExtractor.visitRelationshipCommand( command );
         }
 
@@ -25,7 +25,12 @@ package org.neo4j.kernel.impl.transaction.log;
 import java.io.Flushable;
 import java.io.IOException;
 import java.nio.channels.ClosedChannelException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.LockSupport;
@@ -33,6 +38,7 @@ import java.util.concurrent.locks.ReentrantLock;
 
 import org.neo4j.kernel.impl.api.TransactionToApply;
 import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.entry.CommandCompression;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryWriter;
 import org.neo4j.kernel.impl.transaction.log.files.LogFile;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
@@ -53,9 +59,35 @@ import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryStart.checksum
 /**
  * Concurrently appends transactions to the transaction log, while coordinating with the log rotation and forcing the
  * log file in batches for higher throughput in a concurrent scenario.
+ * <p>
+ * Transactions are serialized, and optionally compressed, into buffers of their own before the log is locked, so that
+ * only copying the already serialized bytes into the log and assigning transaction ids happens while holding the lock.
+ * <p>
+ * Forcing the log is done by one of the committing threads on behalf of all threads which have appended to the
+ * log since the previous force. If a group commit max wait is configured then the forcing thread may delay the force
+ * for up to that long, waiting for as many committers to join the force as joined the previous one. This only kicks
+ * in when the previous force was shared, so a single committing thread is never delayed.
  */
 public class BatchingTransactionAppender extends LifecycleAdapter implements TransactionAppender
 {
+    public interface Monitor
+    {
+        /**
+         * Called after the log has been forced.
+         *
+         * @param batchSize the number of appends that were made durable by this force.
+         * @param groupCommitWaitNanos the time the force was delayed to let more appends join it.
+         * @param forceNanos the time the force itself took.
+         */
+        void logForced( int batchSize, long groupCommitWaitNanos, long forceNanos );
+    }
+
+    public static final Monitor NO_MONITOR = ( batchSize, groupCommitWaitNanos, forceNanos ) ->
+    {
+    };
+
+    private static final long GROUP_COMMIT_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos( 10 );
+
     // For the graph store and schema indexes order-of-updates are managed by the high level entity locks
     // such that changes are applied to the affected records in the same order that they are written to the
     // log. For the explicit indexes there are no such locks, and hence no such ordering. This queue below
@@ -64,20 +96,39 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
 
     private final AtomicReference<ThreadLink> threadLinkHead = new AtomicReference<>( ThreadLink.END );
     private final TransactionMetadataCache transactionMetadataCache;
+    private final TransactionLogPositionIndex positionIndex;
+    private final TransactionLogTailMarker tailMarker;
     private final LogFile logFile;
     private final LogRotation logRotation;
     private final TransactionIdStore transactionIdStore;
     private final LogPositionMarker positionMarker = new LogPositionMarker();
     private final DatabaseHealth databaseHealth;
     private final Lock forceLock = new ReentrantLock();
+    private final Monitor monitor;
+    private final CommandCompression compression;
+    private final long groupCommitMaxWaitNanos;
+    // Number of appenders that have linked, or are about to link, themselves into threadLinkHead.
+    private final AtomicInteger pendingForces = new AtomicInteger();
+    // Number of appenders made durable by the previous force, guarded by forceLock.
+    private int previousForceBatchSize;
 
     private FlushablePositionAwareChannel writer;
     private TransactionLogWriter transactionLogWriter;
-    private IndexCommandDetector indexCommandDetector;
 
     public BatchingTransactionAppender( LogFiles logFiles, LogRotation logRotation,
             TransactionMetadataCache transactionMetadataCache, TransactionIdStore transactionIdStore,
             IdOrderingQueue explicitIndexTransactionOrdering, DatabaseHealth databaseHealth )
+    {
+        this( logFiles, logRotation, transactionMetadataCache, TransactionLogPositionIndex.NO_INDEX,
+                TransactionLogTailMarker.NO_MARKER, transactionIdStore, explicitIndexTransactionOrdering, databaseHealth,
+                CommandCompression.DISABLED, Duration.ZERO, NO_MONITOR );
+    }
+
+    public BatchingTransactionAppender( LogFiles logFiles, LogRotation logRotation,
+            TransactionMetadataCache transactionMetadataCache, TransactionLogPositionIndex positionIndex,
+            TransactionLogTailMarker tailMarker, TransactionIdStore transactionIdStore,
+            IdOrderingQueue explicitIndexTransactionOrdering, DatabaseHealth databaseHealth,
+            CommandCompression compression, Duration groupCommitMaxWait, Monitor monitor )
     {
         this.logFile = logFiles.getLogFile();
         this.logRotation = logRotation;
@@ -85,13 +136,17 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         this.explicitIndexTransactionOrdering = explicitIndexTransactionOrdering;
         this.databaseHealth = databaseHealth;
         this.transactionMetadataCache = transactionMetadataCache;
+        this.positionIndex = positionIndex;
+        this.tailMarker = tailMarker;
+        this.compression = compression;
+        this.groupCommitMaxWaitNanos = groupCommitMaxWait.toNanos();
+        this.monitor = monitor;
     }
 
     @Override
     public void start()
     {
         this.writer = logFile.getWriter();
-        this.indexCommandDetector = new IndexCommandDetector();
         this.transactionLogWriter = new TransactionLogWriter( new LogEntryWriter( writer ) );
     }
 
@@ -100,14 +155,21 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
     {
         // Assigned base tx id just to make compiler happy
         long lastTransactionId = TransactionIdStore.BASE_TX_ID;
-        // Synchronized with logFile to get absolute control over concurrent rotations happening
-        synchronized ( logFile )
+        try ( SerializeTransactionEvent serialiseEvent = logAppendEvent.beginSerializeTransaction() )
         {
-            // Assert that kernel is healthy before making any changes
-            databaseHealth.assertHealthy( IOException.class );
-            try ( SerializeTransactionEvent serialiseEvent = logAppendEvent.beginSerializeTransaction() )
+            // Serialize all transactions in this batch before grabbing the logFile monitor. Serialization is where
+            // most of the time of an append goes, so this lets concurrent committers serialize in parallel. Nothing
+            // has been written to the log at this point, so a failure here needs no kernel panic.
+            List<SerializedTransaction> serializedBatch = serialize( batch );
+
+            // Synchronized with logFile to get absolute control over concurrent rotations happening
+            synchronized ( logFile )
             {
+                // Assert that kernel is healthy before making any changes
+                databaseHealth.assertHealthy( IOException.class );
+
                 // Append all transactions in this batch to the log under the same logFile monitor
+                Iterator<SerializedTransaction> serialized = serializedBatch.iterator();
                 TransactionToApply tx = batch;
                 while ( tx != null )
                 {
@@ -119,7 +181,8 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
                     // really recover from and would point to a bug somewhere.
                     matchAgainstExpectedTransactionIdIfAny( transactionId, tx );
 
-                    TransactionCommitment commitment = appendToLog( tx.transactionRepresentation(), transactionId );
+                    TransactionCommitment commitment =
+                            appendToLog( tx.transactionRepresentation(), serialized.next(), transactionId );
                     tx.commitment( commitment, transactionId );
                     tx.logPosition( commitment.logPosition() );
                     tx = tx.next();
@@ -146,6 +209,27 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         return lastTransactionId;
     }
 
+    private List<SerializedTransaction> serialize( TransactionToApply batch ) throws IOException
+    {
+        List<SerializedTransaction> serializedBatch = new ArrayList<>();
+        IndexCommandDetector indexCommandDetector = new IndexCommandDetector();
+        for ( TransactionToApply tx = batch; tx != null; tx = tx.next() )
+        {
+            TransactionRepresentation transaction = tx.transactionRepresentation();
+
+            // Reset the detector so that we, after having visited the commands of this transaction, can ask it whether
+            // or not there were any explicit index commands. If so then there's additional ordering to care about.
+            indexCommandDetector.reset();
+            transaction.accept( indexCommandDetector );
+
+            long transactionChecksum =
+                    checksum( transaction.additionalHeader(), transaction.getMasterId(), transaction.getAuthorId() );
+            serializedBatch.add( new SerializedTransaction( TransactionLogWriter.serialize( transaction, compression ),
+                    indexCommandDetector.hasWrittenAnyExplicitIndexCommand(), transactionChecksum ) );
+        }
+        return serializedBatch;
+    }
+
     private void matchAgainstExpectedTransactionIdIfAny( long transactionId, TransactionToApply tx )
     {
         long expectedTransactionId = tx.transactionId();
@@ -176,10 +260,12 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
     public void checkPoint( LogPosition logPosition, LogCheckPointEvent logCheckPointEvent ) throws IOException
     {
         // Synchronized with logFile to get absolute control over concurrent rotations happening
+        LogPosition checkPointEntryPosition;
         synchronized ( logFile )
         {
             try
             {
+                checkPointEntryPosition = writer.getCurrentPosition( positionMarker ).newPosition();
                 transactionLogWriter.checkPoint( logPosition );
             }
             catch ( Throwable cause )
@@ -189,19 +275,16 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
             }
         }
         forceAfterAppend( logCheckPointEvent );
+        tailMarker.checkPointWritten( checkPointEntryPosition, logPosition );
     }
 
     /**
      * @return A TransactionCommitment instance with metadata about the committed transaction, such as whether or not
      * this transaction contains any explicit index changes.
      */
-    private TransactionCommitment appendToLog( TransactionRepresentation transaction, long transactionId )
-            throws IOException
+    private TransactionCommitment appendToLog( TransactionRepresentation transaction,
+            SerializedTransaction serializedTransaction, long transactionId ) throws IOException
     {
-        // Reset command writer so that we, after we've written the transaction, can ask it whether or
-        // not any explicit index command was written. If so then there's additional ordering to care about below.
-        indexCommandDetector.reset();
-
         // The outcome of this try block is either of:
         // a) transaction successfully appended, at which point we return a Commitment to be used after force
         // b) transaction failed to be appended, at which point a kernel panic is issued
@@ -211,17 +294,16 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         try
         {
             LogPosition logPositionBeforeCommit = writer.getCurrentPosition( positionMarker ).newPosition();
-            transactionLogWriter.append( transaction, transactionId );
+            transactionLogWriter.append( serializedTransaction.logEntries, transactionId, transaction.getTimeCommitted() );
             LogPosition logPositionAfterCommit = writer.getCurrentPosition( positionMarker ).newPosition();
 
-            long transactionChecksum =
-                    checksum( transaction.additionalHeader(), transaction.getMasterId(), transaction.getAuthorId() );
+            long transactionChecksum = serializedTransaction.checksum;
             transactionMetadataCache
                     .cacheTransactionMetadata( transactionId, logPositionBeforeCommit, transaction.getMasterId(),
                             transaction.getAuthorId(), transactionChecksum, transaction.getTimeCommitted() );
+            positionIndex.transactionAppended( transactionId, logPositionBeforeCommit );
 
-            transaction.accept( indexCommandDetector );
-            boolean hasExplicitIndexChanges = indexCommandDetector.hasWrittenAnyExplicitIndexCommand();
+            boolean hasExplicitIndexChanges = serializedTransaction.hasExplicitIndexChanges;
             if ( hasExplicitIndexChanges )
             {
                 // Offer this transaction id to the queue so that the explicit index applier can take part in the ordering
@@ -248,6 +330,7 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         // There's a benign race here, where we add our link before we update our next pointer.
         // This is okay, however, because unparkAll() spins when it sees a null next pointer.
         ThreadLink threadLink = new ThreadLink( Thread.currentThread() );
+        pendingForces.incrementAndGet();
         threadLink.next = threadLinkHead.getAndSet( threadLink );
         boolean attemptedForce = false;
 
@@ -295,7 +378,9 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
 
     private void forceLog( LogForceEvents logForceEvents ) throws IOException
     {
+        long groupCommitWaitNanos = awaitGroupCommit();
         ThreadLink links = threadLinkHead.getAndSet( ThreadLink.END );
+        long forceStartTime = System.nanoTime();
         try ( LogForceEvent logForceEvent = logForceEvents.beginLogForce() )
         {
             force();
@@ -307,16 +392,49 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         }
         finally
         {
-            unparkAll( links );
+            int batchSize = unparkAll( links );
+            pendingForces.addAndGet( -batchSize );
+            previousForceBatchSize = batchSize;
+            monitor.logForced( batchSize, groupCommitWaitNanos, System.nanoTime() - forceStartTime );
+        }
+    }
+
+    /**
+     * Delays the force, for at most the configured group commit max wait, until as many appenders as took part in
+     * the previous force are waiting for this one. Adapts to the level of concurrency, since the size of the previous
+     * force grows with the number of concurrent committers and shrinks whenever the wait times out.
+     *
+     * @return the time spent waiting, in nanoseconds.
+     */
+    private long awaitGroupCommit()
+    {
+        if ( groupCommitMaxWaitNanos <= 0 || previousForceBatchSize <= 1 )
+        {
+            return 0;
+        }
+
+        long startTime = System.nanoTime();
+        long deadline = startTime + groupCommitMaxWaitNanos;
+        long now = startTime;
+        while ( pendingForces.get() < previousForceBatchSize && now - deadline < 0 )
+        {
+            LockSupport.parkNanos( this, GROUP_COMMIT_PARK_NANOS );
+            now = System.nanoTime();
         }
+        return now - startTime;
     }
 
-    private void unparkAll( ThreadLink links )
+    /**
+     * @return the number of links that were unparked.
+     */
+    private int unparkAll( ThreadLink links )
     {
+        int count = 0;
         do
         {
             links.done = true;
             links.unpark();
+            count++;
             ThreadLink tmp;
             do
             {
@@ -327,6 +445,7 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
             links = tmp;
         }
         while ( links != ThreadLink.END );
+        return count;
     }
 
     private void waitForLogForce()
@@ -361,4 +480,18 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
             // we emptied into the channel, and thus it is already flushed by that thread.
         }
     }
+
+    private static class SerializedTransaction
+    {
+        private final TransactionSerializationBuffer logEntries;
+        private final boolean hasExplicitIndexChanges;
+        private final long checksum;
+
+        SerializedTransaction( TransactionSerializationBuffer logEntries, boolean hasExplicitIndexChanges, long checksum )
+        {
+            this.logEntries = logEntries;
+            this.hasExplicitIndexChanges = hasExplicitIndexChanges;
+            this.checksum = checksum;
+        }
+    }
 }
@@ -20,12 +20,10 @@
  * You should have received a copy of the GNU General Public License
  * along with this program.  If not, see <http://www.gnu.org/licenses/>.
  */
-package org.neo4j.unsafe.impl.batchimport.input;
+package org.neo4j.kernel.impl.transaction.log;
 
 import java.nio.ByteBuffer;
 
-import org.neo4j.kernel.impl.transaction.log.ReadableClosableChannel;
-
 /**
  * Wraps a byte[] -> {@link ByteBuffer} -> {@link ReadableClosableChannel}
  */
@@ -52,6 +52,13 @@ public class LoggingLogFileMonitor implements LogFileCreationMonitor,
         log.info( "Recovery required from position " + startPosition );
     }
 
+    @Override
+    public void recoveryProgress( long recoveredTransactions, long transactionsToRecover, double transactionsPerSecond )
+    {
+        log.info( format( "Recovered %d of %d transactions, %.1f transactions per second",
+                recoveredTransactions, transactionsToRecover, transactionsPerSecond ) );
+    }
+
     @Override
     public void recoveryCompleted( int numberOfRecoveredTransactions )
     {
@@ -54,6 +54,7 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
 
     private final LogFile logFile;
     private final TransactionMetadataCache transactionMetadataCache;
+    private final TransactionLogPositionIndex positionIndex;
     private final LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader;
     private final Monitors monitors;
     private final boolean failOnCorruptedLogFiles;
@@ -63,10 +64,20 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
             TransactionMetadataCache transactionMetadataCache,
             LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader, Monitors monitors,
             boolean failOnCorruptedLogFiles )
+    {
+        this( logFiles, transactionMetadataCache, TransactionLogPositionIndex.NO_INDEX, logEntryReader, monitors,
+                failOnCorruptedLogFiles );
+    }
+
+    public PhysicalLogicalTransactionStore( LogFiles logFiles,
+            TransactionMetadataCache transactionMetadataCache, TransactionLogPositionIndex positionIndex,
+            LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader, Monitors monitors,
+            boolean failOnCorruptedLogFiles )
     {
         this.logFiles = logFiles;
         this.logFile = logFiles.getLogFile();
         this.transactionMetadataCache = transactionMetadataCache;
+        this.positionIndex = positionIndex;
         this.logEntryReader = logEntryReader;
         this.monitors = monitors;
         this.failOnCorruptedLogFiles = failOnCorruptedLogFiles;
@@ -106,10 +117,14 @@ public class PhysicalLogicalTransactionStore implements LogicalTransactionStore
             LogVersionLocator headerVisitor = new LogVersionLocator( transactionIdToStartFrom );
             logFiles.accept( headerVisitor );
 
+            // ask the position index where in that version to start looking
+            LogPosition versionPosition = headerVisitor.getLogPosition();
+            LogPosition indexedPosition = positionIndex.lookup( versionPosition.getLogVersion(), transactionIdToStartFrom );
+
             // ask LogFile
             TransactionPositionLocator transactionPositionLocator =
                     new TransactionPositionLocator( transactionIdToStartFrom, logEntryReader );
-            logFile.accept( transactionPositionLocator, headerVisitor.getLogPosition() );
+            logFile.accept( transactionPositionLocator, indexedPosition != null ? indexedPosition : versionPosition );
             LogPosition position = transactionPositionLocator.getAndCacheFoundLogPosition( transactionMetadataCache );
             return new PhysicalTransactionCursor<>( logFile.getReader( position ), logEntryReader );
         }
@@ -54,8 +54,8 @@ public class ReadOnlyTransactionStore implements Lifecycle, LogicalTransactionSt
                 .activeFilesBuilder( fromDatabaseLayout, fs, pageCache ).withLogEntryReader( logEntryReader )
                 .withConfig( config )
                 .build();
-        physicalStore = new PhysicalLogicalTransactionStore( logFiles, transactionMetadataCache, logEntryReader,
-                monitors, true );
+        physicalStore = new PhysicalLogicalTransactionStore( logFiles, transactionMetadataCache,
+                new TransactionLogPositionIndex( fs, logFiles ), logEntryReader, monitors, true );
     }
 
     @Override
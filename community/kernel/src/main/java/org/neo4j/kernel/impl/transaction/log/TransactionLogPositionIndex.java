@@ -0,0 +1,387 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import org.eclipse.collections.api.list.primitive.MutableLongList;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.OpenMode;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.kernel.impl.transaction.log.entry.LogHeader;
+import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobScheduler;
+
+import static org.neo4j.kernel.impl.transaction.log.entry.LogHeader.LOG_HEADER_SIZE;
+
+/**
+ * Sparse, persistent index from transaction id to the position of the transaction in the log, one index file per
+ * log version.
+ * <p>
+ * The start position of appended transactions is recorded for every {@link #DEFAULT_INTERVAL_BYTES} or so of log,
+ * and when the log is rotated the recorded positions of the previous version are written to an index file next to
+ * the log file. A lookup then only has to scan the log from the closest recorded position before the transaction,
+ * instead of from the start of the log file. The current log version, and rotated versions whose index file is yet to
+ * be written, are served from memory.
+ * <p>
+ * Appends happen while holding the log file, so index files are written by a {@link Group#LOG_ROTATION} job and never
+ * on the appending thread. The positions of the current version are written on {@link #shutdown()} and picked up
+ * again on {@link #start()}, so that a version that is still appended to after a restart stays indexed.
+ * <p>
+ * The index is only an optimization: {@link #lookup(long, long)} returns {@code null} whenever it can't tell, e.g.
+ * for log versions that were not appended to from their start by this instance or a cleanly shut down previous one,
+ * which is the case for the version that was current when the database crashed, or for index files that don't match
+ * their log file. Callers are expected to scan from the start of the log file in that case.
+ */
+public class TransactionLogPositionIndex extends LifecycleAdapter
+{
+    public static final TransactionLogPositionIndex NO_INDEX = new TransactionLogPositionIndex( null, null, null );
+
+    static final int DEFAULT_INTERVAL_BYTES = 256 * 1024;
+    static final String INDEX_FILE_PREFIX = "positions-";
+
+    private static final long MAGIC = 0x7478506f73496478L; // "txPosIdx"
+    private static final int HEADER_SIZE = Long.BYTES * 4 + Integer.BYTES;
+    private static final int ENTRY_SIZE = Long.BYTES * 2;
+
+    private final FileSystemAbstraction fs;
+    private final LogFiles logFiles;
+    private final JobScheduler jobScheduler;
+    private final long intervalBytes;
+    private final Object writeLock = new Object();
+
+    // Positions recorded for the log version currently appended to, or null if it wasn't appended to from its start,
+    // and positions of rotated versions that are yet to be written. Guarded by this
+    private long currentVersion = -1;
+    private VersionPositions current;
+    private final Deque<VersionPositions> unwritten = new ArrayDeque<>();
+
+    /**
+     * Creates an index that is only used for lookups, in logs that are not appended to.
+     */
+    public TransactionLogPositionIndex( FileSystemAbstraction fs, LogFiles logFiles )
+    {
+        this( fs, logFiles, null );
+    }
+
+    public TransactionLogPositionIndex( FileSystemAbstraction fs, LogFiles logFiles, JobScheduler jobScheduler )
+    {
+        this( fs, logFiles, jobScheduler, DEFAULT_INTERVAL_BYTES );
+    }
+
+    TransactionLogPositionIndex( FileSystemAbstraction fs, LogFiles logFiles, JobScheduler jobScheduler, long intervalBytes )
+    {
+        this.fs = fs;
+        this.logFiles = logFiles;
+        this.jobScheduler = jobScheduler;
+        this.intervalBytes = intervalBytes;
+    }
+
+    @Override
+    public synchronized void start() throws IOException
+    {
+        if ( logFiles == null )
+        {
+            return;
+        }
+        long logVersion = logFiles.getHighestLogVersion();
+        if ( logVersion < 0 )
+        {
+            return;
+        }
+        File indexFile = indexFileForVersion( logVersion );
+        if ( fs.fileExists( indexFile ) )
+        {
+            // Written on a clean shutdown, keep recording positions where that left off
+            VersionPositions positions = new VersionPositions( logVersion );
+            if ( readIndex( indexFile, positions ) )
+            {
+                currentVersion = logVersion;
+                current = positions;
+            }
+        }
+    }
+
+    @Override
+    public void shutdown()
+    {
+        if ( logFiles == null )
+        {
+            return;
+        }
+        synchronized ( this )
+        {
+            if ( current != null && !current.isEmpty() )
+            {
+                unwritten.add( current );
+            }
+            currentVersion = -1;
+            current = null;
+        }
+        writeUnwritten();
+    }
+
+    /**
+     * Called for every appended transaction, in the order they are appended to the log.
+     *
+     * @param transactionId id of the appended transaction.
+     * @param startPosition position of the start entry of the transaction.
+     */
+    public synchronized void transactionAppended( long transactionId, LogPosition startPosition )
+    {
+        if ( logFiles == null )
+        {
+            return;
+        }
+        if ( startPosition.getLogVersion() != currentVersion )
+        {
+            if ( current != null && !current.isEmpty() )
+            {
+                unwritten.add( current );
+                jobScheduler.schedule( Group.LOG_ROTATION, this::writeUnwritten );
+            }
+            currentVersion = startPosition.getLogVersion();
+            // Only a version we've seen from its very first transaction can be indexed, a version that was already
+            // partially written when we started would have no positions for its first transactions.
+            current = startPosition.getByteOffset() == LOG_HEADER_SIZE ? new VersionPositions( currentVersion ) : null;
+        }
+        if ( current != null )
+        {
+            current.record( transactionId, startPosition.getByteOffset(), intervalBytes );
+        }
+    }
+
+    /**
+     * Finds the closest position before the given transaction, in the given log version.
+     *
+     * @param logVersion log version that contains the transaction.
+     * @param transactionId the transaction to look for.
+     * @return the start position of the closest indexed transaction with an id lower than or equal to the
+     * given transaction, or {@code null} if there is no such transaction in the index.
+     * @throws IOException on failure reading the index file.
+     */
+    public LogPosition lookup( long logVersion, long transactionId ) throws IOException
+    {
+        if ( logFiles == null )
+        {
+            return null;
+        }
+        synchronized ( this )
+        {
+            if ( logVersion == currentVersion )
+            {
+                return current != null ? current.closest( transactionId ) : null;
+            }
+            for ( VersionPositions positions : unwritten )
+            {
+                if ( positions.logVersion == logVersion )
+                {
+                    return positions.closest( transactionId );
+                }
+            }
+        }
+
+        File indexFile = indexFileForVersion( logVersion );
+        if ( !fs.fileExists( indexFile ) )
+        {
+            return null;
+        }
+        VersionPositions positions = new VersionPositions( logVersion );
+        if ( !readIndex( indexFile, positions ) )
+        {
+            // Stale or partially written index, e.g. from logs that were replaced by a store copy
+            fs.deleteFile( indexFile );
+            return null;
+        }
+        return positions.closest( transactionId );
+    }
+
+    File indexFileForVersion( long logVersion )
+    {
+        File logFile = logFiles.getLogFileForVersion( logVersion );
+        return new File( logFile.getParentFile(), INDEX_FILE_PREFIX + logFile.getName() );
+    }
+
+    private void writeUnwritten()
+    {
+        synchronized ( writeLock )
+        {
+            VersionPositions positions;
+            while ( (positions = nextUnwritten()) != null )
+            {
+                try
+                {
+                    writeIndex( positions );
+                }
+                catch ( IOException e )
+                {
+                    // Lookups in this version will scan instead
+                    fs.deleteFile( indexFileForVersion( positions.logVersion ) );
+                }
+                synchronized ( this )
+                {
+                    // Only now, so that lookups are served from memory until the index file is written
+                    unwritten.remove( positions );
+                }
+            }
+            deleteIndexesOfPrunedVersions();
+        }
+    }
+
+    private synchronized VersionPositions nextUnwritten()
+    {
+        return unwritten.peek();
+    }
+
+    private void writeIndex( VersionPositions positions ) throws IOException
+    {
+        long logVersion = positions.logVersion;
+        LogHeader logHeader = logFiles.extractHeader( logVersion );
+        long logFileSize = fs.getFileSize( logFiles.getLogFileForVersion( logVersion ) );
+        int count = positions.transactionIds.size();
+        ByteBuffer buffer = ByteBuffer.allocate( HEADER_SIZE + count * ENTRY_SIZE );
+        buffer.putLong( MAGIC ).putLong( logVersion ).putLong( logHeader.lastCommittedTxId ).putLong( logFileSize );
+        buffer.putInt( count );
+        for ( int i = 0; i < count; i++ )
+        {
+            buffer.putLong( positions.transactionIds.get( i ) ).putLong( positions.byteOffsets.get( i ) );
+        }
+        buffer.flip();
+        File indexFile = indexFileForVersion( logVersion );
+        fs.deleteFile( indexFile );
+        try ( StoreChannel channel = fs.open( indexFile, OpenMode.READ_WRITE ) )
+        {
+            channel.writeAll( buffer );
+            channel.force( false );
+        }
+    }
+
+    private boolean readIndex( File indexFile, VersionPositions positions ) throws IOException
+    {
+        long logVersion = positions.logVersion;
+        long indexFileSize = fs.getFileSize( indexFile );
+        if ( indexFileSize < HEADER_SIZE || !logFiles.versionExists( logVersion ) )
+        {
+            return false;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate( (int) indexFileSize );
+        try ( StoreChannel channel = fs.open( indexFile, OpenMode.READ ) )
+        {
+            channel.readAll( buffer );
+        }
+        buffer.flip();
+        long magic = buffer.getLong();
+        long version = buffer.getLong();
+        long previousLogLastTransactionId = buffer.getLong();
+        long logFileSize = buffer.getLong();
+        int count = buffer.getInt();
+        if ( magic != MAGIC || version != logVersion || count < 0 ||
+             indexFileSize != HEADER_SIZE + (long) count * ENTRY_SIZE ||
+             logFileSize != fs.getFileSize( logFiles.getLogFileForVersion( logVersion ) ) ||
+             previousLogLastTransactionId != logFiles.extractHeader( logVersion ).lastCommittedTxId )
+        {
+            return false;
+        }
+        for ( int i = 0; i < count; i++ )
+        {
+            positions.transactionIds.add( buffer.getLong() );
+            positions.byteOffsets.add( buffer.getLong() );
+        }
+        return true;
+    }
+
+    private void deleteIndexesOfPrunedVersions()
+    {
+        File[] indexFiles = fs.listFiles( logFiles.logFilesDirectory(), ( dir, name ) -> name.startsWith( INDEX_FILE_PREFIX ) );
+        if ( indexFiles == null )
+        {
+            return;
+        }
+        for ( File indexFile : indexFiles )
+        {
+            String logFileName = indexFile.getName().substring( INDEX_FILE_PREFIX.length() );
+            if ( !fs.fileExists( new File( indexFile.getParentFile(), logFileName ) ) )
+            {
+                fs.deleteFile( indexFile );
+            }
+        }
+    }
+
+    /**
+     * Recorded positions of one log version.
+     */
+    private static class VersionPositions
+    {
+        private final long logVersion;
+        private final MutableLongList transactionIds = new LongArrayList();
+        private final MutableLongList byteOffsets = new LongArrayList();
+
+        VersionPositions( long logVersion )
+        {
+            this.logVersion = logVersion;
+        }
+
+        boolean isEmpty()
+        {
+            return transactionIds.isEmpty();
+        }
+
+        void record( long transactionId, long byteOffset, long intervalBytes )
+        {
+            if ( byteOffsets.isEmpty() || byteOffset - byteOffsets.getLast() >= intervalBytes )
+            {
+                transactionIds.add( transactionId );
+                byteOffsets.add( byteOffset );
+            }
+        }
+
+        LogPosition closest( long transactionId )
+        {
+            int low = 0;
+            int high = transactionIds.size() - 1;
+            int found = -1;
+            while ( low <= high )
+            {
+                int mid = (low + high) >>> 1;
+                if ( transactionIds.get( mid ) <= transactionId )
+                {
+                    found = mid;
+                    low = mid + 1;
+                }
+                else
+                {
+                    high = mid - 1;
+                }
+            }
+            return found == -1 ? null : new LogPosition( logVersion, byteOffsets.get( found ) );
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.OpenMode;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
+import org.neo4j.kernel.impl.transaction.log.files.TransactionLogFiles;
+
+/**
+ * Remembers where in the log the last check point was written, in a small file next to the log files, so that
+ * finding the tail of the log on startup can start reading at that check point instead of scanning the log
+ * versions backwards until one is found.
+ * <p>
+ * The marker is only a hint and is not forced to disk. Whoever reads it must verify that the log has a check point
+ * entry at the {@link Marker#checkPointEntryPosition() marked position}, and that it points to the
+ * {@link Marker#checkPointedPosition() marked check pointed position}, and fall back to a full scan otherwise.
+ */
+public class TransactionLogTailMarker
+{
+    public static final TransactionLogTailMarker NO_MARKER = new TransactionLogTailMarker( null, null );
+
+    static final String MARKER_FILE_NAME = "tail-" + TransactionLogFiles.DEFAULT_NAME;
+
+    private static final long MAGIC = 0x74785461696c4d6bL; // "txTailMk"
+    private static final int RECORD_SIZE = Long.BYTES * 5;
+
+    private final FileSystemAbstraction fs;
+    private final LogFiles logFiles;
+
+    public TransactionLogTailMarker( FileSystemAbstraction fs, LogFiles logFiles )
+    {
+        this.fs = fs;
+        this.logFiles = logFiles;
+    }
+
+    /**
+     * Called after a check point entry has been written to the log and forced.
+     *
+     * @param checkPointEntryPosition position of the check point entry in the log.
+     * @param checkPointedPosition the position the check point entry points to.
+     */
+    public synchronized void checkPointWritten( LogPosition checkPointEntryPosition, LogPosition checkPointedPosition )
+    {
+        if ( logFiles == null )
+        {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate( RECORD_SIZE );
+        buffer.putLong( MAGIC );
+        buffer.putLong( checkPointEntryPosition.getLogVersion() ).putLong( checkPointEntryPosition.getByteOffset() );
+        buffer.putLong( checkPointedPosition.getLogVersion() ).putLong( checkPointedPosition.getByteOffset() );
+        buffer.flip();
+        File markerFile = markerFile();
+        try ( StoreChannel channel = fs.open( markerFile, OpenMode.READ_WRITE ) )
+        {
+            channel.writeAll( buffer );
+        }
+        catch ( IOException e )
+        {
+            // Failing to write the marker must not fail the check point, the next startup will scan instead
+            fs.deleteFile( markerFile );
+        }
+    }
+
+    /**
+     * @return the last marked check point, or {@code null} if there is none.
+     * @throws IOException on failure reading the marker file.
+     */
+    public Marker read() throws IOException
+    {
+        if ( logFiles == null )
+        {
+            return null;
+        }
+        File markerFile = markerFile();
+        if ( !fs.fileExists( markerFile ) || fs.getFileSize( markerFile ) != RECORD_SIZE )
+        {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate( RECORD_SIZE );
+        try ( StoreChannel channel = fs.open( markerFile, OpenMode.READ ) )
+        {
+            channel.readAll( buffer );
+        }
+        buffer.flip();
+        if ( buffer.getLong() != MAGIC )
+        {
+            return null;
+        }
+        LogPosition checkPointEntryPosition = new LogPosition( buffer.getLong(), buffer.getLong() );
+        LogPosition checkPointedPosition = new LogPosition( buffer.getLong(), buffer.getLong() );
+        return new Marker( checkPointEntryPosition, checkPointedPosition );
+    }
+
+    File markerFile()
+    {
+        return new File( logFiles.logFilesDirectory(), MARKER_FILE_NAME );
+    }
+
+    public static class Marker
+    {
+        private final LogPosition checkPointEntryPosition;
+        private final LogPosition checkPointedPosition;
+
+        Marker( LogPosition checkPointEntryPosition, LogPosition checkPointedPosition )
+        {
+            this.checkPointEntryPosition = checkPointEntryPosition;
+            this.checkPointedPosition = checkPointedPosition;
+        }
+
+        /**
+         * @return position in the log of the last check point entry that was written.
+         */
+        public LogPosition checkPointEntryPosition()
+        {
+            return checkPointEntryPosition;
+        }
+
+        /**
+         * @return the position that the last check point entry that was written points to.
+         */
+        public LogPosition checkPointedPosition()
+        {
+            return checkPointedPosition;
+        }
+    }
+}
@@ -25,6 +25,7 @@ package org.neo4j.kernel.impl.transaction.log;
 import java.io.IOException;
 
 import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.entry.CommandCompression;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryWriter;
 
 public class TransactionLogWriter
@@ -49,6 +50,36 @@ public class TransactionLogWriter
         writer.writeCommitEntry( transactionId, transaction.getTimeCommitted() );
     }
 
+    /**
+     * Appends a transaction which has had its start entry and commands serialized ahead of time by
+     * {@link #serialize(TransactionRepresentation, CommandCompression)}, completing it with its commit entry.
+     */
+    public void append( TransactionSerializationBuffer serializedTransaction, long transactionId, long timeCommitted )
+            throws IOException
+    {
+        writer.writeSerialized( serializedTransaction );
+
+        // Write commit record
+        writer.writeCommitEntry( transactionId, timeCommitted );
+    }
+
+    /**
+     * Serializes the start entry and all the commands of the given transaction into a buffer of its own.
+     * The commit entry is left out since it contains the transaction id, which is only known at append time.
+     * This needs no coordination with other appenders and can therefore be done before appending.
+     */
+    public static TransactionSerializationBuffer serialize( TransactionRepresentation transaction,
+            CommandCompression compression ) throws IOException
+    {
+        TransactionSerializationBuffer buffer = new TransactionSerializationBuffer();
+        LogEntryWriter bufferWriter = new LogEntryWriter( buffer, compression );
+        bufferWriter.writeStartEntry( transaction.getMasterId(), transaction.getAuthorId(),
+                transaction.getTimeStarted(), transaction.getLatestCommittedTxWhenStarted(),
+                transaction.additionalHeader() );
+        bufferWriter.serialize( transaction );
+        return buffer;
+    }
+
     public void checkPoint( LogPosition logPosition ) throws IOException
     {
         writer.writeCheckPointEntry( logPosition );
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.neo4j.storageengine.api.WritableChannel;
+
+/**
+ * A growable in-memory {@link WritableChannel} that log entries can be serialized into ahead of time, and later
+ * copied into the actual log channel in one go.
+ * <p>
+ * Bytes are written in the same (big endian) order as {@link PhysicalFlushableChannel} would write them, so the
+ * copied bytes are indistinguishable from having serialized the entries directly into the log channel.
+ */
+public class TransactionSerializationBuffer implements WritableChannel
+{
+    private static final int DEFAULT_INITIAL_CAPACITY = 1024;
+
+    private ByteBuffer buffer;
+
+    public TransactionSerializationBuffer()
+    {
+        this( DEFAULT_INITIAL_CAPACITY );
+    }
+
+    public TransactionSerializationBuffer( int initialCapacity )
+    {
+        this.buffer = ByteBuffer.allocate( initialCapacity );
+    }
+
+    @Override
+    public WritableChannel put( byte value )
+    {
+        ensureCapacity( Byte.BYTES ).put( value );
+        return this;
+    }
+
+    @Override
+    public WritableChannel putShort( short value )
+    {
+        ensureCapacity( Short.BYTES ).putShort( value );
+        return this;
+    }
+
+    @Override
+    public WritableChannel putInt( int value )
+    {
+        ensureCapacity( Integer.BYTES ).putInt( value );
+        return this;
+    }
+
+    @Override
+    public WritableChannel putLong( long value )
+    {
+        ensureCapacity( Long.BYTES ).putLong( value );
+        return this;
+    }
+
+    @Override
+    public WritableChannel putFloat( float value )
+    {
+        ensureCapacity( Float.BYTES ).putFloat( value );
+        return this;
+    }
+
+    @Override
+    public WritableChannel putDouble( double value )
+    {
+        ensureCapacity( Double.BYTES ).putDouble( value );
+        return this;
+    }
+
+    @Override
+    public WritableChannel put( byte[] value, int length )
+    {
+        ensureCapacity( length ).put( value, 0, length );
+        return this;
+    }
+
+    /**
+     * @return the number of bytes written to this buffer.
+     */
+    public int size()
+    {
+        return buffer.position();
+    }
+
+    /**
+     * @return the array backing this buffer, of which only the first {@link #size()} bytes have been written to.
+     */
+    public byte[] array()
+    {
+        return buffer.array();
+    }
+
+    /**
+     * Copies all bytes written to this buffer into the given channel.
+     *
+     * @param channel the channel to copy the bytes into.
+     * @throws IOException if the channel fails to accept the bytes.
+     */
+    public void writeTo( WritableChannel channel ) throws IOException
+    {
+        channel.put( buffer.array(), buffer.position() );
+    }
+
+    private ByteBuffer ensureCapacity( int bytes )
+    {
+        if ( buffer.remaining() < bytes )
+        {
+            int newCapacity = Math.max( buffer.capacity() << 1, buffer.position() + bytes );
+            ByteBuffer grown = ByteBuffer.allocate( newCapacity );
+            buffer.flip();
+            grown.put( buffer );
+            buffer = grown;
+        }
+        return buffer;
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.util.Native;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.lang.String.format;
+
+/**
+ * Compresses the serialized commands of transactions into a single {@link LogEntryByteCodes#COMPRESSED_COMMANDS}
+ * entry using zstd, and decompresses them again when the entry is read.
+ * <p>
+ * Keeps track of the number of command bytes written before and after compression, so that the achieved
+ * compression ratio can be reported.
+ */
+public class CommandCompression
+{
+    /**
+     * Serialized commands smaller than this are written uncompressed, since the zstd frame overhead would eat most,
+     * if not all, of the gain.
+     */
+    static final int MIN_COMPRESSIBLE_SIZE = 128;
+    /**
+     * Serialized commands larger than this are written uncompressed, so that reading a compressed entry never needs
+     * more memory than this.
+     */
+    static final int MAX_COMPRESSIBLE_SIZE = 1 << 30;
+    private static final int COMPRESSION_LEVEL = 3;
+
+    /**
+     * Writes all commands uncompressed.
+     */
+    public static final CommandCompression DISABLED = new CommandCompression( false );
+
+    private final boolean enabled;
+    private final LongAdder uncompressedBytes = new LongAdder();
+    private final LongAdder compressedBytes = new LongAdder();
+
+    private CommandCompression( boolean enabled )
+    {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @param enabled whether or not commands should be compressed.
+     * @return a new enabled {@link CommandCompression}, or {@link #DISABLED} if compression is not enabled or the zstd
+     * native library is not available on this platform.
+     */
+    public static CommandCompression create( boolean enabled )
+    {
+        return enabled && isAvailable() ? new CommandCompression( true ) : DISABLED;
+    }
+
+    public static boolean isAvailable()
+    {
+        try
+        {
+            Native.load();
+        }
+        catch ( Throwable ignore )
+        {
+            return false;
+        }
+        return Native.isLoaded();
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * @return the total number of serialized command bytes that have been compressed.
+     */
+    public long uncompressedBytes()
+    {
+        return uncompressedBytes.sum();
+    }
+
+    /**
+     * @return the total number of bytes that {@link #uncompressedBytes()} were compressed into.
+     */
+    public long compressedBytes()
+    {
+        return compressedBytes.sum();
+    }
+
+    /**
+     * @return the ratio between the {@link #uncompressedBytes()} and the {@link #compressedBytes()}, or {@code 1} if
+     * nothing has been compressed yet.
+     */
+    public double compressionRatio()
+    {
+        long compressed = compressedBytes();
+        return compressed == 0 ? 1 : (double) uncompressedBytes() / compressed;
+    }
+
+    /**
+     * Compresses the first {@code length} bytes of the given serialized commands.
+     *
+     * @return the compressed bytes, or {@code null} if the commands are not worth compressing.
+     */
+    byte[] compress( byte[] commands, int length )
+    {
+        if ( !enabled || length < MIN_COMPRESSIBLE_SIZE || length > MAX_COMPRESSIBLE_SIZE )
+        {
+            return null;
+        }
+        byte[] target = new byte[(int) Zstd.compressBound( length )];
+        long compressedLength = Zstd.compressByteArray( target, 0, target.length, commands, 0, length, COMPRESSION_LEVEL );
+        if ( Zstd.isError( compressedLength ) || compressedLength >= length )
+        {
+            return null;
+        }
+        uncompressedBytes.add( length );
+        compressedBytes.add( compressedLength );
+        byte[] compressed = new byte[(int) compressedLength];
+        System.arraycopy( target, 0, compressed, 0, compressed.length );
+        return compressed;
+    }
+
+    /**
+     * Decompresses commands previously compressed by {@link #compress(byte[], int)}. Reading compressed entries does
+     * not depend on whether or not compression is enabled for writing.
+     */
+    static byte[] decompress( byte[] compressed, int uncompressedLength ) throws IOException
+    {
+        checkLengths( uncompressedLength, compressed.length );
+        if ( Zstd.decompressedSize( compressed ) != uncompressedLength )
+        {
+            throw new IOException( "Uncompressed length " + uncompressedLength +
+                    " of compressed commands does not match the zstd frame header" );
+        }
+        byte[] commands = new byte[uncompressedLength];
+        long length = Zstd.decompressByteArray( commands, 0, uncompressedLength, compressed, 0, compressed.length );
+        if ( Zstd.isError( length ) || length != uncompressedLength )
+        {
+            throw new IOException( format( "Unable to decompress commands, expected %d bytes but got %s",
+                    uncompressedLength, Zstd.isError( length ) ? Zstd.getErrorName( length ) : String.valueOf( length ) ) );
+        }
+        return commands;
+    }
+
+    /**
+     * Checks the lengths read from the header of a compressed commands entry. Entries are only ever compressed when
+     * that makes them smaller, and only up to {@link #MAX_COMPRESSIBLE_SIZE}, so any other lengths mean that the entry
+     * is corrupt.
+     *
+     * @throws IOException if the lengths could not have been written by {@link #compress(byte[], int)}.
+     */
+    static void checkLengths( int uncompressedLength, int compressedLength ) throws IOException
+    {
+        if ( compressedLength <= 0 || compressedLength >= uncompressedLength || uncompressedLength > MAX_COMPRESSIBLE_SIZE )
+        {
+            throw new IOException( format( "Invalid compressed commands entry, with uncompressed length %d and " +
+                    "compressed length %d", uncompressedLength, compressedLength ) );
+        }
+    }
+}
@@ -23,7 +23,11 @@
 package org.neo4j.kernel.impl.transaction.log.entry;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 
+import org.neo4j.kernel.impl.transaction.log.ByteBufferReadableChannel;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
 import org.neo4j.kernel.impl.transaction.log.LogPositionMarker;
 import org.neo4j.kernel.impl.transaction.log.ReadableClosableChannel;
@@ -128,6 +132,55 @@ public enum LogEntryParsersV2_3 implements LogEntryParser<LogEntry>
                     return LogEntryByteCodes.CHECK_POINT;
                 }
 
+                @Override
+                public boolean skip()
+                {
+                    return false;
+                }
+            },
+
+    COMPRESSED_COMMANDS
+            {
+                @Override
+                public LogEntry parse( LogEntryVersion version, ReadableClosableChannel channel, LogPositionMarker marker,
+                                       CommandReaderFactory commandReader ) throws IOException
+                {
+                    int uncompressedLength = channel.getInt();
+                    int compressedLength = channel.getInt();
+                    // Check the lengths before we allocate anything based on them, since they may come from a
+                    // corrupted part of the log
+                    CommandCompression.checkLengths( uncompressedLength, compressedLength );
+                    byte[] compressed = new byte[compressedLength];
+                    channel.get( compressed, compressedLength );
+
+                    // The compressed bytes are regular command entries, each with its own version header
+                    ByteBuffer buffer = ByteBuffer.wrap( CommandCompression.decompress( compressed, uncompressedLength ) );
+                    ByteBufferReadableChannel commandChannel = new ByteBufferReadableChannel( buffer );
+                    List<StorageCommand> commands = new ArrayList<>();
+                    while ( buffer.hasRemaining() )
+                    {
+                        LogEntryVersion commandVersion = LogEntryVersion.byVersion( commandChannel.get() );
+                        byte type = commandChannel.get();
+                        if ( type != LogEntryByteCodes.COMMAND )
+                        {
+                            throw new IOException( "Unexpected entry type " + type +
+                                    " among compressed commands" );
+                        }
+                        StorageCommand command = commandReader.byVersion( commandVersion.byteCode() ).read( commandChannel );
+                        if ( command != null )
+                        {
+                            commands.add( command );
+                        }
+                    }
+                    return new LogEntryCompressedCommands( version, commands );
+                }
+
+                @Override
+                public byte byteCode()
+                {
+                    return LogEntryByteCodes.COMPRESSED_COMMANDS;
+                }
+
                 @Override
                 public boolean skip()
                 {
@@ -29,10 +29,12 @@ import org.neo4j.helpers.collection.Visitor;
 import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.TransactionSerializationBuffer;
 import org.neo4j.storageengine.api.StorageCommand;
 import org.neo4j.storageengine.api.WritableChannel;
 
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryByteCodes.CHECK_POINT;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryByteCodes.COMPRESSED_COMMANDS;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryByteCodes.TX_COMMIT;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryByteCodes.TX_START;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryVersion.CURRENT;
@@ -41,15 +43,28 @@ public class LogEntryWriter
 {
     protected final WritableChannel channel;
     private final Visitor<StorageCommand,IOException> serializer;
+    private final CommandCompression compression;
 
     /**
      * Create a writer that uses {@link LogEntryVersion#CURRENT} for versioning.
      * @param channel underlying channel
      */
     public LogEntryWriter( WritableChannel channel )
+    {
+        this( channel, CommandCompression.DISABLED );
+    }
+
+    /**
+     * Create a writer that uses {@link LogEntryVersion#CURRENT} for versioning, and which writes the commands of each
+     * transaction as a single compressed entry if the given compression is enabled.
+     * @param channel underlying channel
+     * @param compression compression of transaction commands
+     */
+    public LogEntryWriter( WritableChannel channel, CommandCompression compression )
     {
         this.channel = channel;
         this.serializer = new StorageCommandSerializer( channel );
+        this.compression = compression;
     }
 
     protected static void writeLogEntryHeader( byte type, WritableChannel channel ) throws IOException
@@ -84,7 +99,30 @@ public class LogEntryWriter
 
     public void serialize( TransactionRepresentation tx ) throws IOException
     {
-        tx.accept( serializer );
+        if ( compression.isEnabled() )
+        {
+            serializeCompressed( tx );
+        }
+        else
+        {
+            tx.accept( serializer );
+        }
+    }
+
+    private void serializeCompressed( TransactionRepresentation tx ) throws IOException
+    {
+        TransactionSerializationBuffer commands = new TransactionSerializationBuffer();
+        tx.accept( new StorageCommandSerializer( commands ) );
+        byte[] compressed = compression.compress( commands.array(), commands.size() );
+        if ( compressed == null )
+        {
+            // Not worth compressing, so write the command entries as they are
+            commands.writeTo( channel );
+            return;
+        }
+
+        writeLogEntryHeader( COMPRESSED_COMMANDS, channel );
+        channel.putInt( commands.size() ).putInt( compressed.length ).put( compressed, compressed.length );
     }
 
     public void serialize( CommittedTransactionRepresentation tx ) throws IOException
@@ -102,6 +140,17 @@ public class LogEntryWriter
         }
     }
 
+    /**
+     * Writes log entries that have already been serialized into the given buffer.
+     *
+     * @param serialized buffer containing serialized log entries.
+     * @throws IOException if the entries could not be written.
+     */
+    public void writeSerialized( TransactionSerializationBuffer serialized ) throws IOException
+    {
+        serialized.writeTo( channel );
+    }
+
     public void writeCheckPointEntry( LogPosition logPosition ) throws IOException
     {
         writeLogEntryHeader( CHECK_POINT, channel );
@@ -46,6 +46,8 @@ import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryVersion.byVers
  */
 public class VersionAwareLogEntryReader<SOURCE extends ReadableClosablePositionAwareChannel> implements LogEntryReader<SOURCE>
 {
+    private static final int PREALLOCATED_TAIL_CHECK_BYTES = 64;
+
     private final CommandReaderFactory commandReaderFactory;
     private final InvalidLogEntryHandler invalidLogEntryHandler;
 
@@ -73,6 +75,18 @@ public class VersionAwareLogEntryReader<SOURCE extends ReadableClosablePositionA
                 channel.getCurrentPosition( positionMarker );
 
                 byte versionCode = channel.get();
+                if ( versionCode == 0 && channelSupportsPositioning( channel ) &&
+                        isPreallocatedTail( channel, positionMarker ) )
+                {
+                    // No entry version is zero, this is where the written part of a preallocated log file ends.
+                    // Step back so that the position of the channel is the logical end of the log.
+                    ((PositionableChannel)channel).setCurrentPosition( positionMarker.getByteOffset() );
+                    if ( skipped > 0 )
+                    {
+                        invalidLogEntryHandler.bytesSkipped( skipped );
+                    }
+                    return null;
+                }
                 byte typeCode = channel.get();
 
                 LogEntryVersion version = null;
@@ -130,6 +144,29 @@ public class VersionAwareLogEntryReader<SOURCE extends ReadableClosablePositionA
         }
     }
 
+    /**
+     * A zero entry version is where the zeros of a preallocated log file begin, but it can also be a corrupted
+     * entry, so it is only taken as the end of the log if the bytes following it are zeros as well.
+     * The channel is positioned right after the entry version when this returns.
+     */
+    private boolean isPreallocatedTail( SOURCE channel, LogPositionMarker positionMarker ) throws IOException
+    {
+        boolean zeros = true;
+        try
+        {
+            for ( int i = 1; i < PREALLOCATED_TAIL_CHECK_BYTES && zeros; i++ )
+            {
+                zeros = channel.get() == 0;
+            }
+        }
+        catch ( ReadPastEndException e )
+        {
+            // Zeros all the way to the end
+        }
+        ((PositionableChannel)channel).setCurrentPosition( positionMarker.getByteOffset() + 1 );
+        return zeros;
+    }
+
     private boolean channelSupportsPositioning( SOURCE channel )
     {
         return channel instanceof PositionableChannel;
@@ -31,6 +31,7 @@ import java.util.function.Supplier;
 
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.OpenMode;
 import org.neo4j.io.layout.DatabaseLayout;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.kernel.configuration.Config;
@@ -45,6 +46,8 @@ import org.neo4j.kernel.impl.util.Dependencies;
 import static java.util.Objects.requireNonNull;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.database_path;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.logical_log_rotation_threshold;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.tx_log_dsync;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.tx_log_preallocate;
 
 /**
  * Transactional log files facade class builder.
@@ -241,8 +244,12 @@ public class LogFilesBuilder
         // Register listener for rotation threshold
         AtomicLong rotationThreshold = getRotationThresholdAndRegisterForUpdates();
 
+        boolean preallocate = !readOnly && config != null && config.get( tx_log_preallocate );
+        OpenMode writeMode = !readOnly && config != null && config.get( tx_log_dsync ) ? OpenMode.DSYNC : OpenMode.READ_WRITE;
+
         return new TransactionLogFilesContext( rotationThreshold, logEntryReader,
-                lastCommittedIdSupplier, committingTransactionIdSupplier, logFileCreationMonitor, logVersionRepositorySupplier, fileSystem );
+                lastCommittedIdSupplier, committingTransactionIdSupplier, logFileCreationMonitor, logVersionRepositorySupplier, fileSystem,
+                preallocate, writeMode );
     }
 
     private AtomicLong getRotationThresholdAndRegisterForUpdates()
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.files;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.neo4j.io.ByteUnit;
+import org.neo4j.io.fs.StoreChannel;
+
+/**
+ * Helpers for log files that are preallocated, i.e. filled with zeros up to the rotation size when created.
+ * No log entry starts with a zero byte, so the written part of such a file ends where the zeros begin, and
+ * readers treat the first zero entry version as the logical end of the log.
+ */
+public final class PreallocatedLogFiles
+{
+    private static final int BUFFER_SIZE = (int) ByteUnit.mebiBytes( 1 );
+
+    private PreallocatedLogFiles()
+    {
+    }
+
+    /**
+     * Fills the given channel with zeros from its current size up to {@code size} and forces it, so that later
+     * appends neither grow the file nor allocate space for it. The position of the channel is left unchanged.
+     *
+     * @param channel channel to preallocate.
+     * @param size size to preallocate the channel to.
+     * @throws IOException on I/O error.
+     */
+    public static void preallocate( StoreChannel channel, long size ) throws IOException
+    {
+        long position = channel.position();
+        long fillFrom = channel.size();
+        if ( fillFrom >= size )
+        {
+            return;
+        }
+        ByteBuffer zeros = ByteBuffer.allocate( BUFFER_SIZE );
+        channel.position( fillFrom );
+        while ( fillFrom < size )
+        {
+            zeros.clear();
+            zeros.limit( (int) Math.min( BUFFER_SIZE, size - fillFrom ) );
+            fillFrom += zeros.remaining();
+            channel.writeAll( zeros );
+        }
+        channel.force( true );
+        channel.position( position );
+    }
+
+    /**
+     * @param channel channel to check.
+     * @param from offset to check from.
+     * @return {@code true} if all bytes from {@code from} to the end of the channel are zeros, which is the case
+     * for the unwritten part of a preallocated log file and for a log file that ends at {@code from}.
+     * The position of the channel is moved by this check.
+     * @throws IOException on I/O error.
+     */
+    public static boolean isZeroFilledFrom( StoreChannel channel, long from ) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate( BUFFER_SIZE );
+        channel.position( from );
+        while ( channel.read( buffer ) > 0 )
+        {
+            buffer.flip();
+            while ( buffer.hasRemaining() )
+            {
+                if ( buffer.get() != 0 )
+                {
+                    return false;
+                }
+            }
+            buffer.clear();
+        }
+        return true;
+    }
+}
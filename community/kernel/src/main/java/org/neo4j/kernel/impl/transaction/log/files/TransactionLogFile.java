@@ -22,14 +22,18 @@
  */
 package org.neo4j.kernel.impl.transaction.log.files;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.OpenMode;
+import org.neo4j.io.fs.StoreChannel;
 import org.neo4j.kernel.impl.transaction.log.FlushablePositionAwareChannel;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.LogPositionMarker;
 import org.neo4j.kernel.impl.transaction.log.LogVersionBridge;
 import org.neo4j.kernel.impl.transaction.log.LogVersionRepository;
 import org.neo4j.kernel.impl.transaction.log.LogVersionedStoreChannel;
@@ -38,8 +42,12 @@ import org.neo4j.kernel.impl.transaction.log.PositionAwarePhysicalFlushableChann
 import org.neo4j.kernel.impl.transaction.log.ReadAheadLogChannel;
 import org.neo4j.kernel.impl.transaction.log.ReadableLogChannel;
 import org.neo4j.kernel.impl.transaction.log.ReaderLogVersionBridge;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 
+import static org.neo4j.kernel.impl.transaction.log.LogVersionRepository.INITIAL_LOG_VERSION;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogHeader.LOG_HEADER_SIZE;
+
 /**
  * {@link LogFile} backed by one or more files in a {@link FileSystemAbstraction}.
  */
@@ -68,6 +76,12 @@ class TransactionLogFile extends LifecycleAdapter implements LogFile
         logVersionRepository = context.getLogVersionRepository();
         // Make sure at least a bare bones log file is available before recovery
         long lastLogVersionUsed = this.logVersionRepository.getCurrentLogVersion();
+        if ( lastLogVersionUsed > INITIAL_LOG_VERSION )
+        {
+            // A crash during rotation can leave the preallocated tail of the previous log version in place,
+            // which would end reading before it reaches the current version
+            truncatePreallocatedTail( lastLogVersionUsed - 1 );
+        }
         channel = logFiles.createLogChannelForVersion( lastLogVersionUsed, OpenMode.READ_WRITE, context::getLastCommittedTransactionId );
         channel.close();
     }
@@ -76,11 +90,16 @@ class TransactionLogFile extends LifecycleAdapter implements LogFile
     public void start() throws IOException
     {
         // Recovery has taken place before this, so the log file has been truncated to last known good tx
-        // Just read header and move to the end
+        // Just read header and move to the end, which for a preallocated log file is where its zeros begin
         long lastLogVersionUsed = logVersionRepository.getCurrentLogVersion();
-        channel = logFiles.createLogChannelForVersion( lastLogVersionUsed, OpenMode.READ_WRITE, context::getLastCommittedTransactionId );
+        channel = logFiles.createLogChannelForVersion( lastLogVersionUsed, context.getWriteMode(),
+                context::getLastCommittedTransactionId );
         // Move to the end
-        channel.position( channel.size() );
+        channel.position( hasZeroTail( channel ) ? logicalEnd( lastLogVersionUsed ) : channel.size() );
+        if ( context.isPreallocate() )
+        {
+            PreallocatedLogFiles.preallocate( channel, rotateAtSize.get() );
+        }
         writer = new PositionAwarePhysicalFlushableChannel( channel );
     }
 
@@ -126,9 +145,9 @@ class TransactionLogFile extends LifecycleAdapter implements LogFile
      * Steps during rotation are:
      * <ol>
      * <li>1: Increment log version, {@link LogVersionRepository#incrementAndGetVersion()} (also flushes the store)</li>
-     * <li>2: Flush current log</li>
+     * <li>2: Flush current log, and truncate it to its logical end if it was preallocated</li>
      * <li>3: Create new log file</li>
-     * <li>4: Write header</li>
+     * <li>4: Write header, and preallocate the new log file if configured to</li>
      * </ol>
      *
      * Recovery: what happens if crash between:
@@ -138,7 +157,9 @@ class TransactionLogFile extends LifecycleAdapter implements LogFile
      * although they haven't been considered committed and so they will be truncated from log during recovery</li>
      * <li>2-3: New log version has been set, starting the writer will create the new log file idempotently.
      * At this point there may be complete transactions in the previous log version which may not have been
-     * acknowledged to be committed back to the user, but will be considered committed anyway.</li>
+     * acknowledged to be committed back to the user, but will be considered committed anyway.
+     * If the previous log version was preallocated its tail may not have been truncated, in which case that
+     * is done before recovery.</li>
      * <li>3-4: New log version has been set, starting the writer will see that the new file exists and
      * will be forgiving when trying to read the header of it, so that if it isn't complete a fresh
      * header will be set.</li>
@@ -173,6 +194,16 @@ class TransactionLogFile extends LifecycleAdapter implements LogFile
          * transaction complete in the log we're rotating away. Awesome.
          */
         writer.prepareForFlush().flush();
+        if ( currentLog.size() > currentLog.position() )
+        {
+            /*
+             * The log we're rotating away was preallocated. Readers continue into the next version only
+             * when they reach the end of the file, so cut off the unused zeros, durably, before that
+             * next version is created.
+             */
+            currentLog.truncate( currentLog.position() );
+            currentLog.force( true );
+        }
         /*
          * The log version is now in the store, flushed and persistent. If we crash
          * now, on recovery we'll attempt to open the version we're about to create
@@ -183,11 +214,80 @@ class TransactionLogFile extends LifecycleAdapter implements LogFile
          * into transaction log that was just rotated.
          */
         PhysicalLogVersionedStoreChannel newLog = logFiles.createLogChannelForVersion( newLogVersion,
-                OpenMode.READ_WRITE, context::committingTransactionId );
+                context.getWriteMode(), context::committingTransactionId );
+        if ( context.isPreallocate() )
+        {
+            PreallocatedLogFiles.preallocate( newLog, rotateAtSize.get() );
+        }
         currentLog.close();
         return newLog;
     }
 
+    private void truncatePreallocatedTail( long version ) throws IOException
+    {
+        File logFile = logFiles.getLogFileForVersion( version );
+        if ( !context.getFileSystem().fileExists( logFile ) )
+        {
+            return;
+        }
+        long logicalEnd;
+        try ( StoreChannel logChannel = context.getFileSystem().open( logFile, OpenMode.READ ) )
+        {
+            if ( !hasZeroTail( logChannel ) )
+            {
+                return;
+            }
+            logicalEnd = logicalEnd( version );
+        }
+        catch ( IOException e )
+        {
+            // Entries that can not be read are for recovery to deal with, with or without the zeros after them
+            return;
+        }
+        try ( StoreChannel logChannel = context.getFileSystem().open( logFile, OpenMode.READ_WRITE ) )
+        {
+            logChannel.truncate( logicalEnd );
+            logChannel.force( true );
+        }
+    }
+
+    /**
+     * A log file that was preallocated ends with zeros, unless it was written all the way to the end.
+     * A log file that was not can still end with a zero byte, so this only tells whether it is worth
+     * looking for the {@link #logicalEnd(long) logical end}.
+     */
+    private static boolean hasZeroTail( StoreChannel channel ) throws IOException
+    {
+        long size = channel.size();
+        if ( size <= LOG_HEADER_SIZE )
+        {
+            return false;
+        }
+        long position = channel.position();
+        ByteBuffer lastByte = ByteBuffer.allocate( 1 );
+        channel.position( size - 1 );
+        boolean zero = channel.read( lastByte ) == 1 && lastByte.get( 0 ) == 0;
+        channel.position( position );
+        return zero;
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private long logicalEnd( long version ) throws IOException
+    {
+        LogEntryReader<ReadableLogChannel> entryReader = context.getLogEntryReader();
+        LogPositionMarker end = new LogPositionMarker();
+        try ( ReadableLogChannel reader = getReader( new LogPosition( version, LOG_HEADER_SIZE ),
+                LogVersionBridge.NO_MORE_CHANNELS ) )
+        {
+            do
+            {
+                reader.getCurrentPosition( end );
+            }
+            while ( entryReader.readLogEntry( reader ) != null );
+        }
+        return end.getByteOffset();
+    }
+
     @Override
     public FlushablePositionAwareChannel getWriter()
     {
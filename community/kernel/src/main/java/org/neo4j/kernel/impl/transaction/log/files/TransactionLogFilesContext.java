@@ -27,6 +27,7 @@ import java.util.function.LongSupplier;
 import java.util.function.Supplier;
 
 import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.OpenMode;
 import org.neo4j.kernel.impl.transaction.log.LogVersionRepository;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
 
@@ -39,11 +40,13 @@ class TransactionLogFilesContext
     private final Supplier<LogVersionRepository> logVersionRepositorySupplier;
     private final LogFileCreationMonitor logFileCreationMonitor;
     private final FileSystemAbstraction fileSystem;
+    private final boolean preallocate;
+    private final OpenMode writeMode;
 
     TransactionLogFilesContext( AtomicLong rotationThreshold, LogEntryReader logEntryReader,
             LongSupplier lastCommittedTransactionIdSupplier, LongSupplier committingTransactionIdSupplier,
             LogFileCreationMonitor logFileCreationMonitor, Supplier<LogVersionRepository> logVersionRepositorySupplier,
-            FileSystemAbstraction fileSystem )
+            FileSystemAbstraction fileSystem, boolean preallocate, OpenMode writeMode )
     {
         this.rotationThreshold = rotationThreshold;
         this.logEntryReader = logEntryReader;
@@ -52,6 +55,8 @@ class TransactionLogFilesContext
         this.logVersionRepositorySupplier = logVersionRepositorySupplier;
         this.logFileCreationMonitor = logFileCreationMonitor;
         this.fileSystem = fileSystem;
+        this.preallocate = preallocate;
+        this.writeMode = writeMode;
     }
 
     AtomicLong getRotationThreshold()
@@ -88,4 +93,14 @@ class TransactionLogFilesContext
     {
         return fileSystem;
     }
+
+    boolean isPreallocate()
+    {
+        return preallocate;
+    }
+
+    OpenMode getWriteMode()
+    {
+        return writeMode;
+    }
 }
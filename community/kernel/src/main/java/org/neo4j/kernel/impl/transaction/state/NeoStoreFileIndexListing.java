@@ -27,6 +27,7 @@ import org.eclipse.collections.api.set.primitive.LongSet;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.function.Function;
 
@@ -47,14 +48,20 @@ import static org.neo4j.helpers.collection.Iterators.resourceIterator;
 public class NeoStoreFileIndexListing
 {
     private final LabelScanStore labelScanStore;
+    private final LabelScanStore relationshipTypeScanStore;
     private final IndexingService indexingService;
     private final ExplicitIndexProvider explicitIndexProviders;
 
     private static final Function<File,StoreFileMetadata> toStoreFileMetatadata = file -> new StoreFileMetadata( file, RecordFormat.NO_RECORD_SIZE );
 
-    NeoStoreFileIndexListing( LabelScanStore labelScanStore, IndexingService indexingService, ExplicitIndexProvider explicitIndexProviders )
+    /**
+     * @param relationshipTypeScanStore listed along with the label scan store, or {@code null} if the database has none.
+     */
+    NeoStoreFileIndexListing( LabelScanStore labelScanStore, LabelScanStore relationshipTypeScanStore, IndexingService indexingService,
+            ExplicitIndexProvider explicitIndexProviders )
     {
         this.labelScanStore = labelScanStore;
+        this.relationshipTypeScanStore = relationshipTypeScanStore;
         this.indexingService = indexingService;
         this.explicitIndexProviders = explicitIndexProviders;
     }
@@ -77,9 +84,16 @@ public class NeoStoreFileIndexListing
     {
         ResourceIterator<File> snapshot = labelScanStore.snapshotStoreFiles();
         getSnapshotFilesMetadata( snapshot, targetFiles );
-        // Intentionally don't close the snapshot here, return it for closing by the consumer of
+        Resource snapshots = snapshot;
+        if ( relationshipTypeScanStore != null )
+        {
+            ResourceIterator<File> relationshipTypeSnapshot = relationshipTypeScanStore.snapshotStoreFiles();
+            getSnapshotFilesMetadata( relationshipTypeSnapshot, targetFiles );
+            snapshots = new MultiResource( Arrays.asList( snapshot, relationshipTypeSnapshot ) );
+        }
+        // Intentionally don't close the snapshots here, return them for closing by the consumer of
         // the targetFiles list.
-        return snapshot;
+        return snapshots;
     }
 
     Resource gatherExplicitIndexFiles( Collection<StoreFileMetadata> files ) throws IOException
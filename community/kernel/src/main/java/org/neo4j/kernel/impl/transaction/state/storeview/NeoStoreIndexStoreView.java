@@ -113,15 +113,20 @@ public class NeoStoreIndexStoreView implements IndexStoreView
             final Visitor<NodeLabelUpdate, FAILURE> labelUpdateVisitor,
             boolean forceStoreScan )
     {
-        return new StoreViewNodeStoreScan<>( new RecordStorageReader( neoStores ), locks, labelUpdateVisitor,
+        StoreViewNodeStoreScan<FAILURE> scan = new StoreViewNodeStoreScan<>( new RecordStorageReader( neoStores ), locks, labelUpdateVisitor,
                 propertyUpdatesVisitor, labelIds, propertyKeyIdFilter );
+        scan.enableParallelReads( () -> new RecordStorageReader( neoStores ), nodeStore::getHighestPossibleIdInUse );
+        return scan;
     }
 
     @Override
     public <FAILURE extends Exception> StoreScan<FAILURE> visitRelationships( final int[] relationshipTypeIds, IntPredicate propertyKeyIdFilter,
             final Visitor<EntityUpdates,FAILURE> propertyUpdatesVisitor )
     {
-        return new RelationshipStoreScan<>( new RecordStorageReader( neoStores ), locks, propertyUpdatesVisitor, relationshipTypeIds, propertyKeyIdFilter );
+        RelationshipStoreScan<FAILURE> scan = new RelationshipStoreScan<>( new RecordStorageReader( neoStores ), locks, propertyUpdatesVisitor,
+                relationshipTypeIds, propertyKeyIdFilter );
+        scan.enableParallelReads( () -> new RecordStorageReader( neoStores ), relationshipStore::getHighestPossibleIdInUse );
+        return scan;
     }
 
     @Override
@@ -24,8 +24,20 @@ package org.neo4j.kernel.impl.transaction.state.storeview;
 
 import org.apache.commons.lang3.ArrayUtils;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
 import java.util.function.IntPredicate;
+import java.util.function.LongConsumer;
 import java.util.function.LongFunction;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 
 import org.neo4j.io.IOUtils;
 import org.neo4j.kernel.api.index.IndexEntryUpdate;
@@ -38,20 +50,38 @@ import org.neo4j.storageengine.api.StorageEntityScanCursor;
 import org.neo4j.storageengine.api.StoragePropertyCursor;
 import org.neo4j.storageengine.api.StorageReader;
 import org.neo4j.storageengine.api.schema.PopulationProgress;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.util.FeatureToggles;
 import org.neo4j.values.storable.Value;
 
 public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityScanCursor, FAILURE extends Exception> implements StoreScan<FAILURE>
 {
+    public static final String PARTITION_SIZE_NAME = "partition_size";
+
+    // Number of consecutive entity ids each worker reads at a time, when reading in parallel
+    private final int PARTITION_SIZE = FeatureToggles.getInteger( PropertyAwareEntityStoreScan.class, PARTITION_SIZE_NAME, 10_000 );
+
     final CURSOR entityCursor;
     private final StoragePropertyCursor propertyCursor;
     private final StorageReader storageReader;
     private volatile boolean continueScanning;
-    private long count;
+    private final LongAdder count = new LongAdder();
     private long totalCount;
     private final IntPredicate propertyKeyIdFilter;
     private final LongFunction<Lock> lockFunction;
     private PhaseTracker phaseTracker;
 
+    // Set if entities can be read in parallel, see #enableParallelReads
+    private Supplier<StorageReader> workerStorageReaders;
+    private LongSupplier highestEntityId;
+    // Set if entities are to be read in parallel, see #readInParallel
+    private int numberOfWorkers;
+    private JobScheduler jobScheduler;
+    private BooleanSupplier hasQueuedUpdates;
+    private LongConsumer queuedUpdatesApplier;
+
     protected PropertyAwareEntityStoreScan( StorageReader storageReader, long totalEntityCount, IntPredicate propertyKeyIdFilter,
             LongFunction<Lock> lockFunction )
     {
@@ -66,6 +96,19 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
 
     protected abstract CURSOR allocateCursor( StorageReader storageReader );
 
+    /**
+     * Makes it possible for this scan to {@link #readInParallel(int, JobScheduler, BooleanSupplier, LongConsumer) read entities in parallel}.
+     * Each worker reads from a {@link StorageReader} of its own, since they aren't thread safe.
+     *
+     * @param workerStorageReaders creates a new {@link StorageReader} for a worker, which the worker closes when done.
+     * @param highestEntityId highest id that can be in use for the type of entity this scan reads.
+     */
+    public void enableParallelReads( Supplier<StorageReader> workerStorageReaders, LongSupplier highestEntityId )
+    {
+        this.workerStorageReaders = workerStorageReaders;
+        this.highestEntityId = highestEntityId;
+    }
+
     static boolean containsAnyEntityToken( int[] entityTokenFilter, long... entityTokens )
     {
         for ( long candidate : entityTokens )
@@ -78,7 +121,7 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
         return false;
     }
 
-    boolean hasRelevantProperty( CURSOR cursor, EntityUpdates.Builder updates )
+    boolean hasRelevantProperty( CURSOR cursor, StoragePropertyCursor propertyCursor, EntityUpdates.Builder updates )
     {
         if ( !cursor.hasProperties() )
         {
@@ -103,9 +146,30 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
         return hasRelevantProperty;
     }
 
+    @Override
+    public boolean readInParallel( int numberOfWorkers, JobScheduler jobScheduler, BooleanSupplier hasQueuedUpdates,
+            LongConsumer queuedUpdatesApplier )
+    {
+        if ( workerStorageReaders == null || numberOfWorkers <= 1 )
+        {
+            return false;
+        }
+        this.numberOfWorkers = numberOfWorkers;
+        this.jobScheduler = jobScheduler;
+        this.hasQueuedUpdates = hasQueuedUpdates;
+        this.queuedUpdatesApplier = queuedUpdatesApplier;
+        return true;
+    }
+
     @Override
     public void run() throws FAILURE
     {
+        if ( queuedUpdatesApplier != null )
+        {
+            runInParallel();
+            return;
+        }
+
         entityCursor.scan();
         try ( EntityIdIterator entityIdIterator = getEntityIdIterator() )
         {
@@ -116,8 +180,8 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
                 long id = entityIdIterator.next();
                 try ( Lock ignored = lockFunction.apply( id ) )
                 {
-                    count++;
-                    if ( process( entityCursor ) )
+                    count.increment();
+                    if ( process( entityCursor, propertyCursor ) )
                     {
                         entityIdIterator.invalidateCache();
                     }
@@ -140,15 +204,153 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
         }
     }
 
+    /**
+     * Reads entities with {@link #numberOfWorkers} threads. The id space is divided into partitions of {@link #PARTITION_SIZE}
+     * consecutive ids, which the workers claim in ascending order and read while holding a shared lock. Queued updates
+     * are applied while holding the exclusive lock, i.e. while no partition is being read, at which point all entities
+     * in the claimed partitions and no others have been read. That makes the id right before the next partition
+     * to claim the equivalent of the currently indexed entity id of a scan reading entities one by one.
+     * After the last partition has been claimed, no updates are dropped any more since no one would read those entities.
+     */
+    private void runInParallel() throws FAILURE
+    {
+        phaseTracker.enterPhase( PhaseTracker.Phase.SCAN );
+        continueScanning = true;
+        Partitions partitions = new Partitions( PARTITION_SIZE, highestEntityId );
+        ReadWriteLock partitionLock = new ReentrantReadWriteLock();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<JobHandle> workers = new ArrayList<>( numberOfWorkers );
+        try
+        {
+            for ( int i = 0; i < numberOfWorkers; i++ )
+            {
+                workers.add( jobScheduler.schedule( Group.INDEX_POPULATION, () ->
+                {
+                    try
+                    {
+                        readPartitions( partitions, partitionLock );
+                    }
+                    catch ( Throwable t )
+                    {
+                        if ( !failure.compareAndSet( null, t ) )
+                        {
+                            failure.get().addSuppressed( t );
+                        }
+                        stop();
+                    }
+                } ) );
+            }
+            for ( JobHandle worker : workers )
+            {
+                worker.waitTermination();
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            stop();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException( "Interrupted while waiting for index population scan workers to complete", e );
+        }
+        catch ( ExecutionException e )
+        {
+            stop();
+            throw new RuntimeException( "Index population scan worker failed", e );
+        }
+        finally
+        {
+            IOUtils.closeAllUnchecked( propertyCursor, entityCursor, storageReader );
+        }
+        throwFailure( failure.get() );
+    }
+
+    private void readPartitions( Partitions partitions, ReadWriteLock partitionLock ) throws FAILURE
+    {
+        StorageReader reader = workerStorageReaders.get();
+        CURSOR cursor = allocateCursor( reader );
+        StoragePropertyCursor properties = reader.allocatePropertyCursor();
+        try
+        {
+            boolean claimed = true;
+            while ( claimed && continueScanning )
+            {
+                partitionLock.readLock().lock();
+                try
+                {
+                    long start = partitions.claim();
+                    claimed = start != Partitions.NONE;
+                    if ( claimed )
+                    {
+                        readPartition( start, partitions.end( start ), cursor, properties );
+                    }
+                }
+                finally
+                {
+                    partitionLock.readLock().unlock();
+                }
+
+                if ( hasQueuedUpdates.getAsBoolean() )
+                {
+                    partitionLock.writeLock().lock();
+                    try
+                    {
+                        queuedUpdatesApplier.accept( partitions.currentlyIndexedEntityId() );
+                    }
+                    finally
+                    {
+                        partitionLock.writeLock().unlock();
+                    }
+                }
+            }
+        }
+        finally
+        {
+            IOUtils.closeAllUnchecked( properties, cursor, reader );
+        }
+    }
+
+    private void readPartition( long start, long end, CURSOR cursor, StoragePropertyCursor properties ) throws FAILURE
+    {
+        for ( long id = start; id < end && continueScanning; id++ )
+        {
+            cursor.single( id );
+            if ( cursor.next() )
+            {
+                try ( Lock ignored = lockFunction.apply( id ) )
+                {
+                    count.increment();
+                    process( cursor, properties );
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private void throwFailure( Throwable failure ) throws FAILURE
+    {
+        if ( failure instanceof RuntimeException )
+        {
+            throw (RuntimeException) failure;
+        }
+        if ( failure instanceof Error )
+        {
+            throw (Error) failure;
+        }
+        if ( failure != null )
+        {
+            throw (FAILURE) failure;
+        }
+    }
+
     /**
      * Process the given {@code record}.
      *
      * @param cursor CURSOR with information to process.
+     * @param propertyCursor {@link StoragePropertyCursor} to read properties of the entity with.
      * @return {@code true} if external updates have been applied such that the scan iterator needs to be 100% up to date with store,
      * i.e. invalidate any caches if it has any.
      * @throws FAILURE on failure.
      */
-    protected abstract boolean process( CURSOR cursor ) throws FAILURE;
+    protected abstract boolean process( CURSOR cursor, StoragePropertyCursor propertyCursor ) throws FAILURE;
 
     @Override
     public void stop()
@@ -161,7 +363,7 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
     {
         if ( totalCount > 0 )
         {
-            return PopulationProgress.single( count, totalCount );
+            return PopulationProgress.single( count.sum(), totalCount );
         }
 
         // nothing to do 100% completed
@@ -217,4 +419,65 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
             }
         };
     }
+
+    /**
+     * Hands out partitions of consecutive entity ids in ascending order, until there are no more entities.
+     */
+    private static class Partitions
+    {
+        static final long NONE = -1;
+        private static final long ALL_CLAIMED = Long.MAX_VALUE;
+
+        private final int size;
+        private final LongSupplier highestEntityId;
+        private final AtomicLong nextStart = new AtomicLong();
+
+        Partitions( int size, LongSupplier highestEntityId )
+        {
+            this.size = size;
+            this.highestEntityId = highestEntityId;
+        }
+
+        /**
+         * @return first id of the claimed partition, or {@link #NONE} if all entities have been claimed.
+         */
+        long claim()
+        {
+            while ( true )
+            {
+                long start = nextStart.get();
+                if ( start == ALL_CLAIMED )
+                {
+                    return NONE;
+                }
+                if ( start > highestEntityId.getAsLong() )
+                {
+                    if ( nextStart.compareAndSet( start, ALL_CLAIMED ) )
+                    {
+                        return NONE;
+                    }
+                }
+                else if ( nextStart.compareAndSet( start, start + size ) )
+                {
+                    return start;
+                }
+            }
+        }
+
+        long end( long start )
+        {
+            return start + size;
+        }
+
+        /**
+         * Must only be called while no claimed partition is being read.
+         *
+         * @return highest id such that all entities with this id or lower have been read, and no others.
+         */
+        long currentlyIndexedEntityId()
+        {
+            long start = nextStart.get();
+            return start == ALL_CLAIMED ? Long.MAX_VALUE : start - 1;
+        }
+    }
 }
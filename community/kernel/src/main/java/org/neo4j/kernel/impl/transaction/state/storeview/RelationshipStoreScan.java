@@ -27,6 +27,7 @@ import java.util.function.IntPredicate;
 import org.neo4j.helpers.collection.Visitor;
 import org.neo4j.kernel.impl.api.index.EntityUpdates;
 import org.neo4j.kernel.impl.locking.LockService;
+import org.neo4j.storageengine.api.StoragePropertyCursor;
 import org.neo4j.storageengine.api.StorageReader;
 import org.neo4j.storageengine.api.StorageRelationshipScanCursor;
 
@@ -51,7 +52,7 @@ public class RelationshipStoreScan<FAILURE extends Exception> extends PropertyAw
     }
 
     @Override
-    protected boolean process( StorageRelationshipScanCursor cursor ) throws FAILURE
+    protected boolean process( StorageRelationshipScanCursor cursor, StoragePropertyCursor propertyCursor ) throws FAILURE
     {
         int reltype = cursor.type();
 
@@ -60,7 +61,7 @@ public class RelationshipStoreScan<FAILURE extends Exception> extends PropertyAw
             // Notify the property update visitor
             EntityUpdates.Builder updates = EntityUpdates.forEntity( cursor.entityReference(), true ).withTokens( reltype );
 
-            if ( hasRelevantProperty( cursor, updates ) )
+            if ( hasRelevantProperty( cursor, propertyCursor, updates ) )
             {
                 return propertyUpdatesVisitor.visit( updates.build() );
             }
@@ -22,13 +22,17 @@
  */
 package org.neo4j.kernel.impl.transaction.state.storeview;
 
+import java.util.function.BooleanSupplier;
 import java.util.function.IntPredicate;
+import java.util.function.LongConsumer;
 
 import org.neo4j.helpers.collection.Visitor;
 import org.neo4j.kernel.api.labelscan.NodeLabelUpdate;
 import org.neo4j.kernel.impl.api.index.EntityUpdates;
 import org.neo4j.kernel.impl.locking.LockService;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.StorageNodeCursor;
+import org.neo4j.storageengine.api.StoragePropertyCursor;
 import org.neo4j.storageengine.api.StorageReader;
 
 import static org.neo4j.collection.PrimitiveLongCollections.EMPTY_LONG_ARRAY;
@@ -58,7 +62,16 @@ public class StoreViewNodeStoreScan<FAILURE extends Exception> extends PropertyA
     }
 
     @Override
-    public boolean process( StorageNodeCursor cursor ) throws FAILURE
+    public boolean readInParallel( int numberOfWorkers, JobScheduler jobScheduler, BooleanSupplier hasQueuedUpdates,
+            LongConsumer queuedUpdatesApplier )
+    {
+        // Label updates are expected in node id order
+        return labelUpdateVisitor == null &&
+                super.readInParallel( numberOfWorkers, jobScheduler, hasQueuedUpdates, queuedUpdatesApplier );
+    }
+
+    @Override
+    public boolean process( StorageNodeCursor cursor, StoragePropertyCursor propertyCursor ) throws FAILURE
     {
         long[] labels = cursor.labels();
         if ( labels.length == 0 && labelIds.length != 0 )
@@ -78,7 +91,7 @@ public class StoreViewNodeStoreScan<FAILURE extends Exception> extends PropertyA
             // Notify the property update visitor
             EntityUpdates.Builder updates = EntityUpdates.forEntity( cursor.entityReference(), true ).withTokens( labels );
 
-            if ( hasRelevantProperty( cursor, updates ) )
+            if ( hasRelevantProperty( cursor, propertyCursor, updates ) )
             {
                 return propertyUpdatesVisitor.visit( updates.build() );
             }
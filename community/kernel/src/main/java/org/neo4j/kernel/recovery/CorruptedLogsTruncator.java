@@ -37,6 +37,7 @@ import org.neo4j.io.fs.OpenMode;
 import org.neo4j.io.fs.StoreChannel;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
+import org.neo4j.kernel.impl.transaction.log.files.PreallocatedLogFiles;
 import org.neo4j.kernel.impl.transaction.log.files.TransactionLogFiles;
 
 import static java.lang.String.format;
@@ -166,7 +167,17 @@ public class CorruptedLogsTruncator
     }
 
     private boolean isRecoveredLogCorrupted( long recoveredTransactionLogVersion, long recoveredTransactionOffset )
+            throws IOException
     {
-        return logFiles.getLogFileForVersion( recoveredTransactionLogVersion ).length() > recoveredTransactionOffset;
+        File logFile = logFiles.getLogFileForVersion( recoveredTransactionLogVersion );
+        if ( logFile.length() <= recoveredTransactionOffset )
+        {
+            return false;
+        }
+        // Zeros after the last recovered transaction are the unused part of a preallocated log file, keep them
+        try ( StoreChannel transactionLogChannel = fs.open( logFile, OpenMode.READ ) )
+        {
+            return !PreallocatedLogFiles.isZeroFilledFrom( transactionLogChannel, recoveredTransactionOffset );
+        }
     }
 }
@@ -34,10 +34,12 @@ import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
 import org.neo4j.kernel.impl.transaction.log.TransactionIdStore;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryStart;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.StorageEngine;
 import org.neo4j.storageengine.api.TransactionApplicationMode;
 
 import static org.neo4j.kernel.impl.transaction.log.Commitment.NO_COMMITMENT;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.RECOVERY;
 
 public class DefaultRecoveryService implements RecoveryService
 {
@@ -46,16 +48,28 @@ public class DefaultRecoveryService implements RecoveryService
     private final TransactionIdStore transactionIdStore;
     private final LogicalTransactionStore logicalTransactionStore;
     private final LogVersionRepository logVersionRepository;
+    private final JobScheduler jobScheduler;
+    private final int parallelism;
 
     public DefaultRecoveryService( StorageEngine storageEngine, LogTailScanner logTailScanner,
             TransactionIdStore transactionIdStore, LogicalTransactionStore logicalTransactionStore,
             LogVersionRepository logVersionRepository, RecoveryStartInformationProvider.Monitor monitor )
+    {
+        this( storageEngine, logTailScanner, transactionIdStore, logicalTransactionStore, logVersionRepository, monitor, null, 1 );
+    }
+
+    public DefaultRecoveryService( StorageEngine storageEngine, LogTailScanner logTailScanner,
+            TransactionIdStore transactionIdStore, LogicalTransactionStore logicalTransactionStore,
+            LogVersionRepository logVersionRepository, RecoveryStartInformationProvider.Monitor monitor, JobScheduler jobScheduler,
+            int parallelism )
     {
         this.storageEngine = storageEngine;
         this.transactionIdStore = transactionIdStore;
         this.logicalTransactionStore = logicalTransactionStore;
         this.logVersionRepository = logVersionRepository;
         this.recoveryStartInformationProvider = new RecoveryStartInformationProvider( logTailScanner, monitor );
+        this.jobScheduler = jobScheduler;
+        this.parallelism = parallelism;
     }
 
     @Override
@@ -78,7 +92,9 @@ public class DefaultRecoveryService implements RecoveryService
     @Override
     public RecoveryApplier getRecoveryApplier( TransactionApplicationMode mode ) throws Exception
     {
-        return new RecoveryVisitor( storageEngine, mode );
+        RecoveryVisitor visitor = new RecoveryVisitor( storageEngine, mode );
+        // Reverse recovery undoes changes and must see every record in reverse log order, so it is always serial
+        return mode == RECOVERY && parallelism > 1 ? new ParallelRecoveryApplier( visitor, jobScheduler, parallelism ) : visitor;
     }
 
     @Override
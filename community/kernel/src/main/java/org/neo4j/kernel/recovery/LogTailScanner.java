@@ -32,6 +32,7 @@ import org.neo4j.kernel.impl.transaction.log.LogVersionedStoreChannel;
 import org.neo4j.kernel.impl.transaction.log.PhysicalLogVersionedStoreChannel;
 import org.neo4j.kernel.impl.transaction.log.ReadAheadLogChannel;
 import org.neo4j.kernel.impl.transaction.log.ReadableClosablePositionAwareChannel;
+import org.neo4j.kernel.impl.transaction.log.TransactionLogTailMarker;
 import org.neo4j.kernel.impl.transaction.log.entry.CheckPoint;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntry;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
@@ -39,6 +40,7 @@ import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryStart;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryVersion;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
+import org.neo4j.kernel.impl.transaction.log.files.PreallocatedLogFiles;
 import org.neo4j.kernel.monitoring.Monitors;
 
 import static org.neo4j.kernel.impl.transaction.log.LogVersionRepository.INITIAL_LOG_VERSION;
@@ -60,6 +62,7 @@ public class LogTailScanner
     private LogTailInformation logTailInformation;
     private final LogTailScannerMonitor monitor;
     private final boolean failOnCorruptedLogFiles;
+    private final TransactionLogTailMarker tailMarker;
 
     public LogTailScanner( LogFiles logFiles,
             LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader, Monitors monitors )
@@ -70,15 +73,29 @@ public class LogTailScanner
     public LogTailScanner( LogFiles logFiles,
             LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader, Monitors monitors,
             boolean failOnCorruptedLogFiles )
+    {
+        this( logFiles, logEntryReader, monitors, failOnCorruptedLogFiles, TransactionLogTailMarker.NO_MARKER );
+    }
+
+    public LogTailScanner( LogFiles logFiles,
+            LogEntryReader<ReadableClosablePositionAwareChannel> logEntryReader, Monitors monitors,
+            boolean failOnCorruptedLogFiles, TransactionLogTailMarker tailMarker )
     {
         this.logFiles = logFiles;
         this.logEntryReader = logEntryReader;
         this.monitor = monitors.newMonitor( LogTailScannerMonitor.class );
         this.failOnCorruptedLogFiles = failOnCorruptedLogFiles;
+        this.tailMarker = tailMarker;
     }
 
     private LogTailInformation findLogTail() throws IOException
     {
+        LogTailInformation markedLogTail = findLogTailFromMarker();
+        if ( markedLogTail != null )
+        {
+            return markedLogTail;
+        }
+
         final long highestLogVersion = logFiles.getHighestLogVersion();
         long version = highestLogVersion;
         long versionToSearchForCommits = highestLogVersion;
@@ -171,9 +188,96 @@ public class LogTailScanner
                 oldestStartEntryTransaction, oldestVersionFound, highestLogVersion, latestLogEntryVersion );
     }
 
+    /**
+     * Reads the log forward from the last check point that was marked by the {@link TransactionLogTailMarker},
+     * which after a clean shutdown is the last entry in the log. Any later check point found on the way takes
+     * precedence, since the marker may be lagging behind.
+     *
+     * @return information about the tail of the log, or {@code null} if there is no usable marker, or reading from
+     * it failed, in which case the log has to be scanned as usual.
+     */
+    private LogTailInformation findLogTailFromMarker() throws IOException
+    {
+        TransactionLogTailMarker.Marker marker = tailMarker.read();
+        if ( marker == null )
+        {
+            return null;
+        }
+        LogPosition markedEntryPosition = marker.checkPointEntryPosition();
+        final long highestLogVersion = logFiles.getHighestLogVersion();
+        if ( markedEntryPosition.getLogVersion() > highestLogVersion ||
+             markedEntryPosition.getLogVersion() < logFiles.getLowestLogVersion() )
+        {
+            return null;
+        }
+
+        CheckPoint latestCheckPoint = null;
+        long latestCheckPointVersion = -1;
+        LogEntryStart latestStartEntry = null;
+        LogEntryVersion latestLogEntryVersion = null;
+        boolean corruptedTransactionLogs = false;
+        for ( long version = markedEntryPosition.getLogVersion(); version <= highestLogVersion; version++ )
+        {
+            try ( LogVersionedStoreChannel channel = logFiles.openForVersion( version ) )
+            {
+                if ( version == markedEntryPosition.getLogVersion() )
+                {
+                    channel.position( markedEntryPosition.getByteOffset() );
+                }
+                try ( ReadAheadLogChannel readAheadLogChannel = new ReadAheadLogChannel( channel );
+                      LogEntryCursor cursor = new LogEntryCursor( logEntryReader, readAheadLogChannel ) )
+                {
+                    long maxEntryReadPosition = channel.position();
+                    while ( cursor.next() )
+                    {
+                        LogEntry entry = cursor.get();
+                        if ( latestCheckPoint == null &&
+                             !(entry instanceof CheckPoint && marker.checkPointedPosition().equals( ((CheckPoint) entry).getLogPosition() )) )
+                        {
+                            // The marker doesn't match the log, e.g. because the log files were replaced
+                            return null;
+                        }
+                        if ( entry instanceof CheckPoint )
+                        {
+                            latestCheckPoint = entry.as();
+                            latestCheckPointVersion = version;
+                        }
+                        else if ( entry instanceof LogEntryStart )
+                        {
+                            latestStartEntry = entry.as();
+                        }
+                        latestLogEntryVersion = entry.getVersion();
+                        maxEntryReadPosition = readAheadLogChannel.position();
+                    }
+                    if ( hasUnreadableBytes( channel, maxEntryReadPosition ) )
+                    {
+                        corruptedTransactionLogs = true;
+                    }
+                }
+            }
+            catch ( Error | ClosedByInterruptException e )
+            {
+                throw e;
+            }
+            catch ( Throwable t )
+            {
+                // Let the full scan deal with, and report, whatever went wrong
+                return null;
+            }
+            if ( latestCheckPoint == null )
+            {
+                return null;
+            }
+        }
+        return checkpointTailInformation( highestLogVersion, latestStartEntry, latestCheckPointVersion,
+                latestLogEntryVersion, latestCheckPoint, corruptedTransactionLogs );
+    }
+
     private boolean hasUnreadableBytes( LogVersionedStoreChannel channel, long maxEntryReadEndPosition ) throws IOException
     {
-        return channel.position() > maxEntryReadEndPosition;
+        // Zeros after the last entry are the unused part of a preallocated log file, not unreadable bytes
+        return channel.position() > maxEntryReadEndPosition &&
+                !PreallocatedLogFiles.isZeroFilledFrom( channel, maxEntryReadEndPosition );
     }
 
     protected LogTailInformation checkpointTailInformation( long highestLogVersion, LogEntryStart latestStartEntry,
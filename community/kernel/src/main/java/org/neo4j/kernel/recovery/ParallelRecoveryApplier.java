@@ -0,0 +1,320 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.recovery;
+
+import org.eclipse.collections.api.iterator.LongIterator;
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.neo4j.kernel.impl.store.record.DynamicRecord;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyBlock;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.command.Command.NodeCommand;
+import org.neo4j.kernel.impl.transaction.command.Command.NodeCountsCommand;
+import org.neo4j.kernel.impl.transaction.command.Command.PropertyCommand;
+import org.neo4j.kernel.impl.transaction.command.Command.RelationshipCommand;
+import org.neo4j.kernel.impl.transaction.command.Command.RelationshipCountsCommand;
+import org.neo4j.kernel.impl.transaction.command.Command.RelationshipGroupCommand;
+import org.neo4j.kernel.impl.transaction.log.TransactionIdStore;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.storageengine.api.StorageCommand;
+
+/**
+ * {@link RecoveryApplier} that applies recovered transactions concurrently, using a number of threads from the
+ * {@link Group#RECOVERY} pool of the {@link JobScheduler}.
+ * <p>
+ * Every transaction is partitioned into the records it changes, identified by store and record id. A transaction
+ * is only applied once all earlier transactions that change any of the same records have been applied, so the
+ * records end up the same as when applying all transactions one by one in log order. Property changes also count
+ * as changes to the node or relationship that owns the property, since index updates for an entity are derived
+ * from all of its properties.
+ * <p>
+ * Counts commands are deltas which are filtered by transaction id by the counts store, so they can be applied in
+ * any order. All other commands, i.e. schema, token, neo store and explicit index commands, are barriers:
+ * the transaction containing them is applied on its own, after all earlier transactions have been applied and
+ * before any later transaction is started.
+ * <p>
+ * A failure to apply a transaction is thrown from the next call to {@link #visit(CommittedTransactionRepresentation)},
+ * or from {@link #close()}, which also waits for all transactions to be applied. Since transactions are applied after
+ * {@link #visit(CommittedTransactionRepresentation)} returns, {@link #lastAppliedTransactionId(long)} tells how far
+ * recovery has actually come.
+ */
+public class ParallelRecoveryApplier implements RecoveryApplier
+{
+    private static final int TRANSACTIONS_IN_FLIGHT_PER_THREAD = 64;
+
+    // The kind of record is kept in the high bits of a conflict key, and the record id in the remaining bits.
+    private static final int KIND_SHIFT = 56;
+    private static final long NODE = 1;
+    private static final long RELATIONSHIP = 2;
+    private static final long PROPERTY = 3;
+    private static final long RELATIONSHIP_GROUP = 4;
+    private static final long NODE_LABELS = 5;
+    private static final long PROPERTY_VALUE = 6;
+
+    private final RecoveryApplier applier;
+    private final ExecutorService executor;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    private final Map<Long,CompletableFuture<Void>> lastApplicationOfRecord = new ConcurrentHashMap<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    // The visited transactions, in log order, that have not yet been found to be applied along with all transactions
+    // before them. Only accessed by the visiting thread.
+    private final Deque<Application> unconfirmed = new ArrayDeque<>();
+    private long lastAppliedTransactionId = TransactionIdStore.BASE_TX_ID;
+
+    public ParallelRecoveryApplier( RecoveryApplier applier, JobScheduler jobScheduler, int parallelism )
+    {
+        this.applier = applier;
+        // Owned, and shut down, by the job scheduler
+        this.executor = jobScheduler.workStealingExecutor( Group.RECOVERY, parallelism );
+        this.maxInFlight = parallelism * TRANSACTIONS_IN_FLIGHT_PER_THREAD;
+        this.inFlight = new Semaphore( maxInFlight );
+    }
+
+    @Override
+    public boolean visit( CommittedTransactionRepresentation transaction ) throws Exception
+    {
+        throwIfFailed();
+        MutableLongSet records = recordsChangedBy( transaction );
+        long txId = transaction.getCommitEntry().getTxId();
+        if ( records == null )
+        {
+            awaitAllApplied();
+            throwIfFailed();
+            boolean result = applier.visit( transaction );
+            unconfirmed.add( new Application( txId, CompletableFuture.completedFuture( null ) ) );
+            return result;
+        }
+
+        inFlight.acquire();
+        List<CompletableFuture<Void>> dependencies = new ArrayList<>();
+        LongIterator iterator = records.longIterator();
+        while ( iterator.hasNext() )
+        {
+            CompletableFuture<Void> dependency = lastApplicationOfRecord.get( iterator.next() );
+            if ( dependency != null && !dependencies.contains( dependency ) )
+            {
+                dependencies.add( dependency );
+            }
+        }
+
+        CompletableFuture<Void> application = CompletableFuture
+                .allOf( dependencies.toArray( new CompletableFuture[dependencies.size()] ) )
+                .thenRunAsync( () -> apply( transaction ), executor );
+        records.forEach( record -> lastApplicationOfRecord.put( record, application ) );
+        unconfirmed.add( new Application( txId, application ) );
+        application.whenComplete( ( ignored, cause ) ->
+        {
+            records.forEach( record -> lastApplicationOfRecord.remove( record, application ) );
+            if ( cause != null )
+            {
+                failure.compareAndSet( null, unwrap( cause ) );
+            }
+            inFlight.release();
+        } );
+        return false;
+    }
+
+    /**
+     * Must only be called by the thread that visits the transactions.
+     */
+    @Override
+    public long lastAppliedTransactionId( long lastVisitedTransactionId )
+    {
+        while ( !unconfirmed.isEmpty() )
+        {
+            Application oldest = unconfirmed.peekFirst();
+            if ( !oldest.future.isDone() || oldest.future.isCompletedExceptionally() )
+            {
+                break;
+            }
+            unconfirmed.pollFirst();
+            lastAppliedTransactionId = oldest.txId;
+        }
+        return lastAppliedTransactionId;
+    }
+
+    @Override
+    public void close() throws Exception
+    {
+        awaitAllApplied();
+        throwIfFailed();
+    }
+
+    private void apply( CommittedTransactionRepresentation transaction )
+    {
+        try
+        {
+            applier.visit( transaction );
+        }
+        catch ( Exception e )
+        {
+            throw new CompletionException( e );
+        }
+    }
+
+    private void awaitAllApplied() throws InterruptedException
+    {
+        inFlight.acquire( maxInFlight );
+        inFlight.release( maxInFlight );
+    }
+
+    private void throwIfFailed() throws Exception
+    {
+        Throwable cause = failure.get();
+        if ( cause instanceof Exception )
+        {
+            throw (Exception) cause;
+        }
+        if ( cause instanceof Error )
+        {
+            throw (Error) cause;
+        }
+    }
+
+    private static Throwable unwrap( Throwable cause )
+    {
+        return cause instanceof CompletionException && cause.getCause() != null ? cause.getCause() : cause;
+    }
+
+    /**
+     * @return the conflict keys of all records changed by the given transaction, or {@code null} if the transaction
+     * contains commands that must be applied on their own.
+     */
+    static MutableLongSet recordsChangedBy( CommittedTransactionRepresentation transaction ) throws IOException
+    {
+        MutableLongSet records = new LongHashSet();
+        boolean[] barrier = new boolean[1];
+        transaction.getTransactionRepresentation().accept( command ->
+        {
+            barrier[0] |= !addRecordsChangedBy( command, records );
+            return barrier[0];
+        } );
+        return barrier[0] ? null : records;
+    }
+
+    private static boolean addRecordsChangedBy( StorageCommand command, MutableLongSet records )
+    {
+        if ( command instanceof NodeCommand )
+        {
+            NodeCommand nodeCommand = (NodeCommand) command;
+            records.add( key( NODE, nodeCommand.getKey() ) );
+            addDynamicLabelRecords( nodeCommand.getBefore(), records );
+            addDynamicLabelRecords( nodeCommand.getAfter(), records );
+            return true;
+        }
+        if ( command instanceof RelationshipCommand )
+        {
+            records.add( key( RELATIONSHIP, ((RelationshipCommand) command).getKey() ) );
+            return true;
+        }
+        if ( command instanceof RelationshipGroupCommand )
+        {
+            records.add( key( RELATIONSHIP_GROUP, ((RelationshipGroupCommand) command).getKey() ) );
+            return true;
+        }
+        if ( command instanceof PropertyCommand )
+        {
+            PropertyCommand propertyCommand = (PropertyCommand) command;
+            records.add( key( PROPERTY, propertyCommand.getKey() ) );
+            addValueRecords( propertyCommand.getBefore(), records );
+            addValueRecords( propertyCommand.getAfter(), records );
+            return addOwner( propertyCommand.getAfter(), records ) || addOwner( propertyCommand.getBefore(), records );
+        }
+        return command instanceof NodeCountsCommand || command instanceof RelationshipCountsCommand;
+    }
+
+    private static void addDynamicLabelRecords( NodeRecord node, MutableLongSet records )
+    {
+        for ( DynamicRecord record : node.getDynamicLabelRecords() )
+        {
+            records.add( key( NODE_LABELS, record.getId() ) );
+        }
+    }
+
+    private static void addValueRecords( PropertyRecord property, MutableLongSet records )
+    {
+        // String and array records share a kind; the ids of the two stores may then conflict needlessly,
+        // which is safe, and saves us from telling the stores of deleted value records apart.
+        for ( PropertyBlock block : property )
+        {
+            for ( DynamicRecord record : block.getValueRecords() )
+            {
+                records.add( key( PROPERTY_VALUE, record.getId() ) );
+            }
+        }
+        for ( DynamicRecord record : property.getDeletedRecords() )
+        {
+            records.add( key( PROPERTY_VALUE, record.getId() ) );
+        }
+    }
+
+    private static boolean addOwner( PropertyRecord property, MutableLongSet records )
+    {
+        if ( property.isNodeSet() )
+        {
+            records.add( key( NODE, property.getNodeId() ) );
+            return true;
+        }
+        if ( property.isRelSet() )
+        {
+            records.add( key( RELATIONSHIP, property.getRelId() ) );
+            return true;
+        }
+        return false;
+    }
+
+    private static long key( long kind, long id )
+    {
+        return (kind << KIND_SHIFT) | id;
+    }
+
+    private static class Application
+    {
+        private final long txId;
+        private final CompletableFuture<Void> future;
+
+        Application( long txId, CompletableFuture<Void> future )
+        {
+            this.txId = txId;
+            this.future = future;
+        }
+    }
+}
@@ -24,6 +24,9 @@ package org.neo4j.kernel.recovery;
 
 import java.io.IOException;
 import java.nio.channels.ClosedByInterruptException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
 
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
@@ -44,6 +47,7 @@ import static org.neo4j.storageengine.api.TransactionApplicationMode.REVERSE_REC
  */
 public class Recovery extends LifecycleAdapter
 {
+    private static final long PROGRESS_REPORT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos( 10 );
 
     private final RecoveryService recoveryService;
     private final RecoveryMonitor monitor;
@@ -52,6 +56,14 @@ public class Recovery extends LifecycleAdapter
     private final ProgressReporter progressReporter;
     private final boolean failOnCorruptedLogFiles;
     private int numberOfRecoveredTransactions;
+    private long numberOfTransactionsToRecover;
+    private long recoveryStartNanos;
+    private long lastProgressReportNanos;
+    // Transactions that have been handed to the recovery applier, but that are not yet known to have been applied,
+    // along with the log position after each of them.
+    private final Deque<VisitedTransaction> unappliedTransactions = new ArrayDeque<>();
+    private CommittedTransactionRepresentation lastTransaction;
+    private LogPosition recoveryToPosition;
 
     public Recovery( RecoveryService recoveryService, CorruptedLogsTruncator logsTruncator, Lifecycle schemaLife,
             RecoveryMonitor monitor, ProgressReporter progressReporter, boolean failOnCorruptedLogFiles )
@@ -80,9 +92,10 @@ public class Recovery extends LifecycleAdapter
         monitor.recoveryRequired( recoveryPosition );
         recoveryService.startRecovery();
 
-        LogPosition recoveryToPosition = recoveryPosition;
-        CommittedTransactionRepresentation lastTransaction = null;
+        recoveryToPosition = recoveryPosition;
         CommittedTransactionRepresentation lastReversedTransaction = null;
+        RecoveryApplier applier = null;
+        LogPosition endPosition;
         try
         {
             long lowestRecoveredTxId = TransactionIdStore.BASE_TX_ID;
@@ -110,21 +123,25 @@ public class Recovery extends LifecycleAdapter
             // of the schema life until after we've done the reverse recovery.
             schemaLife.init();
 
+            recoveryStartNanos = lastProgressReportNanos = System.nanoTime();
             try ( TransactionCursor transactionsToRecover = recoveryService.getTransactions( recoveryPosition );
                     RecoveryApplier recoveryVisitor = recoveryService.getRecoveryApplier( RECOVERY ) )
             {
+                applier = recoveryVisitor;
                 while ( transactionsToRecover.next() )
                 {
-                    lastTransaction = transactionsToRecover.get();
-                    long txId = lastTransaction.getCommitEntry().getTxId();
-                    recoveryVisitor.visit( lastTransaction );
-                    monitor.transactionRecovered( txId );
-                    numberOfRecoveredTransactions++;
-                    recoveryToPosition = transactionsToRecover.position();
-                    reportProgress();
+                    CommittedTransactionRepresentation transaction = transactionsToRecover.get();
+                    recoveryVisitor.visit( transaction );
+                    unappliedTransactions.add( new VisitedTransaction( transaction, transactionsToRecover.position() ) );
+                    transactionsApplied( recoveryVisitor );
+                    reportThroughput( false );
                 }
-                recoveryToPosition = transactionsToRecover.position();
+                endPosition = transactionsToRecover.position();
             }
+            // The applier has been closed, so all transactions have now been applied.
+            transactionsApplied( applier );
+            recoveryToPosition = endPosition;
+            reportThroughput( true );
         }
         catch ( Error | ClosedByInterruptException e )
         {
@@ -138,6 +155,12 @@ public class Recovery extends LifecycleAdapter
             {
                 throwUnableToCleanRecover( t );
             }
+            if ( applier != null )
+            {
+                // The applier has been closed, so whatever transactions it managed to apply have now been applied.
+                // Recovery only goes as far as the transaction before the first one that was not applied.
+                transactionsApplied( applier );
+            }
             if ( lastTransaction != null )
             {
                 LogEntryCommit commitEntry = lastTransaction.getCommitEntry();
@@ -156,6 +179,30 @@ public class Recovery extends LifecycleAdapter
         monitor.recoveryCompleted( numberOfRecoveredTransactions );
     }
 
+    /**
+     * Move the recovered position past the transactions that the given applier has applied, along with all transactions
+     * before them.
+     */
+    private void transactionsApplied( RecoveryApplier applier )
+    {
+        if ( unappliedTransactions.isEmpty() )
+        {
+            return;
+        }
+        long lastVisitedTxId = unappliedTransactions.peekLast().transaction.getCommitEntry().getTxId();
+        long lastAppliedTxId = applier.lastAppliedTransactionId( lastVisitedTxId );
+        while ( !unappliedTransactions.isEmpty() &&
+                unappliedTransactions.peekFirst().transaction.getCommitEntry().getTxId() <= lastAppliedTxId )
+        {
+            VisitedTransaction applied = unappliedTransactions.pollFirst();
+            lastTransaction = applied.transaction;
+            recoveryToPosition = applied.positionAfter;
+            monitor.transactionRecovered( lastTransaction.getCommitEntry().getTxId() );
+            numberOfRecoveredTransactions++;
+            reportProgress();
+        }
+    }
+
     static void throwUnableToCleanRecover( Throwable t )
     {
         throw new RuntimeException(
@@ -168,11 +215,10 @@ public class Recovery extends LifecycleAdapter
     private void initProgressReporter( RecoveryStartInformation recoveryStartInformation,
             CommittedTransactionRepresentation lastReversedTransaction )
     {
-        long numberOfTransactionToRecover =
-                getNumberOfTransactionToRecover( recoveryStartInformation, lastReversedTransaction );
+        numberOfTransactionsToRecover = getNumberOfTransactionToRecover( recoveryStartInformation, lastReversedTransaction );
         // since we will process each transaction twice (doing reverse and direct detour) we need to
         // multiply number of transactions that we want to recover by 2 to be able to report correct progress
-        progressReporter.start( numberOfTransactionToRecover * 2 );
+        progressReporter.start( numberOfTransactionsToRecover * 2 );
     }
 
     private void reportProgress()
@@ -180,6 +226,18 @@ public class Recovery extends LifecycleAdapter
         progressReporter.progress( 1 );
     }
 
+    private void reportThroughput( boolean completed )
+    {
+        long now = System.nanoTime();
+        if ( completed || now - lastProgressReportNanos >= PROGRESS_REPORT_INTERVAL_NANOS )
+        {
+            lastProgressReportNanos = now;
+            long elapsedNanos = Math.max( 1, now - recoveryStartNanos );
+            double transactionsPerSecond = numberOfRecoveredTransactions * (double) TimeUnit.SECONDS.toNanos( 1 ) / elapsedNanos;
+            monitor.recoveryProgress( numberOfRecoveredTransactions, numberOfTransactionsToRecover, transactionsPerSecond );
+        }
+    }
+
     private long getNumberOfTransactionToRecover( RecoveryStartInformation recoveryStartInformation,
             CommittedTransactionRepresentation lastReversedTransaction )
     {
@@ -204,4 +262,16 @@ public class Recovery extends LifecycleAdapter
     {
         schemaLife.shutdown();
     }
+
+    private static class VisitedTransaction
+    {
+        private final CommittedTransactionRepresentation transaction;
+        private final LogPosition positionAfter;
+
+        VisitedTransaction( CommittedTransactionRepresentation transaction, LogPosition positionAfter )
+        {
+            this.transaction = transaction;
+            this.positionAfter = positionAfter;
+        }
+    }
 }
@@ -30,4 +30,16 @@ import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
  */
 public interface RecoveryApplier extends Visitor<CommittedTransactionRepresentation,Exception>, AutoCloseable
 {
+    /**
+     * An applier may apply a transaction after {@link #visit(Object)} has returned. A transaction only counts as
+     * recovered once it, and all transactions visited before it, have been applied.
+     *
+     * @param lastVisitedTransactionId the id of the transaction that was visited last.
+     * @return the id of the last transaction that has been applied along with all transactions visited before it.
+     * By default, appliers apply transactions before {@link #visit(Object)} returns, and return the given id.
+     */
+    default long lastAppliedTransactionId( long lastVisitedTransactionId )
+    {
+        return lastVisitedTransactionId;
+    }
 }
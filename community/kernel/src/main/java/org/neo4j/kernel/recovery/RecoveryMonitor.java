@@ -37,6 +37,19 @@ public interface RecoveryMonitor
         //noop
     }
 
+    /**
+     * Called periodically while transactions are applied after the reverse recovery pass, and once when all of
+     * them have been applied.
+     *
+     * @param recoveredTransactions number of transactions applied so far.
+     * @param transactionsToRecover total number of transactions to apply.
+     * @param transactionsPerSecond average number of transactions applied per second so far.
+     */
+    default void recoveryProgress( long recoveredTransactions, long transactionsToRecover, double transactionsPerSecond )
+    {
+        //noop
+    }
+
     default void recoveryCompleted( int numberOfRecoveredTransactions )
     {
         //noop
@@ -54,6 +54,7 @@ import org.neo4j.helpers.Exceptions;
 import org.neo4j.helpers.collection.BoundedIterable;
 import org.neo4j.helpers.collection.Iterators;
 import org.neo4j.helpers.collection.PrefetchingIterator;
+import org.neo4j.internal.kernel.api.LabelSet;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.layout.DatabaseLayout;
 import org.neo4j.kernel.api.labelscan.AllEntriesLabelScanReader;
@@ -64,7 +65,9 @@ import org.neo4j.kernel.api.labelscan.NodeLabelUpdate;
 import org.neo4j.kernel.impl.api.scan.FullStoreChangeStream;
 import org.neo4j.kernel.lifecycle.LifeSupport;
 import org.neo4j.kernel.lifecycle.LifecycleException;
+import org.neo4j.storageengine.api.schema.IndexProgressor;
 import org.neo4j.storageengine.api.schema.LabelScanReader;
+import org.neo4j.storageengine.api.schema.PartitionedLabelScan;
 import org.neo4j.test.rule.RandomRule;
 import org.neo4j.test.rule.TestDirectory;
 import org.neo4j.test.rule.fs.DefaultFileSystemRule;
@@ -456,6 +459,46 @@ public abstract class LabelScanStoreTest
         assertEquals( "Found gaps in node id range: " + gaps( nodeSet, nodeCount ), nodeCount, nodeSet.size() );
     }
 
+    @Test
+    public void shouldFindAllNodesInPartitionedScan() throws Exception
+    {
+        // GIVEN
+        final int labelId = 1;
+        int nodeCount = 5_000;
+        start();
+        write( new PrefetchingIterator<NodeLabelUpdate>()
+        {
+            private int i = -1;
+
+            @Override
+            protected NodeLabelUpdate fetchNextOrNull()
+            {
+                // One node in each range, whatever the range size, to get many tree entries out of a reasonable number of updates
+                return ++i < nodeCount ? labelChanges( i * 65_536L, NO_LABELS, new long[]{labelId} ) : null;
+            }
+        } );
+
+        // WHEN
+        List<Long> nodes = new ArrayList<>();
+        try ( LabelScanReader reader = store.newReader() )
+        {
+            PartitionedLabelScan scan = reader.partitionedNodesWithLabel( labelId, 4 );
+            assertEquals( 4, scan.getNumberOfPartitions() );
+            NodeCollectingClient client = new NodeCollectingClient( nodes );
+            while ( scan.reservePartition( client ) )
+            {
+                client.exhaust();
+            }
+        }
+
+        // THEN
+        assertEquals( nodeCount, nodes.size() );
+        for ( int i = 0; i < nodeCount; i++ )
+        {
+            assertEquals( i * 65_536L, nodes.get( i ).longValue() );
+        }
+    }
+
     @Test
     public void shouldFindNodesWithAnyOfGivenLabels() throws Exception
     {
@@ -528,6 +571,51 @@ public abstract class LabelScanStoreTest
         }
     }
 
+    private static class NodeCollectingClient implements IndexProgressor.NodeLabelClient
+    {
+        private final List<Long> nodes;
+        private IndexProgressor progressor;
+
+        NodeCollectingClient( List<Long> nodes )
+        {
+            this.nodes = nodes;
+        }
+
+        void exhaust()
+        {
+            while ( progressor.next() )
+            {
+                // collected by acceptNode
+            }
+            progressor.close();
+        }
+
+        @Override
+        public void scan( IndexProgressor progressor, boolean providesLabels, int label )
+        {
+            this.progressor = progressor;
+        }
+
+        @Override
+        public void unionScan( IndexProgressor progressor, boolean providesLabels, int... labels )
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void intersectionScan( IndexProgressor progressor, boolean providesLabels, int... labels )
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean acceptNode( long reference, LabelSet labels )
+        {
+            nodes.add( reference );
+            return true;
+        }
+    }
+
     private void prepareIndex() throws IOException
     {
         start();
@@ -649,6 +737,7 @@ public abstract class LabelScanStoreTest
         public boolean rebuiltCalled;
         public boolean noIndexCalled;
         public boolean corruptedIndex;
+        public boolean convertedLegacyIndex;
 
         @Override
         public void noIndex()
@@ -662,6 +751,12 @@ public abstract class LabelScanStoreTest
             corruptedIndex = true;
         }
 
+        @Override
+        public void convertedLegacyIndex()
+        {
+            convertedLegacyIndex = true;
+        }
+
         @Override
         public void rebuilding()
         {
@@ -687,6 +782,7 @@ public abstract class LabelScanStoreTest
             rebuiltCalled = false;
             noIndexCalled = false;
             corruptedIndex = false;
+            convertedLegacyIndex = false;
         }
     }
 }
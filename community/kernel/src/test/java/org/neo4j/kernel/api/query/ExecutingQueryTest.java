@@ -525,6 +525,24 @@ public class ExecutingQueryTest
             flushes += increment;
         }
 
+        @Override
+        public long readAheadPages()
+        {
+            return 0;
+        }
+
+        @Override
+        public long readAheadHits()
+        {
+            return 0;
+        }
+
+        @Override
+        public long readAheadFailures()
+        {
+            return 0;
+        }
+
         @Override
         public double hitRatio()
         {
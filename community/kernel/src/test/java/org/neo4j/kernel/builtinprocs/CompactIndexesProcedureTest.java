@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.builtinprocs;
+
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import org.neo4j.kernel.api.labelscan.LabelScanStore;
+import org.neo4j.kernel.impl.api.index.IndexingService;
+import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointer;
+import org.neo4j.kernel.impl.transaction.log.checkpoint.TriggerInfo;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.neo4j.kernel.builtinprocs.IndexProcedures.COMPACTION_ROUNDS;
+
+public class CompactIndexesProcedureTest
+{
+    private final IndexingService indexingService = mock( IndexingService.class );
+    private final LabelScanStore labelScanStore = mock( LabelScanStore.class );
+    private final CheckPointer checkPointer = mock( CheckPointer.class );
+    private final IndexProcedures procedure = new IndexProcedures( new StubKernelTransaction(), indexingService );
+
+    @Test
+    public void shouldCompactAllIndexesAndLabelScanStoreInRoundsEndingWithCheckpoint() throws Exception
+    {
+        procedure.compactIndexes( labelScanStore, checkPointer );
+
+        InOrder inOrder = inOrder( indexingService, labelScanStore, checkPointer );
+        for ( int round = 0; round < COMPACTION_ROUNDS; round++ )
+        {
+            inOrder.verify( indexingService ).compactAll();
+            inOrder.verify( labelScanStore ).compact();
+            inOrder.verify( checkPointer ).forceCheckPoint( any( TriggerInfo.class ) );
+        }
+        inOrder.verifyNoMoreInteractions();
+    }
+}
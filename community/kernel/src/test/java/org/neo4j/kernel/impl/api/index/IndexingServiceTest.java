@@ -1369,8 +1369,9 @@ public class IndexingServiceTest
         when( indexProxy.getState() ).thenReturn( POPULATING, POPULATING, POPULATING, POPULATING, ONLINE );
         when( indexProxyCreator.createRecoveringIndexProxy( any() ) ).thenReturn( indexProxy );
         when( indexProxyCreator.createPopulatingIndexProxy( any(), anyBoolean(), any(), any() ) ).thenReturn( indexProxy );
-        MultiPopulatorFactory multiPopulatorFactory = forConfig( Config.defaults( multi_threaded_schema_index_population_enabled, "false" ) );
         JobScheduler scheduler = mock( JobScheduler.class );
+        MultiPopulatorFactory multiPopulatorFactory =
+                forConfig( Config.defaults( multi_threaded_schema_index_population_enabled, "false" ), scheduler );
         IndexSamplingController samplingController = mock( IndexSamplingController.class );
         IndexingService.Monitor monitor = mock( IndexingService.Monitor.class );
         IndexingService indexingService =
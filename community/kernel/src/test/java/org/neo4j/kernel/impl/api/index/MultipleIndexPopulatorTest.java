@@ -22,10 +22,10 @@
  */
 package org.neo4j.kernel.impl.api.index;
 
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Answers;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
@@ -47,6 +47,7 @@ import org.neo4j.kernel.api.schema.index.TestIndexDescriptorFactory;
 import org.neo4j.kernel.impl.api.SchemaState;
 import org.neo4j.kernel.impl.api.index.MultipleIndexPopulator.IndexPopulation;
 import org.neo4j.logging.LogProvider;
+import org.neo4j.storageengine.api.EntityType;
 import org.neo4j.storageengine.api.NodePropertyAccessor;
 import org.neo4j.storageengine.api.schema.IndexSample;
 import org.neo4j.storageengine.api.schema.StoreIndexDescriptor;
@@ -80,9 +81,14 @@ public class MultipleIndexPopulatorTest
     private LogProvider logProvider;
     @Mock
     private SchemaState schemaState;
-    @InjectMocks
     private MultipleIndexPopulator multipleIndexPopulator;
 
+    @Before
+    public void setUp()
+    {
+        multipleIndexPopulator = new MultipleIndexPopulator( indexStoreView, logProvider, EntityType.NODE, schemaState );
+    }
+
     @Test
     public void canceledPopulationNotAbleToCreateNewIndex() throws FlipFailedKernelException
     {
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.index.sampling;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HyperLogLogTest
+{
+    @Test
+    public void shouldEstimateNothing()
+    {
+        assertEquals( 0, new HyperLogLog().estimate() );
+    }
+
+    @Test
+    public void shouldEstimateSmallNumberOfDistinctValuesExactly()
+    {
+        // given
+        HyperLogLog sketch = new HyperLogLog();
+
+        // when
+        for ( int i = 0; i < 10; i++ )
+        {
+            sketch.add( i );
+            sketch.add( i );
+        }
+
+        // then
+        assertEquals( 10, sketch.estimate() );
+    }
+
+    @Test
+    public void shouldEstimateLargeNumberOfDistinctValues()
+    {
+        // given
+        HyperLogLog sketch = new HyperLogLog();
+        int distinct = 1_000_000;
+
+        // when
+        for ( int round = 0; round < 2; round++ )
+        {
+            for ( long i = 0; i < distinct; i++ )
+            {
+                sketch.add( i );
+            }
+        }
+
+        // then
+        assertWithinPercent( distinct, sketch.estimate(), 5 );
+    }
+
+    @Test
+    public void shouldMergeSketches()
+    {
+        // given
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        for ( long i = 0; i < 60_000; i++ )
+        {
+            first.add( i );
+            second.add( i + 40_000 );
+        }
+
+        // when
+        first.merge( second );
+
+        // then
+        assertWithinPercent( 100_000, first.estimate(), 5 );
+    }
+
+    @Test
+    public void shouldRecreateSketchFromRegisters()
+    {
+        // given
+        HyperLogLog sketch = new HyperLogLog();
+        for ( long i = 0; i < 12_345; i++ )
+        {
+            sketch.add( i );
+        }
+
+        // when
+        HyperLogLog recreated = new HyperLogLog( sketch.registers() );
+
+        // then
+        assertEquals( sketch.estimate(), recreated.estimate() );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void shouldNotAcceptRegistersOfWrongSize()
+    {
+        new HyperLogLog( new byte[HyperLogLog.NUMBER_OF_REGISTERS - 1] );
+    }
+
+    private static void assertWithinPercent( long expected, long actual, int percent )
+    {
+        long tolerance = expected * percent / 100;
+        assertTrue( "Expected " + expected + " +/-" + percent + "% but was " + actual, Math.abs( expected - actual ) <= tolerance );
+    }
+}
@@ -43,6 +43,8 @@ import org.neo4j.util.FeatureToggles;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -55,6 +57,7 @@ import static org.neo4j.internal.kernel.api.InternalIndexState.POPULATING;
 import static org.neo4j.kernel.api.schema.SchemaDescriptorFactory.forLabel;
 import static org.neo4j.kernel.impl.api.index.TestIndexProviderDescriptor.PROVIDER_DESCRIPTOR;
 import static org.neo4j.kernel.impl.api.index.sampling.IndexSamplingMode.BACKGROUND_REBUILD_UPDATED;
+import static org.neo4j.kernel.impl.api.index.sampling.IndexSamplingMode.TRIGGER_REBUILD_ALL;
 import static org.neo4j.kernel.impl.api.index.sampling.IndexSamplingMode.TRIGGER_REBUILD_UPDATED;
 import static org.neo4j.storageengine.api.schema.IndexDescriptorFactory.forSchema;
 
@@ -85,8 +88,8 @@ public class IndexSamplingControllerTest
         when( indexProxy.getDescriptor() ).thenReturn( descriptor );
         when( anotherIndexProxy.getDescriptor() ).thenReturn( anotherDescriptor );
         when( snapshotProvider.indexMapSnapshot() ).thenReturn( indexMap );
-        when( jobFactory.create( indexId, indexProxy ) ).thenReturn( job );
-        when( jobFactory.create( anotherIndexId, anotherIndexProxy ) ).thenReturn( anotherJob );
+        when( jobFactory.create( eq( indexId ), eq( indexProxy ), anyBoolean() ) ).thenReturn( job );
+        when( jobFactory.create( eq( anotherIndexId ), eq( anotherIndexProxy ), anyBoolean() ) ).thenReturn( anotherJob );
         indexMap.putIndexProxy( indexProxy );
     }
 
@@ -108,7 +111,7 @@ public class IndexSamplingControllerTest
         controller.sampleIndexes( BACKGROUND_REBUILD_UPDATED );
 
         // then
-        verify( jobFactory ).create( indexId, indexProxy );
+        verify( jobFactory ).create( indexId, indexProxy, false );
         verify( tracker ).scheduleSamplingJob( job );
         verify( tracker, times( 2 ) ).canExecuteMoreSamplingJobs();
         verifyNoMoreInteractions( jobFactory, tracker );
@@ -156,7 +159,7 @@ public class IndexSamplingControllerTest
         final DoubleLatch testLatch = new DoubleLatch();
         final ThreadLocal<Boolean> hasRun = ThreadLocal.withInitial( () -> false );
 
-        IndexSamplingJobFactory jobFactory = ( indexId, proxy ) ->
+        IndexSamplingJobFactory jobFactory = ( indexId, proxy, fullScan ) ->
         {
             // make sure we execute this once per thread
             if ( hasRun.get() )
@@ -222,9 +225,9 @@ public class IndexSamplingControllerTest
         controller.sampleIndexes( TRIGGER_REBUILD_UPDATED );
 
         // then
-        verify( jobFactory ).create( indexId, indexProxy );
+        verify( jobFactory ).create( indexId, indexProxy, false );
         verify( tracker ).scheduleSamplingJob( job );
-        verify( jobFactory ).create( anotherIndexId, anotherIndexProxy );
+        verify( jobFactory ).create( anotherIndexId, anotherIndexProxy, false );
         verify( tracker ).scheduleSamplingJob( anotherJob );
 
         verify( tracker, times( 2 ) ).waitUntilCanExecuteMoreSamplingJobs();
@@ -245,13 +248,35 @@ public class IndexSamplingControllerTest
         controller.sampleIndexes( TRIGGER_REBUILD_UPDATED );
 
         // then
-        verify( jobFactory ).create( indexId, indexProxy );
+        verify( jobFactory ).create( indexId, indexProxy, false );
         verify( tracker ).scheduleSamplingJob( job );
 
         verify( tracker, times( 2 ) ).waitUntilCanExecuteMoreSamplingJobs();
         verifyNoMoreInteractions( jobFactory, tracker );
     }
 
+    @Test
+    public void shouldScanIndexesWhenForcedToRebuildAllSamples()
+    {
+        // given
+        IndexSamplingController controller = newSamplingController( always( false ), logProvider);
+        when( indexProxy.getState() ).thenReturn( ONLINE );
+        when( anotherIndexProxy.getState() ).thenReturn( ONLINE );
+        indexMap.putIndexProxy( anotherIndexProxy );
+
+        // when
+        controller.sampleIndexes( TRIGGER_REBUILD_ALL );
+
+        // then
+        verify( jobFactory ).create( indexId, indexProxy, true );
+        verify( tracker ).scheduleSamplingJob( job );
+        verify( jobFactory ).create( anotherIndexId, anotherIndexProxy, true );
+        verify( tracker ).scheduleSamplingJob( anotherJob );
+
+        verify( tracker, times( 2 ) ).waitUntilCanExecuteMoreSamplingJobs();
+        verifyNoMoreInteractions( jobFactory, tracker );
+    }
+
     @Test
     public void shouldNotStartOtherSamplingWhenSamplingAllTheIndexes()
     {
@@ -261,7 +286,7 @@ public class IndexSamplingControllerTest
         final DoubleLatch jobLatch = new DoubleLatch();
         final DoubleLatch testLatch = new DoubleLatch();
 
-        IndexSamplingJobFactory jobFactory = ( indexId, proxy ) ->
+        IndexSamplingJobFactory jobFactory = ( indexId, proxy, fullScan ) ->
         {
             if ( ! concurrentCount.compareAndSet( 0, 1 ) )
             {
@@ -314,7 +339,7 @@ public class IndexSamplingControllerTest
         controller.recoverIndexSamples();
 
         // then
-        verify( jobFactory ).create( indexId, indexProxy );
+        verify( jobFactory ).create( indexId, indexProxy, true );
         verify( job ).run();
         verifyNoMoreInteractions( jobFactory, job, tracker );
     }
@@ -361,9 +386,9 @@ public class IndexSamplingControllerTest
         controller.sampleIndex( indexId, TRIGGER_REBUILD_UPDATED );
 
         // then
-        verify( jobFactory, times(1) ).create( indexId, indexProxy );
+        verify( jobFactory, times(1) ).create( indexId, indexProxy, false );
         verify( tracker, times(1) ).scheduleSamplingJob( job );
-        verify( jobFactory, never() ).create( anotherIndexId, anotherIndexProxy );
+        verify( jobFactory, never() ).create( eq( anotherIndexId ), eq( anotherIndexProxy ), anyBoolean() );
         verify( tracker, never() ).scheduleSamplingJob( anotherJob );
 
         verify( tracker, times( 1 ) ).waitUntilCanExecuteMoreSamplingJobs();
@@ -427,7 +452,7 @@ public class IndexSamplingControllerTest
         {
             final IndexSamplingController controller = newSamplingController( always( true ), logProvider );
             when( indexProxy.getState() ).thenReturn( ONLINE );
-            when( jobFactory.create( indexId, indexProxy ) ).thenReturn( job );
+            when( jobFactory.create( eq( indexId ), eq( indexProxy ), anyBoolean() ) ).thenReturn( job );
             when( tracker.scheduleSamplingJob( any( IndexSamplingJob.class ) ) ).thenReturn( mock( JobHandle.class ) );
 
             controller.recoverIndexSamples();
@@ -459,7 +484,7 @@ public class IndexSamplingControllerTest
         {
             final IndexSamplingController controller = newSamplingController( always( true ), logProvider );
             when( indexProxy.getState() ).thenReturn( ONLINE );
-            when( jobFactory.create( indexId, indexProxy ) ).thenReturn( job );
+            when( jobFactory.create( eq( indexId ), eq( indexProxy ), anyBoolean() ) ).thenReturn( job );
             final JobHandle jobHandle = mock( JobHandle.class );
             when( tracker.scheduleSamplingJob( any( IndexSamplingJob.class ) ) ).thenReturn( jobHandle );
 
@@ -483,7 +508,7 @@ public class IndexSamplingControllerTest
         {
             final IndexSamplingController controller = newSamplingController( always( true ), logProvider );
             when( indexProxy.getState() ).thenReturn( ONLINE );
-            when( jobFactory.create( indexId, indexProxy ) ).thenReturn( job );
+            when( jobFactory.create( eq( indexId ), eq( indexProxy ), anyBoolean() ) ).thenReturn( job );
             final JobHandle jobHandle = mock( JobHandle.class );
             when( tracker.scheduleSamplingJob( any( IndexSamplingJob.class ) ) ).thenReturn( jobHandle );
 
@@ -37,6 +37,7 @@ import org.neo4j.storageengine.api.schema.IndexSample;
 import org.neo4j.storageengine.api.schema.IndexSampler;
 
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -51,7 +52,7 @@ public class OnlineIndexSamplingJobTest
     public void shouldSampleTheIndexAndStoreTheValueWhenTheIndexIsOnline()
     {
         // given
-        OnlineIndexSamplingJob job = new OnlineIndexSamplingJob( indexId, indexProxy, indexStoreView, "Foo", logProvider );
+        OnlineIndexSamplingJob job = new OnlineIndexSamplingJob( indexId, indexProxy, indexStoreView, "Foo", false, logProvider );
         when( indexProxy.getState() ).thenReturn( ONLINE );
 
         // when
@@ -66,7 +67,7 @@ public class OnlineIndexSamplingJobTest
     public void shouldSampleTheIndexButDoNotStoreTheValuesIfTheIndexIsNotOnline()
     {
         // given
-        OnlineIndexSamplingJob job = new OnlineIndexSamplingJob( indexId, indexProxy, indexStoreView, "Foo", logProvider );
+        OnlineIndexSamplingJob job = new OnlineIndexSamplingJob( indexId, indexProxy, indexStoreView, "Foo", false, logProvider );
         when( indexProxy.getState() ).thenReturn( FAILED );
 
         // when
@@ -76,6 +77,39 @@ public class OnlineIndexSamplingJobTest
         verifyNoMoreInteractions( indexStoreView );
     }
 
+    @Test
+    public void shouldUseIncrementalSampleInsteadOfScanningTheIndexWhenAvailable() throws IndexNotFoundKernelException
+    {
+        // given
+        OnlineIndexSamplingJob job = new OnlineIndexSamplingJob( indexId, indexProxy, indexStoreView, "Foo", false, logProvider );
+        when( indexProxy.getState() ).thenReturn( ONLINE );
+        when( indexProxy.incrementalSample() ).thenReturn( new IndexSample( 31, 29, 31 ) );
+
+        // when
+        job.run();
+
+        // then
+        verify( indexStoreView ).replaceIndexCounts( indexId, 29, 31, 31 );
+        verify( indexProxy, never() ).newReader();
+        verifyNoMoreInteractions( indexStoreView );
+    }
+
+    @Test
+    public void shouldScanTheIndexWhenFullScanIsRequestedEvenIfIncrementalSampleIsAvailable()
+    {
+        // given
+        OnlineIndexSamplingJob job = new OnlineIndexSamplingJob( indexId, indexProxy, indexStoreView, "Foo", true, logProvider );
+        when( indexProxy.getState() ).thenReturn( ONLINE );
+        when( indexProxy.incrementalSample() ).thenReturn( new IndexSample( 31, 29, 31 ) );
+
+        // when
+        job.run();
+
+        // then
+        verify( indexStoreView ).replaceIndexCounts( indexId, indexUniqueValues, indexSize, indexSize );
+        verifyNoMoreInteractions( indexStoreView );
+    }
+
     private final LogProvider logProvider = NullLogProvider.getInstance();
     private final long indexId = 1;
     private final IndexProxy indexProxy = mock( IndexProxy.class );
@@ -22,41 +22,280 @@
  */
 package org.neo4j.kernel.impl.index.labelscan;
 
+import org.junit.Rule;
 import org.junit.Test;
 
+import java.util.BitSet;
+
+import org.neo4j.io.pagecache.ByteArrayPageCursor;
+import org.neo4j.io.pagecache.CursorException;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.test.rule.RandomRule;
+
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.kernel.impl.index.labelscan.LabelScanValue.ARRAY;
+import static org.neo4j.kernel.impl.index.labelscan.LabelScanValue.BITMAP;
+import static org.neo4j.kernel.impl.index.labelscan.LabelScanValue.RUN;
 
 public class LabelScanValueTest
 {
+    private static final int RANGE_SIZE = 8192;
+
+    @Rule
+    public final RandomRule random = new RandomRule();
+
     @Test
     public void shouldAddBits()
     {
         // GIVEN
-        LabelScanValue value = new LabelScanValue();
-        value.bits = 0b0000__1000_0100__0010_0001;
+        LabelScanValue value = value( 64, 0, 5, 10, 15 );
 
         // WHEN
-        LabelScanValue other = new LabelScanValue();
-        other.bits = 0b1100__0100_0100__0100_0100;
+        LabelScanValue other = value( 64, 2, 6, 10, 14, 15 );
         value.add( other );
 
         // THEN
-        assertEquals( 0b1100__1100_0100__0110_0101, value.bits );
+        assertArrayEquals( new int[]{0, 2, 5, 6, 10, 14, 15}, value.toOffsets() );
     }
 
     @Test
     public void shouldRemoveBits()
     {
         // GIVEN
-        LabelScanValue value = new LabelScanValue();
-        value.bits = 0b1100__1000_0100__0010_0001;
+        LabelScanValue value = value( 64, 0, 5, 10, 14, 15 );
 
         // WHEN
-        LabelScanValue other = new LabelScanValue();
-        other.bits = 0b1000__0100_0100__0100_0100;
+        LabelScanValue other = value( 64, 2, 5, 14, 15 );
         value.remove( other );
 
         // THEN
-        assertEquals( 0b0100__1000_0000__0010_0001, value.bits );
+        assertArrayEquals( new int[]{0, 10}, value.toOffsets() );
+    }
+
+    @Test
+    public void shouldKeepSparseRangeAsArray()
+    {
+        // GIVEN
+        LabelScanValue value = value( RANGE_SIZE, 3, 1000, 7000 );
+
+        // WHEN
+        value.optimize();
+
+        // THEN
+        assertEquals( ARRAY, value.type );
+        assertEquals( 1 + 3 * Short.BYTES, value.serializedSize() );
+    }
+
+    @Test
+    public void shouldStoreConsecutiveNodesAsRuns()
+    {
+        // GIVEN
+        LabelScanValue value = new LabelScanValue( RANGE_SIZE );
+        for ( int offset = 100; offset < 5000; offset++ )
+        {
+            value.set( offset );
+        }
+
+        // WHEN
+        value.optimize();
+
+        // THEN
+        assertEquals( RUN, value.type );
+        assertEquals( 1 + 2 * Short.BYTES, value.serializedSize() );
+        assertEquals( 4900, value.toOffsets().length );
+    }
+
+    @Test
+    public void shouldStoreDenseRandomNodesAsBitmap()
+    {
+        // GIVEN
+        LabelScanValue value = new LabelScanValue( RANGE_SIZE );
+        for ( int offset = 0; offset < RANGE_SIZE; offset += 2 )
+        {
+            value.set( offset );
+        }
+
+        // WHEN
+        value.optimize();
+
+        // THEN
+        assertEquals( BITMAP, value.type );
+        assertEquals( 1 + RANGE_SIZE / Byte.SIZE, value.serializedSize() );
+    }
+
+    @Test
+    public void shouldBecomeEmptyWhenRemovingAllNodes()
+    {
+        // GIVEN
+        LabelScanValue value = value( RANGE_SIZE, 1, 2, 3 );
+
+        // WHEN
+        value.remove( value( RANGE_SIZE, 1, 2, 3 ) );
+
+        // THEN
+        assertTrue( value.isEmpty() );
+        assertEquals( 0, value.toOffsets().length );
+    }
+
+    @Test
+    public void shouldWriteAndReadAllForms()
+    {
+        for ( LabelScanValue value : new LabelScanValue[]{
+                optimized( value( RANGE_SIZE, 0, 5, RANGE_SIZE - 1 ) ),
+                optimized( everyOther( RANGE_SIZE ) ),
+                optimized( value( RANGE_SIZE, 0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, RANGE_SIZE - 2, RANGE_SIZE - 1 ) )} )
+        {
+            // GIVEN
+            PageCursor cursor = ByteArrayPageCursor.wrap( value.serializedSize() );
+            value.write( cursor );
+
+            // WHEN
+            cursor.setOffset( 0 );
+            LabelScanValue read = new LabelScanValue( RANGE_SIZE );
+            read.read( cursor, value.serializedSize() );
+
+            // THEN
+            assertNull( cursorException( cursor ) );
+            assertEquals( value.type, read.type );
+            assertArrayEquals( value.toOffsets(), read.toOffsets() );
+        }
+    }
+
+    @Test
+    public void shouldReportBitmapOfWrongSize()
+    {
+        // GIVEN
+        LabelScanValue value = optimized( everyOther( RANGE_SIZE ) );
+        PageCursor cursor = ByteArrayPageCursor.wrap( value.serializedSize() );
+        value.write( cursor );
+
+        // WHEN
+        cursor.setOffset( 0 );
+        LabelScanValue read = new LabelScanValue( RANGE_SIZE * 2 );
+        read.read( cursor, value.serializedSize() );
+
+        // THEN
+        assertNotNull( cursorException( cursor ) );
+        assertTrue( read.isEmpty() );
+    }
+
+    @Test
+    public void shouldIterateFromOffsetInAllForms()
+    {
+        for ( LabelScanValue value : new LabelScanValue[]{
+                optimized( value( RANGE_SIZE, 3, 70, 71, 1000 ) ),
+                optimized( everyOther( RANGE_SIZE ) ),
+                optimized( value( RANGE_SIZE, 60, 61, 62, 63, 64, 65, 66, 67, 68, 69, 70, 71, 72 ) )} )
+        {
+            int[] all = value.toOffsets();
+            for ( int from = 0; from <= RANGE_SIZE; from++ )
+            {
+                LabelScanValue.Offsets offsets = new LabelScanValue.Offsets();
+                offsets.initialize( value, from );
+                for ( int expected : all )
+                {
+                    if ( expected >= from )
+                    {
+                        assertEquals( expected, offsets.next() );
+                    }
+                }
+                assertEquals( -1, offsets.next() );
+            }
+        }
+    }
+
+    @Test
+    public void shouldMatchBitSetOnRandomChanges()
+    {
+        for ( int round = 0; round < 100; round++ )
+        {
+            // GIVEN
+            int rangeSize = 1 << random.nextInt( 6, 14 );
+            LabelScanValue value = new LabelScanValue( rangeSize );
+            BitSet expected = new BitSet( rangeSize );
+
+            for ( int change = 0; change < 20; change++ )
+            {
+                // WHEN
+                LabelScanValue other = new LabelScanValue( rangeSize );
+                BitSet otherExpected = randomChange( rangeSize, other );
+                boolean add = random.nextBoolean();
+                if ( add )
+                {
+                    value.add( other );
+                    expected.or( otherExpected );
+                }
+                else
+                {
+                    value.remove( other );
+                    expected.andNot( otherExpected );
+                }
+
+                // THEN
+                assertArrayEquals( expected.stream().toArray(), value.toOffsets() );
+                assertEquals( expected.isEmpty(), value.isEmpty() );
+            }
+        }
+    }
+
+    private BitSet randomChange( int rangeSize, LabelScanValue other )
+    {
+        BitSet bits = new BitSet( rangeSize );
+        int count = random.nextInt( rangeSize / 4 );
+        boolean runs = random.nextBoolean();
+        for ( int i = 0; i < count; i++ )
+        {
+            int offset = random.nextInt( rangeSize );
+            int length = runs ? random.nextInt( 1, 100 ) : 1;
+            for ( int j = offset; j < Math.min( rangeSize, offset + length ); j++ )
+            {
+                bits.set( j );
+                other.set( j );
+            }
+        }
+        return bits;
+    }
+
+    private static String cursorException( PageCursor cursor )
+    {
+        try
+        {
+            cursor.checkAndClearCursorException();
+            return null;
+        }
+        catch ( CursorException e )
+        {
+            return e.getMessage();
+        }
+    }
+
+    private static LabelScanValue everyOther( int rangeSize )
+    {
+        LabelScanValue value = new LabelScanValue( rangeSize );
+        for ( int offset = 0; offset < rangeSize; offset += 2 )
+        {
+            value.set( offset );
+        }
+        return value;
+    }
+
+    private static LabelScanValue optimized( LabelScanValue value )
+    {
+        value.optimize();
+        return value;
+    }
+
+    private static LabelScanValue value( int rangeSize, int... offsets )
+    {
+        LabelScanValue value = new LabelScanValue( rangeSize );
+        for ( int offset : offsets )
+        {
+            value.set( offset );
+        }
+        return value;
     }
 }
@@ -42,6 +42,8 @@ import static java.lang.System.currentTimeMillis;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 
 public class LabelScanWriteMonitorTest
@@ -80,18 +82,18 @@ public class LabelScanWriteMonitorTest
         // given
         DatabaseLayout databaseLayout = this.directory.databaseLayout();
         LabelScanWriteMonitor writeMonitor = new LabelScanWriteMonitor( fs, databaseLayout );
-        LabelScanValue value = new LabelScanValue();
+        LabelScanValue value = value();
         writeMonitor.range( 3, 0 );
-        writeMonitor.prepareAdd( 123, 4 );
-        writeMonitor.prepareAdd( 123, 5 );
-        writeMonitor.mergeAdd( new LabelScanValue(), value.set( 4 ).set( 5 ) );
+        writeMonitor.prepareAdd( 123, 64 * 3 + 4 );
+        writeMonitor.prepareAdd( 123, 64 * 3 + 5 );
+        writeMonitor.mergeAdd( value(), value.set( 4 ).set( 5 ) );
         writeMonitor.flushPendingUpdates();
-        writeMonitor.prepareRemove( 124, 5 );
-        writeMonitor.mergeRemove( value, new LabelScanValue().set( 5 ) );
+        writeMonitor.prepareRemove( 124, 64 * 3 + 5 );
+        writeMonitor.mergeRemove( value, value().set( 5 ) );
         writeMonitor.writeSessionEnded();
         writeMonitor.range( 5, 1 );
-        writeMonitor.prepareAdd( 125, 10 );
-        writeMonitor.mergeAdd( new LabelScanValue().set( 9 ), new LabelScanValue().set( 10 ) );
+        writeMonitor.prepareAdd( 125, 64 * 5 + 10 );
+        writeMonitor.mergeAdd( value().set( 9 ), value().set( 10 ) );
         writeMonitor.flushPendingUpdates();
         writeMonitor.writeSessionEnded();
         writeMonitor.close();
@@ -104,16 +106,11 @@ public class LabelScanWriteMonitorTest
         InOrder inOrder = Mockito.inOrder( dumper );
         inOrder.verify( dumper ).prepare( true, 0, 0, 123, 64 * 3 + 4, 0 );
         inOrder.verify( dumper ).prepare( true, 0, 0, 123, 64 * 3 + 5, 0 );
-        inOrder.verify( dumper ).merge( true, 0, 0, 3, 0, 0,
-                0b00000000_0000000_00000000_00000000__00000000_00000000_00000000_00110000 );
+        inOrder.verify( dumper ).merge( eq( true ), eq( 0L ), eq( 0L ), eq( 3L ), eq( 0 ), aryEq( new int[0] ), aryEq( new int[]{4, 5} ) );
         inOrder.verify( dumper ).prepare( false, 0, 1, 124, 64 * 3 + 5, 0 );
-        inOrder.verify( dumper ).merge( false, 0, 1, 3, 0,
-                0b00000000_0000000_00000000_00000000__00000000_00000000_00000000_00110000,
-                0b00000000_0000000_00000000_00000000__00000000_00000000_00000000_00100000 );
+        inOrder.verify( dumper ).merge( eq( false ), eq( 0L ), eq( 1L ), eq( 3L ), eq( 0 ), aryEq( new int[]{4, 5} ), aryEq( new int[]{5} ) );
         inOrder.verify( dumper ).prepare( true, 1, 0, 125, 64 * 5 + 10, 1 );
-        inOrder.verify( dumper ).merge( true, 1, 0, 5, 1,
-                0b00000000_0000000_00000000_00000000__00000000_00000000_00000010_00000000,
-                0b00000000_0000000_00000000_00000000__00000000_00000000_00000100_00000000 );
+        inOrder.verify( dumper ).merge( eq( true ), eq( 1L ), eq( 0L ), eq( 5L ), eq( 1 ), aryEq( new int[]{9} ), aryEq( new int[]{10} ) );
         inOrder.verifyNoMoreInteractions();
     }
 
@@ -189,7 +186,7 @@ public class LabelScanWriteMonitorTest
         {
             writeMonitor.range( i, 1 );
             writeMonitor.prepareAdd( i, 5 );
-            writeMonitor.mergeAdd( new LabelScanValue(), new LabelScanValue().set( 5 ) );
+            writeMonitor.mergeAdd( value(), value().set( 5 ) );
             writeMonitor.writeSessionEnded();
         }
 
@@ -218,7 +215,7 @@ public class LabelScanWriteMonitorTest
         {
             writeMonitor.range( i, 1 );
             writeMonitor.prepareAdd( i, 5 );
-            writeMonitor.mergeAdd( new LabelScanValue(), new LabelScanValue().set( 5 ) );
+            writeMonitor.mergeAdd( value(), value().set( 5 ) );
             writeMonitor.writeSessionEnded();
         }
 
@@ -231,4 +228,9 @@ public class LabelScanWriteMonitorTest
             assertTrue( diff < pruneThreshold * 2 );
         }
     }
+
+    private static LabelScanValue value()
+    {
+        return new LabelScanValue( LabelScanValue.MIN_RANGE_SIZE );
+    }
 }
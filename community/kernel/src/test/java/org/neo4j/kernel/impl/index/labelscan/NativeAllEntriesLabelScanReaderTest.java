@@ -50,10 +50,15 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.neo4j.collection.PrimitiveLongCollections.asArray;
-import static org.neo4j.kernel.impl.index.labelscan.LabelScanValue.RANGE_SIZE;
+import static org.neo4j.kernel.impl.index.labelscan.NativeAllEntriesLabelScanReader.RANGE_SIZE;
 
 public class NativeAllEntriesLabelScanReaderTest
 {
+    /**
+     * Range size of the tree, larger than the range size handed out by the reader.
+     */
+    private static final int STORE_RANGE_SIZE = 256;
+
     @Rule
     public final RandomRule random = new RandomRule();
 
@@ -162,15 +167,13 @@ public class NativeAllEntriesLabelScanReaderTest
         {
             for ( Pair<LabelScanKey,LabelScanValue> entry : label.entries )
             {
-                if ( entry.first().idRange == rangeId )
+                long baseNodeId = entry.first().idRange * STORE_RANGE_SIZE;
+                for ( int offset : entry.other().toOffsets() )
                 {
-                    long baseNodeId = entry.first().idRange * RANGE_SIZE;
-                    long bits = entry.other().bits;
-                    while ( bits != 0 )
+                    long nodeId = baseNodeId + offset;
+                    if ( nodeId / RANGE_SIZE == rangeId )
                     {
-                        long nodeId = baseNodeId + Long.numberOfTrailingZeros( bits );
                         result.computeIfAbsent( nodeId, id -> new ArrayList<>() ).add( (long) label.labelId );
-                        bits &= bits - 1;
                     }
                 }
             }
@@ -184,7 +187,8 @@ public class NativeAllEntriesLabelScanReaderTest
         for ( Labels labels : data )
         {
             Pair<LabelScanKey,LabelScanValue> highestEntry = labels.entries.get( labels.entries.size() - 1 );
-            highest = max( highest, highestEntry.first().idRange );
+            long highestNodeId = (highestEntry.first().idRange + 1) * STORE_RANGE_SIZE - 1;
+            highest = max( highest, highestNodeId / RANGE_SIZE );
         }
         return highest;
     }
@@ -208,23 +212,23 @@ public class NativeAllEntriesLabelScanReaderTest
     {
         List<Pair<LabelScanKey,LabelScanValue>> entries = new ArrayList<>();
         long currentRange = 0;
-        LabelScanValue value = new LabelScanValue();
+        LabelScanValue value = new LabelScanValue( STORE_RANGE_SIZE );
         for ( long nodeId : nodeIds )
         {
-            long range = nodeId / RANGE_SIZE;
+            long range = nodeId / STORE_RANGE_SIZE;
             if ( range != currentRange )
             {
-                if ( value.bits != 0 )
+                if ( !value.isEmpty() )
                 {
                     entries.add( Pair.of( new LabelScanKey().set( labelId, currentRange ), value ) );
-                    value = new LabelScanValue();
+                    value = new LabelScanValue( STORE_RANGE_SIZE );
                 }
             }
-            value.set( toIntExact( nodeId % RANGE_SIZE ) );
+            value.set( toIntExact( nodeId % STORE_RANGE_SIZE ) );
             currentRange = range;
         }
 
-        if ( value.bits != 0 )
+        if ( !value.isEmpty() )
         {
             entries.add( Pair.of( new LabelScanKey().set( labelId, currentRange ), value ) );
         }
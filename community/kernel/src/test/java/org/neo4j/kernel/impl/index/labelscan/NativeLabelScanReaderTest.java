@@ -34,6 +34,7 @@ import org.neo4j.index.internal.gbptree.Hit;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -44,6 +45,7 @@ import static org.neo4j.collection.PrimitiveLongCollections.asArray;
 public class NativeLabelScanReaderTest
 {
     private static final int LABEL_ID = 1;
+    private static final LabelScanLayout LAYOUT = new LabelScanLayout( LabelScanValue.MIN_RANGE_SIZE );
 
     @SuppressWarnings( "unchecked" )
     @Test
@@ -61,7 +63,7 @@ public class NativeLabelScanReaderTest
                 null );
         when( index.seek( any( LabelScanKey.class ), any( LabelScanKey.class ) ) )
                 .thenReturn( cursor );
-        try ( NativeLabelScanReader reader = new NativeLabelScanReader( index ) )
+        try ( NativeLabelScanReader reader = new NativeLabelScanReader( index, LAYOUT ) )
         {
             // WHEN
             LongIterator iterator = reader.nodesWithLabel( LABEL_ID );
@@ -91,7 +93,7 @@ public class NativeLabelScanReaderTest
         when( index.seek( any( LabelScanKey.class ), any( LabelScanKey.class ) ) ).thenReturn( cursor1, cursor2 );
 
         // WHEN
-        try ( NativeLabelScanReader reader = new NativeLabelScanReader( index ) )
+        try ( NativeLabelScanReader reader = new NativeLabelScanReader( index, LAYOUT ) )
         {
             // first check test invariants
             verify( cursor1, never() ).close();
@@ -127,7 +129,7 @@ public class NativeLabelScanReaderTest
         when( index.seek( any( LabelScanKey.class ), any( LabelScanKey.class ) ) ).thenReturn( cursor1, cursor2 );
 
         // WHEN
-        try ( NativeLabelScanReader reader = new NativeLabelScanReader( index ) )
+        try ( NativeLabelScanReader reader = new NativeLabelScanReader( index, LAYOUT ) )
         {
             // first check test invariants
             reader.nodesWithLabel( LABEL_ID );
@@ -158,8 +160,8 @@ public class NativeLabelScanReaderTest
                 .thenReturn( cursor );
 
         // when
-        long fromId = LabelScanValue.RANGE_SIZE + 3;
-        try ( NativeLabelScanReader reader = new NativeLabelScanReader( index );
+        long fromId = LAYOUT.rangeSize() + 3;
+        try ( NativeLabelScanReader reader = new NativeLabelScanReader( index, LAYOUT );
               PrimitiveLongResourceIterator iterator = reader.nodesWithAnyOfLabels( fromId, LABEL_ID ) )
         {
             // then
@@ -173,11 +175,53 @@ public class NativeLabelScanReaderTest
         }
     }
 
+    @SuppressWarnings( "unchecked" )
+    @Test
+    public void shouldStartFromGivenIdInLargeRanges() throws IOException
+    {
+        // given
+        LabelScanLayout layout = new LabelScanLayout( 8192 );
+        GBPTree<LabelScanKey,LabelScanValue> index = mock( GBPTree.class );
+        RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException> cursor = mock( RawCursor.class );
+        when( cursor.next() ).thenReturn( true, true, false );
+        LabelScanValue runs = layout.newValue();
+        for ( int offset = 1000; offset < 1010; offset++ )
+        {
+            runs.set( offset );
+        }
+        runs.optimize();
+        LabelScanValue array = layout.newValue().set( 7 ).set( 8000 );
+        array.optimize();
+        when( cursor.get() ).thenReturn(
+                new MutableHit<>( new LabelScanKey( LABEL_ID, 2 ), runs ),
+                new MutableHit<>( new LabelScanKey( LABEL_ID, 5 ), array ),
+                null );
+        when( index.seek( any( LabelScanKey.class ), any( LabelScanKey.class ) ) )
+                .thenReturn( cursor );
+
+        // when
+        long fromId = 2 * 8192 + 1005;
+        try ( NativeLabelScanReader reader = new NativeLabelScanReader( index, layout );
+              PrimitiveLongResourceIterator iterator = reader.nodesWithAnyOfLabels( fromId, LABEL_ID ) )
+        {
+            // then
+            assertArrayEquals( new long[] {
+                            2 * 8192 + 1006, 2 * 8192 + 1007, 2 * 8192 + 1008, 2 * 8192 + 1009,
+                            5 * 8192 + 7, 5 * 8192 + 8000 },
+
+                    asArray( iterator ) );
+        }
+        verify( index ).seek( argThat( from -> from.labelId == LABEL_ID && from.idRange == 2 ), any( LabelScanKey.class ) );
+    }
+
     private static Hit<LabelScanKey,LabelScanValue> hit( long baseNodeId, long bits )
     {
         LabelScanKey key = new LabelScanKey( LABEL_ID, baseNodeId );
-        LabelScanValue value = new LabelScanValue();
-        value.bits = bits;
+        LabelScanValue value = LAYOUT.newValue();
+        for ( ; bits != 0; bits &= bits - 1 )
+        {
+            value.set( Long.numberOfTrailingZeros( bits ) );
+        }
         return new MutableHit<>( key, value );
     }
 
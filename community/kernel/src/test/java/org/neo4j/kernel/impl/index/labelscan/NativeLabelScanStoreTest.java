@@ -29,25 +29,42 @@ import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.neo4j.index.internal.gbptree.GBPTree;
 import org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector;
+import org.neo4j.index.internal.gbptree.Writer;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.kernel.api.impl.labelscan.LabelScanStoreTest;
 import org.neo4j.kernel.api.labelscan.LabelScanStore;
+import org.neo4j.kernel.api.labelscan.LabelScanWriter;
 import org.neo4j.kernel.impl.api.scan.FullStoreChangeStream;
+import org.neo4j.kernel.impl.util.monitoring.SilentProgressReporter;
 import org.neo4j.kernel.lifecycle.LifeSupport;
 import org.neo4j.kernel.monitoring.Monitors;
+import org.neo4j.storageengine.api.schema.LabelScanReader;
+import org.neo4j.test.Race;
 import org.neo4j.test.rule.PageCacheRule;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
+import static org.neo4j.collection.PrimitiveLongCollections.EMPTY_LONG_ARRAY;
+import static org.neo4j.collection.PrimitiveLongCollections.asArray;
+import static org.neo4j.index.internal.gbptree.GBPTree.NO_HEADER_READER;
+import static org.neo4j.index.internal.gbptree.GBPTree.NO_HEADER_WRITER;
+import static org.neo4j.index.internal.gbptree.GBPTree.NO_MONITOR;
+import static org.neo4j.kernel.api.labelscan.NodeLabelUpdate.labelChanges;
 import static org.neo4j.kernel.impl.api.scan.FullStoreChangeStream.EMPTY;
 
 public class NativeLabelScanStoreTest extends LabelScanStoreTest
@@ -91,8 +108,8 @@ public class NativeLabelScanStoreTest extends LabelScanStoreTest
     {
         String expectedMessage = "Expected exception message";
         Monitors monitors = mock( Monitors.class );
-        when( monitors.newMonitor( LabelScanStore.Monitor.class ) ).thenReturn( LabelScanStore.Monitor.EMPTY );
-        doThrow( new RuntimeException( expectedMessage ) ).when( monitors ).addMonitorListener( any() );
+        when( monitors.newMonitor( LabelScanStore.Monitor.class, NativeLabelScanStore.MONITOR_TAG ) ).thenReturn( LabelScanStore.Monitor.EMPTY );
+        doThrow( new RuntimeException( expectedMessage ) ).when( monitors ).addMonitorListener( any(), eq( NativeLabelScanStore.MONITOR_TAG ) );
 
         LabelScanStore scanStore = getLabelScanStore( fileSystemRule.get(), testDirectory.databaseLayout(), EMPTY, true, monitors );
         try
@@ -154,4 +171,155 @@ public class NativeLabelScanStoreTest extends LabelScanStoreTest
         assertTrue( monitor.rebuildingCalled );
         life.shutdown();
     }
+
+    @Test
+    public void shouldLetConcurrentWritersTakeTurnsWhenWritesAreLogged() throws Throwable
+    {
+        // given
+        PageCache pageCache = pageCacheRule.getPageCache( fileSystemRule.get() );
+        DatabaseLayout databaseLayout = testDirectory.databaseLayout();
+        LifeSupport life = new LifeSupport();
+        LabelScanStore store = life.add( new NativeLabelScanStore( pageCache, databaseLayout, fileSystemRule.get(),
+                NativeLabelScanStore.getLabelScanStoreFile( databaseLayout ), EMPTY, false, new Monitors(), NativeLabelScanStore.MONITOR_TAG,
+                true, RecoveryCleanupWorkCollector.immediate(), 0 ) );
+        life.start();
+        int writers = 4;
+        int writesPerWriter = 100;
+        AtomicLong nextNodeId = new AtomicLong();
+
+        // when
+        try
+        {
+            Race race = new Race().withEndCondition( () -> false );
+            race.addContestants( writers, Race.throwing( () ->
+            {
+                try ( LabelScanWriter writer = store.newWriter() )
+                {
+                    writer.write( labelChanges( nextNodeId.getAndIncrement(), EMPTY_LONG_ARRAY, new long[]{0} ) );
+                }
+            } ), writesPerWriter );
+            race.go();
+
+            // then
+            try ( LabelScanReader reader = store.newReader() )
+            {
+                assertEquals( writers * writesPerWriter, asArray( reader.nodesWithLabel( 0 ) ).length );
+            }
+        }
+        finally
+        {
+            life.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldConvertLegacyStoreWithoutRebuilding() throws IOException
+    {
+        // given a store in legacy format, with nodes spread over many 64 node ranges
+        PageCache pageCache = pageCacheRule.getPageCache( fileSystemRule.get() );
+        File legacyFile = testDirectory.file( "legacy-labelscanstore" );
+        long[] nodesWithLabel0 = {0, 1, 63, 64, 1000, 8191, 8192, 100_000};
+        long[] nodesWithLabel3 = {5, 6, 7, 8, 9, 10, 5_000_000};
+        createLegacyStore( pageCache, legacyFile, nodesWithLabel0, nodesWithLabel3 );
+
+        // when
+        boolean converted = NativeLabelScanStore.convertLegacyStore(
+                pageCache, legacyFile, testDirectory.databaseLayout().labelScanStore(), SilentProgressReporter.INSTANCE );
+
+        // then
+        assertTrue( converted );
+        TrackingMonitor monitor = new TrackingMonitor();
+        LifeSupport life = new LifeSupport();
+        LabelScanStore store =
+                life.add( createLabelScanStore( fileSystemRule.get(), testDirectory.databaseLayout(), EMPTY, true, false, monitor ) );
+        life.start();
+        try ( LabelScanReader reader = store.newReader() )
+        {
+            assertFalse( monitor.corruptedIndex );
+            assertFalse( monitor.rebuildingCalled );
+            assertArrayEquals( nodesWithLabel0, asArray( reader.nodesWithLabel( 0 ) ) );
+            assertArrayEquals( nodesWithLabel3, asArray( reader.nodesWithLabel( 3 ) ) );
+            assertArrayEquals( new long[0], asArray( reader.nodesWithLabel( 1 ) ) );
+        }
+        finally
+        {
+            life.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldConvertLegacyStoreOnStartupWithoutRebuilding() throws IOException
+    {
+        // given a database with a label scan store in legacy format, which a store upgrade doesn't convert
+        PageCache pageCache = pageCacheRule.getPageCache( fileSystemRule.get() );
+        long[] nodesWithLabel0 = {0, 1, 63, 64, 1000, 8191, 8192, 100_000};
+        long[] nodesWithLabel3 = {5, 6, 7, 8, 9, 10, 5_000_000};
+        createLegacyStore( pageCache, testDirectory.databaseLayout().labelScanStore(), nodesWithLabel0, nodesWithLabel3 );
+
+        // when
+        TrackingMonitor monitor = new TrackingMonitor();
+        LifeSupport life = new LifeSupport();
+        LabelScanStore store =
+                life.add( createLabelScanStore( fileSystemRule.get(), testDirectory.databaseLayout(), EMPTY, true, false, monitor ) );
+        life.start();
+
+        // then
+        try ( LabelScanReader reader = store.newReader() )
+        {
+            assertTrue( monitor.convertedLegacyIndex );
+            assertFalse( monitor.corruptedIndex );
+            assertFalse( monitor.rebuildingCalled );
+            assertArrayEquals( nodesWithLabel0, asArray( reader.nodesWithLabel( 0 ) ) );
+            assertArrayEquals( nodesWithLabel3, asArray( reader.nodesWithLabel( 3 ) ) );
+        }
+        finally
+        {
+            life.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldNotConvertStoreInCurrentFormat() throws IOException
+    {
+        // given
+        LifeSupport life = new LifeSupport();
+        life.add( createLabelScanStore( fileSystemRule.get(), testDirectory.databaseLayout(), EMPTY, true, false, new TrackingMonitor() ) );
+        life.start();
+        life.shutdown();
+
+        // when
+        PageCache pageCache = pageCacheRule.getPageCache( fileSystemRule.get() );
+        boolean converted = NativeLabelScanStore.convertLegacyStore( pageCache, testDirectory.databaseLayout().labelScanStore(),
+                testDirectory.file( "converted-labelscanstore" ), SilentProgressReporter.INSTANCE );
+
+        // then
+        assertFalse( converted );
+    }
+
+    private static void createLegacyStore( PageCache pageCache, File file, long[] nodesWithLabel0, long[] nodesWithLabel3 )
+            throws IOException
+    {
+        LegacyLabelScanLayout legacyLayout = new LegacyLabelScanLayout();
+        try ( GBPTree<LabelScanKey,LabelScanValue> legacy = new GBPTree<>( pageCache, file, legacyLayout, 0, NO_MONITOR,
+                NO_HEADER_READER, NO_HEADER_WRITER, RecoveryCleanupWorkCollector.immediate(), false ) )
+        {
+            try ( Writer<LabelScanKey,LabelScanValue> writer = legacy.writer() )
+            {
+                putLegacy( writer, legacyLayout, 0, nodesWithLabel0 );
+                putLegacy( writer, legacyLayout, 3, nodesWithLabel3 );
+            }
+            legacy.checkpoint( IOLimiter.UNLIMITED, cursor -> cursor.putByte( (byte) 0 ) );
+        }
+    }
+
+    private static void putLegacy( Writer<LabelScanKey,LabelScanValue> writer, LegacyLabelScanLayout layout, int labelId, long... nodeIds )
+    {
+        for ( long nodeId : nodeIds )
+        {
+            LabelScanValue value = layout.newValue();
+            value.set( (int) (nodeId % layout.rangeSize()) );
+            writer.merge( new LabelScanKey( labelId, layout.rangeOf( nodeId ) ), value,
+                    ( existingKey, newKey, existing, added ) -> existing.add( added ) );
+        }
+    }
 }
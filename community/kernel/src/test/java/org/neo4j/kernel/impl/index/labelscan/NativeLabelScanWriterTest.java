@@ -56,7 +56,8 @@ public class NativeLabelScanWriterTest
 {
     private static final int LABEL_COUNT = 5;
     private static final int NODE_COUNT = 10_000;
-    private static final Comparator<LabelScanKey> KEY_COMPARATOR = new LabelScanLayout();
+    private static final LabelScanLayout LAYOUT = new LabelScanLayout( 1024 );
+    private static final Comparator<LabelScanKey> KEY_COMPARATOR = LAYOUT;
 
     @Rule
     public final RandomRule random = new RandomRule();
@@ -67,7 +68,7 @@ public class NativeLabelScanWriterTest
         // GIVEN
         ControlledInserter inserter = new ControlledInserter();
         long[] expected = new long[NODE_COUNT];
-        try ( NativeLabelScanWriter writer = new NativeLabelScanWriter( max( 5, NODE_COUNT / 100 ), NativeLabelScanWriter.EMPTY ) )
+        try ( NativeLabelScanWriter writer = new NativeLabelScanWriter( max( 5, NODE_COUNT / 100 ), LAYOUT, NativeLabelScanWriter.EMPTY ) )
         {
             writer.initialize( inserter );
 
@@ -94,7 +95,7 @@ public class NativeLabelScanWriterTest
         // GIVEN
         ControlledInserter inserter = new ControlledInserter();
         boolean failed = false;
-        try ( NativeLabelScanWriter writer = new NativeLabelScanWriter( 1, NativeLabelScanWriter.EMPTY ) )
+        try ( NativeLabelScanWriter writer = new NativeLabelScanWriter( 1, LAYOUT, NativeLabelScanWriter.EMPTY ) )
         {
             writer.initialize( inserter );
 
@@ -164,9 +165,7 @@ public class NativeLabelScanWriterTest
 
         private static LabelScanValue clone( LabelScanValue value )
         {
-            LabelScanValue result = new LabelScanValue();
-            result.bits = value.bits;
-            return result;
+            return LAYOUT.newValue().add( value );
         }
 
         private static LabelScanKey clone( LabelScanKey key )
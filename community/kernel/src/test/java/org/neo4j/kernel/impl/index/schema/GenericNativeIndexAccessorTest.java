@@ -26,27 +26,48 @@ import org.junit.Rule;
 import org.junit.Test;
 
 import java.io.File;
+import java.util.HashMap;
 
 import org.neo4j.gis.spatial.index.curves.SpaceFillingCurveConfiguration;
+import org.neo4j.internal.kernel.api.exceptions.schema.IndexNotFoundKernelException;
 import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.kernel.api.exceptions.index.IndexEntryConflictException;
 import org.neo4j.kernel.api.index.IndexDirectoryStructure;
+import org.neo4j.kernel.api.index.IndexEntryUpdate;
+import org.neo4j.kernel.api.index.IndexUpdater;
 import org.neo4j.kernel.api.schema.SchemaDescriptorFactory;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.api.index.IndexUpdateMode;
+import org.neo4j.kernel.impl.index.schema.config.ConfiguredSpaceFillingCurveSettingsCache;
 import org.neo4j.kernel.impl.index.schema.config.IndexSpecificSpaceFillingCurveSettingsCache;
 import org.neo4j.storageengine.api.schema.IndexDescriptorFactory;
+import org.neo4j.storageengine.api.schema.IndexReader;
+import org.neo4j.storageengine.api.schema.IndexSample;
+import org.neo4j.storageengine.api.schema.IndexSampler;
 import org.neo4j.storageengine.api.schema.StoreIndexDescriptor;
 import org.neo4j.test.rule.PageCacheAndDependenciesRule;
 import org.neo4j.test.rule.fs.DefaultFileSystemRule;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.mockito.Mockito.mock;
 import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.immediate;
+import static org.neo4j.kernel.api.index.IndexEntryUpdate.add;
+import static org.neo4j.kernel.api.index.IndexEntryUpdate.change;
+import static org.neo4j.kernel.api.index.IndexEntryUpdate.remove;
 import static org.neo4j.kernel.api.index.IndexProvider.Monitor.EMPTY;
+import static org.neo4j.values.storable.Values.intValue;
 
 public class GenericNativeIndexAccessorTest
 {
     @Rule
     public final PageCacheAndDependenciesRule storage = new PageCacheAndDependenciesRule().with( new DefaultFileSystemRule() );
 
+    private final StoreIndexDescriptor descriptor = IndexDescriptorFactory.forSchema( SchemaDescriptorFactory.forLabel( 1, 1 ) ).withId( 8 );
+
     @Test
     public void dropShouldDeleteEntireIndexFolder()
     {
@@ -69,4 +90,132 @@ public class GenericNativeIndexAccessorTest
         // then
         assertFalse( fs.fileExists( indexDirectory ) );
     }
+
+    @Test
+    public void shouldMaintainIncrementalSampleOnceSampledByScanning() throws Exception
+    {
+        // given
+        try ( GenericNativeIndexAccessor accessor = newAccessor() )
+        {
+            processAll( accessor, addUpdates( 0, 100 ) );
+            assertNull( accessor.incrementalSample() );
+
+            // when
+            IndexSample scanned = sampleByScanning( accessor );
+
+            // then
+            assertSample( scanned, 100, 10 );
+            assertSample( accessor.incrementalSample(), 100, 10 );
+
+            // and when
+            processAll( accessor, addUpdates( 100, 150 ) );
+            processAll( accessor, remove( 3, descriptor, intValue( 3 ) ), remove( 4, descriptor, intValue( 4 ) ),
+                    change( 5, descriptor, intValue( 5 ), intValue( 99 ) ) );
+
+            // then
+            assertSample( accessor.incrementalSample(), 148, 21 );
+        }
+    }
+
+    @Test
+    public void shouldNotCountUpdatesAppliedAgainDuringRecovery() throws Exception
+    {
+        // given
+        try ( GenericNativeIndexAccessor accessor = newAccessor() )
+        {
+            processAll( accessor, addUpdates( 0, 100 ) );
+            sampleByScanning( accessor );
+            IndexEntryUpdate<?>[] batch = {add( 100, descriptor, intValue( 100 ) ), remove( 3, descriptor, intValue( 3 ) ),
+                    change( 5, descriptor, intValue( 5 ), intValue( 99 ) )};
+            processAll( accessor, batch );
+            IndexSample sample = accessor.incrementalSample();
+            assertEquals( 100, sample.indexSize() );
+
+            // when
+            processAll( accessor, IndexUpdateMode.RECOVERY, batch );
+
+            // then
+            assertSample( accessor.incrementalSample(), sample.indexSize(), sample.uniqueValues() );
+            assertSample( sampleByScanning( accessor ), sample.indexSize(), sample.uniqueValues() );
+        }
+    }
+
+    @Test
+    public void shouldPersistIncrementalSampleOnCheckpoint() throws Exception
+    {
+        // given
+        IndexSample sample;
+        try ( GenericNativeIndexAccessor accessor = newAccessor() )
+        {
+            processAll( accessor, addUpdates( 0, 100 ) );
+            sampleByScanning( accessor );
+            processAll( accessor, addUpdates( 100, 120 ) );
+            sample = accessor.incrementalSample();
+
+            // when
+            accessor.force( IOLimiter.UNLIMITED );
+        }
+
+        // then
+        try ( GenericNativeIndexAccessor accessor = newAccessor() )
+        {
+            assertSample( accessor.incrementalSample(), sample.indexSize(), sample.uniqueValues() );
+        }
+    }
+
+    private GenericNativeIndexAccessor newAccessor()
+    {
+        File indexFile = new File( storage.directory().directory( "root" ), "my-index" );
+        IndexSpecificSpaceFillingCurveSettingsCache spatialSettings =
+                new IndexSpecificSpaceFillingCurveSettingsCache( new ConfiguredSpaceFillingCurveSettingsCache( Config.defaults() ), new HashMap<>() );
+        return new GenericNativeIndexAccessor( storage.pageCache(), storage.fileSystem(), indexFile, new GenericLayout( 1, spatialSettings ),
+                immediate(), EMPTY, descriptor, spatialSettings, mock( SpaceFillingCurveConfiguration.class ), mock( IndexDropAction.class ), false );
+    }
+
+    /**
+     * Nodes in the range get one of ten distinct values per block of a hundred nodes.
+     */
+    private IndexEntryUpdate<?>[] addUpdates( int fromNodeId, int toNodeId )
+    {
+        IndexEntryUpdate<?>[] updates = new IndexEntryUpdate[toNodeId - fromNodeId];
+        for ( int nodeId = fromNodeId; nodeId < toNodeId; nodeId++ )
+        {
+            updates[nodeId - fromNodeId] = add( nodeId, descriptor, intValue( (nodeId / 100) * 10 + nodeId % 10 ) );
+        }
+        return updates;
+    }
+
+    private static void processAll( GenericNativeIndexAccessor accessor, IndexEntryUpdate<?>... updates ) throws IndexEntryConflictException
+    {
+        processAll( accessor, IndexUpdateMode.ONLINE, updates );
+    }
+
+    private static void processAll( GenericNativeIndexAccessor accessor, IndexUpdateMode mode, IndexEntryUpdate<?>... updates )
+            throws IndexEntryConflictException
+    {
+        try ( IndexUpdater updater = accessor.newUpdater( mode ) )
+        {
+            for ( IndexEntryUpdate<?> update : updates )
+            {
+                updater.process( update );
+            }
+        }
+    }
+
+    private static IndexSample sampleByScanning( GenericNativeIndexAccessor accessor ) throws IndexNotFoundKernelException
+    {
+        try ( IndexReader reader = accessor.newReader();
+              IndexSampler sampler = reader.createSampler() )
+        {
+            return sampler.sampleIndex();
+        }
+    }
+
+    private static void assertSample( IndexSample sample, long expectedIndexSize, long expectedUniqueValues )
+    {
+        assertNotNull( sample );
+        assertEquals( expectedIndexSize, sample.indexSize() );
+        assertEquals( expectedIndexSize, sample.sampleSize() );
+        assertEquals( expectedUniqueValues, sample.uniqueValues() );
+    }
 }
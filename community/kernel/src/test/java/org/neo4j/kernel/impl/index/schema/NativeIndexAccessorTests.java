@@ -61,6 +61,7 @@ import org.neo4j.storageengine.api.schema.IndexProgressor;
 import org.neo4j.storageengine.api.schema.IndexReader;
 import org.neo4j.storageengine.api.schema.IndexSample;
 import org.neo4j.storageengine.api.schema.IndexSampler;
+import org.neo4j.storageengine.api.schema.PartitionedValueSeek;
 import org.neo4j.storageengine.api.schema.SimpleNodeValueClient;
 import org.neo4j.values.storable.CoordinateReferenceSystem;
 import org.neo4j.values.storable.PointValue;
@@ -164,6 +165,36 @@ public abstract class NativeIndexAccessorTests<KEY extends NativeIndexKey<KEY>,
         verifyUpdates( updates );
     }
 
+    @Test
+    public void partitionedQueryShouldReturnAllEntriesForExistsPredicate() throws Exception
+    {
+        // given
+        IndexEntryUpdate<IndexDescriptor>[] updates = someUpdatesSingleType();
+        processAll( updates );
+
+        // when
+        List<Long> result = new ArrayList<>();
+        try ( IndexReader reader = accessor.newReader() )
+        {
+            assertTrue( reader.supportsPartitionedQuery( IndexQuery.exists( 0 ) ) );
+            PartitionedValueSeek seek = reader.partitionedQuery( 4, false, IndexQuery.exists( 0 ) );
+            SimpleNodeValueClient client = new SimpleNodeValueClient();
+            int partitions = 0;
+            while ( seek.reservePartition( client ) )
+            {
+                partitions++;
+                while ( client.next() )
+                {
+                    result.add( client.reference );
+                }
+            }
+            assertEquals( seek.getNumberOfPartitions(), partitions );
+        }
+
+        // then
+        assertEntityIdHits( extractEntityIds( updates, alwaysTrue() ), result );
+    }
+
     @Test
     public void shouldIndexChange() throws Exception
     {
@@ -550,17 +581,25 @@ public abstract class NativeIndexAccessorTests<KEY extends NativeIndexKey<KEY>,
     }
 
     @Test
-    public void requestForSecondUpdaterMustThrow() throws Exception
+    public void concurrentUpdatersMustApplyAllUpdates() throws Exception
     {
         // given
-        try ( IndexUpdater ignored = accessor.newUpdater( ONLINE ) )
-        {
-            // then
-            expected.expect( IllegalStateException.class );
+        IndexEntryUpdate<IndexDescriptor>[] updates = someUpdatesSingleType();
+        int half = updates.length / 2;
 
-            // when
-            accessor.newUpdater( ONLINE );
+        // when
+        try ( IndexUpdater first = accessor.newUpdater( ONLINE );
+              IndexUpdater second = accessor.newUpdater( ONLINE ) )
+        {
+            for ( int i = 0; i < updates.length; i++ )
+            {
+                ( i < half ? first : second ).process( updates[i] );
+            }
         }
+
+        // then
+        forceAndCloseAccessor();
+        verifyUpdates( updates );
     }
 
     @Test
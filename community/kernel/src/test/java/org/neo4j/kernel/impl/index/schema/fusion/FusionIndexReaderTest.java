@@ -48,6 +48,7 @@ import org.neo4j.values.storable.PointValue;
 import org.neo4j.values.storable.Value;
 import org.neo4j.values.storable.Values;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assume.assumeTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -379,6 +380,50 @@ public class FusionIndexReaderTest
         }
     }
 
+    /* partitionedQuery */
+
+    @Test
+    public void partitionedQueryMustSelectCorrectReader()
+    {
+        // given
+        IndexQuery indexQuery = IndexQuery.exact( PROP_KEY, 1 );
+        IndexReader expectedReader = expectedForNumbers();
+        when( expectedReader.supportsPartitionedQuery( indexQuery ) ).thenReturn( true );
+
+        // when
+        boolean supported = fusionIndexReader.supportsPartitionedQuery( indexQuery );
+        fusionIndexReader.partitionedQuery( 4, false, indexQuery );
+
+        // then
+        assertTrue( supported );
+        verify( expectedReader ).partitionedQuery( 4, false, indexQuery );
+    }
+
+    @Test
+    public void mustNotSupportPartitionedQueryIfSelectedReaderDoesNot()
+    {
+        // given
+        IndexQuery indexQuery = IndexQuery.exact( PROP_KEY, 1 );
+        when( expectedForNumbers().supportsPartitionedQuery( indexQuery ) ).thenReturn( false );
+
+        // then
+        assertFalse( fusionIndexReader.supportsPartitionedQuery( indexQuery ) );
+    }
+
+    @Test
+    public void mustNotSupportPartitionedQueryForExistsPredicate()
+    {
+        // given
+        IndexQuery exists = IndexQuery.exists( PROP_KEY );
+
+        // then
+        assertFalse( fusionIndexReader.supportsPartitionedQuery( exists ) );
+        for ( IndexReader aliveReader : aliveReaders )
+        {
+            verifyNoMoreInteractions( aliveReader );
+        }
+    }
+
     @Test
     public void shouldInstantiatePartLazilyForSpecificValueGroupQuery() throws IndexNotApplicableKernelException
     {
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.OpenOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+import org.neo4j.graphdb.config.InvalidSettingException;
+import org.neo4j.io.pagecache.PageCacheQuota;
+import org.neo4j.kernel.configuration.Config;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_quotas;
+
+public class PageCacheQuotasTest
+{
+    @Test
+    public void shouldHaveNoQuotasByDefault()
+    {
+        assertTrue( PageCacheQuotas.quotas( Config.defaults() ).isEmpty() );
+    }
+
+    @Test
+    public void shouldParseReservationsAndMaximums()
+    {
+        Config config = Config.defaults( pagecache_quotas, "neostore.nodestore.db=0.1, neostore.relationshipstore.db=0.2:0.6" );
+
+        Map<String,PageCacheQuota> quotas = PageCacheQuotas.quotas( config );
+
+        assertEquals( 2, quotas.size() );
+        assertEquals( PageCacheQuota.reserve( 0.1 ), quotas.get( "neostore.nodestore.db" ) );
+        assertEquals( PageCacheQuota.quota( 0.2, 0.6 ), quotas.get( "neostore.relationshipstore.db" ) );
+    }
+
+    @Test
+    public void shouldAddQuotaOnlyToConfiguredFiles()
+    {
+        Config config = Config.defaults( pagecache_quotas, "neostore.nodestore.db=0.1" );
+        OpenOption[] options = {StandardOpenOption.CREATE};
+
+        assertArrayEquals( new OpenOption[]{StandardOpenOption.CREATE, PageCacheQuota.reserve( 0.1 )},
+                PageCacheQuotas.withQuota( config, new File( "db", "neostore.nodestore.db" ), options ) );
+        assertArrayEquals( options, PageCacheQuotas.withQuota( config, new File( "db", "neostore.propertystore.db" ), options ) );
+    }
+
+    @Test( expected = InvalidSettingException.class )
+    public void shouldRejectEntryWithoutFileName()
+    {
+        PageCacheQuotas.quotas( Config.defaults( pagecache_quotas, "0.1" ) );
+    }
+
+    @Test( expected = InvalidSettingException.class )
+    public void shouldRejectInvalidRatios()
+    {
+        PageCacheQuotas.quotas( Config.defaults( pagecache_quotas, "neostore.nodestore.db=0.5:0.1" ) );
+    }
+
+    @Test( expected = InvalidSettingException.class )
+    public void shouldRejectNonNumericRatio()
+    {
+        PageCacheQuotas.quotas( Config.defaults( pagecache_quotas, "neostore.nodestore.db=lots" ) );
+    }
+
+    @Test( expected = InvalidSettingException.class )
+    public void shouldRejectTwoQuotasForTheSameFile()
+    {
+        PageCacheQuotas.quotas( Config.defaults( pagecache_quotas, "neostore.nodestore.db=0.1,neostore.nodestore.db=0.2" ) );
+    }
+}
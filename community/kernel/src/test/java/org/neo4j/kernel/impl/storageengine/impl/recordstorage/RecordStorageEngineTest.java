@@ -67,6 +67,7 @@ import org.neo4j.kernel.impl.transaction.log.TransactionIdStore;
 import org.neo4j.kernel.internal.DatabaseHealth;
 import org.neo4j.storageengine.api.CommandsToApply;
 import org.neo4j.storageengine.api.StorageCommand;
+import org.neo4j.storageengine.api.StorageReader;
 import org.neo4j.storageengine.api.StoreFileMetadata;
 import org.neo4j.storageengine.api.TransactionApplicationMode;
 import org.neo4j.test.rule.PageCacheRule;
@@ -77,7 +78,9 @@ import org.neo4j.test.rule.fs.EphemeralFileSystemRule;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
@@ -206,15 +209,38 @@ public class RecordStorageEngineTest
         RecordStorageEngine engine = buildRecordStorageEngine();
         final Collection<StoreFileMetadata> files = engine.listStorageFiles();
         Set<File> currentFiles = files.stream().map( StoreFileMetadata::file ).collect( Collectors.toSet() );
-        // current engine files should contain everything except another count store file and label scan store
+        // current engine files should contain everything except another count store file and the scan stores
         DatabaseLayout databaseLayout = testDirectory.databaseLayout();
         Set<File> allPossibleFiles = databaseLayout.storeFiles();
         allPossibleFiles.remove( databaseLayout.countStoreB() );
         allPossibleFiles.remove( databaseLayout.labelScanStore() );
+        allPossibleFiles.remove( databaseLayout.relationshipTypeScanStore() );
 
         assertEquals( currentFiles, allPossibleFiles );
     }
 
+    @Test
+    public void shouldSkipMissingRelationshipTypeScanStoreWhenReadOnly()
+    {
+        // given a database without a relationship type scan store
+        RecordStorageEngine writableEngine = buildRecordStorageEngine();
+        writableEngine.flushAndForce( IOLimiter.UNLIMITED );
+        storageEngineRule.shutdown( writableEngine );
+        File relationshipTypeScanStore = testDirectory.databaseLayout().relationshipTypeScanStore();
+        assertTrue( fsRule.get().deleteFile( relationshipTypeScanStore ) );
+
+        // when
+        RecordStorageEngine engine = recordStorageEngineBuilder().readOnly().build();
+
+        // then
+        assertNull( engine.relationshipTypeScanStore() );
+        try ( StorageReader reader = engine.newReader() )
+        {
+            assertNull( reader.getRelationshipTypeScanReader() );
+        }
+        assertFalse( fsRule.get().fileExists( relationshipTypeScanStore ) );
+    }
+
     @Test
     public void shouldCloseLockGroupAfterAppliers() throws Exception
     {
@@ -46,7 +46,7 @@ public class RecordStorageReaderTest
 
         when( scanStore.get() ).thenReturn( scanReader );
         RecordStorageReader statement = new RecordStorageReader( null, null, MockedNeoStores.basicMockedNeoStores(), null, null,
-                mock( Supplier.class ), scanStore, mock( RecordStorageCommandCreationContext.class ) );
+                mock( Supplier.class ), scanStore, mock( Supplier.class ), mock( RecordStorageCommandCreationContext.class ) );
         statement.acquire();
 
         // when
@@ -65,4 +65,33 @@ public class RecordStorageReaderTest
         verify( scanReader ).close();
         verifyNoMoreInteractions( scanReader );
     }
+
+    @Test
+    public void shouldCloseOpenedRelationshipTypeScanReader()
+    {
+        // given
+        Supplier<LabelScanReader> scanStore = mock( Supplier.class );
+        LabelScanReader scanReader = mock( LabelScanReader.class );
+
+        when( scanStore.get() ).thenReturn( scanReader );
+        RecordStorageReader statement = new RecordStorageReader( null, null, MockedNeoStores.basicMockedNeoStores(), null, null,
+                mock( Supplier.class ), mock( Supplier.class ), scanStore, mock( RecordStorageCommandCreationContext.class ) );
+        statement.acquire();
+
+        // when
+        LabelScanReader actualReader = statement.getRelationshipTypeScanReader();
+
+        // then
+        assertEquals( scanReader, actualReader );
+
+        // when
+        statement.close();
+
+        // then
+        verify( scanStore ).get();
+        verifyNoMoreInteractions( scanStore );
+
+        verify( scanReader ).close();
+        verifyNoMoreInteractions( scanReader );
+    }
 }
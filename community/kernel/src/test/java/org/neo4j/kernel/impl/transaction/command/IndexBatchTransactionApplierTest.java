@@ -44,12 +44,16 @@ import org.neo4j.kernel.impl.store.PropertyStore;
 import org.neo4j.kernel.impl.store.RelationshipStore;
 import org.neo4j.kernel.impl.store.record.DynamicRecord;
 import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
 import org.neo4j.kernel.impl.transaction.command.Command.NodeCommand;
+import org.neo4j.kernel.impl.transaction.command.Command.RelationshipCommand;
 import org.neo4j.storageengine.api.EntityType;
 import org.neo4j.storageengine.api.schema.SchemaRule;
 import org.neo4j.storageengine.api.schema.StoreIndexDescriptor;
+import org.neo4j.util.concurrent.StripedWorkSync;
 import org.neo4j.util.concurrent.WorkSync;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -72,13 +76,13 @@ public class IndexBatchTransactionApplierTest
         IndexingService indexing = mock( IndexingService.class );
         when( indexing.convertToIndexUpdates( any(), eq( EntityType.NODE ) ) ).thenAnswer( o -> Iterables.empty() );
         LabelScanWriter writer = new OrderVerifyingLabelScanWriter( 10, 15, 20 );
-        WorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> labelScanSync =
-                spy( new WorkSync<>( singletonProvider( writer ) ) );
+        StripedWorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> labelScanSync =
+                spy( new StripedWorkSync<>( singletonProvider( writer ), 1 ) );
         WorkSync<IndexingUpdateService,IndexUpdatesWork> indexUpdatesSync = new WorkSync<>( indexing );
         TransactionToApply tx = mock( TransactionToApply.class );
         PropertyStore propertyStore = mock( PropertyStore.class );
-        try ( IndexBatchTransactionApplier applier = new IndexBatchTransactionApplier( indexing, labelScanSync, indexUpdatesSync, mock( NodeStore.class ),
-                mock( RelationshipStore.class ), propertyStore, new IndexActivator( indexing ) ) )
+        try ( IndexBatchTransactionApplier applier = new IndexBatchTransactionApplier( indexing, labelScanSync, noUpdates(),
+                indexUpdatesSync, mock( NodeStore.class ), mock( RelationshipStore.class ), propertyStore, new IndexActivator( indexing ) ) )
         {
             try ( TransactionApplier txApplier = applier.startTx( tx ) )
             {
@@ -92,14 +96,48 @@ public class IndexBatchTransactionApplierTest
         verify( labelScanSync ).applyAsync( any() );
     }
 
+    @Test
+    public void shouldProvideRelationshipTypeScanStoreUpdatesForCreatedAndDeletedRelationships() throws Exception
+    {
+        // GIVEN
+        IndexingService indexing = mock( IndexingService.class );
+        when( indexing.convertToIndexUpdates( any(), any() ) ).thenAnswer( o -> Iterables.empty() );
+        List<NodeLabelUpdate> updates = new ArrayList<>();
+        StripedWorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> relationshipTypeScanSync =
+                new StripedWorkSync<>( singletonProvider( new CollectingLabelScanWriter( updates ) ), 1 );
+        WorkSync<IndexingUpdateService,IndexUpdatesWork> indexUpdatesSync = new WorkSync<>( indexing );
+        TransactionToApply tx = mock( TransactionToApply.class );
+        try ( IndexBatchTransactionApplier applier = new IndexBatchTransactionApplier( indexing, noUpdates(), relationshipTypeScanSync,
+                indexUpdatesSync, mock( NodeStore.class ), mock( RelationshipStore.class ), mock( PropertyStore.class ),
+                new IndexActivator( indexing ) ) )
+        {
+            try ( TransactionApplier txApplier = applier.startTx( tx ) )
+            {
+                // WHEN
+                txApplier.visitRelationshipCommand( relationship( 20, false, true, 3 ) );
+                txApplier.visitRelationshipCommand( relationship( 15, true, true, 4 ) );
+                txApplier.visitRelationshipCommand( relationship( 10, true, false, 5 ) );
+            }
+        }
+
+        // THEN
+        assertEquals( 2, updates.size() );
+        assertEquals( 10, updates.get( 0 ).getNodeId() );
+        assertArrayEquals( new long[]{5}, updates.get( 0 ).getLabelsBefore() );
+        assertArrayEquals( new long[0], updates.get( 0 ).getLabelsAfter() );
+        assertEquals( 20, updates.get( 1 ).getNodeId() );
+        assertArrayEquals( new long[0], updates.get( 1 ).getLabelsBefore() );
+        assertArrayEquals( new long[]{3}, updates.get( 1 ).getLabelsAfter() );
+    }
+
     @Test
     public void shouldRegisterIndexesToActivateIntoTheActivator() throws Exception
     {
         // given
         IndexingService indexing = mock( IndexingService.class );
         LabelScanWriter writer = new OrderVerifyingLabelScanWriter( 10, 15, 20 );
-        WorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> labelScanSync =
-                spy( new WorkSync<>( singletonProvider( writer ) ) );
+        StripedWorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> labelScanSync =
+                spy( new StripedWorkSync<>( singletonProvider( writer ), 1 ) );
         WorkSync<IndexingUpdateService,IndexUpdatesWork> indexUpdatesSync = new WorkSync<>( indexing );
         PropertyStore propertyStore = mock( PropertyStore.class );
         TransactionToApply tx = mock( TransactionToApply.class );
@@ -114,7 +152,7 @@ public class IndexBatchTransactionApplierTest
         StoreIndexDescriptor rule1 = uniqueForSchema( forLabel( 1, 1 ), providerDescriptor ).withIds( indexId1, constraintId1 );
         StoreIndexDescriptor rule2 = uniqueForSchema( forLabel( 2, 1 ), providerDescriptor ).withIds( indexId2, constraintId2 );
         StoreIndexDescriptor rule3 = uniqueForSchema( forLabel( 3, 1 ), providerDescriptor ).withIds( indexId3, constraintId3 );
-        try ( IndexBatchTransactionApplier applier = new IndexBatchTransactionApplier( indexing, labelScanSync,
+        try ( IndexBatchTransactionApplier applier = new IndexBatchTransactionApplier( indexing, labelScanSync, noUpdates(),
                 indexUpdatesSync, mock( NodeStore.class ), mock( RelationshipStore.class ),
                 propertyStore, indexActivator ) )
         {
@@ -157,6 +195,20 @@ public class IndexBatchTransactionApplierTest
         return () -> writer;
     }
 
+    private StripedWorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> noUpdates()
+    {
+        return new StripedWorkSync<>( singletonProvider( new OrderVerifyingLabelScanWriter() ), 1 );
+    }
+
+    private RelationshipCommand relationship( long relationshipId, boolean inUseBefore, boolean inUseAfter, int type )
+    {
+        RelationshipRecord before = new RelationshipRecord( relationshipId, 1, 2, type );
+        before.setInUse( inUseBefore );
+        RelationshipRecord after = new RelationshipRecord( relationshipId, 1, 2, type );
+        after.setInUse( inUseAfter );
+        return new RelationshipCommand( before, after );
+    }
+
     private NodeCommand node( long nodeId )
     {
         NodeRecord after = new NodeRecord( nodeId,
@@ -166,6 +218,27 @@ public class IndexBatchTransactionApplierTest
         return new NodeCommand( new NodeRecord( nodeId ), after );
     }
 
+    private static class CollectingLabelScanWriter implements LabelScanWriter
+    {
+        private final List<NodeLabelUpdate> updates;
+
+        CollectingLabelScanWriter( List<NodeLabelUpdate> updates )
+        {
+            this.updates = updates;
+        }
+
+        @Override
+        public void write( NodeLabelUpdate update )
+        {
+            updates.add( update );
+        }
+
+        @Override
+        public void close()
+        {   // Nothing to close
+        }
+    }
+
     private static class OrderVerifyingLabelScanWriter implements LabelScanWriter
     {
         private final long[] expectedNodeIds;
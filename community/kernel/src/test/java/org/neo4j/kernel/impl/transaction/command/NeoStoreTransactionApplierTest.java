@@ -70,6 +70,7 @@ import org.neo4j.kernel.impl.transaction.command.Command.RelationshipTypeTokenCo
 import org.neo4j.kernel.impl.transaction.command.CommandHandlerContract.ApplyFunction;
 import org.neo4j.storageengine.api.schema.IndexDescriptorFactory;
 import org.neo4j.storageengine.api.schema.StoreIndexDescriptor;
+import org.neo4j.util.concurrent.StripedWorkSync;
 import org.neo4j.util.concurrent.WorkSync;
 
 import static java.util.Arrays.asList;
@@ -111,8 +112,10 @@ public class NeoStoreTransactionApplierTest
     private final DynamicRecord one = DynamicRecord.dynamicRecord( 1, true );
     private final DynamicRecord two = DynamicRecord.dynamicRecord( 2, true );
     private final DynamicRecord three = DynamicRecord.dynamicRecord( 3, true );
-    private final WorkSync<Supplier<LabelScanWriter>,LabelUpdateWork>
-            labelScanStoreSynchronizer = new WorkSync<>( labelScanStore );
+    private final StripedWorkSync<Supplier<LabelScanWriter>,LabelUpdateWork>
+            labelScanStoreSynchronizer = new StripedWorkSync<>( labelScanStore, 1 );
+    private final StripedWorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> relationshipTypeScanStoreSynchronizer =
+            new StripedWorkSync<>( labelScanStore, 1 );
     private final TransactionToApply transactionToApply = mock( TransactionToApply.class );
     private final WorkSync<IndexingUpdateService,IndexUpdatesWork> indexUpdatesSync = new WorkSync<>( indexingService );
     private final IndexActivator indexActivator = new IndexActivator( indexingService );
@@ -909,7 +912,7 @@ public class NeoStoreTransactionApplierTest
 
     private BatchTransactionApplier newIndexApplier()
     {
-        return new IndexBatchTransactionApplier( indexingService, labelScanStoreSynchronizer,
+        return new IndexBatchTransactionApplier( indexingService, labelScanStoreSynchronizer, relationshipTypeScanStoreSynchronizer,
                 indexUpdatesSync, nodeStore, neoStores.getRelationshipStore(), propertyStore, indexActivator );
     }
 
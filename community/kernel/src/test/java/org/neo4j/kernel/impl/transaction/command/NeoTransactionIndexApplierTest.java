@@ -44,6 +44,7 @@ import org.neo4j.kernel.impl.store.record.NodeRecord;
 import org.neo4j.storageengine.api.EntityType;
 import org.neo4j.storageengine.api.schema.IndexDescriptorFactory;
 import org.neo4j.storageengine.api.schema.StoreIndexDescriptor;
+import org.neo4j.util.concurrent.StripedWorkSync;
 import org.neo4j.util.concurrent.WorkSync;
 
 import static java.util.Collections.singleton;
@@ -64,8 +65,10 @@ public class NeoTransactionIndexApplierTest
     @SuppressWarnings( "unchecked" )
     private final Supplier<LabelScanWriter> labelScanStore = mock( Supplier.class );
     private final Collection<DynamicRecord> emptyDynamicRecords = Collections.emptySet();
-    private final WorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> labelScanStoreSynchronizer =
-            new WorkSync<>( labelScanStore );
+    private final StripedWorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> labelScanStoreSynchronizer =
+            new StripedWorkSync<>( labelScanStore, 1 );
+    private final StripedWorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> relationshipTypeScanStoreSynchronizer =
+            new StripedWorkSync<>( labelScanStore, 1 );
     private final WorkSync<IndexingUpdateService,IndexUpdatesWork> indexUpdatesSync = new WorkSync<>( indexingService );
     private final TransactionToApply transactionToApply = mock( TransactionToApply.class );
 
@@ -103,7 +106,8 @@ public class NeoTransactionIndexApplierTest
     private IndexBatchTransactionApplier newIndexTransactionApplier()
     {
         PropertyStore propertyStore = mock( PropertyStore.class );
-        return new IndexBatchTransactionApplier( indexingService, labelScanStoreSynchronizer, indexUpdatesSync, mock( NodeStore.class ),
+        return new IndexBatchTransactionApplier( indexingService, labelScanStoreSynchronizer, relationshipTypeScanStoreSynchronizer,
+                indexUpdatesSync, mock( NodeStore.class ),
                 mock( RelationshipStore.class ), propertyStore, new IndexActivator( indexingService ) );
     }
 
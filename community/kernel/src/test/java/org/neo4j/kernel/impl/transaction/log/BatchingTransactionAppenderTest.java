@@ -29,14 +29,17 @@ import org.mockito.Mockito;
 
 import java.io.Flushable;
 import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import org.neo4j.kernel.impl.api.TransactionToApply;
 import org.neo4j.kernel.impl.store.record.NodeRecord;
 import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.command.Command.NodeCommand;
+import org.neo4j.kernel.impl.transaction.log.entry.CommandCompression;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryStart;
@@ -52,11 +55,13 @@ import org.neo4j.storageengine.api.StorageCommand;
 import org.neo4j.test.rule.CleanupRule;
 
 import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyByte;
@@ -72,6 +77,8 @@ import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.neo4j.kernel.impl.transaction.log.TransactionLogPositionIndex.NO_INDEX;
+import static org.neo4j.kernel.impl.transaction.log.TransactionLogTailMarker.NO_MARKER;
 import static org.neo4j.kernel.impl.transaction.log.rotation.LogRotation.NO_ROTATION;
 import static org.neo4j.kernel.impl.util.IdOrderingQueue.BYPASS;
 
@@ -153,6 +160,39 @@ public class BatchingTransactionAppenderTest
         assertNull( tx.next() );
     }
 
+    @Test
+    public void shouldAppendCompressedTransactions() throws Exception
+    {
+        // GIVEN
+        when( logFile.getWriter() ).thenReturn( channel );
+        when( transactionIdStore.nextCommittingTransactionId() ).thenReturn( 2L );
+        CommandCompression compression = CommandCompression.create( true );
+        TransactionAppender appender = life.add( new BatchingTransactionAppender( logFiles, NO_ROTATION,
+                positionCache, NO_INDEX, NO_MARKER, transactionIdStore, BYPASS, databaseHealth, compression, Duration.ZERO,
+                BatchingTransactionAppender.NO_MONITOR ) );
+        Collection<StorageCommand> commands = new ArrayList<>();
+        for ( int i = 0; i < 100; i++ )
+        {
+            commands.addAll( singleCreateNodeCommand( i ) );
+        }
+        TransactionRepresentation transaction = transaction( commands, new byte[]{1, 2, 5}, 2, 1, 12345, 4545, 12355 );
+
+        // WHEN
+        appender.append( new TransactionToApply( transaction ), logAppendEvent );
+
+        // THEN
+        assertThat( compression.compressedBytes(), greaterThan( 0L ) );
+        final LogEntryReader<ReadableLogChannel> logEntryReader = new VersionAwareLogEntryReader<>();
+        try ( PhysicalTransactionCursor<ReadableLogChannel> reader =
+                      new PhysicalTransactionCursor<>( channel, logEntryReader ) )
+        {
+            assertTrue( reader.next() );
+            CommittedTransactionRepresentation tx = reader.get();
+            assertEquals( 2L, tx.getCommitEntry().getTxId() );
+            assertEquals( transaction, tx.getTransactionRepresentation() );
+        }
+    }
+
     @Test
     public void shouldAppendCommittedTransactions() throws Exception
     {
@@ -249,7 +289,7 @@ public class BatchingTransactionAppenderTest
         FlushablePositionAwareChannel channel =
                 spy( new PositionAwarePhysicalFlushableChannel( mock( PhysicalLogVersionedStoreChannel.class ) ) );
         IOException failure = new IOException( failureMessage );
-        when( channel.putInt( anyInt() ) ).thenThrow( failure );
+        when( channel.put( any( byte[].class ), anyInt() ) ).thenThrow( failure );
         when( logFile.getWriter() ).thenReturn( channel );
         when( transactionIdStore.nextCommittingTransactionId() ).thenReturn( txId );
         Mockito.reset( databaseHealth );
@@ -369,7 +409,9 @@ public class BatchingTransactionAppenderTest
         // Given
         BatchingTransactionAppender appender = life.add( createTransactionAppender() );
         when( transactionIdStore.nextCommittingTransactionId() ).thenReturn( 42L );
-        TransactionToApply batch = new TransactionToApply( mock( TransactionRepresentation.class ), 43L );
+        TransactionRepresentation transaction = mock( TransactionRepresentation.class );
+        when( transaction.additionalHeader() ).thenReturn( new byte[0] );
+        TransactionToApply batch = new TransactionToApply( transaction, 43L );
 
         // When
         try
@@ -385,6 +427,60 @@ public class BatchingTransactionAppenderTest
 
     }
 
+    @Test
+    public void shouldNotKernelPanicIfTransactionFailsToSerialize() throws Exception
+    {
+        // GIVEN
+        when( logFile.getWriter() ).thenReturn( channel );
+        BatchingTransactionAppender appender = life.add( createTransactionAppender() );
+        IOException failure = new IOException( "Forces a failure" );
+        TransactionRepresentation transaction = mock( TransactionRepresentation.class );
+        when( transaction.additionalHeader() ).thenReturn( new byte[0] );
+        doThrow( failure ).when( transaction ).accept( any() );
+
+        // WHEN
+        try
+        {
+            appender.append( new TransactionToApply( transaction ), logAppendEvent );
+            fail( "Expected append to fail. Something is wrong with the test itself" );
+        }
+        catch ( IOException e )
+        {
+            // THEN nothing was written to the log, so there is no need to panic
+            assertSame( failure, e );
+            verify( transactionIdStore, never() ).nextCommittingTransactionId();
+            verify( databaseHealth, never() ).panic( any() );
+            assertEquals( 0, channel.writerPosition() );
+        }
+    }
+
+    @Test
+    public void shouldNotDelayForceOfSingleCommitter() throws Exception
+    {
+        // GIVEN
+        when( logFile.getWriter() ).thenReturn( channel );
+        when( transactionIdStore.nextCommittingTransactionId() ).thenReturn( 2L, 3L );
+        List<long[]> forces = new ArrayList<>();
+        BatchingTransactionAppender appender = life.add( new BatchingTransactionAppender( logFiles, NO_ROTATION,
+                positionCache, NO_INDEX, NO_MARKER, transactionIdStore, BYPASS, databaseHealth, CommandCompression.DISABLED,
+                Duration.ofMinutes( 10 ),
+                ( batchSize, groupCommitWaitNanos, forceNanos ) ->
+                        forces.add( new long[]{batchSize, groupCommitWaitNanos} ) ) );
+
+        // WHEN
+        appender.append( new TransactionToApply( transaction( singleCreateNodeCommand( 0 ),
+                new byte[0], 0, 0, 0, 1, 0 ) ), logAppendEvent );
+        appender.append( new TransactionToApply( transaction( singleCreateNodeCommand( 1 ),
+                new byte[0], 0, 0, 0, 2, 0 ) ), logAppendEvent );
+
+        // THEN
+        assertEquals( 2, forces.size() );
+        for ( long[] force : forces )
+        {
+            assertArrayEquals( new long[]{1, 0}, force );
+        }
+    }
+
     private BatchingTransactionAppender createTransactionAppender()
     {
         return new BatchingTransactionAppender( logFiles, NO_ROTATION, positionCache, transactionIdStore, BYPASS, databaseHealth );
@@ -31,17 +31,24 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.io.ByteUnit;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.OpenMode;
 import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.impl.transaction.SimpleLogVersionRepository;
 import org.neo4j.kernel.impl.transaction.SimpleTransactionIdStore;
 import org.neo4j.kernel.impl.transaction.log.entry.IncompleteLogHeaderException;
+import org.neo4j.kernel.impl.transaction.log.entry.CheckPoint;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryWriter;
 import org.neo4j.kernel.impl.transaction.log.entry.LogHeader;
+import org.neo4j.kernel.impl.transaction.log.entry.VersionAwareLogEntryReader;
 import org.neo4j.kernel.impl.transaction.log.files.LogFile;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
 import org.neo4j.kernel.impl.transaction.log.files.LogFilesBuilder;
 import org.neo4j.kernel.lifecycle.LifeRule;
+import org.neo4j.kernel.lifecycle.LifeSupport;
 import org.neo4j.test.rule.TestDirectory;
 import org.neo4j.test.rule.fs.DefaultFileSystemRule;
 
@@ -56,6 +63,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.neo4j.kernel.impl.transaction.log.TransactionIdStore.BASE_TX_COMMIT_TIMESTAMP;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogHeader.LOG_HEADER_SIZE;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogHeaderReader.readLogHeader;
 
 public class TransactionLogFileTest
@@ -285,6 +293,64 @@ public class TransactionLogFileTest
         }
     }
 
+    @Test
+    public void shouldPreallocateLogFilesAndContinueWritingAtTheirLogicalEnd() throws Exception
+    {
+        // GIVEN
+        FileSystemAbstraction fs = fileSystemRule.get();
+        long rotationThreshold = ByteUnit.mebiBytes( 1 );
+        LifeSupport firstLife = new LifeSupport();
+        LogFiles logFiles = firstLife.add( preallocatedLogFiles( fs, rotationThreshold ) );
+        firstLife.start();
+        File firstLogFile = logFiles.getLogFileForVersion( 1 );
+        assertEquals( rotationThreshold, fs.getFileSize( firstLogFile ) );
+        LogPosition firstEnd = writeCheckPoint( logFiles.getLogFile() );
+        firstLife.shutdown();
+
+        // WHEN
+        LifeSupport secondLife = new LifeSupport();
+        logFiles = secondLife.add( preallocatedLogFiles( fs, rotationThreshold ) );
+        secondLife.start();
+        LogFile logFile = logFiles.getLogFile();
+        LogPosition secondStart = logFile.getWriter().getCurrentPosition( new LogPositionMarker() ).newPosition();
+        LogPosition secondEnd = writeCheckPoint( logFile );
+        logFile.rotate();
+
+        // THEN
+        assertEquals( firstEnd, secondStart );
+        assertEquals( secondEnd.getByteOffset(), fs.getFileSize( firstLogFile ) );
+        assertEquals( rotationThreshold, fs.getFileSize( logFiles.getLogFileForVersion( 2 ) ) );
+        int checkPoints = 0;
+        try ( LogEntryCursor cursor = new LogEntryCursor( new VersionAwareLogEntryReader<>(),
+                logFile.getReader( new LogPosition( 1, LOG_HEADER_SIZE ) ) ) )
+        {
+            while ( cursor.next() )
+            {
+                assertTrue( cursor.get() instanceof CheckPoint );
+                checkPoints++;
+            }
+        }
+        assertEquals( 2, checkPoints );
+        secondLife.shutdown();
+    }
+
+    private LogFiles preallocatedLogFiles( FileSystemAbstraction fs, long rotationThreshold ) throws IOException
+    {
+        return LogFilesBuilder.builder( directory.databaseLayout(), fs )
+                .withTransactionIdStore( transactionIdStore )
+                .withLogVersionRepository( logVersionRepository )
+                .withRotationThreshold( rotationThreshold )
+                .withConfig( Config.defaults( GraphDatabaseSettings.tx_log_preallocate, "true" ) ).build();
+    }
+
+    private static LogPosition writeCheckPoint( LogFile logFile ) throws IOException
+    {
+        FlushablePositionAwareChannel writer = logFile.getWriter();
+        new TransactionLogWriter( new LogEntryWriter( writer ) ).checkPoint( new LogPosition( 1, LOG_HEADER_SIZE ) );
+        writer.prepareForFlush().flush();
+        return writer.getCurrentPosition( new LogPositionMarker() ).newPosition();
+    }
+
     private static byte[] readBytes( ReadableClosableChannel reader, int length ) throws IOException
     {
         byte[] result = new byte[length];
@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Collections;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.OpenMode;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.kernel.impl.api.TransactionToApply;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.transaction.SimpleLogVersionRepository;
+import org.neo4j.kernel.impl.transaction.SimpleTransactionIdStore;
+import org.neo4j.kernel.impl.transaction.command.Command;
+import org.neo4j.kernel.impl.transaction.log.entry.CommandCompression;
+import org.neo4j.kernel.impl.transaction.log.entry.VersionAwareLogEntryReader;
+import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
+import org.neo4j.kernel.impl.transaction.log.files.LogFilesBuilder;
+import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.kernel.internal.DatabaseHealth;
+import org.neo4j.kernel.lifecycle.LifeSupport;
+import org.neo4j.kernel.monitoring.Monitors;
+import org.neo4j.test.OnDemandJobScheduler;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.rule.fs.DefaultFileSystemRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogHeader.LOG_HEADER_SIZE;
+import static org.neo4j.kernel.impl.transaction.log.rotation.LogRotation.NO_ROTATION;
+import static org.neo4j.kernel.impl.util.IdOrderingQueue.BYPASS;
+
+public class TransactionLogPositionIndexTest
+{
+    @Rule
+    public final DefaultFileSystemRule fileSystemRule = new DefaultFileSystemRule();
+    @Rule
+    public final TestDirectory dir = TestDirectory.testDirectory();
+
+    private final LifeSupport life = new LifeSupport();
+    private final SimpleTransactionIdStore transactionIdStore = new SimpleTransactionIdStore();
+    private final OnDemandJobScheduler jobScheduler = new OnDemandJobScheduler();
+    private FileSystemAbstraction fs;
+    private LogFiles logFiles;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        fs = fileSystemRule.get();
+        logFiles = LogFilesBuilder.builder( dir.databaseLayout(), fs )
+                .withTransactionIdStore( transactionIdStore )
+                .withLogVersionRepository( new SimpleLogVersionRepository() ).build();
+        life.add( logFiles );
+        life.start();
+    }
+
+    @After
+    public void tearDown()
+    {
+        life.shutdown();
+    }
+
+    @Test
+    public void shouldFindClosestIndexedPositionInCurrentVersion()
+    {
+        TransactionLogPositionIndex index = new TransactionLogPositionIndex( fs, logFiles, jobScheduler, 100 );
+        index.transactionAppended( 1, position( 0, LOG_HEADER_SIZE ) );
+        index.transactionAppended( 2, position( 0, LOG_HEADER_SIZE + 50 ) );
+        index.transactionAppended( 3, position( 0, LOG_HEADER_SIZE + 120 ) );
+        index.transactionAppended( 4, position( 0, LOG_HEADER_SIZE + 230 ) );
+
+        assertEquals( position( 0, LOG_HEADER_SIZE ), lookup( index, 0, 1 ) );
+        assertEquals( position( 0, LOG_HEADER_SIZE ), lookup( index, 0, 2 ) );
+        assertEquals( position( 0, LOG_HEADER_SIZE + 120 ), lookup( index, 0, 3 ) );
+        assertEquals( position( 0, LOG_HEADER_SIZE + 230 ), lookup( index, 0, 10 ) );
+        assertNull( lookup( index, 1, 3 ) );
+    }
+
+    @Test
+    public void shouldPersistIndexOfRotatedVersion() throws IOException
+    {
+        TransactionLogPositionIndex index = new TransactionLogPositionIndex( fs, logFiles, jobScheduler, 100 );
+        index.transactionAppended( 1, position( 0, LOG_HEADER_SIZE ) );
+        index.transactionAppended( 2, position( 0, LOG_HEADER_SIZE + 120 ) );
+        logFiles.getLogFile().rotate();
+        index.transactionAppended( 3, position( 1, LOG_HEADER_SIZE ) );
+        jobScheduler.runJob();
+
+        assertTrue( fs.fileExists( index.indexFileForVersion( 0 ) ) );
+        TransactionLogPositionIndex reopened = new TransactionLogPositionIndex( fs, logFiles, jobScheduler, 100 );
+        assertEquals( position( 0, LOG_HEADER_SIZE + 120 ), lookup( reopened, 0, 2 ) );
+        assertNull( lookup( reopened, 1, 3 ) );
+    }
+
+    @Test
+    public void shouldWriteIndexOfRotatedVersionInBackgroundAndServeItFromMemoryUntilThen() throws IOException
+    {
+        TransactionLogPositionIndex index = new TransactionLogPositionIndex( fs, logFiles, jobScheduler, 100 );
+        index.transactionAppended( 1, position( 0, LOG_HEADER_SIZE ) );
+        index.transactionAppended( 2, position( 0, LOG_HEADER_SIZE + 120 ) );
+        logFiles.getLogFile().rotate();
+        index.transactionAppended( 3, position( 1, LOG_HEADER_SIZE ) );
+
+        assertFalse( fs.fileExists( index.indexFileForVersion( 0 ) ) );
+        assertEquals( position( 0, LOG_HEADER_SIZE + 120 ), lookup( index, 0, 2 ) );
+
+        jobScheduler.runJob();
+
+        assertTrue( fs.fileExists( index.indexFileForVersion( 0 ) ) );
+        assertEquals( position( 0, LOG_HEADER_SIZE + 120 ), lookup( index, 0, 2 ) );
+    }
+
+    @Test
+    public void shouldPersistCurrentVersionOnShutdownAndKeepIndexingItAfterRestart() throws IOException
+    {
+        TransactionLogPositionIndex index = new TransactionLogPositionIndex( fs, logFiles, jobScheduler, 100 );
+        index.start();
+        index.transactionAppended( 1, position( 0, LOG_HEADER_SIZE ) );
+        index.transactionAppended( 2, position( 0, LOG_HEADER_SIZE + 120 ) );
+        index.shutdown();
+
+        TransactionLogPositionIndex restarted = new TransactionLogPositionIndex( fs, logFiles, jobScheduler, 100 );
+        restarted.start();
+        assertEquals( position( 0, LOG_HEADER_SIZE + 120 ), lookup( restarted, 0, 2 ) );
+        restarted.transactionAppended( 3, position( 0, LOG_HEADER_SIZE + 240 ) );
+        assertEquals( position( 0, LOG_HEADER_SIZE + 240 ), lookup( restarted, 0, 3 ) );
+
+        logFiles.getLogFile().rotate();
+        restarted.transactionAppended( 4, position( 1, LOG_HEADER_SIZE ) );
+        jobScheduler.runJob();
+        TransactionLogPositionIndex reopened = new TransactionLogPositionIndex( fs, logFiles, jobScheduler, 100 );
+        assertEquals( position( 0, LOG_HEADER_SIZE ), lookup( reopened, 0, 1 ) );
+        assertEquals( position( 0, LOG_HEADER_SIZE + 240 ), lookup( reopened, 0, 3 ) );
+    }
+
+    @Test
+    public void shouldNotIndexVersionThatWasCurrentWhenCrashed() throws IOException
+    {
+        TransactionLogPositionIndex index = new TransactionLogPositionIndex( fs, logFiles, jobScheduler, 100 );
+        index.start();
+        index.transactionAppended( 1, position( 0, LOG_HEADER_SIZE ) );
+        index.transactionAppended( 2, position( 0, LOG_HEADER_SIZE + 120 ) );
+
+        // no shutdown, i.e. crash
+        TransactionLogPositionIndex restarted = new TransactionLogPositionIndex( fs, logFiles, jobScheduler, 100 );
+        restarted.start();
+        restarted.transactionAppended( 3, position( 0, LOG_HEADER_SIZE + 240 ) );
+
+        assertNull( lookup( restarted, 0, 2 ) );
+        logFiles.getLogFile().rotate();
+        restarted.transactionAppended( 4, position( 1, LOG_HEADER_SIZE ) );
+        jobScheduler.runJob();
+        assertFalse( fs.fileExists( restarted.indexFileForVersion( 0 ) ) );
+    }
+
+    @Test
+    public void shouldNotIndexVersionNotAppendedToFromItsStart() throws IOException
+    {
+        TransactionLogPositionIndex index = new TransactionLogPositionIndex( fs, logFiles, jobScheduler, 100 );
+        index.transactionAppended( 5, position( 0, LOG_HEADER_SIZE + 500 ) );
+        assertNull( lookup( index, 0, 5 ) );
+
+        logFiles.getLogFile().rotate();
+        index.transactionAppended( 6, position( 1, LOG_HEADER_SIZE ) );
+        jobScheduler.runJob();
+
+        assertFalse( fs.fileExists( index.indexFileForVersion( 0 ) ) );
+    }
+
+    @Test
+    public void shouldIgnoreAndDeleteIndexThatDoesNotMatchItsLogFile() throws IOException
+    {
+        TransactionLogPositionIndex index = new TransactionLogPositionIndex( fs, logFiles, jobScheduler, 100 );
+        index.transactionAppended( 1, position( 0, LOG_HEADER_SIZE ) );
+        logFiles.getLogFile().rotate();
+        index.transactionAppended( 2, position( 1, LOG_HEADER_SIZE ) );
+        jobScheduler.runJob();
+
+        try ( StoreChannel channel = fs.open( logFiles.getLogFileForVersion( 0 ), OpenMode.READ_WRITE ) )
+        {
+            channel.writeAll( ByteBuffer.wrap( new byte[]{1, 2, 3} ), channel.size() );
+        }
+
+        assertNull( lookup( new TransactionLogPositionIndex( fs, logFiles, jobScheduler, 100 ), 0, 1 ) );
+        assertFalse( fs.fileExists( index.indexFileForVersion( 0 ) ) );
+    }
+
+    @Test
+    public void shouldDeleteIndexesOfPrunedLogVersions() throws IOException
+    {
+        TransactionLogPositionIndex index = new TransactionLogPositionIndex( fs, logFiles, jobScheduler, 100 );
+        index.transactionAppended( 1, position( 0, LOG_HEADER_SIZE ) );
+        logFiles.getLogFile().rotate();
+        index.transactionAppended( 2, position( 1, LOG_HEADER_SIZE ) );
+        jobScheduler.runJob();
+        File prunedIndex = index.indexFileForVersion( 0 );
+        assertTrue( fs.fileExists( prunedIndex ) );
+
+        fs.deleteFile( logFiles.getLogFileForVersion( 0 ) );
+        logFiles.getLogFile().rotate();
+        index.transactionAppended( 3, position( 2, LOG_HEADER_SIZE ) );
+        jobScheduler.runJob();
+
+        assertFalse( fs.fileExists( prunedIndex ) );
+        assertTrue( fs.fileExists( index.indexFileForVersion( 1 ) ) );
+    }
+
+    @Test
+    public void shouldLocateTransactionsInRotatedLogsThroughIndex() throws Exception
+    {
+        TransactionMetadataCache metadataCache = new TransactionMetadataCache();
+        TransactionLogPositionIndex index = new TransactionLogPositionIndex( fs, logFiles, jobScheduler, 1 );
+        TransactionAppender appender = life.add( new BatchingTransactionAppender( logFiles, NO_ROTATION, metadataCache,
+                index, TransactionLogTailMarker.NO_MARKER, transactionIdStore, BYPASS, mock( DatabaseHealth.class ),
+                CommandCompression.DISABLED, Duration.ZERO, BatchingTransactionAppender.NO_MONITOR ) );
+        for ( int i = 0; i < 10; i++ )
+        {
+            appender.append( new TransactionToApply( transaction( i ) ), LogAppendEvent.NULL );
+        }
+        logFiles.getLogFile().rotate();
+        long firstTransactionInNextVersion = appender.append( new TransactionToApply( transaction( 10 ) ), LogAppendEvent.NULL );
+        jobScheduler.runJob();
+        assertTrue( fs.fileExists( index.indexFileForVersion( 0 ) ) );
+
+        LogicalTransactionStore store = new PhysicalLogicalTransactionStore( logFiles, metadataCache,
+                new TransactionLogPositionIndex( fs, logFiles ), new VersionAwareLogEntryReader<>(), new Monitors(), true );
+        for ( long txId = firstTransactionInNextVersion - 10; txId <= firstTransactionInNextVersion; txId++ )
+        {
+            metadataCache.clear();
+            try ( TransactionCursor cursor = store.getTransactions( txId ) )
+            {
+                assertTrue( cursor.next() );
+                assertEquals( txId, cursor.get().getCommitEntry().getTxId() );
+            }
+        }
+    }
+
+    private static LogPosition lookup( TransactionLogPositionIndex index, long logVersion, long transactionId )
+    {
+        try
+        {
+            return index.lookup( logVersion, transactionId );
+        }
+        catch ( IOException e )
+        {
+            throw new AssertionError( e );
+        }
+    }
+
+    private static LogPosition position( long logVersion, long byteOffset )
+    {
+        return new LogPosition( logVersion, byteOffset );
+    }
+
+    private static PhysicalTransactionRepresentation transaction( long nodeId )
+    {
+        NodeRecord after = new NodeRecord( nodeId, false, -1, -1, true );
+        PhysicalTransactionRepresentation transaction = new PhysicalTransactionRepresentation(
+                Collections.singletonList( new Command.NodeCommand( new NodeRecord( nodeId ), after ) ) );
+        transaction.setHeader( new byte[0], 0, 0, 0, 0, 0, -1 );
+        return transaction;
+    }
+}
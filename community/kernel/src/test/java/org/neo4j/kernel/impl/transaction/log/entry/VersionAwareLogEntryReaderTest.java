@@ -25,6 +25,8 @@ package org.neo4j.kernel.impl.transaction.log.entry;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.neo4j.kernel.impl.storageengine.impl.recordstorage.RecordStorageCommandReaderFactory;
 import org.neo4j.kernel.impl.store.record.NodeRecord;
@@ -32,12 +34,18 @@ import org.neo4j.kernel.impl.transaction.command.Command;
 import org.neo4j.kernel.impl.transaction.command.NeoCommandType;
 import org.neo4j.kernel.impl.transaction.log.InMemoryClosableChannel;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.log.ReadableClosablePositionAwareChannel;
+import org.neo4j.storageengine.api.StorageCommand;
 
 import static java.lang.System.currentTimeMillis;
 import static java.util.Collections.singletonList;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
 public class VersionAwareLogEntryReaderTest
 {
@@ -107,6 +115,56 @@ public class VersionAwareLogEntryReaderTest
         assertEquals( command, logEntry );
     }
 
+    @Test
+    public void shouldReadACompressedCommandsLogEntry() throws IOException
+    {
+        // given
+        List<StorageCommand> commands = new ArrayList<>();
+        for ( int i = 0; i < 100; i++ )
+        {
+            commands.add( new Command.NodeCommand( new NodeRecord( i ), new NodeRecord( i ) ) );
+        }
+        final InMemoryClosableChannel channel = new InMemoryClosableChannel();
+        CommandCompression compression = CommandCompression.create( true );
+        new LogEntryWriter( channel, compression ).serialize( new PhysicalTransactionRepresentation( commands ) );
+
+        // when
+        final LogEntry logEntry = logEntryReader.readLogEntry( channel );
+
+        // then
+        assertEquals( new LogEntryCompressedCommands( LogEntryVersion.CURRENT, commands ), logEntry );
+        assertNull( logEntryReader.readLogEntry( channel ) );
+        assertThat( compression.compressionRatio(), greaterThan( 1.0 ) );
+        assertEquals( channel.writerPosition(), compression.compressedBytes() + 10 );
+    }
+
+    @Test
+    public void shouldRejectCompressedCommandsLogEntryWithUnreasonableLengths()
+    {
+        assertUnreasonableCompressedLengths( Integer.MAX_VALUE, Integer.MAX_VALUE - 1 );
+        assertUnreasonableCompressedLengths( 1000, -1 );
+        assertUnreasonableCompressedLengths( 1000, 1000 );
+        assertUnreasonableCompressedLengths( -1000, 10 );
+    }
+
+    @Test
+    public void shouldNotCompressCommandsThatAreTooSmallToGainFromIt() throws IOException
+    {
+        // given
+        Command.NodeCommand nodeCommand = new Command.NodeCommand( new NodeRecord( 11 ), new NodeRecord( 11 ) );
+        final InMemoryClosableChannel channel = new InMemoryClosableChannel();
+        CommandCompression compression = CommandCompression.create( true );
+        new LogEntryWriter( channel, compression ).serialize( new PhysicalTransactionRepresentation(
+                singletonList( nodeCommand ) ) );
+
+        // when
+        final LogEntry logEntry = logEntryReader.readLogEntry( channel );
+
+        // then
+        assertEquals( new LogEntryCommand( LogEntryVersion.CURRENT, nodeCommand ), logEntry );
+        assertEquals( 0, compression.uncompressedBytes() );
+    }
+
     @Test
     public void shouldReadACheckPointLogEntry() throws IOException
     {
@@ -249,6 +307,29 @@ public class VersionAwareLogEntryReaderTest
         assertEquals( secondStartTime, readSecondStartEntry.getTimeWritten() );
     }
 
+    @Test
+    public void shouldTreatZeroEntryVersionAsEndOfPreallocatedLog() throws IOException
+    {
+        // given
+        InMemoryClosableChannel channel = new InMemoryClosableChannel( 1_000 );
+        LogEntryWriter writer = new LogEntryWriter( channel.writer() );
+        writer.writeCommitEntry( 4, currentTimeMillis() );
+        int logicalEnd = channel.writerPosition();
+        for ( int i = 0; i < 100; i++ )
+        {
+            channel.put( (byte) 0 );
+        }
+
+        // when
+        LogEntryCommit commit = logEntryReader.readLogEntry( channel.reader() ).as();
+        LogEntry end = logEntryReader.readLogEntry( channel.reader() );
+
+        // then
+        assertEquals( 4, commit.getTxId() );
+        assertNull( end );
+        assertEquals( logicalEnd, channel.readerPosition() );
+    }
+
     static class AcceptingInvalidLogEntryHandler extends InvalidLogEntryHandler
     {
         long bytesSkipped;
@@ -271,4 +352,27 @@ public class VersionAwareLogEntryReaderTest
             this.bytesSkipped += bytesSkipped;
         }
     }
+
+    private void assertUnreasonableCompressedLengths( int uncompressedLength, int compressedLength )
+    {
+        // given
+        final InMemoryClosableChannel channel = new InMemoryClosableChannel();
+        channel.put( LogEntryVersion.CURRENT.byteCode() );
+        channel.put( LogEntryByteCodes.COMPRESSED_COMMANDS );
+        channel.putInt( uncompressedLength );
+        channel.putInt( compressedLength );
+        channel.put( new byte[16], 16 );
+
+        // when
+        try
+        {
+            logEntryReader.readLogEntry( channel );
+            fail( "Should have rejected lengths " + uncompressedLength + " and " + compressedLength );
+        }
+        catch ( IOException e )
+        {
+            // then
+            assertThat( e.getMessage(), containsString( "Invalid compressed commands entry" ) );
+        }
+    }
 }
@@ -23,9 +23,14 @@
 package org.neo4j.kernel.impl.transaction.state;
 
 import org.eclipse.collections.impl.block.factory.primitive.IntPredicates;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Supplier;
 
 import org.neo4j.kernel.impl.api.index.StoreScan;
@@ -37,15 +42,20 @@ import org.neo4j.kernel.impl.store.PropertyStore;
 import org.neo4j.kernel.impl.store.record.NodeRecord;
 import org.neo4j.kernel.impl.store.record.RecordLoad;
 import org.neo4j.kernel.impl.transaction.state.storeview.PropertyAwareEntityStoreScan;
+import org.neo4j.scheduler.ThreadPoolJobScheduler;
 import org.neo4j.storageengine.api.StorageNodeCursor;
+import org.neo4j.storageengine.api.StoragePropertyCursor;
 import org.neo4j.storageengine.api.StorageReader;
 import org.neo4j.storageengine.api.schema.PopulationProgress;
+import org.neo4j.util.FeatureToggles;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.RETURNS_MOCKS;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -55,6 +65,7 @@ public class PropertyAwareEntityStoreScanTest
     private final NodeStore nodeStore = mock( NodeStore.class );
     private final PropertyStore propertyStore = mock( PropertyStore.class );
     private final NeoStores neoStores = mock( NeoStores.class );
+    private final ThreadPoolJobScheduler jobScheduler = new ThreadPoolJobScheduler();
 
     @Before
     public void before()
@@ -63,6 +74,12 @@ public class PropertyAwareEntityStoreScanTest
         when( neoStores.getPropertyStore() ).thenReturn( propertyStore );
     }
 
+    @After
+    public void after()
+    {
+        jobScheduler.close();
+    }
+
     @Test
     public void shouldGiveBackCompletionPercentage()
     {
@@ -84,7 +101,7 @@ public class PropertyAwareEntityStoreScanTest
                     private int read;
 
                     @Override
-                    public boolean process( StorageNodeCursor node )
+                    public boolean process( StorageNodeCursor node, StoragePropertyCursor propertyCursor )
                     {
                         // then
                         read++;
@@ -106,6 +123,76 @@ public class PropertyAwareEntityStoreScanTest
         scan.run();
     }
 
+    @Test
+    public void shouldReadAllEntitiesInParallelAndApplyQueuedUpdatesBetweenPartitions()
+    {
+        // given
+        long highestEntityId = 1_234;
+        Set<Long> read = ConcurrentHashMap.newKeySet();
+        List<Long> currentlyIndexedEntityIds = new CopyOnWriteArrayList<>();
+        FeatureToggles.set( PropertyAwareEntityStoreScan.class, PropertyAwareEntityStoreScan.PARTITION_SIZE_NAME, 100 );
+        PropertyAwareEntityStoreScan<StorageNodeCursor,RuntimeException> scan;
+        try
+        {
+            scan = new PropertyAwareEntityStoreScan<StorageNodeCursor,RuntimeException>( mock( StorageReader.class, RETURNS_MOCKS ),
+                    highestEntityId + 1, IntPredicates.alwaysTrue(), id -> locks.acquireNodeLock( id, LockService.LockType.READ_LOCK ) )
+            {
+                @Override
+                protected boolean process( StorageNodeCursor node, StoragePropertyCursor propertyCursor )
+                {
+                    assertTrue( read.add( node.entityReference() ) );
+                    return false;
+                }
+
+                @Override
+                protected StorageNodeCursor allocateCursor( StorageReader storageReader )
+                {
+                    return singleNodeCursor( highestEntityId );
+                }
+            };
+        }
+        finally
+        {
+            FeatureToggles.clear( PropertyAwareEntityStoreScan.class, PropertyAwareEntityStoreScan.PARTITION_SIZE_NAME );
+        }
+        scan.enableParallelReads( () -> mock( StorageReader.class, RETURNS_MOCKS ), () -> highestEntityId );
+        assertTrue( scan.readInParallel( 4, jobScheduler, () -> true, currentlyIndexedEntityId ->
+        {
+            // then, no partition is being read while applying updates, so exactly the entities up to this id have been read
+            assertEquals( Math.min( currentlyIndexedEntityId, highestEntityId ) + 1, read.size() );
+            currentlyIndexedEntityIds.add( currentlyIndexedEntityId );
+        } ) );
+
+        // when
+        scan.run();
+
+        // then
+        assertEquals( highestEntityId + 1, read.size() );
+        assertEquals( Long.MAX_VALUE, (long) currentlyIndexedEntityIds.get( currentlyIndexedEntityIds.size() - 1 ) );
+        assertEquals( highestEntityId + 1, scan.getProgress().getCompleted() );
+    }
+
+    private static StorageNodeCursor singleNodeCursor( long highestEntityId )
+    {
+        StorageNodeCursor cursor = mock( StorageNodeCursor.class );
+        long[] entity = new long[1];
+        boolean[] positioned = new boolean[1];
+        doAnswer( invocation ->
+        {
+            entity[0] = invocation.getArgument( 0 );
+            positioned[0] = true;
+            return null;
+        } ).when( cursor ).single( anyLong() );
+        when( cursor.next() ).then( invocation ->
+        {
+            boolean next = positioned[0] && entity[0] <= highestEntityId;
+            positioned[0] = false;
+            return next;
+        } );
+        when( cursor.entityReference() ).then( invocation -> entity[0] );
+        return cursor;
+    }
+
     private static class PercentageSupplier implements Supplier<Float>
     {
         private StoreScan<?> storeScan;
@@ -60,6 +60,7 @@ import org.neo4j.kernel.impl.transaction.log.InMemoryClosableChannel;
 import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionRepresentation;
 import org.neo4j.storageengine.api.schema.SchemaRule;
 import org.neo4j.storageengine.api.schema.StoreIndexDescriptor;
+import org.neo4j.util.concurrent.StripedWorkSync;
 import org.neo4j.util.concurrent.WorkSync;
 
 import static java.util.Collections.singletonList;
@@ -86,12 +87,15 @@ public class SchemaRuleCommandTest
     private final Supplier<LabelScanWriter> labelScanStore = mock( Supplier.class );
     private final NeoStoreBatchTransactionApplier storeApplier = new NeoStoreBatchTransactionApplier( neoStores,
             mock( CacheAccessBackDoor.class ), LockService.NO_LOCK_SERVICE );
-    private final WorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> labelScanStoreSynchronizer =
-            new WorkSync<>( labelScanStore );
+    private final StripedWorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> labelScanStoreSynchronizer =
+            new StripedWorkSync<>( labelScanStore, 1 );
+    private final StripedWorkSync<Supplier<LabelScanWriter>,LabelUpdateWork> relationshipTypeScanStoreSynchronizer =
+            new StripedWorkSync<>( labelScanStore, 1 );
     private final WorkSync<IndexingUpdateService,IndexUpdatesWork> indexUpdatesSync = new WorkSync<>( indexes );
     private final PropertyStore propertyStore = mock( PropertyStore.class );
     private final IndexBatchTransactionApplier indexApplier =
-            new IndexBatchTransactionApplier( indexes, labelScanStoreSynchronizer, indexUpdatesSync, mock( NodeStore.class ), neoStores.getRelationshipStore(),
+            new IndexBatchTransactionApplier( indexes, labelScanStoreSynchronizer, relationshipTypeScanStoreSynchronizer, indexUpdatesSync,
+                    mock( NodeStore.class ), neoStores.getRelationshipStore(),
                     propertyStore, new IndexActivator( indexes ) );
     private final BaseCommandReader reader = new PhysicalLogCommandReaderV3_0_2();
     private final StoreIndexDescriptor rule = TestIndexDescriptorFactory.forLabel( labelId, propertyKey ).withId( id );
@@ -35,6 +35,8 @@ import java.util.zip.ZipFile;
 
 import org.neo4j.helpers.ArrayUtil;
 import org.neo4j.io.fs.FileUtils;
+import org.neo4j.io.fs.OpenMode;
+import org.neo4j.io.fs.StoreChannel;
 import org.neo4j.kernel.impl.transaction.SimpleLogVersionRepository;
 import org.neo4j.kernel.impl.transaction.SimpleTransactionIdStore;
 import org.neo4j.kernel.impl.transaction.log.FlushablePositionAwareChannel;
@@ -43,6 +45,7 @@ import org.neo4j.kernel.impl.transaction.log.entry.LogHeader;
 import org.neo4j.kernel.impl.transaction.log.files.LogFile;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
 import org.neo4j.kernel.impl.transaction.log.files.LogFilesBuilder;
+import org.neo4j.kernel.impl.transaction.log.files.PreallocatedLogFiles;
 import org.neo4j.kernel.impl.transaction.log.files.TransactionLogFiles;
 import org.neo4j.kernel.lifecycle.LifeRule;
 import org.neo4j.test.rule.TestDirectory;
@@ -105,6 +108,26 @@ public class CorruptedLogsTruncatorTest
         assertTrue( ArrayUtil.isEmpty( databaseDirectory.listFiles( File::isDirectory ) ) );
     }
 
+    @Test
+    public void doNotPruneZeroFilledTailOfPreallocatedLog() throws IOException
+    {
+        life.start();
+        generateTransactionLogFiles( logFiles );
+
+        long highestLogVersion = logFiles.getHighestLogVersion();
+        File highestLogFile = logFiles.getHighestLogFile();
+        long logicalEnd = highestLogFile.length();
+        try ( StoreChannel channel = fileSystemRule.open( highestLogFile, OpenMode.READ_WRITE ) )
+        {
+            PreallocatedLogFiles.preallocate( channel, logicalEnd + 100 );
+        }
+
+        logPruner.truncate( new LogPosition( highestLogVersion, logicalEnd ) );
+
+        assertEquals( logicalEnd + 100, highestLogFile.length() );
+        assertTrue( ArrayUtil.isEmpty( databaseDirectory.listFiles( File::isDirectory ) ) );
+    }
+
     @Test
     public void pruneAndArchiveLastLog() throws IOException
     {
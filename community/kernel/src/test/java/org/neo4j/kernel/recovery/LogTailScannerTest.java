@@ -44,6 +44,7 @@ import org.neo4j.kernel.impl.transaction.log.LogPosition;
 import org.neo4j.kernel.impl.transaction.log.LogPositionMarker;
 import org.neo4j.kernel.impl.transaction.log.LogVersionRepository;
 import org.neo4j.kernel.impl.transaction.log.ReadableClosablePositionAwareChannel;
+import org.neo4j.kernel.impl.transaction.log.TransactionLogTailMarker;
 import org.neo4j.kernel.impl.transaction.log.entry.CheckPoint;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryStart;
@@ -82,6 +83,7 @@ public class LogTailScannerTest
     private final int endLogVersion;
     private final LogEntryVersion latestLogEntryVersion = LogEntryVersion.CURRENT;
     private LogVersionRepository logVersionRepository;
+    private final Map<Entry,LogPosition> positions = new HashMap<>();
 
     public LogTailScannerTest( Integer startLogVersion, Integer endLogVersion )
     {
@@ -449,11 +451,64 @@ public class LogTailScannerTest
         assertLatestCheckPoint( true, true, txId, startLogVersion, logTailInformation );
     }
 
+    @Test
+    public void markedCheckPointGivesTheSameTailAsScanning()
+    {
+        // given
+        long txId = 7;
+        CheckPointEntry olderCheckPoint = checkPoint();
+        CheckPointEntry latestCheckPoint = checkPoint();
+        setupLogFiles(
+                logFile( start(), commit( txId - 1 ), olderCheckPoint ),
+                logFile( latestCheckPoint, start(), commit( txId ) ) );
+
+        // when
+        LogTailInformation scanned = tailScanner.getTailInformation();
+        LogTailInformation fromLatestMarker = markedTailScanner( latestCheckPoint ).getTailInformation();
+        LogTailInformation fromOlderMarker = markedTailScanner( olderCheckPoint ).getTailInformation();
+
+        // then
+        assertLatestCheckPoint( true, true, txId, endLogVersion, scanned );
+        assertSameTail( scanned, fromLatestMarker );
+        assertSameTail( scanned, fromOlderMarker );
+    }
+
+    @Test
+    public void markedCheckPointAtTheEndOfTheLogGivesTheSameTailAsScanning()
+    {
+        // given
+        CheckPointEntry checkPoint = checkPoint();
+        setupLogFiles( logFile( start(), commit( 5 ) ), logFile( start(), commit( 6 ), checkPoint ) );
+
+        // when
+        LogTailInformation scanned = tailScanner.getTailInformation();
+        LogTailInformation fromMarker = markedTailScanner( checkPoint ).getTailInformation();
+
+        // then
+        assertLatestCheckPoint( true, false, NO_TRANSACTION_ID, endLogVersion, scanned );
+        assertSameTail( scanned, fromMarker );
+    }
+
+    @Test
+    public void markerNotMatchingTheLogFallsBackToScanning()
+    {
+        // given
+        StartEntry notACheckPoint = start();
+        setupLogFiles( logFile( checkPoint(), notACheckPoint, commit( 5 ) ) );
+
+        // when
+        LogTailInformation scanned = tailScanner.getTailInformation();
+        LogTailInformation fromMarker = markedTailScanner( notACheckPoint ).getTailInformation();
+
+        // then
+        assertLatestCheckPoint( true, true, 5, endLogVersion, scanned );
+        assertSameTail( scanned, fromMarker );
+    }
+
     // === Below is code for helping the tests above ===
 
     private void setupLogFiles( LogCreator... logFiles )
     {
-        Map<Entry,LogPosition> positions = new HashMap<>();
         long version = endLogVersion - logFiles.length;
         for ( LogCreator logFile : logFiles )
         {
@@ -587,6 +642,24 @@ public class LogTailScannerTest
     {
     }
 
+    private LogTailScanner markedTailScanner( Entry markedCheckPoint )
+    {
+        TransactionLogTailMarker tailMarker = new TransactionLogTailMarker( fsRule, logFiles );
+        LogPosition markedPosition = positions.get( markedCheckPoint );
+        tailMarker.checkPointWritten( markedPosition, markedPosition );
+        return new LogTailScanner( logFiles, reader, monitors, false, tailMarker );
+    }
+
+    private static void assertSameTail( LogTailInformation expected, LogTailInformation actual )
+    {
+        assertEquals( expected.lastCheckPoint, actual.lastCheckPoint );
+        assertEquals( expected.commitsAfterLastCheckpoint(), actual.commitsAfterLastCheckpoint() );
+        assertEquals( expected.firstTxIdAfterLastCheckPoint, actual.firstTxIdAfterLastCheckPoint );
+        assertEquals( expected.oldestLogVersionFound, actual.oldestLogVersionFound );
+        assertEquals( expected.currentLogVersion, actual.currentLogVersion );
+        assertEquals( expected.latestLogEntryVersion, actual.latestLogEntryVersion );
+    }
+
     private void assertLatestCheckPoint( boolean hasCheckPointEntry, boolean commitsAfterLastCheckPoint,
             long firstTxIdAfterLastCheckPoint, long logVersion, LogTailInformation logTailInformation )
     {
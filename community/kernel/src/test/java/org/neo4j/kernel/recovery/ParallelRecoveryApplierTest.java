@@ -0,0 +1,299 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.recovery;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.neo4j.kernel.impl.store.record.LabelTokenRecord;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.command.Command.LabelTokenCommand;
+import org.neo4j.kernel.impl.transaction.command.Command.NodeCommand;
+import org.neo4j.kernel.impl.transaction.command.Command.NodeCountsCommand;
+import org.neo4j.kernel.impl.transaction.command.Command.PropertyCommand;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.TransactionIdStore;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryStart;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.storageengine.api.StorageCommand;
+import org.neo4j.test.OtherThreadExecutor;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.neo4j.kernel.impl.scheduler.JobSchedulerFactory.createInitialisedScheduler;
+
+public class ParallelRecoveryApplierTest
+{
+    private final JobScheduler jobScheduler = createInitialisedScheduler();
+    private final List<Long> applied = new CopyOnWriteArrayList<>();
+    private final CountDownLatch firstTransactionBlocked = new CountDownLatch( 1 );
+    private final CountDownLatch releaseFirstTransaction = new CountDownLatch( 1 );
+
+    private final RecoveryApplier blockingFirstTransaction = new RecoveryApplier()
+    {
+        @Override
+        public boolean visit( CommittedTransactionRepresentation transaction ) throws Exception
+        {
+            long txId = transaction.getCommitEntry().getTxId();
+            if ( txId == 1 )
+            {
+                firstTransactionBlocked.countDown();
+                releaseFirstTransaction.await();
+            }
+            applied.add( txId );
+            return false;
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    };
+
+    @After
+    public void tearDown() throws Throwable
+    {
+        jobScheduler.shutdown();
+    }
+
+    @Test
+    public void shouldApplyNonConflictingTransactionsConcurrently() throws Exception
+    {
+        try ( ParallelRecoveryApplier applier = new ParallelRecoveryApplier( blockingFirstTransaction, jobScheduler, 2 ) )
+        {
+            applier.visit( transaction( 1, node( 1 ) ) );
+            firstTransactionBlocked.await();
+            applier.visit( transaction( 2, node( 2 ) ) );
+
+            awaitApplied( 2 );
+            releaseFirstTransaction.countDown();
+        }
+
+        assertEquals( asList( 2L, 1L ), applied );
+    }
+
+    @Test
+    public void shouldApplyConflictingTransactionsInLogOrder() throws Exception
+    {
+        try ( ParallelRecoveryApplier applier = new ParallelRecoveryApplier( blockingFirstTransaction, jobScheduler, 4 ) )
+        {
+            applier.visit( transaction( 1, node( 1 ) ) );
+            firstTransactionBlocked.await();
+            applier.visit( transaction( 2, property( 10, 1 ) ) );
+            applier.visit( transaction( 3, node( 3 ) ) );
+            applier.visit( transaction( 4, property( 10, 1 ), node( 3 ) ) );
+
+            awaitApplied( 3 );
+            releaseFirstTransaction.countDown();
+        }
+
+        assertEquals( asList( 3L, 1L, 2L, 4L ), applied );
+    }
+
+    @Test
+    public void shouldApplyTransactionsWithTokenCommandsAfterAllEarlierTransactions() throws Exception
+    {
+        OtherThreadExecutor<Void> visitor = new OtherThreadExecutor<>( "visitor", null );
+        try ( ParallelRecoveryApplier applier = new ParallelRecoveryApplier( blockingFirstTransaction, jobScheduler, 2 ) )
+        {
+            applier.visit( transaction( 1, node( 1 ) ) );
+            firstTransactionBlocked.await();
+
+            Future<Boolean> barrier = visitor.executeDontWait( state -> applier.visit( transaction( 2, labelToken( 5 ) ) ) );
+            try
+            {
+                barrier.get( 100, TimeUnit.MILLISECONDS );
+                fail( "Should have waited for the first transaction to be applied" );
+            }
+            catch ( TimeoutException e )
+            {
+                // expected
+            }
+            releaseFirstTransaction.countDown();
+            barrier.get();
+            applier.visit( transaction( 3, node( 1 ) ) );
+        }
+        finally
+        {
+            visitor.close();
+        }
+
+        assertEquals( asList( 1L, 2L, 3L ), applied );
+    }
+
+    @Test
+    public void shouldOnlyRequireOrderingOfRecordsAndNotOfCounts() throws Exception
+    {
+        assertNull( ParallelRecoveryApplier.recordsChangedBy( transaction( 1, node( 1 ), labelToken( 2 ) ) ) );
+        assertEquals( 1, ParallelRecoveryApplier.recordsChangedBy( transaction( 1, node( 1 ), new NodeCountsCommand( 1, 1 ) ) ).size() );
+        assertFalse( ParallelRecoveryApplier.recordsChangedBy( transaction( 1, node( 1 ) ) )
+                .containsAll( ParallelRecoveryApplier.recordsChangedBy( transaction( 2, node( 2 ) ) ) ) );
+        assertTrue( ParallelRecoveryApplier.recordsChangedBy( transaction( 1, property( 7, 1 ) ) )
+                .containsAll( ParallelRecoveryApplier.recordsChangedBy( transaction( 2, node( 1 ) ) ) ) );
+    }
+
+    @Test
+    public void shouldRethrowFailureToApplyTransactionOnClose() throws Exception
+    {
+        Exception failure = new Exception( "Failed to apply" );
+        RecoveryApplier failing = new RecoveryApplier()
+        {
+            @Override
+            public boolean visit( CommittedTransactionRepresentation transaction ) throws Exception
+            {
+                throw failure;
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        };
+
+        ParallelRecoveryApplier applier = new ParallelRecoveryApplier( failing, jobScheduler, 2 );
+        applier.visit( transaction( 1, node( 1 ) ) );
+        try
+        {
+            applier.close();
+            fail( "Should have failed" );
+        }
+        catch ( Exception e )
+        {
+            assertSame( failure, e );
+        }
+    }
+
+    @Test
+    public void shouldNotReportTransactionsAsAppliedBeforeAllEarlierTransactionsAreApplied() throws Exception
+    {
+        try ( ParallelRecoveryApplier applier = new ParallelRecoveryApplier( blockingFirstTransaction, jobScheduler, 2 ) )
+        {
+            applier.visit( transaction( 1, node( 1 ) ) );
+            firstTransactionBlocked.await();
+            applier.visit( transaction( 2, node( 2 ) ) );
+
+            awaitApplied( 2 );
+            assertEquals( TransactionIdStore.BASE_TX_ID, applier.lastAppliedTransactionId( 2 ) );
+            releaseFirstTransaction.countDown();
+
+            awaitApplied( 1 );
+            while ( applier.lastAppliedTransactionId( 2 ) != 2 )
+            {
+                Thread.sleep( 1 );
+            }
+        }
+    }
+
+    @Test
+    public void shouldNotReportTransactionsAsAppliedAfterFailureToApplyTransaction() throws Exception
+    {
+        Exception failure = new Exception( "Failed to apply" );
+        RecoveryApplier failingThirdTransaction = new RecoveryApplier()
+        {
+            @Override
+            public boolean visit( CommittedTransactionRepresentation transaction ) throws Exception
+            {
+                long txId = transaction.getCommitEntry().getTxId();
+                if ( txId == 3 )
+                {
+                    throw failure;
+                }
+                applied.add( txId );
+                return false;
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        };
+
+        ParallelRecoveryApplier applier = new ParallelRecoveryApplier( failingThirdTransaction, jobScheduler, 2 );
+        try
+        {
+            // The failure is thrown from whichever call comes first after the third transaction has failed
+            applier.visit( transaction( 2, node( 1 ) ) );
+            applier.visit( transaction( 3, node( 2 ) ) );
+            applier.visit( transaction( 4, node( 3 ) ) );
+            applier.close();
+            fail( "Should have failed" );
+        }
+        catch ( Exception e )
+        {
+            assertSame( failure, e );
+        }
+
+        assertEquals( 2, applier.lastAppliedTransactionId( 4 ) );
+    }
+
+    private void awaitApplied( long txId ) throws InterruptedException
+    {
+        while ( !applied.contains( txId ) )
+        {
+            Thread.sleep( 1 );
+        }
+    }
+
+    private static CommittedTransactionRepresentation transaction( long txId, StorageCommand... commands )
+    {
+        PhysicalTransactionRepresentation representation = new PhysicalTransactionRepresentation( Arrays.asList( commands ) );
+        representation.setHeader( new byte[0], 0, 0, 0, 0, 0, 0 );
+        LogEntryStart start = new LogEntryStart( 0, 0, 0, txId - 1, new byte[0], LogPosition.UNSPECIFIED );
+        return new CommittedTransactionRepresentation( start, representation, new LogEntryCommit( txId, 0 ) );
+    }
+
+    private static NodeCommand node( long id )
+    {
+        return new NodeCommand( new NodeRecord( id ), new NodeRecord( id, false, -1, -1, true ) );
+    }
+
+    private static PropertyCommand property( long id, long nodeId )
+    {
+        PropertyRecord before = new PropertyRecord( id );
+        PropertyRecord after = new PropertyRecord( id );
+        after.setNodeId( nodeId );
+        return new PropertyCommand( before, after );
+    }
+
+    private static LabelTokenCommand labelToken( int id )
+    {
+        return new LabelTokenCommand( new LabelTokenRecord( id ), new LabelTokenRecord( id ) );
+    }
+}
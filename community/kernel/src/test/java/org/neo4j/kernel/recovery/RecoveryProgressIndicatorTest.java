@@ -36,7 +36,11 @@ import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class RecoveryProgressIndicatorTest
@@ -68,6 +72,8 @@ public class RecoveryProgressIndicatorTest
         when( recoveryService.getRecoveryStartInformation() ).thenReturn( startInformation );
         when( recoveryService.getTransactionsInReverseOrder( recoveryStartPosition ) ).thenReturn( reverseTransactionCursor );
         when( recoveryService.getTransactions( recoveryStartPosition ) ).thenReturn( transactionCursor );
+        RecoveryApplier recoveryApplier = mock( RecoveryApplier.class, Answers.CALLS_REAL_METHODS );
+        when( recoveryService.getRecoveryApplier( any() ) ).thenReturn( recoveryApplier );
 
         AssertableProgressReporter progressReporter = new AssertableProgressReporter( expectedMax );
         Recovery recovery = new Recovery( recoveryService, logsTruncator, new LifecycleAdapter(), recoveryMonitor,
@@ -75,6 +81,7 @@ public class RecoveryProgressIndicatorTest
         recovery.init();
 
         progressReporter.verify();
+        verify( recoveryMonitor ).recoveryProgress( eq( (long) transactionsToRecover ), eq( (long) transactionsToRecover ), anyDouble() );
     }
 
     private static class AssertableProgressReporter implements ProgressReporter
@@ -135,6 +135,12 @@ public class StubStorageCursors implements StorageReader
         throw new UnsupportedOperationException( "Not implemented yet" );
     }
 
+    @Override
+    public LabelScanReader getRelationshipTypeScanReader()
+    {
+        throw new UnsupportedOperationException( "Not implemented yet" );
+    }
+
     @Override
     public IndexReader getIndexReader( IndexDescriptor index )
     {
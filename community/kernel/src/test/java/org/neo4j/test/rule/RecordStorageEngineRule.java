@@ -103,7 +103,7 @@ public class RecordStorageEngineRule extends ExternalResource
     private RecordStorageEngine get( FileSystemAbstraction fs, PageCache pageCache,
                                      IndexProvider indexProvider, DatabaseHealth databaseHealth, DatabaseLayout databaseLayout,
                                      Function<BatchTransactionApplierFacade, BatchTransactionApplierFacade> transactionApplierTransformer,
-                                     Monitors monitors, LockService lockService )
+                                     Monitors monitors, LockService lockService, boolean readOnly )
     {
         IdGeneratorFactory idGeneratorFactory = new EphemeralIdGenerator.Factory();
         ExplicitIndexProvider explicitIndexProviderLookup = mock( ExplicitIndexProvider.class );
@@ -111,6 +111,7 @@ public class RecordStorageEngineRule extends ExternalResource
         IndexConfigStore indexConfigStore = new IndexConfigStore( databaseLayout, fs );
         JobScheduler scheduler = life.add( createScheduler() );
         Config config = Config.defaults( GraphDatabaseSettings.default_schema_provider, indexProvider.getProviderDescriptor().name() );
+        config.augment( GraphDatabaseSettings.read_only, String.valueOf( readOnly ) );
 
         Dependencies dependencies = new Dependencies();
         dependencies.satisfyDependency( indexProvider );
@@ -131,6 +132,15 @@ public class RecordStorageEngineRule extends ExternalResource
                 RecoveryCleanupWorkCollector.immediate(), OperationalMode.single ) );
     }
 
+    /**
+     * Shuts down the given storage engine, built by this rule, before the rest of the rule is shut down,
+     * e.g. to be able to open another storage engine on the same store.
+     */
+    public void shutdown( RecordStorageEngine storageEngine )
+    {
+        life.remove( storageEngine );
+    }
+
     @Override
     protected void after( boolean successful ) throws Throwable
     {
@@ -151,6 +161,7 @@ public class RecordStorageEngineRule extends ExternalResource
         private IndexProvider indexProvider = IndexProvider.EMPTY;
         private Monitors monitors = new Monitors();
         private LockService lockService = new ReentrantLockService();
+        private boolean readOnly;
 
         public Builder( FileSystemAbstraction fs, PageCache pageCache, DatabaseLayout databaseLayout )
         {
@@ -190,10 +201,16 @@ public class RecordStorageEngineRule extends ExternalResource
             return this;
         }
 
+        public Builder readOnly()
+        {
+            this.readOnly = true;
+            return this;
+        }
+
         public RecordStorageEngine build()
         {
             return get( fs, pageCache, indexProvider, databaseHealth, databaseLayout,
-                    transactionApplierTransformer, monitors, lockService );
+                    transactionApplierTransformer, monitors, lockService, readOnly );
         }
     }
 
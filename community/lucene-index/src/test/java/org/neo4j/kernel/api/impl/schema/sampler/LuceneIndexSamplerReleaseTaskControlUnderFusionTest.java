@@ -166,7 +166,7 @@ public class LuceneIndexSamplerReleaseTaskControlUnderFusionTest
         };
         OnlineIndexSamplingJobFactory onlineIndexSamplingJobFactory =
                 new OnlineIndexSamplingJobFactory( storeView, simpleNameLookup, getInstance() );
-        return onlineIndexSamplingJobFactory.create( 1, indexProxy );
+        return onlineIndexSamplingJobFactory.create( 1, indexProxy, true );
     }
 
     private LuceneIndexProvider luceneProvider()
@@ -35,6 +35,7 @@ import org.neo4j.kernel.impl.store.id.DefaultIdGeneratorFactory;
 import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
 import org.neo4j.kernel.impl.transaction.log.TransactionLogWriter;
+import org.neo4j.kernel.impl.transaction.log.entry.CommandCompression;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryWriter;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
 import org.neo4j.kernel.impl.transaction.log.files.LogFilesBuilder;
@@ -86,7 +87,8 @@ public class TransactionLogCatchUpWriter implements TxPullResponseListener, Auto
                 .withLogVersionRepository( stores.getMetaDataStore() );
         this.logFiles = logFilesBuilder.build();
         this.lifespan.add( logFiles );
-        this.writer = new TransactionLogWriter( new LogEntryWriter( logFiles.getLogFile().getWriter() ) );
+        CommandCompression compression = CommandCompression.create( config.get( GraphDatabaseSettings.tx_log_compression ) );
+        this.writer = new TransactionLogWriter( new LogEntryWriter( logFiles.getLogFile().getWriter(), compression ) );
         this.databaseLayout = databaseLayout;
         this.expectedTxId = fromTxId;
     }
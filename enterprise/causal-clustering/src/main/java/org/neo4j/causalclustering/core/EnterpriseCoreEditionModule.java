@@ -408,7 +408,7 @@ public class EnterpriseCoreEditionModule extends DefaultEditionModule
                 createKernelData( platformModule.fileSystem, platformModule.pageCache, platformModule.storeLayout.storeDirectory(),
                         config, platformModule.dataSourceManager, life ) );
 
-        ioLimiter = new ConfigurableIOLimiter( platformModule.config );
+        ioLimiter = ConfigurableIOLimiter.create( platformModule.config, platformModule.monitors );
 
         headerInformationFactory = createHeaderInformationFactory();
 
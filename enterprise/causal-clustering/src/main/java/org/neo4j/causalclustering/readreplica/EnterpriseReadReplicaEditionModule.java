@@ -153,7 +153,7 @@ public class EnterpriseReadReplicaEditionModule extends DefaultEditionModule
     {
         LogService logging = platformModule.logging;
 
-        ioLimiter = new ConfigurableIOLimiter( platformModule.config );
+        ioLimiter = ConfigurableIOLimiter.create( platformModule.config, platformModule.monitors );
         platformModule.jobScheduler.setTopLevelGroupName( "ReadReplica " + myself );
 
         org.neo4j.kernel.impl.util.Dependencies dependencies = platformModule.dependencies;
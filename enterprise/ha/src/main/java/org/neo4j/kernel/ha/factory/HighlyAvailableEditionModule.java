@@ -206,7 +206,7 @@ public class HighlyAvailableEditionModule extends DefaultEditionModule
 
     public HighlyAvailableEditionModule( final PlatformModule platformModule )
     {
-        ioLimiter = new ConfigurableIOLimiter( platformModule.config );
+        ioLimiter = ConfigurableIOLimiter.create( platformModule.config, platformModule.monitors );
 
         final LifeSupport life = platformModule.life;
         life.add( platformModule.dataSourceManager );
@@ -66,7 +66,7 @@ public class EnterpriseEditionModule extends CommunityEditionModule
     public EnterpriseEditionModule( PlatformModule platformModule )
     {
         super( platformModule );
-        ioLimiter = new ConfigurableIOLimiter( platformModule.config );
+        ioLimiter = ConfigurableIOLimiter.create( platformModule.config, platformModule.monitors );
     }
 
     @Override
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB Enterprise Edition. The included source
+ * code can be redistributed and/or modified under the terms of the
+ * GNU AFFERO GENERAL PUBLIC LICENSE Version 3
+ * (http://www.fsf.org/licensing/licenses/agpl-3.0.html) as found
+ * in the associated LICENSE.txt file.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ */
+package org.neo4j.kernel.impl.enterprise.transaction.log.checkpoint;
+
+import java.io.Flushable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+import java.util.function.ObjLongConsumer;
+
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.transaction.log.BatchingTransactionAppender;
+import org.neo4j.util.VisibleForTesting;
+
+/**
+ * An IO limiter that adapts its IOPS limit to how much the checkpoint flushing gets in the way of committing
+ * transactions, using the latency of transaction log forces as the signal.
+ * <p>
+ * Log forces are reported to this limiter as a {@link BatchingTransactionAppender.Monitor}. While a checkpoint is
+ * flushing, the limit is revised at most once per {@link #CONTROL_INTERVAL_MILLIS control interval}:
+ * <ul>
+ * <li>If the mean force latency is above the target latency, the limit is halved.</li>
+ * <li>If the mean force latency is below half of the target latency, the limit is raised by a quarter.</li>
+ * <li>If there were no forces at all, nothing is committing and the limit is doubled.</li>
+ * </ul>
+ * The limit always stays between {@link #MIN_IOPS} and {@link #MAX_IOPS}. It starts out at, and is reset by
+ * updates to, the configured {@link GraphDatabaseSettings#check_point_iops_limit}, or at {@link #MAX_IOPS} if
+ * that is configured to be unlimited.
+ */
+public class AdaptiveIOLimiter extends ConfigurableIOLimiter implements BatchingTransactionAppender.Monitor
+{
+    public interface Monitor
+    {
+        /**
+         * Called at the end of every control interval in which a checkpoint has been flushing.
+         *
+         * @param previousIOPS the limit during the control interval.
+         * @param iops the limit from now on, equal to the previous limit if it was kept as it is.
+         * @param forces the number of transaction log forces during the control interval.
+         * @param meanForceLatencyNanos the mean latency of those forces, or zero if there were none.
+         */
+        void iopsLimitAdjusted( int previousIOPS, int iops, long forces, long meanForceLatencyNanos );
+    }
+
+    static final int MIN_IOPS = 100;
+    static final int MAX_IOPS = 1_000_000;
+    static final long CONTROL_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis( 1 );
+
+    private final Monitor monitor;
+    private final LongSupplier clock;
+    private final long targetLatencyNanos;
+    private final LongAdder forces = new LongAdder();
+    private final LongAdder forceLatencyNanos = new LongAdder();
+    private volatile int iops;
+    private volatile long nextAdjustmentMillis;
+
+    public AdaptiveIOLimiter( Config config, Monitor monitor )
+    {
+        this( config, monitor, LockSupport::parkNanos, System::currentTimeMillis );
+    }
+
+    @VisibleForTesting
+    AdaptiveIOLimiter( Config config, Monitor monitor, ObjLongConsumer<Object> pauseNanos, LongSupplier clock )
+    {
+        super( config, pauseNanos );
+        this.monitor = monitor;
+        this.clock = clock;
+        this.targetLatencyNanos =
+                config.get( GraphDatabaseSettings.check_point_iops_adaptive_target_latency ).toNanos();
+        reset( config.get( GraphDatabaseSettings.check_point_iops_limit ) );
+        config.registerDynamicUpdateListener( GraphDatabaseSettings.check_point_iops_limit,
+                ( prev, update ) -> reset( update ) );
+    }
+
+    @Override
+    public void logForced( int batchSize, long groupCommitWaitNanos, long forceNanos )
+    {
+        forces.increment();
+        forceLatencyNanos.add( forceNanos );
+    }
+
+    @Override
+    public long maybeLimitIO( long previousStamp, int recentlyCompletedIOs, Flushable flushable )
+    {
+        long now = clock.getAsLong();
+        if ( now >= nextAdjustmentMillis )
+        {
+            adjust( now );
+        }
+        return super.maybeLimitIO( previousStamp, recentlyCompletedIOs, flushable );
+    }
+
+    /**
+     * @return the number of IOs per second that checkpoint flushing is currently limited to.
+     */
+    public int currentIOPSLimit()
+    {
+        return iops;
+    }
+
+    private synchronized void reset( Integer configuredIOPS )
+    {
+        iops = configuredIOPS == null || configuredIOPS < 1 ? MAX_IOPS : withinBounds( configuredIOPS );
+        limitTo( iops );
+        startControlInterval( clock.getAsLong() );
+    }
+
+    private synchronized void adjust( long now )
+    {
+        if ( now < nextAdjustmentMillis )
+        {
+            return; // Another thread got here first.
+        }
+        if ( now - nextAdjustmentMillis > CONTROL_INTERVAL_MILLIS )
+        {
+            // No checkpoint has been flushing for a while, so the forces seen since then say nothing about
+            // how flushing affects them. Start over with this checkpoint.
+            startControlInterval( now );
+            return;
+        }
+
+        long forceCount = forces.sumThenReset();
+        long totalForceLatencyNanos = forceLatencyNanos.sumThenReset();
+        long meanForceLatencyNanos = forceCount == 0 ? 0 : totalForceLatencyNanos / forceCount;
+        nextAdjustmentMillis = now + CONTROL_INTERVAL_MILLIS;
+
+        int previousIOPS = iops;
+        long nextIOPS;
+        if ( forceCount == 0 )
+        {
+            nextIOPS = previousIOPS * 2L;
+        }
+        else if ( meanForceLatencyNanos > targetLatencyNanos )
+        {
+            nextIOPS = previousIOPS / 2;
+        }
+        else if ( meanForceLatencyNanos < targetLatencyNanos / 2 )
+        {
+            nextIOPS = previousIOPS + previousIOPS / 4;
+        }
+        else
+        {
+            nextIOPS = previousIOPS;
+        }
+        iops = withinBounds( nextIOPS );
+        if ( iops != previousIOPS )
+        {
+            limitTo( iops );
+        }
+        monitor.iopsLimitAdjusted( previousIOPS, iops, forceCount, meanForceLatencyNanos );
+    }
+
+    private void startControlInterval( long now )
+    {
+        forces.reset();
+        forceLatencyNanos.reset();
+        nextAdjustmentMillis = now + CONTROL_INTERVAL_MILLIS;
+    }
+
+    private static int withinBounds( long iops )
+    {
+        return (int) Math.max( MIN_IOPS, Math.min( MAX_IOPS, iops ) );
+    }
+}
@@ -27,6 +27,7 @@ import java.util.function.ObjLongConsumer;
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.monitoring.Monitors;
 import org.neo4j.util.VisibleForTesting;
 
 public class ConfigurableIOLimiter implements IOLimiter
@@ -50,6 +51,23 @@ public class ConfigurableIOLimiter implements IOLimiter
     @SuppressWarnings( "unused" ) // Updated via stateUpdater
     private volatile long state;
 
+    /**
+     * Creates the IO limiter the configuration asks for, which is an {@link AdaptiveIOLimiter} listening to
+     * transaction log forces on the given monitors when {@link GraphDatabaseSettings#check_point_iops_adaptive}
+     * is enabled, and a fixed limit otherwise.
+     */
+    public static IOLimiter create( Config config, Monitors monitors )
+    {
+        if ( config.get( GraphDatabaseSettings.check_point_iops_adaptive ) )
+        {
+            AdaptiveIOLimiter limiter =
+                    new AdaptiveIOLimiter( config, monitors.newMonitor( AdaptiveIOLimiter.Monitor.class ) );
+            monitors.addMonitorListener( limiter );
+            return limiter;
+        }
+        return new ConfigurableIOLimiter( config );
+    }
+
     public ConfigurableIOLimiter( Config config )
     {
         this( config, LockSupport::parkNanos );
@@ -65,6 +83,14 @@ public class ConfigurableIOLimiter implements IOLimiter
                 ( prev, update ) -> updateConfiguration( update ) );
     }
 
+    /**
+     * Change the limit to the given number of IOs per second, like a configuration update would.
+     */
+    void limitTo( int iops )
+    {
+        updateConfiguration( iops );
+    }
+
     private void updateConfiguration( Integer iops )
     {
         long oldState;
@@ -20,12 +20,12 @@ package org.neo4j.kernel.impl.pagecache;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Path;
 import java.util.Collection;
-import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.concurrent.BlockingQueue;
@@ -38,17 +38,22 @@ import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 import org.neo4j.graphdb.Resource;
+import org.neo4j.io.IOUtils;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.io.pagecache.impl.FileIsNotMappedException;
+import org.neo4j.kernel.impl.pagecache.Profile.HeatReader;
+import org.neo4j.kernel.impl.pagecache.monitor.PageCacheWarmerMonitor;
+import org.neo4j.kernel.impl.pagecache.monitor.PageCacheWarmerMonitorAdapter;
 import org.neo4j.kernel.impl.transaction.state.NeoStoreFileListing;
 import org.neo4j.scheduler.Group;
 import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.StoreFileMetadata;
 
 import static java.util.Comparator.naturalOrder;
+import static java.util.Comparator.reverseOrder;
 import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
 
@@ -58,36 +63,58 @@ import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
  * <p>
  * The profiling data is stored in a "profiles" directory in the same directory the mapped files.
  * The profile files have the same name as their corresponding mapped file, except they end with a dot-hexadecimal
- * sequence number, and ".cacheprof".
+ * sequence number, ".heat" and ".cacheprof".
  * <p>
  * The profiles are collected in the "profiles" directory, so it is easy to get rid of all of them, on the off chance
  * that something is wrong with them.
  * <p>
- * These cacheprof files are compressed bitmaps where each raised bit indicates that the page identified by the
- * bit-index was in memory.
+ * These cacheprof files are compressed arrays of one byte for each page, which is the heat of the page. The heat is a
+ * decayed count of how many profiles have found the page in memory: every profile halves the heat of the previous
+ * profile, and adds {@value #HEAT_RESIDENT} to it if the page is in memory. Older profiles, without ".heat" in their
+ * name, are compressed bitmaps where each raised bit indicates that the page identified by the bit-index was in memory.
+ * <p>
+ * When reheating, the pages are loaded in the order of their heat, so the pages that are most likely to be needed are
+ * loaded first. The loading stops when the page cache is full.
  */
 public class PageCacheWarmer implements NeoStoreFileListing.StoreFileProvider
 {
     public static final String SUFFIX_CACHEPROF = ".cacheprof";
 
+    static final int HEAT_RESIDENT = 128;
+
     private static final int IO_PARALLELISM = Runtime.getRuntime().availableProcessors();
 
+    // The lowest heat of each of the tiers of pages that are loaded by reheat, one tier after the other. The pages in
+    // the first PARALLEL_HEAT_TIERS tiers were in memory at the last profile, and are loaded in parallel if the device
+    // can take it. The pages in the other tiers were only in memory at earlier profiles, and are loaded by a single
+    // cursor, so they compete less for IO with the queries that are running while the page cache warms up.
+    private static final int[] HEAT_TIERS = {HEAT_RESIDENT + HEAT_RESIDENT / 2, HEAT_RESIDENT, HEAT_RESIDENT / 2, 1};
+    private static final int PARALLEL_HEAT_TIERS = 2;
+
     private final FileSystemAbstraction fs;
     private final PageCache pageCache;
     private final JobScheduler scheduler;
     private final File databaseDirectory;
     private final ProfileRefCounts refCounts;
+    private final PageCacheWarmerMonitor monitor;
     private volatile boolean stopped;
     private ExecutorService executor;
     private PageLoaderFactory pageLoaderFactory;
 
     PageCacheWarmer( FileSystemAbstraction fs, PageCache pageCache, JobScheduler scheduler, File databaseDirectory )
+    {
+        this( fs, pageCache, scheduler, databaseDirectory, new PageCacheWarmerMonitorAdapter() );
+    }
+
+    PageCacheWarmer( FileSystemAbstraction fs, PageCache pageCache, JobScheduler scheduler, File databaseDirectory,
+            PageCacheWarmerMonitor monitor )
     {
         this.fs = fs;
         this.pageCache = pageCache;
         this.scheduler = scheduler;
         this.databaseDirectory = databaseDirectory;
         this.refCounts = new ProfileRefCounts();
+        this.monitor = monitor;
     }
 
     @Override
@@ -144,18 +171,47 @@ public class PageCacheWarmer implements NeoStoreFileListing.StoreFileProvider
         {
             return OptionalLong.empty();
         }
-        long pagesLoaded = 0;
         List<PagedFile> files = pageCache.listExistingMappings();
         Profile[] existingProfiles = findExistingProfiles( files );
+        Map<PagedFile,Profile> savedProfiles = new LinkedHashMap<>();
+        long pagesToLoad = 0;
         for ( PagedFile file : files )
         {
-            try
+            // Try most recent profile first.
+            Profile[] profiles = filterRelevant( existingProfiles, file ).sorted( reverseOrder() ).toArray( Profile[]::new );
+            for ( Profile profile : profiles )
             {
-                pagesLoaded += reheat( file, existingProfiles );
+                long profiledPages = countProfiledPages( profile );
+                if ( profiledPages != -1 )
+                {
+                    savedProfiles.put( file, profile );
+                    pagesToLoad += profiledPages;
+                    break;
+                }
             }
-            catch ( FileIsNotMappedException ignore )
+        }
+        // Loading more pages than fit in the page cache would only evict the hotter pages that we loaded first.
+        pagesToLoad = Math.min( pagesToLoad, pageCache.maxCachedPages() );
+        monitor.warmupProgress( 0, pagesToLoad );
+
+        long pagesLoaded = 0;
+        for ( int tier = 0; tier < HEAT_TIERS.length && pagesLoaded < pagesToLoad && !stopped; tier++ )
+        {
+            for ( Map.Entry<PagedFile,Profile> entry : savedProfiles.entrySet() )
             {
-                // The database is allowed to map and unmap files while we are trying to heat it up.
+                try
+                {
+                    pagesLoaded += reheat( entry.getKey(), entry.getValue(), tier, pagesToLoad - pagesLoaded );
+                }
+                catch ( FileIsNotMappedException ignore )
+                {
+                    // The database is allowed to map and unmap files while we are trying to heat it up.
+                }
+                monitor.warmupProgress( pagesLoaded, pagesToLoad );
+                if ( pagesLoaded >= pagesToLoad || stopped )
+                {
+                    break;
+                }
             }
         }
         return OptionalLong.of( pagesLoaded );
@@ -200,98 +256,105 @@ public class PageCacheWarmer implements NeoStoreFileListing.StoreFileProvider
         return OptionalLong.of( pagesInMemory );
     }
 
-    private long reheat( PagedFile file, Profile[] existingProfiles ) throws IOException
+    /**
+     * Load the pages of the given file, whose heat in the given profile is within the given tier, up to the given
+     * maximum number of pages.
+     */
+    private long reheat( PagedFile file, Profile profile, int tier, long maxPages ) throws IOException
     {
-        Optional<Profile> savedProfile = filterRelevant( existingProfiles, file )
-                .sorted( Comparator.reverseOrder() ) // Try most recent profile first.
-                .filter( this::verifyChecksum )
-                .findFirst();
-
-        if ( !savedProfile.isPresent() )
-        {
-            return 0;
-        }
-
-        // The file contents checks out. Let's load it in.
+        int minHeat = HEAT_TIERS[tier];
+        int maxHeat = tier == 0 ? Integer.MAX_VALUE : HEAT_TIERS[tier - 1];
         long pagesLoaded = 0;
-        try ( InputStream input = savedProfile.get().read( fs );
-              PageLoader loader = pageLoaderFactory.getLoader( file ) )
+        try ( HeatReader input = profile.readHeat( fs );
+              PageLoader loader = tier < PARALLEL_HEAT_TIERS ? pageLoaderFactory.getLoader( file )
+                                                             : new SingleCursorPageLoader( file ) )
         {
             long pageId = 0;
-            int b;
-            while ( (b = input.read()) != -1 )
+            int heat;
+            while ( pagesLoaded < maxPages && (heat = input.next()) != -1 )
             {
-                for ( int i = 0; i < 8; i++ )
+                if ( stopped )
                 {
-                    if ( stopped )
-                    {
-                        pageCache.reportEvents();
-                        return pagesLoaded;
-                    }
-                    if ( (b & 1) == 1 )
-                    {
-                        loader.load( pageId );
-                        pagesLoaded++;
-                    }
-                    b >>= 1;
-                    pageId++;
+                    break;
                 }
+                if ( heat >= minHeat && heat < maxHeat )
+                {
+                    loader.load( pageId );
+                    pagesLoaded++;
+                }
+                pageId++;
             }
         }
         pageCache.reportEvents();
         return pagesLoaded;
     }
 
-    private boolean verifyChecksum( Profile profile )
+    /**
+     * @return the number of pages in the given profile that have any heat, or -1 if the profile is damaged.
+     */
+    private long countProfiledPages( Profile profile )
     {
         // Successfully reading through and closing the compressed file implies verifying the gzip checksum.
-        try ( InputStream input = profile.read( fs ) )
+        long profiledPages = 0;
+        try ( HeatReader input = profile.readHeat( fs ) )
         {
-            int b;
-            do
+            int heat;
+            while ( (heat = input.next()) != -1 )
             {
-                b = input.read();
+                if ( heat > 0 )
+                {
+                    profiledPages++;
+                }
             }
-            while ( b != -1 );
         }
         catch ( IOException ignore )
         {
-            return false;
+            return -1;
         }
-        return true;
+        return profiledPages;
     }
 
     private long profile( PagedFile file, Profile[] existingProfiles ) throws IOException
     {
         long pagesInMemory = 0;
-        Profile nextProfile = filterRelevant( existingProfiles, file )
-                .max( naturalOrder() )
+        Optional<Profile> previousProfile = filterRelevant( existingProfiles, file ).max( naturalOrder() );
+        Profile nextProfile = previousProfile
                 .map( Profile::next )
                 .orElse( Profile.first( file.file() ) );
 
+        HeatReader previousHeat = previousProfile.isPresent() ? openHeatOrNull( previousProfile.get() ) : null;
         try ( OutputStream output = nextProfile.write( fs );
               PageCursor cursor = file.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT ) )
         {
-            int stepper = 0;
-            int b = 0;
             while ( cursor.next() )
             {
-                if ( cursor.getCurrentPageId() != PageCursor.UNBOUND_PAGE_ID )
+                int heat = 0;
+                if ( previousHeat != null )
                 {
-                    pagesInMemory++;
-                    b |= 1 << stepper;
+                    try
+                    {
+                        heat = Math.max( 0, previousHeat.next() ) >>> 1;
+                    }
+                    catch ( IOException e )
+                    {
+                        // The previous profile is damaged, so the heat starts over from this profile.
+                        IOUtils.closeAllSilently( previousHeat );
+                        previousHeat = null;
+                    }
                 }
-                stepper++;
-                if ( stepper == 8 )
+                if ( cursor.getCurrentPageId() != PageCursor.UNBOUND_PAGE_ID )
                 {
-                    output.write( b );
-                    b = 0;
-                    stepper = 0;
+                    pagesInMemory++;
+                    heat += HEAT_RESIDENT;
                 }
+                output.write( heat );
             }
-            output.write( b );
             output.flush();
         }
+        finally
+        {
+            IOUtils.closeAllSilently( previousHeat );
+        }
 
         // Delete previous profile files.
         filterRelevant( existingProfiles, file )
@@ -301,6 +364,18 @@ public class PageCacheWarmer implements NeoStoreFileListing.StoreFileProvider
         return pagesInMemory;
     }
 
+    private HeatReader openHeatOrNull( Profile profile )
+    {
+        try
+        {
+            return profile.readHeat( fs );
+        }
+        catch ( IOException e )
+        {
+            return null;
+        }
+    }
+
     private static ExecutorService buildExecutorService( JobScheduler scheduler )
     {
         BlockingQueue<Runnable> workQueue = new LinkedBlockingQueue<>( IO_PARALLELISM * 4 );
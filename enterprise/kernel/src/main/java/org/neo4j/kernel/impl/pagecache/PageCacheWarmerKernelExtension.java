@@ -46,7 +46,8 @@ class PageCacheWarmerKernelExtension extends LifecycleAdapter
         this.databaseAvailabilityGuard = databaseAvailabilityGuard;
         this.dataSource = dataSource;
         this.config = config;
-        pageCacheWarmer = new PageCacheWarmer( fs, pageCache, scheduler, dataSource.getDatabaseLayout().databaseDirectory() );
+        pageCacheWarmer = new PageCacheWarmer(
+                fs, pageCache, scheduler, dataSource.getDatabaseLayout().databaseDirectory(), monitor );
         availabilityListener = new WarmupAvailabilityListener( scheduler, pageCacheWarmer, config, log, monitor );
     }
 
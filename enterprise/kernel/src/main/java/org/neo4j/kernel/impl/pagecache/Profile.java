@@ -20,6 +20,7 @@ package org.neo4j.kernel.impl.pagecache;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.Closeable;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Objects;
@@ -32,22 +33,34 @@ import org.neo4j.io.IOUtils;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.pagecache.PagedFile;
 
+import static org.neo4j.kernel.impl.pagecache.PageCacheWarmer.HEAT_RESIDENT;
 import static org.neo4j.kernel.impl.pagecache.PageCacheWarmer.SUFFIX_CACHEPROF;
 
 final class Profile implements Comparable<Profile>
 {
     private static final String PROFILE_DIR = "profiles";
+    // Profiles with this in their name, before the suffix, have one heat byte for every page in the file. Profiles
+    // without it were written before the heat of pages was recorded, and are bitmaps with a raised bit for every page
+    // that was in memory. The format is told by the name rather than by the content, since any content is a valid
+    // bitmap.
+    private static final String HEAT_FORMAT = ".heat";
+    // The heat we give the pages of bitmap profiles. They were in memory at the last profile, like pages with a heat
+    // of at least HEAT_RESIDENT, but we don't know about earlier profiles, so we guess that they were in memory at
+    // some of those as well.
+    static final int BITMAP_HEAT = HEAT_RESIDENT + HEAT_RESIDENT / 4;
     private final File profileFile;
     private final File pagedFile;
     private final long profileSequenceId;
+    private final boolean heatFormat;
 
-    private Profile( File profileFile, File pagedFile, long profileSequenceId )
+    private Profile( File profileFile, File pagedFile, long profileSequenceId, boolean heatFormat )
     {
         Objects.requireNonNull( profileFile );
         Objects.requireNonNull( pagedFile );
         this.profileFile = profileFile;
         this.pagedFile = pagedFile;
         this.profileSequenceId = profileSequenceId;
+        this.heatFormat = heatFormat;
     }
 
     @Override
@@ -119,22 +132,33 @@ final class Profile implements Comparable<Profile>
         }
     }
 
+    /**
+     * Open the profile for reading the heat of its pages, in page id order, regardless of its format.
+     */
+    HeatReader readHeat( FileSystemAbstraction fs ) throws IOException
+    {
+        return new HeatReader( read( fs ), heatFormat );
+    }
+
+    /**
+     * @return the profile that follows this one, which is always in the heat format.
+     */
     Profile next()
     {
         long next = profileSequenceId + 1L;
-        return new Profile( profileName( pagedFile, next ), pagedFile, next );
+        return new Profile( profileName( pagedFile, next, true ), pagedFile, next, true );
     }
 
     static Profile first( File file )
     {
-        return new Profile( profileName( file, 0 ), file, 0 );
+        return new Profile( profileName( file, 0, true ), file, 0, true );
     }
 
-    private static File profileName( File file, long count )
+    private static File profileName( File file, long count, boolean heatFormat )
     {
         String name = file.getName();
         File dir = new File( file.getParentFile(), PROFILE_DIR );
-        return new File( dir, name + "." + Long.toString( count ) + SUFFIX_CACHEPROF );
+        return new File( dir, name + "." + Long.toString( count ) + (heatFormat ? HEAT_FORMAT : "") + SUFFIX_CACHEPROF );
     }
 
     static Predicate<Profile> relevantTo( PagedFile pagedFile )
@@ -152,6 +176,53 @@ final class Profile implements Comparable<Profile>
         return Stream.of( files ).flatMap( Profile::parseProfileName );
     }
 
+    /**
+     * Reads the heat of each page in a profile, in page id order.
+     */
+    static final class HeatReader implements Closeable
+    {
+        private final InputStream input;
+        private final boolean heatFormat;
+        private int bitmap;
+        private int bitsLeft;
+
+        private HeatReader( InputStream input, boolean heatFormat )
+        {
+            this.input = input;
+            this.heatFormat = heatFormat;
+        }
+
+        /**
+         * @return the heat of the next page, from 0 to 255, or -1 if there are no more pages in the profile.
+         */
+        int next() throws IOException
+        {
+            if ( heatFormat )
+            {
+                return input.read();
+            }
+            if ( bitsLeft == 0 )
+            {
+                bitmap = input.read();
+                if ( bitmap == -1 )
+                {
+                    return -1;
+                }
+                bitsLeft = 8;
+            }
+            int heat = (bitmap & 1) == 1 ? BITMAP_HEAT : 0;
+            bitmap >>= 1;
+            bitsLeft--;
+            return heat;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            input.close();
+        }
+    }
+
     private static Stream<Profile> parseProfileName( File profile )
     {
         File profileFolder = profile.getParentFile();
@@ -161,14 +232,23 @@ final class Profile implements Comparable<Profile>
         {
             return Stream.empty();
         }
+        name = name.substring( 0, name.length() - SUFFIX_CACHEPROF.length() );
+        boolean heatFormat = name.endsWith( HEAT_FORMAT );
+        if ( heatFormat )
+        {
+            name = name.substring( 0, name.length() - HEAT_FORMAT.length() );
+        }
         int lastDot = name.lastIndexOf( '.' );
-        int secondLastDot = name.lastIndexOf( '.', lastDot - 1 );
-        String countStr = name.substring( secondLastDot + 1, lastDot );
+        if ( lastDot == -1 )
+        {
+            return Stream.empty();
+        }
+        String countStr = name.substring( lastDot + 1 );
         try
         {
             long sequenceId = Long.parseLong( countStr, 10 );
-            String mappedFileName = name.substring( 0, secondLastDot );
-            return Stream.of( new Profile( profile, new File( dir, mappedFileName ), sequenceId ) );
+            String mappedFileName = name.substring( 0, lastDot );
+            return Stream.of( new Profile( profile, new File( dir, mappedFileName ), sequenceId, heatFormat ) );
         }
         catch ( NumberFormatException e )
         {
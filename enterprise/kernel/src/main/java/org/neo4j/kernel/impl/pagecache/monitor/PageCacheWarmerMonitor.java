@@ -24,5 +24,7 @@ public interface PageCacheWarmerMonitor
 
     void warmupCompleted( long pagesLoaded );
 
+    void warmupProgress( long pagesLoaded, long pagesToLoad );
+
     void profileCompleted( long pagesInMemory );
 }
@@ -32,6 +32,12 @@ public class PageCacheWarmerMonitorAdapter implements PageCacheWarmerMonitor
         //nothing
     }
 
+    @Override
+    public void warmupProgress( long pagesLoaded, long pagesToLoad )
+    {
+        //nothing
+    }
+
     @Override
     public void profileCompleted( long pagesInMemory )
     {
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB Enterprise Edition. The included source
+ * code can be redistributed and/or modified under the terms of the
+ * GNU AFFERO GENERAL PUBLIC LICENSE Version 3
+ * (http://www.fsf.org/licensing/licenses/agpl-3.0.html) as found
+ * in the associated LICENSE.txt file.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ */
+package org.neo4j.kernel.impl.enterprise.transaction.log.checkpoint;
+
+import org.junit.Test;
+
+import java.io.Flushable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.kernel.configuration.Config;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.helpers.collection.MapUtil.stringMap;
+import static org.neo4j.kernel.impl.enterprise.transaction.log.checkpoint.AdaptiveIOLimiter.CONTROL_INTERVAL_MILLIS;
+import static org.neo4j.kernel.impl.enterprise.transaction.log.checkpoint.AdaptiveIOLimiter.MAX_IOPS;
+import static org.neo4j.kernel.impl.enterprise.transaction.log.checkpoint.AdaptiveIOLimiter.MIN_IOPS;
+
+public class AdaptiveIOLimiterTest
+{
+    private static final String ORIGIN = "test";
+    private static final Flushable FLUSHABLE = () -> {};
+    private static final long TARGET_LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos( 10 );
+
+    private final AtomicLong clock = new AtomicLong( 1_000_000 );
+    private final List<String> decisions = new ArrayList<>();
+    private Config config;
+    private AdaptiveIOLimiter limiter;
+
+    private void createIOLimiter( int limit )
+    {
+        config = Config.defaults( stringMap(
+                GraphDatabaseSettings.check_point_iops_limit.name(), "" + limit,
+                GraphDatabaseSettings.check_point_iops_adaptive_target_latency.name(), "10ms" ) );
+        AdaptiveIOLimiter.Monitor monitor = ( previousIOPS, iops, forces, meanForceLatencyNanos ) ->
+                decisions.add( previousIOPS + "->" + iops );
+        limiter = new AdaptiveIOLimiter( config, monitor, ( blocker, nanos ) -> {}, clock::get );
+    }
+
+    @Test
+    public void mustStartAtConfiguredLimit()
+    {
+        createIOLimiter( 1000 );
+        assertEquals( 1000, limiter.currentIOPSLimit() );
+    }
+
+    @Test
+    public void mustStartAtMaximumLimitWhenConfiguredToBeUnlimited()
+    {
+        createIOLimiter( -1 );
+        assertEquals( MAX_IOPS, limiter.currentIOPSLimit() );
+    }
+
+    @Test
+    public void mustHalveLimitWhenLogForcesAreSlowerThanTarget()
+    {
+        createIOLimiter( 1000 );
+
+        controlInterval( 10, TARGET_LATENCY_NANOS * 2 );
+        controlInterval( 10, TARGET_LATENCY_NANOS * 2 );
+
+        assertEquals( 250, limiter.currentIOPSLimit() );
+        assertThat( decisions, contains( "1000->500", "500->250" ) );
+    }
+
+    @Test
+    public void mustRaiseLimitWhenLogForcesAreWellBelowTarget()
+    {
+        createIOLimiter( 1000 );
+
+        controlInterval( 10, TARGET_LATENCY_NANOS / 4 );
+
+        assertEquals( 1250, limiter.currentIOPSLimit() );
+    }
+
+    @Test
+    public void mustKeepLimitWhenLogForcesAreCloseToTarget()
+    {
+        createIOLimiter( 1000 );
+
+        controlInterval( 10, TARGET_LATENCY_NANOS * 3 / 4 );
+
+        assertEquals( 1000, limiter.currentIOPSLimit() );
+        assertThat( decisions, contains( "1000->1000" ) );
+    }
+
+    @Test
+    public void mustDoubleLimitWhenNothingIsCommitting()
+    {
+        createIOLimiter( 1000 );
+
+        controlInterval( 0, 0 );
+
+        assertEquals( 2000, limiter.currentIOPSLimit() );
+    }
+
+    @Test
+    public void mustKeepLimitWithinBounds()
+    {
+        createIOLimiter( 1000 );
+        for ( int i = 0; i < 20; i++ )
+        {
+            controlInterval( 1, TARGET_LATENCY_NANOS * 2 );
+        }
+        assertEquals( MIN_IOPS, limiter.currentIOPSLimit() );
+
+        for ( int i = 0; i < 20; i++ )
+        {
+            controlInterval( 0, 0 );
+        }
+        assertEquals( MAX_IOPS, limiter.currentIOPSLimit() );
+    }
+
+    @Test
+    public void mustIgnoreLogForcesFromBeforeCheckPointStarted()
+    {
+        createIOLimiter( 1000 );
+        limiter.maybeLimitIO( IOLimiter.INITIAL_STAMP, 1, FLUSHABLE );
+
+        // Slow forces while no checkpoint is flushing
+        logForces( 10, TARGET_LATENCY_NANOS * 2 );
+        clock.addAndGet( CONTROL_INTERVAL_MILLIS * 10 );
+        limiter.maybeLimitIO( IOLimiter.INITIAL_STAMP, 1, FLUSHABLE );
+
+        assertEquals( 1000, limiter.currentIOPSLimit() );
+        assertTrue( decisions.isEmpty() );
+
+        controlInterval( 10, TARGET_LATENCY_NANOS / 4 );
+        assertEquals( 1250, limiter.currentIOPSLimit() );
+    }
+
+    @Test
+    public void mustResetLimitWhenConfigurationChanges()
+    {
+        createIOLimiter( 1000 );
+        controlInterval( 10, TARGET_LATENCY_NANOS * 2 );
+
+        config.updateDynamicSetting( GraphDatabaseSettings.check_point_iops_limit.name(), "3000", ORIGIN );
+        assertEquals( 3000, limiter.currentIOPSLimit() );
+
+        config.updateDynamicSetting( GraphDatabaseSettings.check_point_iops_limit.name(), "-1", ORIGIN );
+        assertEquals( MAX_IOPS, limiter.currentIOPSLimit() );
+        assertThat( limiter.isLimited(), is( true ) );
+    }
+
+    private void controlInterval( int forces, long forceNanos )
+    {
+        logForces( forces, forceNanos );
+        clock.addAndGet( CONTROL_INTERVAL_MILLIS );
+        limiter.maybeLimitIO( IOLimiter.INITIAL_STAMP, 1, FLUSHABLE );
+    }
+
+    private void logForces( int forces, long forceNanos )
+    {
+        for ( int i = 0; i < forces; i++ )
+        {
+            limiter.logForced( 1, 0, forceNanos );
+        }
+    }
+}
@@ -20,6 +20,7 @@ package org.neo4j.kernel.impl.pagecache;
 
 import org.eclipse.collections.api.iterator.IntIterator;
 import org.eclipse.collections.api.set.primitive.MutableIntSet;
+import org.eclipse.collections.impl.list.mutable.primitive.IntArrayList;
 import org.eclipse.collections.impl.set.mutable.primitive.IntHashSet;
 import org.junit.After;
 import org.junit.Before;
@@ -29,13 +30,16 @@ import org.junit.rules.RuleChain;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.OptionalLong;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.GZIPOutputStream;
 
 import org.neo4j.graphdb.Resource;
 import org.neo4j.io.ByteUnit;
@@ -45,6 +49,8 @@ import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.DefaultPageCursorTracerSupplier;
+import org.neo4j.kernel.impl.pagecache.monitor.PageCacheWarmerMonitor;
+import org.neo4j.kernel.impl.pagecache.monitor.PageCacheWarmerMonitorAdapter;
 import org.neo4j.kernel.lifecycle.LifeSupport;
 import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.StoreFileMetadata;
@@ -56,6 +62,7 @@ import org.neo4j.test.rule.fs.FileSystemRule;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
@@ -277,6 +284,144 @@ public class PageCacheWarmerTest
         }
     }
 
+    @Test
+    public void profileMustRecordDecayedHeatOfPages() throws Exception
+    {
+        try ( PageCache pageCache = pageCacheRule.getPageCache( fs, cfg );
+              PagedFile pf = pageCache.map( file, pageCache.pageSize(), StandardOpenOption.CREATE ) )
+        {
+            try ( PageCursor writer = pf.io( 0, PagedFile.PF_SHARED_WRITE_LOCK ) )
+            {
+                assertTrue( writer.next( 1 ) );
+                assertTrue( writer.next( 3 ) );
+            }
+            pf.flushAndForce();
+            PageCacheWarmer warmer = new PageCacheWarmer( fs, pageCache, scheduler, testDirectory.databaseDir() );
+            warmer.start();
+            warmer.profile();
+        }
+
+        try ( PageCache pageCache = pageCacheRule.getPageCache( fs, cfg );
+              PagedFile pf = pageCache.map( file, pageCache.pageSize() ) )
+        {
+            try ( PageCursor reader = pf.io( 0, PagedFile.PF_SHARED_READ_LOCK ) )
+            {
+                assertTrue( reader.next( 1 ) );
+            }
+            PageCacheWarmer warmer = new PageCacheWarmer( fs, pageCache, scheduler, testDirectory.databaseDir() );
+            warmer.start();
+            warmer.profile();
+        }
+
+        Profile latestProfile = Profile.findProfilesInDirectory( fs, testDirectory.databaseDir() )
+                .max( Comparator.naturalOrder() ).get();
+        int resident = PageCacheWarmer.HEAT_RESIDENT;
+        assertThat( readHeat( latestProfile ), is( new int[]{0, resident + resident / 2, 0, resident / 2} ) );
+    }
+
+    @Test
+    public void mustReheatFromBitmapProfiles() throws Exception
+    {
+        try ( PageCache pageCache = pageCacheRule.getPageCache( fs, cfg );
+              PagedFile pf = pageCache.map( file, pageCache.pageSize(), StandardOpenOption.CREATE ) )
+        {
+            try ( PageCursor writer = pf.io( 0, PagedFile.PF_SHARED_WRITE_LOCK ) )
+            {
+                assertTrue( writer.next( 3 ) );
+            }
+            pf.flushAndForce();
+        }
+        writeBitmapProfile( 0b1010 ); // Pages 1 and 3 were in memory.
+
+        clearTracerCounts();
+        long initialFaults = cacheTracer.faults();
+        try ( PageCache pageCache = pageCacheRule.getPageCache( fs, cfg );
+              PagedFile ignore = pageCache.map( file, pageCache.pageSize() ) )
+        {
+            PageCacheWarmer warmer = new PageCacheWarmer( fs, pageCache, scheduler, testDirectory.databaseDir() );
+            warmer.start();
+            assertThat( warmer.reheat(), is( OptionalLong.of( 2 ) ) );
+            pageCache.reportEvents();
+            assertThat( cacheTracer.faults(), is( initialFaults + 2L ) );
+        }
+    }
+
+    @Test
+    public void mustReadBitmapProfilesThatStartLikeHeatProfilesAsBitmaps() throws Exception
+    {
+        writeBitmapProfile( 'h', 'e', 'a', 't', 0b1 );
+
+        Profile bitmapProfile = Profile.findProfilesInDirectory( fs, testDirectory.databaseDir() ).findFirst().get();
+        int[] heat = readHeat( bitmapProfile );
+
+        assertThat( heat.length, is( 40 ) );
+        assertThat( heat[3], is( Profile.BITMAP_HEAT ) ); // Lowest raised bit of 'h'
+        assertThat( heat[0], is( 0 ) );
+        assertThat( heat[32], is( Profile.BITMAP_HEAT ) );
+        assertThat( Profile.BITMAP_HEAT, not( PageCacheWarmer.HEAT_RESIDENT ) );
+    }
+
+    @Test
+    public void mustWriteHeatProfileAfterBitmapProfile() throws Exception
+    {
+        try ( PageCache pageCache = pageCacheRule.getPageCache( fs, cfg );
+              PagedFile pf = pageCache.map( file, pageCache.pageSize(), StandardOpenOption.CREATE ) )
+        {
+            try ( PageCursor writer = pf.io( 0, PagedFile.PF_SHARED_WRITE_LOCK ) )
+            {
+                assertTrue( writer.next( 1 ) );
+            }
+            writeBitmapProfile( 0b10 );
+
+            PageCacheWarmer warmer = new PageCacheWarmer( fs, pageCache, scheduler, testDirectory.databaseDir() );
+            warmer.start();
+            warmer.profile();
+        }
+
+        Profile latestProfile = Profile.findProfilesInDirectory( fs, testDirectory.databaseDir() )
+                .max( Comparator.naturalOrder() ).get();
+        assertThat( latestProfile.file().getName(), is( file.getName() + ".1.heat" + PageCacheWarmer.SUFFIX_CACHEPROF ) );
+        assertThat( readHeat( latestProfile ), is( new int[]{0, PageCacheWarmer.HEAT_RESIDENT + Profile.BITMAP_HEAT / 2} ) );
+    }
+
+    @Test
+    public void reheatMustReportProgress() throws Exception
+    {
+        try ( PageCache pageCache = pageCacheRule.getPageCache( fs, cfg );
+              PagedFile pf = pageCache.map( file, pageCache.pageSize(), StandardOpenOption.CREATE ) )
+        {
+            try ( PageCursor writer = pf.io( 0, PagedFile.PF_SHARED_WRITE_LOCK ) )
+            {
+                assertTrue( writer.next( 1 ) );
+                assertTrue( writer.next( 3 ) );
+            }
+            pf.flushAndForce();
+            PageCacheWarmer warmer = new PageCacheWarmer( fs, pageCache, scheduler, testDirectory.databaseDir() );
+            warmer.start();
+            warmer.profile();
+        }
+
+        List<long[]> progress = new ArrayList<>();
+        PageCacheWarmerMonitor monitor = new PageCacheWarmerMonitorAdapter()
+        {
+            @Override
+            public void warmupProgress( long pagesLoaded, long pagesToLoad )
+            {
+                progress.add( new long[]{pagesLoaded, pagesToLoad} );
+            }
+        };
+        try ( PageCache pageCache = pageCacheRule.getPageCache( fs, cfg );
+              PagedFile ignore = pageCache.map( file, pageCache.pageSize() ) )
+        {
+            PageCacheWarmer warmer = new PageCacheWarmer(
+                    fs, pageCache, scheduler, testDirectory.databaseDir(), monitor );
+            warmer.start();
+            warmer.reheat();
+        }
+        assertThat( progress.get( 0 ), is( new long[]{0, 2} ) );
+        assertThat( progress.get( progress.size() - 1 ), is( new long[]{2, 2} ) );
+    }
+
     @SuppressWarnings( "unused" )
     @Test
     public void profileMustNotDeleteFilesCurrentlyExposedViaFileListing() throws Exception
@@ -371,6 +516,34 @@ public class PageCacheWarmerTest
         }
     }
 
+    private void writeBitmapProfile( int... bitmap ) throws IOException
+    {
+        // Named like the profiles that were written before pages had heat
+        File profile = new File( new File( testDirectory.databaseDir(), "profiles" ), file.getName() + ".0" + PageCacheWarmer.SUFFIX_CACHEPROF );
+        fs.mkdirs( profile.getParentFile() );
+        try ( OutputStream output = new GZIPOutputStream( fs.openAsOutputStream( profile, false ) ) )
+        {
+            for ( int bits : bitmap )
+            {
+                output.write( bits );
+            }
+        }
+    }
+
+    private int[] readHeat( Profile profile ) throws IOException
+    {
+        IntArrayList heat = new IntArrayList();
+        try ( Profile.HeatReader reader = profile.readHeat( fs ) )
+        {
+            int pageHeat;
+            while ( (pageHeat = reader.next()) != -1 )
+            {
+                heat.add( pageHeat );
+            }
+        }
+        return heat.toArray();
+    }
+
     private static int[] randomSortedPageIds( int maxPagesInMemory )
     {
         MutableIntSet setIds = new IntHashSet();
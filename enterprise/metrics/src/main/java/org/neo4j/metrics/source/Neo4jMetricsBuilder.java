@@ -23,6 +23,7 @@ import com.codahale.metrics.MetricRegistry;
 import java.util.function.Supplier;
 
 import org.neo4j.causalclustering.core.consensus.CoreMetaData;
+import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.monitoring.PageCacheCounters;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.ha.cluster.member.ClusterMembers;
@@ -32,6 +33,7 @@ import org.neo4j.kernel.impl.factory.OperationalMode;
 import org.neo4j.kernel.impl.spi.KernelContext;
 import org.neo4j.kernel.impl.store.stats.StoreEntityCounters;
 import org.neo4j.kernel.impl.transaction.log.TransactionIdStore;
+import org.neo4j.kernel.impl.transaction.log.entry.CommandCompression;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointerMonitor;
 import org.neo4j.kernel.impl.transaction.state.DataSourceManager;
 import org.neo4j.kernel.impl.transaction.stats.TransactionCounters;
@@ -76,6 +78,8 @@ public class Neo4jMetricsBuilder
 
         PageCacheCounters pageCacheCounters();
 
+        PageCache pageCache();
+
         Supplier<ClusterMembers> clusterMembers();
 
         Supplier<CoreMetaData> raft();
@@ -100,14 +104,16 @@ public class Neo4jMetricsBuilder
         boolean result = false;
         if ( config.get( MetricsSettings.neoTxEnabled ) )
         {
-            life.add( new TransactionMetrics( registry, databaseDependencySupplier( TransactionIdStore.class ),
-                    dependencies.transactionCounters() ) );
+            life.add( new TransactionMetrics( registry, dependencies.monitors(),
+                    databaseDependencySupplier( TransactionIdStore.class ),
+                    databaseDependencySupplier( CommandCompression.class ), dependencies.transactionCounters() ) );
             result = true;
         }
 
         if ( config.get( MetricsSettings.neoPageCacheEnabled ) )
         {
-            life.add( new PageCacheMetrics( registry, dependencies.pageCacheCounters() ) );
+            life.add( new PageCacheMetrics( registry, dependencies.monitors(), dependencies.pageCacheCounters(),
+                    dependencies.pageCache() ) );
             result = true;
         }
 
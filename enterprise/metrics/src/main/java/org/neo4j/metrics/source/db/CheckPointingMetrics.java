@@ -22,9 +22,11 @@ import com.codahale.metrics.Gauge;
 import com.codahale.metrics.MetricRegistry;
 
 import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
 import org.neo4j.kernel.impl.annotations.Documented;
+import org.neo4j.kernel.impl.enterprise.transaction.log.checkpoint.AdaptiveIOLimiter;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointerMonitor;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.DefaultCheckPointerTracer;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
@@ -45,11 +47,18 @@ public class CheckPointingMetrics extends LifecycleAdapter
     public static final String CHECK_POINT_TOTAL_TIME = name( CHECK_POINT_PREFIX, "total_time" );
     @Documented( "The duration of the check point event" )
     public static final String CHECK_POINT_DURATION = name( CHECK_POINT_PREFIX, "check_point_duration" );
+    @Documented( "The IOPS limit that the adaptive IO limiter last settled on for check point flushing" )
+    public static final String CHECK_POINT_IOPS_LIMIT = name( CHECK_POINT_PREFIX, "iops_limit" );
+    @Documented( "The total number of times the adaptive IO limiter has raised the check point IOPS limit" )
+    public static final String CHECK_POINT_IOPS_LIMIT_INCREASES = name( CHECK_POINT_PREFIX, "iops_limit_increases" );
+    @Documented( "The total number of times the adaptive IO limiter has lowered the check point IOPS limit" )
+    public static final String CHECK_POINT_IOPS_LIMIT_DECREASES = name( CHECK_POINT_PREFIX, "iops_limit_decreases" );
 
     private final MetricRegistry registry;
     private final Monitors monitors;
     private final Supplier<CheckPointerMonitor> checkPointerMonitorSupplier;
     private final DefaultCheckPointerTracer.Monitor listener;
+    private final IOLimitMonitor ioLimitMonitor = new IOLimitMonitor();
 
     public CheckPointingMetrics( EventReporter reporter, MetricRegistry registry,
             Monitors monitors, Supplier<CheckPointerMonitor> checkPointerMonitorSupplier )
@@ -69,19 +78,48 @@ public class CheckPointingMetrics extends LifecycleAdapter
     public void start()
     {
         monitors.addMonitorListener( listener );
+        monitors.addMonitorListener( ioLimitMonitor );
 
         CheckPointerMonitor checkPointerMonitor = checkPointerMonitorSupplier.get();
         registry.register( CHECK_POINT_EVENTS, (Gauge<Long>) checkPointerMonitor::numberOfCheckPointEvents );
         registry.register( CHECK_POINT_TOTAL_TIME,
                 (Gauge<Long>) checkPointerMonitor::checkPointAccumulatedTotalTimeMillis );
+        registry.register( CHECK_POINT_IOPS_LIMIT, (Gauge<Long>) ioLimitMonitor.iops::get );
+        registry.register( CHECK_POINT_IOPS_LIMIT_INCREASES, (Gauge<Long>) ioLimitMonitor.increases::get );
+        registry.register( CHECK_POINT_IOPS_LIMIT_DECREASES, (Gauge<Long>) ioLimitMonitor.decreases::get );
     }
 
     @Override
     public void stop()
     {
         monitors.removeMonitorListener( listener );
+        monitors.removeMonitorListener( ioLimitMonitor );
 
         registry.remove( CHECK_POINT_EVENTS );
         registry.remove( CHECK_POINT_TOTAL_TIME );
+        registry.remove( CHECK_POINT_IOPS_LIMIT );
+        registry.remove( CHECK_POINT_IOPS_LIMIT_INCREASES );
+        registry.remove( CHECK_POINT_IOPS_LIMIT_DECREASES );
+    }
+
+    private static class IOLimitMonitor implements AdaptiveIOLimiter.Monitor
+    {
+        private final AtomicLong iops = new AtomicLong();
+        private final AtomicLong increases = new AtomicLong();
+        private final AtomicLong decreases = new AtomicLong();
+
+        @Override
+        public void iopsLimitAdjusted( int previousIOPS, int iops, long forces, long meanForceLatencyNanos )
+        {
+            this.iops.set( iops );
+            if ( iops > previousIOPS )
+            {
+                increases.incrementAndGet();
+            }
+            else if ( iops < previousIOPS )
+            {
+                decreases.incrementAndGet();
+            }
+        }
     }
 }
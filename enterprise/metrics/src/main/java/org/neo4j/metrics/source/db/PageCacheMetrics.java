@@ -21,9 +21,17 @@ package org.neo4j.metrics.source.db;
 import com.codahale.metrics.Gauge;
 import com.codahale.metrics.MetricRegistry;
 
+import java.io.IOException;
+import java.util.Optional;
+
+import org.neo4j.io.layout.DatabaseFile;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.io.pagecache.monitoring.PageCacheCounters;
 import org.neo4j.kernel.impl.annotations.Documented;
+import org.neo4j.kernel.impl.pagecache.monitor.PageCacheWarmerMonitorAdapter;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.kernel.monitoring.Monitors;
 
 import static com.codahale.metrics.MetricRegistry.name;
 
@@ -50,14 +58,42 @@ public class PageCacheMetrics extends LifecycleAdapter
     public static final String PC_HIT_RATIO = name( PAGE_CACHE_PREFIX, "hit_ratio" );
     @Documented( "The ratio of number of used pages to total number of available pages" )
     public static final String PC_USAGE_RATIO = name( PAGE_CACHE_PREFIX, "usage_ratio" );
+    @Documented( "The total number of pages faulted in by read-ahead in the page cache" )
+    public static final String PC_READ_AHEAD_PAGES = name( PAGE_CACHE_PREFIX, "read_ahead_pages" );
+    @Documented( "The total number of page hits on pages that were faulted in by read-ahead" )
+    public static final String PC_READ_AHEAD_HITS = name( PAGE_CACHE_PREFIX, "read_ahead_hits" );
+    @Documented( "The total number of read-ahead attempts that failed and were abandoned" )
+    public static final String PC_READ_AHEAD_FAILURES = name( PAGE_CACHE_PREFIX, "read_ahead_failures" );
+    @Documented( "The number of dirty pages seen by the latest sweep of the background page writer" )
+    public static final String PC_DIRTY_PAGES = name( PAGE_CACHE_PREFIX, "dirty_pages" );
+    @Documented( "The total number of pages written out by the background page writer" )
+    public static final String PC_BACKGROUND_WRITES = name( PAGE_CACHE_PREFIX, "background_writes" );
+    @Documented( "The total number of page faults that were served by the compressed page tier" )
+    public static final String PC_COMPRESSED_TIER_HITS = name( PAGE_CACHE_PREFIX, "compressed_tier", "hits" );
+    @Documented( "The total number of page faults that could not be served by the compressed page tier" )
+    public static final String PC_COMPRESSED_TIER_MISSES = name( PAGE_CACHE_PREFIX, "compressed_tier", "misses" );
+    @Documented( "The number of pages in the page cache that belong to each store file, " +
+                 "and to all other mapped files, such as indexes" )
+    public static final String PC_OCCUPANCY = name( PAGE_CACHE_PREFIX, "occupancy" );
+    @Documented( "The number of pages loaded by the page cache warmup since the database started" )
+    public static final String PC_WARMUP_PAGES_LOADED = name( PAGE_CACHE_PREFIX, "warmup", "pages_loaded" );
+    @Documented( "The ratio of pages loaded by the page cache warmup to the number of pages it is going to load" )
+    public static final String PC_WARMUP_PROGRESS = name( PAGE_CACHE_PREFIX, "warmup", "progress" );
+    private static final String OTHER_FILES = "other";
 
     private final MetricRegistry registry;
+    private final Monitors monitors;
     private final PageCacheCounters pageCacheCounters;
+    private final PageCache pageCache;
+    private final WarmupProgressMonitor warmupProgress = new WarmupProgressMonitor();
 
-    public PageCacheMetrics( MetricRegistry registry, PageCacheCounters pageCacheCounters )
+    public PageCacheMetrics( MetricRegistry registry, Monitors monitors, PageCacheCounters pageCacheCounters,
+            PageCache pageCache )
     {
         this.registry = registry;
+        this.monitors = monitors;
         this.pageCacheCounters = pageCacheCounters;
+        this.pageCache = pageCache;
     }
 
     @Override
@@ -72,6 +108,47 @@ public class PageCacheMetrics extends LifecycleAdapter
         registry.register( PC_EVICTION_EXCEPTIONS, (Gauge<Long>) pageCacheCounters::evictionExceptions );
         registry.register( PC_HIT_RATIO, (Gauge<Double>) pageCacheCounters::hitRatio );
         registry.register( PC_USAGE_RATIO, (Gauge<Double>) pageCacheCounters::usageRatio );
+        registry.register( PC_READ_AHEAD_PAGES, (Gauge<Long>) pageCacheCounters::readAheadPages );
+        registry.register( PC_READ_AHEAD_HITS, (Gauge<Long>) pageCacheCounters::readAheadHits );
+        registry.register( PC_READ_AHEAD_FAILURES, (Gauge<Long>) pageCacheCounters::readAheadFailures );
+        registry.register( PC_DIRTY_PAGES, (Gauge<Long>) pageCacheCounters::dirtyPages );
+        registry.register( PC_BACKGROUND_WRITES, (Gauge<Long>) pageCacheCounters::backgroundWrites );
+        registry.register( PC_COMPRESSED_TIER_HITS, (Gauge<Long>) pageCacheCounters::compressedTierHits );
+        registry.register( PC_COMPRESSED_TIER_MISSES, (Gauge<Long>) pageCacheCounters::compressedTierMisses );
+        monitors.addMonitorListener( warmupProgress );
+        registry.register( PC_WARMUP_PAGES_LOADED, (Gauge<Long>) () -> warmupProgress.pagesLoaded );
+        registry.register( PC_WARMUP_PROGRESS, (Gauge<Double>) warmupProgress::progress );
+        for ( DatabaseFile databaseFile : DatabaseFile.values() )
+        {
+            if ( databaseFile == DatabaseFile.COUNTS_STORE_A || databaseFile == DatabaseFile.COUNTS_STORE_B )
+            {
+                continue; // Both are reported as COUNTS_STORES.
+            }
+            registry.register( name( PC_OCCUPANCY, databaseFile.name().toLowerCase() ),
+                    (Gauge<Long>) () -> residentPages( Optional.of( databaseFile ) ) );
+        }
+        registry.register( name( PC_OCCUPANCY, OTHER_FILES ), (Gauge<Long>) () -> residentPages( Optional.empty() ) );
+    }
+
+    private long residentPages( Optional<DatabaseFile> databaseFile )
+    {
+        long residentPages = 0;
+        try
+        {
+            for ( PagedFile pagedFile : pageCache.listExistingMappings() )
+            {
+                if ( DatabaseFile.fileOf( pagedFile.file().getName() ).equals( databaseFile ) )
+                {
+                    residentPages += pagedFile.residentPages();
+                }
+            }
+        }
+        catch ( IOException e )
+        {
+            // The page cache has been closed, so nothing is resident.
+            return 0;
+        }
+        return residentPages;
     }
 
     @Override
@@ -86,5 +163,35 @@ public class PageCacheMetrics extends LifecycleAdapter
         registry.remove( PC_EVICTION_EXCEPTIONS );
         registry.remove( PC_HIT_RATIO );
         registry.remove( PC_USAGE_RATIO );
+        registry.remove( PC_READ_AHEAD_PAGES );
+        registry.remove( PC_READ_AHEAD_HITS );
+        registry.remove( PC_READ_AHEAD_FAILURES );
+        registry.remove( PC_DIRTY_PAGES );
+        registry.remove( PC_BACKGROUND_WRITES );
+        registry.remove( PC_COMPRESSED_TIER_HITS );
+        registry.remove( PC_COMPRESSED_TIER_MISSES );
+        monitors.removeMonitorListener( warmupProgress );
+        registry.remove( PC_WARMUP_PAGES_LOADED );
+        registry.remove( PC_WARMUP_PROGRESS );
+        registry.removeMatching( ( name, metric ) -> name.startsWith( PC_OCCUPANCY ) );
+    }
+
+    private static class WarmupProgressMonitor extends PageCacheWarmerMonitorAdapter
+    {
+        private volatile long pagesLoaded;
+        private volatile long pagesToLoad;
+
+        @Override
+        public void warmupProgress( long pagesLoaded, long pagesToLoad )
+        {
+            this.pagesLoaded = pagesLoaded;
+            this.pagesToLoad = pagesToLoad;
+        }
+
+        double progress()
+        {
+            long toLoad = pagesToLoad;
+            return toLoad == 0 ? 1.0 : Math.min( 1.0, (double) pagesLoaded / toLoad );
+        }
     }
 }
@@ -19,14 +19,19 @@
 package org.neo4j.metrics.source.db;
 
 import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
 import com.codahale.metrics.MetricRegistry;
 
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 import org.neo4j.kernel.impl.annotations.Documented;
+import org.neo4j.kernel.impl.transaction.log.BatchingTransactionAppender;
 import org.neo4j.kernel.impl.transaction.log.TransactionIdStore;
+import org.neo4j.kernel.impl.transaction.log.entry.CommandCompression;
 import org.neo4j.kernel.impl.transaction.stats.TransactionCounters;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.kernel.monitoring.Monitors;
 
 import static com.codahale.metrics.MetricRegistry.name;
 
@@ -73,15 +78,37 @@ public class TransactionMetrics extends LifecycleAdapter
     @Documented( "The ID of the last closed transaction" )
     public static final String LAST_CLOSED_TX_ID = name( TRANSACTION_PREFIX, "last_closed_tx_id" );
 
+    @Documented( "The distribution of the number of commits made durable by each force of the transaction log" )
+    public static final String TX_LOG_FORCE_BATCH_SIZE = name( TRANSACTION_PREFIX, "log_force", "batch_size" );
+    @Documented( "The distribution of the time in microseconds that forces of the transaction log were delayed " +
+            "to let more commits join them" )
+    public static final String TX_LOG_FORCE_WAIT_TIME = name( TRANSACTION_PREFIX, "log_force", "wait_time" );
+
+    @Documented( "The ratio between the size of transaction commands before and after compression in the " +
+            "transaction log, or 1 if transaction log compression is disabled" )
+    public static final String TX_LOG_COMPRESSION_RATIO = name( TRANSACTION_PREFIX, "log_compression", "ratio" );
+    @Documented( "The total number of transaction command bytes that have been compressed in the transaction log" )
+    public static final String TX_LOG_COMPRESSION_UNCOMPRESSED_BYTES =
+            name( TRANSACTION_PREFIX, "log_compression", "uncompressed_bytes" );
+    @Documented( "The total number of bytes that transaction commands have been compressed into in the transaction log" )
+    public static final String TX_LOG_COMPRESSION_COMPRESSED_BYTES =
+            name( TRANSACTION_PREFIX, "log_compression", "compressed_bytes" );
+
     private final MetricRegistry registry;
+    private final Monitors monitors;
     private final TransactionCounters transactionCounters;
     private final Supplier<TransactionIdStore> transactionIdStore;
+    private final Supplier<CommandCompression> commandCompression;
+    private final LogForceMonitor logForceMonitor = new LogForceMonitor();
 
-    public TransactionMetrics( MetricRegistry registry,
-            Supplier<TransactionIdStore> transactionIdStore, TransactionCounters transactionCounters )
+    public TransactionMetrics( MetricRegistry registry, Monitors monitors,
+            Supplier<TransactionIdStore> transactionIdStore, Supplier<CommandCompression> commandCompression,
+            TransactionCounters transactionCounters )
     {
         this.registry = registry;
+        this.monitors = monitors;
         this.transactionIdStore = transactionIdStore;
+        this.commandCompression = commandCompression;
         this.transactionCounters = transactionCounters;
     }
 
@@ -117,6 +144,17 @@ public class TransactionMetrics extends LifecycleAdapter
                 transactionIdStore.get().getLastCommittedTransactionId() );
         registry.register( LAST_CLOSED_TX_ID, (Gauge<Long>) () ->
                 transactionIdStore.get().getLastClosedTransactionId() );
+
+        registry.register( TX_LOG_COMPRESSION_RATIO, (Gauge<Double>) () ->
+                commandCompression.get().compressionRatio() );
+        registry.register( TX_LOG_COMPRESSION_UNCOMPRESSED_BYTES, (Gauge<Long>) () ->
+                commandCompression.get().uncompressedBytes() );
+        registry.register( TX_LOG_COMPRESSION_COMPRESSED_BYTES, (Gauge<Long>) () ->
+                commandCompression.get().compressedBytes() );
+
+        logForceMonitor.batchSizes = registry.histogram( TX_LOG_FORCE_BATCH_SIZE );
+        logForceMonitor.waitTimes = registry.histogram( TX_LOG_FORCE_WAIT_TIME );
+        monitors.addMonitorListener( logForceMonitor );
     }
 
     @Override
@@ -143,5 +181,26 @@ public class TransactionMetrics extends LifecycleAdapter
 
         registry.remove( LAST_COMMITTED_TX_ID );
         registry.remove( LAST_CLOSED_TX_ID );
+
+        registry.remove( TX_LOG_COMPRESSION_RATIO );
+        registry.remove( TX_LOG_COMPRESSION_UNCOMPRESSED_BYTES );
+        registry.remove( TX_LOG_COMPRESSION_COMPRESSED_BYTES );
+
+        monitors.removeMonitorListener( logForceMonitor );
+        registry.remove( TX_LOG_FORCE_BATCH_SIZE );
+        registry.remove( TX_LOG_FORCE_WAIT_TIME );
+    }
+
+    private static class LogForceMonitor implements BatchingTransactionAppender.Monitor
+    {
+        private volatile Histogram batchSizes;
+        private volatile Histogram waitTimes;
+
+        @Override
+        public void logForced( int batchSize, long groupCommitWaitNanos, long forceNanos )
+        {
+            batchSizes.update( batchSize );
+            waitTimes.update( TimeUnit.NANOSECONDS.toMicros( groupCommitWaitNanos ) );
+        }
     }
 }
@@ -36,6 +36,7 @@ import org.neo4j.kernel.impl.enterprise.configuration.OnlineBackupSettings;
 import org.neo4j.test.TestGraphDatabaseFactory;
 import org.neo4j.test.rule.TestDirectory;
 
+import static com.codahale.metrics.MetricRegistry.name;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
@@ -50,6 +51,7 @@ import static org.neo4j.metrics.source.db.PageCacheMetrics.PC_EVICTION_EXCEPTION
 import static org.neo4j.metrics.source.db.PageCacheMetrics.PC_FLUSHES;
 import static org.neo4j.metrics.source.db.PageCacheMetrics.PC_HITS;
 import static org.neo4j.metrics.source.db.PageCacheMetrics.PC_HIT_RATIO;
+import static org.neo4j.metrics.source.db.PageCacheMetrics.PC_OCCUPANCY;
 import static org.neo4j.metrics.source.db.PageCacheMetrics.PC_PAGE_FAULTS;
 import static org.neo4j.metrics.source.db.PageCacheMetrics.PC_PINS;
 import static org.neo4j.metrics.source.db.PageCacheMetrics.PC_UNPINS;
@@ -107,6 +109,8 @@ public class PageCacheMetricsIT
         assertMetrics( "Metrics report should include page cache hits", PC_HITS, greaterThan( 0L ) );
         assertMetrics( "Metrics report should include page cache flushes", PC_FLUSHES, greaterThanOrEqualTo( 0L ) );
         assertMetrics( "Metrics report should include page cache exceptions", PC_EVICTION_EXCEPTIONS, equalTo( 0L ) );
+        assertMetrics( "Metrics report should include page cache occupancy of the node store",
+                name( PC_OCCUPANCY, "node_store" ), greaterThan( 0L ) );
 
         assertEventually(
                 "Metrics report should include page cache hit ratio",
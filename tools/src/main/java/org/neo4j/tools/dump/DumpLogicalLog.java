@@ -40,6 +40,7 @@ import org.neo4j.kernel.impl.transaction.log.entry.CheckPoint;
 import org.neo4j.kernel.impl.transaction.log.entry.InvalidLogEntryHandler;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntry;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommand;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCompressedCommands;
 import org.neo4j.kernel.impl.transaction.log.entry.LogHeader;
 import org.neo4j.kernel.impl.transaction.log.entry.LogHeaderReader;
 import org.neo4j.storageengine.api.StorageCommand;
@@ -161,6 +162,16 @@ public class DumpLogicalLog
                     return true;
                 }
             }
+            if ( logEntry instanceof LogEntryCompressedCommands )
+            {
+                for ( StorageCommand command : ((LogEntryCompressedCommands) logEntry).getCommands() )
+                {
+                    if ( matches( command ) )
+                    {
+                        return true;
+                    }
+                }
+            }
             return false;
         }
 